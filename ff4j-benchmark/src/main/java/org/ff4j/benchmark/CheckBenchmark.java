@@ -0,0 +1,140 @@
+package org.ff4j.benchmark;
+
+/*
+ * #%L
+ * ff4j-benchmark
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.ff4j.FF4j;
+import org.ff4j.audit.AsyncEventPublisher;
+import org.ff4j.audit.repository.InMemoryEventRepository;
+import org.ff4j.cache.InMemoryCacheManager;
+import org.ff4j.core.Feature;
+import org.ff4j.property.store.JdbcPropertyStore;
+import org.ff4j.store.JdbcFeatureStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ * Measure {@link FF4j#check(String)} for the different store configurations, with and without
+ * compiled mode.
+ *
+ * <pre>
+ * mvn package
+ * java -jar target/benchmarks.jar CheckBenchmark -prof gc
+ * </pre>
+ *
+ * Time per operation is reported as ns/op, allocation per operation as 'gc.alloc.rate.norm'
+ * (bytes/op) by the gc profiler.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckBenchmark {
+
+    /** Enabled feature. */
+    private static final String FEATURE_ON = "benchmark-on";
+
+    /** Disabled feature. */
+    private static final String FEATURE_OFF = "benchmark-off";
+
+    /** Store configurations. */
+    @Param({"inmemory", "jdbc-cached", "audited", "audited-async"})
+    public String configuration;
+
+    /** Compiled mode. */
+    @Param({"false", "true"})
+    public boolean compiled;
+
+    /** Instance under test. */
+    private FF4j ff4j;
+
+    /** Embedded database for JDBC configuration. */
+    private EmbeddedDatabase db;
+
+    /**
+     * Initialize ff4j for the configuration.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        ff4j = new FF4j();
+        if ("jdbc-cached".equals(configuration)) {
+            db = new EmbeddedDatabaseBuilder()
+                    .setType(EmbeddedDatabaseType.HSQL)
+                    .addScript("classpath:schema-ddl.sql")
+                    .build();
+            ff4j.setFeatureStore(new JdbcFeatureStore(db));
+            ff4j.setPropertiesStore(new JdbcPropertyStore(db));
+            ff4j.cache(new InMemoryCacheManager());
+        } else if ("audited".equals(configuration)) {
+            ff4j.audit();
+        } else if ("audited-async".equals(configuration)) {
+            ff4j.setEventPublisher(new AsyncEventPublisher(new InMemoryEventRepository()));
+            ff4j.audit();
+        }
+        ff4j.createFeature(new Feature(FEATURE_ON, true));
+        ff4j.createFeature(new Feature(FEATURE_OFF, false));
+        ff4j.compile(compiled);
+    }
+
+    /**
+     * Release resources.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (ff4j.getEventPublisher() instanceof AsyncEventPublisher) {
+            ff4j.getEventPublisher().stop();
+        }
+        ff4j.stop();
+        if (db != null) {
+            db.shutdown();
+        }
+    }
+
+    @Benchmark
+    public boolean checkEnabled() {
+        return ff4j.check(FEATURE_ON);
+    }
+
+    @Benchmark
+    public boolean checkDisabled() {
+        return ff4j.check(FEATURE_OFF);
+    }
+
+}
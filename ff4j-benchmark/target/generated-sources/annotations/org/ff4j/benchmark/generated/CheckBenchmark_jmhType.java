@@ -0,0 +1,4 @@
+package org.ff4j.benchmark.generated;
+public class CheckBenchmark_jmhType extends CheckBenchmark_jmhType_B3 {
+}
+
@@ -26,10 +26,17 @@ import static org.ff4j.audit.EventConstants.SOURCE_JAVA;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.ff4j.audit.Event;
 import org.ff4j.audit.EventBuilder;
 import org.ff4j.audit.EventPublisher;
 import org.ff4j.audit.proxy.FeatureStoreAuditProxy;
@@ -38,18 +45,27 @@ import org.ff4j.audit.repository.EventRepository;
 import org.ff4j.audit.repository.InMemoryEventRepository;
 import org.ff4j.cache.FF4JCacheManager;
 import org.ff4j.cache.FF4jCacheProxy;
+import org.ff4j.cache.InvalidationBus;
+import org.ff4j.cache.InvalidationListener;
+import org.ff4j.cache.InvalidationMessage;
 import org.ff4j.conf.XmlConfig;
 import org.ff4j.conf.XmlParser;
+import org.ff4j.core.CompiledFeature;
+import org.ff4j.core.CompiledFeatureTable;
 import org.ff4j.core.Feature;
 import org.ff4j.core.FeatureStore;
 import org.ff4j.core.FlippingExecutionContext;
 import org.ff4j.core.FlippingStrategy;
+import org.ff4j.exception.FeatureAlreadyExistException;
 import org.ff4j.exception.FeatureNotFoundException;
 import org.ff4j.property.Property;
 import org.ff4j.property.store.InMemoryPropertyStore;
 import org.ff4j.property.store.PropertyStore;
 import org.ff4j.security.AuthorizationsManager;
+import org.ff4j.security.PermissionSnapshot;
+import org.ff4j.store.FeatureStoreCompiledProxy;
 import org.ff4j.store.InMemoryFeatureStore;
+import org.ff4j.utils.Util;
 
 /**
  * Principal class stands as public api to work with FF4J.
@@ -118,10 +134,31 @@ public class FF4j {
     
     /** Post Processing like audit enable. */
     private boolean initialized = false;
+    
+    /** Evaluate features from an immutable snapshot of the store instead of reading it. */
+    private boolean compiled = false;
+    
+    /** Snapshot of the store used by check() when compiled mode is enabled. */
+    private volatile CompiledFeatureTable compiledFeatures = null;
+    
+    /** Age of the snapshot (milliseconds) before the store is read again, 0 to rebuild it only on writes and invalidations. */
+    private long compiledFeaturesTimeToLive = 0;
+    
+    /** Last attempt to rebuild an expired snapshot. */
+    private volatile long compiledFeaturesRefreshDate = 0;
+    
+    /** Set while a check rebuilds the expired snapshot, others keep using the previous one. */
+    private final AtomicBoolean compiledFeaturesRefreshing = new AtomicBoolean(false);
 
     /** Hold flipping execution context as Thread-safe data. */
     private ThreadLocal<FlippingExecutionContext> currentExecutionContext = new ThreadLocal<FlippingExecutionContext>();
     
+    /** Permissions of the user kept in current thread when checks have no execution context. */
+    private final ThreadLocal<PermissionSnapshot> currentPermissions = new ThreadLocal<PermissionSnapshot>();
+    
+    /** Duration permissions are kept in current thread (milliseconds), 0 to read them at each check. */
+    private long permissionsTimeToLive = 0;
+    
     /**
      * This attribute indicates when call the alter bean throw de {@link InvocationTargetException}
      * or the wraps exception thrown by an invoked method or constructor
@@ -174,12 +211,21 @@ public class FF4j {
      * @return current feature status
      */
     public boolean check(String featureID, FlippingExecutionContext executionContext) {
+        // Compiled mode : no access to the store
+        CompiledFeatureTable table = getCompiledFeatureTable();
+        CompiledFeature cf = (table == null) ? null : table.get(featureID);
+        if (cf != null) {
+            return check(cf, executionContext);
+        }
+        
         Feature fp = getFeature(featureID);
         boolean flipped = fp.isEnable();
 
-        // If authorization manager provided, apply security filter
-        if (flipped && getAuthorizationsManager() != null) {
-            flipped = isAllowed(fp);
+        // If authorization manager provided, apply security filter (user read for secured features only)
+        PermissionSnapshot permissions = null;
+        if (flipped && getAuthorizationsManager() != null && !fp.getPermissions().isEmpty()) {
+            permissions = scopedPermissions(executionContext);
+            flipped = isAllowed(fp.getPermissions(), permissions);
         }
 
         // If custom strategy has been defined, delegate flipping to
@@ -191,11 +237,141 @@ public class FF4j {
         currentExecutionContext.set(executionContext);
         
         // Any access is logged into audit system
-        publishCheck(featureID, flipped);
+        publishCheck(featureID, flipped, permissions);
 
         return flipped;
     }
     
+    /**
+     * Evaluate feature from its compiled view.
+     *
+     * @param cf
+     *            compiled feature
+     * @param executionContext
+     *            current execution context
+     * @return current feature status
+     */
+    private boolean check(CompiledFeature cf, FlippingExecutionContext executionContext) {
+        boolean flipped = cf.isEnable();
+        
+        // If authorization manager provided, apply security filter (interned roles)
+        PermissionSnapshot permissions = null;
+        if (flipped && getAuthorizationsManager() != null && !cf.getPermissions().isEmpty()) {
+            permissions = scopedPermissions(executionContext);
+            flipped = (permissions != null) ? cf.isAllowed(permissions) : isAllowed(cf.getPermissions());
+        }
+        
+        // If custom strategy has been defined, delegate flipping to
+        if (flipped && cf.getFlippingStrategy() != null) {
+            flipped = cf.getFlippingStrategy().evaluate(cf.getUid(), getFeatureStore(), executionContext);
+        }
+        
+        // Update current context
+        currentExecutionContext.set(executionContext);
+        
+        // Any access is logged into audit system
+        publishCheck(cf.getUid(), flipped, permissions);
+        
+        return flipped;
+    }
+    
+    /**
+     * Evaluate several features for the same execution context. Features are read from the store
+     * in a single call, user permissions are resolved once and audit events are published as one
+     * batch.
+     * 
+     * @param featureIDs
+     *            features unique identifiers
+     * @param executionContext
+     *            current execution context
+     * @return status of each feature, in the order of the identifiers
+     */
+    public Map<String, Boolean> checkAll(Collection<String> featureIDs, FlippingExecutionContext executionContext) {
+        Util.assertNotNull(featureIDs);
+        Map<String, Boolean> statuses = new LinkedHashMap<String, Boolean>();
+        CompiledFeatureTable table = getCompiledFeatureTable();
+        
+        // Compiled mode : no access to the store, otherwise a single read
+        Set<String> toRead = new HashSet<String>();
+        for (String featureID : featureIDs) {
+            Util.assertHasLength(featureID);
+            if (table == null || table.get(featureID) == null) {
+                toRead.add(featureID);
+            }
+        }
+        Map<String, Feature> features = toRead.isEmpty() ? 
+                new HashMap<String, Feature>() : getFeatureStore().readFeatures(toRead);
+        
+        PermissionSnapshot permissions = null;
+        List<Event> events = new ArrayList<Event>();
+        for (String featureID : featureIDs) {
+            if (statuses.containsKey(featureID)) {
+                continue;
+            }
+            CompiledFeature cf = (table == null) ? null : table.get(featureID);
+            boolean flipped;
+            Set<String> expectedRoles;
+            FlippingStrategy strategy;
+            if (cf != null) {
+                flipped       = cf.isEnable();
+                expectedRoles = cf.getPermissions();
+                strategy      = cf.getFlippingStrategy();
+            } else {
+                Feature fp = features.get(featureID);
+                if (fp == null) {
+                    // Not found : created if autocreate, error otherwise
+                    fp = getFeature(featureID);
+                }
+                flipped       = fp.isEnable();
+                expectedRoles = fp.getPermissions();
+                strategy      = fp.getFlippingStrategy();
+            }
+            
+            // If authorization manager provided, apply security filter (permissions read once)
+            if (flipped && getAuthorizationsManager() != null && !expectedRoles.isEmpty()) {
+                if (permissions == null) {
+                    permissions = scopedPermissions(executionContext);
+                }
+                if (permissions == null) {
+                    permissions = PermissionSnapshot.of(getAuthorizationsManager());
+                }
+                flipped = (cf != null) ? cf.isAllowed(permissions) : permissions.isAllowed(expectedRoles);
+            }
+            
+            // If custom strategy has been defined, delegate flipping to
+            if (flipped && strategy != null) {
+                flipped = strategy.evaluate(featureID, getFeatureStore(), executionContext);
+            }
+            statuses.put(featureID, flipped);
+            if (isEnableAudit()) {
+                events.add(new EventBuilder(this, permissions)
+                        .feature(featureID)
+                        .action(flipped ? ACTION_CHECK_OK : ACTION_CHECK_OFF)
+                        .build());
+            }
+        }
+        
+        // Update current context
+        currentExecutionContext.set(executionContext);
+        
+        // Any access is logged into audit system, with a single publication
+        if (!events.isEmpty()) {
+            getEventPublisher().publishAll(events);
+        }
+        return statuses;
+    }
+    
+    /**
+     * Evaluate several features without execution context.
+     * 
+     * @param featureIDs
+     *            features unique identifiers
+     * @return status of each feature, in the order of the identifiers
+     */
+    public Map<String, Boolean> checkAll(Collection<String> featureIDs) {
+        return checkAll(featureIDs, null);
+    }
+    
     /**
      * Send target event to audit if expected.
      *
@@ -203,10 +379,12 @@ public class FF4j {
      *      feature unique identifier
      * @param checked
      *      if the feature is checked or not
+     * @param permissions
+     *      permissions of the user if already resolved, can be null
      */
-    private void publishCheck(String uid, boolean checked) {
+    private void publishCheck(String uid, boolean checked, PermissionSnapshot permissions) {
         if (isEnableAudit()) {
-            getEventPublisher().publish(new EventBuilder(this)
+            getEventPublisher().publish(new EventBuilder(this, permissions)
                         .feature(uid)
                         .action(checked ? ACTION_CHECK_OK : ACTION_CHECK_OFF)
                         .build());
@@ -237,11 +415,16 @@ public class FF4j {
      */
     public boolean checkOveridingStrategy(String featureID, FlippingStrategy strats, FlippingExecutionContext executionContext) {
         Feature fp = getFeature(featureID);
-        boolean flipped = fp.isEnable() && isAllowed(fp);
+        boolean flipped = fp.isEnable();
+        PermissionSnapshot permissions = null;
+        if (flipped && getAuthorizationsManager() != null && !fp.getPermissions().isEmpty()) {
+            permissions = scopedPermissions(executionContext);
+            flipped = isAllowed(fp.getPermissions(), permissions);
+        }
         if (strats != null) {
             flipped = flipped && strats.evaluate(featureID, getFeatureStore(), executionContext);
         }
-        publishCheck(featureID, flipped);
+        publishCheck(featureID, flipped, permissions);
         return flipped;
     }
 
@@ -253,16 +436,91 @@ public class FF4j {
      * @return if the feature is allowed
      */
     public boolean isAllowed(Feature featureName) {
+        if (getAuthorizationsManager() == null || featureName.getPermissions().isEmpty()) {
+            return true;
+        }
+        return isAllowed(featureName.getPermissions(), scopedPermissions(null));
+    }
+    
+    /**
+     * Match expected permissions with permissions of the user, resolved if needed.
+     * 
+     * @param expectedRoles
+     *            permissions of the feature
+     * @param permissions
+     *            permissions of the user already resolved, can be null
+     * @return if the feature is allowed
+     */
+    private boolean isAllowed(Set<String> expectedRoles, PermissionSnapshot permissions) {
+        if (permissions != null) {
+            return permissions.isAllowed(expectedRoles);
+        }
+        return isAllowed(expectedRoles);
+    }
+    
+    /**
+     * Permissions of current user kept for a scope : in the execution context (reused by every
+     * check with this context) or, without context, in the current thread for
+     * 'permissionsTimeToLive' milliseconds. The snapshot is taken again when the user changes.
+     * 
+     * @param executionContext
+     *            current execution context, can be null
+     * @return permissions of the user, null if no authorization manager or no scope
+     */
+    private PermissionSnapshot scopedPermissions(FlippingExecutionContext executionContext) {
+        AuthorizationsManager authManager = getAuthorizationsManager();
+        if (authManager == null || (executionContext == null && permissionsTimeToLive <= 0)) {
+            return null;
+        }
+        PermissionSnapshot permissions = (executionContext != null) ? 
+                executionContext.getPermissionSnapshot() : currentPermissions.get();
+        if (permissions != null 
+                && (executionContext != null || permissions.isFresh(permissionsTimeToLive)) 
+                && permissions.isSamePrincipal(authManager.getCurrentUserName())) {
+            return permissions;
+        }
+        permissions = PermissionSnapshot.of(authManager);
+        if (executionContext != null) {
+            executionContext.setPermissionSnapshot(permissions);
+        } else {
+            currentPermissions.set(permissions);
+        }
+        return permissions;
+    }
+    
+    /**
+     * Match expected permissions with SecurityProvider roles.
+     * 
+     * @param expectedRoles
+     *            permissions of the feature
+     * @return if the feature is allowed
+     */
+    private boolean isAllowed(Set<String> expectedRoles) {
         // No authorization manager, returning always true
         if (getAuthorizationsManager() == null) {
             return true;
         }
         // if no permissions, the feature is public
-        if (featureName.getPermissions().isEmpty()) {
+        if (expectedRoles.isEmpty()) {
             return true;
         }
-        Set<String> userRoles = getAuthorizationsManager().getCurrentUserPermissions();
-        for (String expectedRole : featureName.getPermissions()) {
+        return hasAnyRole(expectedRoles, getAuthorizationsManager().getCurrentUserPermissions());
+    }
+    
+    /**
+     * Match expected permissions with the roles of the user.
+     * 
+     * @param expectedRoles
+     *            permissions of the feature
+     * @param userRoles
+     *            roles of current user
+     * @return if one of the permissions is granted to the user
+     */
+    private static boolean hasAnyRole(Set<String> expectedRoles, Set<String> userRoles) {
+        if (userRoles == null) {
+            return false;
+        }
+        for (String expectedRole : expectedRoles) {
             if (userRoles.contains(expectedRole)) {
                 return true;
             }
@@ -300,7 +558,10 @@ public class FF4j {
             getFeatureStore().enable(featureID);
         } catch (FeatureNotFoundException fnfe) {
             if (this.autocreate) {
-                getFeatureStore().create(new Feature(featureID, true));
+                if (!autoCreateFeature(new Feature(featureID, true))) {
+                    // Created by another thread in the meantime
+                    getFeatureStore().enable(featureID);
+                }
             } else {
             	throw fnfe;
             }
@@ -396,7 +657,10 @@ public class FF4j {
             getFeatureStore().disable(featureID);
         } catch (FeatureNotFoundException fnfe) {
         	 if (this.autocreate) {
-                 getFeatureStore().create(new Feature(featureID, false));
+                 if (!autoCreateFeature(new Feature(featureID, false))) {
+                     // Created by another thread in the meantime
+                     getFeatureStore().disable(featureID);
+                 }
              } else {
              	throw fnfe;
              }
@@ -429,7 +693,10 @@ public class FF4j {
         } catch (FeatureNotFoundException fnfe) {
             if (this.autocreate) {
                 fp = new Feature(featureID, false);
-                getFeatureStore().create(fp);
+                if (!autoCreateFeature(fp)) {
+                    // Created by another thread in the meantime, use stored value
+                    fp = getFeatureStore().read(featureID);
+                }
             } else {
                 throw fnfe;
             }
@@ -437,6 +704,24 @@ public class FF4j {
         return fp;
     }
     
+    /**
+     * Create missing feature, concurrent callers may try to create the same feature at the
+     * same time : only one succeeds and the others must not fail.
+     *
+     * @param fp
+     *            feature to create
+     * @return
+     *            true if the feature has been created, false if it already exists
+     */
+    private boolean autoCreateFeature(Feature fp) {
+        try {
+            getFeatureStore().create(fp);
+            return true;
+        } catch (FeatureAlreadyExistException faee) {
+            return false;
+        }
+    }
+    
     /**
      * Read property in Store
      * 
@@ -485,11 +770,7 @@ public class FF4j {
      * @since 1.6
      */
     public FF4j importProperties(Collection < Property<?>> properties) {
-        if (properties != null) {
-            for (Property<?> property : properties) {
-                getPropertiesStore().createProperty(property);
-            }
-        }
+        getPropertiesStore().importProperties(properties);
         return this;
     }
 
@@ -549,6 +830,93 @@ public class FF4j {
          return this;
     }
 
+    /**
+     * Enable compiled mode : features are evaluated from an immutable snapshot of the store.
+     * 
+     * The snapshot follows the writes performed through {@link #getFeatureStore()}. Changes made
+     * elsewhere (other nodes, direct access to the database) are only seen with one of : an
+     * {@link InvalidationBus} given to {@link #cache(FF4JCacheManager, InvalidationBus)}, a time to
+     * live with {@link #setCompiledFeaturesTimeToLive(long)}, or calls to {@link #refreshCompiledFeatures()}.
+     * 
+     * @return current instance
+     */
+    public FF4j compile() {
+        return compile(true);
+    }
+    
+    /**
+     * Enable or disable compiled mode.
+     * 
+     * @param val
+     *            target value for compiled flag
+     * @return current instance
+     */
+    public FF4j compile(boolean val) {
+        setCompiled(val);
+        return this;
+    }
+    
+    /**
+     * Rebuild the snapshot of features used in compiled mode, reading the whole store. Write operations
+     * performed through {@link #getFeatureStore()} update it automatically, call it when the store is
+     * updated by another way (another node, direct access to the database...).
+     */
+    public synchronized void refreshCompiledFeatures() {
+        if (!initialized) {
+            init();
+        } else {
+            this.compiledFeatures = compiled ? new CompiledFeatureTable(fstore) : null;
+        }
+    }
+    
+    /**
+     * Update a single feature in the snapshot used in compiled mode, after a write on this feature.
+     * 
+     * @param uid
+     *            feature unique identifier
+     */
+    public synchronized void refreshCompiledFeature(String uid) {
+        CompiledFeatureTable table = compiledFeatures;
+        if (!initialized || table == null) {
+            refreshCompiledFeatures();
+            return;
+        }
+        Feature feature = null;
+        try {
+            feature = fstore.read(uid);
+        } catch (FeatureNotFoundException fnfe) {
+            // Deleted, removed from the table
+        }
+        this.compiledFeatures = table.update(uid, feature);
+    }
+    
+    /**
+     * Snapshot used in compiled mode, rebuilt by the calling thread when older than the time to live.
+     * 
+     * @return
+     *      current table, null if compiled mode is disabled
+     */
+    private CompiledFeatureTable getCompiledFeatureTable() {
+        CompiledFeatureTable table = compiledFeatures;
+        if (table == null || compiledFeaturesTimeToLive <= 0) {
+            return table;
+        }
+        long now = System.currentTimeMillis();
+        if (now - Math.max(table.getCreationTime(), compiledFeaturesRefreshDate) > compiledFeaturesTimeToLive
+                && compiledFeaturesRefreshing.compareAndSet(false, true)) {
+            try {
+                compiledFeaturesRefreshDate = now;
+                refreshCompiledFeatures();
+                table = compiledFeatures;
+            } catch (RuntimeException re) {
+                // Store not available : keep the expired table, read again after the time to live
+            } finally {
+                compiledFeaturesRefreshing.set(false);
+            }
+        }
+        return table;
+    }
+
     /**
      * Delete feature name.
      * 
@@ -580,12 +948,48 @@ public class FF4j {
      *      current ff4j bean
      */
     public FF4j cache(FF4JCacheManager cm) {
-        FF4jCacheProxy cp = new FF4jCacheProxy(getFeatureStore(), getPropertiesStore(), cm);
+        FeatureStore fs = getFeatureStore();
+        // Compiled proxy must stay the outermost one
+        if (fs instanceof FeatureStoreCompiledProxy) {
+            fs = ((FeatureStoreCompiledProxy) fs).getTarget();
+        }
+        FF4jCacheProxy cp = new FF4jCacheProxy(fs, getPropertiesStore(), cm);
         setFeatureStore(cp);
         setPropertiesStore(cp);
         return this;
     }
     
+    /**
+     * Enable a cache proxy sharing invalidations with other nodes through a bus.
+     * 
+     * @param cm
+     *      current cache manager
+     * @param bus
+     *      invalidation bus shared by the nodes
+     * @return
+     *      current ff4j bean
+     */
+    public FF4j cache(FF4JCacheManager cm, InvalidationBus bus) {
+        cache(cm);
+        final FF4jCacheProxy cp = getCacheProxy();
+        cp.setInvalidationBus(bus);
+        // Features modified by other nodes must also leave the compiled table
+        bus.subscribe(new InvalidationListener() {
+            public void onInvalidation(InvalidationMessage message) {
+                if (isCompiled() && !cp.getNodeId().equals(message.getSource()) 
+                        && message.getType() != InvalidationMessage.Type.PROPERTY
+                        && message.getType() != InvalidationMessage.Type.ALL_PROPERTIES) {
+                    if (message.getType() == InvalidationMessage.Type.FEATURE && message.getKey() != null) {
+                        refreshCompiledFeature(message.getKey());
+                    } else {
+                        refreshCompiledFeatures();
+                    }
+                }
+            }
+        });
+        return this;
+    }
+    
     /**
      * Parse configuration file.
      *
@@ -655,6 +1059,15 @@ public class FF4j {
      */
     public void setFeatureStore(FeatureStore fbs) {
         this.fstore = fbs;
+        // Snapshot must be rebuilt from the new store
+        if (compiled && initialized) {
+            synchronized (this) {
+                if (!(fstore instanceof FeatureStoreCompiledProxy)) {
+                    this.fstore = new FeatureStoreCompiledProxy(this, fstore);
+                }
+                this.compiledFeatures = new CompiledFeatureTable(fstore);
+            }
+        }
     }
 
     /**
@@ -686,6 +1099,53 @@ public class FF4j {
         this.authorizationsManager = authorizationsManager;
     }
 
+    /**
+     * Getter accessor for attribute 'permissionsTimeToLive'.
+     *
+     * @return current value of 'permissionsTimeToLive'
+     */
+    public long getPermissionsTimeToLive() {
+        return permissionsTimeToLive;
+    }
+
+    /**
+     * Keep permissions of the user in current thread for checks without execution context
+     * (milliseconds, 0 to read them at each check).
+     *
+     * @param permissionsTimeToLive
+     *            new value for 'permissionsTimeToLive'
+     */
+    public void setPermissionsTimeToLive(long permissionsTimeToLive) {
+        if (permissionsTimeToLive < 0) {
+            throw new IllegalArgumentException("Time to live for permissions cannot be negative");
+        }
+        this.permissionsTimeToLive = permissionsTimeToLive;
+        currentPermissions.remove();
+    }
+
+    /**
+     * Getter accessor for attribute 'compiledFeaturesTimeToLive'.
+     *
+     * @return current value of 'compiledFeaturesTimeToLive'
+     */
+    public long getCompiledFeaturesTimeToLive() {
+        return compiledFeaturesTimeToLive;
+    }
+
+    /**
+     * Read the whole store again when the compiled snapshot is older than this duration
+     * (milliseconds, 0 to rebuild it only on writes and invalidations).
+     *
+     * @param compiledFeaturesTimeToLive
+     *            new value for 'compiledFeaturesTimeToLive'
+     */
+    public void setCompiledFeaturesTimeToLive(long compiledFeaturesTimeToLive) {
+        if (compiledFeaturesTimeToLive < 0) {
+            throw new IllegalArgumentException("Time to live for compiled features cannot be negative");
+        }
+        this.compiledFeaturesTimeToLive = compiledFeaturesTimeToLive;
+    }
+
     /**
      * Getter accessor for attribute 'eventRepository'.
      * 
@@ -730,6 +1190,11 @@ public class FF4j {
             this.shutdownEventPublisher = true;
         }
         
+        // Compiled proxy is the outermost one, removed before (re)building the chain
+        if (fstore instanceof FeatureStoreCompiledProxy) {
+            this.fstore = ((FeatureStoreCompiledProxy) fstore).getTarget();
+        }
+        
         // Audit is enabled, proxified stores for auditing
         if (isEnableAudit()) {
         	
@@ -750,6 +1215,14 @@ public class FF4j {
              }
         }
         
+        // Compiled mode : snapshot of the store evaluated by check()
+        if (compiled && fstore != null) {
+            this.fstore = new FeatureStoreCompiledProxy(this, fstore);
+            this.compiledFeatures = new CompiledFeatureTable(fstore);
+        } else {
+            this.compiledFeatures = null;
+        }
+        
         // Flag as OK
         this.initialized = true;
     }
@@ -891,6 +1364,42 @@ public class FF4j {
     	initialized = false;
     }
     
+    /**
+     * Getter accessor for attribute 'compiled'.
+     *
+     * @return
+     *       current value of 'compiled'
+     */
+    public boolean isCompiled() {
+        return compiled;
+    }
+
+    /**
+     * Setter accessor for attribute 'compiled'.
+     *
+     * @param compiled
+     *      new value for 'compiled '
+     */
+    public void setCompiled(boolean compiled) {
+        this.compiled = compiled;
+        
+        // proxy and snapshot are created or removed at initialization
+        initialized = false;
+    }
+    
+    /**
+     * Getter accessor for attribute 'compiledFeatures'.
+     *
+     * @return
+     *       current value of 'compiledFeatures' (null if compiled mode is disabled)
+     */
+    public CompiledFeatureTable getCompiledFeatures() {
+        if (!initialized) {
+            init();
+        }
+        return compiledFeatures;
+    }
+    
     /**
      * Required for spring namespace and 'fileName' attribut on ff4j tag.
      *
@@ -945,6 +1454,10 @@ public class FF4j {
      */
     public FF4jCacheProxy getCacheProxy() {
         FeatureStore fs = getFeatureStore();
+        // Pass through compiled proxy if exists
+        if (fs instanceof FeatureStoreCompiledProxy) {
+            fs = ((FeatureStoreCompiledProxy) fs).getTarget();
+        }
         // Pass through audit proxy if exists
         if (fs instanceof FeatureStoreAuditProxy) {
             fs = ((FeatureStoreAuditProxy) fs).getTarget();
@@ -964,7 +1477,9 @@ public class FF4j {
      *      target featureStore
      */
     private FeatureStore getConcreteFeatureStore(FeatureStore fs) {
-        if (fs instanceof FeatureStoreAuditProxy) {
+        if (fs instanceof FeatureStoreCompiledProxy) {
+            return getConcreteFeatureStore(((FeatureStoreCompiledProxy) fs).getTarget());
+        } else if (fs instanceof FeatureStoreAuditProxy) {
             return getConcreteFeatureStore(((FeatureStoreAuditProxy) fs).getTarget());
         } else if (fs instanceof FF4jCacheProxy) {
             return getConcreteFeatureStore(((FF4jCacheProxy) fs).getTargetFeatureStore());
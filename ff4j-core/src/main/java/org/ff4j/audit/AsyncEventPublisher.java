@@ -0,0 +1,357 @@
+package org.ff4j.audit;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.ff4j.audit.repository.EventRepository;
+import org.ff4j.audit.repository.InMemoryEventRepository;
+
+/**
+ * Non blocking implementation of {@link EventPublisher}.
+ *
+ * Calling threads only push the {@link Event} into a bounded {@link EventRingBuffer} and return
+ * immediately. Drainer threads pull events by batches and save them through
+ * {@link EventRepository#saveEvents(java.util.Collection)}. When the buffer is full the
+ * {@link EventOverflowPolicy} decides which events are discarded.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class AsyncEventPublisher extends EventPublisher {
+
+    /** DEFAULT. */
+    public static final int DEFAULT_BUFFER_CAPACITY = 8192;
+
+    /** DEFAULT. */
+    public static final int DEFAULT_DRAINER_COUNT = 1;
+
+    /** DEFAULT. */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    /** Wait 100 ms when the buffer is empty. */
+    public static final long DEFAULT_FLUSH_INTERVAL = 100L;
+
+    /** DEFAULT. */
+    public static final int DEFAULT_SAMPLE_RATE = 10;
+
+    /** Number of attempts to replace oldest event under contention. */
+    private static final int MAX_REPLACE_ATTEMPTS = 3;
+
+    /** Events waiting to be saved. */
+    private final EventRingBuffer buffer;
+
+    /** Threads draining the buffer. */
+    private final ExecutorService drainers;
+
+    /** Maximum number of events saved in one call. */
+    private final int batchSize;
+
+    /** Time to wait (ms) when buffer is empty. */
+    private final long flushInterval;
+
+    /** What to do when buffer is full. */
+    private final EventOverflowPolicy overflowPolicy;
+
+    /** With {@link EventOverflowPolicy#SAMPLE}, keep one event out of sampleRate. */
+    private final int sampleRate;
+
+    /** Flag to stop drainers. */
+    private volatile boolean running = true;
+
+    /** Events accepted in the buffer. */
+    private final AtomicLong publishedCount = new AtomicLong(0);
+
+    /** Events discarded because of overflow. */
+    private final AtomicLong droppedCount = new AtomicLong(0);
+
+    /** Events lost because repository raised an error. */
+    private final AtomicLong failedCount = new AtomicLong(0);
+
+    /** Events rejected by the buffer (used for sampling). */
+    private final AtomicLong overflowCount = new AtomicLong(0);
+
+    /**
+     * Default constructor.
+     */
+    public AsyncEventPublisher() {
+        this(new InMemoryEventRepository());
+    }
+
+    /**
+     * Constructor with repository.
+     *
+     * @param er
+     *      target event repository
+     */
+    public AsyncEventPublisher(EventRepository er) {
+        this(er, EventOverflowPolicy.DROP_OLDEST);
+    }
+
+    /**
+     * Constructor with repository and overflow policy.
+     *
+     * @param er
+     *      target event repository
+     * @param policy
+     *      behaviour when buffer is full
+     */
+    public AsyncEventPublisher(EventRepository er, EventOverflowPolicy policy) {
+        this(er, DEFAULT_BUFFER_CAPACITY, DEFAULT_DRAINER_COUNT, DEFAULT_BATCH_SIZE, policy);
+    }
+
+    /**
+     * Constructor with sizing.
+     *
+     * @param er
+     *      target event repository
+     * @param bufferCapacity
+     *      maximum number of events waiting to be saved
+     * @param drainerCount
+     *      number of threads saving events
+     * @param batchSize
+     *      maximum number of events saved in one call
+     * @param policy
+     *      behaviour when buffer is full
+     */
+    public AsyncEventPublisher(EventRepository er, int bufferCapacity, int drainerCount, int batchSize, EventOverflowPolicy policy) {
+        this(er, bufferCapacity, drainerCount, batchSize, DEFAULT_FLUSH_INTERVAL, policy, DEFAULT_SAMPLE_RATE);
+    }
+
+    /**
+     * Full constructor.
+     *
+     * @param er
+     *      target event repository
+     * @param bufferCapacity
+     *      maximum number of events waiting to be saved
+     * @param drainerCount
+     *      number of threads saving events
+     * @param batchSize
+     *      maximum number of events saved in one call
+     * @param flushInterval
+     *      time to wait (ms) when buffer is empty
+     * @param policy
+     *      behaviour when buffer is full
+     * @param sampleRate
+     *      with {@link EventOverflowPolicy#SAMPLE}, keep one event out of sampleRate
+     */
+    public AsyncEventPublisher(EventRepository er, int bufferCapacity, int drainerCount,
+            int batchSize, long flushInterval, EventOverflowPolicy policy, int sampleRate) {
+        super(er, null);
+        if (drainerCount < 1 || batchSize < 1 || flushInterval < 1 || sampleRate < 1) {
+            throw new IllegalArgumentException("Drainer count, batch size, flush interval and sample rate must be positive");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("Overflow policy cannot be null");
+        }
+        this.buffer         = new EventRingBuffer(bufferCapacity);
+        this.batchSize      = batchSize;
+        this.flushInterval  = flushInterval;
+        this.overflowPolicy = policy;
+        this.sampleRate     = sampleRate;
+        this.drainers       = Executors.newFixedThreadPool(drainerCount, new PublisherThreadFactory());
+        for (int i = 0; i < drainerCount; i++) {
+            drainers.execute(new EventDrainer(this));
+        }
+    }
+
+    /**
+     * Push event into buffer without waiting for the repository.
+     *
+     * @param e
+     *            event.
+     */
+    @Override
+    public void publish(Event e) {
+        if (e == null || !running) {
+            return;
+        }
+        if (buffer.offer(e)) {
+            publishedCount.incrementAndGet();
+            return;
+        }
+        if (EventOverflowPolicy.DROP_NEWEST == overflowPolicy) {
+            droppedCount.incrementAndGet();
+        } else if (EventOverflowPolicy.SAMPLE == overflowPolicy
+                && overflowCount.incrementAndGet() % sampleRate != 0) {
+            droppedCount.incrementAndGet();
+        } else {
+            replaceOldest(e);
+        }
+    }
+
+    /**
+     * Push events into buffer, drainers already save them in batches.
+     *
+     * @param events
+     *            events.
+     */
+    @Override
+    public void publishAll(Collection < Event > events) {
+        if (events != null) {
+            for (Event e : events) {
+                publish(e);
+            }
+        }
+    }
+
+    /**
+     * Remove oldest event of the buffer to insert the new one.
+     *
+     * @param e
+     *      event to insert
+     */
+    private void replaceOldest(Event e) {
+        for (int attempt = 0; attempt < MAX_REPLACE_ATTEMPTS; attempt++) {
+            if (buffer.poll() != null) {
+                droppedCount.incrementAndGet();
+            }
+            if (buffer.offer(e)) {
+                publishedCount.incrementAndGet();
+                return;
+            }
+        }
+        // Other producers keep filling the buffer, give up with the new event
+        droppedCount.incrementAndGet();
+    }
+
+    /**
+     * Stops drainers after they saved the remaining events.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        drainers.shutdown();
+        try {
+            if (!drainers.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+                drainers.shutdownNow();
+            }
+        } catch (InterruptedException ie) {
+            drainers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Callback of drainers when repository cannot save a batch.
+     *
+     * @param size
+     *      number of events lost
+     */
+    protected void onBatchError(int size) {
+        failedCount.addAndGet(size);
+    }
+
+    /**
+     * Getter accessor for attribute 'buffer'.
+     *
+     * @return
+     *       current value of 'buffer'
+     */
+    public EventRingBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Getter accessor for attribute 'batchSize'.
+     *
+     * @return
+     *       current value of 'batchSize'
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Getter accessor for attribute 'flushInterval'.
+     *
+     * @return
+     *       current value of 'flushInterval'
+     */
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * Getter accessor for attribute 'overflowPolicy'.
+     *
+     * @return
+     *       current value of 'overflowPolicy'
+     */
+    public EventOverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Getter accessor for attribute 'sampleRate'.
+     *
+     * @return
+     *       current value of 'sampleRate'
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Getter accessor for attribute 'running'.
+     *
+     * @return
+     *       current value of 'running'
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Number of events accepted in the buffer.
+     *
+     * @return
+     *       current value of 'publishedCount'
+     */
+    public long getPublishedCount() {
+        return publishedCount.get();
+    }
+
+    /**
+     * Number of events discarded because buffer was full.
+     *
+     * @return
+     *       current value of 'droppedCount'
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Number of events lost because repository raised an error.
+     *
+     * @return
+     *       current value of 'failedCount'
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+}
@@ -24,9 +24,6 @@ import java.io.Serializable;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
-
-import org.ff4j.utils.IOUtil;
 
 /**
  * Audit information relevant to features.
@@ -72,13 +69,13 @@ public class Event implements Serializable, Comparable < Event > {
     private Map < String, String > customKeys = new HashMap<String, String>();
     
     /**
-     * Default constructor.
+     * Default constructor, identifier and host name are provided by {@link EventIdentity}.
      * 
      */
     public Event() {
-        uuid        = UUID.randomUUID().toString();
         timestamp   = System.currentTimeMillis();
-        hostName    = IOUtil.resolveHostName();
+        uuid        = EventIdentity.nextId(timestamp);
+        hostName    = EventIdentity.getHostName();
     }
     
     /** Default constructor. */
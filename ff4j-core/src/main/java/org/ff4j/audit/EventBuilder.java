@@ -21,6 +21,7 @@ package org.ff4j.audit;
  */
 
 import org.ff4j.FF4j;
+import org.ff4j.security.PermissionSnapshot;
 
 import static org.ff4j.audit.EventConstants.*;
 
@@ -42,13 +43,27 @@ public class EventBuilder {
      * @param ff4j
      */
     public EventBuilder(FF4j ff4j) {
+        this(ff4j, null);
+    }
+    
+    /**
+     * Constructor with ff4J and permissions already resolved for the request.
+     *
+     * @param ff4j
+     *      current ff4j
+     * @param permissions
+     *      user permissions, if null the user is read from AuthorizationManager
+     */
+    public EventBuilder(FF4j ff4j, PermissionSnapshot permissions) {
         this();
         
         // Source can be WEB, SSH, JAVA etc
         this.event.setSource(ff4j.getSource());
         
-        // Retrieved looged user from AuthorizationManager
-        if (ff4j.getAuthorizationsManager() != null) {
+        // Retrieved looged user from permissions or AuthorizationManager
+        if (permissions != null) {
+            event.setUser(permissions.getUserName());
+        } else if (ff4j.getAuthorizationsManager() != null) {
             event.setUser(ff4j.getAuthorizationsManager().getCurrentUserName());
         }
     }
@@ -0,0 +1,86 @@
+package org.ff4j.audit;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Worker pulling batches of {@link Event} from the {@link EventRingBuffer} of an
+ * {@link AsyncEventPublisher} and saving them with a single repository call.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class EventDrainer implements Runnable {
+
+    /** Owner publisher. */
+    private final AsyncEventPublisher publisher;
+
+    /**
+     * Drainer constructor.
+     *
+     * @param publisher
+     *      publisher holding buffer, repository and settings
+     */
+    public EventDrainer(AsyncEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void run() {
+        EventRingBuffer buffer = publisher.getBuffer();
+        int batchSize          = publisher.getBatchSize();
+        long idleNanos         = TimeUnit.MILLISECONDS.toNanos(publisher.getFlushInterval());
+        List < Event > batch   = new ArrayList<Event>(batchSize);
+        while (publisher.isRunning()) {
+            if (buffer.drainTo(batch, batchSize) > 0) {
+                flush(batch);
+            } else {
+                LockSupport.parkNanos(idleNanos);
+            }
+        }
+        // Publisher stopped : save what is left in the buffer
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+        }
+    }
+
+    /**
+     * Save current batch and reset it.
+     *
+     * @param batch
+     *      events to save
+     */
+    private void flush(List < Event > batch) {
+        try {
+            publisher.getRepository().saveEvents(batch);
+        } catch (RuntimeException re) {
+            // Do not propagate error, it's monitoring (aside business logic)
+            publisher.onBatchError(batch.size());
+        } finally {
+            batch.clear();
+        }
+    }
+
+}
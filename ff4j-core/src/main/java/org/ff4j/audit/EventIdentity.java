@@ -0,0 +1,106 @@
+package org.ff4j.audit;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.ff4j.utils.IOUtil;
+
+/**
+ * Hold what is shared by every {@link Event} created in this JVM : the host name, resolved
+ * only once, and the {@link EventIdGenerator}.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public final class EventIdentity {
+
+    /** Current generator. */
+    private static volatile EventIdGenerator idGenerator = new TimeBasedEventIdGenerator();
+
+    /** Resolved host name. */
+    private static volatile String hostName = null;
+
+    /**
+     * Hide constructor.
+     */
+    private EventIdentity() {
+    }
+
+    /**
+     * Generate identifier for a new event.
+     *
+     * @param timestamp
+     *      event creation time
+     * @return
+     *      unique identifier
+     */
+    public static String nextId(long timestamp) {
+        return idGenerator.generate(timestamp);
+    }
+
+    /**
+     * Host name, resolved on first call. Failed resolutions are not kept and retried
+     * on the next call.
+     *
+     * @return
+     *      current host name
+     */
+    public static String getHostName() {
+        String current = hostName;
+        if (current == null) {
+            current  = IOUtil.resolveHostName();
+            hostName = current;
+        }
+        return current;
+    }
+
+    /**
+     * Force host name (containers, tests) or reset with null to resolve it again.
+     *
+     * @param name
+     *      new host name
+     */
+    public static void setHostName(String name) {
+        hostName = name;
+    }
+
+    /**
+     * Getter accessor for attribute 'idGenerator'.
+     *
+     * @return
+     *       current value of 'idGenerator'
+     */
+    public static EventIdGenerator getIdGenerator() {
+        return idGenerator;
+    }
+
+    /**
+     * Setter accessor for attribute 'idGenerator'.
+     *
+     * @param generator
+     *      new value for 'idGenerator'
+     */
+    public static void setIdGenerator(EventIdGenerator generator) {
+        if (generator == null) {
+            throw new IllegalArgumentException("EventIdGenerator cannot be null");
+        }
+        idGenerator = generator;
+    }
+
+}
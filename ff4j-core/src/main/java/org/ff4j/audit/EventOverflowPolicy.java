@@ -0,0 +1,39 @@
+package org.ff4j.audit;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Behaviour of {@link AsyncEventPublisher} when its buffer is full.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public enum EventOverflowPolicy {
+
+    /** Remove the oldest event of the buffer to keep the new one. */
+    DROP_OLDEST,
+
+    /** Discard the new event. */
+    DROP_NEWEST,
+
+    /** Keep one new event out of 'sampleRate' (replacing the oldest), discard the others. */
+    SAMPLE;
+
+}
@@ -20,6 +20,7 @@ package org.ff4j.audit;
  * #L%
  */
 
+import java.util.Collection;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
@@ -136,6 +137,25 @@ public class EventPublisher {
         }
     }
 
+    /**
+     * Publish events to repository with a single task, as a batch.
+     * 
+     * @param events
+     *            events.
+     */
+    public void publishAll(Collection < Event > events) {
+        if (events == null || events.isEmpty()) {
+            return;
+        }
+        try {
+            EventWorker ew = new EventWorker(events, repository);
+            final Future<Boolean> check = executor.submit(ew);
+            check.get(submitTimeout, TimeUnit.MILLISECONDS);
+        } catch (Exception e1) {
+            // Do not propagate error, it's monitoring (aside business logic)
+        }
+    }
+
     /**
      * Stops the event publisher. If we started an executor service, it will
      * be shutdown here.
@@ -50,6 +50,12 @@ public class EventQueryDefinition implements Serializable {
     /** Requested page size. **/
     private int pagesize = 0;
 
+    /** Timestamp of the last event of the previous page, null to page with the page number. **/
+    private Long lastTimestamp = null;
+
+    /** Identifier of the last event of the previous page. **/
+    private String lastUuid = null;
+
 	/** Bound bottom. */
 	private long from = TimeUtils.getTodayMidnightTime();
 	
@@ -102,6 +108,31 @@ public class EventQueryDefinition implements Serializable {
         return this;
     }
 
+    /**
+     * Read the page following an event (in the order of {@link Event#compareTo(Event)}), instead of
+     * using the page number : stores supporting it do not skip the previous pages.
+     *
+     * @param last
+     *         last event of the previous page
+     * @return
+     *         current query
+     */
+    public EventQueryDefinition after(Event last) {
+        this.lastTimestamp = last.getTimestamp();
+        this.lastUuid      = last.getUuid();
+        return this;
+    }
+
+    /**
+     * Tell if the page is given by the last event of the previous one.
+     *
+     * @return
+     *         if {@link #after(Event)} has been called
+     */
+    public boolean hasLastEvent() {
+        return lastTimestamp != null && lastUuid != null;
+    }
+
 	/**
 	 * Match Event.
 	 *
@@ -344,4 +375,24 @@ public class EventQueryDefinition implements Serializable {
     public void setPagesize(int pagesize) {
         this.pagesize = pagesize;
     }
+
+    /**
+     * Getter accessor for attribute 'lastTimestamp'.
+     *
+     * @return
+     *       current value of 'lastTimestamp'
+     */
+    public Long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    /**
+     * Getter accessor for attribute 'lastUuid'.
+     *
+     * @return
+     *       current value of 'lastUuid'
+     */
+    public String getLastUuid() {
+        return lastUuid;
+    }
 }
@@ -0,0 +1,193 @@
+package org.ff4j.audit;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer / multi-consumer ring buffer used to hand {@link Event}
+ * over from the calling threads to the drainers of {@link AsyncEventPublisher}.
+ *
+ * Each slot holds a sequence number telling whether it is ready to be written or read, so
+ * producers and consumers only compete on a CAS of their own cursor and never block.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class EventRingBuffer {
+
+    /** Slots of the buffer. */
+    private final AtomicReferenceArray < Event > items;
+
+    /** Sequence of each slot. */
+    private final AtomicLongArray sequences;
+
+    /** Mask to compute slot index (capacity is a power of 2). */
+    private final int mask;
+
+    /** Next position to write. */
+    private final AtomicLong tail = new AtomicLong(0);
+
+    /** Next position to read. */
+    private final AtomicLong head = new AtomicLong(0);
+
+    /**
+     * Constructor with expected capacity, rounded to the next power of 2.
+     *
+     * @param expectedCapacity
+     *      minimum number of events the buffer can hold
+     */
+    public EventRingBuffer(int expectedCapacity) {
+        if (expectedCapacity < 1) {
+            throw new IllegalArgumentException("Capacity must be greater than zero");
+        }
+        int capacity = 1;
+        while (capacity < expectedCapacity) {
+            capacity <<= 1;
+        }
+        this.mask      = capacity - 1;
+        this.items     = new AtomicReferenceArray<Event>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Insert event at the end of the buffer without blocking.
+     *
+     * @param evt
+     *      current event
+     * @return
+     *      false if the buffer is full
+     */
+    public boolean offer(Event evt) {
+        if (evt == null) {
+            throw new IllegalArgumentException("Event cannot be null");
+        }
+        long pos = tail.get();
+        while (true) {
+            int  idx = (int) (pos & mask);
+            long dif = sequences.get(idx) - pos;
+            if (dif == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    items.set(idx, evt);
+                    sequences.lazySet(idx, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (dif < 0) {
+                // Slot still used by previous lap : buffer is full
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Retrieve and remove first event of the buffer without blocking.
+     *
+     * @return
+     *      first event or null if the buffer is empty
+     */
+    public Event poll() {
+        long pos = head.get();
+        while (true) {
+            int  idx = (int) (pos & mask);
+            long dif = sequences.get(idx) - (pos + 1);
+            if (dif == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    Event evt = items.get(idx);
+                    items.lazySet(idx, null);
+                    sequences.lazySet(idx, pos + mask + 1);
+                    return evt;
+                }
+                pos = head.get();
+            } else if (dif < 0) {
+                // Slot not yet written : buffer is empty
+                return null;
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+
+    /**
+     * Move up to maxElements events into target collection.
+     *
+     * @param target
+     *      collection to populate
+     * @param maxElements
+     *      maximum number of events to move
+     * @return
+     *      number of events moved
+     */
+    public int drainTo(Collection < Event > target, int maxElements) {
+        int count = 0;
+        while (count < maxElements) {
+            Event evt = poll();
+            if (evt == null) {
+                break;
+            }
+            target.add(evt);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Approximative number of events in the buffer.
+     *
+     * @return
+     *      current size
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        if (size < 0) {
+            return 0;
+        }
+        return (int) Math.min(size, capacity());
+    }
+
+    /**
+     * Check if buffer is empty.
+     *
+     * @return
+     *      true if there is no event to read
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Real capacity of the buffer.
+     *
+     * @return
+     *      capacity
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+}
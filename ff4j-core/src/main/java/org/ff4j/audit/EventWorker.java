@@ -20,6 +20,7 @@ package org.ff4j.audit;
  * #L%
  */
 
+import java.util.Collection;
 import java.util.concurrent.Callable;
 
 import org.ff4j.audit.repository.EventRepository;
@@ -34,6 +35,9 @@ public class EventWorker implements Callable<Boolean> {
     /** Target event to insert. */
     private Event event = null;
     
+    /** Target events to insert in a single call, if any. */
+    private Collection < Event > events = null;
+    
     /** current thread name if relevant. */
     private String name = null;
 
@@ -62,13 +66,38 @@ public class EventWorker implements Callable<Boolean> {
         }
     }
 
-    /** {@inheritDoc} */
+    /**
+     * Worker constructor for a batch of events, saved with a single call to the repository.
+     * 
+     * @param events
+     *            events
+     * @param repo
+     *            event repository to store events
+     */
+    public EventWorker(Collection < Event > events, EventRepository repo) {
+        this.events = events;
+        this.eventRepository = repo;
+        if (events != null) {
+            this.name = System.currentTimeMillis() + "-batch-" + events.size();
+        }
+    }
+
+    /**
+     * Save the event, retried when the repository reports it has not been written. A batch of several
+     * events is saved only once : a failed batch can be partially written and retrying it would
+     * duplicate the saved events.
+     *
+     * {@inheritDoc}
+     */
     @Override
     public Boolean call() throws Exception {
+        if (events != null && events.size() > 1) {
+            return eventRepository.saveEvents(events);
+        }
         boolean ok = false;
         int retryCount = 0;
         while (!ok && retryCount < MAX_RETRY) {
-            ok = eventRepository.saveEvent(event);
+            ok = (events != null) ? eventRepository.saveEvents(events) : eventRepository.saveEvent(event);
             if (!ok) {
                 retryCount++;
                 Thread.sleep(RETRY_DELAY);
@@ -0,0 +1,504 @@
+package org.ff4j.audit;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+import org.ff4j.audit.chart.Serie;
+import org.ff4j.audit.chart.TimeSeriesChart;
+import org.ff4j.utils.Util;
+
+/**
+ * Pre-aggregated hit counts for feature usage.
+ *
+ * Instead of keeping one {@link Event} per check, each time bucket holds two maps of {@link StripedCounter} :
+ * one by (feature, action, host, source), whose size is bounded by the configuration, and one by
+ * (feature, action, user). The number of distinct users of a bucket is capped, hits of additional
+ * users are counted as {@link #OTHER_USERS}. Host and source filters are not applied to user counts.
+ *
+ * Queries loop over the buckets of the interval and the keys of each bucket : their cost does not
+ * depend on the number of checks. Buckets older than the retention are removed when a new bucket
+ * is created.
+ *
+ * Bounds of a query are applied on the start of the buckets, precision of results is the
+ * bucket duration.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class FeatureUsageCounters {
+
+    /** Default bucket duration : 1 minute. */
+    public static final long DEFAULT_BUCKET_DURATION = 60 * 1000L;
+
+    /** Default number of buckets kept : 2 days. */
+    public static final int DEFAULT_RETENTION = 2 * 24 * 60;
+
+    /** Default maximum number of distinct users counted in a bucket. */
+    public static final int DEFAULT_MAX_USERS = 1000;
+
+    /** User name when not provided. */
+    public static final String ANONYMOUS = "anonymous";
+
+    /** User name of the hits beyond the maximum number of users of a bucket. */
+    public static final String OTHER_USERS = "others";
+
+    /** Dimensions to group counters. */
+    public static enum Dimension { FEATURE, HOST, SOURCE, USER };
+
+    /** Bucket duration in milliseconds. */
+    private final long bucketDuration;
+
+    /** Number of buckets kept. */
+    private final int retention;
+
+    /** Maximum number of distinct users counted in a bucket. */
+    private final int maxUsers;
+
+    /** Bucket start time -> counters. */
+    private final ConcurrentSkipListMap < Long, Bucket > buckets = new ConcurrentSkipListMap<Long, Bucket>();
+
+    /**
+     * Default constructor, buckets of 1 minute kept 2 days.
+     */
+    public FeatureUsageCounters() {
+        this(DEFAULT_BUCKET_DURATION, TimeUnit.MILLISECONDS, DEFAULT_RETENTION);
+    }
+
+    /**
+     * Constructor with bucket size and retention.
+     *
+     * @param duration
+     *      bucket duration
+     * @param unit
+     *      unit of bucket duration
+     * @param retention
+     *      number of buckets to keep
+     */
+    public FeatureUsageCounters(long duration, TimeUnit unit, int retention) {
+        this(duration, unit, retention, DEFAULT_MAX_USERS);
+    }
+
+    /**
+     * Constructor with bucket size, retention and number of users.
+     *
+     * @param duration
+     *      bucket duration
+     * @param unit
+     *      unit of bucket duration
+     * @param retention
+     *      number of buckets to keep
+     * @param maxUsers
+     *      maximum number of distinct users counted in a bucket
+     */
+    public FeatureUsageCounters(long duration, TimeUnit unit, int retention, int maxUsers) {
+        if (unit.toMillis(duration) <= 0 || retention <= 0 || maxUsers <= 0) {
+            throw new IllegalArgumentException("Bucket duration, retention and number of users must be positive");
+        }
+        this.bucketDuration = unit.toMillis(duration);
+        this.retention      = retention;
+        this.maxUsers       = maxUsers;
+    }
+
+    /**
+     * Count an event.
+     *
+     * @param evt
+     *      current event
+     */
+    public void increment(Event evt) {
+        Long start = evt.getTimestamp() - (evt.getTimestamp() % bucketDuration);
+        Bucket bucket = buckets.get(start);
+        if (bucket == null) {
+            Bucket created = new Bucket();
+            bucket = buckets.putIfAbsent(start, created);
+            if (bucket == null) {
+                bucket = created;
+                evict(start);
+            }
+        }
+        increment(bucket.hits, new HitKey(evt.getName(), evt.getAction(), evt.getHostName(), evt.getSource(), null));
+        String user = Util.hasLength(evt.getUser()) ? evt.getUser() : ANONYMOUS;
+        if (!bucket.userNames.containsKey(user)) {
+            // Approximate cap : concurrent new users can exceed it slightly
+            if (bucket.userNames.size() >= maxUsers) {
+                user = OTHER_USERS;
+            } else {
+                bucket.userNames.putIfAbsent(user, Boolean.TRUE);
+            }
+        }
+        increment(bucket.users, new HitKey(evt.getName(), evt.getAction(), null, null, user));
+    }
+
+    /**
+     * Increment a counter, created if needed.
+     *
+     * @param counters
+     *      counters of a bucket
+     * @param key
+     *      counter key
+     */
+    private void increment(ConcurrentMap < HitKey, StripedCounter > counters, HitKey key) {
+        StripedCounter counter = counters.get(key);
+        if (counter == null) {
+            StripedCounter created = new StripedCounter();
+            counter = counters.putIfAbsent(key, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+        counter.increment();
+    }
+
+    /**
+     * Hit count for a dimension.
+     *
+     * @param query
+     *      filters and interval, host and source filters are ignored for users
+     * @param dimension
+     *      grouping key
+     * @return
+     *      hit count by dimension value
+     */
+    public Map < String, MutableHitCount > getHitCount(EventQueryDefinition query, Dimension dimension) {
+        Map < String, MutableHitCount > hitRatio = new TreeMap<String, MutableHitCount>();
+        for (Bucket bucket : range(query).values()) {
+            ConcurrentMap < HitKey, StripedCounter > counters = (dimension == Dimension.USER) ? bucket.users : bucket.hits;
+            for (Map.Entry < HitKey, StripedCounter > entry : counters.entrySet()) {
+                HitKey key = entry.getKey();
+                String group = key.get(dimension);
+                if (group != null && key.match(query)) {
+                    MutableHitCount mhc = hitRatio.get(group);
+                    if (mhc == null) {
+                        mhc = new MutableHitCount();
+                        hitRatio.put(group, mhc);
+                    }
+                    mhc.incBy((int) entry.getValue().sum());
+                }
+            }
+        }
+        return hitRatio;
+    }
+
+    /**
+     * Total hit count.
+     *
+     * @param query
+     *      filters and interval
+     * @return
+     *      total
+     */
+    public int getTotalHitCount(EventQueryDefinition query) {
+        long total = 0;
+        for (Bucket bucket : range(query).values()) {
+            for (Map.Entry < HitKey, StripedCounter > entry : bucket.hits.entrySet()) {
+                if (entry.getKey().match(query)) {
+                    total += entry.getValue().sum();
+                }
+            }
+        }
+        return (int) total;
+    }
+
+    /**
+     * Feature usage over time.
+     *
+     * @param query
+     *      filters and interval
+     * @param units
+     *      width of slots
+     * @return
+     *      one serie per feature
+     */
+    public TimeSeriesChart getFeatureUsageHistory(EventQueryDefinition query, TimeUnit units) {
+        TimeSeriesChart tsc = new TimeSeriesChart(query.getFrom(), query.getTo(), units);
+        for (Map.Entry < Long, Bucket > bucket : range(query).entrySet()) {
+            String slotName = tsc.getSdf().format(new Date(bucket.getKey()));
+            for (Map.Entry < HitKey, StripedCounter > entry : bucket.getValue().hits.entrySet()) {
+                HitKey key = entry.getKey();
+                if (key.match(query)) {
+                    if (!tsc.getSeries().containsKey(key.feature)) {
+                        tsc.createNewSerie(key.feature);
+                    }
+                    MutableHitCount mhc = tsc.getSeries().get(key.feature).getValue().get(slotName);
+                    if (mhc != null) {
+                        mhc.incBy((int) entry.getValue().sum());
+                    }
+                }
+            }
+        }
+        int idxColor = 0;
+        List < String > colors = Util.generateHSVGradient("ee1100", "442299", tsc.getSeries().size());
+        for (Serie < Map < String, MutableHitCount > > serie : tsc.getSeries().values()) {
+            serie.setColor(colors.get(idxColor++));
+        }
+        return tsc;
+    }
+
+    /**
+     * Remove counters matching the query, user counters are kept when filtering on host or source.
+     *
+     * @param query
+     *      filters and interval
+     */
+    public void purge(EventQueryDefinition query) {
+        boolean purgeUsers = query.getHostFilters().isEmpty() && query.getSourceFilters().isEmpty();
+        Iterator < Map.Entry < Long, Bucket > > itBuckets = range(query).entrySet().iterator();
+        while (itBuckets.hasNext()) {
+            Bucket bucket = itBuckets.next().getValue();
+            purge(bucket.hits, query);
+            if (purgeUsers) {
+                purge(bucket.users, query);
+            }
+            if (bucket.hits.isEmpty() && bucket.users.isEmpty()) {
+                itBuckets.remove();
+            }
+        }
+    }
+
+    /**
+     * Remove counters of a bucket matching the query.
+     *
+     * @param counters
+     *      counters of a bucket
+     * @param query
+     *      filters
+     */
+    private void purge(ConcurrentMap < HitKey, StripedCounter > counters, EventQueryDefinition query) {
+        Iterator < HitKey > itKeys = counters.keySet().iterator();
+        while (itKeys.hasNext()) {
+            if (itKeys.next().match(query)) {
+                itKeys.remove();
+            }
+        }
+    }
+
+    /**
+     * Remove every counter.
+     */
+    public void clear() {
+        buckets.clear();
+    }
+
+    /**
+     * Number of buckets currently kept.
+     *
+     * @return
+     *      number of buckets
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Buckets starting in the query interval.
+     *
+     * @param query
+     *      current query
+     * @return
+     *      view on buckets
+     */
+    private NavigableMap < Long, Bucket > range(EventQueryDefinition query) {
+        long from = query.getFrom() - (query.getFrom() % bucketDuration);
+        return buckets.subMap(from, true, query.getTo(), true);
+    }
+
+    /**
+     * Remove buckets out of retention.
+     *
+     * @param newest
+     *      bucket just created
+     */
+    private void evict(long newest) {
+        buckets.headMap(newest - (retention - 1) * bucketDuration).clear();
+    }
+
+    /**
+     * Getter accessor for attribute 'bucketDuration'.
+     *
+     * @return
+     *       current value of 'bucketDuration'
+     */
+    public long getBucketDuration() {
+        return bucketDuration;
+    }
+
+    /**
+     * Getter accessor for attribute 'retention'.
+     *
+     * @return
+     *       current value of 'retention'
+     */
+    public int getRetention() {
+        return retention;
+    }
+
+    /**
+     * Getter accessor for attribute 'maxUsers'.
+     *
+     * @return
+     *       current value of 'maxUsers'
+     */
+    public int getMaxUsers() {
+        return maxUsers;
+    }
+
+    /**
+     * Counters of a time bucket.
+     */
+    private static final class Bucket {
+
+        /** Counters by feature, action, host and source. */
+        private final ConcurrentMap < HitKey, StripedCounter > hits = new ConcurrentHashMap<HitKey, StripedCounter>();
+
+        /** Counters by feature, action and user. */
+        private final ConcurrentMap < HitKey, StripedCounter > users = new ConcurrentHashMap<HitKey, StripedCounter>();
+
+        /** Distinct users counted in the bucket. */
+        private final ConcurrentMap < String, Boolean > userNames = new ConcurrentHashMap<String, Boolean>();
+    }
+
+    /**
+     * Immutable key of a counter, dimensions not held by the map are null.
+     */
+    private static final class HitKey {
+
+        /** feature name. */
+        private final String feature;
+
+        /** action. */
+        private final String action;
+
+        /** host name. */
+        private final String host;
+
+        /** source. */
+        private final String source;
+
+        /** user. */
+        private final String user;
+
+        /** cached hash. */
+        private final int hash;
+
+        /**
+         * Full constructor.
+         *
+         * @param feature
+         *      feature name
+         * @param action
+         *      action
+         * @param host
+         *      host name, null in user counters
+         * @param source
+         *      source, null in user counters
+         * @param user
+         *      user, null in hit counters
+         */
+        private HitKey(String feature, String action, String host, String source, String user) {
+            this.feature = feature;
+            this.action  = action;
+            this.host    = host;
+            this.source  = source;
+            this.user    = user;
+            int h = 17;
+            h = 31 * h + (feature == null ? 0 : feature.hashCode());
+            h = 31 * h + (action  == null ? 0 : action.hashCode());
+            h = 31 * h + (host    == null ? 0 : host.hashCode());
+            h = 31 * h + (source  == null ? 0 : source.hashCode());
+            h = 31 * h + (user    == null ? 0 : user.hashCode());
+            this.hash = h;
+        }
+
+        /**
+         * Filters of query (interval is handled by buckets).
+         *
+         * @param q
+         *      current query
+         * @return
+         *      if the counter should be included
+         */
+        private boolean match(EventQueryDefinition q) {
+            if (user != null) {
+                // User counters do not hold host and source
+                return q.matchName(feature) && q.matchAction(action);
+            }
+            return q.matchName(feature) && q.matchAction(action) && q.matchSource(source) && q.matchHost(host);
+        }
+
+        /**
+         * Value for a dimension.
+         *
+         * @param dimension
+         *      current dimension
+         * @return
+         *      value
+         */
+        private String get(Dimension dimension) {
+            switch (dimension) {
+                case HOST:
+                    return host;
+                case SOURCE:
+                    return source;
+                case USER:
+                    return user;
+                default:
+                    return feature;
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof HitKey)) {
+                return false;
+            }
+            HitKey other = (HitKey) obj;
+            return hash == other.hash && eq(feature, other.feature) && eq(action, other.action)
+                    && eq(host, other.host) && eq(source, other.source) && eq(user, other.user);
+        }
+
+        /**
+         * Null safe equals.
+         */
+        private static boolean eq(String a, String b) {
+            return (a == null) ? b == null : a.equals(b);
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+package org.ff4j.audit;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.UUID;
+
+/**
+ * Former identifier generation relying on {@link UUID#randomUUID()}, the underlying
+ * SecureRandom is shared and contended under load.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class RandomUUIDEventIdGenerator implements EventIdGenerator {
+
+    /** {@inheritDoc} */
+    @Override
+    public String generate(long timestamp) {
+        return UUID.randomUUID().toString();
+    }
+
+}
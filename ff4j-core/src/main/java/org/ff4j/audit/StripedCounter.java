@@ -0,0 +1,127 @@
+package org.ff4j.audit;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter designed for concurrent increments, close to the JDK8 LongAdder (not available
+ * with the Java level of this module).
+ *
+ * Increments go to a single atomic value while there is no contention. The first failed
+ * CAS inflates the counter into cells padded on distinct cache lines, picked by thread.
+ * Reading the value sums every cell, it is only consistent when no update is in progress.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public final class StripedCounter {
+
+    /** Number of longs in a cache line, used as stride between cells. */
+    private static final int PADDING = 8;
+
+    /** Number of cells, power of 2. */
+    private static final int STRIPES = stripes();
+
+    /** Value when there is no contention. */
+    private final AtomicLong base = new AtomicLong();
+
+    /** Cells, created on first contention. */
+    private volatile AtomicLongArray cells;
+
+    /**
+     * Add one.
+     */
+    public void increment() {
+        add(1);
+    }
+
+    /**
+     * Add value to counter.
+     *
+     * @param x
+     *      value to add
+     */
+    public void add(long x) {
+        AtomicLongArray cs = cells;
+        if (cs == null) {
+            long v = base.get();
+            if (base.compareAndSet(v, v + x)) {
+                return;
+            }
+            cs = inflate();
+        }
+        int idx = (int) (Thread.currentThread().getId() & (STRIPES - 1)) * PADDING;
+        cs.addAndGet(idx, x);
+    }
+
+    /**
+     * Current value.
+     *
+     * @return
+     *      sum of every cell
+     */
+    public long sum() {
+        long sum = base.get();
+        AtomicLongArray cs = cells;
+        if (cs != null) {
+            for (int i = 0; i < STRIPES; i++) {
+                sum += cs.get(i * PADDING);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Create cells once.
+     *
+     * @return
+     *      cells
+     */
+    private synchronized AtomicLongArray inflate() {
+        if (cells == null) {
+            cells = new AtomicLongArray(STRIPES * PADDING);
+        }
+        return cells;
+    }
+
+    /**
+     * Number of cells : next power of 2 of available processors, capped to 64.
+     *
+     * @return
+     *      number of cells
+     */
+    private static int stripes() {
+        int n = 1;
+        int cpus = Math.min(64, Runtime.getRuntime().availableProcessors());
+        while (n < cpus) {
+            n <<= 1;
+        }
+        return n;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.valueOf(sum());
+    }
+
+}
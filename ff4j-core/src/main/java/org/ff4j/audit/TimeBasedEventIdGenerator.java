@@ -0,0 +1,80 @@
+package org.ff4j.audit;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered identifiers with the layout of a UUID version 7 : the 48 most significant bits
+ * hold the timestamp in milliseconds, the remaining bits hold a sequence.
+ *
+ * SecureRandom is used only once to pick a random node offset, then each identifier costs a
+ * single atomic increment. The sequence keeps identifiers unique within the JVM, the random
+ * offset makes collisions between JVMs unlikely.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class TimeBasedEventIdGenerator implements EventIdGenerator {
+
+    /** Version 7 in bits 12-15 of time_hi. */
+    private static final long VERSION = 0x7000L;
+
+    /** Variant 0b10 in the 2 most significant bits. */
+    private static final long VARIANT = 0x8000000000000000L;
+
+    /** Remaining 62 bits. */
+    private static final long MASK_62 = 0x3FFFFFFFFFFFFFFFL;
+
+    /** Random offset for this generator. */
+    private final long node;
+
+    /** Sequence. */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Default constructor.
+     */
+    public TimeBasedEventIdGenerator() {
+        this(new SecureRandom().nextLong());
+    }
+
+    /**
+     * Constructor with explicit node offset.
+     *
+     * @param node
+     *      offset added to the sequence
+     */
+    public TimeBasedEventIdGenerator(long node) {
+        this.node = node;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String generate(long timestamp) {
+        long seq = sequence.incrementAndGet();
+        long msb = (timestamp << 16) | VERSION | (seq & 0xFFFL);
+        long lsb = VARIANT | ((node + seq) & MASK_62);
+        return new UUID(msb, lsb).toString();
+    }
+
+}
@@ -40,6 +40,8 @@ import org.ff4j.audit.EventBuilder;
 import org.ff4j.audit.EventPublisher;
 import org.ff4j.core.Feature;
 import org.ff4j.core.FeatureStore;
+import org.ff4j.store.ChangeSet;
+import org.ff4j.store.ImportReport;
 
 /**
  * Proxy to publish operation to audit.
@@ -219,6 +221,18 @@ public class FeatureStoreAuditProxy implements FeatureStore {
         return target.readAll();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Feature> readFeatures(Set<String> featureIds) {
+        return target.readFeatures(featureIds);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ChangeSet<Feature> featureChangesSince(long version) {
+        return target.featureChangesSince(version);
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean existGroup(String groupName) {
@@ -239,16 +253,18 @@ public class FeatureStoreAuditProxy implements FeatureStore {
     
     /** {@inheritDoc} */
     @Override
-    public void importFeatures(Collection<Feature> features) {
-        // Do not use target as the delete/create operation will be traced
-        if (features != null) {
-            for (Feature feature : features) {
-                if (exist(feature.getUid())) {
-                    delete(feature.getUid());
-                }
-                create(feature);
-            }
+    public ImportReport importFeatures(Collection<Feature> features) {
+        // Bulk write in target, then one event per imported feature
+        long start = System.nanoTime();
+        ImportReport report = target.importFeatures(features);
+        long duration = System.nanoTime() - start;
+        for (String uid : report.getCreated()) {
+            publish(builder(ACTION_CREATE).feature(uid).duration(duration));
+        }
+        for (String uid : report.getUpdated()) {
+            publish(builder(ACTION_UPDATE).feature(uid).duration(duration));
         }
+        return report;
     }
 
 	/**
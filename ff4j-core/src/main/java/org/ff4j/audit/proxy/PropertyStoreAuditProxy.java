@@ -30,6 +30,7 @@ import java.util.Collection;
  * #L%
  */
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -38,6 +39,8 @@ import org.ff4j.audit.EventBuilder;
 import org.ff4j.audit.EventPublisher;
 import org.ff4j.property.Property;
 import org.ff4j.property.store.PropertyStore;
+import org.ff4j.store.ChangeSet;
+import org.ff4j.store.ImportReport;
 
 /**
  * Implementation of audit on top of store.
@@ -126,6 +129,11 @@ public class PropertyStoreAuditProxy implements PropertyStore {
         return target.readAllProperties();
     }
 
+    /** {@inheritDoc} */
+    public ChangeSet<Property<?>> propertyChangesSince(long version) {
+        return target.propertyChangesSince(version);
+    }
+
     /** {@inheritDoc} */
     public Set<String> listPropertyNames() {
         return target.listPropertyNames();
@@ -147,16 +155,26 @@ public class PropertyStoreAuditProxy implements PropertyStore {
     }
     
     /** {@inheritDoc} */
-    public void importProperties(Collection<Property<?>> properties) {
-        // Do not use target as the delete/create operation will be traced
+    public ImportReport importProperties(Collection<Property<?>> properties) {
+        // Bulk write in target, then one event per imported property
+        long start = System.nanoTime();
+        ImportReport report = target.importProperties(properties);
+        long duration = System.nanoTime() - start;
+        Map < String, Property<?> > values = new HashMap<String, Property<?>>();
         if (properties != null) {
             for (Property<?> property : properties) {
-                if (existProperty(property.getName())) {
-                    deleteProperty(property.getName());
+                if (property != null) {
+                    values.put(property.getName(), property);
                 }
-                createProperty(property);
             }
         }
+        for (String name : report.getCreated()) {
+            publish(builder(ACTION_CREATE).property(name).value(values.get(name).asString()).duration(duration));
+        }
+        for (String name : report.getUpdated()) {
+            publish(builder(ACTION_UPDATE).property(name).value(values.get(name).asString()).duration(duration));
+        }
+        return report;
     }
     
     /** {@inheritDoc} */
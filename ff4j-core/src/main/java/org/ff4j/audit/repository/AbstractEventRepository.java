@@ -25,6 +25,7 @@ import static org.ff4j.audit.EventConstants.TITLE_BARCHAR_HIT;
 import static org.ff4j.audit.EventConstants.TITLE_PIE_HITCOUNT;
 
 import java.text.SimpleDateFormat;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
@@ -52,6 +53,18 @@ public abstract class AbstractEventRepository implements EventRepository {
     /** Create key. */
     protected static final SimpleDateFormat KDF = new SimpleDateFormat("yyyyMMdd");
     
+    /** {@inheritDoc} */
+    @Override
+    public boolean saveEvents(Collection < Event > events) {
+        boolean allSaved = true;
+        if (events != null) {
+            for (Event evt : events) {
+                allSaved = saveEvent(evt) && allSaved;
+            }
+        }
+        return allSaved;
+    }
+    
     /** {@inheritDoc} */
     @Override
     public PieChart getFeatureUsagePieChart(EventQueryDefinition q) {
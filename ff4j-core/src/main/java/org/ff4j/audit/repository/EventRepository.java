@@ -21,6 +21,7 @@ package org.ff4j.audit.repository;
  */
 
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -48,6 +49,15 @@ public interface EventRepository {
      */
     boolean saveEvent(Event e);
     
+    /**
+     * Save a batch of events into store synchronously.
+     * 
+     * @param events
+     *            target events to store
+     * @return if all events have been saved, when false some of them may have been saved
+     */
+    boolean saveEvents(Collection < Event > events);
+    
     /**
      * Retrieve an event by its unique identifer.
      *
@@ -27,6 +27,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -157,7 +158,52 @@ public class JdbcEventRepository extends AbstractEventRepository {
         }
         return true;
     }
-    
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean saveEvents(Collection < Event > events) {
+        if (events == null || events.isEmpty()) {
+            return true;
+        }
+        Connection        sqlConn = null;
+        PreparedStatement stmt = null;
+        try {
+            // Get collection from Pool
+            sqlConn = dataSource.getConnection();
+
+            // Open TX Bloc, all events in a single round trip
+            sqlConn.setAutoCommit(false);
+            stmt = sqlConn.prepareStatement(getQueryBuilder().sqlSaveAudit());
+            for (Event evt : events) {
+                Util.assertEvent(evt);
+                stmt.setString(1, evt.getUuid());
+                stmt.setTimestamp(2, new java.sql.Timestamp(evt.getTimestamp()));
+                stmt.setString(3, evt.getType());
+                stmt.setString(4, evt.getName());
+                stmt.setString(5, evt.getAction());
+                stmt.setString(6, evt.getHostName());
+                stmt.setString(7, evt.getSource());
+                stmt.setLong(8, evt.getDuration());
+                stmt.setString(9, Util.hasLength(evt.getUser()) ? evt.getUser() : null);
+                stmt.setString(10, Util.hasLength(evt.getValue()) ? evt.getValue() : null);
+                stmt.setString(11, evt.getCustomKeys().isEmpty() ? null : MappingUtil.fromMap(evt.getCustomKeys()));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+            // Commit TX
+            sqlConn.commit();
+
+        } catch(Exception exc) {
+            rollback(sqlConn);
+            throw new AuditAccessException("Cannot insert events into DB (" + exc.getClass() + ") "+ exc.getCause(), exc);
+        } finally {
+           closeStatement(stmt);
+           closeConnection(sqlConn);
+        }
+        return true;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Event getEventByUUID(String uuid, Long timestamp) {
@@ -0,0 +1,243 @@
+package org.ff4j.audit.repository;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.ff4j.audit.EventConstants.ACTION_CHECK_OFF;
+import static org.ff4j.audit.EventConstants.ACTION_CHECK_OK;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.ff4j.audit.Event;
+import org.ff4j.audit.EventQueryDefinition;
+import org.ff4j.audit.EventSeries;
+import org.ff4j.audit.FeatureUsageCounters;
+import org.ff4j.audit.FeatureUsageCounters.Dimension;
+import org.ff4j.audit.MutableHitCount;
+import org.ff4j.audit.chart.TimeSeriesChart;
+import org.ff4j.utils.Util;
+
+/**
+ * Usage metrics mode : checks (CHECK_OK, CHECK_OFF) are not stored but counted in
+ * {@link FeatureUsageCounters}, hit counts and history are computed from the counters.
+ * Other events (audit trail) are saved in the target repository.
+ *
+ * As feature usage events are not kept, {@link #searchFeatureUsageEvents(EventQueryDefinition)}
+ * returns an empty series.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class UsageMetricsEventRepository extends AbstractEventRepository {
+
+    /** Repository for audit trail. */
+    private final EventRepository target;
+
+    /** Counters for feature usage. */
+    private final FeatureUsageCounters counters;
+
+    /**
+     * Counters with default buckets, audit trail in memory.
+     */
+    public UsageMetricsEventRepository() {
+        this(new InMemoryEventRepository());
+    }
+
+    /**
+     * Counters with default buckets.
+     *
+     * @param target
+     *      repository for audit trail
+     */
+    public UsageMetricsEventRepository(EventRepository target) {
+        this(target, new FeatureUsageCounters());
+    }
+
+    /**
+     * Constructor with counters.
+     *
+     * @param target
+     *      repository for audit trail
+     * @param counters
+     *      feature usage counters
+     */
+    public UsageMetricsEventRepository(EventRepository target, FeatureUsageCounters counters) {
+        Util.assertNotNull(target, counters);
+        this.target   = target;
+        this.counters = counters;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void createSchema() {
+        target.createSchema();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean saveEvent(Event e) {
+        Util.assertEvent(e);
+        if (isCheck(e)) {
+            counters.increment(e);
+            return true;
+        }
+        return target.saveEvent(e);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean saveEvents(Collection < Event > events) {
+        if (events == null || events.isEmpty()) {
+            return true;
+        }
+        List < Event > auditTrail = new ArrayList<Event>();
+        for (Event evt : events) {
+            Util.assertEvent(evt);
+            if (isCheck(evt)) {
+                counters.increment(evt);
+            } else {
+                auditTrail.add(evt);
+            }
+        }
+        return auditTrail.isEmpty() || target.saveEvents(auditTrail);
+    }
+
+    /**
+     * Check if event is a feature usage.
+     *
+     * @param e
+     *      current event
+     * @return
+     *      if the event is counted
+     */
+    private boolean isCheck(Event e) {
+        return ACTION_CHECK_OK.equalsIgnoreCase(e.getAction()) || ACTION_CHECK_OFF.equalsIgnoreCase(e.getAction());
+    }
+
+    /**
+     * Counters count both CHECK_OK and CHECK_OFF, usage is only CHECK_OK.
+     *
+     * @param q
+     *      query from user
+     * @return
+     *      query on CHECK_OK
+     */
+    private EventQueryDefinition usage(EventQueryDefinition q) {
+        if (q.getActionFilters().isEmpty()) {
+            EventQueryDefinition usage = new EventQueryDefinition(q.getFrom(), q.getTo());
+            usage.setNamesFilter(q.getNamesFilter());
+            usage.setSourceFilters(q.getSourceFilters());
+            usage.setHostFilters(q.getHostFilters());
+            usage.addFilterAction(ACTION_CHECK_OK);
+            return usage;
+        }
+        return q;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map < String, MutableHitCount > getFeatureUsageHitCount(EventQueryDefinition query) {
+        return counters.getHitCount(usage(query), Dimension.FEATURE);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map < String, MutableHitCount > getHostHitCount(EventQueryDefinition query) {
+        return counters.getHitCount(usage(query), Dimension.HOST);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map < String, MutableHitCount > getUserHitCount(EventQueryDefinition query) {
+        return counters.getHitCount(usage(query), Dimension.USER);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map < String, MutableHitCount > getSourceHitCount(EventQueryDefinition query) {
+        return counters.getHitCount(usage(query), Dimension.SOURCE);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getFeatureUsageTotalHitCount(EventQueryDefinition query) {
+        return counters.getTotalHitCount(usage(query));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public TimeSeriesChart getFeatureUsageHistory(EventQueryDefinition query, TimeUnit tu) {
+        return counters.getFeatureUsageHistory(usage(query), tu);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public EventSeries searchFeatureUsageEvents(EventQueryDefinition query) {
+        return new EventSeries();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void purgeFeatureUsage(EventQueryDefinition query) {
+        counters.purge(query);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Event getEventByUUID(String uuid, Long timestamp) {
+        return target.getEventByUUID(uuid, timestamp);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public EventSeries getAuditTrail(EventQueryDefinition query) {
+        return target.getAuditTrail(query);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void purgeAuditTrail(EventQueryDefinition query) {
+        target.purgeAuditTrail(query);
+    }
+
+    /**
+     * Getter accessor for attribute 'target'.
+     *
+     * @return
+     *       current value of 'target'
+     */
+    public EventRepository getTarget() {
+        return target;
+    }
+
+    /**
+     * Getter accessor for attribute 'counters'.
+     *
+     * @return
+     *       current value of 'counters'
+     */
+    public FeatureUsageCounters getCounters() {
+        return counters;
+    }
+
+}
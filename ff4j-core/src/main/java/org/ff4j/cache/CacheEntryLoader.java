@@ -0,0 +1,43 @@
+package org.ff4j.cache;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Load a value from the target store to refresh a cache entry.
+ *
+ * @author Cedrick Lunven (@clunven)
+ *
+ * @param <T>
+ *      cached type
+ */
+public interface CacheEntryLoader < T > {
+
+    /**
+     * Load current value.
+     *
+     * @param key
+     *      cache key (feature uid or property name)
+     * @return
+     *      current value, null if it does not exist anymore
+     */
+    T load(String key);
+
+}
@@ -0,0 +1,219 @@
+package org.ff4j.cache;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.ff4j.core.Feature;
+import org.ff4j.property.Property;
+import org.ff4j.utils.Util;
+
+/**
+ * Immutable copy of the whole content of the stores (features, properties and an index of
+ * features by group), used by {@link FF4jCacheProxy} to serve bulk reads without reaching the
+ * target stores.
+ *
+ * A new instance is built for each modification, readers holding a snapshot are never affected
+ * by concurrent updates.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public final class CacheSnapshot implements Serializable {
+
+    /** Serial. */
+    private static final long serialVersionUID = -3093372934406735237L;
+
+    /** Sequence of versions. */
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    /** Version of the snapshot, increasing with each new content. */
+    private final long version;
+
+    /** Date of the read of the stores (milliseconds). */
+    private final long creationDate;
+
+    /** All features. */
+    private final Map < String, Feature > features;
+
+    /** Features by group name. */
+    private final Map < String, Map < String, Feature > > groups;
+
+    /** All properties. */
+    private final Map < String, Property<?> > properties;
+
+    /**
+     * Build snapshot and group index, a new version is assigned.
+     *
+     * @param creationDate
+     *      date of the read of the stores (milliseconds)
+     * @param features
+     *      all features (copied)
+     * @param properties
+     *      all properties (copied)
+     */
+    public CacheSnapshot(long creationDate, Map < String, Feature > features, Map < String, Property<?> > properties) {
+        this(VERSIONS.incrementAndGet(), creationDate, 
+             Collections.unmodifiableMap(new LinkedHashMap<String, Feature>(features)),
+             indexGroups(features),
+             Collections.unmodifiableMap(new LinkedHashMap<String, Property<?>>(properties)));
+    }
+
+    /**
+     * Internal constructor, maps are already immutable.
+     *
+     * @param version
+     *      version of the snapshot
+     * @param creationDate
+     *      date of the read of the stores (milliseconds)
+     * @param features
+     *      all features
+     * @param groups
+     *      features by group
+     * @param properties
+     *      all properties
+     */
+    private CacheSnapshot(long version, long creationDate, Map < String, Feature > features, 
+            Map < String, Map < String, Feature > > groups, Map < String, Property<?> > properties) {
+        this.version      = version;
+        this.creationDate = creationDate;
+        this.features     = features;
+        this.groups       = groups;
+        this.properties   = properties;
+    }
+
+    /**
+     * Build index of features by group.
+     *
+     * @param features
+     *      all features
+     * @return
+     *      immutable index
+     */
+    private static Map < String, Map < String, Feature > > indexGroups(Map < String, Feature > features) {
+        Map < String, Map < String, Feature > > index = new LinkedHashMap<String, Map<String, Feature>>();
+        for (Feature f : features.values()) {
+            if (Util.hasLength(f.getGroup())) {
+                Map < String, Feature > group = index.get(f.getGroup());
+                if (group == null) {
+                    group = new LinkedHashMap<String, Feature>();
+                    index.put(f.getGroup(), group);
+                }
+                group.put(f.getUid(), f);
+            }
+        }
+        for (Map.Entry<String, Map<String, Feature>> group : index.entrySet()) {
+            group.setValue(Collections.unmodifiableMap(group.getValue()));
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * Same content with a new creation date (content checked again against the stores).
+     *
+     * @param creationDate
+     *      date of the read of the stores (milliseconds)
+     * @return
+     *      refreshed snapshot
+     */
+    public CacheSnapshot touch(long creationDate) {
+        return new CacheSnapshot(version, creationDate, features, groups, properties);
+    }
+
+    /**
+     * Check if the snapshot can still be used.
+     *
+     * @param timeToLive
+     *      time to live in milliseconds, 0 for no expiration
+     * @return
+     *      true if the snapshot is not expired
+     */
+    public boolean isFresh(long timeToLive) {
+        return timeToLive <= 0 || System.currentTimeMillis() - creationDate < timeToLive;
+    }
+
+    /**
+     * Features of a group.
+     *
+     * @param groupName
+     *      target group
+     * @return
+     *      features of the group, null if the group does not exist
+     */
+    public Map < String, Feature > getGroup(String groupName) {
+        return groups.get(groupName);
+    }
+
+    /**
+     * Names of all groups.
+     *
+     * @return
+     *      group names
+     */
+    public Set < String > getGroupNames() {
+        return groups.keySet();
+    }
+
+    /**
+     * Getter accessor for attribute 'version'.
+     *
+     * @return
+     *       current value of 'version'
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Getter accessor for attribute 'creationDate'.
+     *
+     * @return
+     *       current value of 'creationDate'
+     */
+    public long getCreationDate() {
+        return creationDate;
+    }
+
+    /**
+     * Getter accessor for attribute 'features'.
+     *
+     * @return
+     *       current value of 'features'
+     */
+    public Map < String, Feature > getFeatures() {
+        return features;
+    }
+
+    /**
+     * Getter accessor for attribute 'properties'.
+     *
+     * @return
+     *       current value of 'properties'
+     */
+    public Map < String, Property<?> > getProperties() {
+        return properties;
+    }
+
+}
@@ -0,0 +1,205 @@
+package org.ff4j.cache;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.ff4j.audit.StripedCounter;
+
+/**
+ * Statistics of a {@link FF4JCacheManager} : hits, misses, evictions and loads from the
+ * target store.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class CacheStatistics {
+
+    /** Reads served by the cache. */
+    private final StripedCounter hits = new StripedCounter();
+
+    /** Reads not found in cache. */
+    private final StripedCounter misses = new StripedCounter();
+
+    /** Entries removed for size or expiration. */
+    private final StripedCounter evictions = new StripedCounter();
+
+    /** Loads from target store. */
+    private final StripedCounter loads = new StripedCounter();
+
+    /** Loads in error. */
+    private final StripedCounter loadFailures = new StripedCounter();
+
+    /** Time spent loading, in nanoseconds. */
+    private final StripedCounter totalLoadTime = new StripedCounter();
+
+    /**
+     * Record a hit.
+     */
+    public void recordHit() {
+        hits.increment();
+    }
+
+    /**
+     * Record a miss.
+     */
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    /**
+     * Record evictions.
+     *
+     * @param count
+     *      number of evicted entries
+     */
+    public void recordEvictions(long count) {
+        evictions.add(count);
+    }
+
+    /**
+     * Record a successful load.
+     *
+     * @param loadTimeNanos
+     *      time to load the value
+     */
+    public void recordLoad(long loadTimeNanos) {
+        loads.increment();
+        totalLoadTime.add(loadTimeNanos);
+    }
+
+    /**
+     * Record a failed load.
+     *
+     * @param loadTimeNanos
+     *      time spent before failure
+     */
+    public void recordLoadFailure(long loadTimeNanos) {
+        loadFailures.increment();
+        totalLoadTime.add(loadTimeNanos);
+    }
+
+    /**
+     * Getter accessor for attribute 'hitCount'.
+     *
+     * @return
+     *       current value of 'hitCount'
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Getter accessor for attribute 'missCount'.
+     *
+     * @return
+     *       current value of 'missCount'
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Getter accessor for attribute 'evictionCount'.
+     *
+     * @return
+     *       current value of 'evictionCount'
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Getter accessor for attribute 'loadCount'.
+     *
+     * @return
+     *       current value of 'loadCount'
+     */
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    /**
+     * Getter accessor for attribute 'loadFailureCount'.
+     *
+     * @return
+     *       current value of 'loadFailureCount'
+     */
+    public long getLoadFailureCount() {
+        return loadFailures.sum();
+    }
+
+    /**
+     * Getter accessor for attribute 'totalLoadTime'.
+     *
+     * @return
+     *       current value of 'totalLoadTime' in nanoseconds
+     */
+    public long getTotalLoadTime() {
+        return totalLoadTime.sum();
+    }
+
+    /**
+     * Ratio of reads served by the cache.
+     *
+     * @return
+     *      hit rate between 0 and 1 (1 if no read)
+     */
+    public double getHitRate() {
+        long hitCount  = getHitCount();
+        long requests  = hitCount + getMissCount();
+        return (requests == 0) ? 1.0 : (double) hitCount / requests;
+    }
+
+    /**
+     * Average time to load a value.
+     *
+     * @return
+     *      average load time in nanoseconds
+     */
+    public double getAverageLoadPenalty() {
+        long count = getLoadCount() + getLoadFailureCount();
+        return (count == 0) ? 0.0 : (double) getTotalLoadTime() / count;
+    }
+
+    /**
+     * Serialized as a Json document.
+     *
+     * @return
+     *      statistics as json
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{");
+        sb.append("\"hitCount\":" + getHitCount());
+        sb.append(",\"missCount\":" + getMissCount());
+        sb.append(",\"hitRate\":" + getHitRate());
+        sb.append(",\"evictionCount\":" + getEvictionCount());
+        sb.append(",\"loadCount\":" + getLoadCount());
+        sb.append(",\"loadFailureCount\":" + getLoadFailureCount());
+        sb.append(",\"averageLoadPenalty\":" + getAverageLoadPenalty());
+        sb.append("}");
+        return sb.toString();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+}
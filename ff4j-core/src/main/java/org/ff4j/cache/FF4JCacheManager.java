@@ -133,5 +133,12 @@ public interface FF4JCacheManager {
      * @return target cache name
      */
     String getCacheProviderName();
+    
+    /**
+     * Hit, miss, eviction and load statistics of the cache.
+     * 
+     * @return current statistics
+     */
+    CacheStatistics getStatistics();
 
 }
@@ -1,6 +1,8 @@
 package org.ff4j.cache;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 
 /*
  * #%L ff4j-core %% Copyright (C) 2013 Ff4J %% Licensed under the Apache License, Version 2.0 (the "License"); you may not use
@@ -15,11 +17,21 @@ import java.util.Collection;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 
+import org.ff4j.cache.InvalidationMessage.Type;
 import org.ff4j.core.Feature;
 import org.ff4j.core.FeatureStore;
+import org.ff4j.exception.FeatureAlreadyExistException;
+import org.ff4j.exception.FeatureNotFoundException;
+import org.ff4j.exception.GroupNotFoundException;
+import org.ff4j.exception.PropertyAlreadyExistException;
+import org.ff4j.exception.PropertyNotFoundException;
 import org.ff4j.property.Property;
 import org.ff4j.property.store.PropertyStore;
+import org.ff4j.store.ChangeSet;
+import org.ff4j.store.ImportReport;
+import org.ff4j.utils.Util;
 
 /**
  * Access to {@link FeatureStore} could generate some overhead and decrease performances. This is the reason why cache is provided
@@ -30,7 +42,10 @@ import org.ff4j.property.store.PropertyStore;
  * 
  * @author Cedrick Lunven (@clunven)
  */
-public class FF4jCacheProxy implements FeatureStore, PropertyStore {
+public class FF4jCacheProxy implements FeatureStore, PropertyStore, InvalidationListener, CacheSnapshotListener {
+
+    /** Default time to live of the snapshot (milliseconds). */
+    public static final long DEFAULT_SNAPSHOT_TTL = 10000;
 
     /** Target feature store to be proxified to cache features. */
     private FeatureStore targetFeatureStore;
@@ -43,6 +58,70 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
     
     /** Daemon to fetch data from target store to cache on a fixed delay basis. */
     private Store2CachePollingScheduler store2CachePoller = null;
+    
+    /** Propagate invalidations to other nodes (optional). */
+    private InvalidationBus invalidationBus = null;
+    
+    /** Identifier of this proxy on the invalidation bus. */
+    private final String nodeId = UUID.randomUUID().toString();
+    
+    /** Features recently not found in target store. */
+    private final NegativeCache missingFeatures = new NegativeCache();
+    
+    /** Properties recently not found in target store. */
+    private final NegativeCache missingProperties = new NegativeCache();
+    
+    /** Serve bulk reads (readAll, groups, readAllProperties) from a snapshot of the stores. */
+    private boolean snapshotMode = false;
+    
+    /** Time to live of the snapshot (milliseconds), 0 for no expiration. */
+    private long snapshotTimeToLive = DEFAULT_SNAPSHOT_TTL;
+    
+    /** Whole content of the stores, null when not loaded or outdated. */
+    private volatile CacheSnapshot snapshot = null;
+    
+    /** Date of the last modification (milliseconds), older snapshots are rejected. */
+    private long lastWriteDate = 0;
+
+    /** Held to compare the snapshot with the last modification and to set it as one step. */
+    private final Object installLock = new Object();
+    
+    /** Only one thread loads the snapshot. */
+    private final Object snapshotLock = new Object();
+    
+    /** Coalesce concurrent loads of the same feature. */
+    private final SingleFlight < Feature > featureLoads = new SingleFlight<Feature>(new CacheEntryLoader<Feature>() {
+        public Feature load(String uid) {
+            long start = System.nanoTime();
+            try {
+                Feature fp = getTargetFeatureStore().read(uid);
+                getCacheManager().putFeature(fp);
+                return fp;
+            } catch (FeatureNotFoundException fnf) {
+                missingFeatures.markMissing(uid);
+                return null;
+            } finally {
+                recordLoad(start);
+            }
+        }
+    });
+    
+    /** Coalesce concurrent loads of the same property. */
+    private final SingleFlight < Property<?> > propertyLoads = new SingleFlight<Property<?>>(new CacheEntryLoader<Property<?>>() {
+        public Property<?> load(String name) {
+            long start = System.nanoTime();
+            try {
+                Property<?> prop = getTargetPropertyStore().readProperty(name);
+                getCacheManager().putProperty(prop);
+                return prop;
+            } catch (PropertyNotFoundException pnf) {
+                missingProperties.markMissing(name);
+                return null;
+            } finally {
+                recordLoad(start);
+            }
+        }
+    });
 
     /**
      * Allow Ioc and defeine default constructor.
@@ -62,6 +141,150 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
         this.targetFeatureStore  = fStore;
         this.targetPropertyStore = pStore;
         this.store2CachePoller   = new Store2CachePollingScheduler(fStore, pStore, cache);
+        registerLoaders();
+    }
+    
+    /**
+     * Allow {@link InMemoryCacheManager} to reload entries from target stores (refresh after write).
+     */
+    private void registerLoaders() {
+        if (cacheManager instanceof InMemoryCacheManager) {
+            InMemoryCacheManager imcm = (InMemoryCacheManager) cacheManager;
+            imcm.setFeatureLoader(new CacheEntryLoader<Feature>() {
+                public Feature load(String uid) {
+                    try {
+                        return getTargetFeatureStore().read(uid);
+                    } catch (FeatureNotFoundException fnf) {
+                        return null;
+                    }
+                }
+            });
+            imcm.setPropertyLoader(new CacheEntryLoader<Property<?>>() {
+                public Property<?> load(String name) {
+                    try {
+                        return getTargetPropertyStore().readProperty(name);
+                    } catch (PropertyNotFoundException pnf) {
+                        return null;
+                    }
+                }
+            });
+        }
+    }
+    
+    /**
+     * Record time spent reading target store after a cache miss.
+     *
+     * @param start
+     *      start of the read (nanoseconds)
+     */
+    private void recordLoad(long start) {
+        CacheStatistics stats = getCacheManager().getStatistics();
+        if (stats != null) {
+            stats.recordLoad(System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * An item has been modified : drop the snapshot and notify other nodes.
+     *
+     * @param type
+     *      kind of invalidation
+     * @param key
+     *      feature uid or property name
+     */
+    private void publish(Type type, String key) {
+        invalidateSnapshot();
+        if (invalidationBus != null) {
+            invalidationBus.publish(new InvalidationMessage(type, nodeId, key));
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public void onInvalidation(InvalidationMessage message) {
+        // Local cache already up to date
+        if (nodeId.equals(message.getSource())) {
+            return;
+        }
+        invalidateSnapshot();
+        switch (message.getType()) {
+            case FEATURE:
+                missingFeatures.remove(message.getKey());
+                getCacheManager().evictFeature(message.getKey());
+            break;
+            case PROPERTY:
+                missingProperties.remove(message.getKey());
+                getCacheManager().evictProperty(message.getKey());
+            break;
+            case ALL_FEATURES:
+                missingFeatures.clear();
+                getCacheManager().clearFeatures();
+            break;
+            case ALL_PROPERTIES:
+                missingProperties.clear();
+                getCacheManager().clearProperties();
+            break;
+            default:
+            break;
+        }
+    }
+    
+    /**
+     * Drop the current snapshot and reject the ones read before now.
+     */
+    private void invalidateSnapshot() {
+        synchronized (installLock) {
+            lastWriteDate = System.currentTimeMillis();
+            snapshot = null;
+        }
+    }
+    
+    /**
+     * Use snapshot if it is newer than the last modification.
+     *
+     * @param newSnapshot
+     *      content of the stores
+     */
+    private void installSnapshot(CacheSnapshot newSnapshot) {
+        synchronized (installLock) {
+            if (snapshotMode && newSnapshot.getCreationDate() > lastWriteDate) {
+                snapshot = newSnapshot;
+            }
+        }
+    }
+    
+    /**
+     * Current snapshot, loaded from target stores when missing or expired.
+     *
+     * @return
+     *      whole content of the stores
+     */
+    private CacheSnapshot getSnapshot() {
+        CacheSnapshot current = snapshot;
+        if (current != null && current.isFresh(snapshotTimeToLive)) {
+            return current;
+        }
+        synchronized (snapshotLock) {
+            // Loaded by another thread in the meantime
+            current = snapshot;
+            if (current != null && current.isFresh(snapshotTimeToLive)) {
+                return current;
+            }
+            long start = System.currentTimeMillis();
+            long startLoad = System.nanoTime();
+            current = new CacheSnapshot(start, 
+                    getTargetFeatureStore().readAll(), 
+                    getTargetPropertyStore().readAllProperties());
+            recordLoad(startLoad);
+            installSnapshot(current);
+            return current;
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public void onSnapshot(CacheSnapshot newSnapshot) {
+        installSnapshot(newSnapshot);
     }
     
     /**
@@ -91,6 +314,7 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
         getTargetFeatureStore().enable(featureId);
         // Modification => flush cache
         getCacheManager().evictFeature(featureId);
+        publish(Type.FEATURE, featureId);
     }
 
     /** {@inheritDoc} */
@@ -100,6 +324,7 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
         getTargetFeatureStore().disable(featureId);
         // Cache Operations : As modification, flush cache for this
         getCacheManager().evictFeature(featureId);
+        publish(Type.FEATURE, featureId);
     }
 
     /** {@inheritDoc} */
@@ -107,7 +332,14 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
     public boolean exist(String featureId) {
         // not in cache but maybe created from last access
         if (getCacheManager().getFeature(featureId) == null) {
-            return getTargetFeatureStore().exist(featureId);
+            if (missingFeatures.isMissing(featureId)) {
+                return false;
+            }
+            boolean exist = getTargetFeatureStore().exist(featureId);
+            if (!exist) {
+                missingFeatures.markMissing(featureId);
+            }
+            return exist;
         }
         return true;
     }
@@ -124,8 +356,16 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
     /** {@inheritDoc} */
     @Override
     public void create(Feature fp) {
-        getTargetFeatureStore().create(fp);
+        try {
+            getTargetFeatureStore().create(fp);
+        } catch (FeatureAlreadyExistException faee) {
+            // Created by another node, the negative cache is out of date
+            missingFeatures.remove(fp.getUid());
+            throw faee;
+        }
         getCacheManager().putFeature(fp);
+        missingFeatures.remove(fp.getUid());
+        publish(Type.FEATURE, fp.getUid());
     }
 
     /** {@inheritDoc} */
@@ -134,8 +374,14 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
         Feature fp = getCacheManager().getFeature(featureUid);
         // not in cache but may has been created from now
         if (null == fp) {
-            fp = getTargetFeatureStore().read(featureUid);
-            getCacheManager().putFeature(fp);
+            // Recently not found, do not reach target store again
+            if (missingFeatures.isMissing(featureUid)) {
+                throw new FeatureNotFoundException(featureUid);
+            }
+            fp = featureLoads.load(featureUid);
+            if (null == fp) {
+                throw new FeatureNotFoundException(featureUid);
+            }
         }
         return fp;
     }
@@ -143,13 +389,53 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
     /** {@inheritDoc} */
     @Override
     public Map<String, Feature> readAll() {
+        if (snapshotMode) {
+            return getSnapshot().getFeatures();
+        }
         // Cannot be sure of whole cache - do not test any feature one-by-one : accessing FeatureStore
         return getTargetFeatureStore().readAll();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Feature> readFeatures(Set<String> featureIds) {
+        Map<String, Feature> features = new HashMap<String, Feature>();
+        Set<String> misses = new HashSet<String>();
+        if (featureIds != null) {
+            for (String uid : featureIds) {
+                Feature fp = getCacheManager().getFeature(uid);
+                if (fp == null) {
+                    if (!missingFeatures.isMissing(uid)) {
+                        misses.add(uid);
+                    }
+                } else {
+                    features.put(uid, fp);
+                }
+            }
+        }
+        // Load all misses from target store in one call
+        if (!misses.isEmpty()) {
+            long start = System.nanoTime();
+            Map<String, Feature> loaded = getTargetFeatureStore().readFeatures(misses);
+            recordLoad(start);
+            for (Feature fp : loaded.values()) {
+                getCacheManager().putFeature(fp);
+            }
+            features.putAll(loaded);
+            misses.removeAll(loaded.keySet());
+            for (String uid : misses) {
+                missingFeatures.markMissing(uid);
+            }
+        }
+        return features;
+    }
+
     /** {@inheritDoc} */
     @Override
     public Set<String> readAllGroups() {
+        if (snapshotMode) {
+            return getSnapshot().getGroupNames();
+        }
         // Cannot be sure of whole cache - do not test any feature one-by-one : accessing FeatureStore
         return getTargetFeatureStore().readAllGroups();
     }
@@ -161,6 +447,7 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
         getTargetFeatureStore().delete(featureId);
         // even is not present, evict won't failed
         getCacheManager().evictFeature(featureId);
+        publish(Type.FEATURE, featureId);
     }
 
     /** {@inheritDoc} */
@@ -168,6 +455,7 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
     public void update(Feature fp) {
         getTargetFeatureStore().update(fp);
         getCacheManager().evictFeature(fp.getUid());
+        publish(Type.FEATURE, fp.getUid());
     }
 
     /** {@inheritDoc} */
@@ -175,6 +463,7 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
     public void grantRoleOnFeature(String featureId, String roleName) {
         getTargetFeatureStore().grantRoleOnFeature(featureId, roleName);
         getCacheManager().evictFeature(featureId);
+        publish(Type.FEATURE, featureId);
     }
 
     /** {@inheritDoc} */
@@ -182,6 +471,7 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
     public void removeRoleFromFeature(String featureId, String roleName) {
         getTargetFeatureStore().removeRoleFromFeature(featureId, roleName);
         getCacheManager().evictFeature(featureId);
+        publish(Type.FEATURE, featureId);
     }
 
     /** {@inheritDoc} */
@@ -190,6 +480,7 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
         getTargetFeatureStore().enableGroup(groupName);
         // Cannot know wich feature to work with (exceptional event) : flush cache
         getCacheManager().clearFeatures();
+        publish(Type.ALL_FEATURES, groupName);
     }
 
     /** {@inheritDoc} */
@@ -198,11 +489,16 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
         getTargetFeatureStore().disableGroup(groupName);
         // Cannot know wich feature to work with (exceptional event) : flush cache
         getCacheManager().clearFeatures();
+        publish(Type.ALL_FEATURES, groupName);
     }
 
     /** {@inheritDoc} */
     @Override
     public boolean existGroup(String groupName) {
+        if (snapshotMode) {
+            Util.assertParamHasLength(groupName, "groupName");
+            return getSnapshot().getGroup(groupName) != null;
+        }
         // Cache cannot help you
         return getTargetFeatureStore().existGroup(groupName);
     }
@@ -210,6 +506,14 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
     /** {@inheritDoc} */
     @Override
     public Map<String, Feature> readGroup(String groupName) {
+        if (snapshotMode) {
+            Util.assertParamHasLength(groupName, "groupName");
+            Map<String, Feature> group = getSnapshot().getGroup(groupName);
+            if (group == null) {
+                throw new GroupNotFoundException(groupName);
+            }
+            return group;
+        }
         // Cache cannot help you
         return getTargetFeatureStore().readGroup(groupName);
     }
@@ -219,6 +523,7 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
     public void addToGroup(String featureId, String groupName) {
         getTargetFeatureStore().addToGroup(featureId, groupName);
         getCacheManager().evictFeature(featureId);
+        publish(Type.FEATURE, featureId);
     }
 
     /** {@inheritDoc} */
@@ -226,6 +531,7 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
     public void removeFromGroup(String featureId, String groupName) {
         getTargetFeatureStore().removeFromGroup(featureId, groupName);
         getCacheManager().evictFeature(featureId);
+        publish(Type.FEATURE, featureId);
     }
 
     /**
@@ -272,6 +578,7 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
      */
     public void setCacheManager(FF4JCacheManager cacheManager) {
         this.cacheManager = cacheManager;
+        registerLoaders();
     }
 
     // ------------ Cache related method --------------------
@@ -298,15 +605,37 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
     /** {@inheritDoc} */
     @Override
     public Map<String, Property<?>> readAllProperties() {
+        if (snapshotMode) {
+            return getSnapshot().getProperties();
+        }
         return getTargetPropertyStore().readAllProperties();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public ChangeSet<Property<?>> propertyChangesSince(long version) {
+        return getTargetPropertyStore().propertyChangesSince(version);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ChangeSet<Feature> featureChangesSince(long version) {
+        return getTargetFeatureStore().featureChangesSince(version);
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean existProperty(String propertyName) {
         // not in cache but maybe created from last access
         if (getCacheManager().getProperty(propertyName) == null) {
-            return getTargetPropertyStore().existProperty(propertyName);
+            if (missingProperties.isMissing(propertyName)) {
+                return false;
+            }
+            boolean exist = getTargetPropertyStore().existProperty(propertyName);
+            if (!exist) {
+                missingProperties.markMissing(propertyName);
+            }
+            return exist;
         }
         return true;
     }
@@ -314,8 +643,16 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
     /** {@inheritDoc} */
     @Override
     public <T> void createProperty(Property<T> property) {
-        getTargetPropertyStore().createProperty(property);
+        try {
+            getTargetPropertyStore().createProperty(property);
+        } catch (PropertyAlreadyExistException paee) {
+            // Created by another node, the negative cache is out of date
+            missingProperties.remove(property.getName());
+            throw paee;
+        }
         getCacheManager().putProperty(property);
+        missingProperties.remove(property.getName());
+        publish(Type.PROPERTY, property.getName());
     }
 
     /** {@inheritDoc} */
@@ -324,8 +661,14 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
         Property<?> fp = getCacheManager().getProperty(name);
         // not in cache but may has been created from now
         if (null == fp) {
-            fp = getTargetPropertyStore().readProperty(name);
-            getCacheManager().putProperty(fp);
+            // Recently not found, do not reach target store again
+            if (missingProperties.isMissing(name)) {
+                throw new PropertyNotFoundException(name);
+            }
+            fp = propertyLoads.load(name);
+            if (null == fp) {
+                throw new PropertyNotFoundException(name);
+            }
         }
         return fp;
     }
@@ -337,8 +680,11 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
         // Not in cache but may has been created from now
         // Or in cache but with different value that default
         if (null == fp) {
+            long start = System.nanoTime();
             fp = getTargetPropertyStore().readProperty(name, defaultValue);
+            recordLoad(start);
             getCacheManager().putProperty(fp);
+            missingProperties.remove(name);
         }
         return fp;
     }
@@ -355,6 +701,7 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
         getCacheManager().evictProperty(fp.getName());
         // Add new value in the cache
         getCacheManager().putProperty(fp);
+        publish(Type.PROPERTY, fp.getName());
     }
 
     /** {@inheritDoc} */
@@ -366,6 +713,7 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
         getCacheManager().evictProperty(propertyValue.getName());
         // Update the property in cache
         getCacheManager().putProperty(propertyValue);
+        publish(Type.PROPERTY, propertyValue.getName());
     }
 
     /** {@inheritDoc} */
@@ -375,6 +723,7 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
         getTargetPropertyStore().deleteProperty(name);
         // even is not present, evict name failed
         getCacheManager().evictProperty(name);
+        publish(Type.PROPERTY, name);
     }
 
     /** {@inheritDoc} */
@@ -386,6 +735,9 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
     /** {@inheritDoc} */
     @Override
     public Set<String> listPropertyNames() {
+        if (snapshotMode) {
+            return getSnapshot().getProperties().keySet();
+        }
         return getTargetPropertyStore().listPropertyNames();
     }
 
@@ -394,23 +746,33 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
     public void clear() {
         // Cache Operations : As modification, flush cache for this
         getCacheManager().clearProperties();
+        missingProperties.clear();
         getTargetPropertyStore().clear();
 
         // Cache Operations : As modification, flush cache for this
         getCacheManager().clearFeatures();
+        missingFeatures.clear();
         getTargetFeatureStore().clear();
+        publish(Type.ALL_PROPERTIES, null);
+        publish(Type.ALL_FEATURES, null);
     }
     
     /** {@inheritDoc} */
-    public void importProperties(Collection<Property<?>> properties) {
+    public ImportReport importProperties(Collection<Property<?>> properties) {
         getCacheManager().clearProperties();
-        getTargetPropertyStore().importProperties(properties);
+        missingProperties.clear();
+        ImportReport report = getTargetPropertyStore().importProperties(properties);
+        publish(Type.ALL_PROPERTIES, null);
+        return report;
     }
 
     /** {@inheritDoc} */
-    public void importFeatures(Collection<Feature> features) {
+    public ImportReport importFeatures(Collection<Feature> features) {
         getCacheManager().clearFeatures();
-        getTargetFeatureStore().importFeatures(features);
+        missingFeatures.clear();
+        ImportReport report = getTargetFeatureStore().importFeatures(features);
+        publish(Type.ALL_FEATURES, null);
+        return report;
     }
 
     /**
@@ -450,5 +812,138 @@ public class FF4jCacheProxy implements FeatureStore, PropertyStore {
      */
     public void setStore2CachePoller(Store2CachePollingScheduler store2CachePoller) {
         this.store2CachePoller = store2CachePoller;
-    }    
+        if (snapshotMode && store2CachePoller != null) {
+            store2CachePoller.getWorker().setSnapshotListener(this);
+        }
+    }
+
+    /**
+     * Getter accessor for attribute 'invalidationBus'.
+     *
+     * @return
+     *       current value of 'invalidationBus'
+     */
+    public InvalidationBus getInvalidationBus() {
+        return invalidationBus;
+    }
+
+    /**
+     * Publish local modifications to the bus and evict items modified by other nodes.
+     *
+     * @param invalidationBus
+     *      new value for 'invalidationBus', null to stop listening
+     */
+    public void setInvalidationBus(InvalidationBus invalidationBus) {
+        if (this.invalidationBus != null) {
+            this.invalidationBus.unsubscribe(this);
+        }
+        this.invalidationBus = invalidationBus;
+        if (invalidationBus != null) {
+            invalidationBus.subscribe(this);
+        }
+    }
+
+    /**
+     * Getter accessor for attribute 'snapshotMode'.
+     *
+     * @return
+     *       current value of 'snapshotMode'
+     */
+    public boolean isSnapshotMode() {
+        return snapshotMode;
+    }
+
+    /**
+     * Serve readAll, readGroup, existGroup, readAllGroups, readAllProperties and listPropertyNames
+     * from an immutable snapshot of the stores. The snapshot is loaded on first access (or
+     * provided by the poller if started), dropped on each modification and reloaded when
+     * older than 'snapshotTimeToLive'. Returned maps and sets are read-only.
+     *
+     * @param snapshotMode
+     *      new value for 'snapshotMode'
+     */
+    public void setSnapshotMode(boolean snapshotMode) {
+        synchronized (installLock) {
+            this.snapshotMode = snapshotMode;
+            this.snapshot     = null;
+        }
+        if (store2CachePoller != null) {
+            store2CachePoller.getWorker().setSnapshotListener(snapshotMode ? this : null);
+        }
+    }
+
+    /**
+     * Getter accessor for attribute 'snapshotTimeToLive'.
+     *
+     * @return
+     *       current value of 'snapshotTimeToLive'
+     */
+    public long getSnapshotTimeToLive() {
+        return snapshotTimeToLive;
+    }
+
+    /**
+     * Setter accessor for attribute 'snapshotTimeToLive'.
+     *
+     * @param snapshotTimeToLive
+     *      time to live in milliseconds, 0 for no expiration (when fed by the poller)
+     */
+    public void setSnapshotTimeToLive(long snapshotTimeToLive) {
+        if (snapshotTimeToLive < 0) {
+            throw new IllegalArgumentException("Time to live cannot be negative");
+        }
+        this.snapshotTimeToLive = snapshotTimeToLive;
+    }
+
+    /**
+     * Time to live of the features and properties not found in target store.
+     *
+     * @param timeToLive
+     *      time to live in milliseconds, 0 to disable negative caching
+     */
+    public void setNegativeCacheTimeToLive(long timeToLive) {
+        missingFeatures.setTimeToLive(timeToLive);
+        missingProperties.setTimeToLive(timeToLive);
+    }
+
+    /**
+     * Getter accessor for negative cache time to live.
+     *
+     * @return
+     *       time to live of missing entries in milliseconds
+     */
+    public long getNegativeCacheTimeToLive() {
+        return missingFeatures.getTimeToLive();
+    }
+
+    /**
+     * Maximum number of features, and of properties, remembered as not found in target store.
+     *
+     * @param maxSize
+     *      maximum number of missing keys
+     */
+    public void setNegativeCacheMaxSize(int maxSize) {
+        missingFeatures.setMaxSize(maxSize);
+        missingProperties.setMaxSize(maxSize);
+    }
+
+    /**
+     * Getter accessor for negative cache maximum size.
+     *
+     * @return
+     *       maximum number of missing keys
+     */
+    public int getNegativeCacheMaxSize() {
+        return missingFeatures.getMaxSize();
+    }
+
+    /**
+     * Getter accessor for attribute 'nodeId'.
+     *
+     * @return
+     *       current value of 'nodeId'
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
 }
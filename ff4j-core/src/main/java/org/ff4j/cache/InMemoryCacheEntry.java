@@ -21,6 +21,7 @@ package org.ff4j.cache;
  */
 
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Cache entry with object and inserted Date.
@@ -47,6 +48,12 @@ public final class InMemoryCacheEntry<T> implements Serializable {
     /** Current entry to cache. */
     private final T entry;
 
+    /** Last read, used to evict least recently used entries. */
+    private volatile long lastAccess;
+
+    /** Reload in progress. */
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
     /**
      * Parameterized contructor with target cached object.
      * 
@@ -56,6 +63,7 @@ public final class InMemoryCacheEntry<T> implements Serializable {
     public InMemoryCacheEntry(T entry) {
         this.entry = entry;
         this.insertedDate = System.currentTimeMillis();
+        this.lastAccess   = insertedDate;
     }
     
     /**
@@ -67,6 +75,7 @@ public final class InMemoryCacheEntry<T> implements Serializable {
     public InMemoryCacheEntry(T entry, long timeToLive) {
         this.entry = entry;
         this.insertedDate = System.currentTimeMillis();
+        this.lastAccess   = insertedDate;
         this.timeToLive = timeToLive;
     }
     
@@ -77,7 +86,83 @@ public final class InMemoryCacheEntry<T> implements Serializable {
      *      time to live
      */
     public boolean hasReachTimeToLive() {
-        return (System.currentTimeMillis() - getInsertedDate()) >= (TO_MILLIS * timeToLive);
+        return hasReachTimeToLive(System.currentTimeMillis());
+    }
+
+    /**
+     * Compute the timeout property for a given time.
+     *
+     * @param now
+     *      current time in milliseconds
+     * @return
+     *      if the entry is expired
+     */
+    public boolean hasReachTimeToLive(long now) {
+        return (now - getInsertedDate()) >= (TO_MILLIS * timeToLive);
+    }
+
+    /**
+     * Check if the entry should be reloaded (still valid but old).
+     *
+     * @param now
+     *      current time in milliseconds
+     * @param refreshAfterWrite
+     *      delay after insertion to reload, in seconds
+     * @return
+     *      if the entry should be refreshed
+     */
+    public boolean needRefresh(long now, long refreshAfterWrite) {
+        return refreshAfterWrite > 0 && (now - getInsertedDate()) >= (TO_MILLIS * refreshAfterWrite);
+    }
+
+    /**
+     * Mark entry as being reloaded.
+     *
+     * @return
+     *      true if no reload was in progress
+     */
+    public boolean startRefresh() {
+        return refreshing.compareAndSet(false, true);
+    }
+
+    /**
+     * Reload is over (failed), allow a new one.
+     */
+    public void endRefresh() {
+        refreshing.set(false);
+    }
+
+    /**
+     * Update last access time.
+     *
+     * @param now
+     *      current time in milliseconds
+     */
+    public void touch(long now) {
+        // Avoid writing shared cache line when read in the same millisecond
+        if (lastAccess != now) {
+            lastAccess = now;
+        }
+    }
+
+    /**
+     * Getter accessor for attribute 'lastAccess'.
+     *
+     * @return
+     *       current value of 'lastAccess'
+     */
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    /**
+     * Getter accessor for attribute 'timeToLive'.
+     *
+     * @return
+     *       current value of 'timeToLive' in seconds
+     */
+    public long getTimeToLive() {
+        return timeToLive;
     }
 
     /**
@@ -20,9 +20,22 @@ package org.ff4j.cache;
  * #L%
  */
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.ff4j.core.Feature;
 import org.ff4j.property.Property;
@@ -33,20 +46,91 @@ import org.ff4j.property.Property;
  * Warn : DO NOT USE THIS CACHE WHEN WORKING WITH EXTERNAL FEATURESTORE (as Database) and cluster application : EACH NODE GOT ITS
  * MEMORY AND AN MODIFICATION IN STORE WON'T REFRESH THIS CACHE. Please use REDIS/MEMCACHED implementations.
  * 
+ * Entries are kept in concurrent maps with :
+ * <ul>
+ * <li>a maximum size per map, least recently read entries are evicted (by batch of 10%) when exceeded.</li>
+ * <li>expiration after write (time to live), expired entries are removed on read and by a cleanup task.</li>
+ * <li>optional refresh after write : when a {@link CacheEntryLoader} is defined, an old entry is still returned
+ * while it is reloaded in background (stale-while-revalidate).</li>
+ * </ul>
+ * Cleanup and reloads run on a scheduler shared by every instance.
+ * 
  * @author Cedrick Lunven (@clunven)
  */
 public class InMemoryCacheManager implements FF4JCacheManager {    
 
     /** cache name if several caches within memory. */
     public static final String DEFAULT_CACHENAME = "ff4j-cache";
+    
+    /** Default maximum number of entries per map. */
+    public static final int DEFAULT_MAX_SIZE = 10000;
+    
+    /** Delay between two removals of expired entries, in seconds. */
+    public static final long CLEANUP_PERIOD = 60L;
 
     /** Cached Feature Map */
-    private final Map<String, InMemoryCacheEntry<Feature>> featuresCache = 
-            new WeakHashMap<String, InMemoryCacheEntry<Feature>>();
+    private final ConcurrentMap<String, InMemoryCacheEntry<Feature>> featuresCache = 
+            new ConcurrentHashMap<String, InMemoryCacheEntry<Feature>>();
     
     /** Cached Property Map */
-    private final Map<String, InMemoryCacheEntry<Property<?>>> propertyCache = 
-            new WeakHashMap<String, InMemoryCacheEntry<Property<?>>>();
+    private final ConcurrentMap<String, InMemoryCacheEntry<Property<?>>> propertyCache = 
+            new ConcurrentHashMap<String, InMemoryCacheEntry<Property<?>>>();
+    
+    /** Statistics. */
+    private final CacheStatistics statistics = new CacheStatistics();
+    
+    /** Maximum number of entries per map. */
+    private final int maxSize;
+    
+    /** Default time to live in seconds. */
+    private final long timeToLive;
+    
+    /** Delay to reload entries in seconds (0 to disable). */
+    private final long refreshAfterWrite;
+    
+    /** Reload features (refresh disabled if null). */
+    private CacheEntryLoader < Feature > featureLoader;
+    
+    /** Reload properties (refresh disabled if null). */
+    private CacheEntryLoader < Property<?> > propertyLoader;
+    
+    /**
+     * Default constructor.
+     */
+    public InMemoryCacheManager() {
+        this(DEFAULT_MAX_SIZE);
+    }
+    
+    /**
+     * Constructor with maximum size.
+     *
+     * @param maxSize
+     *      maximum number of entries per map
+     */
+    public InMemoryCacheManager(int maxSize) {
+        this(maxSize, InMemoryCacheEntry.DEFAULT_TTL, 0);
+    }
+    
+    /**
+     * Constructor with size and timers.
+     *
+     * @param maxSize
+     *      maximum number of entries per map
+     * @param timeToLive
+     *      expiration after write in seconds
+     * @param refreshAfterWrite
+     *      reload after write in seconds, 0 to disable
+     */
+    public InMemoryCacheManager(int maxSize, long timeToLive, long refreshAfterWrite) {
+        if (maxSize <= 0 || timeToLive <= 0 || refreshAfterWrite < 0) {
+            throw new IllegalArgumentException("ff4j-core: Invalid cache configuration, size and timeToLive must be positive");
+        }
+        this.maxSize           = maxSize;
+        this.timeToLive        = timeToLive;
+        this.refreshAfterWrite = refreshAfterWrite;
+        CleanUpTask task = new CleanUpTask(this);
+        task.future = getScheduler().scheduleWithFixedDelay(task, CLEANUP_PERIOD, CLEANUP_PERIOD, TimeUnit.SECONDS);
+    }
        
     /** {@inheritDoc} */
     @Override
@@ -75,7 +159,7 @@ public class InMemoryCacheManager implements FF4JCacheManager {
     /** {@inheritDoc} */
     @Override
     public void evictFeature(String featureId) {
-        if (getFeaturesCache().containsKey(featureId)) {
+        if (featureId != null) {
             getFeaturesCache().remove(featureId);
         }
     }
@@ -83,7 +167,7 @@ public class InMemoryCacheManager implements FF4JCacheManager {
     /** {@inheritDoc} */
     @Override
     public void evictProperty(String propertyName) {
-        if (getPropertyCache().containsKey(propertyName)) {
+        if (propertyName != null) {
             getPropertyCache().remove(propertyName);
         }
     }
@@ -91,13 +175,7 @@ public class InMemoryCacheManager implements FF4JCacheManager {
     /** {@inheritDoc} */
     @Override
     public void putFeature(Feature feat) {
-        if (feat == null) {
-            throw new IllegalArgumentException("ff4j-core: Cannot insert null feature into cache");
-        }
-        if (feat.getUid() == null || feat.getUid().isEmpty()) {
-            throw new IllegalArgumentException("ff4j-core: Cannot insert feature with null identifier into cache");
-        }
-        getFeaturesCache().put(feat.getUid(), new InMemoryCacheEntry<Feature>(feat));
+        putFeature(feat, timeToLive);
     }
     
     /** {@inheritDoc} */
@@ -108,19 +186,13 @@ public class InMemoryCacheManager implements FF4JCacheManager {
         if (feat.getUid() == null || feat.getUid().isEmpty()) {
             throw new IllegalArgumentException("ff4j-core: Cannot insert feature with null identifier into cache");
         }
-        getFeaturesCache().put(feat.getUid(), new InMemoryCacheEntry<Feature>(feat, timeToLive));
+        put(featuresCache, feat.getUid(), feat, timeToLive);
     }
 
     /** {@inheritDoc} */
     @Override
     public void putProperty(Property<?> prop) {
-        if (prop == null) {
-            throw new IllegalArgumentException("ff4j-core: Cannot insert null property into cache");
-        }
-        if (prop.getName() == null || prop.getName().isEmpty()) {
-            throw new IllegalArgumentException("ff4j-core: Cannot insert property with null identifier into cache");
-        }
-        getPropertyCache().put(prop.getName(), new InMemoryCacheEntry<Property<?>>(prop));
+        putProperty(prop, timeToLive);
     }
     
     /** {@inheritDoc} */
@@ -131,37 +203,132 @@ public class InMemoryCacheManager implements FF4JCacheManager {
         if (prop.getName() == null || prop.getName().isEmpty()) {
             throw new IllegalArgumentException("ff4j-core: Cannot insert property with null identifier into cache");
         }
-        getPropertyCache().put(prop.getName(), new InMemoryCacheEntry<Property<?>>(prop, timeToLive));
+        put(propertyCache, prop.getName(), prop, timeToLive);
     }
 
     /** {@inheritDoc} */
     @Override
     public Feature getFeature(String featureId) {
-        InMemoryCacheEntry<Feature> cacheEntry = getFeaturesCache().get(featureId);
-        if (cacheEntry != null) {
-            if (cacheEntry.hasReachTimeToLive()) {
-                evictFeature(featureId);
-            } else {
-                // return cached value
-                return cacheEntry.getEntry();
-            }
-        }
-        return null;
+        return get(featuresCache, featureId, featureLoader);
     }
 
     /** {@inheritDoc} */
     @Override
     public Property<?> getProperty(String pName) {
-        InMemoryCacheEntry<Property<?>> cacheEntry = getPropertyCache().get(pName);
-        if (cacheEntry != null) {
-            if (cacheEntry.hasReachTimeToLive()) {
-                evictProperty(pName);
-            } else {
-                // return cached value
-                return cacheEntry.getEntry();
+        return get(propertyCache, pName, propertyLoader);
+    }
+    
+    /**
+     * Insert entry and evict least recently used entries if needed.
+     */
+    private < T > void put(ConcurrentMap<String, InMemoryCacheEntry<T>> cache, String key, T value, long ttl) {
+        cache.put(key, new InMemoryCacheEntry<T>(value, ttl));
+        if (cache.size() > maxSize) {
+            trim(cache);
+        }
+    }
+    
+    /**
+     * Read entry, expired entries are removed and old entries reloaded asynchronously.
+     */
+    private < T > T get(ConcurrentMap<String, InMemoryCacheEntry<T>> cache, String key, CacheEntryLoader<T> loader) {
+        InMemoryCacheEntry<T> cacheEntry = (key == null) ? null : cache.get(key);
+        if (cacheEntry == null) {
+            statistics.recordMiss();
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (cacheEntry.hasReachTimeToLive(now)) {
+            if (cache.remove(key, cacheEntry)) {
+                statistics.recordEvictions(1);
+            }
+            statistics.recordMiss();
+            return null;
+        }
+        cacheEntry.touch(now);
+        if (loader != null && cacheEntry.needRefresh(now, refreshAfterWrite) && cacheEntry.startRefresh()) {
+            refresh(cache, key, cacheEntry, loader);
+        }
+        statistics.recordHit();
+        return cacheEntry.getEntry();
+    }
+    
+    /**
+     * Reload entry in background, stale value is served until reload completes.
+     */
+    private < T > void refresh(final ConcurrentMap<String, InMemoryCacheEntry<T>> cache, final String key, 
+            final InMemoryCacheEntry<T> stale, final CacheEntryLoader<T> loader) {
+        try {
+            getScheduler().execute(new Runnable() {
+                public void run() {
+                    long start = System.nanoTime();
+                    try {
+                        T value = loader.load(key);
+                        statistics.recordLoad(System.nanoTime() - start);
+                        if (value == null) {
+                            cache.remove(key, stale);
+                        } else {
+                            cache.replace(key, stale, new InMemoryCacheEntry<T>(value, stale.getTimeToLive()));
+                        }
+                    } catch (RuntimeException re) {
+                        // Keep stale value until expiration, next read will retry
+                        statistics.recordLoadFailure(System.nanoTime() - start);
+                        stale.endRefresh();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            stale.endRefresh();
+        }
+    }
+    
+    /**
+     * Remove least recently read entries to get back 10% under maximum size.
+     */
+    private < T > void trim(ConcurrentMap<String, InMemoryCacheEntry<T>> cache) {
+        synchronized (cache) {
+            if (cache.size() <= maxSize) {
+                return;
+            }
+            // Copy access times, they can change while sorting
+            List < Candidate < T > > candidates = new ArrayList<Candidate<T>>(cache.size());
+            for (Map.Entry<String, InMemoryCacheEntry<T>> entry : cache.entrySet()) {
+                candidates.add(new Candidate<T>(entry.getKey(), entry.getValue()));
+            }
+            Collections.sort(candidates, new Comparator<Candidate<T>>() {
+                public int compare(Candidate<T> c1, Candidate<T> c2) {
+                    return (c1.lastAccess < c2.lastAccess) ? -1 : ((c1.lastAccess == c2.lastAccess) ? 0 : 1);
+                }
+            });
+            int toRemove = candidates.size() - (maxSize - maxSize / 10);
+            long removed = 0;
+            for (int i = 0; i < toRemove; i++) {
+                if (cache.remove(candidates.get(i).key, candidates.get(i).entry)) {
+                    removed++;
+                }
+            }
+            statistics.recordEvictions(removed);
+        }
+    }
+    
+    /**
+     * Remove expired entries, invoked periodically by the shared scheduler.
+     */
+    public void cleanUp() {
+        long now = System.currentTimeMillis();
+        removeExpired(featuresCache, now);
+        removeExpired(propertyCache, now);
+    }
+    
+    /**
+     * Remove expired entries of a map.
+     */
+    private < T > void removeExpired(ConcurrentMap<String, InMemoryCacheEntry<T>> cache, long now) {
+        for (Map.Entry<String, InMemoryCacheEntry<T>> entry : cache.entrySet()) {
+            if (entry.getValue().hasReachTimeToLive(now) && cache.remove(entry.getKey(), entry.getValue())) {
+                statistics.recordEvictions(1);
             }
         }
-        return null;
     }
 
     /** {@inheritDoc} */
@@ -181,6 +348,12 @@ public class InMemoryCacheManager implements FF4JCacheManager {
     public Object getPropertyNativeCache() {
         return getPropertyCache();
     }
+    
+    /** {@inheritDoc} */
+    @Override
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
 
     /**
      * Getter accessor for attribute 'featuresCache'.
@@ -200,6 +373,155 @@ public class InMemoryCacheManager implements FF4JCacheManager {
      */
     public Map<String, InMemoryCacheEntry<Property<?>>> getPropertyCache() {
         return propertyCache;
-    }   
+    }
+
+    /**
+     * Getter accessor for attribute 'maxSize'.
+     *
+     * @return
+     *       current value of 'maxSize'
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Getter accessor for attribute 'timeToLive'.
+     *
+     * @return
+     *       current value of 'timeToLive'
+     */
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Getter accessor for attribute 'refreshAfterWrite'.
+     *
+     * @return
+     *       current value of 'refreshAfterWrite'
+     */
+    public long getRefreshAfterWrite() {
+        return refreshAfterWrite;
+    }
+
+    /**
+     * Getter accessor for attribute 'featureLoader'.
+     *
+     * @return
+     *       current value of 'featureLoader'
+     */
+    public CacheEntryLoader<Feature> getFeatureLoader() {
+        return featureLoader;
+    }
+
+    /**
+     * Setter accessor for attribute 'featureLoader'.
+     * @param featureLoader
+     * 		new value for 'featureLoader '
+     */
+    public void setFeatureLoader(CacheEntryLoader<Feature> featureLoader) {
+        this.featureLoader = featureLoader;
+    }
+
+    /**
+     * Getter accessor for attribute 'propertyLoader'.
+     *
+     * @return
+     *       current value of 'propertyLoader'
+     */
+    public CacheEntryLoader<Property<?>> getPropertyLoader() {
+        return propertyLoader;
+    }
+
+    /**
+     * Setter accessor for attribute 'propertyLoader'.
+     * @param propertyLoader
+     * 		new value for 'propertyLoader '
+     */
+    public void setPropertyLoader(CacheEntryLoader<Property<?>> propertyLoader) {
+        this.propertyLoader = propertyLoader;
+    }
+    
+    /**
+     * Scheduler shared by all instances.
+     *
+     * @return
+     *      scheduler
+     */
+    private static ScheduledExecutorService getScheduler() {
+        return SchedulerHolder.SCHEDULER;
+    }
+    
+    /**
+     * Lazy initialization of the shared scheduler.
+     */
+    private static final class SchedulerHolder {
+        
+        /** Daemon threads, does not prevent JVM shutdown. */
+        private static final ScheduledExecutorService SCHEDULER = Executors.newScheduledThreadPool(2, new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger(0);
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "ff4j-cache-scheduler-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+    
+    /**
+     * Periodic cleanup, does not keep the cache manager alive and cancels itself once it has been collected.
+     */
+    private static final class CleanUpTask implements Runnable {
+        
+        /** Target cache manager. */
+        private final WeakReference<InMemoryCacheManager> cacheManager;
+        
+        /** Scheduled execution. */
+        private volatile ScheduledFuture<?> future;
+        
+        /**
+         * Constructor with cache manager.
+         */
+        private CleanUpTask(InMemoryCacheManager cm) {
+            this.cacheManager = new WeakReference<InMemoryCacheManager>(cm);
+        }
+        
+        /** {@inheritDoc} */
+        public void run() {
+            InMemoryCacheManager cm = cacheManager.get();
+            if (cm == null) {
+                if (future != null) {
+                    future.cancel(false);
+                }
+                return;
+            }
+            cm.cleanUp();
+        }
+    }
+    
+    /**
+     * Entry with access time copied before sorting.
+     */
+    private static final class Candidate < T > {
+        
+        /** key. */
+        private final String key;
+        
+        /** entry. */
+        private final InMemoryCacheEntry<T> entry;
+        
+        /** access time. */
+        private final long lastAccess;
+        
+        /**
+         * Copy entry.
+         */
+        private Candidate(String key, InMemoryCacheEntry<T> entry) {
+            this.key        = key;
+            this.entry      = entry;
+            this.lastAccess = entry.getLastAccess();
+        }
+    }
 
-}
\ No newline at end of file
+}
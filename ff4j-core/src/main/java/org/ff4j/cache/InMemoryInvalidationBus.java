@@ -0,0 +1,73 @@
+package org.ff4j.cache;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Loopback {@link InvalidationBus} delivering messages synchronously to the listeners of the
+ * same JVM. Share one instance between several {@link FF4jCacheProxy} to simulate nodes in tests.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class InMemoryInvalidationBus implements InvalidationBus {
+
+    /** Registered listeners. */
+    private final List < InvalidationListener > listeners = new CopyOnWriteArrayList<InvalidationListener>();
+
+    /** {@inheritDoc} */
+    @Override
+    public void publish(InvalidationMessage message) {
+        for (InvalidationListener listener : listeners) {
+            listener.onInvalidation(message);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void subscribe(InvalidationListener listener) {
+        listeners.add(listener);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void unsubscribe(InvalidationListener listener) {
+        listeners.remove(listener);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        listeners.clear();
+    }
+
+    /**
+     * Getter accessor for attribute 'listeners'.
+     *
+     * @return
+     *       current value of 'listeners'
+     */
+    public List<InvalidationListener> getListeners() {
+        return listeners;
+    }
+
+}
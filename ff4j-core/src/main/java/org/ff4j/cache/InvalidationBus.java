@@ -0,0 +1,62 @@
+package org.ff4j.cache;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Channel shared by every node of a cluster to propagate cache invalidations.
+ *
+ * Each {@link FF4jCacheProxy} publishes the items it modifies and evicts the items modified by
+ * the other nodes, so that caches converge without waiting for time to live or polling.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public interface InvalidationBus {
+
+    /**
+     * Send message to every subscriber (including the sender).
+     *
+     * @param message
+     *      invalidation message
+     */
+    void publish(InvalidationMessage message);
+
+    /**
+     * Register a listener.
+     *
+     * @param listener
+     *      listener to call when a message is received
+     */
+    void subscribe(InvalidationListener listener);
+
+    /**
+     * Remove a listener.
+     *
+     * @param listener
+     *      listener to remove
+     */
+    void unsubscribe(InvalidationListener listener);
+
+    /**
+     * Release resources (connections, threads).
+     */
+    void close();
+
+}
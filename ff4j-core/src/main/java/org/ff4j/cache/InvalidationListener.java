@@ -0,0 +1,38 @@
+package org.ff4j.cache;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * Receive invalidations published on a {@link InvalidationBus}.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public interface InvalidationListener {
+
+    /**
+     * An item has been modified by a node.
+     *
+     * @param message
+     *      invalidation message
+     */
+    void onInvalidation(InvalidationMessage message);
+
+}
@@ -0,0 +1,154 @@
+package org.ff4j.cache;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Serializable;
+
+import org.ff4j.utils.Util;
+
+/**
+ * Invalidation of a cache entry sent on a {@link InvalidationBus}.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public final class InvalidationMessage implements Serializable {
+
+    /** Serial. */
+    private static final long serialVersionUID = -2470167411387925624L;
+
+    /** Separator in serialized form. */
+    private static final char SEPARATOR = ':';
+
+    /**
+     * Kind of invalidation.
+     */
+    public static enum Type {
+        
+        /** A feature has been modified or deleted. */
+        FEATURE,
+        
+        /** A property has been modified or deleted. */
+        PROPERTY,
+        
+        /** Several features modified (group, import, clear). */
+        ALL_FEATURES,
+        
+        /** Several properties modified (import, clear). */
+        ALL_PROPERTIES;
+    }
+
+    /** Kind of invalidation. */
+    private final Type type;
+
+    /** Node sending the message. */
+    private final String source;
+
+    /** Feature uid or property name, null for ALL_* types. */
+    private final String key;
+
+    /**
+     * Full constructor.
+     *
+     * @param type
+     *      kind of invalidation
+     * @param source
+     *      node sending the message
+     * @param key
+     *      feature uid or property name
+     */
+    public InvalidationMessage(Type type, String source, String key) {
+        Util.assertNotNull(type);
+        Util.assertHasLength(source);
+        if (source.indexOf(SEPARATOR) >= 0) {
+            throw new IllegalArgumentException("Source cannot contain '" + SEPARATOR + "'");
+        }
+        this.type   = type;
+        this.source = source;
+        this.key    = key;
+    }
+
+    /**
+     * Serialize message for text based transports.
+     *
+     * @return
+     *      message as 'TYPE:SOURCE:KEY'
+     */
+    public String asString() {
+        return type.name() + SEPARATOR + source + SEPARATOR + (key == null ? "" : key);
+    }
+
+    /**
+     * Parse message serialized with {@link #asString()}.
+     *
+     * @param value
+     *      message as 'TYPE:SOURCE:KEY'
+     * @return
+     *      message
+     */
+    public static InvalidationMessage fromString(String value) {
+        Util.assertHasLength(value);
+        int first  = value.indexOf(SEPARATOR);
+        int second = value.indexOf(SEPARATOR, first + 1);
+        if (first < 0 || second < 0) {
+            throw new IllegalArgumentException("Invalid invalidation message '" + value + "'");
+        }
+        String key = value.substring(second + 1);
+        return new InvalidationMessage(Type.valueOf(value.substring(0, first)),
+                value.substring(first + 1, second), key.isEmpty() ? null : key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return asString();
+    }
+
+    /**
+     * Getter accessor for attribute 'type'.
+     *
+     * @return
+     *       current value of 'type'
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Getter accessor for attribute 'source'.
+     *
+     * @return
+     *       current value of 'source'
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Getter accessor for attribute 'key'.
+     *
+     * @return
+     *       current value of 'key'
+     */
+    public String getKey() {
+        return key;
+    }
+
+}
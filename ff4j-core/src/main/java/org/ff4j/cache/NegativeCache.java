@@ -0,0 +1,203 @@
+package org.ff4j.cache;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remember for a short time the keys not found in the target store, so that repeated lookups
+ * of a missing feature or property do not reach the store on each call.
+ *
+ * The number of keys is bounded : when the cache is full, expired keys are removed and new keys
+ * are not recorded until some room is available.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class NegativeCache {
+
+    /** Default time to live of a missing key (milliseconds). */
+    public static final long DEFAULT_TTL = 1000;
+
+    /** Default maximum number of missing keys. */
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    /** Missing keys with their expiration date. */
+    private final ConcurrentMap < String, Long > expirations = new ConcurrentHashMap<String, Long>();
+
+    /** Time to live of a missing key (milliseconds), 0 to disable. */
+    private long timeToLive = DEFAULT_TTL;
+
+    /** Maximum number of missing keys. */
+    private int maxSize = DEFAULT_MAX_SIZE;
+
+    /**
+     * Default constructor.
+     */
+    public NegativeCache() {
+    }
+
+    /**
+     * Constructor with time to live.
+     *
+     * @param timeToLive
+     *      time to live of a missing key (milliseconds), 0 to disable
+     */
+    public NegativeCache(long timeToLive) {
+        setTimeToLive(timeToLive);
+    }
+
+    /**
+     * Check if the key has been recently reported as missing.
+     *
+     * @param key
+     *      feature uid or property name
+     * @return
+     *      true if the key is known to be missing
+     */
+    public boolean isMissing(String key) {
+        Long expiration = (key == null) ? null : expirations.get(key);
+        if (expiration == null) {
+            return false;
+        }
+        if (expiration.longValue() <= System.currentTimeMillis()) {
+            expirations.remove(key, expiration);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Record key as missing.
+     *
+     * @param key
+     *      feature uid or property name
+     */
+    public void markMissing(String key) {
+        if (key == null || timeToLive <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (expirations.size() >= maxSize && !expirations.containsKey(key)) {
+            sweep(now);
+            if (expirations.size() >= maxSize) {
+                return;
+            }
+        }
+        expirations.put(key, now + timeToLive);
+    }
+
+    /**
+     * Remove expired keys.
+     *
+     * @param now
+     *      current time (milliseconds)
+     */
+    private void sweep(long now) {
+        Iterator < Map.Entry < String, Long > > it = expirations.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getValue().longValue() <= now) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Number of recorded keys, expired ones included until removed.
+     *
+     * @return
+     *      number of keys
+     */
+    public int size() {
+        return expirations.size();
+    }
+
+    /**
+     * Forget key (it has been created).
+     *
+     * @param key
+     *      feature uid or property name
+     */
+    public void remove(String key) {
+        if (key != null) {
+            expirations.remove(key);
+        }
+    }
+
+    /**
+     * Forget all keys.
+     */
+    public void clear() {
+        expirations.clear();
+    }
+
+    /**
+     * Getter accessor for attribute 'timeToLive'.
+     *
+     * @return
+     *       current value of 'timeToLive'
+     */
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Setter accessor for attribute 'timeToLive'.
+     *
+     * @param timeToLive
+     *      new value for 'timeToLive', 0 to disable
+     */
+    public void setTimeToLive(long timeToLive) {
+        if (timeToLive < 0) {
+            throw new IllegalArgumentException("Time to live cannot be negative");
+        }
+        this.timeToLive = timeToLive;
+        if (timeToLive == 0) {
+            expirations.clear();
+        }
+    }
+
+    /**
+     * Getter accessor for attribute 'maxSize'.
+     *
+     * @return
+     *       current value of 'maxSize'
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Setter accessor for attribute 'maxSize'.
+     *
+     * @param maxSize
+     *      new value for 'maxSize'
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        this.maxSize = maxSize;
+    }
+
+}
@@ -0,0 +1,113 @@
+package org.ff4j.cache;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Coalesce concurrent loads of the same key : the first thread missing the cache reads the
+ * target store, the other ones wait for its result instead of reaching the store as well.
+ *
+ * @author Cedrick Lunven (@clunven)
+ *
+ * @param <T>
+ *      loaded type
+ */
+public class SingleFlight < T > {
+
+    /** Loads in progress. */
+    private final ConcurrentMap < String, FutureTask < T > > inFlight = new ConcurrentHashMap<String, FutureTask<T>>();
+
+    /** Read value from target store. */
+    private final CacheEntryLoader < T > loader;
+
+    /**
+     * Only constructor.
+     *
+     * @param loader
+     *      read value from target store
+     */
+    public SingleFlight(CacheEntryLoader < T > loader) {
+        if (loader == null) {
+            throw new IllegalArgumentException("Loader cannot be null");
+        }
+        this.loader = loader;
+    }
+
+    /**
+     * Load value, joining the load in progress for the same key if any.
+     *
+     * @param key
+     *      feature uid or property name
+     * @return
+     *      loaded value, null if it does not exist
+     */
+    public T load(final String key) {
+        if (key == null) {
+            // Nothing to coalesce, let the loader validate its parameter
+            return loader.load(key);
+        }
+        FutureTask < T > task = new FutureTask<T>(new Callable<T>() {
+            public T call() {
+                return loader.load(key);
+            }
+        });
+        FutureTask < T > running = inFlight.putIfAbsent(key, task);
+        if (running == null) {
+            running = task;
+            try {
+                task.run();
+            } finally {
+                inFlight.remove(key, task);
+            }
+        }
+        try {
+            return running.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading '" + key + "'", ie);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Cannot load '" + key + "'", cause);
+        }
+    }
+
+    /**
+     * Number of loads in progress.
+     *
+     * @return
+     *      number of keys being loaded
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+}
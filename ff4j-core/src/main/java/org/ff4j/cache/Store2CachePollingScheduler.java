@@ -133,6 +133,16 @@ public class Store2CachePollingScheduler implements Serializable{
     public void setInitialDelay(long initialDelay) {
         this.initialDelay = initialDelay;
     }
+
+    /**
+     * Getter accessor for attribute 'worker'.
+     *
+     * @return
+     *       current value of 'worker'
+     */
+    public Store2CachePollingWorker getWorker() {
+        return worker;
+    }
     
     
 
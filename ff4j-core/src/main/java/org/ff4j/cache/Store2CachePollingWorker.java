@@ -1,7 +1,11 @@
 package org.ff4j.cache;
 
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 
 /*
  * #%L
@@ -27,10 +31,20 @@ import org.ff4j.core.Feature;
 import org.ff4j.core.FeatureStore;
 import org.ff4j.property.Property;
 import org.ff4j.property.store.PropertyStore;
+import org.ff4j.store.ChangeSet;
 
 /**
  * Working thread to poll and fetch data from store and copy to local cache.
  *
+ * The worker reads the change-feed of the stores ({@link FeatureStore#featureChangesSince(long)},
+ * {@link PropertyStore#propertyChangesSince(long)}) and applies only what changed : the cache is
+ * never cleared, readers do not see an empty cache during the poll. Stores without change tracking
+ * return a full snapshot, it is compared to what has been pushed before to keep only the deltas.
+ * Items the cache dropped on its own (expired or trimmed by the size bound) are put back at each poll.
+ *
+ * When a {@link CacheSnapshotListener} is registered, the worker also keeps the whole content of
+ * the stores and hands over an immutable {@link CacheSnapshot} after each poll.
+ *
  * @author Cedrick LUNVEN (@clunven)
  */
 public class Store2CachePollingWorker implements Runnable, Serializable {
@@ -47,6 +61,30 @@ public class Store2CachePollingWorker implements Runnable, Serializable {
     /** Target feature store to be proxified to cache features. */
     private FF4JCacheManager cacheManager;
     
+    /** Version of the feature store already applied to the cache. */
+    private volatile long featureVersion = 0;
+    
+    /** Version of the property store already applied to the cache. */
+    private volatile long propertyVersion = 0;
+    
+    /** Json of features pushed to cache, used to compute deltas. */
+    private final Map < String, String > pushedFeatures = new HashMap<String, String>();
+    
+    /** Json of properties pushed to cache, used to compute deltas. */
+    private final Map < String, String > pushedProperties = new HashMap<String, String>();
+    
+    /** Current features of the store. */
+    private final Map < String, Feature > features = new LinkedHashMap<String, Feature>();
+    
+    /** Current properties of the store. */
+    private final Map < String, Property<?> > properties = new LinkedHashMap<String, Property<?>>();
+    
+    /** Last snapshot handed over. */
+    private transient CacheSnapshot snapshot;
+    
+    /** Receive snapshots after each poll (optional). */
+    private transient volatile CacheSnapshotListener snapshotListener;
+    
     /**
      * Parameterized constructor.
      *
@@ -67,33 +105,171 @@ public class Store2CachePollingWorker implements Runnable, Serializable {
     @Override
     public void run() {
         try {
+            long start = System.currentTimeMillis();
+            boolean changed = false;
             
             if (sourceFeatureStore != null) {
-                // Access the store, if failed an error is raised and cache is not cleared.
-                Map < String, Feature > mapOfFeatures = sourceFeatureStore.readAll();
-                // Clear cache
-                cacheManager.clearFeatures();
-                // Fill Cache
-                for (Feature f : mapOfFeatures.values()) {
-                    cacheManager.putFeature(f);
-                }
+                // Access the store, if failed an error is raised and cache is not updated.
+                ChangeSet < Feature > changes = sourceFeatureStore.featureChangesSince(featureVersion);
+                changed |= applyFeatureChanges(changes);
+                featureVersion = changes.getVersion();
             }
             
             if (sourcePropertyStore != null) {
-                // Access the store, if failed an error is raised and cache is not cleared.
-                Map < String, Property<?> > mapOfProperties = sourcePropertyStore.readAllProperties();
-                // Clear cache
-                cacheManager.clearProperties();
-                // Fill Cache
-                for (Property<?> p : mapOfProperties.values()) {
-                    cacheManager.putProperty(p);
-                }
+                // Access the store, if failed an error is raised and cache is not updated.
+                ChangeSet < Property<?> > changes = sourcePropertyStore.propertyChangesSince(propertyVersion);
+                changed |= applyPropertyChanges(changes);
+                propertyVersion = changes.getVersion();
             }
             
+            publishSnapshot(start, changed);
+            
         } catch (Exception ex) {
             // Work in background (worker) failed 'silently'
             ex.printStackTrace();
         }
     }
+    
+    /**
+     * Push updated features and evict deleted ones.
+     *
+     * @param changes
+     *      changes read from the feature store
+     * @return
+     *      if something changed
+     */
+    private synchronized boolean applyFeatureChanges(ChangeSet < Feature > changes) {
+        boolean changed = false;
+        for (Feature f : changes.getUpdated().values()) {
+            String json = f.toJson();
+            if (!json.equals(pushedFeatures.get(f.getUid()))) {
+                cacheManager.putFeature(f);
+                pushedFeatures.put(f.getUid(), json);
+                features.put(f.getUid(), f);
+                changed = true;
+            }
+        }
+        for (String uid : new HashSet<String>(pushedFeatures.keySet())) {
+            if (changes.isDeleted(uid)) {
+                cacheManager.evictFeature(uid);
+                pushedFeatures.remove(uid);
+                features.remove(uid);
+                changed = true;
+            }
+        }
+        for (String uid : changes.getDeleted()) {
+            cacheManager.evictFeature(uid);
+        }
+        // Restore entries the cache dropped on its own (ttl, size bound)
+        Set < String > cached = cacheManager.listCachedFeatureNames();
+        for (Map.Entry < String, Feature > entry : features.entrySet()) {
+            if (cached == null || !cached.contains(entry.getKey())) {
+                cacheManager.putFeature(entry.getValue());
+            }
+        }
+        return changed;
+    }
+    
+    /**
+     * Push updated properties and evict deleted ones.
+     *
+     * @param changes
+     *      changes read from the property store
+     * @return
+     *      if something changed
+     */
+    private synchronized boolean applyPropertyChanges(ChangeSet < Property<?> > changes) {
+        boolean changed = false;
+        for (Property<?> p : changes.getUpdated().values()) {
+            String json = p.toJson();
+            if (!json.equals(pushedProperties.get(p.getName()))) {
+                cacheManager.putProperty(p);
+                pushedProperties.put(p.getName(), json);
+                properties.put(p.getName(), p);
+                changed = true;
+            }
+        }
+        for (String name : new HashSet<String>(pushedProperties.keySet())) {
+            if (changes.isDeleted(name)) {
+                cacheManager.evictProperty(name);
+                pushedProperties.remove(name);
+                properties.remove(name);
+                changed = true;
+            }
+        }
+        for (String name : changes.getDeleted()) {
+            cacheManager.evictProperty(name);
+        }
+        // Restore entries the cache dropped on its own (ttl, size bound)
+        Set < String > cached = cacheManager.listCachedPropertyNames();
+        for (Map.Entry < String, Property<?> > entry : properties.entrySet()) {
+            if (cached == null || !cached.contains(entry.getKey())) {
+                cacheManager.putProperty(entry.getValue());
+            }
+        }
+        return changed;
+    }
+    
+    /**
+     * Hand over the content of the stores to the listener, a new snapshot is built only when
+     * something changed.
+     *
+     * @param start
+     *      date of the beginning of the poll
+     * @param changed
+     *      content changed during this poll
+     */
+    private synchronized void publishSnapshot(long start, boolean changed) {
+        CacheSnapshotListener listener = snapshotListener;
+        if (listener == null) {
+            return;
+        }
+        if (changed || snapshot == null) {
+            snapshot = new CacheSnapshot(start, features, properties);
+        } else {
+            snapshot = snapshot.touch(start);
+        }
+        listener.onSnapshot(snapshot);
+    }
+
+    /**
+     * Getter accessor for attribute 'snapshotListener'.
+     *
+     * @return
+     *       current value of 'snapshotListener'
+     */
+    public CacheSnapshotListener getSnapshotListener() {
+        return snapshotListener;
+    }
+
+    /**
+     * Setter accessor for attribute 'snapshotListener'.
+     *
+     * @param snapshotListener
+     *      new value for 'snapshotListener', null to stop
+     */
+    public void setSnapshotListener(CacheSnapshotListener snapshotListener) {
+        this.snapshotListener = snapshotListener;
+    }
+
+    /**
+     * Getter accessor for attribute 'featureVersion'.
+     *
+     * @return
+     *       current value of 'featureVersion'
+     */
+    public long getFeatureVersion() {
+        return featureVersion;
+    }
+
+    /**
+     * Getter accessor for attribute 'propertyVersion'.
+     *
+     * @return
+     *       current value of 'propertyVersion'
+     */
+    public long getPropertyVersion() {
+        return propertyVersion;
+    }
 
 }
@@ -0,0 +1,124 @@
+package org.ff4j.core;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.ff4j.security.PermissionSnapshot;
+import org.ff4j.security.RoleRegistry;
+
+/**
+ * Immutable view of a {@link Feature} holding only what is needed to evaluate it : the status,
+ * the permissions and the flipping strategy (already initialized by the store).
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public final class CompiledFeature {
+
+    /** Unique identifier. */
+    private final String uid;
+
+    /** Status. */
+    private final boolean enable;
+
+    /** Expected permissions (empty means public). */
+    private final Set < String > permissions;
+
+    /** Expected permissions as interned role identifiers. */
+    private final BitSet permissionIds;
+
+    /** Strategy, may be null. */
+    private final FlippingStrategy flippingStrategy;
+
+    /**
+     * Copy required attributes of the feature.
+     *
+     * @param feature
+     *      source feature
+     */
+    public CompiledFeature(Feature feature) {
+        this.uid              = feature.getUid();
+        this.enable           = feature.isEnable();
+        this.flippingStrategy = feature.getFlippingStrategy();
+        if (feature.getPermissions() == null || feature.getPermissions().isEmpty()) {
+            this.permissions = Collections.emptySet();
+        } else {
+            this.permissions = Collections.unmodifiableSet(new HashSet<String>(feature.getPermissions()));
+        }
+        this.permissionIds = RoleRegistry.toBitSet(permissions);
+    }
+
+    /**
+     * Match expected permissions with the permissions of the user.
+     *
+     * @param userPermissions
+     *      permissions of current user
+     * @return
+     *      if the feature is public or one of the permissions is granted
+     */
+    public boolean isAllowed(PermissionSnapshot userPermissions) {
+        return userPermissions.isAllowed(permissionIds);
+    }
+
+    /**
+     * Getter accessor for attribute 'uid'.
+     *
+     * @return
+     *       current value of 'uid'
+     */
+    public String getUid() {
+        return uid;
+    }
+
+    /**
+     * Getter accessor for attribute 'enable'.
+     *
+     * @return
+     *       current value of 'enable'
+     */
+    public boolean isEnable() {
+        return enable;
+    }
+
+    /**
+     * Getter accessor for attribute 'permissions'.
+     *
+     * @return
+     *       current value of 'permissions'
+     */
+    public Set<String> getPermissions() {
+        return permissions;
+    }
+
+    /**
+     * Getter accessor for attribute 'flippingStrategy'.
+     *
+     * @return
+     *       current value of 'flippingStrategy'
+     */
+    public FlippingStrategy getFlippingStrategy() {
+        return flippingStrategy;
+    }
+
+}
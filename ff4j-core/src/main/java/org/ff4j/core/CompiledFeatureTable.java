@@ -0,0 +1,164 @@
+package org.ff4j.core;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable snapshot of every {@link CompiledFeature} of a {@link FeatureStore}.
+ *
+ * The table is never updated : a new one is built and swapped when the store changes, so
+ * readers only need a single volatile read to get a consistent view.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public final class CompiledFeatureTable {
+
+    /** Sequence to version tables. */
+    private static final AtomicLong SEQUENCE = new AtomicLong(0);
+
+    /** Compiled features by uid. */
+    private final Map < String, CompiledFeature > features;
+
+    /** Version of the table. */
+    private final long version;
+
+    /** Date of the read of the whole store, kept by the tables derived with {@link #update(String, Feature)}. */
+    private final long creationTime;
+
+    /**
+     * Compile the features of a store.
+     *
+     * @param store
+     *      source store
+     */
+    public CompiledFeatureTable(FeatureStore store) {
+        this(store.readAll());
+    }
+
+    /**
+     * Compile a set of features.
+     *
+     * @param source
+     *      features by uid
+     */
+    public CompiledFeatureTable(Map < String, Feature > source) {
+        Map < String, CompiledFeature > compiled = new HashMap<String, CompiledFeature>();
+        if (source != null) {
+            for (Feature feature : source.values()) {
+                compiled.put(feature.getUid(), new CompiledFeature(feature));
+            }
+        }
+        this.features     = Collections.unmodifiableMap(compiled);
+        this.version      = SEQUENCE.incrementAndGet();
+        this.creationTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Table derived from another one.
+     *
+     * @param compiled
+     *      compiled features by uid
+     * @param creationTime
+     *      date of the read of the whole store
+     */
+    private CompiledFeatureTable(Map < String, CompiledFeature > compiled, long creationTime) {
+        this.features     = Collections.unmodifiableMap(compiled);
+        this.version      = SEQUENCE.incrementAndGet();
+        this.creationTime = creationTime;
+    }
+
+    /**
+     * New table with a single feature replaced, without reading the whole store.
+     *
+     * @param uid
+     *      feature unique identifier
+     * @param feature
+     *      new value of the feature, null if it has been deleted
+     * @return
+     *      new table, the current one is not modified
+     */
+    public CompiledFeatureTable update(String uid, Feature feature) {
+        Map < String, CompiledFeature > compiled = new HashMap<String, CompiledFeature>(features);
+        if (feature == null) {
+            compiled.remove(uid);
+        } else {
+            compiled.put(uid, new CompiledFeature(feature));
+        }
+        return new CompiledFeatureTable(compiled, creationTime);
+    }
+
+    /**
+     * Get compiled feature.
+     *
+     * @param uid
+     *      feature unique identifier
+     * @return
+     *      compiled feature or null if not in the table
+     */
+    public CompiledFeature get(String uid) {
+        return features.get(uid);
+    }
+
+    /**
+     * Number of features in the table.
+     *
+     * @return
+     *      size of the table
+     */
+    public int size() {
+        return features.size();
+    }
+
+    /**
+     * Getter accessor for attribute 'features'.
+     *
+     * @return
+     *       current value of 'features'
+     */
+    public Map<String, CompiledFeature> getFeatures() {
+        return features;
+    }
+
+    /**
+     * Getter accessor for attribute 'version'.
+     *
+     * @return
+     *       current value of 'version'
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Getter accessor for attribute 'creationTime'.
+     *
+     * @return
+     *       current value of 'creationTime'
+     */
+    public long getCreationTime() {
+        return creationTime;
+    }
+
+}
@@ -25,6 +25,9 @@ import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
+import org.ff4j.store.ChangeSet;
+import org.ff4j.store.ImportReport;
+
 /**
  * Repository to persist {@link Feature}(s)
  * 
@@ -77,6 +80,25 @@ public interface FeatureStore {
      * @return all features
      */
     Map<String, Feature> readAll();
+    
+    /**
+     * Read a set of features in a single call when the store allows it.
+     * 
+     * @param featureIds
+     *            unique identifiers of expected features
+     * @return features found, unknown identifiers are not present in the map
+     */
+    Map<String, Feature> readFeatures(Set<String> featureIds);
+
+    /**
+     * Read changes of the store since a version (change-feed). Stores without change tracking
+     * return a full snapshot.
+     * 
+     * @param version
+     *            version returned by the previous call, 0 for the first call
+     * @return changes since version, holding the version to use for the next call
+     */
+    ChangeSet<Feature> featureChangesSince(long version);
 
     /**
      * Remove fliPoint from store.
@@ -174,12 +196,14 @@ public interface FeatureStore {
     void clear();
     
     /**
-     * Import features.
+     * Import features, existing features with the same identifier are replaced.
      *
      * @param features
-     *      list of features.s
+     *      list of features.
+     * @return
+     *      identifiers of created, updated and failed features
      */
-    void importFeatures(Collection < Feature > features);
+    ImportReport importFeatures(Collection < Feature > features);
     
     /**
      * Initialize the target database schema by creating expected structures.
@@ -24,6 +24,8 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.ff4j.security.PermissionSnapshot;
+
 /**
  * Pojo holding an execution context to perform {@link FlippingStrategy} evaluations.
  *
@@ -33,6 +35,9 @@ public class FlippingExecutionContext {
 
     /** Current Parameter Map. */
     private transient Map<String, Object> parameters = new HashMap<String, Object>();
+    
+    /** Permissions of the user resolved for this context, reused by every check. */
+    private transient PermissionSnapshot permissionSnapshot = null;
 
     /**
      * Default Constructor.
@@ -289,5 +294,23 @@ public class FlippingExecutionContext {
         this.addValue(key, value);
     }
 
+    /**
+     * Getter accessor for attribute 'permissionSnapshot'.
+     *
+     * @return
+     *       current value of 'permissionSnapshot'
+     */
+    public PermissionSnapshot getPermissionSnapshot() {
+        return permissionSnapshot;
+    }
+
+    /**
+     * Setter accessor for attribute 'permissionSnapshot'.
+     * @param permissionSnapshot
+     *      new value for 'permissionSnapshot '
+     */
+    public void setPermissionSnapshot(PermissionSnapshot permissionSnapshot) {
+        this.permissionSnapshot = permissionSnapshot;
+    }
 
 }
@@ -2,6 +2,7 @@ package org.ff4j.property.store;
 
 import java.io.InputStream;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -10,6 +11,8 @@ import org.ff4j.conf.XmlParser;
 import org.ff4j.exception.PropertyAlreadyExistException;
 import org.ff4j.exception.PropertyNotFoundException;
 import org.ff4j.property.Property;
+import org.ff4j.store.ChangeSet;
+import org.ff4j.store.ImportReport;
 import org.ff4j.utils.Util;
 
 /*
@@ -60,12 +63,7 @@ public abstract class AbstractPropertyStore implements PropertyStore {
         Map<String, Property<?>> properties = conf.getProperties();
 
         // Override existing configuration within database
-        for (Map.Entry<String,Property<?>> featureName : properties.entrySet()) {
-            if (existProperty(featureName.getKey())) {
-                deleteProperty(featureName.getKey());
-            }
-            createProperty(featureName.getValue());
-        }
+        importProperties(properties.values());
         return properties;
     }
     
@@ -156,16 +154,64 @@ public abstract class AbstractPropertyStore implements PropertyStore {
     
     /** {@inheritDoc} */
     @Override
-    public void importProperties(Collection<Property<?>> properties) {
-        // Do not use target as the delete/create operation will be traced
-        if (properties != null) {
-            for (Property<?> property : properties) {
-                if (existProperty(property.getName())) {
+    public ChangeSet < Property<?> > propertyChangesSince(long version) {
+        // No change tracking, full snapshot
+        return ChangeSet.snapshot(System.currentTimeMillis(), readAllProperties());
+    }
+    
+    /**
+     * Import properties one by one (exist, delete, create). Stores able to write several items
+     * in one call (batch, bulk, pipeline) override this method and use {@link #prepareImport}.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public ImportReport importProperties(Collection<Property<?>> properties) {
+        ImportReport report = new ImportReport();
+        for (Property<?> property : prepareImport(properties, report).values()) {
+            try {
+                boolean existed = existProperty(property.getName());
+                if (existed) {
                     deleteProperty(property.getName());
                 }
                 createProperty(property);
+                if (existed) {
+                    report.updated(property.getName());
+                } else {
+                    report.created(property.getName());
+                }
+            } catch (RuntimeException error) {
+                report.failed(property.getName(), error);
+            }
+        }
+        return report;
+    }
+    
+    /**
+     * Validate properties to import : null properties and empty names are reported as failed,
+     * when a name is present several times the last property wins.
+     *
+     * @param properties
+     *      properties to import, can be null
+     * @param report
+     *      current import report
+     * @return
+     *      properties to write by name, in import order
+     */
+    protected Map < String, Property<?> > prepareImport(Collection < Property<?> > properties, ImportReport report) {
+        Map < String, Property<?> > toImport = new LinkedHashMap<String, Property<?>>();
+        if (properties != null) {
+            for (Property<?> property : properties) {
+                if (property == null) {
+                    report.failed(null, "Property cannot be null");
+                } else if (property.getName() == null || property.getName().isEmpty()) {
+                    report.failed(property.getName(), "Property name cannot be null nor empty");
+                } else {
+                    toImport.put(property.getName(), property);
+                }
             }
         }
+        return toImport;
     }
     
     /** {@inheritDoc} */
@@ -20,17 +20,22 @@ package org.ff4j.property.store;
  * #L%
  */
 import static org.ff4j.store.JdbcStoreConstants.COL_PROPERTY_ID;
+import static org.ff4j.store.JdbcStoreConstants.COL_PROPERTY_LASTMODIFIED;
 import static org.ff4j.utils.JdbcUtils.buildStatement;
 import static org.ff4j.utils.JdbcUtils.closeConnection;
 import static org.ff4j.utils.JdbcUtils.closeResultSet;
 import static org.ff4j.utils.JdbcUtils.closeStatement;
 import static org.ff4j.utils.JdbcUtils.executeUpdate;
+import static org.ff4j.utils.JdbcUtils.isColumnExist;
 import static org.ff4j.utils.JdbcUtils.isTableExist;
+import static org.ff4j.utils.JdbcUtils.rollback;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -42,6 +47,9 @@ import org.ff4j.exception.PropertyAccessException;
 import org.ff4j.exception.PropertyAlreadyExistException;
 import org.ff4j.exception.PropertyNotFoundException;
 import org.ff4j.property.Property;
+import org.ff4j.store.ChangeSet;
+import org.ff4j.store.ImportReport;
+import org.ff4j.store.JdbcFeatureStore;
 import org.ff4j.store.JdbcQueryBuilder;
 import org.ff4j.utils.Util;
 
@@ -58,6 +66,12 @@ public class JdbcPropertyStore extends AbstractPropertyStore {
     /** Query builder. */
     private JdbcQueryBuilder queryBuilder;
     
+    /** Presence of the LAST_MODIFIED column has been checked. */
+    private volatile boolean schemaChecked = false;
+    
+    /** Rows modified up to this duration before the last version are read again (milliseconds). */
+    private long changeFeedOverlap = JdbcFeatureStore.DEFAULT_CHANGE_FEED_OVERLAP;
+    
     /** Mapper. */
     private JdbcPropertyMapper JDBC_MAPPER = new JdbcPropertyMapper();
 
@@ -94,6 +108,7 @@ public class JdbcPropertyStore extends AbstractPropertyStore {
         if (!isTableExist(ds, qb.getTableNameProperties())) {
             executeUpdate(ds, qb.sqlCreateTableProperties());
         }
+        schemaChecked = false;
     }
      
     /** {@inheritDoc} */
@@ -128,16 +143,7 @@ public class JdbcPropertyStore extends AbstractPropertyStore {
                 throw new PropertyAlreadyExistException(ap.getName());
             }
             ps = sqlConn.prepareStatement(getQueryBuilder().createProperty());
-            ps.setString(1, ap.getName());
-            ps.setString(2, ap.getType());
-            ps.setString(3, ap.asString());
-            ps.setString(4, ap.getDescription());
-            if (ap.getFixedValues() != null && !ap.getFixedValues().isEmpty()) {
-                String fixedValues = ap.getFixedValues().toString();
-                ps.setString(5, fixedValues.substring(1, fixedValues.length() - 1));
-            } else {
-                ps.setString(5, null);
-            }
+            bindProperty(ps, ap);
             ps.executeUpdate();
         } catch (SQLException sqlEX) {
             throw new PropertyAccessException("Cannot update properties database, SQL ERROR", sqlEX);
@@ -148,6 +154,116 @@ public class JdbcPropertyStore extends AbstractPropertyStore {
         }
     }
 
+    /**
+     * Set parameters of the statement {@link JdbcQueryBuilder#createProperty()}.
+     *
+     * @param ps
+     *      statement to bind
+     * @param ap
+     *      property to insert
+     * @throws SQLException
+     *      error during sql operation
+     */
+    private void bindProperty(PreparedStatement ps, Property<?> ap)
+    throws SQLException {
+        ps.setString(1, ap.getName());
+        ps.setString(2, ap.getType());
+        ps.setString(3, ap.asString());
+        ps.setString(4, ap.getDescription());
+        if (ap.getFixedValues() != null && !ap.getFixedValues().isEmpty()) {
+            String fixedValues = ap.getFixedValues().toString();
+            ps.setString(5, fixedValues.substring(1, fixedValues.length() - 1));
+        } else {
+            ps.setString(5, null);
+        }
+    }
+    
+    /**
+     * Import properties in a single transaction : properties already in the table are removed
+     * and all properties inserted, one JDBC batch per statement. Any SQL error rolls back the
+     * whole import : every property is then reported as failed with the SQL error, no exception
+     * is raised.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public ImportReport importProperties(Collection<Property<?>> properties) {
+        ImportReport report = new ImportReport();
+        Map<String, Property<?>> toImport = prepareImport(properties, report);
+        if (toImport.isEmpty()) {
+            return report;
+        }
+        Set<String> existing = new HashSet<String>();
+        Connection sqlConn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        Boolean previousAutoCommit = null;
+        try {
+            sqlConn = getDataSource().getConnection();
+            
+            // Begin TX
+            previousAutoCommit = sqlConn.getAutoCommit();
+            sqlConn.setAutoCommit(false);
+            
+            // Properties already in the table, single query
+            ps = sqlConn.prepareStatement(getQueryBuilder().getAllPropertiesNames());
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                String name = rs.getString(COL_PROPERTY_ID);
+                if (toImport.containsKey(name)) {
+                    existing.add(name);
+                }
+            }
+            closeResultSet(rs);
+            rs = null;
+            closeStatement(ps);
+            ps = null;
+            
+            // Remove them
+            if (!existing.isEmpty()) {
+                ps = sqlConn.prepareStatement(getQueryBuilder().deleteProperty());
+                for (String name : existing) {
+                    ps.setString(1, name);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                closeStatement(ps);
+                ps = null;
+            }
+            
+            // Create properties
+            ps = sqlConn.prepareStatement(getQueryBuilder().createProperty());
+            for (Property<?> ap : toImport.values()) {
+                bindProperty(ps, ap);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            
+            // Commit
+            sqlConn.commit();
+            
+        } catch (SQLException sqlEX) {
+            // Nothing has been imported
+            rollback(sqlConn);
+            for (String name : toImport.keySet()) {
+                report.failed(name, sqlEX);
+            }
+            return report;
+        } finally {
+            closeResultSet(rs);
+            closeStatement(ps);
+            closeConnection(sqlConn, previousAutoCommit);
+        }
+        for (String name : toImport.keySet()) {
+            if (existing.contains(name)) {
+                report.updated(name);
+            } else {
+                report.created(name);
+            }
+        }
+        return report;
+    }
+
     /** {@inheritDoc} */
     public Property<?> readProperty(String name) {
         Util.assertHasLength(name);
@@ -248,6 +364,61 @@ public class JdbcPropertyStore extends AbstractPropertyStore {
         return properties;
     }
     
+    /**
+     * Only properties created or updated since the version (LAST_MODIFIED column) are loaded, the
+     * names of all properties are returned to detect deletions.
+     * 
+     * The date is set when the statement runs, a transaction can commit after a later one has
+     * been read : rows modified within {@link #getChangeFeedOverlap()} before the version are read
+     * again at each call. Schemas without the column return a full snapshot.
+     * 
+     * {@inheritDoc}
+     */
+    @Override
+    public ChangeSet<Property<?>> propertyChangesSince(long version) {
+        if (!getQueryBuilder().isPropertiesLastModified()) {
+            return super.propertyChangesSince(version);
+        }
+        Map<String, Property<?>> updated = new LinkedHashMap<String, Property<?>>();
+        Set<String> retained = new HashSet<String>();
+        long lastModified    = version;
+        Connection   sqlConn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            sqlConn = getDataSource().getConnection();
+            ps = buildStatement(sqlConn, getQueryBuilder().getPropertiesLastModified());
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                retained.add(rs.getString(COL_PROPERTY_ID));
+                Timestamp ts = rs.getTimestamp(COL_PROPERTY_LASTMODIFIED);
+                if (ts != null) {
+                    lastModified = Math.max(lastModified, ts.getTime());
+                }
+            }
+            closeResultSet(rs);
+            rs = null;
+            closeStatement(ps);
+            ps = null;
+            
+            // Greater or equals : several updates can share the same timestamp
+            ps = sqlConn.prepareStatement(getQueryBuilder().getPropertiesModifiedSince());
+            ps.setTimestamp(1, new Timestamp(Math.max(0, version - changeFeedOverlap)));
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                Property<?> ap = JDBC_MAPPER.map(rs);
+                updated.put(ap.getName(), ap);
+            }
+        } catch (SQLException sqlEX) {
+            throw new PropertyAccessException("Cannot read properties within database, SQL ERROR", sqlEX);
+        } finally {
+            closeResultSet(rs);
+            closeStatement(ps);
+            closeConnection(sqlConn);
+        }
+        return new ChangeSet<Property<?>>(lastModified, updated, null, retained);
+    }
+    
     /** {@inheritDoc} */
     public Set<String> listPropertyNames() {
         Set < String > propertyNames = new HashSet<String>();
@@ -313,6 +484,9 @@ public class JdbcPropertyStore extends AbstractPropertyStore {
 		if (queryBuilder == null) {
 			queryBuilder = new JdbcQueryBuilder();
 		}
+		if (!schemaChecked && dataSource != null) {
+			checkSchema(queryBuilder);
+		}
 		return queryBuilder;
 	}
 
@@ -321,6 +495,42 @@ public class JdbcPropertyStore extends AbstractPropertyStore {
 	 */
 	public void setQueryBuilder(JdbcQueryBuilder queryBuilder) {
 		this.queryBuilder = queryBuilder;
+		this.schemaChecked = false;
 	}
+
+    /**
+     * Schemas created before the change feed have no LAST_MODIFIED column : queries do not set it
+     * and the change feed returns full snapshots. Checked once, when the table exists.
+     *
+     * @param qb
+     *     current query builder
+     */
+    private void checkSchema(JdbcQueryBuilder qb) {
+        if (isTableExist(dataSource, qb.getTableNameProperties())) {
+            qb.setPropertiesLastModified(isColumnExist(dataSource, qb.getTableNameProperties(), COL_PROPERTY_LASTMODIFIED));
+            schemaChecked = true;
+        }
+    }
+
+    /**
+     * Getter accessor for attribute 'changeFeedOverlap'.
+     *
+     * @return
+     *       current value of 'changeFeedOverlap'
+     */
+    public long getChangeFeedOverlap() {
+        return changeFeedOverlap;
+    }
+
+    /**
+     * Setter accessor for attribute 'changeFeedOverlap', should exceed the duration of the
+     * longest write transaction on the table.
+     *
+     * @param changeFeedOverlap
+     *      new value for 'changeFeedOverlap ' (milliseconds)
+     */
+    public void setChangeFeedOverlap(long changeFeedOverlap) {
+        this.changeFeedOverlap = changeFeedOverlap;
+    }
     
 }
@@ -5,6 +5,8 @@ import java.util.Map;
 import java.util.Set;
 
 import org.ff4j.property.Property;
+import org.ff4j.store.ChangeSet;
+import org.ff4j.store.ImportReport;
 
 /*
  * #%L
@@ -114,6 +116,17 @@ public interface PropertyStore {
      */
     Set < String > listPropertyNames();
     
+    /**
+     * Read changes of the store since a version (change-feed). Stores without change tracking
+     * return a full snapshot.
+     *
+     * @param version
+     *      version returned by the previous call, 0 for the first call
+     * @return
+     *      changes since version, holding the version to use for the next call
+     */
+    ChangeSet < Property<?> > propertyChangesSince(long version);
+    
     /**
      * Tell if a store is empty
      * 
@@ -129,12 +142,14 @@ public interface PropertyStore {
     void clear();
     
     /**
-     * Import a set of properties.
+     * Import a set of properties, existing properties with the same name are replaced.
      *
      * @param properties
      *      a set of properties
+     * @return
+     *      names of created, updated and failed properties
      */
-    void importProperties(Collection<Property<?>> properties);
+    ImportReport importProperties(Collection<Property<?>> properties);
     
     /**
      * Initialize target database with expected schema if needed.
@@ -0,0 +1,182 @@
+package org.ff4j.security;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Permissions of the current user read once from the {@link AuthorizationsManager} and reused for
+ * every check of a request (execution context) : the user name for audit and the roles as
+ * interned identifiers (see {@link RoleRegistry}).
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public final class PermissionSnapshot {
+
+    /** Name of the user, may be null. */
+    private final String userName;
+
+    /** Permissions of the user. */
+    private final Set < String > permissions;
+
+    /** Permissions of the user as role identifiers, only roles declared on features. */
+    private volatile BitSet roles;
+
+    /** Number of registered roles when 'roles' has been computed. */
+    private volatile int registeredRoles;
+
+    /** Creation date (milliseconds). */
+    private final long creationDate;
+
+    /**
+     * Snapshot of the user permissions.
+     *
+     * @param userName
+     *      name of the user, may be null
+     * @param permissions
+     *      permissions of the user, may be null
+     */
+    public PermissionSnapshot(String userName, Set < String > permissions) {
+        this.userName     = userName;
+        this.permissions  = (permissions == null) ? 
+                Collections.<String>emptySet() : Collections.unmodifiableSet(new HashSet<String>(permissions));
+        this.registeredRoles = RoleRegistry.size();
+        this.roles        = RoleRegistry.toKnownBitSet(this.permissions);
+        this.creationDate = System.currentTimeMillis();
+    }
+
+    /**
+     * Read user name and permissions from the authorization manager.
+     *
+     * @param authManager
+     *      authorization manager
+     * @return
+     *      snapshot
+     */
+    public static PermissionSnapshot of(AuthorizationsManager authManager) {
+        return new PermissionSnapshot(authManager.getCurrentUserName(), authManager.getCurrentUserPermissions());
+    }
+
+    /**
+     * Tell if the user has one of the expected roles, no role expected means public.
+     *
+     * @param expectedRoles
+     *      expected roles as identifiers
+     * @return
+     *      if allowed
+     */
+    public boolean isAllowed(BitSet expectedRoles) {
+        return expectedRoles == null || expectedRoles.isEmpty() || getRoles().intersects(expectedRoles);
+    }
+
+    /**
+     * Tell if the user has one of the expected roles, no role expected means public.
+     *
+     * @param expectedRoles
+     *      expected role names
+     * @return
+     *      if allowed
+     */
+    public boolean isAllowed(Set < String > expectedRoles) {
+        if (expectedRoles == null || expectedRoles.isEmpty()) {
+            return true;
+        }
+        for (String expectedRole : expectedRoles) {
+            if (permissions.contains(expectedRole)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Role identifiers of the user, computed again when features registered new roles since.
+     *
+     * @return
+     *      bit set of role identifiers
+     */
+    private BitSet getRoles() {
+        int size = RoleRegistry.size();
+        if (size != registeredRoles) {
+            roles = RoleRegistry.toKnownBitSet(permissions);
+            registeredRoles = size;
+        }
+        return roles;
+    }
+
+    /**
+     * Tell if the snapshot has been taken for this user.
+     *
+     * @param currentUserName
+     *      name of current user
+     * @return
+     *      if same user
+     */
+    public boolean isSamePrincipal(String currentUserName) {
+        return (userName == null) ? currentUserName == null : userName.equals(currentUserName);
+    }
+
+    /**
+     * Tell if the snapshot is younger than the time to live.
+     *
+     * @param timeToLive
+     *      time to live (milliseconds)
+     * @return
+     *      if still fresh
+     */
+    public boolean isFresh(long timeToLive) {
+        return System.currentTimeMillis() - creationDate < timeToLive;
+    }
+
+    /**
+     * Getter accessor for attribute 'userName'.
+     *
+     * @return
+     *       current value of 'userName'
+     */
+    public String getUserName() {
+        return userName;
+    }
+
+    /**
+     * Getter accessor for attribute 'permissions'.
+     *
+     * @return
+     *       current value of 'permissions'
+     */
+    public Set<String> getPermissions() {
+        return permissions;
+    }
+
+    /**
+     * Getter accessor for attribute 'creationDate'.
+     *
+     * @return
+     *       current value of 'creationDate'
+     */
+    public long getCreationDate() {
+        return creationDate;
+    }
+
+}
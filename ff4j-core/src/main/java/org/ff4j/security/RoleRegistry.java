@@ -0,0 +1,137 @@
+package org.ff4j.security;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Interned identifiers of roles (permissions) : each role name gets a small integer, a set of
+ * roles becomes a {@link BitSet} and checking permissions is a bitwise intersection instead of
+ * string lookups.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public final class RoleRegistry {
+
+    /** Identifiers of known roles. */
+    private static final ConcurrentMap < String, Integer > IDS = new ConcurrentHashMap<String, Integer>();
+
+    /** Next identifier. */
+    private static final AtomicInteger NEXT_ID = new AtomicInteger(0);
+
+    /**
+     * Hide constructor.
+     */
+    private RoleRegistry() {
+    }
+
+    /**
+     * Identifier of a role, registered if needed.
+     *
+     * @param role
+     *      role name
+     * @return
+     *      role identifier
+     */
+    public static int intern(String role) {
+        if (role == null) {
+            throw new IllegalArgumentException("Role cannot be null");
+        }
+        Integer id = IDS.get(role);
+        if (id == null) {
+            Integer newId = NEXT_ID.getAndIncrement();
+            id = IDS.putIfAbsent(role, newId);
+            if (id == null) {
+                id = newId;
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Identifier of a role if already registered.
+     *
+     * @param role
+     *      role name
+     * @return
+     *      role identifier, -1 if unknown
+     */
+    public static int idOf(String role) {
+        Integer id = (role == null) ? null : IDS.get(role);
+        return (id == null) ? -1 : id;
+    }
+
+    /**
+     * Set of roles as bits, roles are registered if needed (roles declared on features).
+     *
+     * @param roles
+     *      role names, can be null
+     * @return
+     *      bit set of role identifiers
+     */
+    public static BitSet toBitSet(Collection < String > roles) {
+        BitSet bits = new BitSet();
+        if (roles != null) {
+            for (String role : roles) {
+                if (role != null) {
+                    bits.set(intern(role));
+                }
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Set of roles as bits, only registered roles are kept (roles of users are not registered).
+     *
+     * @param roles
+     *      role names, can be null
+     * @return
+     *      bit set of role identifiers
+     */
+    public static BitSet toKnownBitSet(Collection < String > roles) {
+        BitSet bits = new BitSet();
+        if (roles != null) {
+            for (String role : roles) {
+                int id = idOf(role);
+                if (id >= 0) {
+                    bits.set(id);
+                }
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Number of registered roles.
+     *
+     * @return
+     *      registered roles
+     */
+    public static int size() {
+        return IDS.size();
+    }
+
+}
@@ -24,6 +24,7 @@ import java.io.InputStream;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -112,6 +113,29 @@ public abstract class AbstractFeatureStore implements FeatureStore {
         update(f);
     }
     
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Feature> readFeatures(Set<String> featureIds) {
+        Map<String, Feature> features = new HashMap<String, Feature>();
+        if (featureIds != null) {
+            for (String uid : featureIds) {
+                try {
+                    features.put(uid, read(uid));
+                } catch (FeatureNotFoundException notFound) {
+                    // Missing features are not returned
+                }
+            }
+        }
+        return features;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ChangeSet<Feature> featureChangesSince(long version) {
+        // No change tracking, full snapshot
+        return ChangeSet.snapshot(System.currentTimeMillis(), readAll());
+    }
+
     /** {@inheritDoc} */
     @Override
     public Map<String, Feature> readGroup(String groupName) {
@@ -213,19 +237,57 @@ public abstract class AbstractFeatureStore implements FeatureStore {
     }
     
     /**
-     * Import features from a set of feature.
+     * Import features one by one (exist, delete, create). Stores able to write several items
+     * in one call (batch, bulk, pipeline) override this method and use {@link #prepareImport}.
+     *
+     * {@inheritDoc}
+     */
+    public ImportReport importFeatures(Collection < Feature > features) {
+        ImportReport report = new ImportReport();
+        for (Feature feature : prepareImport(features, report).values()) {
+            try {
+                boolean existed = exist(feature.getUid());
+                if (existed) {
+                    delete(feature.getUid());
+                }
+                create(feature);
+                if (existed) {
+                    report.updated(feature.getUid());
+                } else {
+                    report.created(feature.getUid());
+                }
+            } catch (RuntimeException error) {
+                report.failed(feature.getUid(), error);
+            }
+        }
+        return report;
+    }
+    
+    /**
+     * Validate features to import : null features and empty identifiers are reported as failed,
+     * when an identifier is present several times the last feature wins.
      *
      * @param features
+     *      features to import, can be null
+     * @param report
+     *      current import report
+     * @return
+     *      features to write by identifier, in import order
      */
-    public void importFeatures(Collection < Feature > features) {
+    protected Map < String, Feature > prepareImport(Collection < Feature > features, ImportReport report) {
+        Map < String, Feature > toImport = new LinkedHashMap<String, Feature>();
         if (features != null) {
             for (Feature feature : features) {
-                if (exist(feature.getUid())) {
-                    delete(feature.getUid());
+                if (feature == null) {
+                    report.failed(null, "Feature cannot be null");
+                } else if (feature.getUid() == null || feature.getUid().isEmpty()) {
+                    report.failed(feature.getUid(), "Feature identifier cannot be null nor empty");
+                } else {
+                    toImport.put(feature.getUid(), feature);
                 }
-                create(feature);
             }
         }
+        return toImport;
     }
     
     /** {@inheritDoc} */
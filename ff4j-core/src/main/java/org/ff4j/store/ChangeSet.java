@@ -0,0 +1,212 @@
+package org.ff4j.store;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Changes of a store since a given version, returned by the change-feed methods
+ * ({@link org.ff4j.core.FeatureStore#featureChangesSince(long)},
+ * {@link org.ff4j.property.store.PropertyStore#propertyChangesSince(long)}).
+ *
+ * Items created or updated since the version are in 'updated', removed items in 'deleted'. When
+ * the store cannot list deletions it provides 'retained', the identifiers of every item still in
+ * the store : any other identifier has been deleted. A full snapshot is a change set where
+ * 'updated' contains every item and 'retained' its keys, built with {@link #snapshot(long, Map)} : the
+ * flag is explicit, a delta can hold every item without being a snapshot.
+ *
+ * @param <T>
+ *      type of item (feature or property)
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class ChangeSet < T > implements Serializable {
+
+    /** serial. */
+    private static final long serialVersionUID = -1837617284391523081L;
+
+    /** Version to give to the next call. */
+    private final long version;
+
+    /** Created or updated items. */
+    private final Map < String, T > updated;
+
+    /** Identifiers of deleted items. */
+    private final Set < String > deleted;
+
+    /** Identifiers of all items in the store, null if unknown. */
+    private final Set < String > retained;
+
+    /** Full content of the store, not changes since the version. */
+    private final boolean snapshot;
+
+    /**
+     * Constructor for changes since a version.
+     *
+     * @param version
+     *      version to give to the next call
+     * @param updated
+     *      created or updated items
+     * @param deleted
+     *      identifiers of deleted items
+     * @param retained
+     *      identifiers of all items of the store, can be null
+     */
+    public ChangeSet(long version, Map < String, T > updated, Set < String > deleted, Set < String > retained) {
+        this(version, updated, deleted, retained, false);
+    }
+
+    /**
+     * Full constructor.
+     *
+     * @param version
+     *      version to give to the next call
+     * @param updated
+     *      created or updated items
+     * @param deleted
+     *      identifiers of deleted items
+     * @param retained
+     *      identifiers of all items of the store, can be null
+     * @param snapshot
+     *      if the set holds the full content of the store
+     */
+    public ChangeSet(long version, Map < String, T > updated, Set < String > deleted, Set < String > retained, boolean snapshot) {
+        this.version  = version;
+        this.updated  = (updated == null) ? new LinkedHashMap<String, T>() : updated;
+        this.deleted  = (deleted == null) ? new HashSet<String>() : deleted;
+        this.retained = retained;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Full snapshot of a store.
+     *
+     * @param version
+     *      version of the snapshot
+     * @param items
+     *      every item of the store
+     * @return
+     *      change set
+     */
+    public static < T > ChangeSet< T > snapshot(long version, Map < String, T > items) {
+        Map < String, T > all = new LinkedHashMap<String, T>();
+        if (items != null) {
+            all.putAll(items);
+        }
+        return new ChangeSet<T>(version, all, null, new HashSet<String>(all.keySet()), true);
+    }
+
+    /**
+     * No change since version.
+     *
+     * @param version
+     *      current version
+     * @return
+     *      empty change set
+     */
+    public static < T > ChangeSet< T > empty(long version) {
+        return new ChangeSet<T>(version, null, null, null);
+    }
+
+    /**
+     * Tell if the item has been deleted, looking at 'deleted' and 'retained'.
+     *
+     * @param uid
+     *      item identifier
+     * @return
+     *      if the item is not in the store anymore
+     */
+    public boolean isDeleted(String uid) {
+        return deleted.contains(uid) || (retained != null && !retained.contains(uid));
+    }
+
+    /**
+     * Tell if the set holds the full content of the store, as built by {@link #snapshot(long, Map)}.
+     *
+     * @return
+     *      if the set can replace a local copy
+     */
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Tell if the set does not contain anything to apply.
+     *
+     * @return
+     *      if there is no change
+     */
+    public boolean isEmpty() {
+        return updated.isEmpty() && deleted.isEmpty() && retained == null;
+    }
+
+    /**
+     * Getter accessor for attribute 'version'.
+     *
+     * @return
+     *       current value of 'version'
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Getter accessor for attribute 'updated'.
+     *
+     * @return
+     *       current value of 'updated'
+     */
+    public Map<String, T> getUpdated() {
+        return updated;
+    }
+
+    /**
+     * Getter accessor for attribute 'deleted'.
+     *
+     * @return
+     *       current value of 'deleted'
+     */
+    public Set<String> getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * Getter accessor for attribute 'retained'.
+     *
+     * @return
+     *       current value of 'retained', null if the store lists deletions
+     */
+    public Set<String> getRetained() {
+        return retained;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "ChangeSet [version=" + version + ", updated=" + updated.keySet()
+                + ", deleted=" + deleted + ", retained=" + retained + ", snapshot=" + snapshot + "]";
+    }
+
+}
@@ -0,0 +1,216 @@
+package org.ff4j.store;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import org.ff4j.FF4j;
+import org.ff4j.core.CompiledFeatureTable;
+import org.ff4j.core.Feature;
+import org.ff4j.core.FeatureStore;
+
+/**
+ * Proxy updating the {@link CompiledFeatureTable} of {@link FF4j} after each write operation
+ * on the target store : only the written feature is read again, operations on groups and
+ * imports rebuild the whole table.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class FeatureStoreCompiledProxy implements FeatureStore {
+
+    /** Current FeatureStore. */
+    private FeatureStore target = null;
+
+    /** Reference. */
+    private FF4j ff4j = null;
+
+    /**
+     * Only constructor.
+     *
+     * @param pFF4j
+     *      ff4j instance holding the compiled table
+     * @param pTarget
+     *      target store
+     */
+    public FeatureStoreCompiledProxy(FF4j pFF4j, FeatureStore pTarget) {
+        this.target = pTarget;
+        this.ff4j   = pFF4j;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void createSchema() {
+        target.createSchema();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void enable(String uid) {
+        target.enable(uid);
+        ff4j.refreshCompiledFeature(uid);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void disable(String uid) {
+        target.disable(uid);
+        ff4j.refreshCompiledFeature(uid);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void create(Feature fp) {
+        target.create(fp);
+        ff4j.refreshCompiledFeature(fp.getUid());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void delete(String uid) {
+        target.delete(uid);
+        ff4j.refreshCompiledFeature(uid);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void update(Feature fp) {
+        target.update(fp);
+        ff4j.refreshCompiledFeature(fp.getUid());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void grantRoleOnFeature(String uid, String roleName) {
+        target.grantRoleOnFeature(uid, roleName);
+        ff4j.refreshCompiledFeature(uid);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void removeRoleFromFeature(String uid, String roleName) {
+        target.removeRoleFromFeature(uid, roleName);
+        ff4j.refreshCompiledFeature(uid);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void enableGroup(String groupName) {
+        target.enableGroup(groupName);
+        ff4j.refreshCompiledFeatures();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void disableGroup(String groupName) {
+        target.disableGroup(groupName);
+        ff4j.refreshCompiledFeatures();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addToGroup(String uid, String groupName) {
+        target.addToGroup(uid, groupName);
+        ff4j.refreshCompiledFeature(uid);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void removeFromGroup(String uid, String groupName) {
+        target.removeFromGroup(uid, groupName);
+        ff4j.refreshCompiledFeature(uid);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void clear() {
+        target.clear();
+        ff4j.refreshCompiledFeatures();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ImportReport importFeatures(Collection<Feature> features) {
+        ImportReport report = target.importFeatures(features);
+        ff4j.refreshCompiledFeatures();
+        return report;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean exist(String uid) {
+        return target.exist(uid);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Feature read(String uid) {
+        return target.read(uid);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Feature> readAll() {
+        return target.readAll();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Feature> readFeatures(Set<String> featureIds) {
+        return target.readFeatures(featureIds);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ChangeSet<Feature> featureChangesSince(long version) {
+        return target.featureChangesSince(version);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean existGroup(String groupName) {
+        return target.existGroup(groupName);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Feature> readGroup(String groupName) {
+        return target.readGroup(groupName);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Set<String> readAllGroups() {
+        return target.readAllGroups();
+    }
+
+    /**
+     * Getter accessor for attribute 'target'.
+     *
+     * @return
+     *       current value of 'target'
+     */
+    public FeatureStore getTarget() {
+        return target;
+    }
+
+}
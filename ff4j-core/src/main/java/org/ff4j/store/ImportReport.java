@@ -0,0 +1,184 @@
+package org.ff4j.store;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Outcome of a bulk import ({@link org.ff4j.core.FeatureStore#importFeatures(java.util.Collection)},
+ * {@link org.ff4j.property.store.PropertyStore#importProperties(java.util.Collection)}).
+ *
+ * Identifiers of items which did not exist before the import are in 'created', the ones replaced
+ * in 'updated'. Items rejected by the store are listed in 'failed' with the reason.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class ImportReport implements Serializable {
+
+    /** serial. */
+    private static final long serialVersionUID = 6120418257632903178L;
+
+    /** Identifiers of created items. */
+    private final Set < String > created = new LinkedHashSet<String>();
+
+    /** Identifiers of updated items. */
+    private final Set < String > updated = new LinkedHashSet<String>();
+
+    /** Identifiers of items in error with the reason. */
+    private final Map < String, String > failed = new LinkedHashMap<String, String>();
+
+    /**
+     * Item has been created.
+     *
+     * @param uid
+     *      item identifier
+     * @return
+     *      current report
+     */
+    public ImportReport created(String uid) {
+        created.add(uid);
+        return this;
+    }
+
+    /**
+     * Item existed and has been replaced.
+     *
+     * @param uid
+     *      item identifier
+     * @return
+     *      current report
+     */
+    public ImportReport updated(String uid) {
+        updated.add(uid);
+        return this;
+    }
+
+    /**
+     * Item has been rejected.
+     *
+     * @param uid
+     *      item identifier, can be null when the item itself is null
+     * @param reason
+     *      error message
+     * @return
+     *      current report
+     */
+    public ImportReport failed(String uid, String reason) {
+        failed.put(String.valueOf(uid), reason);
+        return this;
+    }
+
+    /**
+     * Item has been rejected.
+     *
+     * @param uid
+     *      item identifier
+     * @param error
+     *      error raised by the store
+     * @return
+     *      current report
+     */
+    public ImportReport failed(String uid, Throwable error) {
+        return failed(uid, error.getClass().getSimpleName() + ": " + error.getMessage());
+    }
+
+    /**
+     * Number of created items.
+     *
+     * @return
+     *      created count
+     */
+    public int getCreatedCount() {
+        return created.size();
+    }
+
+    /**
+     * Number of updated items.
+     *
+     * @return
+     *      updated count
+     */
+    public int getUpdatedCount() {
+        return updated.size();
+    }
+
+    /**
+     * Number of rejected items.
+     *
+     * @return
+     *      failed count
+     */
+    public int getFailedCount() {
+        return failed.size();
+    }
+
+    /**
+     * Tell if every item has been imported.
+     *
+     * @return
+     *      if no item failed
+     */
+    public boolean isSuccess() {
+        return failed.isEmpty();
+    }
+
+    /**
+     * Getter accessor for attribute 'created'.
+     *
+     * @return
+     *       current value of 'created'
+     */
+    public Set<String> getCreated() {
+        return created;
+    }
+
+    /**
+     * Getter accessor for attribute 'updated'.
+     *
+     * @return
+     *       current value of 'updated'
+     */
+    public Set<String> getUpdated() {
+        return updated;
+    }
+
+    /**
+     * Getter accessor for attribute 'failed'.
+     *
+     * @return
+     *       current value of 'failed'
+     */
+    public Map<String, String> getFailed() {
+        return failed;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "ImportReport [created=" + created.size() + ", updated=" + updated.size()
+                + ", failed=" + failed.size() + "]";
+    }
+
+}
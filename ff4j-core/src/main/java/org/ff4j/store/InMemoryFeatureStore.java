@@ -199,6 +199,21 @@ public class InMemoryFeatureStore extends AbstractFeatureStore {
         return featuresMap.get(uid);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Feature> readFeatures(Set<String> featureIds) {
+        Map<String, Feature> features = new HashMap<String, Feature>();
+        if (featureIds != null) {
+            for (String uid : featureIds) {
+                Feature feature = featuresMap.get(uid);
+                if (feature != null) {
+                    features.put(uid, feature);
+                }
+            }
+        }
+        return features;
+    }
+
     /** {@inheritDoc} */
     public boolean existGroup(String groupName) {
         assertHasLength(groupName);
@@ -1,6 +1,8 @@
 package org.ff4j.store;
 
 import static org.ff4j.store.JdbcStoreConstants.COL_FEAT_GROUPNAME;
+import static org.ff4j.store.JdbcStoreConstants.COL_FEAT_LASTMODIFIED;
+import static org.ff4j.store.JdbcStoreConstants.COL_FEAT_UID;
 import static org.ff4j.store.JdbcStoreConstants.COL_ROLE_FEATID;
 import static org.ff4j.store.JdbcStoreConstants.COL_ROLE_ROLENAME;
 import static org.ff4j.utils.JdbcUtils.buildStatement;
@@ -29,6 +31,7 @@ import static org.ff4j.utils.JdbcUtils.closeConnection;
 import static org.ff4j.utils.JdbcUtils.closeResultSet;
 import static org.ff4j.utils.JdbcUtils.closeStatement;
 import static org.ff4j.utils.JdbcUtils.executeUpdate;
+import static org.ff4j.utils.JdbcUtils.isColumnExist;
 import static org.ff4j.utils.JdbcUtils.isTableExist;
 import static org.ff4j.utils.JdbcUtils.rollback;
 import static org.ff4j.utils.Util.assertHasLength;
@@ -37,9 +40,12 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -49,6 +55,8 @@ import org.ff4j.core.Feature;
 import org.ff4j.core.FeatureStore;
 import org.ff4j.exception.FeatureAccessException;
 import org.ff4j.exception.FeatureAlreadyExistException;
+import org.ff4j.exception.FeatureNotFoundException;
+import org.ff4j.exception.GroupNotFoundException;
 import org.ff4j.property.Property;
 import org.ff4j.property.store.JdbcPropertyMapper;
 import org.ff4j.utils.JdbcUtils;
@@ -70,12 +78,24 @@ public class JdbcFeatureStore extends AbstractFeatureStore {
     public static final String CANNOT_UPDATE_FEATURES_DATABASE_SQL_ERROR =
     		"Cannot update features database, SQL ERROR";
 
+    /** Maximum number of identifiers in a single IN clause. */
+    public static final int MAX_IN_CLAUSE_SIZE = 500;
+
+    /** Default overlap of the change feed (milliseconds). */
+    public static final long DEFAULT_CHANGE_FEED_OVERLAP = 5000;
+
     /** Access to storage. */
     private DataSource dataSource;
 
     /** Query builder. */
     private JdbcQueryBuilder queryBuilder;
 
+    /** Presence of the LAST_MODIFIED column has been checked. */
+    private volatile boolean schemaChecked = false;
+
+    /** Rows modified up to this duration before the last version are read again (milliseconds). */
+    private long changeFeedOverlap = DEFAULT_CHANGE_FEED_OVERLAP;
+
     /** Mapper. */
     private JdbcPropertyMapper JDBC_PROPERTY_MAPPER = new JdbcPropertyMapper();
 
@@ -120,6 +140,7 @@ public class JdbcFeatureStore extends AbstractFeatureStore {
         if (!isTableExist(ds, qb.getTableNameRoles())) {
             executeUpdate(ds, qb.sqlCreateTableRoles());
         }
+        schemaChecked = false;
     }
 
     /** {@inheritDoc} */
@@ -159,52 +180,14 @@ public class JdbcFeatureStore extends AbstractFeatureStore {
     }
 
     /** {@inheritDoc} */
-   @Override
-   public Feature read(String uid) {
-    	assertFeatureExist(uid);
-        Connection          sqlConn = null;
-        PreparedStatement   ps = null;
-        ResultSet           rs = null;
-        try {
-            sqlConn = getDataSource().getConnection();
-            ps = sqlConn.prepareStatement(getQueryBuilder().getFeature());
-            ps.setString(1, uid);
-            rs = ps.executeQuery();
-            // Existence is tested before
-            rs.next();
-            Feature f = JDBC_FEATURE_MAPPER.mapFeature(rs);
-            closeResultSet(rs);
-            rs = null;
-            closeStatement(ps);
-            ps = null;
-
-            // Enrich to get roles 2nd request
-            ps = sqlConn.prepareStatement(getQueryBuilder().getRoles());
-            ps.setString(1, uid);
-            rs = ps.executeQuery();
-            while (rs.next()) {
-                f.getPermissions().add(rs.getString("ROLE_NAME"));
-            }
-            closeResultSet(rs);
-            rs = null;
-            closeStatement(ps);
-            ps = null;
-
-            // Enrich with properties 3d request to get custom properties by uid
-            ps = sqlConn.prepareStatement(getQueryBuilder().getFeatureProperties());
-            ps.setString(1, uid);
-            rs = ps.executeQuery();
-            while (rs.next()) {
-               f.addProperty(JDBC_PROPERTY_MAPPER.map(rs));
-            }
-            return f;
-        } catch (SQLException sqlEX) {
-            throw new FeatureAccessException(CANNOT_CHECK_FEATURE_EXISTENCE_ERROR_RELATED_TO_DATABASE, sqlEX);
-        } finally {
-            closeResultSet(rs);
-            closeStatement(ps);
-            closeConnection(sqlConn);
+    @Override
+    public Feature read(String uid) {
+        assertHasLength(uid);
+        Feature f = readFeatures(Util.set(uid)).get(uid);
+        if (f == null) {
+            throw new FeatureNotFoundException(uid);
         }
+        return f;
     }
 
     /** {@inheritDoc} */
@@ -228,18 +211,7 @@ public class JdbcFeatureStore extends AbstractFeatureStore {
 
             // Create feature
             ps = sqlConn.prepareStatement(getQueryBuilder().createFeature());
-            ps.setString(1, fp.getUid());
-            ps.setInt(2, fp.isEnable() ? 1 : 0);
-            ps.setString(3, fp.getDescription());
-            String strategyColumn = null;
-            String expressionColumn = null;
-            if (fp.getFlippingStrategy() != null) {
-                strategyColumn   = fp.getFlippingStrategy().getClass().getCanonicalName();
-                expressionColumn = MappingUtil.fromMap(fp.getFlippingStrategy().getInitParams());
-            }
-            ps.setString(4, strategyColumn);
-            ps.setString(5, expressionColumn);
-            ps.setString(6, fp.getGroup());
+            bindFeature(ps, fp);
             ps.executeUpdate();
             closeStatement(ps);
             ps = null;
@@ -338,6 +310,7 @@ public class JdbcFeatureStore extends AbstractFeatureStore {
     	assertFeatureExist(uid);
         assertHasLength(roleName);
         update(getQueryBuilder().addRoleToFeature(), uid, roleName);
+        touchFeature(uid);
     }
 
     /** {@inheritDoc} */
@@ -346,20 +319,150 @@ public class JdbcFeatureStore extends AbstractFeatureStore {
     	assertFeatureExist(uid);
         assertHasLength(roleName);
         update(getQueryBuilder().deleteFeatureRole(), uid, roleName);
+        touchFeature(uid);
     }
 
     /** {@inheritDoc} */
     @Override
     public Map<String, Feature> readAll() {
-        LinkedHashMap<String, Feature> mapFP = new LinkedHashMap<String, Feature>();
+        Connection sqlConn = null;
+        try {
+            sqlConn = getDataSource().getConnection();
+            return loadFeatures(sqlConn, getQueryBuilder().getAllFeatures(),
+                    getQueryBuilder().getAllRoles(), getQueryBuilder().getAllCustomProperties());
+        } catch (SQLException sqlEX) {
+            throw new FeatureAccessException(CANNOT_CHECK_FEATURE_EXISTENCE_ERROR_RELATED_TO_DATABASE, sqlEX);
+        } finally {
+            closeConnection(sqlConn);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Feature> readFeatures(Set<String> featureIds) {
+        Map<String, Feature> mapFP = new LinkedHashMap<String, Feature>();
+        if (featureIds == null || featureIds.isEmpty()) {
+            return mapFP;
+        }
+        Connection sqlConn = null;
+        try {
+            sqlConn = getDataSource().getConnection();
+            return loadFeatures(sqlConn, featureIds);
+        } catch (SQLException sqlEX) {
+            throw new FeatureAccessException(CANNOT_CHECK_FEATURE_EXISTENCE_ERROR_RELATED_TO_DATABASE, sqlEX);
+        } finally {
+            closeConnection(sqlConn);
+        }
+    }
+
+    /**
+     * Only features created or updated since the version (LAST_MODIFIED column) are loaded, the
+     * identifiers of all features are returned to detect deletions. Rows without modification
+     * date (written by a client not aware of the column) are considered as updated.
+     * 
+     * The date is set when the statement runs, a transaction can commit after a later one has
+     * been read : rows modified within {@link #getChangeFeedOverlap()} before the version are read
+     * again at each call. Schemas without the column return a full snapshot.
+     * 
+     * {@inheritDoc}
+     */
+    @Override
+    public ChangeSet<Feature> featureChangesSince(long version) {
+        if (!getQueryBuilder().isFeaturesLastModified()) {
+            return super.featureChangesSince(version);
+        }
+        long from = version - changeFeedOverlap;
         Connection sqlConn = null;
         PreparedStatement ps = null;
         ResultSet rs = null;
         try {
+            sqlConn = getDataSource().getConnection();
+            Set<String> retained = new HashSet<String>();
+            Set<String> updated  = new HashSet<String>();
+            long lastModified    = version;
+            ps = sqlConn.prepareStatement(getQueryBuilder().getFeaturesLastModified());
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                String uid = rs.getString(COL_FEAT_UID);
+                Timestamp ts = rs.getTimestamp(COL_FEAT_LASTMODIFIED);
+                retained.add(uid);
+                // Greater or equals : several updates can share the same timestamp
+                if (ts == null || version == 0 || ts.getTime() >= from) {
+                    updated.add(uid);
+                }
+                if (ts != null) {
+                    lastModified = Math.max(lastModified, ts.getTime());
+                }
+            }
+            closeResultSet(rs);
+            rs = null;
+            closeStatement(ps);
+            ps = null;
+            return new ChangeSet<Feature>(lastModified, loadFeatures(sqlConn, updated), null, retained);
+        } catch (SQLException sqlEX) {
+            throw new FeatureAccessException(CANNOT_CHECK_FEATURE_EXISTENCE_ERROR_RELATED_TO_DATABASE, sqlEX);
+        } finally {
+            closeResultSet(rs);
+            closeStatement(ps);
+            closeConnection(sqlConn);
+        }
+    }
 
-        	// Returns features
-            sqlConn = dataSource.getConnection();
-            ps = sqlConn.prepareStatement(getQueryBuilder().getAllFeatures());
+    /**
+     * Load a set of features with IN clauses, by chunks of {@link #MAX_IN_CLAUSE_SIZE}.
+     *
+     * @param sqlConn
+     *      current connection
+     * @param featureIds
+     *      feature identifiers
+     * @return
+     *      features by uid
+     * @throws SQLException
+     *      error during sql operation
+     */
+    private Map<String, Feature> loadFeatures(Connection sqlConn, Set<String> featureIds)
+    throws SQLException {
+        Map<String, Feature> mapFP = new LinkedHashMap<String, Feature>();
+        List<String> uids = new ArrayList<String>(featureIds);
+        // Chunks to stay below the maximum number of bind parameters
+        for (int offset = 0; offset < uids.size(); offset += MAX_IN_CLAUSE_SIZE) {
+            List<String> chunk = uids.subList(offset, Math.min(offset + MAX_IN_CLAUSE_SIZE, uids.size()));
+            mapFP.putAll(loadFeatures(sqlConn, getQueryBuilder().getFeaturesIn(chunk.size()),
+                    getQueryBuilder().getRolesIn(chunk.size()),
+                    getQueryBuilder().getCustomPropertiesIn(chunk.size()),
+                    chunk.toArray(new String[chunk.size()])));
+        }
+        return mapFP;
+    }
+
+    /**
+     * Load features with their roles and custom properties using 3 queries on the same
+     * connection, whatever the number of features. Each query expects the same parameters.
+     *
+     * @param sqlConn
+     *      current connection
+     * @param sqlFeatures
+     *      query to select features
+     * @param sqlRoles
+     *      query to select roles of those features
+     * @param sqlProperties
+     *      query to select custom properties of those features
+     * @param params
+     *      parameters of the queries
+     * @return
+     *      features by uid
+     * @throws SQLException
+     *      error during sql operation
+     */
+    private Map<String, Feature> loadFeatures(Connection sqlConn,
+            String sqlFeatures, String sqlRoles, String sqlProperties, String... params)
+    throws SQLException {
+        LinkedHashMap<String, Feature> mapFP = new LinkedHashMap<String, Feature>();
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            // Features
+            ps = buildStatement(sqlConn, sqlFeatures, params);
             rs = ps.executeQuery();
             while (rs.next()) {
                 Feature f = JDBC_FEATURE_MAPPER.mapFeature(rs);
@@ -369,41 +472,38 @@ public class JdbcFeatureStore extends AbstractFeatureStore {
             rs = null;
             closeStatement(ps);
             ps = null;
+            if (mapFP.isEmpty()) {
+                return mapFP;
+            }
 
-            // Returns Roles
-            ps = sqlConn.prepareStatement(getQueryBuilder().getAllRoles());
+            // Roles
+            ps = buildStatement(sqlConn, sqlRoles, params);
             rs = ps.executeQuery();
             while (rs.next()) {
-                String uid = rs.getString(COL_ROLE_FEATID);
-                mapFP.get(uid).getPermissions().add(rs.getString(COL_ROLE_ROLENAME));
+                Feature f = mapFP.get(rs.getString(COL_ROLE_FEATID));
+                // Could have been created between the 2 queries
+                if (f != null) {
+                    f.getPermissions().add(rs.getString(COL_ROLE_ROLENAME));
+                }
             }
             closeResultSet(rs);
             rs = null;
             closeStatement(ps);
             ps = null;
 
-            // Read custom properties for each feature
-            for (Feature f : mapFP.values()) {
-                ps = sqlConn.prepareStatement(getQueryBuilder().getFeatureProperties());
-                ps.setString(1, f.getUid());
-                rs = ps.executeQuery();
-                while (rs.next()) {
+            // Custom properties
+            ps = buildStatement(sqlConn, sqlProperties, params);
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                Feature f = mapFP.get(rs.getString(COL_FEAT_UID));
+                if (f != null) {
                     f.addProperty(JDBC_PROPERTY_MAPPER.map(rs));
                 }
-                closeResultSet(rs);
-                rs = null;
-                closeStatement(ps);
-                ps = null;
             }
-
             return mapFP;
-
-        } catch (SQLException sqlEX) {
-            throw new FeatureAccessException(CANNOT_CHECK_FEATURE_EXISTENCE_ERROR_RELATED_TO_DATABASE, sqlEX);
         } finally {
             closeResultSet(rs);
             closeStatement(ps);
-            closeConnection(sqlConn);
         }
     }
 
@@ -529,6 +629,122 @@ public class JdbcFeatureStore extends AbstractFeatureStore {
         }
     }
 
+    /**
+     * Import features in a single transaction : features already in the table are removed, then
+     * features, roles and custom properties are inserted with one JDBC batch per statement.
+     * Any SQL error rolls back the whole import : every feature is then reported as failed with the
+     * SQL error, no exception is raised.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public ImportReport importFeatures(Collection<Feature> features) {
+        ImportReport report = new ImportReport();
+        Map<String, Feature> toImport = prepareImport(features, report);
+        if (toImport.isEmpty()) {
+            return report;
+        }
+        Set<String> existing = new HashSet<String>();
+        Connection sqlConn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        Boolean previousAutoCommit = null;
+        try {
+            sqlConn = getDataSource().getConnection();
+
+            // Begin TX
+            previousAutoCommit = sqlConn.getAutoCommit();
+            sqlConn.setAutoCommit(false);
+
+            // Features already in the table, single query
+            ps = sqlConn.prepareStatement(getQueryBuilder().getAllFeaturesUid());
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                String uid = rs.getString(COL_FEAT_UID);
+                if (toImport.containsKey(uid)) {
+                    existing.add(uid);
+                }
+            }
+            closeResultSet(rs);
+            rs = null;
+            closeStatement(ps);
+            ps = null;
+
+            // Remove them with their custom properties and roles
+            if (!existing.isEmpty()) {
+                executeBatch(sqlConn, getQueryBuilder().deleteAllFeatureCustomProperties(), existing);
+                executeBatch(sqlConn, getQueryBuilder().deleteRoles(), existing);
+                executeBatch(sqlConn, getQueryBuilder().deleteFeature(), existing);
+            }
+
+            // Create features
+            ps = sqlConn.prepareStatement(getQueryBuilder().createFeature());
+            for (Feature fp : toImport.values()) {
+                bindFeature(ps, fp);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            closeStatement(ps);
+            ps = null;
+
+            // Create roles
+            ps = sqlConn.prepareStatement(getQueryBuilder().addRoleToFeature());
+            int nbRoles = 0;
+            for (Feature fp : toImport.values()) {
+                for (String role : fp.getPermissions()) {
+                    ps.setString(1, fp.getUid());
+                    ps.setString(2, role);
+                    ps.addBatch();
+                    nbRoles++;
+                }
+            }
+            if (nbRoles > 0) {
+                ps.executeBatch();
+            }
+            closeStatement(ps);
+            ps = null;
+
+            // Create custom properties
+            ps = sqlConn.prepareStatement(getQueryBuilder().createFeatureProperty());
+            int nbProperties = 0;
+            for (Feature fp : toImport.values()) {
+                if (fp.getCustomProperties() != null) {
+                    for (Property<?> pp : fp.getCustomProperties().values()) {
+                        bindCustomProperty(ps, fp.getUid(), pp);
+                        ps.addBatch();
+                        nbProperties++;
+                    }
+                }
+            }
+            if (nbProperties > 0) {
+                ps.executeBatch();
+            }
+
+            // Commit
+            sqlConn.commit();
+
+        } catch (SQLException sqlEX) {
+            // Nothing has been imported
+            rollback(sqlConn);
+            for (String uid : toImport.keySet()) {
+                report.failed(uid, sqlEX);
+            }
+            return report;
+        } finally {
+            closeResultSet(rs);
+            closeStatement(ps);
+            closeConnection(sqlConn, previousAutoCommit);
+        }
+        for (String uid : toImport.keySet()) {
+            if (existing.contains(uid)) {
+                report.updated(uid);
+            } else {
+                report.created(uid);
+            }
+        }
+        return report;
+    }
+
     /**
      * Ease creation of properties in Database.
      *
@@ -558,6 +774,10 @@ public class JdbcFeatureStore extends AbstractFeatureStore {
                 closeStatement(ps);
                 ps = null;
             }
+            if (getQueryBuilder().isFeaturesLastModified()) {
+                ps = buildStatement(sqlConn, getQueryBuilder().touchFeature(), uid);
+                ps.executeUpdate();
+            }
 
             // End TX
             sqlConn.commit();
@@ -588,6 +808,25 @@ public class JdbcFeatureStore extends AbstractFeatureStore {
     private PreparedStatement createCustomProperty(Connection sqlConn, String featureId, Property<?> pp)
     throws SQLException {
         PreparedStatement ps = sqlConn.prepareStatement(getQueryBuilder().createFeatureProperty());
+        bindCustomProperty(ps, featureId, pp);
+        ps.executeUpdate();
+        return ps;
+    }
+    
+    /**
+     * Set parameters of the statement {@link JdbcQueryBuilder#createFeatureProperty()}.
+     *
+     * @param ps
+     *      statement to bind
+     * @param featureId
+     *      current unique feature identifier
+     * @param pp
+     *      pojo property
+     * @throws SQLException
+     *      error during sql operation
+     */
+    private void bindCustomProperty(PreparedStatement ps, String featureId, Property<?> pp)
+    throws SQLException {
         ps.setString(1, pp.getName());
         ps.setString(2, pp.getType());
         ps.setString(3, pp.asString());
@@ -599,8 +838,59 @@ public class JdbcFeatureStore extends AbstractFeatureStore {
             ps.setString(5, null);
         }
         ps.setString(6, featureId);
-        ps.executeUpdate();
-        return ps;
+    }
+    
+    /**
+     * Set parameters of the statement {@link JdbcQueryBuilder#createFeature()}.
+     *
+     * @param ps
+     *      statement to bind
+     * @param fp
+     *      feature to insert
+     * @throws SQLException
+     *      error during sql operation
+     */
+    private void bindFeature(PreparedStatement ps, Feature fp)
+    throws SQLException {
+        ps.setString(1, fp.getUid());
+        ps.setInt(2, fp.isEnable() ? 1 : 0);
+        ps.setString(3, fp.getDescription());
+        String strategyColumn = null;
+        String expressionColumn = null;
+        if (fp.getFlippingStrategy() != null) {
+            strategyColumn   = fp.getFlippingStrategy().getClass().getCanonicalName();
+            expressionColumn = MappingUtil.fromMap(fp.getFlippingStrategy().getInitParams());
+        }
+        ps.setString(4, strategyColumn);
+        ps.setString(5, expressionColumn);
+        ps.setString(6, fp.getGroup());
+    }
+    
+    /**
+     * Execute a statement expecting a feature identifier once per feature, in a single batch.
+     *
+     * @param sqlConn
+     *      current sql connection
+     * @param sql
+     *      statement with the feature identifier as only parameter
+     * @param uids
+     *      feature identifiers
+     * @throws SQLException
+     *      error during sql operation
+     */
+    private void executeBatch(Connection sqlConn, String sql, Collection < String > uids)
+    throws SQLException {
+        PreparedStatement ps = null;
+        try {
+            ps = sqlConn.prepareStatement(sql);
+            for (String uid : uids) {
+                ps.setString(1, uid);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        } finally {
+            closeStatement(ps);
+        }
     }
 
     /** {@inheritDoc} */
@@ -643,62 +933,19 @@ public class JdbcFeatureStore extends AbstractFeatureStore {
     /** {@inheritDoc} */
     @Override
     public Map<String, Feature> readGroup(String groupName) {
-    	assertGroupExist(groupName);
-        LinkedHashMap<String, Feature> mapFP = new LinkedHashMap<String, Feature>();
+        assertHasLength(groupName);
         Connection sqlConn = null;
-        PreparedStatement ps = null;
-        ResultSet rs = null;
         try {
-            // Returns features
-            sqlConn = dataSource.getConnection();
-            ps = sqlConn.prepareStatement(getQueryBuilder().getFeatureOfGroup());
-            ps.setString(1, groupName);
-            rs = ps.executeQuery();
-            while (rs.next()) {
-                Feature f = JDBC_FEATURE_MAPPER.mapFeature(rs);
-                mapFP.put(f.getUid(), f);
-            }
-            closeResultSet(rs);
-            rs = null;
-            closeStatement(ps);
-            ps = null;
-
-            // Returns Roles
-            ps = sqlConn.prepareStatement(getQueryBuilder().getAllRoles());
-            rs = ps.executeQuery();
-            while (rs.next()) {
-                String uid = rs.getString(COL_ROLE_FEATID);
-                // only feature in the group must be processed
-                if (mapFP.containsKey(uid)) {
-                    mapFP.get(uid).getPermissions().add(rs.getString(COL_ROLE_ROLENAME));
-                }
-            }
-            closeResultSet(rs);
-            rs = null;
-            closeStatement(ps);
-            ps = null;
-
-            // Read custom properties for each feature
-            for (Feature f : mapFP.values()) {
-                ps = sqlConn.prepareStatement(getQueryBuilder().getFeatureProperties());
-                ps.setString(1, f.getUid());
-                rs = ps.executeQuery();
-                while (rs.next()) {
-                    f.addProperty(JDBC_PROPERTY_MAPPER.map(rs));
-                }
-                closeResultSet(rs);
-                rs = null;
-                closeStatement(ps);
-                ps = null;
+            sqlConn = getDataSource().getConnection();
+            Map<String, Feature> mapFP = loadFeatures(sqlConn, getQueryBuilder().getFeatureOfGroup(),
+                    getQueryBuilder().getRolesOfGroup(), getQueryBuilder().getCustomPropertiesOfGroup(), groupName);
+            if (mapFP.isEmpty()) {
+                throw new GroupNotFoundException(groupName);
             }
-
             return mapFP;
-
         } catch (SQLException sqlEX) {
             throw new FeatureAccessException(CANNOT_CHECK_FEATURE_EXISTENCE_ERROR_RELATED_TO_DATABASE, sqlEX);
         } finally {
-            closeResultSet(rs);
-            closeStatement(ps);
             closeConnection(sqlConn);
         }
     }
@@ -776,6 +1023,9 @@ public class JdbcFeatureStore extends AbstractFeatureStore {
 		if (queryBuilder == null) {
 			queryBuilder = new JdbcQueryBuilder();
 		}
+		if (!schemaChecked && dataSource != null) {
+			checkSchema(queryBuilder);
+		}
 		return queryBuilder;
 	}
 
@@ -784,6 +1034,54 @@ public class JdbcFeatureStore extends AbstractFeatureStore {
 	 */
 	public void setQueryBuilder(JdbcQueryBuilder queryBuilder) {
 		this.queryBuilder = queryBuilder;
+		this.schemaChecked = false;
 	}
 
+    /**
+     * Schemas created before the change feed have no LAST_MODIFIED column : queries do not set it
+     * and the change feed returns full snapshots. Checked once, when the table exists.
+     *
+     * @param qb
+     *     current query builder
+     */
+    private void checkSchema(JdbcQueryBuilder qb) {
+        if (isTableExist(dataSource, qb.getTableNameFeatures())) {
+            qb.setFeaturesLastModified(isColumnExist(dataSource, qb.getTableNameFeatures(), COL_FEAT_LASTMODIFIED));
+            schemaChecked = true;
+        }
+    }
+
+    /**
+     * Update modification date of a feature (roles, custom properties) when the column exists.
+     *
+     * @param uid
+     *      feature identifier
+     */
+    private void touchFeature(String uid) {
+        if (getQueryBuilder().isFeaturesLastModified()) {
+            update(getQueryBuilder().touchFeature(), uid);
+        }
+    }
+
+    /**
+     * Getter accessor for attribute 'changeFeedOverlap'.
+     *
+     * @return
+     *       current value of 'changeFeedOverlap'
+     */
+    public long getChangeFeedOverlap() {
+        return changeFeedOverlap;
+    }
+
+    /**
+     * Setter accessor for attribute 'changeFeedOverlap', should exceed the duration of the
+     * longest write transaction on the table.
+     *
+     * @param changeFeedOverlap
+     *      new value for 'changeFeedOverlap ' (milliseconds)
+     */
+    public void setChangeFeedOverlap(long changeFeedOverlap) {
+        this.changeFeedOverlap = changeFeedOverlap;
+    }
+
 }
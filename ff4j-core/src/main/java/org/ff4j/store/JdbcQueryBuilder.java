@@ -56,6 +56,12 @@ public class JdbcQueryBuilder {
 	
 	/** table suffix. */
 	public String tableSuffix = "";
+	
+	/** Features table has the LAST_MODIFIED column (schemas created before the change feed do not). */
+	private boolean featuresLastModified = true;
+	
+	/** Properties table has the LAST_MODIFIED column (schemas created before the change feed do not). */
+	private boolean propertiesLastModified = true;
 
 	/** 
 	 * Default constructor. 
@@ -153,6 +159,7 @@ public class JdbcQueryBuilder {
                   + "STRATEGY    VARCHAR(1000), "
                   + "EXPRESSION  VARCHAR(255), "
                   + "GROUPNAME   VARCHAR(100), "
+                  + "LAST_MODIFIED TIMESTAMP, "
                   + "PRIMARY KEY(FEAT_UID))");
         return sb.toString();
     }
@@ -206,6 +213,7 @@ public class JdbcQueryBuilder {
                  + " CURRENTVALUE VARCHAR(255),"
                  + " FIXEDVALUES  VARCHAR(1000),"
                  + " DESCRIPTION  VARCHAR(1000),"
+                 + " LAST_MODIFIED TIMESTAMP,"
                  + " PRIMARY KEY(PROPERTY_ID))");
         return sb.toString();
     }
@@ -285,7 +293,7 @@ public class JdbcQueryBuilder {
 		StringBuilder sb = new StringBuilder();
 		sb.append("UPDATE ");
 		sb.append(getTableNameFeatures());
-		sb.append(" SET ENABLE = 1 WHERE FEAT_UID = ?");
+		sb.append(" SET ENABLE = 1" + setFeatureLastModified() + " WHERE FEAT_UID = ?");
 		return sb.toString();
 	}
 	
@@ -293,7 +301,7 @@ public class JdbcQueryBuilder {
 		StringBuilder sb = new StringBuilder();
 		sb.append("UPDATE ");
 		sb.append(getTableNameFeatures());
-		sb.append(" SET ENABLE = 1 WHERE GROUPNAME = ?");
+		sb.append(" SET ENABLE = 1" + setFeatureLastModified() + " WHERE GROUPNAME = ?");
 		return sb.toString();
 	}
 	
@@ -301,7 +309,7 @@ public class JdbcQueryBuilder {
 		StringBuilder sb = new StringBuilder();
 		sb.append("UPDATE ");
 		sb.append(getTableNameFeatures());
-		sb.append(" SET ENABLE = 0 WHERE FEAT_UID = ?");
+		sb.append(" SET ENABLE = 0" + setFeatureLastModified() + " WHERE FEAT_UID = ?");
 		return sb.toString();
 	}
 	
@@ -309,7 +317,7 @@ public class JdbcQueryBuilder {
 		StringBuilder sb = new StringBuilder();
 		sb.append("UPDATE ");
 		sb.append(getTableNameFeatures());
-		sb.append(" SET ENABLE = 0 WHERE GROUPNAME = ?");
+		sb.append(" SET ENABLE = 0" + setFeatureLastModified() + " WHERE GROUPNAME = ?");
 		return sb.toString();
 	}
 	
@@ -317,7 +325,7 @@ public class JdbcQueryBuilder {
 		StringBuilder sb = new StringBuilder();
 		sb.append("UPDATE ");
 		sb.append(getTableNameFeatures());
-		sb.append(" SET GROUPNAME = ? WHERE FEAT_UID = ?");
+		sb.append(" SET GROUPNAME = ?" + setFeatureLastModified() + " WHERE FEAT_UID = ?");
 		return sb.toString();
 	}
 	
@@ -325,7 +333,7 @@ public class JdbcQueryBuilder {
 		StringBuilder sb = new StringBuilder();
 		sb.append("UPDATE ");
 		sb.append(getTableNameFeatures());
-		sb.append(" SET GROUPNAME = NULL WHERE FEAT_UID = ?");
+		sb.append(" SET GROUPNAME = NULL" + setFeatureLastModified() + " WHERE FEAT_UID = ?");
 		return sb.toString();
 	}
 	
@@ -333,7 +341,11 @@ public class JdbcQueryBuilder {
 		StringBuilder sb = new StringBuilder();
 		sb.append("INSERT INTO ");
 		sb.append(getTableNameFeatures());
-		sb.append("(FEAT_UID, ENABLE, DESCRIPTION, STRATEGY,EXPRESSION, GROUPNAME) VALUES(?, ?, ?, ?, ?, ?)");
+		if (featuresLastModified) {
+			sb.append("(FEAT_UID, ENABLE, DESCRIPTION, STRATEGY,EXPRESSION, GROUPNAME, LAST_MODIFIED) VALUES(?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)");
+		} else {
+			sb.append("(FEAT_UID, ENABLE, DESCRIPTION, STRATEGY,EXPRESSION, GROUPNAME) VALUES(?, ?, ?, ?, ?, ?)");
+		}
 		return sb.toString();
 	}
 	
@@ -349,10 +361,71 @@ public class JdbcQueryBuilder {
 		StringBuilder sb = new StringBuilder();
 		sb.append("UPDATE ");
 		sb.append(getTableNameFeatures());
-		sb.append(" SET ENABLE=?,DESCRIPTION=?,STRATEGY=?,EXPRESSION=?,GROUPNAME=? WHERE FEAT_UID = ?");
+		sb.append(" SET ENABLE=?,DESCRIPTION=?,STRATEGY=?,EXPRESSION=?,GROUPNAME=?" + setFeatureLastModified() + " WHERE FEAT_UID = ?");
+		return sb.toString();
+	}
+	
+	/**
+	 * Update last modification date of a feature when roles or custom properties change, only
+	 * relevant when {@link #isFeaturesLastModified()}.
+	 *
+	 * @return
+	 *      sql query
+	 */
+	public String touchFeature() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("UPDATE ");
+		sb.append(getTableNameFeatures());
+		sb.append(" SET LAST_MODIFIED = CURRENT_TIMESTAMP WHERE FEAT_UID = ?");
+		return sb.toString();
+	}
+	
+	/**
+	 * Identifiers and last modification dates of all features (change-feed).
+	 *
+	 * @return
+	 *      sql query
+	 */
+	public String getFeaturesLastModified() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("SELECT FEAT_UID,LAST_MODIFIED FROM ");
+		sb.append(getTableNameFeatures());
+		return sb.toString();
+	}
+	
+	/**
+	 * Identifiers of all features.
+	 *
+	 * @return
+	 *      sql query
+	 */
+	public String getAllFeaturesUid() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("SELECT FEAT_UID FROM ");
+		sb.append(getTableNameFeatures());
 		return sb.toString();
 	}
 	
+	/**
+	 * Assignment of the modification date in features updates.
+	 *
+	 * @return
+	 *      sql fragment, empty if the table has no LAST_MODIFIED column
+	 */
+	private String setFeatureLastModified() {
+		return featuresLastModified ? ", LAST_MODIFIED = CURRENT_TIMESTAMP" : "";
+	}
+	
+	/**
+	 * Assignment of the modification date in properties updates.
+	 *
+	 * @return
+	 *      sql fragment, empty if the table has no LAST_MODIFIED column
+	 */
+	private String setPropertyLastModified() {
+		return propertiesLastModified ? ", LAST_MODIFIED = CURRENT_TIMESTAMP" : "";
+	}
+	
 	public String addRoleToFeature() {
 		StringBuilder sb = new StringBuilder();
 		sb.append("INSERT INTO ");
@@ -392,6 +465,44 @@ public class JdbcQueryBuilder {
 		return sb.toString(); 
 	}
 	
+	/**
+	 * Roles of the features of a group, expects the group name as parameter.
+	 *
+	 * @return
+	 *      sql query
+	 */
+	public String getRolesOfGroup() {
+		StringBuilder sb = new StringBuilder(getAllRoles());
+		sb.append(" WHERE FEAT_UID IN (SELECT FEAT_UID FROM ");
+		sb.append(getTableNameFeatures());
+		sb.append(" WHERE GROUPNAME = ?)");
+		return sb.toString();
+	}
+	
+	/**
+	 * Roles of a list of features, expects the feature identifiers as parameters.
+	 *
+	 * @param nbFeatures
+	 *      number of features in the IN clause
+	 * @return
+	 *      sql query
+	 */
+	public String getRolesIn(int nbFeatures) {
+		return getAllRoles() + " WHERE FEAT_UID IN " + buildParamsIn(nbFeatures);
+	}
+	
+	/**
+	 * Features of a list of features, expects the feature identifiers as parameters.
+	 *
+	 * @param nbFeatures
+	 *      number of features in the IN clause
+	 * @return
+	 *      sql query
+	 */
+	public String getFeaturesIn(int nbFeatures) {
+		return getAllFeatures() + " WHERE FEAT_UID IN " + buildParamsIn(nbFeatures);
+	}
+	
     // ------- Properties -------------
     
 	public String getFeatureProperties() {
@@ -402,6 +513,39 @@ public class JdbcQueryBuilder {
 		return sb.toString();
 	}
 	
+	public String getAllCustomProperties() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("SELECT PROPERTY_ID,CLAZZ,CURRENTVALUE,DESCRIPTION,FIXEDVALUES,FEAT_UID FROM ");
+		sb.append(getTableNameCustomProperties());
+		return sb.toString();
+	}
+	
+	/**
+	 * Custom properties of the features of a group, expects the group name as parameter.
+	 *
+	 * @return
+	 *      sql query
+	 */
+	public String getCustomPropertiesOfGroup() {
+		StringBuilder sb = new StringBuilder(getAllCustomProperties());
+		sb.append(" WHERE FEAT_UID IN (SELECT FEAT_UID FROM ");
+		sb.append(getTableNameFeatures());
+		sb.append(" WHERE GROUPNAME = ?)");
+		return sb.toString();
+	}
+	
+	/**
+	 * Custom properties of a list of features, expects the feature identifiers as parameters.
+	 *
+	 * @param nbFeatures
+	 *      number of features in the IN clause
+	 * @return
+	 *      sql query
+	 */
+	public String getCustomPropertiesIn(int nbFeatures) {
+		return getAllCustomProperties() + " WHERE FEAT_UID IN " + buildParamsIn(nbFeatures);
+	}
+	
 	public String getFeatureProperty() {
 		StringBuilder sb = new StringBuilder();
 		sb.append("SELECT PROPERTY_ID,CLAZZ,CURRENTVALUE,FIXEDVALUES,FEAT_UID FROM ");
@@ -459,7 +603,11 @@ public class JdbcQueryBuilder {
 		StringBuilder sb = new StringBuilder();
 		sb.append("INSERT INTO ");
 		sb.append(getTableNameProperties());
-		sb.append("(PROPERTY_ID, CLAZZ, CURRENTVALUE, DESCRIPTION, FIXEDVALUES) VALUES(?, ?, ?, ?, ?)");
+		if (propertiesLastModified) {
+			sb.append("(PROPERTY_ID, CLAZZ, CURRENTVALUE, DESCRIPTION, FIXEDVALUES, LAST_MODIFIED) VALUES(?, ?, ?, ?, ?, CURRENT_TIMESTAMP)");
+		} else {
+			sb.append("(PROPERTY_ID, CLAZZ, CURRENTVALUE, DESCRIPTION, FIXEDVALUES) VALUES(?, ?, ?, ?, ?)");
+		}
 		return sb.toString();
 	}
 
@@ -498,7 +646,7 @@ public class JdbcQueryBuilder {
 		StringBuilder sb = new StringBuilder();
 		sb.append("UPDATE ");
 		sb.append(getTableNameProperties());
-		sb.append(" SET CURRENTVALUE = ? WHERE PROPERTY_ID = ?");
+		sb.append(" SET CURRENTVALUE = ?" + setPropertyLastModified() + " WHERE PROPERTY_ID = ?");
 		return sb.toString();
 	}
 	
@@ -509,6 +657,29 @@ public class JdbcQueryBuilder {
 		return sb.toString();
 	}
 	
+	/**
+	 * Identifiers and last modification dates of all properties (change-feed).
+	 *
+	 * @return
+	 *      sql query
+	 */
+	public String getPropertiesLastModified() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("SELECT PROPERTY_ID,LAST_MODIFIED FROM ");
+		sb.append(getTableNameProperties());
+		return sb.toString();
+	}
+	
+	/**
+	 * Properties modified since a date or without date, expects the date as parameter.
+	 *
+	 * @return
+	 *      sql query
+	 */
+	public String getPropertiesModifiedSince() {
+		return getAllProperties() + " WHERE LAST_MODIFIED IS NULL OR LAST_MODIFIED >= ?";
+	}
+	
 	public String getAllPropertiesNames() {
 		StringBuilder sb = new StringBuilder();
 		sb.append("SELECT PROPERTY_ID FROM ");
@@ -601,6 +772,26 @@ public class JdbcQueryBuilder {
     }
    
     
+	/**
+	 * Build IN clause with bind parameters.
+	 *
+	 * @param nbParams
+	 *      number of parameters
+	 * @return
+	 *      clause like (?,?,?)
+	 */
+	public String buildParamsIn(int nbParams) {
+	    if (nbParams < 1) {
+	        throw new IllegalArgumentException("IN clause expects at least one parameter");
+	    }
+	    StringBuilder sb = new StringBuilder("(?");
+	    for (int i = 1; i < nbParams; i++) {
+	        sb.append(",?");
+	    }
+	    sb.append(")");
+	    return sb.toString();
+	}
+	
 	private String buildClauseIn(Collection < String> elements) {
 	    boolean first = true;
 	    StringBuilder sb = new StringBuilder("(");
@@ -674,5 +865,46 @@ public class JdbcQueryBuilder {
         return sb.toString();
     }
     
+    /**
+     * Getter accessor for attribute 'featuresLastModified'.
+     *
+     * @return
+     *       current value of 'featuresLastModified'
+     */
+    public boolean isFeaturesLastModified() {
+        return featuresLastModified;
+    }
+
+    /**
+     * Setter accessor for attribute 'featuresLastModified', false for schemas without the
+     * LAST_MODIFIED column : writes do not set it and stores fall back to the snapshot change feed.
+     *
+     * @param featuresLastModified
+     *      new value for 'featuresLastModified '
+     */
+    public void setFeaturesLastModified(boolean featuresLastModified) {
+        this.featuresLastModified = featuresLastModified;
+    }
+
+    /**
+     * Getter accessor for attribute 'propertiesLastModified'.
+     *
+     * @return
+     *       current value of 'propertiesLastModified'
+     */
+    public boolean isPropertiesLastModified() {
+        return propertiesLastModified;
+    }
+
+    /**
+     * Setter accessor for attribute 'propertiesLastModified', false for schemas without the
+     * LAST_MODIFIED column : writes do not set it and stores fall back to the snapshot change feed.
+     *
+     * @param propertiesLastModified
+     *      new value for 'propertiesLastModified '
+     */
+    public void setPropertiesLastModified(boolean propertiesLastModified) {
+        this.propertiesLastModified = propertiesLastModified;
+    }
 	
 }
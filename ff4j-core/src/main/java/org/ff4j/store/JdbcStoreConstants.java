@@ -227,6 +227,9 @@ public class JdbcStoreConstants {
     /** sql column name from table FF4J_FEATURES. */
     public static final String COL_FEAT_EXPRESSION = "EXPRESSION";
 
+    /** sql column name from table FF4J_FEATURES. */
+    public static final String COL_FEAT_LASTMODIFIED = "LAST_MODIFIED";
+
     /** sql column name from table FF4J_ROLES. */
     public static final String COL_ROLE_FEATID = "FEAT_UID";
 
@@ -250,6 +253,9 @@ public class JdbcStoreConstants {
     
     /** sql column name from table FF4J_PROPERTIES. */
     public static final String COL_PROPERTY_DESCRIPTION = "DESCRIPTION";
+    
+    /** sql column name from table FF4J_PROPERTIES. */
+    public static final String COL_PROPERTY_LASTMODIFIED = "LAST_MODIFIED";
 
     private JdbcStoreConstants() {}
 }
@@ -0,0 +1,263 @@
+package org.ff4j.store.kv;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.ff4j.audit.Event;
+
+/**
+ * Reference implementation of {@link KeyValueDriver} keeping keys sorted in memory, prefix scans are sub maps.
+ *
+ * @author Cedrick LUNVEN (@clunven)
+ *
+ * @param <VALUE>
+ *      stored values
+ */
+public class InMemoryKeyValueDriver < VALUE > implements KeyValueDriver < String, VALUE > {
+
+    /** Prefix for features. */
+    public static final String PREFIX_FEATURES = "FF4J/FEATURES/";
+
+    /** Prefix for properties. */
+    public static final String PREFIX_PROPERTIES = "FF4J/PROPERTIES/";
+
+    /** Prefix for audit trail events. */
+    public static final String PREFIX_AUDIT = "FF4J/AUDIT/";
+
+    /** Prefix for feature usage events. */
+    public static final String PREFIX_HITS = "FF4J/HITS/";
+
+    /** Prefix for feature check events (feature off). */
+    public static final String PREFIX_MISS = "FF4J/MISS/";
+
+    /** Prefix for hit counters. */
+    public static final String PREFIX_COUNTERS = "FF4J/COUNTERS/";
+
+    /** Separator in keys. */
+    private static final String SEPARATOR = "/";
+
+    /** Values sorted by key. */
+    private final ConcurrentNavigableMap < String, VALUE > values = new ConcurrentSkipListMap<String, VALUE>();
+
+    /** Counters sorted by key. */
+    private final ConcurrentNavigableMap < String, AtomicLong > counters = new ConcurrentSkipListMap<String, AtomicLong>();
+
+    /** Feature names. */
+    private final Set < String > features = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /** Property names. */
+    private final Set < String > properties = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean existKey(String key) {
+        return values.containsKey(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void deleteKey(String key) {
+        values.remove(key);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void putValue(String key, VALUE value) {
+        values.put(key, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public VALUE getValue(String key) {
+        return values.get(key);
+    }
+
+    // -- Features --
+
+    /** {@inheritDoc} */
+    @Override
+    public String getFeatureKey(String featureName) {
+        return PREFIX_FEATURES + featureName;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getFeatureName(String key) {
+        return key.substring(PREFIX_FEATURES.length());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void registerFeature(String featureName) {
+        features.add(featureName);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void unregisterFeature(String featureName) {
+        features.remove(featureName);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Set<String> getFeatureList() {
+        return new HashSet<String>(features);
+    }
+
+    // -- Properties --
+
+    /** {@inheritDoc} */
+    @Override
+    public String getPropertyKey(String propertyName) {
+        return PREFIX_PROPERTIES + propertyName;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getPropertyName(String key) {
+        return key.substring(PREFIX_PROPERTIES.length());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void registerProperty(String propertyName) {
+        properties.add(propertyName);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void unregisterProperty(String propertyName) {
+        properties.remove(propertyName);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Set<String> getPropertyList() {
+        return new HashSet<String>(properties);
+    }
+
+    // -- Audit --
+
+    /** {@inheritDoc} */
+    @Override
+    public String getHitCountKey(Event e) {
+        return getEventKey(PREFIX_HITS, e);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getMissKey(Event e) {
+        return getEventKey(PREFIX_MISS, e);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getAuditTrailKey(Event e) {
+        return getEventKey(PREFIX_AUDIT, e);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getHitCountBucket(String timeBucket) {
+        return PREFIX_HITS + timeBucket;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getMissBucket(String timeBucket) {
+        return PREFIX_MISS + timeBucket;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getAuditTrailBucket(String timeBucket) {
+        return PREFIX_AUDIT + timeBucket;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getHitCounterKey(String dimension, String hourBucket, String value) {
+        return getHitCounterBucket(dimension, hourBucket) + SEPARATOR + value;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getHitCounterBucket(String dimension, String timeBucket) {
+        return PREFIX_COUNTERS + dimension + SEPARATOR + timeBucket;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, VALUE> findValuesByPrefix(String prefix) {
+        return new HashMap<String, VALUE>(values.subMap(prefix, prefix + Character.MAX_VALUE));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long incrementCounter(String key, long delta) {
+        AtomicLong counter = counters.get(key);
+        if (counter == null) {
+            AtomicLong created = new AtomicLong();
+            counter = counters.putIfAbsent(key, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+        return counter.addAndGet(delta);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Long> findCountersByPrefix(String prefix) {
+        Map < String, Long > result = new HashMap<String, Long>();
+        for (Map.Entry < String, AtomicLong > counter : counters.subMap(prefix, prefix + Character.MAX_VALUE).entrySet()) {
+            result.put(counter.getKey(), counter.getValue().get());
+        }
+        return result;
+    }
+
+    /**
+     * Key of an event : prefix, hour (yyyyMMddHH), feature name and uuid.
+     *
+     * @param prefix
+     *      kind of event
+     * @param e
+     *      current event
+     * @return
+     *      event key
+     */
+    private String getEventKey(String prefix, Event e) {
+        return prefix + new SimpleDateFormat("yyyyMMddHH").format(new Date(e.getTimestamp()))
+                + SEPARATOR + e.getName() + SEPARATOR + e.getUuid();
+    }
+
+}
@@ -20,6 +20,7 @@ package org.ff4j.store.kv;
  * #L%
  */
 
+import java.util.Map;
 import java.util.Set;
 
 import org.ff4j.audit.Event;
@@ -71,9 +72,123 @@ public interface KeyValueDriver < K, V > {
     
     // Audit
     
+    /**
+     * Key of a feature usage event, it starts with the bucket of the event hour and ends with the event uuid.
+     *
+     * @param e
+     *      current event
+     * @return
+     *      event key
+     */
     String getHitCountKey(Event e);
     
+    /**
+     * Key of a feature check event (feature off), it starts with the bucket of the event hour and ends with the event uuid.
+     *
+     * @param e
+     *      current event
+     * @return
+     *      event key
+     */
     String getMissKey(Event e);
     
+    /**
+     * Key of an audit trail event, it starts with the bucket of the event hour and ends with the event uuid.
+     *
+     * @param e
+     *      current event
+     * @return
+     *      event key
+     */
     String getAuditTrailKey(Event e);
+    
+    /**
+     * Prefix of feature usage events for a time bucket, yyyyMMdd (day) or yyyyMMddHH (hour) in local time.
+     * The prefix of a day is also a prefix of the buckets of its hours.
+     *
+     * @param timeBucket
+     *      day or hour
+     * @return
+     *      key prefix
+     */
+    String getHitCountBucket(String timeBucket);
+    
+    /**
+     * Prefix of feature check events (feature off) for a time bucket, yyyyMMdd (day) or yyyyMMddHH (hour).
+     *
+     * @param timeBucket
+     *      day or hour
+     * @return
+     *      key prefix
+     */
+    String getMissBucket(String timeBucket);
+    
+    /**
+     * Prefix of audit trail events for a time bucket, yyyyMMdd (day) or yyyyMMddHH (hour).
+     *
+     * @param timeBucket
+     *      day or hour
+     * @return
+     *      key prefix
+     */
+    String getAuditTrailBucket(String timeBucket);
+    
+    /**
+     * Key of an hourly hit counter, the counted value is the end of the key.
+     *
+     * @param dimension
+     *      counted attribute (feature name, user, host, source)
+     * @param hourBucket
+     *      hour as yyyyMMddHH
+     * @param value
+     *      counted value
+     * @return
+     *      counter key
+     */
+    String getHitCounterKey(String dimension, String hourBucket, String value);
+    
+    /**
+     * Prefix of hit counters of a dimension for a time bucket, yyyyMMdd (day) or yyyyMMddHH (hour).
+     *
+     * @param dimension
+     *      counted attribute
+     * @param timeBucket
+     *      day or hour
+     * @return
+     *      key prefix
+     */
+    String getHitCounterBucket(String dimension, String timeBucket);
+    
+    /**
+     * Read all values whose key starts with the prefix, in a single request when the store allows it.
+     *
+     * @param prefix
+     *      key prefix
+     * @return
+     *      values by key
+     */
+    Map < K, V > findValuesByPrefix(String prefix);
+    
+    /**
+     * Atomically add a delta to a counter, created if it does not exist. A runtime exception is
+     * raised when the counter cannot be updated (eg. too much contention), nothing is added then.
+     *
+     * @param key
+     *      counter key
+     * @param delta
+     *      value to add (can be negative)
+     * @return
+     *      new value of the counter
+     */
+    long incrementCounter(K key, long delta);
+    
+    /**
+     * Read all counters whose key starts with the prefix.
+     *
+     * @param prefix
+     *      key prefix
+     * @return
+     *      counters by key
+     */
+    Map < K, Long > findCountersByPrefix(String prefix);
 }
@@ -20,14 +20,35 @@ package org.ff4j.store.kv;
  * #L%
  */
 
+import static org.ff4j.audit.EventConstants.ACTION_CHECK_OFF;
+import static org.ff4j.audit.EventConstants.ACTION_CHECK_OK;
+import static org.ff4j.audit.EventConstants.ACTION_CLEAR;
+import static org.ff4j.audit.EventConstants.ACTION_CREATE;
+import static org.ff4j.audit.EventConstants.ACTION_DELETE;
+import static org.ff4j.audit.EventConstants.ACTION_DISCONNECT;
+import static org.ff4j.audit.EventConstants.ACTION_TOGGLE_OFF;
+import static org.ff4j.audit.EventConstants.ACTION_TOGGLE_ON;
+import static org.ff4j.audit.EventConstants.ACTION_UPDATE;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import org.ff4j.audit.Event;
-import org.ff4j.audit.EventConstants;
 import org.ff4j.audit.EventQueryDefinition;
 import org.ff4j.audit.EventSeries;
 import org.ff4j.audit.MutableHitCount;
+import org.ff4j.audit.chart.Serie;
 import org.ff4j.audit.chart.TimeSeriesChart;
 import org.ff4j.audit.repository.AbstractEventRepository;
 import org.ff4j.mapper.EventMapper;
@@ -35,6 +56,11 @@ import org.ff4j.utils.Util;
 
 /**
  * Common implementation of time-series and audit using J/V stores.
+ * 
+ * Events are stored under keys prefixed by their hour (yyyyMMddHH), reads are prefix scans of whole days
+ * when possible and of hours at the bounds. Feature usage is also counted per hour and per dimension
+ * (feature, user, host, source) : counters answer the hit count queries for the hours fully within the query.
+ * Hits are aggregated in memory and sent periodically (one increment per counter), reads send them first.
  *
  * @author Cedrick LUNVEN (@clunven)
  *
@@ -43,11 +69,61 @@ import org.ff4j.utils.Util;
  */
 public class KeyValueEventRepository < VALUE > extends AbstractEventRepository {
 
+    /** Default maximum time in milliseconds a hit stays in the pending counters. */
+    public static final long DEFAULT_FLUSH_INTERVAL = 1000L;
+
+    /** One hour in milliseconds. */
+    private static final long HOUR = 3600 * 1000L;
+
+    /** Value used for counters when the user is unknown. */
+    private static final String ANONYMOUS = "anonymous";
+
+    /** Value used for counters when the attribute is unknown. */
+    private static final String UNKNOWN = "NA";
+
+    /** Actions listed in the audit trail. */
+    private static final Set < String > AUDIT_ACTIONS = Util.set(ACTION_DISCONNECT,
+            ACTION_TOGGLE_ON, ACTION_TOGGLE_OFF,
+            ACTION_CREATE, ACTION_DELETE,
+            ACTION_UPDATE, ACTION_CLEAR);
+
+    /** Dimensions of the hit counters. */
+    private enum Types {
+        SOURCE,
+        NAME,
+        HOST,
+        USER;
+    }
+
+    /** Kinds of events, each one with its own keys. */
+    private enum Streams {
+        HITS,
+        MISS,
+        AUDIT;
+    }
+
+    /** Callback for each event read, return false to stop reading. */
+    private interface EventVisitor {
+        boolean visit(Event evt);
+    }
+
     /** Driver to access a K/V Store. */
     protected KeyValueDriver < String, VALUE > driver;
     
     /** Work with Mapping. */
     protected EventMapper < VALUE > eventMapper;
+    
+    /** Maximum time in milliseconds a hit stays in the pending counters. */
+    private long flushInterval = DEFAULT_FLUSH_INTERVAL;
+    
+    /** Hit counters not sent yet, by counter key. */
+    private final Map < String, MutableHitCount > pendingHits = new HashMap<String, MutableHitCount>();
+    
+    /** Held while pending counters are sent. */
+    private final Object flushLock = new Object();
+    
+    /** Send pending counters periodically. */
+    private ScheduledExecutorService flusher;
    
     /**
      * Default constructor
@@ -65,6 +141,19 @@ public class KeyValueEventRepository < VALUE > extends AbstractEventRepository {
         this.driver = driver;
     }
     
+    /**
+     * Work with Key-Value and mapping.
+     *
+     * @param driver
+     *      target driver
+     * @param eventMapper
+     *      mapping of events to stored values
+     */
+    public KeyValueEventRepository(KeyValueDriver < String, VALUE > driver, EventMapper < VALUE > eventMapper) {
+        this.driver = driver;
+        this.eventMapper = eventMapper;
+    }
+    
     /** {@inheritDoc} */
     @Override
     public void createSchema() {
@@ -75,78 +164,570 @@ public class KeyValueEventRepository < VALUE > extends AbstractEventRepository {
     @Override
     public boolean saveEvent(Event e) {
         Util.assertEvent(e);
-        if (EventConstants.ACTION_CHECK_OK.equalsIgnoreCase(e.getAction())) {
+        if (ACTION_CHECK_OK.equalsIgnoreCase(e.getAction())) {
             getDriver().putValue(
                     getDriver().getHitCountKey(e), 
-                    eventMapper.toStore(e));
-        } else if (EventConstants.ACTION_CHECK_OFF.equalsIgnoreCase(e.getAction())) {
+                    getEventMapper().toStore(e));
+            addHits(e, 1);
+            startFlusher();
+        } else if (ACTION_CHECK_OFF.equalsIgnoreCase(e.getAction())) {
             getDriver().putValue(
                     getDriver().getMissKey(e), 
-                    eventMapper.toStore(e));
+                    getEventMapper().toStore(e));
         } else {
             getDriver().putValue(
                     getDriver().getAuditTrailKey(e), 
-                    eventMapper.toStore(e));
+                    getEventMapper().toStore(e));
         }
         return true;
     }
 
+    /**
+     * Add a feature usage event to the pending hourly counters of each dimension.
+     *
+     * @param evt
+     *      current event
+     * @param delta
+     *      hits to add (negative when purging)
+     */
+    private void addHits(Event evt, int delta) {
+        String hour = getHourKey(getHourStart(evt.getTimestamp()));
+        synchronized (pendingHits) {
+            for (Types type : Types.values()) {
+                addHitCount(pendingHits, 
+                        getDriver().getHitCounterKey(type.name(), hour, getValueFromAttribute(type, evt)), delta);
+            }
+        }
+    }
+    
+    /**
+     * Send pending hit counters now, reads call it first to count all events saved before.
+     * Counters which cannot be updated are kept for the next flush.
+     *
+     * @return
+     *      if all counters have been sent
+     */
+    public boolean flush() {
+        // Wait for a flush in progress, its counters are not pending anymore
+        synchronized (flushLock) {
+            Map < String, MutableHitCount > hits;
+            synchronized (pendingHits) {
+                if (pendingHits.isEmpty()) {
+                    return true;
+                }
+                hits = new HashMap<String, MutableHitCount>(pendingHits);
+                pendingHits.clear();
+            }
+            boolean flushed = true;
+            for (Map.Entry < String, MutableHitCount > hit : hits.entrySet()) {
+                if (hit.getValue().get() == 0) {
+                    continue;
+                }
+                try {
+                    getDriver().incrementCounter(hit.getKey(), hit.getValue().get());
+                } catch (RuntimeException e) {
+                    synchronized (pendingHits) {
+                        addHitCount(pendingHits, hit.getKey(), hit.getValue().get());
+                    }
+                    flushed = false;
+                }
+            }
+            return flushed;
+        }
+    }
+    
+    /**
+     * Start the periodic flush of the counters if needed.
+     */
+    private void startFlusher() {
+        synchronized (flushLock) {
+            if (flusher == null) {
+                flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, "FF4j_KeyValueEventRepository_Flusher");
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+                flusher.scheduleWithFixedDelay(new Runnable() {
+                    public void run() {
+                        flush();
+                    }
+                }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public Event getEventByUUID(String uuid, Long timestamp) {
+        Util.assertHasLength(new String[] {uuid});
+        long time = (timestamp == null) ? System.currentTimeMillis() : timestamp;
+        // Event may have been saved in previous hour
+        Set < String > hours = new LinkedHashSet<String>();
+        hours.add(getHourKey(getHourStart(time)));
+        hours.add(getHourKey(getHourStart(time - HOUR)));
+        for (Streams stream : Streams.values()) {
+            for (String hour : hours) {
+                for (Map.Entry < String, VALUE > value : getDriver().findValuesByPrefix(getBucket(stream, hour)).entrySet()) {
+                    if (value.getKey().endsWith(uuid)) {
+                        return getEventMapper().fromStore(value.getValue());
+                    }
+                }
+            }
+        }
         return null;
     }
 
     /** {@inheritDoc} */
     @Override
     public Map<String, MutableHitCount> getFeatureUsageHitCount(EventQueryDefinition query) {
-        return null;
+        return getUsageCount(query, Types.NAME);
     }
 
     /** {@inheritDoc} */
     @Override
-    public TimeSeriesChart getFeatureUsageHistory(EventQueryDefinition query, TimeUnit tu) {
-        return null;
+    public Map<String, MutableHitCount> getHostHitCount(EventQueryDefinition query) {
+        return getUsageCount(query, Types.HOST);
     }
 
     /** {@inheritDoc} */
     @Override
-    public EventSeries searchFeatureUsageEvents(EventQueryDefinition query) {
-        return null;
+    public Map<String, MutableHitCount> getUserHitCount(EventQueryDefinition query) {
+        return getUsageCount(query, Types.USER);
     }
 
     /** {@inheritDoc} */
     @Override
-    public void purgeFeatureUsage(EventQueryDefinition query) {
+    public Map<String, MutableHitCount> getSourceHitCount(EventQueryDefinition query) {
+        return getUsageCount(query, Types.SOURCE);
+    }
+
+    /**
+     * Count hits : counters for the hours fully within the query, events for the partial hours at the bounds.
+     *
+     * @param query
+     *      current query
+     * @param type
+     *      dimension to count
+     * @return
+     *      hit count per value
+     */
+    private Map<String, MutableHitCount> getUsageCount(final EventQueryDefinition query, final Types type) {
+        final Map<String, MutableHitCount> hitCount = new HashMap<String, MutableHitCount>();
+        EventVisitor counter = new EventVisitor() {
+            public boolean visit(Event evt) {
+                if (query.match(evt)) {
+                    addHitCount(hitCount, getValueFromAttribute(type, evt), 1);
+                }
+                return true;
+            }
+        };
+        long firstHour = getFirstFullHour(query.getFrom());
+        long lastHour  = getHourStart(query.getTo() + 1);
+        flush();
+        if (!isCounterQuery(query, type) || firstHour >= lastHour) {
+            scanEvents(Streams.HITS, query.getFrom(), query.getTo(), counter);
+            return hitCount;
+        }
+        scanEvents(Streams.HITS, query.getFrom(), firstHour - 1, counter);
+        for (Map < String, MutableHitCount > hourHits : readHits(type, firstHour, lastHour).values()) {
+            for (Map.Entry < String, MutableHitCount > hit : hourHits.entrySet()) {
+                if (type != Types.NAME || query.matchName(hit.getKey())) {
+                    addHitCount(hitCount, hit.getKey(), hit.getValue().get());
+                }
+            }
+        }
+        scanEvents(Streams.HITS, lastHour, query.getTo(), counter);
+        return hitCount;
+    }
+
+    /**
+     * Hit counters hold no link between dimensions : only filters on the counted dimension can be applied.
+     *
+     * @param query
+     *      current query
+     * @param type
+     *      dimension to count
+     * @return
+     *      if counters can answer the query
+     */
+    private boolean isCounterQuery(EventQueryDefinition query, Types type) {
+        return query.getActionFilters().isEmpty()
+                && query.getSourceFilters().isEmpty()
+                && query.getHostFilters().isEmpty()
+                && (type == Types.NAME || query.getNamesFilter().isEmpty());
+    }
+
+    private void addHitCount(Map<String, MutableHitCount> hitCount, String value, int hits) {
+        if (hitCount.containsKey(value)) {
+            hitCount.get(value).incBy(hits);
+        } else {
+            hitCount.put(value, new MutableHitCount(hits));
+        }
+    }
+
+    /**
+     * Read hit counters of a dimension, one prefix scan per full day and per remaining hour.
+     *
+     * @param type
+     *      dimension
+     * @param firstHour
+     *      start of first hour (included)
+     * @param lastHour
+     *      start of last hour (excluded)
+     * @return
+     *      counters for each hour
+     */
+    private Map < Long, Map < String, MutableHitCount > > readHits(Types type, long firstHour, long lastHour) {
+        Map < Long, Map < String, MutableHitCount > > hits = new TreeMap<Long, Map<String, MutableHitCount>>();
+        for (Map.Entry < String, Long > bucket : getTimeBuckets(firstHour, lastHour).entrySet()) {
+            Map < String, Long > counters = getDriver().findCountersByPrefix(
+                    getDriver().getHitCounterBucket(type.name(), bucket.getKey()));
+            if (counters.isEmpty()) {
+                continue;
+            }
+            // A bucket is an hour or a day : the value is the end of the key, after the prefix of its hour
+            Set < String > hourKeys = new HashSet<String>();
+            long bucketEnd = (bucket.getKey().length() == 8) ? getNextDay(bucket.getValue()) : getNextHour(bucket.getValue());
+            for (long hour = bucket.getValue(); hour < bucketEnd; hour = getNextHour(hour)) {
+                String hourKey = getHourKey(hour);
+                if (!hourKeys.add(hourKey)) {
+                    continue;
+                }
+                String prefix = getDriver().getHitCounterKey(type.name(), hourKey, "");
+                for (Map.Entry < String, Long > counter : counters.entrySet()) {
+                    if (counter.getKey().startsWith(prefix) && counter.getValue() != 0) {
+                        if (!hits.containsKey(hour)) {
+                            hits.put(hour, new HashMap<String, MutableHitCount>());
+                        }
+                        addHitCount(hits.get(hour), counter.getKey().substring(prefix.length()), counter.getValue().intValue());
+                    }
+                }
+            }
+        }
+        return hits;
     }
 
     /** {@inheritDoc} */
     @Override
-    public Map<String, MutableHitCount> getHostHitCount(EventQueryDefinition query) {
-        return null;
+    public TimeSeriesChart getFeatureUsageHistory(final EventQueryDefinition query, TimeUnit units) {
+        final TimeSeriesChart tsc = new TimeSeriesChart(query.getFrom(), query.getTo(), units);
+        EventVisitor chart = new EventVisitor() {
+            public boolean visit(Event evt) {
+                if (query.match(evt)) {
+                    tsc.addEvent(evt);
+                }
+                return true;
+            }
+        };
+        long firstHour = getFirstFullHour(query.getFrom());
+        long lastHour  = getHourStart(query.getTo() + 1);
+        boolean slotsOfHours = (units == TimeUnit.HOURS || units == TimeUnit.DAYS);
+        if (!slotsOfHours || !isCounterQuery(query, Types.NAME) || firstHour >= lastHour) {
+            scanEvents(Streams.HITS, query.getFrom(), query.getTo(), chart);
+            return tsc;
+        }
+        flush();
+        scanEvents(Streams.HITS, query.getFrom(), firstHour - 1, chart);
+        for (Map.Entry < Long, Map < String, MutableHitCount > > hourHits : readHits(Types.NAME, firstHour, lastHour).entrySet()) {
+            String slot = tsc.getSdf().format(new Date(hourHits.getKey()));
+            for (Map.Entry < String, MutableHitCount > hit : hourHits.getValue().entrySet()) {
+                if (query.matchName(hit.getKey())) {
+                    if (!tsc.getSeries().containsKey(hit.getKey())) {
+                        tsc.createNewSerie(hit.getKey());
+                    }
+                    Serie < Map < String, MutableHitCount > > serie = tsc.getSeries().get(hit.getKey());
+                    if (serie.getValue().containsKey(slot)) {
+                        serie.getValue().get(slot).incBy(hit.getValue().get());
+                    }
+                }
+            }
+        }
+        scanEvents(Streams.HITS, lastHour, query.getTo(), chart);
+        return tsc;
     }
 
     /** {@inheritDoc} */
     @Override
-    public Map<String, MutableHitCount> getUserHitCount(EventQueryDefinition query) {
-        return null;
+    public EventSeries searchFeatureUsageEvents(final EventQueryDefinition query) {
+        final EventSeries es = new EventSeries();
+        scanEvents(Streams.HITS, query.getFrom(), query.getTo(), new EventVisitor() {
+            public boolean visit(Event evt) {
+                if (query.match(evt)) {
+                    es.add(evt);
+                }
+                return true;
+            }
+        });
+        return getPage(query, es);
     }
 
     /** {@inheritDoc} */
     @Override
-    public Map<String, MutableHitCount> getSourceHitCount(EventQueryDefinition query) {
-        return null;
+    public EventSeries getAuditTrail(final EventQueryDefinition query) {
+        final EventSeries es = new EventSeries();
+        scanEvents(Streams.AUDIT, query.getFrom(), query.getTo(), new EventVisitor() {
+            public boolean visit(Event evt) {
+                if (AUDIT_ACTIONS.contains(evt.getAction()) && query.match(evt)) {
+                    es.add(evt);
+                }
+                return true;
+            }
+        });
+        return getPage(query, es);
+    }
+
+    /**
+     * Keys are not ordered by time within a bucket, the page is cut once all events are sorted.
+     *
+     * @param query
+     *      current query
+     * @param es
+     *      sorted events
+     * @return
+     *      requested page
+     */
+    private EventSeries getPage(EventQueryDefinition query, EventSeries es) {
+        if (!query.isPageable()) {
+            return es;
+        }
+        EventSeries page = new EventSeries();
+        int skip = query.getPagenumber() * query.getPagesize();
+        for (Event evt : es) {
+            if (skip-- <= 0 && page.size() < query.getPagesize()) {
+                page.add(evt);
+            }
+        }
+        return page;
     }
 
     /** {@inheritDoc} */
     @Override
-    public EventSeries getAuditTrail(EventQueryDefinition query) {
-        return null;
+    public void purgeFeatureUsage(final EventQueryDefinition query) {
+        scanEvents(Streams.HITS, query.getFrom(), query.getTo(), new EventVisitor() {
+            public boolean visit(Event evt) {
+                if (query.match(evt)) {
+                    getDriver().deleteKey(getDriver().getHitCountKey(evt));
+                    addHits(evt, -1);
+                }
+                return true;
+            }
+        });
+        scanEvents(Streams.MISS, query.getFrom(), query.getTo(), new EventVisitor() {
+            public boolean visit(Event evt) {
+                if (query.match(evt)) {
+                    getDriver().deleteKey(getDriver().getMissKey(evt));
+                }
+                return true;
+            }
+        });
+        flush();
     }
 
     /** {@inheritDoc} */
     @Override
-    public void purgeAuditTrail(EventQueryDefinition query) {
+    public void purgeAuditTrail(final EventQueryDefinition query) {
+        scanEvents(Streams.AUDIT, query.getFrom(), query.getTo(), new EventVisitor() {
+            public boolean visit(Event evt) {
+                if (query.match(evt)) {
+                    getDriver().deleteKey(getDriver().getAuditTrailKey(evt));
+                }
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Read events between two dates with prefix scans, one per full day and one per remaining hour.
+     *
+     * @param stream
+     *      kind of events
+     * @param from
+     *      begin time (included)
+     * @param to
+     *      end time (included)
+     * @param visitor
+     *      callback for each event
+     */
+    private void scanEvents(Streams stream, long from, long to, EventVisitor visitor) {
+        if (from > to) {
+            return;
+        }
+        for (String bucket : getTimeBuckets(getHourStart(from), getNextHour(getHourStart(to))).keySet()) {
+            for (VALUE value : getDriver().findValuesByPrefix(getBucket(stream, bucket)).values()) {
+                Event evt = getEventMapper().fromStore(value);
+                if (evt.getTimestamp() >= from && evt.getTimestamp() <= to && !visitor.visit(evt)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Prefix of the keys of a kind of events for a time bucket.
+     *
+     * @param stream
+     *      kind of events
+     * @param timeBucket
+     *      day or hour
+     * @return
+     *      key prefix
+     */
+    private String getBucket(Streams stream, String timeBucket) {
+        switch (stream) {
+            case MISS:
+                return getDriver().getMissBucket(timeBucket);
+            case AUDIT:
+                return getDriver().getAuditTrailBucket(timeBucket);
+            default:
+                return getDriver().getHitCountBucket(timeBucket);
+        }
+    }
+
+    /**
+     * Split a range of hours into time buckets : days (yyyyMMdd) when fully within the range, hours (yyyyMMddHH) otherwise.
+     *
+     * @param firstHour
+     *      start of first hour (included)
+     * @param lastHour
+     *      start of last hour (excluded)
+     * @return
+     *      start time of each bucket
+     */
+    private Map < String, Long > getTimeBuckets(long firstHour, long lastHour) {
+        Map < String, Long > buckets = new TreeMap<String, Long>();
+        long hour = firstHour;
+        while (hour < lastHour) {
+            long dayStart = getDayStart(hour);
+            long nextDay  = getNextDay(dayStart);
+            if (hour == dayStart && nextDay <= lastHour) {
+                buckets.put(getKeyDate(hour), hour);
+                hour = nextDay;
+            } else {
+                // Twice the same key when clocks go back, first hour is kept
+                String hourKey = getHourKey(hour);
+                if (!buckets.containsKey(hourKey)) {
+                    buckets.put(hourKey, hour);
+                }
+                hour = getNextHour(hour);
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Start of the day (local time) containing this time.
+     *
+     * @param time
+     *      current time
+     * @return
+     *      start of the day
+     */
+    private long getDayStart(long time) {
+        Calendar c = Calendar.getInstance();
+        c.setTimeInMillis(time);
+        c.set(Calendar.HOUR_OF_DAY, 0);
+        c.set(Calendar.MINUTE, 0);
+        c.set(Calendar.SECOND, 0);
+        c.set(Calendar.MILLISECOND, 0);
+        return c.getTimeInMillis();
+    }
+
+    /**
+     * Start of the day following the one starting at this time.
+     *
+     * @param dayStart
+     *      start of the day
+     * @return
+     *      start of the next day
+     */
+    private long getNextDay(long dayStart) {
+        Calendar c = Calendar.getInstance();
+        c.setTimeInMillis(dayStart);
+        c.add(Calendar.DAY_OF_MONTH, 1);
+        return c.getTimeInMillis();
+    }
+
+    /**
+     * Start of the hour (local time) containing this time.
+     *
+     * @param time
+     *      current time
+     * @return
+     *      start of the hour
+     */
+    private long getHourStart(long time) {
+        return time - ((time + TimeZone.getDefault().getOffset(time)) % HOUR);
+    }
+
+    /**
+     * Start of the hour following the one starting at this time.
+     *
+     * @param hourStart
+     *      start of the hour
+     * @return
+     *      start of the next hour
+     */
+    private long getNextHour(long hourStart) {
+        return getHourStart(hourStart + HOUR + HOUR / 2);
+    }
+
+    /**
+     * Start of the first hour fully after this time.
+     *
+     * @param time
+     *      current time
+     * @return
+     *      start of the hour
+     */
+    private long getFirstFullHour(long time) {
+        long hourStart = getHourStart(time);
+        return (hourStart == time) ? time : getNextHour(hourStart);
+    }
+
+    /**
+     * Key of an hour as yyyyMMddHH.
+     *
+     * @param hourStart
+     *      start of the hour
+     * @return
+     *      hour key
+     */
+    private String getHourKey(long hourStart) {
+        long hour = ((hourStart + TimeZone.getDefault().getOffset(hourStart)) / HOUR) % 24;
+        return getKeyDate(hourStart) + (hour < 10 ? "0" : "") + hour;
+    }
+
+    /**
+     * Value of an event for a dimension of the hit counters.
+     *
+     * @param type
+     *      dimension
+     * @param event
+     *      current event
+     * @return
+     *      value of the event
+     */
+    private String getValueFromAttribute(Types type, Event event) {
+        String value;
+        switch (type) {
+            case HOST:
+                value = event.getHostName();
+                break;
+            case SOURCE:
+                value = event.getSource();
+                break;
+            case USER:
+                value = Util.hasLength(event.getUser()) ? event.getUser() : ANONYMOUS;
+                break;
+            case NAME:
+                value = event.getName();
+                break;
+            default:
+                value = UNKNOWN;
+        }
+        return (value == null) ? UNKNOWN : value;
     }
 
     /**
@@ -171,7 +752,48 @@ public class KeyValueEventRepository < VALUE > extends AbstractEventRepository {
         this.driver = driver;
     }
 
-    
-    
+    /**
+     * Getter accessor for attribute 'eventMapper'.
+     *
+     * @return
+     *       current value of 'eventMapper'
+     */
+    public EventMapper < VALUE > getEventMapper() {
+        if (eventMapper == null) {
+            throw new IllegalStateException("Cannot map events, no mapper defined");
+        }
+        return eventMapper;
+    }
+
+    /**
+     * Setter accessor for attribute 'eventMapper'.
+     * @param eventMapper
+     *      new value for 'eventMapper '
+     */
+    public void setEventMapper(EventMapper < VALUE > eventMapper) {
+        this.eventMapper = eventMapper;
+    }
+
+    /**
+     * Getter accessor for attribute 'flushInterval'.
+     *
+     * @return
+     *       current value of 'flushInterval'
+     */
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * Setter accessor for attribute 'flushInterval', to be set before the first event.
+     * @param flushInterval
+     *      new value for 'flushInterval '
+     */
+    public void setFlushInterval(long flushInterval) {
+        if (flushInterval < 1) {
+            throw new IllegalArgumentException("Flush interval must be positive");
+        }
+        this.flushInterval = flushInterval;
+    }
 
 }
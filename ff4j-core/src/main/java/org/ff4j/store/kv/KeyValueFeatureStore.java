@@ -97,20 +97,22 @@ public abstract class KeyValueFeatureStore < VALUE > extends AbstractFeatureStor
     /** {@inheritDoc} */
     @Override
     public Feature read(String uid) {
-        if (!exist(uid)) {
+        Util.assertParamHasLength(uid, "Feature identifier");
+        // Single request, no existence check before reading
+        VALUE value = getDriver().getValue(getDriver().getFeatureKey(uid));
+        if (value == null) {
             throw new FeatureNotFoundException(uid);
         }
-        return getFeatureMapper().fromStore(
-                getDriver().getValue(getDriver().getFeatureKey(uid)));
+        return getFeatureMapper().fromStore(value);
     }
     
     /** {@inheritDoc} */
     @Override
     public Map<String, Feature> readAll() {
         Map < String, Feature> mapOfFeatures = new HashMap<String, Feature>();
-        for(String featureName : getDriver().getFeatureList()) {
-            Feature currF = getFeatureMapper().fromStore(getDriver().getValue(
-                                getDriver().getFeatureKey(featureName)));
+        // Single prefix read instead of one request per feature
+        for (VALUE value : getDriver().findValuesByPrefix(getDriver().getFeatureKey("")).values()) {
+            Feature currF = getFeatureMapper().fromStore(value);
             mapOfFeatures.put(currF.getUid(), currF);
         }
         return mapOfFeatures;
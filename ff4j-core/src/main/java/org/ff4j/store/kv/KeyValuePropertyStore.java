@@ -98,11 +98,13 @@ public class KeyValuePropertyStore < VALUE >  extends AbstractPropertyStore {
     /** {@inheritDoc} */
     @Override
     public Property<?> readProperty(String name) {
-        if (!existProperty(name)) {
+        Util.assertParamHasLength(name, "Property name");
+        // Single request, no existence check before reading
+        VALUE value = getDriver().getValue(getDriver().getPropertyKey(name));
+        if (value == null) {
             throw new PropertyNotFoundException(name);
         }
-        return getPropertyMapper().fromStore(
-                getDriver().getValue(getDriver().getPropertyKey(name)));
+        return getPropertyMapper().fromStore(value);
     }
 
     /** {@inheritDoc} */
@@ -121,9 +123,9 @@ public class KeyValuePropertyStore < VALUE >  extends AbstractPropertyStore {
     @Override
     public Map<String, Property<?>> readAllProperties() {
         Map < String, Property<?>> mapOfProperties = new HashMap<String, Property<?>>();
-        for(String propertyName : getDriver().getPropertyList()) {
-            Property<?> currP = getPropertyMapper().fromStore(getDriver().getValue(
-                                getDriver().getPropertyKey(propertyName)));
+        // Single prefix read instead of one request per property
+        for (VALUE value : getDriver().findValuesByPrefix(getDriver().getPropertyKey("")).values()) {
+            Property<?> currP = getPropertyMapper().fromStore(value);
             mapOfProperties.put(currP.getName(), currP);
         }
         return mapOfProperties;
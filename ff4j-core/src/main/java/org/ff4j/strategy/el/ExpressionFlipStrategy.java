@@ -13,10 +13,12 @@ import java.io.Serializable;
  * governing permissions and limitations under the License. #L%
  */
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.ff4j.core.Feature;
 import org.ff4j.core.FeatureStore;
@@ -26,6 +28,9 @@ import org.ff4j.strategy.AbstractFlipStrategy;
 /**
  * Allow to parse target expression.
  * 
+ * Expressions are parsed once, only the features referenced in the expression are read from the
+ * store (in a single call with {@link FeatureStore#readFeatures(Set)}).
+ * 
  * @author Cedrick Lunven (@clunven)
  */
 public class ExpressionFlipStrategy extends AbstractFlipStrategy implements Serializable {
@@ -35,12 +40,15 @@ public class ExpressionFlipStrategy extends AbstractFlipStrategy implements Seri
 
     /** Expected parameter. */
     public static final String PARAM_EXPRESSION = "expression";
+    
+    /** Maximum number of parsed expressions kept in memory. */
+    public static final int MAX_CACHED_EXPRESSIONS = 1000;
 
     /** Cached init value. */
-    private static Map<String, String> mapOfValue = new HashMap<String, String>();
+    private static Map<String, String> mapOfValue = new ConcurrentHashMap<String, String>();
 
     /** Cached syntax trees. */
-    private static Map<String, ExpressionNode> cachedExpression = new HashMap<String, ExpressionNode>();
+    private static Map<String, ParsedExpression> cachedExpression = new ConcurrentHashMap<String, ParsedExpression>();
 
     /**
      * Default constructor using introspection.
@@ -66,9 +74,11 @@ public class ExpressionFlipStrategy extends AbstractFlipStrategy implements Seri
         // If execution context specified overriding initvalue
         if ((null != executionContext) && executionContext.containsKey(PARAM_EXPRESSION)) {
             return evaluateExpression(executionContext.getString(PARAM_EXPRESSION), currentStore);
-        } else if (mapOfValue.containsKey(featureName)) {
-            // Else, check initial value of featureName (if exist)
-            return evaluateExpression(mapOfValue.get(featureName), currentStore);
+        }
+        // Else, check initial value of featureName (if exist)
+        String expression = mapOfValue.get(featureName);
+        if (expression != null) {
+            return evaluateExpression(expression, currentStore);
         }
         // FeatureName does not exit, no condition required
         return true;
@@ -82,27 +92,60 @@ public class ExpressionFlipStrategy extends AbstractFlipStrategy implements Seri
      * @return expression evaluation value
      */
     private boolean evaluateExpression(String expression, FeatureStore currentStore) {
-        if (!cachedExpression.containsKey(expression)) {
-            cachedExpression.put(expression, ExpressionParser.parseExpression(expression));
+        ParsedExpression parsed = cachedExpression.get(expression);
+        if (parsed == null) {
+            parsed = new ParsedExpression(ExpressionParser.parseExpression(expression));
+            // Bound memory when expressions are provided dynamically through execution context
+            if (cachedExpression.size() >= MAX_CACHED_EXPRESSIONS) {
+                cachedExpression.clear();
+            }
+            cachedExpression.put(expression, parsed);
         }
-        return cachedExpression.get(expression).evalue(getFeaturesStatus(currentStore));
+        return parsed.node.evalue(getFeaturesStatus(currentStore, parsed.featureNames));
     }
 
     /**
-     * Return status of all the features to calculate.
+     * Return status of the features used in expression.
      * 
      * @param currentStore
      *            current store for features
+     * @param featureNames
+     *            features referenced in expression
      * @return current statuses for stores
      */
-    private Map<String, Boolean> getFeaturesStatus(FeatureStore currentStore) {
+    private Map<String, Boolean> getFeaturesStatus(FeatureStore currentStore, Set<String> featureNames) {
         Map<String, Boolean> bools = new HashMap<String, Boolean>();
-        List<Feature> listOfFlip = new ArrayList<Feature>();
-        listOfFlip.addAll(currentStore.readAll().values());
-        for (Feature fp : listOfFlip) {
-            bools.put(fp.getUid(), fp.isEnable());
+        if (!featureNames.isEmpty()) {
+            for (Feature fp : currentStore.readFeatures(featureNames).values()) {
+                bools.put(fp.getUid(), fp.isEnable());
+            }
         }
         return bools;
     }
+    
+    /**
+     * Syntax tree and referenced features, computed once.
+     */
+    private static final class ParsedExpression {
+        
+        /** Syntax tree. */
+        private final ExpressionNode node;
+        
+        /** Features referenced in the expression. */
+        private final Set<String> featureNames;
+        
+        /**
+         * Extract feature names from tree.
+         *
+         * @param node
+         *      syntax tree
+         */
+        private ParsedExpression(ExpressionNode node) {
+            Set<String> names = new HashSet<String>();
+            node.collectFeatureNames(names);
+            this.node         = node;
+            this.featureNames = Collections.unmodifiableSet(names);
+        }
+    }
 
 }
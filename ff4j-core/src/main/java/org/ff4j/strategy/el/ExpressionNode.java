@@ -22,6 +22,7 @@ package org.ff4j.strategy.el;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.Map;
 
 /**
@@ -205,6 +206,21 @@ public class ExpressionNode {
         this.value = value;
     }
 
+    /**
+     * Collect feature identifiers (sheets) used in the tree.
+     * 
+     * @param featureNames
+     *            set populated with identifiers
+     */
+    public void collectFeatureNames(Set<String> featureNames) {
+        if (value != null && !value.isEmpty()) {
+            featureNames.add(value);
+        }
+        for (ExpressionNode subNode : subNodes) {
+            subNode.collectFeatureNames(featureNames);
+        }
+    }
+
     /**
      * Getter accessor for attribute 'subNodes'.
      * 
@@ -67,6 +67,34 @@ public class JdbcUtils {
         }
     }
     
+    /**
+     * Check if a column exists in a table.
+     *
+     * @param ds
+     *      target datasource
+     * @param tableName
+     *      table name
+     * @param columnName
+     *      column name
+     * @return
+     *      if the column exists
+     */
+    public static boolean isColumnExist(DataSource ds, String tableName, String columnName) {
+        Util.assertHasLength(tableName, columnName);
+        Connection          sqlConn = null;
+        ResultSet           rs = null;
+        try {
+            sqlConn = ds.getConnection();
+            DatabaseMetaData dbmd = sqlConn.getMetaData();
+            rs = dbmd.getColumns(null, null, tableName, columnName);
+            return rs.next();
+        } catch (SQLException sqlEX) {
+            throw new FeatureAccessException("Cannot check column existence", sqlEX);
+        } finally {
+            closeResultSet(rs);
+            closeConnection(sqlConn);
+        }
+    }
     
     /**
      * Create table based on SQL.
@@ -84,6 +84,9 @@ public class FF4jWebConstants {
     /** relative path for cache. */
     public static final String RESOURCE_CACHE = "cache";
     
+    /** relative path for the changes of a store. */
+    public static final String RESOURCE_CHANGES = "changes";
+    
     /** relative path for cache. */
     public static final String STORE_CLEAR = "clear";
     
@@ -110,6 +113,12 @@ public class FF4jWebConstants {
     
     /** nb of points in the curve. */
     public static final String PARAM_NBPOINTS = "nbpoints";
+    
+    /** version of the store already known by the client. */
+    public static final String PARAM_SINCE = "since";
+    
+    /** maximum duration to wait for changes (milliseconds). */
+    public static final String PARAM_TIMEOUT = "timeout";
 
     /** security role. */
     public static final String ROLE_READ = "READ";
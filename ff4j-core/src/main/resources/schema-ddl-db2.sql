@@ -6,6 +6,7 @@ CREATE TABLE CONFIGURATION.FEATURES(
  "STRATEGY"    VARCHAR(1000),
  "EXPRESSION"  VARCHAR(255),
  "GROUPNAME"   VARCHAR(100),
+ "LAST_MODIFIED" TIMESTAMP,
   PRIMARY KEY(FEAT_UID)
 );
 
@@ -16,6 +17,7 @@ CREATE TABLE CONFIGURATION.PROPERTIES (
  "FIXEDVALUES"  VARCHAR(1000),
  "DESCRIPTION"  VARCHAR(1000),
  "FEAT_UID"     VARCHAR(100) REFERENCES CONFIGURATION.FEATURES("FEAT_UID"),
+ "LAST_MODIFIED" TIMESTAMP,
  PRIMARY KEY("PROPERTY_ID")
 );
 
@@ -6,6 +6,7 @@ CREATE TABLE FF4J_FEATURES (
   "STRATEGY"		VARCHAR(1000),
   "EXPRESSION"	    VARCHAR(255),
   "GROUPNAME"		VARCHAR(100),
+  "LAST_MODIFIED"	TIMESTAMP,
   PRIMARY KEY("FEAT_UID")
 );
 
@@ -34,6 +35,7 @@ CREATE TABLE FF4J_PROPERTIES (
   "CURRENTVALUE" VARCHAR(255),
   "FIXEDVALUES"	 VARCHAR(1000),
   "DESCRIPTION"	 VARCHAR(1000),
+  "LAST_MODIFIED" TIMESTAMP,
   PRIMARY KEY("PROPERTY_ID")
 );
 
@@ -0,0 +1,6 @@
+-- Upgrade of schemas created before 1.6 : modification dates used by the change feed
+-- (FeatureStore.featureChangesSince / PropertyStore.propertyChangesSince).
+-- Optional, without these columns JDBC stores keep working and the change feed returns full snapshots.
+-- Rows written before the upgrade have no date and are always reported as updated until their next write.
+ALTER TABLE FF4J_FEATURES   ADD "LAST_MODIFIED" TIMESTAMP;
+ALTER TABLE FF4J_PROPERTIES ADD "LAST_MODIFIED" TIMESTAMP;
@@ -0,0 +1,155 @@
+package org.ff4j.test;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ff4j.FF4j;
+import org.ff4j.audit.Event;
+import org.ff4j.audit.repository.InMemoryEventRepository;
+import org.ff4j.core.Feature;
+import org.ff4j.exception.FeatureNotFoundException;
+import org.ff4j.store.InMemoryFeatureStore;
+import org.ff4j.utils.Util;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test bulk evaluation {@link FF4j#checkAll(Collection, org.ff4j.core.FlippingExecutionContext)}.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class FF4jCheckAllTest implements TestConstantsFF4j {
+
+    /** Store counting accesses. */
+    private static class CountingFeatureStore extends InMemoryFeatureStore {
+        private final AtomicInteger reads = new AtomicInteger();
+        private final AtomicInteger bulkReads = new AtomicInteger();
+        public CountingFeatureStore(String fileName) {
+            super(fileName);
+        }
+        public Feature read(String uid) {
+            reads.incrementAndGet();
+            return super.read(uid);
+        }
+        public Map<String, Feature> readFeatures(Set<String> featureIds) {
+            bulkReads.incrementAndGet();
+            return super.readFeatures(featureIds);
+        }
+    }
+
+    /** Repository counting calls. */
+    private static class CountingEventRepository extends InMemoryEventRepository {
+        private final AtomicInteger batches = new AtomicInteger();
+        private final AtomicInteger single = new AtomicInteger();
+        private final AtomicInteger events = new AtomicInteger();
+        public boolean saveEvents(Collection<Event> evts) {
+            batches.incrementAndGet();
+            events.addAndGet(evts.size());
+            return super.saveEvents(evts);
+        }
+        public boolean saveEvent(Event e) {
+            single.incrementAndGet();
+            return super.saveEvent(e);
+        }
+    }
+
+    /** Authorization manager counting calls. */
+    private static class CountingAuthorizationManager extends DefinedPermissionSecurityManager {
+        private final AtomicInteger calls = new AtomicInteger();
+        public CountingAuthorizationManager(Set<String> roles) {
+            super(roles);
+        }
+        public Set<String> getCurrentUserPermissions() {
+            calls.incrementAndGet();
+            return super.getCurrentUserPermissions();
+        }
+    }
+
+    @Test
+    public void testSameResultAsCheck() {
+        FF4j ff4j = new FF4j("ff4j.xml");
+        ff4j.setAuthorizationsManager(new DefinedPermissionSecurityManager(Util.set(ROLE_USER)));
+        Map<String, Boolean> statuses = ff4j.checkAll(ff4j.getFeatures().keySet());
+        Assert.assertEquals(ff4j.getFeatures().size(), statuses.size());
+        for (Map.Entry<String, Boolean> status : statuses.entrySet()) {
+            Assert.assertEquals(ff4j.check(status.getKey()), status.getValue());
+        }
+    }
+
+    @Test
+    public void testSameResultInCompiledMode() {
+        FF4j ff4jStore    = new FF4j("ff4j.xml");
+        FF4j ff4jCompiled = new FF4j("ff4j.xml").compile();
+        Collection<String> uids = ff4jStore.getFeatures().keySet();
+        Assert.assertEquals(ff4jStore.checkAll(uids), ff4jCompiled.checkAll(uids));
+    }
+
+    @Test
+    public void testSingleStoreAccessAndPermissionLookup() {
+        CountingFeatureStore store = new CountingFeatureStore("ff4j.xml");
+        CountingAuthorizationManager authManager = new CountingAuthorizationManager(Util.set(ROLE_USER));
+        FF4j ff4j = new FF4j();
+        ff4j.setFeatureStore(store);
+        ff4j.setAuthorizationsManager(authManager);
+        List<String> uids = Arrays.asList(F1, F2, F3, F4, F1);
+        Map<String, Boolean> statuses = ff4j.checkAll(uids);
+        Assert.assertEquals(4, statuses.size());
+        Assert.assertTrue(statuses.get(F1));
+        Assert.assertEquals(1, store.bulkReads.get());
+        Assert.assertEquals(0, store.reads.get());
+        Assert.assertTrue(authManager.calls.get() <= 1);
+    }
+
+    @Test
+    public void testAuditPublishedAsBatch() {
+        CountingEventRepository repo = new CountingEventRepository();
+        FF4j ff4j = new FF4j("ff4j.xml").audit();
+        ff4j.setEventRepository(repo);
+        ff4j.checkAll(Arrays.asList(F1, F2, F3));
+        Assert.assertEquals(1, repo.batches.get());
+        Assert.assertEquals(3, repo.events.get());
+    }
+
+    @Test
+    public void testAutoCreateMissing() {
+        FF4j ff4j = new FF4j("ff4j.xml").autoCreate();
+        Map<String, Boolean> statuses = ff4j.checkAll(Arrays.asList(F1, "i-dont-exist"));
+        Assert.assertFalse(statuses.get("i-dont-exist"));
+        Assert.assertTrue(ff4j.exist("i-dont-exist"));
+    }
+
+    @Test(expected = FeatureNotFoundException.class)
+    public void testMissingFeatureWithoutAutoCreate() {
+        new FF4j("ff4j.xml").checkAll(Arrays.asList(F1, "i-dont-exist"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullList() {
+        new FF4j("ff4j.xml").checkAll(null);
+    }
+
+}
@@ -0,0 +1,183 @@
+package org.ff4j.test;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ff4j.FF4j;
+import org.ff4j.cache.FF4jCacheProxy;
+import org.ff4j.cache.InMemoryCacheManager;
+import org.ff4j.core.CompiledFeatureTable;
+import org.ff4j.core.Feature;
+import org.ff4j.exception.FeatureNotFoundException;
+import org.ff4j.store.FeatureStoreCompiledProxy;
+import org.ff4j.store.InMemoryFeatureStore;
+import org.ff4j.strategy.PonderationStrategy;
+import org.ff4j.utils.Util;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test compiled mode of {@link FF4j}.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class FF4jCompiledModeTest implements TestConstantsFF4j {
+
+    @Test
+    public void testCompiledTableIsBuilt() {
+        FF4j ff4j = new FF4j("ff4j.xml").compile();
+        Assert.assertTrue(ff4j.isCompiled());
+        Assert.assertTrue(ff4j.getFeatureStore() instanceof FeatureStoreCompiledProxy);
+        CompiledFeatureTable table = ff4j.getCompiledFeatures();
+        Assert.assertNotNull(table);
+        Assert.assertEquals(ff4j.getFeatures().size(), table.size());
+        Assert.assertTrue(table.get(F1).getPermissions().contains(ROLE_USER));
+    }
+
+    @Test
+    public void testCompiledCheckSameAsStore() {
+        FF4j ff4jStore    = new FF4j("ff4j.xml");
+        FF4j ff4jCompiled = new FF4j("ff4j.xml").compile();
+        for (String uid : ff4jStore.getFeatures().keySet()) {
+            Assert.assertEquals(ff4jStore.check(uid), ff4jCompiled.check(uid));
+        }
+    }
+
+    @Test
+    public void testWritesRefreshTable() {
+        FF4j ff4j = new FF4j("ff4j.xml").compile();
+        long version = ff4j.getCompiledFeatures().getVersion();
+        Assert.assertTrue(ff4j.check(F1));
+        ff4j.disable(F1);
+        Assert.assertFalse(ff4j.check(F1));
+        Assert.assertTrue(ff4j.getCompiledFeatures().getVersion() > version);
+        ff4j.getFeatureStore().enable(F1);
+        Assert.assertTrue(ff4j.check(F1));
+        ff4j.createFeature(new Feature("new", true));
+        Assert.assertTrue(ff4j.check("new"));
+        ff4j.delete("new");
+        Assert.assertNull(ff4j.getCompiledFeatures().get("new"));
+    }
+
+    @Test(expected = FeatureNotFoundException.class)
+    public void testUnknownFeatureFallbackToStore() {
+        new FF4j("ff4j.xml").compile().check("i-dont-exist");
+    }
+
+    @Test
+    public void testAutoCreateInCompiledMode() {
+        FF4j ff4j = new FF4j().compile().autoCreate();
+        Assert.assertFalse(ff4j.check("auto"));
+        Assert.assertNotNull(ff4j.getCompiledFeatures().get("auto"));
+    }
+
+    @Test
+    public void testCompiledWithSecurity() {
+        FF4j ff4j = new FF4j("ff4j.xml").compile();
+        ff4j.setAuthorizationsManager(new DefinedPermissionSecurityManager(Util.set(ROLE_ADMIN)));
+        Assert.assertFalse(ff4j.check(F1));
+        ff4j.setAuthorizationsManager(new DefinedPermissionSecurityManager(Util.set(ROLE_USER)));
+        Assert.assertTrue(ff4j.check(F1));
+    }
+
+    @Test
+    public void testCompiledWithStrategy() {
+        FF4j ff4j = new FF4j().compile();
+        ff4j.createFeature(new Feature("never", true, null, null, null, new PonderationStrategy(0d)));
+        Assert.assertFalse(ff4j.check("never"));
+    }
+
+    @Test
+    public void testCompiledWithAuditAndCache() {
+        FF4j ff4j = new FF4j("ff4j.xml").compile().audit();
+        ff4j.cache(new InMemoryCacheManager());
+        Assert.assertTrue(ff4j.getFeatureStore() instanceof FeatureStoreCompiledProxy);
+        Assert.assertTrue(ff4j.getCacheProxy() instanceof FF4jCacheProxy);
+        Assert.assertTrue(ff4j.getConcreteFeatureStore() instanceof InMemoryFeatureStore);
+        ff4j.disable(F1);
+        Assert.assertFalse(ff4j.check(F1));
+    }
+
+    @Test
+    public void testSetFeatureStoreRebuildsTable() {
+        FF4j ff4j = new FF4j("ff4j.xml").compile();
+        Assert.assertTrue(ff4j.check(F1));
+        InMemoryFeatureStore store = new InMemoryFeatureStore();
+        store.create(new Feature(F1, false));
+        ff4j.setFeatureStore(store);
+        Assert.assertFalse(ff4j.check(F1));
+        Assert.assertEquals(1, ff4j.getCompiledFeatures().size());
+    }
+
+    @Test
+    public void testDisableCompiledMode() {
+        FF4j ff4j = new FF4j("ff4j.xml").compile();
+        Assert.assertNotNull(ff4j.getCompiledFeatures());
+        ff4j.compile(false);
+        Assert.assertNull(ff4j.getCompiledFeatures());
+        Assert.assertFalse(ff4j.getFeatureStore() instanceof FeatureStoreCompiledProxy);
+    }
+
+    @Test
+    public void testRefreshAfterExternalChange() {
+        FF4j ff4j = new FF4j("ff4j.xml").compile();
+        Assert.assertTrue(ff4j.check(F1));
+        // Bypass proxy, as another node would do
+        ff4j.getConcreteFeatureStore().disable(F1);
+        Assert.assertTrue(ff4j.check(F1));
+        ff4j.refreshCompiledFeatures();
+        Assert.assertFalse(ff4j.check(F1));
+    }
+
+    @Test
+    public void testWriteDoesNotReadWholeStore() {
+        final AtomicInteger readAll = new AtomicInteger();
+        InMemoryFeatureStore store = new InMemoryFeatureStore("ff4j.xml") {
+            @Override
+            public Map<String, Feature> readAll() {
+                readAll.incrementAndGet();
+                return super.readAll();
+            }
+        };
+        FF4j ff4j = new FF4j();
+        ff4j.setFeatureStore(store);
+        ff4j.compile();
+        Assert.assertTrue(ff4j.check(F1));
+        int reads = readAll.get();
+        ff4j.disable(F1);
+        Assert.assertFalse(ff4j.check(F1));
+        Assert.assertEquals(reads, readAll.get());
+    }
+
+    @Test
+    public void testRefreshAfterTimeToLive() throws InterruptedException {
+        FF4j ff4j = new FF4j("ff4j.xml").compile();
+        ff4j.setCompiledFeaturesTimeToLive(50);
+        Assert.assertTrue(ff4j.check(F1));
+        ff4j.getConcreteFeatureStore().disable(F1);
+        Assert.assertTrue(ff4j.check(F1));
+        Thread.sleep(100);
+        Assert.assertFalse(ff4j.check(F1));
+    }
+
+}
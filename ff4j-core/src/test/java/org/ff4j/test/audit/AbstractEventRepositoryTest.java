@@ -31,6 +31,7 @@ import static org.ff4j.audit.EventConstants.SOURCE_WEBAPI;
 import static org.ff4j.audit.EventConstants.TARGET_FEATURE;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -121,6 +122,20 @@ public abstract class AbstractEventRepositoryTest {
         Assert.assertEquals(1, repo.getFeatureUsageTotalHitCount(new EventQueryDefinition(start-20, System.currentTimeMillis())));
     }
     
+    @Test
+    public void testSaveEventsBatch() throws InterruptedException {
+        long start = System.currentTimeMillis();
+        List < Event > events = new ArrayList<Event>();
+        events.add(generateFeatureUsageEvent("f1"));
+        events.add(generateFeatureUsageEvent("f2"));
+        events.add(generateFeatureUsageEvent("f1"));
+        Assert.assertTrue(repo.saveEvents(events));
+        Thread.sleep(100);
+        Map < String, MutableHitCount > hits = repo.getFeatureUsageHitCount(new EventQueryDefinition(start-20, System.currentTimeMillis()));
+        Assert.assertEquals(2, hits.get("f1").get());
+        Assert.assertEquals(1, hits.get("f2").get());
+    }
+    
     @Test(expected = IllegalArgumentException.class)
     public void testSaveEventNull() {
         Assert.assertFalse(repo.saveEvent(null));
@@ -0,0 +1,205 @@
+package org.ff4j.test.audit;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.ff4j.audit.EventConstants.ACTION_CHECK_OK;
+import static org.ff4j.audit.EventConstants.SOURCE_JAVA;
+import static org.ff4j.audit.EventConstants.TARGET_FEATURE;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.ff4j.audit.AsyncEventPublisher;
+import org.ff4j.audit.Event;
+import org.ff4j.audit.EventOverflowPolicy;
+import org.ff4j.audit.EventQueryDefinition;
+import org.ff4j.audit.EventRingBuffer;
+import org.ff4j.audit.repository.EventRepository;
+import org.ff4j.audit.repository.InMemoryEventRepository;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit testing of {@link AsyncEventPublisher} and {@link EventRingBuffer}.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class AsyncEventPublisherTest {
+
+    /** Repository blocked until latch is released. */
+    private static class BlockingEventRepository extends InMemoryEventRepository {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        @Override
+        public boolean saveEvents(Collection<Event> events) {
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.saveEvents(events);
+        }
+    }
+
+    private Event newEvent(String uid) {
+        return new Event(SOURCE_JAVA, TARGET_FEATURE, uid, ACTION_CHECK_OK);
+    }
+
+    @Test
+    public void testRingBufferCapacityIsPowerOfTwo() {
+        Assert.assertEquals(8, new EventRingBuffer(5).capacity());
+        Assert.assertEquals(1, new EventRingBuffer(1).capacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRingBufferInvalidCapacity() {
+        new EventRingBuffer(0);
+    }
+
+    @Test
+    public void testRingBufferOfferPoll() {
+        EventRingBuffer rb = new EventRingBuffer(2);
+        Assert.assertTrue(rb.isEmpty());
+        Assert.assertNull(rb.poll());
+        Event e1 = newEvent("f1");
+        Event e2 = newEvent("f2");
+        Assert.assertTrue(rb.offer(e1));
+        Assert.assertTrue(rb.offer(e2));
+        Assert.assertFalse(rb.offer(newEvent("f3")));
+        Assert.assertEquals(2, rb.size());
+        Assert.assertSame(e1, rb.poll());
+        Assert.assertTrue(rb.offer(newEvent("f3")));
+        List<Event> target = new ArrayList<Event>();
+        Assert.assertEquals(2, rb.drainTo(target, 10));
+        Assert.assertSame(e2, target.get(0));
+        Assert.assertTrue(rb.isEmpty());
+    }
+
+    @Test
+    public void testRingBufferConcurrentProducers() throws InterruptedException {
+        final EventRingBuffer rb = new EventRingBuffer(4096);
+        final int nbThreads = 4;
+        final int nbEvents  = 1000;
+        Thread[] producers = new Thread[nbThreads];
+        for (int i = 0; i < nbThreads; i++) {
+            producers[i] = new Thread() {
+                public void run() {
+                    for (int j = 0; j < nbEvents; j++) {
+                        rb.offer(newEvent("f1"));
+                    }
+                }
+            };
+            producers[i].start();
+        }
+        for (Thread t : producers) {
+            t.join();
+        }
+        Assert.assertEquals(nbThreads * nbEvents, rb.drainTo(new ArrayList<Event>(), Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testPublishIsSavedByDrainers() throws InterruptedException {
+        long start = System.currentTimeMillis();
+        EventRepository repo = new InMemoryEventRepository();
+        AsyncEventPublisher pub = new AsyncEventPublisher(repo);
+        for (int i = 0; i < 100; i++) {
+            pub.publish(newEvent("f1"));
+        }
+        pub.publish(null);
+        pub.stop();
+        Assert.assertFalse(pub.isRunning());
+        Assert.assertEquals(100, pub.getPublishedCount());
+        Assert.assertEquals(0, pub.getDroppedCount());
+        Assert.assertEquals(100, repo.getFeatureUsageTotalHitCount(
+                new EventQueryDefinition(start - 10, System.currentTimeMillis())));
+    }
+
+    @Test
+    public void testOverflowDropNewest() {
+        BlockingEventRepository repo = new BlockingEventRepository();
+        AsyncEventPublisher pub = new AsyncEventPublisher(repo, 4, 1, 1, 10, EventOverflowPolicy.DROP_NEWEST, 1);
+        fillUntilOverflow(pub, 20);
+        Assert.assertTrue(pub.getDroppedCount() > 0);
+        Assert.assertEquals(20, pub.getPublishedCount() + pub.getDroppedCount());
+        repo.latch.countDown();
+        pub.stop();
+    }
+
+    @Test
+    public void testOverflowDropOldest() {
+        BlockingEventRepository repo = new BlockingEventRepository();
+        AsyncEventPublisher pub = new AsyncEventPublisher(repo, 4, 1, 1, 10, EventOverflowPolicy.DROP_OLDEST, 1);
+        fillUntilOverflow(pub, 20);
+        Event last = newEvent("last");
+        pub.publish(last);
+        Assert.assertTrue(pub.getDroppedCount() > 0);
+        // Newest event is always kept
+        List<Event> pending = new ArrayList<Event>();
+        pub.getBuffer().drainTo(pending, 10);
+        Assert.assertSame(last, pending.get(pending.size() - 1));
+        repo.latch.countDown();
+        pub.stop();
+    }
+
+    @Test
+    public void testOverflowSample() {
+        BlockingEventRepository repo = new BlockingEventRepository();
+        AsyncEventPublisher pub = new AsyncEventPublisher(repo, 4, 1, 1, 10, EventOverflowPolicy.SAMPLE, 5);
+        Assert.assertEquals(EventOverflowPolicy.SAMPLE, pub.getOverflowPolicy());
+        Assert.assertEquals(5, pub.getSampleRate());
+        fillUntilOverflow(pub, 100);
+        // one overflowing event out of 5 replaces the oldest one
+        Assert.assertTrue(pub.getPublishedCount() > pub.getBuffer().capacity() + 1);
+        Assert.assertTrue(pub.getDroppedCount() > 0);
+        repo.latch.countDown();
+        pub.stop();
+    }
+
+    @Test
+    public void testRepositoryErrorIsCounted() {
+        EventRepository repo = new InMemoryEventRepository() {
+            @Override
+            public boolean saveEvents(Collection<Event> events) {
+                throw new IllegalStateException("Erreur");
+            }
+        };
+        AsyncEventPublisher pub = new AsyncEventPublisher(repo);
+        pub.publish(newEvent("f1"));
+        pub.stop();
+        Assert.assertEquals(1, pub.getFailedCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPolicy() {
+        new AsyncEventPublisher(new InMemoryEventRepository(), null);
+    }
+
+    private void fillUntilOverflow(AsyncEventPublisher pub, int nbEvents) {
+        for (int i = 0; i < nbEvents; i++) {
+            pub.publish(newEvent("f" + i));
+        }
+    }
+
+}
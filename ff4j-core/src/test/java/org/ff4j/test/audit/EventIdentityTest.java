@@ -0,0 +1,103 @@
+package org.ff4j.test.audit;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.ff4j.audit.Event;
+import org.ff4j.audit.EventIdGenerator;
+import org.ff4j.audit.EventIdentity;
+import org.ff4j.audit.RandomUUIDEventIdGenerator;
+import org.ff4j.audit.TimeBasedEventIdGenerator;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit testing of {@link EventIdentity} and {@link EventIdGenerator}.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class EventIdentityTest {
+
+    @After
+    public void resetIdentity() {
+        EventIdentity.setIdGenerator(new TimeBasedEventIdGenerator());
+        EventIdentity.setHostName(null);
+    }
+
+    @Test
+    public void testTimeBasedIdsAreUniqueUuids() {
+        EventIdGenerator gen = new TimeBasedEventIdGenerator();
+        Set < String > ids = new HashSet<String>();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 10000; i++) {
+            String id = gen.generate(now);
+            Assert.assertEquals(7, UUID.fromString(id).version());
+            Assert.assertEquals(2, UUID.fromString(id).variant());
+            ids.add(id);
+        }
+        Assert.assertEquals(10000, ids.size());
+    }
+
+    @Test
+    public void testTimeBasedIdsAreTimeOrdered() {
+        EventIdGenerator gen = new TimeBasedEventIdGenerator(0);
+        String first  = gen.generate(1000L);
+        String second = gen.generate(2000L);
+        Assert.assertTrue(first.compareTo(second) < 0);
+        Assert.assertEquals(1000L, UUID.fromString(first).getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    public void testEventUsesIdentity() {
+        EventIdentity.setHostName("myhost");
+        EventIdentity.setIdGenerator(new EventIdGenerator() {
+            public String generate(long timestamp) {
+                return "id-" + timestamp;
+            }
+        });
+        Event evt = new Event();
+        Assert.assertEquals("myhost", evt.getHostName());
+        Assert.assertEquals("id-" + evt.getTimestamp(), evt.getUuid());
+    }
+
+    @Test
+    public void testHostNameResolvedOnce() {
+        String host = EventIdentity.getHostName();
+        Assert.assertNotNull(host);
+        Assert.assertSame(host, EventIdentity.getHostName());
+    }
+
+    @Test
+    public void testRandomUUIDGenerator() {
+        EventIdentity.setIdGenerator(new RandomUUIDEventIdGenerator());
+        Assert.assertEquals(4, UUID.fromString(new Event().getUuid()).version());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullGenerator() {
+        EventIdentity.setIdGenerator(null);
+    }
+
+}
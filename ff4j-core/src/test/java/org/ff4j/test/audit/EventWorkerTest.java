@@ -27,8 +27,13 @@ import static org.mockito.Mockito.doThrow;
  */
 
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.ff4j.audit.Event;
 import org.ff4j.audit.EventPublisher;
 import org.ff4j.audit.EventRejectedExecutionHandler;
@@ -63,6 +68,20 @@ public class EventWorkerTest {
         ew.call();
     }
     
+    @Test
+    public void testFailedBatchNotRetried() throws Exception {
+        // Given
+        EventRepository er = mock(EventRepository.class);
+        List < Event > events = new ArrayList<Event>();
+        events.add(new Event(SOURCE_JAVA, TARGET_FEATURE, "F1", ACTION_CHECK_OK));
+        events.add(new Event(SOURCE_JAVA, TARGET_FEATURE, "F2", ACTION_CHECK_OK));
+        when(er.saveEvents(events)).thenReturn(false);
+        // When
+        Assert.assertFalse(new EventWorker(events, er).call());
+        // Then : saved events of the batch are not inserted twice
+        verify(er, times(1)).saveEvents(events);
+    }
+    
     @Test
     public void testErrorOnSubmitEventPublisher() {
         // Given
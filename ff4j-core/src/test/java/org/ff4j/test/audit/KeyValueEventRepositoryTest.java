@@ -0,0 +1,108 @@
+package org.ff4j.test.audit;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ff4j.audit.Event;
+import org.ff4j.audit.EventQueryDefinition;
+import org.ff4j.audit.repository.EventRepository;
+import org.ff4j.mapper.EventMapper;
+import org.ff4j.store.kv.InMemoryKeyValueDriver;
+import org.ff4j.store.kv.KeyValueEventRepository;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for the key/value event repository working with the in memory driver.
+ * 
+ * @author Cedrick Lunven (@clunven)
+ */
+public class KeyValueEventRepositoryTest extends AbstractEventRepositoryTest {
+    
+    /** Calls to the counters of the driver. */
+    private final AtomicInteger increments = new AtomicInteger(0);
+    
+    /** Failures to raise on the next counter updates. */
+    private final AtomicInteger failures = new AtomicInteger(0);
+    
+    /** {@inheritDoc} */
+    @Override
+    protected EventRepository initRepository() {
+        InMemoryKeyValueDriver<Event> driver = new InMemoryKeyValueDriver<Event>() {
+            public long incrementCounter(String key, long delta) {
+                if (failures.getAndDecrement() > 0) {
+                    throw new IllegalStateException("Counter is busy");
+                }
+                increments.incrementAndGet();
+                return super.incrementCounter(key, delta);
+            }
+        };
+        KeyValueEventRepository<Event> kvRepo = new KeyValueEventRepository<Event>(driver, new EventMapper<Event>() {
+            public Event toStore(Event bean) {
+                return bean;
+            }
+            public Event fromStore(Event bean) {
+                return bean;
+            }
+        });
+        // Counters are sent by the tests
+        kvRepo.setFlushInterval(60000);
+        return kvRepo;
+    }
+    
+    /**
+     * TDD.
+     */
+    @Test
+    public void testHitsAggregatedBeforeIncrement() {
+        // Given
+        long time = System.currentTimeMillis() - 3 * 3600 * 1000L;
+        increments.set(0);
+        // When
+        for (int i = 0; i < 10; i++) {
+            repo.saveEvent(generateFeatureUsageEvent("f1", time));
+        }
+        Assert.assertTrue(((KeyValueEventRepository<?>) repo).flush());
+        // Then : one update per dimension (feature, user, host, source)
+        Assert.assertEquals(4, increments.get());
+        EventQueryDefinition query = new EventQueryDefinition(time - 2 * 3600 * 1000L, time + 2 * 3600 * 1000L);
+        Assert.assertEquals(10, repo.getFeatureUsageHitCount(query).get("f1").get());
+    }
+    
+    /**
+     * TDD.
+     */
+    @Test
+    public void testHitsKeptWhenCounterFails() {
+        // Given
+        long time = System.currentTimeMillis() - 3 * 3600 * 1000L;
+        repo.saveEvent(generateFeatureUsageEvent("f2", time));
+        repo.saveEvent(generateFeatureUsageEvent("f2", time));
+        // When
+        failures.set(4);
+        Assert.assertFalse(((KeyValueEventRepository<?>) repo).flush());
+        // Then
+        EventQueryDefinition query = new EventQueryDefinition(time - 2 * 3600 * 1000L, time + 2 * 3600 * 1000L);
+        Assert.assertEquals(2, repo.getFeatureUsageHitCount(query).get("f2").get());
+    }
+    
+}
@@ -0,0 +1,167 @@
+package org.ff4j.test.audit;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2016 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.ff4j.audit.EventConstants.ACTION_CHECK_OFF;
+import static org.ff4j.audit.EventConstants.ACTION_CHECK_OK;
+import static org.ff4j.audit.EventConstants.SOURCE_JAVA;
+import static org.ff4j.audit.EventConstants.SOURCE_WEB;
+import static org.ff4j.audit.EventConstants.TARGET_FEATURE;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.ff4j.audit.Event;
+import org.ff4j.audit.EventQueryDefinition;
+import org.ff4j.audit.FeatureUsageCounters;
+import org.ff4j.audit.MutableHitCount;
+import org.ff4j.audit.StripedCounter;
+import org.ff4j.audit.chart.TimeSeriesChart;
+import org.ff4j.audit.repository.InMemoryEventRepository;
+import org.ff4j.audit.repository.UsageMetricsEventRepository;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit testing of {@link UsageMetricsEventRepository} and {@link FeatureUsageCounters}.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class UsageMetricsEventRepositoryTest {
+
+    /** Midnight. */
+    private static final long DAY = 1000L * 3600 * 24;
+
+    /** Start of a day. */
+    private long today;
+
+    /** Tested repository. */
+    private UsageMetricsEventRepository repo;
+
+    @Before
+    public void setUp() {
+        today = new EventQueryDefinition().getFrom();
+        repo  = new UsageMetricsEventRepository();
+    }
+
+    private Event check(String uid, String action, String source, String user, long timestamp) {
+        Event evt = new Event(source, TARGET_FEATURE, uid, action);
+        evt.setUser(user);
+        evt.setHostName("host1");
+        evt.setTimestamp(timestamp);
+        return evt;
+    }
+
+    @Test
+    public void testHitCountsFromCounters() {
+        for (int i = 0; i < 10; i++) {
+            repo.saveEvent(check("f1", ACTION_CHECK_OK, SOURCE_JAVA, "alice", today + i * 1000));
+        }
+        for (int i = 0; i < 5; i++) {
+            repo.saveEvent(check("f2", ACTION_CHECK_OK, SOURCE_WEB, null, today + 3600 * 1000));
+        }
+        repo.saveEvent(check("f1", ACTION_CHECK_OFF, SOURCE_JAVA, "alice", today));
+        EventQueryDefinition q = new EventQueryDefinition(today, today + DAY - 1);
+        Map < String, MutableHitCount > features = repo.getFeatureUsageHitCount(q);
+        Assert.assertEquals(10, features.get("f1").get());
+        Assert.assertEquals(5,  features.get("f2").get());
+        Assert.assertEquals(15, repo.getFeatureUsageTotalHitCount(q));
+        Assert.assertEquals(10, repo.getSourceHitCount(q).get(SOURCE_JAVA).get());
+        Assert.assertEquals(5,  repo.getUserHitCount(q).get(FeatureUsageCounters.ANONYMOUS).get());
+        Assert.assertEquals(15, repo.getHostHitCount(q).get("host1").get());
+        Assert.assertEquals(5,  repo.getFeatureUsageHitCount(q.addFilterName("f2")).get("f2").get());
+        Assert.assertTrue(repo.searchFeatureUsageEvents(q).isEmpty());
+        // Check off are counted but not used as usage
+        Assert.assertEquals(1, repo.getFeatureUsageHitCount(
+                new EventQueryDefinition(today, today + DAY).addFilterAction(ACTION_CHECK_OFF)).get("f1").get());
+    }
+
+    @Test
+    public void testHistory() {
+        repo.saveEvent(check("f1", ACTION_CHECK_OK, SOURCE_JAVA, null, today + 10));
+        repo.saveEvent(check("f1", ACTION_CHECK_OK, SOURCE_JAVA, null, today + 3600 * 1000 + 10));
+        repo.saveEvent(check("f1", ACTION_CHECK_OK, SOURCE_JAVA, null, today + 3600 * 1000 + 20));
+        TimeSeriesChart tsc = repo.getFeatureUsageHistory(new EventQueryDefinition(today, today + DAY - 1), TimeUnit.HOURS);
+        Map < String, MutableHitCount > slots = tsc.getSeries().get("f1").getValue();
+        int total = 0;
+        for (MutableHitCount mhc : slots.values()) {
+            total += mhc.get();
+        }
+        Assert.assertEquals(3, total);
+    }
+
+    @Test
+    public void testAuditTrailDelegated() {
+        Event create = new Event(SOURCE_JAVA, TARGET_FEATURE, "f1", "create");
+        repo.saveEvent(create);
+        Assert.assertEquals(1, repo.getAuditTrail(new EventQueryDefinition()).size());
+        Assert.assertNotNull(repo.getEventByUUID(create.getUuid(), null));
+        Assert.assertEquals(0, repo.getFeatureUsageTotalHitCount(new EventQueryDefinition()));
+    }
+
+    @Test
+    public void testPurgeAndRetention() {
+        FeatureUsageCounters counters = new FeatureUsageCounters(1, TimeUnit.MINUTES, 2);
+        repo = new UsageMetricsEventRepository(new InMemoryEventRepository(), counters);
+        repo.saveEvent(check("f1", ACTION_CHECK_OK, SOURCE_JAVA, null, today));
+        repo.saveEvent(check("f1", ACTION_CHECK_OK, SOURCE_JAVA, null, today + 60000));
+        Assert.assertEquals(2, counters.size());
+        repo.saveEvent(check("f1", ACTION_CHECK_OK, SOURCE_JAVA, null, today + 120000));
+        Assert.assertEquals(2, counters.size());
+        repo.purgeFeatureUsage(new EventQueryDefinition(today, today + DAY));
+        Assert.assertEquals(0, counters.size());
+    }
+
+    @Test
+    public void testUserCardinalityCapped() {
+        FeatureUsageCounters counters = new FeatureUsageCounters(1, TimeUnit.HOURS, 24, 2);
+        repo = new UsageMetricsEventRepository(new InMemoryEventRepository(), counters);
+        for (int i = 0; i < 10; i++) {
+            repo.saveEvent(check("f1", ACTION_CHECK_OK, SOURCE_JAVA, "user" + i, today + i));
+        }
+        EventQueryDefinition q = new EventQueryDefinition(today, today + DAY - 1);
+        Map < String, MutableHitCount > users = repo.getUserHitCount(q);
+        Assert.assertEquals(3, users.size());
+        Assert.assertEquals(8, users.get(FeatureUsageCounters.OTHER_USERS).get());
+        Assert.assertEquals(10, repo.getFeatureUsageHitCount(q).get("f1").get());
+    }
+
+    @Test
+    public void testStripedCounterConcurrent()throws InterruptedException {
+        final StripedCounter counter = new StripedCounter();
+        final CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        counter.increment();
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        Assert.assertEquals(80000, counter.sum());
+    }
+
+}
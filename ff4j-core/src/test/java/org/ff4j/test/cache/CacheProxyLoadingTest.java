@@ -0,0 +1,212 @@
+package org.ff4j.test.cache;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ff4j.FF4j;
+import org.ff4j.cache.FF4jCacheProxy;
+import org.ff4j.cache.InMemoryCacheManager;
+import org.ff4j.cache.NegativeCache;
+import org.ff4j.core.Feature;
+import org.ff4j.exception.FeatureNotFoundException;
+import org.ff4j.exception.PropertyNotFoundException;
+import org.ff4j.property.Property;
+import org.ff4j.property.PropertyString;
+import org.ff4j.property.store.InMemoryPropertyStore;
+import org.ff4j.store.InMemoryFeatureStore;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Negative caching and single-flight loading in {@link FF4jCacheProxy}.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class CacheProxyLoadingTest {
+    
+    /** Count reads reaching the store, may block them. */
+    private static class CountingFeatureStore extends InMemoryFeatureStore {
+        
+        private final AtomicInteger reads = new AtomicInteger();
+        
+        private volatile CountDownLatch gate;
+        
+        /** {@inheritDoc} */
+        @Override
+        public Feature read(String uid) {
+            reads.incrementAndGet();
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.read(uid);
+        }
+    }
+    
+    /** Count reads reaching the store. */
+    private static class CountingPropertyStore extends InMemoryPropertyStore {
+        
+        private final AtomicInteger reads = new AtomicInteger();
+        
+        /** {@inheritDoc} */
+        @Override
+        public Property<?> readProperty(String name) {
+            reads.incrementAndGet();
+            return super.readProperty(name);
+        }
+    }
+    
+    /** Target feature store. */
+    private CountingFeatureStore fs;
+    
+    /** Target property store. */
+    private CountingPropertyStore ps;
+    
+    /** Proxy. */
+    private FF4jCacheProxy proxy;
+    
+    @Before
+    public void setUp() {
+        fs = new CountingFeatureStore();
+        ps = new CountingPropertyStore();
+        fs.create(new Feature("f1", true));
+        proxy = new FF4jCacheProxy(fs, ps, new InMemoryCacheManager());
+    }
+    
+    @Test
+    public void testMissingFeatureIsCached() {
+        for (int i = 0; i < 3; i++) {
+            try {
+                proxy.read("missing");
+                Assert.fail();
+            } catch (FeatureNotFoundException fnf) {
+                // expected
+            }
+        }
+        Assert.assertEquals(1, fs.reads.get());
+        Assert.assertFalse(proxy.exist("missing"));
+        // Creation through the proxy clears the negative entry
+        proxy.create(new Feature("missing", true));
+        Assert.assertTrue(proxy.read("missing").isEnable());
+    }
+    
+    @Test
+    public void testMissingPropertyIsCached() {
+        for (int i = 0; i < 3; i++) {
+            try {
+                proxy.readProperty("missing");
+                Assert.fail();
+            } catch (PropertyNotFoundException pnf) {
+                // expected
+            }
+        }
+        Assert.assertEquals(1, ps.reads.get());
+        proxy.createProperty(new PropertyString("missing", "v1"));
+        Assert.assertEquals("v1", proxy.readProperty("missing").asString());
+    }
+    
+    @Test
+    public void testNegativeEntryExpires() throws InterruptedException {
+        proxy.setNegativeCacheTimeToLive(50);
+        Assert.assertFalse(proxy.exist("f2"));
+        // Created by another node
+        fs.create(new Feature("f2", true));
+        Assert.assertFalse(proxy.exist("f2"));
+        Thread.sleep(100);
+        Assert.assertTrue(proxy.exist("f2"));
+    }
+    
+    @Test
+    public void testNegativeCacheBounded() throws InterruptedException {
+        NegativeCache cache = new NegativeCache(50);
+        cache.setMaxSize(2);
+        cache.markMissing("k1");
+        cache.markMissing("k2");
+        cache.markMissing("k3");
+        Assert.assertEquals(2, cache.size());
+        Assert.assertFalse(cache.isMissing("k3"));
+        // Expired keys are swept when full
+        Thread.sleep(100);
+        cache.markMissing("k3");
+        Assert.assertEquals(1, cache.size());
+        Assert.assertTrue(cache.isMissing("k3"));
+    }
+    
+    @Test
+    public void testNegativeCacheDisabled() {
+        proxy.setNegativeCacheTimeToLive(0);
+        Assert.assertFalse(proxy.exist("f2"));
+        fs.create(new Feature("f2", true));
+        Assert.assertTrue(proxy.exist("f2"));
+    }
+    
+    @Test
+    public void testConcurrentMissesAreCoalesced() throws InterruptedException {
+        fs.gate = new CountDownLatch(1);
+        final int nbThreads = 8;
+        final CountDownLatch started = new CountDownLatch(nbThreads);
+        final AtomicInteger found   = new AtomicInteger();
+        List < Thread > threads = new ArrayList<Thread>();
+        for (int i = 0; i < nbThreads; i++) {
+            Thread t = new Thread(new Runnable() {
+                public void run() {
+                    started.countDown();
+                    if (proxy.read("f1").isEnable()) {
+                        found.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(t);
+            t.start();
+        }
+        started.await();
+        // Let all threads join the load in progress
+        Thread.sleep(200);
+        fs.gate.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        Assert.assertEquals(nbThreads, found.get());
+        Assert.assertEquals(1, fs.reads.get());
+    }
+    
+    @Test
+    public void testAutoCreateWhenCreatedElsewhere() {
+        FF4j ff4j = new FF4j();
+        ff4j.setFeatureStore(fs);
+        ff4j.setPropertiesStore(ps);
+        ff4j.cache(new InMemoryCacheManager());
+        ff4j.autoCreate(true);
+        Assert.assertFalse(ff4j.exist("f3"));
+        // Created by another node, negative entry still there
+        fs.create(new Feature("f3", true));
+        Assert.assertTrue(ff4j.getFeature("f3").isEnable());
+    }
+    
+}
@@ -0,0 +1,158 @@
+package org.ff4j.test.cache;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ff4j.cache.FF4jCacheProxy;
+import org.ff4j.cache.InMemoryCacheManager;
+import org.ff4j.core.Feature;
+import org.ff4j.exception.GroupNotFoundException;
+import org.ff4j.property.Property;
+import org.ff4j.property.PropertyString;
+import org.ff4j.property.store.InMemoryPropertyStore;
+import org.ff4j.store.InMemoryFeatureStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Bulk reads served from the snapshot of {@link FF4jCacheProxy}.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class CacheProxySnapshotTest {
+    
+    /** Count bulk reads reaching the store. */
+    private static class CountingFeatureStore extends InMemoryFeatureStore {
+        
+        private final AtomicInteger bulkReads = new AtomicInteger();
+        
+        public CountingFeatureStore(String fileName) {
+            super(fileName);
+        }
+        
+        /** {@inheritDoc} */
+        @Override
+        public Map<String, Feature> readAll() {
+            bulkReads.incrementAndGet();
+            return super.readAll();
+        }
+        
+        /** {@inheritDoc} */
+        @Override
+        public Map<String, Feature> readGroup(String groupName) {
+            bulkReads.incrementAndGet();
+            return super.readGroup(groupName);
+        }
+    }
+    
+    /** Target feature store. */
+    private CountingFeatureStore fs;
+    
+    /** Target property store. */
+    private InMemoryPropertyStore ps;
+    
+    /** Proxy. */
+    private FF4jCacheProxy proxy;
+    
+    @Before
+    public void setUp() {
+        fs = new CountingFeatureStore("ff4j.xml");
+        ps = new InMemoryPropertyStore("ff4j.xml");
+        proxy = new FF4jCacheProxy(fs, ps, new InMemoryCacheManager());
+        proxy.setSnapshotMode(true);
+    }
+    
+    @After
+    public void tearDown() {
+        proxy.getStore2CachePoller().stop();
+    }
+    
+    @Test
+    public void testBulkReadsFromSnapshot() {
+        Assert.assertTrue(proxy.readAll().containsKey("AwesomeFeature"));
+        Assert.assertTrue(proxy.existGroup("GRP1"));
+        Assert.assertFalse(proxy.existGroup("GRPX"));
+        Assert.assertEquals(2, proxy.readGroup("GRP1").size());
+        Assert.assertTrue(proxy.readAllGroups().contains("GRP0"));
+        Assert.assertTrue(proxy.readAllProperties().containsKey("a"));
+        Assert.assertTrue(proxy.listPropertyNames().contains("a"));
+        // Single read of the store
+        Assert.assertEquals(1, fs.bulkReads.get());
+    }
+    
+    @Test(expected = GroupNotFoundException.class)
+    public void testReadUnknownGroup() {
+        proxy.readGroup("GRPX");
+    }
+    
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshotIsReadOnly() {
+        proxy.readAll().remove("AwesomeFeature");
+    }
+    
+    @Test
+    public void testWriteInvalidatesSnapshot() {
+        Assert.assertFalse(proxy.readAll().containsKey("new"));
+        proxy.create(new Feature("new", true, null, "GRPX"));
+        Assert.assertTrue(proxy.readAll().containsKey("new"));
+        Assert.assertTrue(proxy.existGroup("GRPX"));
+        proxy.createProperty(new PropertyString("newp", "v"));
+        Property<?> p = proxy.readAllProperties().get("newp");
+        Assert.assertEquals("v", p.asString());
+    }
+    
+    @Test
+    public void testSnapshotExpires() throws InterruptedException {
+        proxy.setSnapshotTimeToLive(200);
+        Assert.assertTrue(proxy.readAll().containsKey("AwesomeFeature"));
+        // Modified by another node
+        fs.delete("AwesomeFeature");
+        Assert.assertTrue(proxy.readAll().containsKey("AwesomeFeature"));
+        Thread.sleep(300);
+        Assert.assertFalse(proxy.readAll().containsKey("AwesomeFeature"));
+    }
+    
+    @Test
+    public void testSnapshotFromPoller() throws InterruptedException {
+        proxy.setSnapshotTimeToLive(0);
+        proxy.startPolling(50);
+        Thread.sleep(200);
+        Assert.assertTrue(proxy.readAll().containsKey("AwesomeFeature"));
+        // Modified by another node
+        fs.delete("AwesomeFeature");
+        Thread.sleep(200);
+        Assert.assertFalse(proxy.readAll().containsKey("AwesomeFeature"));
+    }
+    
+    @Test
+    public void testDisableSnapshotMode() {
+        proxy.readAll();
+        proxy.setSnapshotMode(false);
+        proxy.readAll();
+        proxy.readAll();
+        Assert.assertEquals(3, fs.bulkReads.get());
+    }
+    
+}
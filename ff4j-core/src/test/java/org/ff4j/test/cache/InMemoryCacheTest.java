@@ -1,5 +1,6 @@
 package org.ff4j.test.cache;
 
+import org.ff4j.cache.CacheStatistics;
 import org.ff4j.cache.FF4jCacheProxy;
 import org.ff4j.cache.InMemoryCacheManager;
 import org.ff4j.core.Feature;
@@ -228,4 +229,72 @@ public class InMemoryCacheTest extends CoreFeatureStoreTestSupport {
         imcm.putProperty(p1, 1);
     }
    
+    
+    @Test
+    public void testMaxSizeEvictsLeastRecentlyRead() throws InterruptedException {
+        InMemoryCacheManager imcm = new InMemoryCacheManager(10);
+        for (int i = 0; i < 10; i++) {
+            imcm.putFeature(new Feature("f" + i));
+        }
+        Thread.sleep(5);
+        // f0 is read, it should survive
+        Assert.assertNotNull(imcm.getFeature("f0"));
+        imcm.putFeature(new Feature("f10"));
+        Assert.assertTrue(imcm.getFeaturesCache().size() <= 10);
+        Assert.assertNotNull(imcm.getFeature("f0"));
+        Assert.assertNotNull(imcm.getFeature("f10"));
+        Assert.assertTrue(imcm.getStatistics().getEvictionCount() > 0);
+    }
+    
+    @Test
+    public void testStatistics() {
+        InMemoryCacheManager imcm = new InMemoryCacheManager();
+        FF4jCacheProxy proxy = new FF4jCacheProxy(new InMemoryFeatureStore("ff4j.xml"), new InMemoryPropertyStore(), imcm);
+        proxy.read(F1);
+        proxy.read(F1);
+        proxy.read(F1);
+        CacheStatistics stats = imcm.getStatistics();
+        Assert.assertEquals(2, stats.getHitCount());
+        Assert.assertEquals(1, stats.getMissCount());
+        Assert.assertEquals(1, stats.getLoadCount());
+        Assert.assertTrue(stats.getHitRate() > 0.6);
+        Assert.assertNotNull(stats.toJson());
+    }
+    
+    @Test
+    public void testCleanUpExpired() throws InterruptedException {
+        InMemoryCacheManager imcm = new InMemoryCacheManager();
+        imcm.putFeature(new Feature("f1"), 1);
+        imcm.putProperty(new PropertyString("p1"), 1);
+        Thread.sleep(1100);
+        imcm.cleanUp();
+        Assert.assertTrue(imcm.getFeaturesCache().isEmpty());
+        Assert.assertTrue(imcm.getPropertyCache().isEmpty());
+        Assert.assertEquals(2, imcm.getStatistics().getEvictionCount());
+    }
+    
+    @Test
+    public void testRefreshAfterWriteServesStaleValue() throws InterruptedException {
+        InMemoryFeatureStore store = new InMemoryFeatureStore();
+        store.create(new Feature("f1", false));
+        InMemoryCacheManager imcm = new InMemoryCacheManager(100, 60, 1);
+        FF4jCacheProxy proxy = new FF4jCacheProxy(store, new InMemoryPropertyStore(), imcm);
+        Assert.assertFalse(proxy.read("f1").isEnable());
+        // Change made without the proxy
+        store.update(new Feature("f1", true));
+        Thread.sleep(1100);
+        // Stale value returned, reload triggered
+        Assert.assertFalse(proxy.read("f1").isEnable());
+        for (int i = 0; i < 50 && !imcm.getFeaturesCache().get("f1").getEntry().isEnable(); i++) {
+            Thread.sleep(20);
+        }
+        Assert.assertTrue(proxy.read("f1").isEnable());
+        Assert.assertEquals(2, imcm.getStatistics().getLoadCount());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidConfiguration() {
+        new InMemoryCacheManager(0);
+    }
+   
 }
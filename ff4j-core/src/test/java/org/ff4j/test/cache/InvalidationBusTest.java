@@ -0,0 +1,137 @@
+package org.ff4j.test.cache;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.ff4j.FF4j;
+import org.ff4j.cache.FF4jCacheProxy;
+import org.ff4j.cache.InMemoryCacheManager;
+import org.ff4j.cache.InMemoryInvalidationBus;
+import org.ff4j.cache.InvalidationMessage;
+import org.ff4j.core.Feature;
+import org.ff4j.property.PropertyString;
+import org.ff4j.property.store.InMemoryPropertyStore;
+import org.ff4j.store.InMemoryFeatureStore;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Propagation of invalidations between cache proxies.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class InvalidationBusTest {
+    
+    /** Shared store. */
+    private InMemoryFeatureStore fs;
+    
+    /** Shared store. */
+    private InMemoryPropertyStore ps;
+    
+    /** Shared bus. */
+    private InMemoryInvalidationBus bus;
+    
+    /** Node 1. */
+    private FF4jCacheProxy node1;
+    
+    /** Node 2. */
+    private FF4jCacheProxy node2;
+    
+    @Before
+    public void setUp() {
+        fs = new InMemoryFeatureStore();
+        ps = new InMemoryPropertyStore();
+        fs.create(new Feature("f1", true));
+        ps.createProperty(new PropertyString("p1", "v1"));
+        bus   = new InMemoryInvalidationBus();
+        node1 = new FF4jCacheProxy(fs, ps, new InMemoryCacheManager());
+        node2 = new FF4jCacheProxy(fs, ps, new InMemoryCacheManager());
+        node1.setInvalidationBus(bus);
+        node2.setInvalidationBus(bus);
+    }
+    
+    @Test
+    public void testFeatureInvalidation() {
+        Assert.assertTrue(node1.read("f1").isEnable());
+        Assert.assertTrue(node2.read("f1").isEnable());
+        node1.disable("f1");
+        Assert.assertNull(node2.getCacheManager().getFeature("f1"));
+        Assert.assertFalse(node2.read("f1").isEnable());
+        node1.delete("f1");
+        Assert.assertFalse(node2.exist("f1"));
+    }
+    
+    @Test
+    public void testPropertyInvalidation() {
+        Assert.assertEquals("v1", node2.readProperty("p1").asString());
+        node1.updateProperty("p1", "v2");
+        Assert.assertEquals("v2", node2.readProperty("p1").asString());
+    }
+    
+    @Test
+    public void testGroupInvalidation() {
+        fs.create(new Feature("f2", false, null, "g1"));
+        Assert.assertFalse(node2.read("f2").isEnable());
+        node1.enableGroup("g1");
+        Assert.assertTrue(node2.read("f2").isEnable());
+    }
+    
+    @Test
+    public void testUnsubscribe() {
+        node2.read("f1");
+        node2.setInvalidationBus(null);
+        node1.disable("f1");
+        Assert.assertNotNull(node2.getCacheManager().getFeature("f1"));
+        Assert.assertEquals(1, bus.getListeners().size());
+    }
+    
+    @Test
+    public void testCompiledModeRefreshed() {
+        FF4j ff4j1 = new FF4j();
+        ff4j1.setFeatureStore(fs);
+        ff4j1.setPropertiesStore(ps);
+        ff4j1.cache(new InMemoryCacheManager(), bus).compile();
+        FF4j ff4j2 = new FF4j();
+        ff4j2.setFeatureStore(fs);
+        ff4j2.setPropertiesStore(ps);
+        ff4j2.cache(new InMemoryCacheManager(), bus).compile();
+        Assert.assertTrue(ff4j2.check("f1"));
+        ff4j1.disable("f1");
+        Assert.assertFalse(ff4j2.check("f1"));
+    }
+    
+    @Test
+    public void testMessageSerialization() {
+        InvalidationMessage msg = new InvalidationMessage(InvalidationMessage.Type.FEATURE, "node", "a:b");
+        InvalidationMessage back = InvalidationMessage.fromString(msg.asString());
+        Assert.assertEquals(InvalidationMessage.Type.FEATURE, back.getType());
+        Assert.assertEquals("node", back.getSource());
+        Assert.assertEquals("a:b", back.getKey());
+        Assert.assertNull(InvalidationMessage.fromString(
+                new InvalidationMessage(InvalidationMessage.Type.ALL_FEATURES, "node", null).asString()).getKey());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMessage() {
+        InvalidationMessage.fromString("FEATURE");
+    }
+
+}
@@ -0,0 +1,125 @@
+package org.ff4j.test.cache;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.ff4j.cache.FF4JCacheManager;
+import org.ff4j.cache.InMemoryCacheManager;
+import org.ff4j.cache.Store2CachePollingWorker;
+import org.ff4j.core.Feature;
+import org.ff4j.core.FeatureStore;
+import org.ff4j.property.PropertyString;
+import org.ff4j.property.store.InMemoryPropertyStore;
+import org.ff4j.property.store.PropertyStore;
+import org.ff4j.store.InMemoryFeatureStore;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Worker applies deltas to the cache.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class Store2CachePollingWorkerTest {
+
+    @Test
+    public void testApplyOnlyDeltas() {
+        FeatureStore  fs    = new InMemoryFeatureStore();
+        PropertyStore ps    = new InMemoryPropertyStore();
+        FF4JCacheManager cm = Mockito.spy(new InMemoryCacheManager());
+        fs.create(new Feature("f1", true));
+        fs.create(new Feature("f2", false));
+        ps.createProperty(new PropertyString("p1", "v1"));
+        Store2CachePollingWorker worker = new Store2CachePollingWorker(fs, ps, cm);
+        
+        // First poll fills the cache
+        worker.run();
+        Assert.assertEquals(2, cm.listCachedFeatureNames().size());
+        Assert.assertNotNull(cm.getProperty("p1"));
+        
+        // Nothing changed, nothing pushed
+        worker.run();
+        Mockito.verify(cm, Mockito.times(1)).putFeature(Mockito.argThat(new FeatureUid("f2")));
+        
+        // Update and delete
+        fs.update(new Feature("f2", true));
+        fs.delete("f1");
+        ps.deleteProperty("p1");
+        worker.run();
+        Assert.assertTrue(cm.getFeature("f2").isEnable());
+        Assert.assertNull(cm.getFeature("f1"));
+        Assert.assertNull(cm.getProperty("p1"));
+        Mockito.verify(cm, Mockito.never()).clearFeatures();
+        Mockito.verify(cm, Mockito.never()).clearProperties();
+    }
+    
+    @Test
+    public void testRestoreEntriesDroppedByCache() {
+        FeatureStore  fs    = new InMemoryFeatureStore();
+        PropertyStore ps    = new InMemoryPropertyStore();
+        FF4JCacheManager cm = new InMemoryCacheManager();
+        fs.create(new Feature("f1", true));
+        ps.createProperty(new PropertyString("p1", "v1"));
+        Store2CachePollingWorker worker = new Store2CachePollingWorker(fs, ps, cm);
+        worker.run();
+        
+        // Cache drops entries on its own (expiration, size bound), store did not change
+        cm.evictFeature("f1");
+        cm.evictProperty("p1");
+        worker.run();
+        Assert.assertNotNull(cm.getFeature("f1"));
+        Assert.assertNotNull(cm.getProperty("p1"));
+    }
+    
+    @Test
+    public void testStoreErrorKeepCache() {
+        FeatureStore fs = Mockito.mock(FeatureStore.class);
+        Mockito.when(fs.featureChangesSince(Mockito.anyLong())).thenThrow(new IllegalStateException("down"));
+        FF4JCacheManager cm = new InMemoryCacheManager();
+        cm.putFeature(new Feature("f1", true));
+        new Store2CachePollingWorker(fs, null, cm).run();
+        Assert.assertNotNull(cm.getFeature("f1"));
+    }
+    
+    /** Match feature on uid. */
+    private static class FeatureUid extends org.mockito.ArgumentMatcher<Feature> {
+        
+        /** expected uid. */
+        private final String uid;
+        
+        /**
+         * Expected uid.
+         *
+         * @param uid
+         *      feature identifier
+         */
+        public FeatureUid(String uid) {
+            this.uid = uid;
+        }
+        
+        /** {@inheritDoc} */
+        @Override
+        public boolean matches(Object argument) {
+            return argument instanceof Feature && uid.equals(((Feature) argument).getUid());
+        }
+    }
+
+}
@@ -34,6 +34,7 @@ import org.ff4j.property.PropertyLogLevel;
 import org.ff4j.property.PropertyLogLevel.LogLevel;
 import org.ff4j.property.PropertyString;
 import org.ff4j.property.store.PropertyStore;
+import org.ff4j.store.ImportReport;
 import org.ff4j.store.InMemoryFeatureStore;
 import org.junit.Assert;
 import org.junit.Before;
@@ -449,9 +450,12 @@ public abstract class AbstractPropertyStoreJunitTest {
         setOfProperty.add(new PropertyLogLevel("a", LogLevel.INFO));
         setOfProperty.add(new PropertyLogLevel("titi1", LogLevel.INFO));
         setOfProperty.add(new PropertyLogLevel("titi2", LogLevel.INFO));
-        testedStore.importProperties(setOfProperty);
+        ImportReport report = testedStore.importProperties(setOfProperty);
         
         // Then
+        Assert.assertEquals(2, report.getCreatedCount());
+        Assert.assertEquals(1, report.getUpdatedCount());
+        Assert.assertTrue(report.isSuccess());
         Assert.assertTrue(testedStore.existProperty("titi1"));
         Assert.assertTrue(testedStore.existProperty("titi2"));
         Assert.assertTrue(testedStore.existProperty("a"));
@@ -22,12 +22,17 @@ package org.ff4j.test.property;
 import static org.mockito.Mockito.doThrow;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.sql.DataSource;
 
 import org.ff4j.exception.PropertyAccessException;
+import org.ff4j.property.Property;
 import org.ff4j.property.PropertyString;
 import org.ff4j.property.store.JdbcPropertyStore;
+import org.ff4j.store.ImportReport;
+import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
 
@@ -113,5 +118,21 @@ public class JdbcPropertyStoreErrorTest {
         jrepo.setDataSource(mockDS);
         jrepo.clear();
     }
+    
+    @Test
+    public void testImportKO()  throws SQLException {
+        DataSource mockDS = Mockito.mock(DataSource.class);
+        doThrow(new SQLException("down")).when(mockDS).getConnection();
+        JdbcPropertyStore jrepo = new JdbcPropertyStore(mockDS);
+        jrepo.setDataSource(mockDS);
+        List<Property<?>> properties = new ArrayList<Property<?>>();
+        properties.add(new PropertyString("p1", "v1"));
+        properties.add(new PropertyString("p2", "v2"));
+        ImportReport report = jrepo.importProperties(properties);
+        Assert.assertFalse(report.isSuccess());
+        Assert.assertEquals(0, report.getCreatedCount());
+        Assert.assertEquals(2, report.getFailedCount());
+        Assert.assertTrue(report.getFailed().get("p1").contains("down"));
+    }
 
 }
@@ -0,0 +1,161 @@
+package org.ff4j.test.security;
+
+/*
+ * #%L
+ * ff4j-core
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ff4j.FF4j;
+import org.ff4j.core.FlippingExecutionContext;
+import org.ff4j.security.PermissionSnapshot;
+import org.ff4j.security.RoleRegistry;
+import org.ff4j.test.DefinedPermissionSecurityManager;
+import org.ff4j.test.TestConstantsFF4j;
+import org.ff4j.utils.Util;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Permissions of the user are read once per execution context (or per thread with a time to live).
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class PermissionSnapshotTest implements TestConstantsFF4j {
+
+    /** Authorization manager counting calls, user can change. */
+    private static class CountingAuthorizationManager extends DefinedPermissionSecurityManager {
+        private final AtomicInteger calls = new AtomicInteger();
+        private String currentUser;
+        public CountingAuthorizationManager(String user, Set<String> roles) {
+            super(roles);
+            this.currentUser = user;
+        }
+        public Set<String> getCurrentUserPermissions() {
+            calls.incrementAndGet();
+            return super.getCurrentUserPermissions();
+        }
+        public String getCurrentUserName() {
+            return currentUser;
+        }
+    }
+
+    @Test
+    public void testPermissionsReadOncePerContext() {
+        CountingAuthorizationManager authManager = new CountingAuthorizationManager("john", Util.set(ROLE_USER));
+        FF4j ff4j = new FF4j("ff4j.xml");
+        ff4j.setAuthorizationsManager(authManager);
+        FlippingExecutionContext ctx = new FlippingExecutionContext();
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(ff4j.check(F1, ctx));
+        }
+        Assert.assertEquals(1, authManager.calls.get());
+        Assert.assertNotNull(ctx.getPermissionSnapshot());
+        Assert.assertEquals("john", ctx.getPermissionSnapshot().getUserName());
+    }
+
+    @Test
+    public void testPermissionsReadAgainWhenUserChanges() {
+        CountingAuthorizationManager authManager = new CountingAuthorizationManager("john", Util.set(ROLE_USER));
+        FF4j ff4j = new FF4j("ff4j.xml");
+        ff4j.setAuthorizationsManager(authManager);
+        FlippingExecutionContext ctx = new FlippingExecutionContext();
+        ff4j.check(F1, ctx);
+        authManager.currentUser = "jane";
+        ff4j.check(F1, ctx);
+        Assert.assertEquals(2, authManager.calls.get());
+        Assert.assertEquals("jane", ctx.getPermissionSnapshot().getUserName());
+    }
+
+    @Test
+    public void testCompiledModeWithSnapshot() {
+        FF4j ff4jUser  = new FF4j("ff4j.xml").compile();
+        ff4jUser.setAuthorizationsManager(new DefinedPermissionSecurityManager(Util.set(ROLE_USER)));
+        FF4j ff4jAdmin = new FF4j("ff4j.xml").compile();
+        ff4jAdmin.setAuthorizationsManager(new DefinedPermissionSecurityManager(Util.set(ROLE_ADMIN)));
+        Assert.assertTrue(ff4jUser.check(F1, new FlippingExecutionContext()));
+        Assert.assertFalse(ff4jAdmin.check(F1, new FlippingExecutionContext()));
+    }
+
+    @Test
+    public void testThreadScopeWithTimeToLive() {
+        CountingAuthorizationManager authManager = new CountingAuthorizationManager("john", Util.set(ROLE_USER));
+        FF4j ff4j = new FF4j("ff4j.xml");
+        ff4j.setAuthorizationsManager(authManager);
+        ff4j.check(F1);
+        ff4j.check(F1);
+        Assert.assertEquals(2, authManager.calls.get());
+        ff4j.setPermissionsTimeToLive(60000);
+        ff4j.check(F1);
+        ff4j.check(F1);
+        Assert.assertEquals(3, authManager.calls.get());
+    }
+
+    @Test
+    public void testPermissionsNotReadForDisabledOrPublicFeatures() {
+        CountingAuthorizationManager authManager = new CountingAuthorizationManager("john", Util.set(ROLE_USER));
+        FF4j ff4j = new FF4j("ff4j.xml");
+        ff4j.setAuthorizationsManager(authManager);
+        FlippingExecutionContext ctx = new FlippingExecutionContext();
+        Assert.assertFalse(ff4j.check(F2, ctx));
+        Assert.assertTrue(ff4j.check("AwesomeFeature", ctx));
+        Assert.assertTrue(ff4j.checkOveridingStrategy("AwesomeFeature", null, ctx));
+        Assert.assertFalse(ff4j.checkAll(Util.set(F2, "AwesomeFeature"), ctx).get(F2));
+        Assert.assertTrue(ff4j.isAllowed(ff4j.getFeature("AwesomeFeature")));
+        ff4j.compile();
+        Assert.assertFalse(ff4j.check(F2, ctx));
+        Assert.assertTrue(ff4j.check("AwesomeFeature", ctx));
+        Assert.assertEquals(0, authManager.calls.get());
+        Assert.assertNull(ctx.getPermissionSnapshot());
+        Assert.assertTrue(ff4j.check(F1, ctx));
+        Assert.assertEquals(1, authManager.calls.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeTimeToLive() {
+        new FF4j().setPermissionsTimeToLive(-1);
+    }
+
+    @Test
+    public void testSnapshotMatching() {
+        PermissionSnapshot snapshot = new PermissionSnapshot("john", Util.set(ROLE_USER));
+        Assert.assertTrue(snapshot.isAllowed(Util.set(ROLE_ADMIN, ROLE_USER)));
+        Assert.assertFalse(snapshot.isAllowed(Util.set(ROLE_ADMIN)));
+        Assert.assertFalse(snapshot.isAllowed(Util.set("never-interned-role")));
+        Assert.assertTrue(snapshot.isAllowed((Set<String>) null));
+        Assert.assertTrue(snapshot.isAllowed(RoleRegistry.toBitSet(Util.set(ROLE_USER))));
+        Assert.assertTrue(snapshot.isSamePrincipal("john"));
+        Assert.assertFalse(snapshot.isSamePrincipal(null));
+        Assert.assertEquals(RoleRegistry.intern(ROLE_USER), RoleRegistry.idOf(ROLE_USER));
+    }
+
+    @Test
+    public void testUserRolesNotRegistered() {
+        int registered = RoleRegistry.size();
+        PermissionSnapshot snapshot = new PermissionSnapshot("john", Util.set("user-only-role-1", "user-only-role-2"));
+        Assert.assertEquals(registered, RoleRegistry.size());
+        Assert.assertEquals(-1, RoleRegistry.idOf("user-only-role-1"));
+        Assert.assertTrue(snapshot.isAllowed(Util.set("user-only-role-1")));
+        // Role declared on a feature after the snapshot has been taken
+        Assert.assertTrue(snapshot.isAllowed(RoleRegistry.toBitSet(Util.set("user-only-role-2"))));
+        Assert.assertFalse(snapshot.isAllowed(RoleRegistry.toBitSet(Util.set("feature-only-role"))));
+    }
+
+}
@@ -25,6 +25,7 @@ import org.ff4j.exception.FeatureNotFoundException;
 import org.ff4j.exception.GroupNotFoundException;
 import org.ff4j.property.PropertyInt;
 import org.ff4j.property.PropertyString;
+import org.ff4j.store.ImportReport;
 import org.ff4j.strategy.PonderationStrategy;
 import org.ff4j.test.AssertFf4j;
 import org.ff4j.test.TestConstantsFF4j;
@@ -99,6 +100,24 @@ public abstract class CoreFeatureStoreTestSupport implements TestConstantsFF4j {
         assertFf4j.assertThatFeatureIsInGroup(F4, G1);
     }
 
+    /**
+     * TDD.
+     */
+    @Test
+    public void testReadFeatures() {
+        // Given
+        assertFf4j.assertThatFeatureExist(F1);
+        assertFf4j.assertThatFeatureExist(F4);
+        assertFf4j.assertThatFeatureDoesNotExist("i-dont-exist");
+        // When
+        Map<String, Feature> features = testedStore.readFeatures(Util.set(F1, F4, "i-dont-exist"));
+        // Then
+        Assert.assertEquals(2, features.size());
+        Assert.assertEquals(F4, features.get(F4).getUid());
+        Assert.assertTrue(features.get(F4).getPermissions().contains(ROLE_ADMIN));
+        Assert.assertTrue(testedStore.readFeatures(new HashSet<String>()).isEmpty());
+    }
+
     /**
      * TDD.
      */
@@ -1167,4 +1186,33 @@ public abstract class CoreFeatureStoreTestSupport implements TestConstantsFF4j {
     }
     
 
+    /**
+     * TDD.
+     */
+    @Test
+    public void testImportFeatures() {
+        // Given
+        assertFf4j.assertThatFeatureExist(F1);
+        assertFf4j.assertThatFeatureDoesNotExist("fx-import");
+        Feature f1 = new Feature(F1, false, "imported", G1, Util.set("ADMIN"));
+        f1.getCustomProperties().put("ppint", new PropertyInt("ppint", 12));
+        Feature fx = new Feature("fx-import", true, null, null, Util.set("USER", "ADMIN"));
+        // When
+        ImportReport report = testedStore.importFeatures(Arrays.asList(f1, fx, null));
+        // Then
+        Assert.assertEquals(1, report.getCreatedCount());
+        Assert.assertEquals(1, report.getUpdatedCount());
+        Assert.assertEquals(1, report.getFailedCount());
+        Assert.assertTrue(report.getCreated().contains("fx-import"));
+        Assert.assertTrue(report.getUpdated().contains(F1));
+        assertFf4j.assertThatStoreHasSize(EXPECTED_FEATURES_NUMBERS + 1);
+        assertFf4j.assertThatFeatureIsDisabled(F1);
+        assertFf4j.assertThatFeatureIsInGroup(F1, G1);
+        assertFf4j.assertThatFeatureHasRole(F1, "ADMIN");
+        assertFf4j.assertThatFeatureHasProperty(F1, "ppint");
+        assertFf4j.assertThatFeatureHasNotProperty(F1, "regionIdentifier");
+        assertFf4j.assertThatFeatureHasRole("fx-import", "USER");
+        assertFf4j.assertThatFeatureHasRole("fx-import", "ADMIN");
+    }
+    
 }
@@ -13,14 +13,25 @@ import org.ff4j.audit.EventQueryDefinition;
  * governing permissions and limitations under the License. #L%
  */
 
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.ff4j.core.Feature;
 import org.ff4j.core.FeatureStore;
 import org.ff4j.exception.FeatureNotFoundException;
 import org.ff4j.exception.GroupNotFoundException;
 import org.ff4j.store.JdbcFeatureStore;
 import org.ff4j.store.JdbcQueryBuilder;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
@@ -96,6 +107,41 @@ public class JdbcFeatureStoreCoreTest extends CoreFeatureStoreTestSupport {
         e1.getNamesFilter().add("aaa");
         e1.getSourceFilters().add("java");
         builder.buildWhereClause(e1, true, false);
+        builder.getRolesIn(2);
+        builder.getCustomPropertiesIn(2);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testQueryBuilderEmptyInClause() {
+        new JdbcQueryBuilder().buildParamsIn(0);
+    }
+    
+    @Test
+    public void testReadAllSingleConnection() throws SQLException {
+        // Schema is checked once, before counting connections
+        JdbcFeatureStore jdbcStore = new JdbcFeatureStore(db);
+        jdbcStore.getQueryBuilder();
+        DataSource ds = Mockito.spy(new DelegatingDataSource(db));
+        jdbcStore.setDataSource(ds);
+        Map<String, Feature> features = jdbcStore.readAll();
+        Assert.assertEquals(EXPECTED_FEATURES_NUMBERS, features.size());
+        Assert.assertTrue(features.get(F4).getPermissions().contains(ROLE_ADMIN));
+        Assert.assertFalse(features.get(F1).getCustomProperties().isEmpty());
+        Mockito.verify(ds, Mockito.times(1)).getConnection();
+    }
+    
+    @Test
+    public void testReadFeaturesLargeInClause() {
+        Set<String> uids = new HashSet<String>();
+        for (int i = 0; i < JdbcFeatureStore.MAX_IN_CLAUSE_SIZE + 10; i++) {
+            uids.add("f" + i);
+        }
+        uids.add(F1);
+        uids.add(F4);
+        Map<String, Feature> features = testedStore.readFeatures(uids);
+        Assert.assertEquals(2, features.size());
+        Assert.assertEquals(testedStore.read(F1).getCustomProperties().size(),
+                features.get(F1).getCustomProperties().size());
     }
     
     @Test(expected = GroupNotFoundException.class)
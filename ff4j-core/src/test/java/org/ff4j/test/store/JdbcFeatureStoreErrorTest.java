@@ -32,9 +32,11 @@ import org.ff4j.core.Feature;
 import org.ff4j.exception.FeatureAccessException;
 import org.ff4j.property.Property;
 import org.ff4j.property.PropertyString;
+import org.ff4j.store.ImportReport;
 import org.ff4j.store.JdbcFeatureStore;
 import org.ff4j.store.JdbcStoreConstants;
 import org.ff4j.utils.JdbcUtils;
+import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
 
@@ -189,6 +191,21 @@ public class JdbcFeatureStoreErrorTest {
         jrepo.setDataSource(mockDS);
         jrepo.update(JdbcStoreConstants.SQL_DISABLE, "F4");
     }
-
+    
+    @Test
+    public void testImportKO()  throws SQLException {
+        DataSource mockDS = Mockito.mock(DataSource.class);
+        doThrow(new SQLException("down")).when(mockDS).getConnection();
+        JdbcFeatureStore jrepo = new JdbcFeatureStore(mockDS);
+        jrepo.setDataSource(mockDS);
+        List<Feature> features = new ArrayList<Feature>();
+        features.add(new Feature("F1", true));
+        features.add(new Feature("F2", false));
+        ImportReport report = jrepo.importFeatures(features);
+        Assert.assertFalse(report.isSuccess());
+        Assert.assertEquals(0, report.getCreatedCount());
+        Assert.assertEquals(2, report.getFailedCount());
+        Assert.assertTrue(report.getFailed().get("F1").contains("down"));
+    }
 
 }
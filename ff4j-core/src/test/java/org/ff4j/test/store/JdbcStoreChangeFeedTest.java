@@ -0,0 +1,176 @@
+package org.ff4j.test.store;
+
+import org.ff4j.audit.EventQueryDefinition;
+
+/*
+ * #%L ff4j-core %% Copyright (C) 2013 Ff4J %% Licensed under the Apache License, Version 2.0 (the "License"); you may not use
+ * this file except in compliance with the License. You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS"
+ * BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License. #L%
+ */
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.ff4j.core.Feature;
+import org.ff4j.property.Property;
+import org.ff4j.property.PropertyString;
+import org.ff4j.property.store.JdbcPropertyStore;
+import org.ff4j.store.ChangeSet;
+import org.ff4j.store.JdbcFeatureStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ * Change feed of JDBC stores based on column LAST_MODIFIED.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class JdbcStoreChangeFeedTest {
+
+    /** DataBase. */
+    private EmbeddedDatabase db;
+    
+    /** Feature store. */
+    private JdbcFeatureStore featureStore;
+    
+    /** Property store. */
+    private JdbcPropertyStore propertyStore;
+    
+    @Before
+    public void setUp() {
+        db = new EmbeddedDatabaseBuilder().setName("changefeed")
+                .setType(EmbeddedDatabaseType.HSQL)
+                .addScript("classpath:schema-ddl.sql").build();
+        featureStore  = new JdbcFeatureStore(db);
+        propertyStore = new JdbcPropertyStore(db);
+        featureStore.setChangeFeedOverlap(0);
+        propertyStore.setChangeFeedOverlap(0);
+    }
+    
+    @After
+    public void tearDown() {
+        db.shutdown();
+    }
+    
+    @Test
+    public void testFeatureChangesSince() throws InterruptedException {
+        featureStore.create(new Feature("f2", false));
+        Thread.sleep(20);
+        featureStore.create(new Feature("f1", false));
+        
+        ChangeSet < Feature > all = featureStore.featureChangesSince(0);
+        Assert.assertEquals(2, all.getUpdated().size());
+        Assert.assertTrue(all.getVersion() > 0);
+        
+        Thread.sleep(20);
+        featureStore.enable("f1");
+        ChangeSet < Feature > delta = featureStore.featureChangesSince(all.getVersion());
+        Assert.assertTrue(delta.getUpdated().containsKey("f1"));
+        Assert.assertTrue(delta.getUpdated().get("f1").isEnable());
+        Assert.assertFalse(delta.getUpdated().containsKey("f2"));
+        Assert.assertFalse(delta.isDeleted("f2"));
+        
+        featureStore.delete("f2");
+        ChangeSet < Feature > deleted = featureStore.featureChangesSince(delta.getVersion());
+        Assert.assertTrue(deleted.isDeleted("f2"));
+        Assert.assertFalse(deleted.isDeleted("f1"));
+    }
+    
+    @Test
+    public void testFeatureChangesSinceGrantRole() throws InterruptedException {
+        featureStore.create(new Feature("f1", false));
+        long version = featureStore.featureChangesSince(0).getVersion();
+        Thread.sleep(20);
+        featureStore.grantRoleOnFeature("f1", "ADMIN");
+        ChangeSet < Feature > delta = featureStore.featureChangesSince(version);
+        Assert.assertTrue(delta.getUpdated().get("f1").getPermissions().contains("ADMIN"));
+    }
+    
+    @Test
+    public void testPropertyChangesSince() throws InterruptedException {
+        propertyStore.createProperty(new PropertyString("p2", "v2"));
+        Thread.sleep(20);
+        propertyStore.createProperty(new PropertyString("p1", "v1"));
+        
+        ChangeSet < Property<?> > all = propertyStore.propertyChangesSince(0);
+        Assert.assertEquals(2, all.getUpdated().size());
+        
+        Thread.sleep(20);
+        propertyStore.updateProperty("p1", "v1bis");
+        ChangeSet < Property<?> > delta = propertyStore.propertyChangesSince(all.getVersion());
+        Assert.assertEquals("v1bis", delta.getUpdated().get("p1").asString());
+        Assert.assertFalse(delta.getUpdated().containsKey("p2"));
+        
+        propertyStore.deleteProperty("p2");
+        Assert.assertTrue(propertyStore.propertyChangesSince(delta.getVersion()).isDeleted("p2"));
+    }
+    
+    @Test
+    public void testLateCommitReadInOverlap() throws SQLException {
+        featureStore.setChangeFeedOverlap(JdbcFeatureStore.DEFAULT_CHANGE_FEED_OVERLAP);
+        featureStore.create(new Feature("f1", false));
+        featureStore.create(new Feature("f2", false));
+        long version = featureStore.featureChangesSince(0).getVersion();
+        
+        // f2 committed after the poll, with a date before the version
+        featureStore.enable("f2");
+        Connection sqlConn = db.getConnection();
+        try {
+            PreparedStatement ps = sqlConn.prepareStatement(
+                    "UPDATE FF4J_FEATURES SET LAST_MODIFIED = ? WHERE FEAT_UID = 'f2'");
+            ps.setTimestamp(1, new Timestamp(version - 1000));
+            ps.executeUpdate();
+            ps.close();
+        } finally {
+            sqlConn.close();
+        }
+        ChangeSet < Feature > delta = featureStore.featureChangesSince(version);
+        Assert.assertTrue(delta.getUpdated().get("f2").isEnable());
+    }
+    
+    @Test
+    public void testSchemaWithoutLastModified() {
+        EmbeddedDatabase legacy = new EmbeddedDatabaseBuilder().setName("legacy")
+                .setType(EmbeddedDatabaseType.HSQL)
+                .addScript("classpath:schema-legacy.sql").build();
+        try {
+            JdbcFeatureStore  fs = new JdbcFeatureStore(legacy);
+            JdbcPropertyStore ps = new JdbcPropertyStore(legacy);
+            Assert.assertFalse(fs.getQueryBuilder().isFeaturesLastModified());
+            Assert.assertFalse(ps.getQueryBuilder().isPropertiesLastModified());
+            
+            // Writes do not use the column
+            fs.create(new Feature("f1", false));
+            fs.enable("f1");
+            fs.grantRoleOnFeature("f1", "ADMIN");
+            fs.update(new Feature("f1", false));
+            ps.createProperty(new PropertyString("p1", "v1"));
+            ps.updateProperty("p1", "v2");
+            
+            // Change feed falls back to snapshots
+            Assert.assertTrue(fs.featureChangesSince(0).isSnapshot());
+            Assert.assertTrue(fs.featureChangesSince(1000).getUpdated().containsKey("f1"));
+            Assert.assertEquals("v2", ps.propertyChangesSince(1000).getUpdated().get("p1").asString());
+        } finally {
+            legacy.shutdown();
+        }
+    }
+
+}
@@ -11,12 +11,18 @@ package org.ff4j.test.strategy.el;
  * governing permissions and limitations under the License. #L%
  */
 
+import java.util.Set;
+
 import org.ff4j.FF4j;
+import org.ff4j.core.FeatureStore;
 import org.ff4j.core.FlippingExecutionContext;
+import org.ff4j.store.InMemoryFeatureStore;
 import org.ff4j.strategy.el.ExpressionFlipStrategy;
 import org.ff4j.test.AssertFf4j;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
 
 /**
  * Tests for {@link ExpressionFlipStrategy} class.
@@ -67,4 +73,19 @@ public class ExpressionFlipStategyTest {
         Assert.assertFalse(efs.evaluate("D", ff4j.getFeatureStore(), fex));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReadOnlyReferencedFeatures() {
+        FeatureStore store = Mockito.spy(new InMemoryFeatureStore("test-expressionFlipStategy-ok.xml"));
+        ExpressionFlipStrategy efs = new ExpressionFlipStrategy("D", "A & (B | !C)");
+        Assert.assertTrue(efs.evaluate("D", store, null));
+        
+        ArgumentCaptor<Set> names = ArgumentCaptor.forClass(Set.class);
+        Mockito.verify(store, Mockito.never()).readAll();
+        Mockito.verify(store).readFeatures(names.capture());
+        Assert.assertEquals(3, names.getValue().size());
+        Assert.assertTrue(names.getValue().contains("A"));
+        Assert.assertFalse(names.getValue().contains("D"));
+    }
+
 }
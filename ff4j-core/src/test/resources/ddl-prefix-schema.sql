@@ -26,6 +26,7 @@ CREATE TABLE T_FF4J_FEATURES_01 (
   "STRATEGY"		VARCHAR(1000),
   "EXPRESSION"	    VARCHAR(255),
   "GROUPNAME"		VARCHAR(100),
+  "LAST_MODIFIED"	TIMESTAMP,
   PRIMARY KEY("FEAT_UID")
 );
 
@@ -54,6 +55,7 @@ CREATE TABLE T_FF4J_PROPERTIES_01 (
   "CURRENTVALUE" VARCHAR(255),
   "FIXEDVALUES"	 VARCHAR(1000),
   "DESCRIPTION"	 VARCHAR(1000),
+  "LAST_MODIFIED" TIMESTAMP,
   PRIMARY KEY("PROPERTY_ID")
 );
 
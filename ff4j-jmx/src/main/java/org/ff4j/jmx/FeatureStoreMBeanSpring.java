@@ -6,6 +6,8 @@ import java.util.Set;
 
 import org.ff4j.core.Feature;
 import org.ff4j.core.FeatureStore;
+import org.ff4j.store.ChangeSet;
+import org.ff4j.store.ImportReport;
 import org.springframework.jmx.export.annotation.ManagedOperation;
 import org.springframework.jmx.export.annotation.ManagedOperationParameter;
 import org.springframework.jmx.export.annotation.ManagedOperationParameters;
@@ -89,6 +91,18 @@ public class FeatureStoreMBeanSpring implements FeatureStore {
         return null;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Feature> readFeatures(Set<String> featureIds) {
+        return internalStore.readFeatures(featureIds);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ChangeSet<Feature> featureChangesSince(long version) {
+        return internalStore.featureChangesSince(version);
+    }
+
     /** {@inheritDoc} */
     @Override
     public void delete(String fpId) {
@@ -175,9 +189,9 @@ public class FeatureStoreMBeanSpring implements FeatureStore {
 
     /** {@inheritDoc} */
     @Override
-    public void importFeatures(Collection<Feature> features) {
+    public ImportReport importFeatures(Collection<Feature> features) {
         // TODO Auto-generated method stub
-        
+        return new ImportReport();
     }
 
     /** {@inheritDoc} */
@@ -34,6 +34,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.ff4j.services.constants.FeatureConstants.*;
@@ -95,4 +97,29 @@ public class FF4jResource {
         Boolean status = ff4JServices.check(featureUID, map);
         return new ResponseEntity<Boolean>(status, OK);
     }
+
+    @RequestMapping(value = "/" + OPERATION_CHECK, method = GET, produces = APPLICATION_JSON_VALUE)
+    @ApiOperation(value = "<b>Bulk check</b> of feature toggles", response = Map.class)
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "Status of each feature"),
+            @ApiResponse(code = 400, message = "Feature uid is blank"),
+            @ApiResponse(code = 404, message = "Feature not found")})
+    public ResponseEntity<Map<String, Boolean>> checkAll(@RequestParam(value = PARAM_UID, required = false) List<String> featureUIDs) {
+        Map<String, Boolean> statuses = ff4JServices.checkAll(featureUIDs, new HashMap<String, String>());
+        return new ResponseEntity<Map<String, Boolean>>(statuses, OK);
+    }
+
+    @RequestMapping(value = "/" + OPERATION_CHECK, method = POST, consumes = APPLICATION_FORM_URLENCODED_VALUE, produces = APPLICATION_JSON_VALUE)
+    @ApiOperation(value = "<b>Bulk check</b> of feature toggles (parametrized)", response = Map.class)
+    @ApiResponses({
+            @ApiResponse(code = 200, message = "Status of each feature"),
+            @ApiResponse(code = 400, message = "Invalid parameter"),
+            @ApiResponse(code = 404, message = "Feature not found")})
+    public ResponseEntity<Map<String, Boolean>> checkAll(@RequestParam MultiValueMap<String, String> formParams) {
+        List<String> featureUIDs = formParams.get(PARAM_UID);
+        Map<String, String> map = formParams.toSingleValueMap();
+        map.remove(PARAM_UID);
+        Map<String, Boolean> statuses = ff4JServices.checkAll(featureUIDs, map);
+        return new ResponseEntity<Map<String, Boolean>>(statuses, OK);
+    }
 }
@@ -4,6 +4,7 @@ Feature: Provides RESTful api's to do the following
   - Provide core information on ff4J and available sub resources
   - Display security resources
   - Check if a feature is flipped
+  - Check if several features are flipped in a single call
   - Initialize a flip strategy and check if the feature has been flipped
 
   Background:
@@ -88,6 +89,35 @@ Feature: Provides RESTful api's to do the following
     When the user requests for a feature by "/api/ff4j/check/cart" by "GET" http method and content type as "application/json"
     Then the user gets an error response with code "404" and error message as "feature not found"
 
+  # Check several features in a single call
+  Scenario: When the user tries to know whether several features are flipped
+    When the user requests for a feature by "/api/ff4j/check?uid=login&uid=admin" by "GET" http method and content type as "application/json"
+    Then the user gets the response with response code "200"
+    And the response body as
+    """
+    {
+      "login": true,
+      "admin": false
+    }
+    """
+    When the user requests for a feature by "/api/ff4j/check" by "POST" http method and content type as "application/x-www-form-urlencoded"
+    And the following form param
+      | name | value |
+      | uid  | login |
+      | uid  | admin |
+    Then the user gets the response with response code "200"
+    And the response body as
+    """
+    {
+      "login": true,
+      "admin": false
+    }
+    """
+
+  Scenario: When the user tries to know whether several features are flipped and one feature does not exist
+    When the user requests for a feature by "/api/ff4j/check?uid=login&uid=cart" by "GET" http method and content type as "application/json"
+    Then the user gets an error response with code "404" and error message as "feature not found"
+
 
   # Initialize a flip strategy with an execution strategy and check if the feature has been flipped
   Scenario: When the user tries to initialize a feature of its flipping strategy with an execution strategy
@@ -26,10 +26,13 @@ import org.ff4j.security.AuthorizationsManager;
 import org.ff4j.services.domain.AuthorizationsManagerApiBean;
 import org.ff4j.services.domain.FF4jStatusApiBean;
 import org.ff4j.services.exceptions.AuthorizationNotExistsException;
+import org.ff4j.services.exceptions.FeatureIdBlankException;
+import org.ff4j.services.exceptions.FeatureNotFoundException;
 import org.ff4j.services.validator.FeatureValidator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -67,4 +70,23 @@ public class FF4jServices {
         }
         return ff4j.check(featureUID, flipExecCtx);
     }
+
+    public Map<String, Boolean> checkAll(Collection<String> featureUIDs, Map<String, String> map) {
+        if (featureUIDs == null || featureUIDs.isEmpty()) {
+            throw new FeatureIdBlankException();
+        }
+        for (String featureUID : featureUIDs) {
+            featureValidator.assertFeatureUIDIsNotBlank(featureUID);
+        }
+        FlippingExecutionContext flipExecCtx = new FlippingExecutionContext();
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            flipExecCtx.putString(entry.getKey(), entry.getValue());
+        }
+        try {
+            // Single store access for all features, checked existence included
+            return ff4j.checkAll(featureUIDs, flipExecCtx);
+        } catch (org.ff4j.exception.FeatureNotFoundException fnfe) {
+            throw new FeatureNotFoundException();
+        }
+    }
 }
@@ -3,10 +3,14 @@ package org.ff4j.cassandra;
 import static org.ff4j.cassandra.CassandraConstants.CQL_CREATEKEYSPACE;
 import static org.ff4j.cassandra.CassandraConstants.DEFAULT_HOST;
 import static org.ff4j.cassandra.CassandraConstants.DEFAULT_KEYSPACE;
+import static org.ff4j.cassandra.CassandraConstants.DEFAULT_MAX_REQUESTS_IN_FLIGHT;
 import static org.ff4j.cassandra.CassandraConstants.DEFAULT_REPLICATION_FACTOR;
 import static org.ff4j.cassandra.CassandraConstants.PORT_CQL_NATIVE;
 
 import java.text.MessageFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
 
 import org.ff4j.utils.Util;
 
@@ -39,8 +43,14 @@ import com.datastax.driver.core.Cluster.Builder;
 import com.datastax.driver.core.Host;
 import com.datastax.driver.core.KeyspaceMetadata;
 import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
 import com.datastax.driver.core.TableMetadata;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 
 /**
  * Connection to Cassandra.
@@ -76,6 +86,16 @@ public class CassandraConnection {
     /** current replication factor. */
     private int replicationFactor = DEFAULT_REPLICATION_FACTOR;
     
+    /** Prepared statements, prepared once per CQL query. */
+    private final ConcurrentMap < String, PreparedStatement > preparedStatements = 
+            new ConcurrentHashMap<String, PreparedStatement>();
+    
+    /** Maximum number of asynchronous requests in flight. */
+    private int maxRequestsInFlight = DEFAULT_MAX_REQUESTS_IN_FLIGHT;
+    
+    /** Permits for asynchronous requests. */
+    private volatile Semaphore requestsInFlight = new Semaphore(DEFAULT_MAX_REQUESTS_IN_FLIGHT);
+    
     /** Default. */
     public CassandraConnection() {
     }
@@ -152,6 +172,56 @@ public class CassandraConnection {
         LOGGER.info("Connection Successful.");
     }
     
+    /**
+     * Prepare a CQL query once and reuse the statement afterwards.
+     *
+     * @param cql
+     *      query with bind markers
+     * @return
+     *      prepared statement
+     */
+    public PreparedStatement prepare(String cql) {
+        PreparedStatement ps = preparedStatements.get(cql);
+        if (ps == null) {
+            ps = getSession().prepare(cql);
+            PreparedStatement previous = preparedStatements.putIfAbsent(cql, ps);
+            if (previous != null) {
+                ps = previous;
+            }
+        }
+        return ps;
+    }
+    
+    /**
+     * Execute a statement asynchronously. When the maximum number of requests in flight
+     * is reached the caller waits for a request to complete.
+     *
+     * @param statement
+     *      statement to execute
+     * @return
+     *      future result
+     */
+    public ResultSetFuture executeAsync(Statement statement) {
+        final Semaphore permits = requestsInFlight;
+        permits.acquireUninterruptibly();
+        ResultSetFuture future;
+        try {
+            future = getSession().executeAsync(statement);
+        } catch (RuntimeException re) {
+            permits.release();
+            throw re;
+        }
+        Futures.addCallback(future, new FutureCallback<ResultSet>() {
+            public void onSuccess(ResultSet rs) {
+                permits.release();
+            }
+            public void onFailure(Throwable t) {
+                permits.release();
+            }
+        });
+        return future;
+    }
+    
     /**
      * Create keySpace with default value.
      */
@@ -165,6 +235,8 @@ public class CassandraConnection {
     public void dropSchema() {
         CassandraQueryBuilder cqb = new CassandraQueryBuilder(this);
         getSession().execute(cqb.cqlDropAudit());
+        getSession().execute(cqb.cqlDropFeatureUsage());
+        getSession().execute(cqb.cqlDropFeatureUsageHits());
         getSession().execute(cqb.cqlDropFeatures());
         getSession().execute(cqb.cqlDropProperties());
     }
@@ -199,6 +271,7 @@ public class CassandraConnection {
     
     /** Close cluster. */  
     public void close() {
+       preparedStatements.clear();
        getSession().close();
        getCluster().close();  
     }
@@ -277,6 +350,29 @@ public class CassandraConnection {
         this.replicationFactor = replicationFactor;
     }
 
+    /**
+     * Getter accessor for attribute 'maxRequestsInFlight'.
+     *
+     * @return
+     *       current value of 'maxRequestsInFlight'
+     */
+    public int getMaxRequestsInFlight() {
+        return maxRequestsInFlight;
+    }
+
+    /**
+     * Setter accessor for attribute 'maxRequestsInFlight'.
+     * @param maxRequestsInFlight
+     * 		new value for 'maxRequestsInFlight '
+     */
+    public void setMaxRequestsInFlight(int maxRequestsInFlight) {
+        if (maxRequestsInFlight < 1) {
+            throw new IllegalArgumentException("Maximum number of requests in flight must be positive");
+        }
+        this.maxRequestsInFlight = maxRequestsInFlight;
+        this.requestsInFlight    = new Semaphore(maxRequestsInFlight);
+    }
+
     /**
      * Getter accessor for attribute 'userPassword'.
      *
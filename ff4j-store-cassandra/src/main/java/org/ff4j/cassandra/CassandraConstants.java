@@ -61,6 +61,18 @@ public class CassandraConstants {
     /** Default keySpace. */
     public static final int DEFAULT_REPLICATION_FACTOR = 3;
     
+    /** Default number of asynchronous requests in flight for a connection. */
+    public static final int DEFAULT_MAX_REQUESTS_IN_FLIGHT = 256;
+    
+    /** Number of rows fetched per page when reading events. */
+    public static final int EVENT_PAGE_SIZE = 1000;
+    
+    /** Maximum number of statements in an unlogged batch (same partition). */
+    public static final int EVENT_BATCH_SIZE = 100;
+    
+    /** Number of features or properties written in one logged batch when importing. */
+    public static final int IMPORT_BATCH_SIZE = 50;
+    
     // ------- AUDIT -------------
 
     /** column Family. */
@@ -102,6 +114,26 @@ public class CassandraConstants {
     /** sql column name for table FF4J_AUDIT. */
     public static final String COL_EVENT_KEYS = "KEYS";
     
+    /** sql column name for table FF4J_AUDIT. */
+    public static final String COL_EVENT_HOUR = "HOUR";
+    
+    // ------- FEATURE USAGE -------------
+    
+    /** column Family, feature usage events partitioned by feature and hour. */
+    public static final String COLUMN_FAMILY_FEATURE_USAGE = "feature_usage";
+    
+    /** column Family, hit counters partitioned by day and dimension. */
+    public static final String COLUMN_FAMILY_FEATURE_USAGE_HITS = "feature_usage_hits";
+    
+    /** sql column name for table feature_usage_hits. */
+    public static final String COL_HITS_DIMENSION = "DIMENSION";
+    
+    /** sql column name for table feature_usage_hits. */
+    public static final String COL_HITS_ITEM = "ITEM";
+    
+    /** sql column name for table feature_usage_hits. */
+    public static final String COL_HITS_COUNT = "HITS";
+    
     // -----  Features ---------
     
     /** column Family. */
@@ -1,6 +1,5 @@
 package org.ff4j.cassandra;
 
-import static org.ff4j.audit.EventConstants.ACTION_CHECK_OK;
 import static org.ff4j.cassandra.CassandraConstants.COLUMN_FAMILY_AUDIT;
 
 /*
@@ -24,11 +23,14 @@ import static org.ff4j.cassandra.CassandraConstants.COLUMN_FAMILY_AUDIT;
  */
 
 import static org.ff4j.cassandra.CassandraConstants.COLUMN_FAMILY_FEATURES;
+import static org.ff4j.cassandra.CassandraConstants.COLUMN_FAMILY_FEATURE_USAGE;
+import static org.ff4j.cassandra.CassandraConstants.COLUMN_FAMILY_FEATURE_USAGE_HITS;
 import static org.ff4j.cassandra.CassandraConstants.COLUMN_FAMILY_PROPERTIES;
 import static org.ff4j.cassandra.CassandraConstants.COL_EVENT_ACTION;
 import static org.ff4j.cassandra.CassandraConstants.COL_EVENT_DATE;
 import static org.ff4j.cassandra.CassandraConstants.COL_EVENT_DURATION;
 import static org.ff4j.cassandra.CassandraConstants.COL_EVENT_HOSTNAME;
+import static org.ff4j.cassandra.CassandraConstants.COL_EVENT_HOUR;
 import static org.ff4j.cassandra.CassandraConstants.COL_EVENT_KEYS;
 import static org.ff4j.cassandra.CassandraConstants.COL_EVENT_NAME;
 import static org.ff4j.cassandra.CassandraConstants.COL_EVENT_SOURCE;
@@ -44,6 +46,9 @@ import static org.ff4j.cassandra.CassandraConstants.COL_FEAT_GROUPNAME;
 import static org.ff4j.cassandra.CassandraConstants.COL_FEAT_ROLES;
 import static org.ff4j.cassandra.CassandraConstants.COL_FEAT_STRATEGY;
 import static org.ff4j.cassandra.CassandraConstants.COL_FEAT_UID;
+import static org.ff4j.cassandra.CassandraConstants.COL_HITS_COUNT;
+import static org.ff4j.cassandra.CassandraConstants.COL_HITS_DIMENSION;
+import static org.ff4j.cassandra.CassandraConstants.COL_HITS_ITEM;
 import static org.ff4j.cassandra.CassandraConstants.COL_PROPERTY_CLAZZ;
 import static org.ff4j.cassandra.CassandraConstants.COL_PROPERTY_DESCRIPTION;
 import static org.ff4j.cassandra.CassandraConstants.COL_PROPERTY_FIXED;
@@ -51,11 +56,6 @@ import static org.ff4j.cassandra.CassandraConstants.COL_PROPERTY_ID;
 import static org.ff4j.cassandra.CassandraConstants.COL_PROPERTY_VALUE;
 
 import java.text.SimpleDateFormat;
-import java.util.Collection;
-import java.util.Date;
-
-import org.ff4j.audit.EventConstants;
-import org.ff4j.audit.EventQueryDefinition;
 
 import com.datastax.driver.core.Statement;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
@@ -162,6 +162,27 @@ public class CassandraQueryBuilder {
                " WHERE " + COL_FEAT_UID + " = ?";
     }
     
+    public String cqlReadFeatureEnable() {
+        return "SELECT " + COL_FEAT_ENABLE + " FROM " + connection.getKeySpace() + "." + COLUMN_FAMILY_FEATURES + 
+               " WHERE " + COL_FEAT_UID + " = ?";
+    }
+    
+    public String cqlTouchFeature() {
+        return "UPDATE " + connection.getKeySpace() + "." + COLUMN_FAMILY_FEATURES + 
+               " SET " + COL_FEAT_ENABLE + "=?" +
+               " WHERE " + COL_FEAT_UID + " = ?";
+    }
+    
+    public String cqlFeaturesWriteTime() {
+        return "SELECT " + COL_FEAT_UID + ", WRITETIME(" + COL_FEAT_ENABLE + ")" +
+               " FROM " + connection.getKeySpace() + "." + COLUMN_FAMILY_FEATURES;
+    }
+    
+    public String cqlReadFeaturesIn() {
+        return "SELECT * FROM " + connection.getKeySpace() + "." + COLUMN_FAMILY_FEATURES + 
+               " WHERE " + COL_FEAT_UID + " IN ?";
+    }
+    
     public String cqlTruncateFeatures() {
         return "TRUNCATE TABLE " + connection.getKeySpace() + "." + COLUMN_FAMILY_FEATURES;
     }
@@ -265,6 +286,16 @@ public class CassandraQueryBuilder {
                " WHERE " + COL_PROPERTY_ID + " = ?";
     }
 
+    public String cqlPropertiesWriteTime() {
+        return "SELECT " + COL_PROPERTY_ID + ", WRITETIME(" + COL_PROPERTY_CLAZZ + ")" +
+               " FROM " + connection.getKeySpace() + "." + COLUMN_FAMILY_PROPERTIES;
+    }
+    
+    public String cqlReadPropertiesIn() {
+        return "SELECT * FROM " + connection.getKeySpace() + "." + COLUMN_FAMILY_PROPERTIES + 
+               " WHERE " + COL_PROPERTY_ID + " IN ?";
+    }
+    
     public Statement selectAllProperties() {
         return QueryBuilder.select().all().from(connection.getKeySpace(), COLUMN_FAMILY_PROPERTIES);
     }
@@ -276,31 +307,86 @@ public class CassandraQueryBuilder {
     
     // ----- Audit
     
+    public String cqlDropFeatureUsage() {
+        return "DROP TABLE IF EXISTS "+ connection.getKeySpace() + "." + COLUMN_FAMILY_FEATURE_USAGE;
+    }
+    
+    public String cqlDropFeatureUsageHits() {
+        return "DROP TABLE IF EXISTS "+ connection.getKeySpace() + "." + COLUMN_FAMILY_FEATURE_USAGE_HITS;
+    }
+    
+    /**
+     * Audit trail events, one partition per day ordered by time.
+     *
+     * @return
+     *      cql query.
+     */
     public String cqlCreateColumnFamilyAudit() {
+        return cqlCreateColumnFamilyEvents(COLUMN_FAMILY_AUDIT, 
+                "PRIMARY KEY ((" + COL_EVENT_DATE + "), " + COL_EVENT_TIME + ", " + COL_EVENT_UID + ")");
+    }
+    
+    /**
+     * Feature usage events, one partition per feature and hour ordered by time.
+     *
+     * @return
+     *      cql query.
+     */
+    public String cqlCreateColumnFamilyFeatureUsage() {
+        return cqlCreateColumnFamilyEvents(COLUMN_FAMILY_FEATURE_USAGE, 
+                "PRIMARY KEY ((" + COL_EVENT_NAME + ", " + COL_EVENT_HOUR + "), " + COL_EVENT_TIME + ", " + COL_EVENT_UID + ")");
+    }
+    
+    private String cqlCreateColumnFamilyEvents(String columnFamily, String primaryKey) {
         return "CREATE TABLE " + connection.getKeySpace() + "." + 
-                COLUMN_FAMILY_AUDIT + " ( " + 
+                columnFamily        + " ( " + 
                 COL_EVENT_UID       + " varchar, "      + 
                 COL_EVENT_DATE      + " varchar, "      +
+                COL_EVENT_HOUR      + " varchar, "      +
                 COL_EVENT_TIME      + " timestamp, "    +
                 COL_EVENT_TYPE      + " varchar, "      +
                 COL_EVENT_NAME      + " varchar, "      +
                 COL_EVENT_ACTION    + " varchar, "      +
                 COL_EVENT_HOSTNAME  + " varchar, "      +
                 COL_EVENT_SOURCE    + " varchar, "      +
-                COL_EVENT_DURATION  + " bigint, "      +
+                COL_EVENT_DURATION  + " bigint, "       +
                 COL_EVENT_USER      + " varchar, "      +
                 COL_EVENT_VALUE     + " varchar, "      +
-                COL_EVENT_KEYS      + " map<varchar,varchar>, "      +
-                //"PRIMARY KEY ((" + COL_EVENT_NAME + "," + COL_EVENT_TYPE + "," + COL_EVENT_DATE +")," + COL_EVENT_TIME + ")) " +
-                //"WITH CLUSTERING ORDER BY (" +  COL_EVENT_TIME + " DESC);";
-                "PRIMARY KEY (" + COL_EVENT_UID  +")) ";
+                COL_EVENT_KEYS      + " map<varchar,varchar>, " +
+                primaryKey + ");";
+    }
+    
+    /**
+     * Hit counters of feature usage, one partition per day and dimension (feature, user, host, source).
+     *
+     * @return
+     *      cql query.
+     */
+    public String cqlCreateColumnFamilyFeatureUsageHits() {
+        return "CREATE TABLE " + connection.getKeySpace() + "." + 
+                COLUMN_FAMILY_FEATURE_USAGE_HITS + " ( " + 
+                COL_EVENT_DATE      + " varchar, "  + 
+                COL_HITS_DIMENSION  + " varchar, "  +
+                COL_EVENT_HOUR      + " varchar, "  +
+                COL_HITS_ITEM       + " varchar, "  +
+                COL_HITS_COUNT      + " counter, "  +
+                "PRIMARY KEY ((" + COL_EVENT_DATE + ", " + COL_HITS_DIMENSION + "), " + COL_EVENT_HOUR + ", " + COL_HITS_ITEM + "));";
     }
     
     public String cqlCreateEvent(int ttl) {
+        return cqlInsertEvent(COLUMN_FAMILY_AUDIT, ttl);
+    }
+    
+    public String cqlCreateFeatureUsage(int ttl) {
+        return cqlInsertEvent(COLUMN_FAMILY_FEATURE_USAGE, ttl);
+    }
+    
+    private String cqlInsertEvent(String columnFamily, int ttl) {
         String query = "INSERT INTO " + connection.getKeySpace() + "." +
-                COLUMN_FAMILY_AUDIT + "("  + 
+                columnFamily        + "("  + 
                 COL_EVENT_UID       + ", " + 
                 COL_EVENT_DATE      + ", " +
+                COL_EVENT_HOUR      + ", " +
                 COL_EVENT_TIME      + ", " +
                 COL_EVENT_TYPE      + ", " +
                 COL_EVENT_NAME      + ", " +
@@ -311,115 +397,59 @@ public class CassandraQueryBuilder {
                 COL_EVENT_USER      + ", " +
                 COL_EVENT_VALUE     + ", " +
                 COL_EVENT_KEYS      + " )" +
-                "VALUES(?, ?, ?, ?, ?, ? ,?, ?, ?, ?, ?, ?)";
+                "VALUES(?, ?, ?, ?, ?, ?, ? ,?, ?, ?, ?, ?, ?)";
         if (ttl > 0) {
             query += " USING TTL " + ttl;
         }
         return query;
     }
     
-    public String cqlGetEventById() {
-      return "SELECT * FROM " + connection.getKeySpace() + "." + COLUMN_FAMILY_AUDIT + 
-              " WHERE " + COL_EVENT_UID + " = ? ALLOW FILTERING";
+    public String cqlIncrementHits() {
+        return "UPDATE " + connection.getKeySpace() + "." + COLUMN_FAMILY_FEATURE_USAGE_HITS + 
+               " SET "   + COL_HITS_COUNT + " = " + COL_HITS_COUNT + " + ?" +
+               " WHERE " + COL_EVENT_DATE + " = ? AND " + COL_HITS_DIMENSION + " = ?" +
+               " AND "   + COL_EVENT_HOUR + " = ? AND " + COL_HITS_ITEM + " = ?";
     }
     
-    /**
-     * Get uids
-     * -> between 2 dates
-     * -> For features only
-     * -> for check only
-     * @return
-     */
-    public String cqlFeatureUsageHitCount(EventQueryDefinition qDef) {
-        qDef.getActionFilters().add(ACTION_CHECK_OK);
-        return cqlSearchAudit(qDef, COL_EVENT_NAME, EventConstants.TARGET_FEATURE);
+    public String cqlReadHits() {
+        return "SELECT " + COL_EVENT_HOUR + ", " + COL_HITS_ITEM + ", " + COL_HITS_COUNT +
+               " FROM "  + connection.getKeySpace() + "." + COLUMN_FAMILY_FEATURE_USAGE_HITS + 
+               " WHERE " + COL_EVENT_DATE + " = ? AND " + COL_HITS_DIMENSION + " = ?" +
+               " AND "   + COL_EVENT_HOUR + " >= ? AND " + COL_EVENT_HOUR + " <= ?";
     }
     
-    public String cqlUserHitCount(EventQueryDefinition qDef) {
-        qDef.getActionFilters().add(ACTION_CHECK_OK);
-        return cqlSearchAudit(qDef, COL_EVENT_USER, EventConstants.TARGET_FEATURE);
+    public String cqlReadAuditTrail() {
+        return "SELECT * FROM " + connection.getKeySpace() + "." + COLUMN_FAMILY_AUDIT + 
+               " WHERE " + COL_EVENT_DATE + " = ?" +
+               " AND "   + COL_EVENT_TIME + " >= ? AND " + COL_EVENT_TIME + " <= ?";
     }
     
-    public String cqlHostHitCount(EventQueryDefinition qDef) {
-        qDef.getActionFilters().add(ACTION_CHECK_OK);
-        return cqlSearchAudit(qDef, COL_EVENT_HOSTNAME, EventConstants.TARGET_FEATURE);
+    public String cqlReadFeatureUsage() {
+        return "SELECT * FROM " + connection.getKeySpace() + "." + COLUMN_FAMILY_FEATURE_USAGE + 
+               " WHERE " + COL_EVENT_NAME + " = ? AND " + COL_EVENT_HOUR + " = ?" +
+               " AND "   + COL_EVENT_TIME + " >= ? AND " + COL_EVENT_TIME + " <= ?";
     }
     
-    public String cqlSourceHitCount(EventQueryDefinition qDef) {
-        qDef.getActionFilters().add(ACTION_CHECK_OK);
-        return cqlSearchAudit(qDef, COL_EVENT_SOURCE, EventConstants.TARGET_FEATURE);
+    public String cqlGetEventById() {
+        return "SELECT * FROM " + connection.getKeySpace() + "." + COLUMN_FAMILY_AUDIT + 
+               " WHERE " + COL_EVENT_DATE + " = ? AND " + COL_EVENT_UID + " = ? ALLOW FILTERING";
     }
     
-    public String cqlAuditTrail(EventQueryDefinition qDef) {
-        return cqlSearchAudit(qDef, "*", null);
+    public String cqlGetFeatureUsageById() {
+        return "SELECT * FROM " + connection.getKeySpace() + "." + COLUMN_FAMILY_FEATURE_USAGE + 
+               " WHERE " + COL_EVENT_NAME + " = ? AND " + COL_EVENT_HOUR + " = ?" +
+               " AND "   + COL_EVENT_UID  + " = ? ALLOW FILTERING";
     }
     
-    public String cqlAuditFeatureUsage(EventQueryDefinition qDef) {
-        qDef.getActionFilters().add(ACTION_CHECK_OK);
-        return cqlSearchAudit(qDef, "*", EventConstants.TARGET_FEATURE);
+    public String cqlDeleteEvent() {
+        return "DELETE FROM " + connection.getKeySpace() + "." + COLUMN_FAMILY_AUDIT + 
+               " WHERE " + COL_EVENT_DATE + " = ? AND " + COL_EVENT_TIME + " = ? AND " + COL_EVENT_UID + " = ?";
     }
     
-    /**
-     * Query audit to get audit events.
-     *
-     * @param qDef
-     *      query definition
-     * @param fields
-     *      what to search in audit
-     * @param filterAuditTrail
-     *      filter to get audit
-     * @param filterForCheck
-     *      filter to get hitcount
-     * @return
-     *      CQL QUERY
-     */
-    private String cqlSearchAudit(EventQueryDefinition qDef, String fields, String type) {
-        StringBuilder sb = new StringBuilder("SELECT " + fields);
-        sb.append(" FROM "  + connection.getKeySpace() + "." + COLUMN_FAMILY_AUDIT); 
-        sb.append(" WHERE (" + COL_EVENT_TIME + "> '" + SDF_TIMESTAMP.format(new Date(qDef.getFrom())) + "')");
-        sb.append("   AND (" + COL_EVENT_TIME + "< '" + SDF_TIMESTAMP.format(new Date(qDef.getTo()))   + "')");
-        if (null != type) {
-            sb.append(" AND (" + COL_EVENT_TYPE + " = '" + type + "')");
-        }
-        // Filters
-        if (!qDef.getActionFilters().isEmpty()) {
-            sb.append(" AND (" + COL_EVENT_ACTION + " IN ");
-            sb.append(buildClauseIn(qDef.getActionFilters()));
-            sb.append(")");
-        }
-        if (!qDef.getHostFilters().isEmpty()) {
-            sb.append(" AND (" + COL_EVENT_HOSTNAME + " IN ");
-            sb.append(buildClauseIn(qDef.getHostFilters()));
-            sb.append(")");
-        }
-        if (!qDef.getNamesFilter().isEmpty()) {
-            sb.append(" AND (" + COL_EVENT_NAME + " IN ");
-            sb.append(buildClauseIn(qDef.getNamesFilter()));
-            sb.append(")");
-        }
-        if (!qDef.getSourceFilters().isEmpty()) {
-            sb.append(" AND (" + COL_EVENT_SOURCE + " IN ");
-            sb.append(buildClauseIn(qDef.getSourceFilters()));
-            sb.append(")");
-        }
-        sb.append(" ALLOW FILTERING");
-        return sb.toString();
-    }
-    
-    private String buildClauseIn(Collection < String> elements) {
-        boolean first = true;
-        StringBuilder sb = new StringBuilder("(");
-        for (String el : elements) {
-            if (!first) {
-                sb.append(",");
-            }
-            sb.append("'");
-            sb.append(el);
-            sb.append("'");
-            first = false;
-        }
-        sb.append(")");
-        return sb.toString();
+    public String cqlDeleteFeatureUsage() {
+        return "DELETE FROM " + connection.getKeySpace() + "." + COLUMN_FAMILY_FEATURE_USAGE + 
+               " WHERE " + COL_EVENT_NAME + " = ? AND " + COL_EVENT_HOUR + " = ?" +
+               " AND "   + COL_EVENT_TIME + " = ? AND " + COL_EVENT_UID  + " = ?";
     }
     
     public String cqlTruncateAudit() {
@@ -1,5 +1,6 @@
 package org.ff4j.cassandra.store;
 
+import static org.ff4j.audit.EventConstants.ACTION_CHECK_OK;
 import static org.ff4j.audit.EventConstants.ACTION_CLEAR;
 import static org.ff4j.audit.EventConstants.ACTION_CREATE;
 import static org.ff4j.audit.EventConstants.ACTION_DELETE;
@@ -8,16 +9,26 @@ import static org.ff4j.audit.EventConstants.ACTION_TOGGLE_OFF;
 import static org.ff4j.audit.EventConstants.ACTION_TOGGLE_ON;
 import static org.ff4j.audit.EventConstants.ACTION_UPDATE;
 import static org.ff4j.cassandra.CassandraConstants.COLUMN_FAMILY_AUDIT;
-import static org.ff4j.cassandra.CassandraConstants.COL_EVENT_HOSTNAME;
-import static org.ff4j.cassandra.CassandraConstants.COL_EVENT_NAME;
-import static org.ff4j.cassandra.CassandraConstants.COL_EVENT_SOURCE;
-import static org.ff4j.cassandra.CassandraConstants.COL_EVENT_USER;
-import static org.ff4j.cassandra.CassandraConstants.COL_EVENT_ACTION;
+import static org.ff4j.cassandra.CassandraConstants.COLUMN_FAMILY_FEATURE_USAGE;
+import static org.ff4j.cassandra.CassandraConstants.COLUMN_FAMILY_FEATURE_USAGE_HITS;
+import static org.ff4j.cassandra.CassandraConstants.COL_EVENT_HOUR;
+import static org.ff4j.cassandra.CassandraConstants.COL_HITS_COUNT;
+import static org.ff4j.cassandra.CassandraConstants.COL_HITS_ITEM;
+import static org.ff4j.cassandra.CassandraConstants.EVENT_BATCH_SIZE;
+import static org.ff4j.cassandra.CassandraConstants.EVENT_PAGE_SIZE;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TimeZone;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 
 /*
@@ -41,9 +52,11 @@ import java.util.concurrent.TimeUnit;
  */
 
 import org.ff4j.audit.Event;
+import org.ff4j.audit.EventIdentity;
 import org.ff4j.audit.EventQueryDefinition;
 import org.ff4j.audit.EventSeries;
 import org.ff4j.audit.MutableHitCount;
+import org.ff4j.audit.chart.Serie;
 import org.ff4j.audit.chart.TimeSeriesChart;
 import org.ff4j.audit.repository.AbstractEventRepository;
 import org.ff4j.cassandra.CassandraConnection;
@@ -53,36 +66,87 @@ import org.ff4j.utils.Util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.core.exceptions.DriverException;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 
 /**
- * Implementation of audit into Cassandra DB
+ * Implementation of audit into Cassandra DB.
+ *
+ * <p>Audit trail events are stored in one partition per day, feature usage events in one partition
+ * per feature and hour, both ordered by time. Each feature usage also increments hit counters per
+ * feature, host, user and source and hour, so hit counts over whole hours never read the events.
+ * Writes are asynchronous, grouped by partition in unlogged batches and throttled by the
+ * {@link CassandraConnection}. When events are saved as a batch, counters are updated once the events
+ * are stored and a failure is only logged (a retry would count events twice) : counts may then be
+ * lower than the number of events.</p>
  *
- * @Abstract as note implemented yet.
- * 
  * @author Cedrick LUNVEN (@clunven)
  */
 public class EventRepositoryCassandra extends AbstractEventRepository {
-    
+
     /** logger for this store. */
     private static Logger LOGGER = LoggerFactory.getLogger(EventRepositoryCassandra.class);
-    
+
+    /** One hour in milliseconds. */
+    private static final long HOUR = 3600 * 1000L;
+
+    /** Value used for counters when the user is unknown. */
+    private static final String ANONYMOUS = "anonymous";
+
+    /** Value used for counters when the attribute is unknown. */
+    private static final String UNKNOWN = "NA";
+
+    /** Actions listed in the audit trail. */
+    private static final Set < String > AUDIT_ACTIONS = Util.set(ACTION_DISCONNECT,
+            ACTION_TOGGLE_ON, ACTION_TOGGLE_OFF,
+            ACTION_CREATE, ACTION_DELETE,
+            ACTION_UPDATE, ACTION_CLEAR);
+
+    /** Log asynchronous writes in error. */
+    private static final FutureCallback < ResultSet > LOG_FAILURE = new FutureCallback<ResultSet>() {
+        public void onSuccess(ResultSet rs) {
+        }
+        public void onFailure(Throwable t) {
+            LOGGER.error("Cannot write events into Cassandra", t);
+        }
+    };
+
     /** TTL to working with ' expiring columns' if positive number in SECONDS. */
     private int ttl = -1;
-    
+
     /** Connection to store Cassandra. */
     private CassandraQueryBuilder builder;
-            
+
     /** Connection to store Cassandra. */
     private CassandraConnection conn;
-    
+
+    /** Dimensions of the hit counters. */
+    private enum Types {
+        SOURCE,
+        NAME,
+        HOST,
+        USER;
+    }
+
+    /** Callback for each event read, return false to stop reading. */
+    private interface EventVisitor {
+        boolean visit(Event evt);
+    }
+
     /**
      * Default constructor.
      */
     public EventRepositoryCassandra() {
     }
-    
+
     /**
      * Initialization through {@link CassandraConnection}.
      *
@@ -96,161 +160,650 @@ public class EventRepositoryCassandra extends AbstractEventRepository {
     /** {@inheritDoc} */
     @Override
     public void createSchema() {
-       if (!conn.isColumnFamilyExist(COLUMN_FAMILY_AUDIT)) {
-           conn.getSession().execute(getBuilder().cqlCreateColumnFamilyAudit());
-           LOGGER.debug("Column Family '{}' created", COLUMN_FAMILY_AUDIT);
-       }
+        if (!conn.isColumnFamilyExist(COLUMN_FAMILY_AUDIT)) {
+            conn.getSession().execute(getBuilder().cqlCreateColumnFamilyAudit());
+            LOGGER.debug("Column Family '{}' created", COLUMN_FAMILY_AUDIT);
+        } else {
+            TableMetadata audit = conn.getCluster().getMetadata().getKeyspace(conn.getKeySpace()).getTable(COLUMN_FAMILY_AUDIT);
+            if (audit.getColumn(COL_EVENT_HOUR) == null) {
+                throw new IllegalStateException("Column Family '" + COLUMN_FAMILY_AUDIT
+                        + "' uses the former layout (one partition per event), please drop it");
+            }
+        }
+        if (!conn.isColumnFamilyExist(COLUMN_FAMILY_FEATURE_USAGE)) {
+            conn.getSession().execute(getBuilder().cqlCreateColumnFamilyFeatureUsage());
+            LOGGER.debug("Column Family '{}' created", COLUMN_FAMILY_FEATURE_USAGE);
+        }
+        if (!conn.isColumnFamilyExist(COLUMN_FAMILY_FEATURE_USAGE_HITS)) {
+            conn.getSession().execute(getBuilder().cqlCreateColumnFamilyFeatureUsageHits());
+            LOGGER.debug("Column Family '{}' created", COLUMN_FAMILY_FEATURE_USAGE_HITS);
+        }
     }
-    
+
     /** {@inheritDoc} */
     @Override
     public boolean saveEvent(Event e) {
         Util.assertEvent(e);
         LOGGER.debug("Event Logged {}", e.toJson());
-        conn.getSession().execute(getBuilder().cqlCreateEvent(ttl),
-                e.getUuid(), KDF.format(e.getDate()), e.getTimestamp(),
-                e.getType(), e.getName(), e.getAction(),
-                e.getHostName(), e.getSource(), e.getDuration(),
-                e.getUser(), e.getValue(), e.getCustomKeys());
+        // Do not wait, errors are logged
+        List < Event > events = Collections.singletonList(e);
+        writeEvents(events);
+        writeHits(events);
         return true;
-    }   
+    }
 
     /** {@inheritDoc} */
     @Override
-    public Event getEventByUUID(String uuid, Long timestamp) {
-        ResultSet rs = conn.getSession().execute(getBuilder().cqlGetEventById(), uuid);
-        return CassandraMapper.mapEvent(rs.one());
+    public boolean saveEvents(Collection < Event > events) {
+        if (events == null) {
+            throw new IllegalArgumentException("Events cannot be null");
+        }
+        for (Event evt : events) {
+            Util.assertEvent(evt);
+        }
+        // Rows are keyed by uid and can be written again, counters cannot : they are sent once rows are saved
+        if (!waitFor(writeEvents(events))) {
+            return false;
+        }
+        if (!waitFor(writeHits(events))) {
+            // Not reported to avoid a retry, events would be counted twice : counts may be lower than events
+            LOGGER.error("Hit counters of {} events not updated", events.size());
+        }
+        return true;
     }
 
-    /** {@inheritDoc} */
-    @Override
-    public Map<String, MutableHitCount> getFeatureUsageHitCount(EventQueryDefinition query) {
-        String cqlQuery = getBuilder().cqlFeatureUsageHitCount(query);
-        LOGGER.debug("Query " + cqlQuery);
-        ResultSet rs = conn.getSession().execute(cqlQuery);
-        Map < String, MutableHitCount > hitCount = new HashMap<String, MutableHitCount>();
-        for (Row row : rs.all()) {
-            String featureName = row.getString(COL_EVENT_NAME);
-            if (hitCount.containsKey(featureName)) {
-                hitCount.get(featureName).inc();
+    /**
+     * Send inserts, grouped by partition.
+     *
+     * @param events
+     *      events to store
+     * @return
+     *      pending requests
+     */
+    private List < ResultSetFuture > writeEvents(Collection < Event > events) {
+        PreparedStatement insertAudit = conn.prepare(getBuilder().cqlCreateEvent(ttl));
+        PreparedStatement insertUsage = conn.prepare(getBuilder().cqlCreateFeatureUsage(ttl));
+        Map < List < String >, List < Statement > > partitions = new LinkedHashMap<List<String>, List<Statement>>();
+        for (Event evt : events) {
+            if (evt.getUuid() == null) {
+                evt.setUuid(EventIdentity.nextId(evt.getTimestamp()));
+            }
+            String day  = getKeyDate(evt.getTimestamp());
+            String hour = getHourKey(getHourStart(evt.getTimestamp()));
+            if (ACTION_CHECK_OK.equalsIgnoreCase(evt.getAction())) {
+                addStatement(partitions, Arrays.asList(evt.getName(), hour), bindEvent(insertUsage, evt, day, hour));
             } else {
-                hitCount.put(featureName, new MutableHitCount(1));
+                addStatement(partitions, Arrays.asList(day), bindEvent(insertAudit, evt, day, hour));
             }
         }
-        return hitCount;
+        return executeBatches(partitions, BatchStatement.Type.UNLOGGED);
     }
-    
-    /** {@inheritDoc} */
-    @Override
-    public Map<String, MutableHitCount> getUserHitCount(EventQueryDefinition query) {
-        String cqlQuery = getBuilder().cqlUserHitCount(query);
-        LOGGER.debug("Query " + cqlQuery);
-        ResultSet rs = conn.getSession().execute(cqlQuery);
-        Map < String, MutableHitCount > hitCount = new HashMap<String, MutableHitCount>();
-        for (Row row : rs.all()) {
-            String user = row.getString(COL_EVENT_USER);
-            if (hitCount.containsKey(user)) {
-                hitCount.get(user).inc();
+
+    /**
+     * Send hit counter updates of feature usage events, grouped by partition.
+     *
+     * @param events
+     *      events stored
+     * @return
+     *      pending requests
+     */
+    private List < ResultSetFuture > writeHits(Collection < Event > events) {
+        Map < List < String >, MutableHitCount > hits = new LinkedHashMap<List<String>, MutableHitCount>();
+        for (Event evt : events) {
+            if (ACTION_CHECK_OK.equalsIgnoreCase(evt.getAction())) {
+                addHits(hits, evt, 1);
+            }
+        }
+        return executeBatches(incrementHits(hits), BatchStatement.Type.COUNTER);
+    }
+
+    private Statement bindEvent(PreparedStatement ps, Event evt, String day, String hour) {
+        return ps.bind(evt.getUuid(), day, hour, new Date(evt.getTimestamp()),
+                evt.getType(), evt.getName(), evt.getAction(),
+                evt.getHostName(), evt.getSource(), evt.getDuration(),
+                evt.getUser(), evt.getValue(), evt.getCustomKeys());
+    }
+
+    /**
+     * Aggregate hit counter updates of an event for each dimension.
+     *
+     * @param hits
+     *      counters to update (day, dimension, hour, item)
+     * @param evt
+     *      feature usage event
+     * @param delta
+     *      increment (negative when purging)
+     */
+    private void addHits(Map < List < String >, MutableHitCount > hits, Event evt, int delta) {
+        String day  = getKeyDate(evt.getTimestamp());
+        String hour = getHourKey(getHourStart(evt.getTimestamp()));
+        for (Types type : Types.values()) {
+            List < String > counter = Arrays.asList(day, type.name(), hour, getValueFromAttribute(type, evt));
+            if (hits.containsKey(counter)) {
+                hits.get(counter).incBy(delta);
             } else {
-                hitCount.put(user, new MutableHitCount(1));
+                hits.put(counter, new MutableHitCount(delta));
             }
         }
-        return hitCount;
     }
-    
+
+    /**
+     * Counter updates grouped by partition (day, dimension).
+     *
+     * @param hits
+     *      counters to update
+     * @return
+     *      statements per partition
+     */
+    private Map < List < String >, List < Statement > > incrementHits(Map < List < String >, MutableHitCount > hits) {
+        PreparedStatement increment = conn.prepare(getBuilder().cqlIncrementHits());
+        Map < List < String >, List < Statement > > partitions = new LinkedHashMap<List<String>, List<Statement>>();
+        for (Map.Entry < List < String >, MutableHitCount > hit : hits.entrySet()) {
+            List < String > counter = hit.getKey();
+            if (hit.getValue().get() != 0) {
+                addStatement(partitions, counter.subList(0, 2), increment.bind((long) hit.getValue().get(),
+                        counter.get(0), counter.get(1), counter.get(2), counter.get(3)));
+            }
+        }
+        return partitions;
+    }
+
+    private void addStatement(Map < List < String >, List < Statement > > partitions, List < String > partition, Statement statement) {
+        if (!partitions.containsKey(partition)) {
+            partitions.put(partition, new ArrayList<Statement>());
+        }
+        partitions.get(partition).add(statement);
+    }
+
+    /**
+     * Execute statements asynchronously, in batches of statements targeting the same partition.
+     *
+     * @param partitions
+     *      statements per partition
+     * @param type
+     *      type of batch
+     * @return
+     *      pending requests
+     */
+    private List < ResultSetFuture > executeBatches(Map < List < String >, List < Statement > > partitions, BatchStatement.Type type) {
+        List < ResultSetFuture > futures = new ArrayList<ResultSetFuture>();
+        for (List < Statement > statements : partitions.values()) {
+            for (int start = 0; start < statements.size(); start += EVENT_BATCH_SIZE) {
+                List < Statement > chunk = statements.subList(start, Math.min(start + EVENT_BATCH_SIZE, statements.size()));
+                Statement statement = chunk.get(0);
+                if (chunk.size() > 1) {
+                    statement = new BatchStatement(type).addAll(chunk);
+                }
+                ResultSetFuture future = conn.executeAsync(statement);
+                Futures.addCallback(future, LOG_FAILURE);
+                futures.add(future);
+            }
+        }
+        return futures;
+    }
+
+    /**
+     * Wait for pending requests.
+     *
+     * @param futures
+     *      pending requests
+     * @return
+     *      if all requests succeeded
+     */
+    private boolean waitFor(List < ResultSetFuture > futures) {
+        boolean allDone = true;
+        for (ResultSetFuture future : futures) {
+            try {
+                future.getUninterruptibly();
+            } catch (DriverException de) {
+                allDone = false;
+            }
+        }
+        return allDone;
+    }
+
     /** {@inheritDoc} */
     @Override
-    public Map<String, MutableHitCount> getHostHitCount(EventQueryDefinition query) {
-        String cqlQuery = getBuilder().cqlHostHitCount(query);
-        LOGGER.debug("Query " + cqlQuery);
-        ResultSet rs = conn.getSession().execute(cqlQuery);
-        Map < String, MutableHitCount > hitCount = new HashMap<String, MutableHitCount>();
-        for (Row row : rs.all()) {
-            String hostName = row.getString(COL_EVENT_HOSTNAME);
-            if (hitCount.containsKey(hostName)) {
-                hitCount.get(hostName).inc();
-            } else {
-                hitCount.put(hostName, new MutableHitCount(1));
+    public Event getEventByUUID(String uuid, Long timestamp) {
+        Util.assertHasLength(new String[] {uuid});
+        long time = (timestamp == null) ? System.currentTimeMillis() : timestamp;
+        Row row = conn.getSession().execute(conn.prepare(getBuilder().cqlGetEventById()).bind(getKeyDate(time), uuid)).one();
+        if (row != null) {
+            return CassandraMapper.mapEvent(row);
+        }
+        // Feature usage : features used during this hour are listed in counters
+        long hourStart = getHourStart(time);
+        Map < String, MutableHitCount > features = readHits(Types.NAME, hourStart, getNextHour(hourStart)).get(hourStart);
+        if (features != null) {
+            PreparedStatement ps = conn.prepare(getBuilder().cqlGetFeatureUsageById());
+            for (String featureName : features.keySet()) {
+                row = conn.getSession().execute(ps.bind(featureName, getHourKey(hourStart), uuid)).one();
+                if (row != null) {
+                    return CassandraMapper.mapEvent(row);
+                }
             }
         }
-        return hitCount;
-    }    
+        return null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, MutableHitCount> getFeatureUsageHitCount(EventQueryDefinition query) {
+        return getUsageCount(query, Types.NAME);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, MutableHitCount> getUserHitCount(EventQueryDefinition query) {
+        return getUsageCount(query, Types.USER);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, MutableHitCount> getHostHitCount(EventQueryDefinition query) {
+        return getUsageCount(query, Types.HOST);
+    }
 
     /** {@inheritDoc} */
     @Override
     public Map<String, MutableHitCount> getSourceHitCount(EventQueryDefinition query) {
-        String cqlQuery = getBuilder().cqlSourceHitCount(query);
-        LOGGER.debug("Query " + cqlQuery);
-        ResultSet rs = conn.getSession().execute(cqlQuery);
-        Map < String, MutableHitCount > hitCount = new HashMap<String, MutableHitCount>();
-        for (Row row : rs.all()) {
-            String source = row.getString(COL_EVENT_SOURCE);
-            if (hitCount.containsKey(source)) {
-                hitCount.get(source).inc();
-            } else {
-                hitCount.put(source, new MutableHitCount(1));
+        return getUsageCount(query, Types.SOURCE);
+    }
+
+    /**
+     * Count hits : counters for the hours fully within the query, events for the partial hours at the bounds.
+     *
+     * @param query
+     *      current query
+     * @param type
+     *      dimension to count
+     * @return
+     *      hit count per value
+     */
+    private Map<String, MutableHitCount> getUsageCount(final EventQueryDefinition query, final Types type) {
+        final Map<String, MutableHitCount> hitCount = new HashMap<String, MutableHitCount>();
+        EventVisitor counter = new EventVisitor() {
+            public boolean visit(Event evt) {
+                if (query.match(evt)) {
+                    addHitCount(hitCount, getValueFromAttribute(type, evt), 1);
+                }
+                return true;
+            }
+        };
+        long firstHour = getFirstFullHour(query.getFrom());
+        long lastHour  = getHourStart(query.getTo() + 1);
+        if (!isCounterQuery(query, type) || firstHour >= lastHour) {
+            scanFeatureUsage(query, query.getFrom(), query.getTo(), counter);
+            return hitCount;
+        }
+        scanFeatureUsage(query, query.getFrom(), firstHour - 1, counter);
+        for (Map < String, MutableHitCount > hourHits : readHits(type, firstHour, lastHour).values()) {
+            for (Map.Entry < String, MutableHitCount > hit : hourHits.entrySet()) {
+                if (type != Types.NAME || query.matchName(hit.getKey())) {
+                    addHitCount(hitCount, hit.getKey(), hit.getValue().get());
+                }
             }
         }
+        scanFeatureUsage(query, lastHour, query.getTo(), counter);
         return hitCount;
     }
 
+    /**
+     * Hit counters hold no link between dimensions : only filters on the counted dimension can be applied.
+     *
+     * @param query
+     *      current query
+     * @param type
+     *      dimension to count
+     * @return
+     *      if counters can answer the query
+     */
+    private boolean isCounterQuery(EventQueryDefinition query, Types type) {
+        return query.getActionFilters().isEmpty()
+                && query.getSourceFilters().isEmpty()
+                && query.getHostFilters().isEmpty()
+                && (type == Types.NAME || query.getNamesFilter().isEmpty());
+    }
+
+    private void addHitCount(Map<String, MutableHitCount> hitCount, String value, int hits) {
+        if (hitCount.containsKey(value)) {
+            hitCount.get(value).incBy(hits);
+        } else {
+            hitCount.put(value, new MutableHitCount(hits));
+        }
+    }
+
+    /**
+     * Read hit counters of a dimension, one request per day sent in parallel.
+     *
+     * @param type
+     *      dimension
+     * @param firstHour
+     *      start of first hour (included)
+     * @param lastHour
+     *      start of last hour (excluded)
+     * @return
+     *      counters for each hour
+     */
+    private Map < Long, Map < String, MutableHitCount > > readHits(Types type, long firstHour, long lastHour) {
+        Map < Long, Map < String, MutableHitCount > > hits = new TreeMap<Long, Map<String, MutableHitCount>>();
+        if (firstHour >= lastHour) {
+            return hits;
+        }
+        Map < String, Long > hours = new HashMap<String, Long>();
+        for (long hour = firstHour; hour < lastHour; hour = getNextHour(hour)) {
+            hours.put(getHourKey(hour), hour);
+        }
+        PreparedStatement ps = conn.prepare(getBuilder().cqlReadHits());
+        String fromHour = getHourKey(firstHour);
+        String toHour   = getHourKey(lastHour - 1);
+        List < ResultSetFuture > futures = new ArrayList<ResultSetFuture>();
+        for (String day : getCandidateDays(firstHour, lastHour - 1)) {
+            futures.add(conn.executeAsync(ps.bind(day, type.name(), fromHour, toHour).setFetchSize(EVENT_PAGE_SIZE)));
+        }
+        for (ResultSetFuture future : futures) {
+            for (Row row : future.getUninterruptibly()) {
+                Long hour = hours.get(row.getString(COL_EVENT_HOUR));
+                if (hour != null) {
+                    if (!hits.containsKey(hour)) {
+                        hits.put(hour, new HashMap<String, MutableHitCount>());
+                    }
+                    addHitCount(hits.get(hour), row.getString(COL_HITS_ITEM), (int) row.getLong(COL_HITS_COUNT));
+                }
+            }
+        }
+        return hits;
+    }
+
     /** {@inheritDoc} */
     @Override
-    public EventSeries getAuditTrail(EventQueryDefinition query) {
-        String cqlQuery = getBuilder().cqlAuditTrail(query);
-        LOGGER.debug("Query " + cqlQuery);
-        ResultSet rs = conn.getSession().execute(cqlQuery);
-        EventSeries es = new EventSeries();
-        Set < String > candidates = Util.set(ACTION_DISCONNECT, 
-                ACTION_TOGGLE_ON, ACTION_TOGGLE_OFF,
-                ACTION_CREATE, ACTION_DELETE,
-                ACTION_UPDATE, ACTION_CLEAR);
-        for (Row row : rs.all()) {
-            if (candidates.contains(row.getString(COL_EVENT_ACTION)))
-            es.add(CassandraMapper.mapEvent(row));
-        }
+    public EventSeries getAuditTrail(final EventQueryDefinition query) {
+        final EventSeries es = new EventSeries();
+        final int skip  = query.isPageable() ? query.getPagenumber() * query.getPagesize() : 0;
+        final int limit = query.isPageable() ? query.getPagesize() : Integer.MAX_VALUE;
+        scanAuditTrail(query.getFrom(), query.getTo(), new EventVisitor() {
+            private int matched = 0;
+            public boolean visit(Event evt) {
+                if (AUDIT_ACTIONS.contains(evt.getAction()) && query.match(evt) && matched++ >= skip) {
+                    es.add(evt);
+                }
+                return es.size() < limit;
+            }
+        });
         return es;
     }
 
     /** {@inheritDoc} */
     @Override
-    public void purgeFeatureUsage(EventQueryDefinition query) {
-        this.purgeAuditTrail(query);
+    public EventSeries searchFeatureUsageEvents(final EventQueryDefinition query) {
+        final EventSeries es = new EventSeries();
+        scanFeatureUsage(query, query.getFrom(), query.getTo(), new EventVisitor() {
+            public boolean visit(Event evt) {
+                if (query.match(evt)) {
+                    es.add(evt);
+                }
+                return true;
+            }
+        });
+        if (!query.isPageable()) {
+            return es;
+        }
+        // Partitions are read in parallel, the page is cut once all events are sorted
+        EventSeries page = new EventSeries();
+        int skip = query.getPagenumber() * query.getPagesize();
+        for (Event evt : es) {
+            if (skip-- <= 0 && page.size() < query.getPagesize()) {
+                page.add(evt);
+            }
+        }
+        return page;
     }
-    
+
     /** {@inheritDoc} */
     @Override
-    public void purgeAuditTrail(EventQueryDefinition query) {
-        LOGGER.warn("All audit will be purged, cannot filter");
-        conn.getSession().execute(getBuilder().cqlTruncateAudit());
+    public TimeSeriesChart getFeatureUsageHistory(final EventQueryDefinition query, TimeUnit units) {
+        final TimeSeriesChart tsc = new TimeSeriesChart(query.getFrom(), query.getTo(), units);
+        EventVisitor chart = new EventVisitor() {
+            public boolean visit(Event evt) {
+                if (query.match(evt)) {
+                    tsc.addEvent(evt);
+                }
+                return true;
+            }
+        };
+        long firstHour = getFirstFullHour(query.getFrom());
+        long lastHour  = getHourStart(query.getTo() + 1);
+        boolean slotsOfHours = (units == TimeUnit.HOURS || units == TimeUnit.DAYS);
+        if (!slotsOfHours || !isCounterQuery(query, Types.NAME) || firstHour >= lastHour) {
+            scanFeatureUsage(query, query.getFrom(), query.getTo(), chart);
+            return tsc;
+        }
+        scanFeatureUsage(query, query.getFrom(), firstHour - 1, chart);
+        for (Map.Entry < Long, Map < String, MutableHitCount > > hourHits : readHits(Types.NAME, firstHour, lastHour).entrySet()) {
+            String slot = tsc.getSdf().format(new Date(hourHits.getKey()));
+            for (Map.Entry < String, MutableHitCount > hit : hourHits.getValue().entrySet()) {
+                if (query.matchName(hit.getKey())) {
+                    if (!tsc.getSeries().containsKey(hit.getKey())) {
+                        tsc.createNewSerie(hit.getKey());
+                    }
+                    Serie < Map < String, MutableHitCount > > serie = tsc.getSeries().get(hit.getKey());
+                    if (serie.getValue().containsKey(slot)) {
+                        serie.getValue().get(slot).incBy(hit.getValue().get());
+                    }
+                }
+            }
+        }
+        scanFeatureUsage(query, lastHour, query.getTo(), chart);
+        return tsc;
     }
-    
+
     /** {@inheritDoc} */
     @Override
-    public EventSeries searchFeatureUsageEvents(EventQueryDefinition query) {
-        String cqlQuery = getBuilder().cqlAuditFeatureUsage(query);
-        LOGGER.debug("Query " + cqlQuery);
-        ResultSet rs = conn.getSession().execute(cqlQuery);
-        EventSeries es = new EventSeries();
-        for (Row row : rs.all()) {
-            es.add(CassandraMapper.mapEvent(row));
-        }
-        return es;
-    }  
+    public void purgeAuditTrail(final EventQueryDefinition query) {
+        final PreparedStatement delete = conn.prepare(getBuilder().cqlDeleteEvent());
+        final Map < List < String >, List < Statement > > partitions = new LinkedHashMap<List<String>, List<Statement>>();
+        scanAuditTrail(query.getFrom(), query.getTo(), new EventVisitor() {
+            public boolean visit(Event evt) {
+                if (query.match(evt)) {
+                    String day = getKeyDate(evt.getTimestamp());
+                    addStatement(partitions, Arrays.asList(day), delete.bind(day, new Date(evt.getTimestamp()), evt.getUuid()));
+                }
+                return true;
+            }
+        });
+        waitFor(executeBatches(partitions, BatchStatement.Type.UNLOGGED));
+    }
 
     /** {@inheritDoc} */
     @Override
-    public TimeSeriesChart getFeatureUsageHistory(EventQueryDefinition query, TimeUnit units) {
-        // Create the interval depending on units
-        TimeSeriesChart tsc = new TimeSeriesChart(query.getFrom(), query.getTo(), units);
-        // Search All events
-        Iterator<Event> iterEvent = searchFeatureUsageEvents(query).iterator();
-        // Dispatch events into time slots
-        while (iterEvent.hasNext()) {
-            tsc.addEvent(iterEvent.next());
+    public void purgeFeatureUsage(final EventQueryDefinition query) {
+        final PreparedStatement delete = conn.prepare(getBuilder().cqlDeleteFeatureUsage());
+        final Map < List < String >, List < Statement > > partitions = new LinkedHashMap<List<String>, List<Statement>>();
+        final Map < List < String >, MutableHitCount > hits = new LinkedHashMap<List<String>, MutableHitCount>();
+        scanFeatureUsage(query, query.getFrom(), query.getTo(), new EventVisitor() {
+            public boolean visit(Event evt) {
+                if (query.match(evt)) {
+                    String hour = getHourKey(getHourStart(evt.getTimestamp()));
+                    addStatement(partitions, Arrays.asList(evt.getName(), hour),
+                            delete.bind(evt.getName(), hour, new Date(evt.getTimestamp()), evt.getUuid()));
+                    addHits(hits, evt, -1);
+                }
+                return true;
+            }
+        });
+        List < ResultSetFuture > futures = executeBatches(partitions, BatchStatement.Type.UNLOGGED);
+        futures.addAll(executeBatches(incrementHits(hits), BatchStatement.Type.COUNTER));
+        waitFor(futures);
+    }
+
+    /**
+     * Read audit trail events between two dates, one partition per day.
+     *
+     * @param from
+     *      begin time (included)
+     * @param to
+     *      end time (included)
+     * @param visitor
+     *      callback for each event
+     */
+    private void scanAuditTrail(long from, long to, EventVisitor visitor) {
+        if (from > to) {
+            return;
         }
-        return tsc;
-    }      
+        PreparedStatement ps = conn.prepare(getBuilder().cqlReadAuditTrail());
+        for (String day : getCandidateDays(from, to)) {
+            Statement read = ps.bind(day, new Date(from), new Date(to)).setFetchSize(EVENT_PAGE_SIZE);
+            if (!visitRows(conn.getSession().execute(read), visitor)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Read feature usage events between two dates, one partition per feature and hour. Partitions
+     * are read in parallel : features are the ones of the query or the ones listed in hit counters.
+     *
+     * @param query
+     *      current query (features)
+     * @param from
+     *      begin time (included)
+     * @param to
+     *      end time (included)
+     * @param visitor
+     *      callback for each event
+     */
+    private void scanFeatureUsage(EventQueryDefinition query, long from, long to, EventVisitor visitor) {
+        if (from > to) {
+            return;
+        }
+        long firstHour = getHourStart(from);
+        long lastHour  = getNextHour(getHourStart(to));
+        Map < Long, Map < String, MutableHitCount > > features = null;
+        if (query.getNamesFilter().isEmpty()) {
+            features = readHits(Types.NAME, firstHour, lastHour);
+        }
+        PreparedStatement ps = conn.prepare(getBuilder().cqlReadFeatureUsage());
+        List < ResultSetFuture > futures = new ArrayList<ResultSetFuture>();
+        for (long hour = firstHour; hour < lastHour; hour = getNextHour(hour)) {
+            Collection < String > featureNames = query.getNamesFilter();
+            if (features != null) {
+                featureNames = features.containsKey(hour) ? features.get(hour).keySet() : Collections.<String>emptySet();
+            }
+            for (String featureName : featureNames) {
+                Statement read = ps.bind(featureName, getHourKey(hour), new Date(from), new Date(to));
+                futures.add(conn.executeAsync(read.setFetchSize(EVENT_PAGE_SIZE)));
+            }
+        }
+        for (ResultSetFuture future : futures) {
+            if (!visitRows(future.getUninterruptibly(), visitor)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Read all rows of a result, page by page.
+     *
+     * @param rs
+     *      current result
+     * @param visitor
+     *      callback for each event
+     * @return
+     *      false if the visitor stopped reading
+     */
+    private boolean visitRows(ResultSet rs, EventVisitor visitor) {
+        for (Row row : rs) {
+            // Fetch next page in background while reading the end of current one
+            if (rs.getAvailableWithoutFetching() == EVENT_PAGE_SIZE / 10 && !rs.isFullyFetched()) {
+                rs.fetchMoreResults();
+            }
+            if (!visitor.visit(CassandraMapper.mapEvent(row))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Start of the hour (local time) containing this time.
+     *
+     * @param time
+     *      current time
+     * @return
+     *      start of the hour
+     */
+    long getHourStart(long time) {
+        return time - ((time + TimeZone.getDefault().getOffset(time)) % HOUR);
+    }
+
+    /**
+     * Start of the hour following the one starting at this time.
+     *
+     * @param hourStart
+     *      start of the hour
+     * @return
+     *      start of the next hour
+     */
+    long getNextHour(long hourStart) {
+        return getHourStart(hourStart + HOUR + HOUR / 2);
+    }
+
+    /**
+     * Start of the first hour fully after this time.
+     *
+     * @param time
+     *      current time
+     * @return
+     *      start of the hour
+     */
+    long getFirstFullHour(long time) {
+        long hourStart = getHourStart(time);
+        return (hourStart == time) ? time : getNextHour(hourStart);
+    }
+
+    /**
+     * Key of an hour as yyyyMMddHH.
+     *
+     * @param hourStart
+     *      start of the hour
+     * @return
+     *      hour key
+     */
+    String getHourKey(long hourStart) {
+        long hour = ((hourStart + TimeZone.getDefault().getOffset(hourStart)) / HOUR) % 24;
+        return getKeyDate(hourStart) + (hour < 10 ? "0" : "") + hour;
+    }
+
+    /**
+     * Value of an event for a dimension of the hit counters.
+     *
+     * @param type
+     *      dimension
+     * @param event
+     *      current event
+     * @return
+     *      value of the event
+     */
+    private String getValueFromAttribute(Types type, Event event) {
+        String value;
+        switch (type) {
+            case HOST:
+                value = event.getHostName();
+                break;
+            case SOURCE:
+                value = event.getSource();
+                break;
+            case USER:
+                value = Util.hasLength(event.getUser()) ? event.getUser() : ANONYMOUS;
+                break;
+            case NAME:
+                value = event.getName();
+                break;
+            default:
+                value = UNKNOWN;
+        }
+        return (value == null) ? UNKNOWN : value;
+    }
 
     /**
      * Getter accessor for attribute 'builder'.
@@ -292,7 +845,7 @@ public class EventRepositoryCassandra extends AbstractEventRepository {
     public void setTtl(int ttl) {
         this.ttl = ttl;
     }
-    
+
     /**
      * Getter accessor for attribute 'conn'.
      *
@@ -311,5 +864,5 @@ public class EventRepositoryCassandra extends AbstractEventRepository {
     public void setConn(CassandraConnection conn) {
         this.conn = conn;
     }
-   
+
 }
@@ -20,11 +20,16 @@ package org.ff4j.cassandra.store;
  * #L%
  */
 import static org.ff4j.cassandra.CassandraConstants.COLUMN_FAMILY_FEATURES;
+import static org.ff4j.cassandra.CassandraConstants.COL_FEAT_ENABLE;
 import static org.ff4j.cassandra.CassandraConstants.COL_FEAT_GROUPNAME;
 import static org.ff4j.cassandra.CassandraConstants.COL_FEAT_UID;
+import static org.ff4j.cassandra.CassandraConstants.IMPORT_BATCH_SIZE;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -35,11 +40,16 @@ import org.ff4j.core.Feature;
 import org.ff4j.core.FeatureStore;
 import org.ff4j.property.Property;
 import org.ff4j.store.AbstractFeatureStore;
+import org.ff4j.store.ChangeSet;
+import org.ff4j.store.ImportReport;
 import org.ff4j.utils.JsonUtils;
 import org.ff4j.utils.Util;
 
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
+import com.datastax.driver.core.exceptions.DriverException;
 
 /**
  * Implementation of {@link FeatureStore} to work with Cassandra Storage.
@@ -129,7 +139,23 @@ public class FeatureStoreCassandra extends AbstractFeatureStore {
     public void create(Feature fp) {
         assertFeatureNotNull(fp);
         assertFeatureNotExist(fp.getUid());
-        // Convert map<String, Property> to map<String, String>, structure in DB
+        conn.getSession().execute(getBuilder().cqlCreateFeature(), 
+                fp.getUid(),
+                fp.isEnable() ? 1 : 0, 
+                fp.getDescription(), 
+                JsonUtils.flippingStrategyAsJson(fp.getFlippingStrategy()),
+                fp.getGroup(), fp.getPermissions(), mapOfProperties(fp));
+    }
+    
+    /**
+     * Convert map<String, Property> to map<String, String>, structure in DB.
+     *
+     * @param fp
+     *      current feature
+     * @return
+     *      custom properties as json by name
+     */
+    private Map < String, String > mapOfProperties(Feature fp) {
         Map < String, String > mapOfProperties = new HashMap<String, String>();  
         if (fp.getCustomProperties() != null && !fp.getCustomProperties().isEmpty()) {
             for (Map.Entry<String, Property<?>> customP : fp.getCustomProperties().entrySet()) {
@@ -138,12 +164,58 @@ public class FeatureStoreCassandra extends AbstractFeatureStore {
                 }
             }
         }
-        conn.getSession().execute(getBuilder().cqlCreateFeature(), 
-                fp.getUid(),
-                fp.isEnable() ? 1 : 0, 
-                fp.getDescription(), 
-                JsonUtils.flippingStrategyAsJson(fp.getFlippingStrategy()),
-                fp.getGroup(), fp.getPermissions(), mapOfProperties);
+        return mapOfProperties;
+    }
+    
+    /**
+     * Import features with logged batches of {@link org.ff4j.cassandra.CassandraConstants#IMPORT_BATCH_SIZE}
+     * inserts. An insert replaces the whole row, collections included, no delete is needed. Each
+     * batch is atomic : features of a batch rejected by the cluster are reported as failed.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public ImportReport importFeatures(Collection<Feature> features) {
+        ImportReport report = new ImportReport();
+        List < Feature > toImport = new ArrayList<Feature>(prepareImport(features, report).values());
+        if (toImport.isEmpty()) {
+            return report;
+        }
+        PreparedStatement insert = conn.prepare(getBuilder().cqlCreateFeature());
+        for (int start = 0; start < toImport.size(); start += IMPORT_BATCH_SIZE) {
+            List < Feature > chunk = toImport.subList(start, Math.min(start + IMPORT_BATCH_SIZE, toImport.size()));
+            List < String > uids = new ArrayList<String>();
+            for (Feature fp : chunk) {
+                uids.add(fp.getUid());
+            }
+            try {
+                Set < String > existing = new HashSet<String>();
+                for (Row row : conn.getSession().execute(getBuilder().cqlReadFeaturesIn(), uids).all()) {
+                    existing.add(row.getString(COL_FEAT_UID));
+                }
+                BatchStatement batch = new BatchStatement(BatchStatement.Type.LOGGED);
+                for (Feature fp : chunk) {
+                    batch.add(insert.bind(fp.getUid(), 
+                            fp.isEnable() ? 1 : 0, 
+                            fp.getDescription(), 
+                            JsonUtils.flippingStrategyAsJson(fp.getFlippingStrategy()),
+                            fp.getGroup(), fp.getPermissions(), mapOfProperties(fp)));
+                }
+                conn.getSession().execute(batch);
+                for (String uid : uids) {
+                    if (existing.contains(uid)) {
+                        report.updated(uid);
+                    } else {
+                        report.created(uid);
+                    }
+                }
+            } catch (DriverException error) {
+                for (String uid : uids) {
+                    report.failed(uid, error);
+                }
+            }
+        }
+        return report;
     }
     
     /** {@inheritDoc} */
@@ -189,6 +261,7 @@ public class FeatureStoreCassandra extends AbstractFeatureStore {
         assertFeatureExist(uid);
         Util.assertHasLength(roleName);
         conn.getSession().execute(getBuilder().cqlGrantRoleOnFeature(roleName), uid);
+        touch(uid);
     }
 
     /** {@inheritDoc} */
@@ -203,6 +276,7 @@ public class FeatureStoreCassandra extends AbstractFeatureStore {
         permissions.remove(roleName);
         // Update new roleSet
         conn.getSession().execute(getBuilder().cqlUpdateFeatureRoles(), permissions, uid);
+        touch(uid);
     }
     
     /** {@inheritDoc} */
@@ -259,6 +333,7 @@ public class FeatureStoreCassandra extends AbstractFeatureStore {
         assertFeatureExist(uid);
         Util.assertHasLength(groupName);
         conn.getSession().execute(getBuilder().cqlAddFeatureToGroup(), groupName, uid);
+        touch(uid);
     }
 
     /** {@inheritDoc} */
@@ -267,6 +342,7 @@ public class FeatureStoreCassandra extends AbstractFeatureStore {
         assertFeatureExist(uid);
         assertGroupExist(groupName);
         conn.getSession().execute(getBuilder().cqlRemoveFeatureFromGroup(), uid);
+        touch(uid);
     }
 
     /** {@inheritDoc} */
@@ -282,6 +358,46 @@ public class FeatureStoreCassandra extends AbstractFeatureStore {
         return groups;
     }
 
+    /**
+     * WRITETIME() is not available on collections and a removed group is a tombstone : rewrite
+     * column ENABLE with its own value so that its write time tracks the last change of the feature.
+     *
+     * @param uid
+     *      feature identifier
+     */
+    private void touch(String uid) {
+        Row row = conn.getSession().execute(getBuilder().cqlReadFeatureEnable(), uid).one();
+        if (row != null) {
+            conn.getSession().execute(getBuilder().cqlTouchFeature(), row.getInt(COL_FEAT_ENABLE), uid);
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public ChangeSet < Feature > featureChangesSince(long version) {
+        // Write time of column ENABLE (microseconds) is the last modification of the feature
+        long lastVersion = version;
+        Set < String > retained = new HashSet<String>();
+        List < String > changed = new ArrayList<String>();
+        for (Row row : conn.getSession().execute(getBuilder().cqlFeaturesWriteTime()).all()) {
+            String uid = row.getString(0);
+            retained.add(uid);
+            long writeTime = row.isNull(1) ? 0 : row.getLong(1);
+            if (version == 0 || writeTime == 0 || writeTime >= version) {
+                changed.add(uid);
+            }
+            lastVersion = Math.max(lastVersion, writeTime);
+        }
+        Map < String, Feature > updated = new HashMap<String, Feature>();
+        if (!changed.isEmpty()) {
+            for (Row row : conn.getSession().execute(getBuilder().cqlReadFeaturesIn(), changed).all()) {
+                Feature f = CassandraMapper.mapFeature(row);
+                updated.put(f.getUid(), f);
+            }
+        }
+        return new ChangeSet<Feature>(lastVersion, updated, null, retained);
+    }
+
     /** {@inheritDoc} */
     @Override
     public void clear() {
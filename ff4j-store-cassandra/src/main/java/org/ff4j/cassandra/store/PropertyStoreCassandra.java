@@ -2,6 +2,7 @@ package org.ff4j.cassandra.store;
 
 import static org.ff4j.cassandra.CassandraConstants.COLUMN_FAMILY_PROPERTIES;
 import static org.ff4j.cassandra.CassandraConstants.COL_PROPERTY_ID;
+import static org.ff4j.cassandra.CassandraConstants.IMPORT_BATCH_SIZE;
 
 import java.util.HashMap;
 import java.util.HashSet;
@@ -27,6 +28,9 @@ import java.util.HashSet;
  */
 
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -36,10 +40,15 @@ import org.ff4j.cassandra.CassandraQueryBuilder;
 import org.ff4j.property.Property;
 import org.ff4j.property.store.AbstractPropertyStore;
 import org.ff4j.property.store.PropertyStore;
+import org.ff4j.store.ChangeSet;
+import org.ff4j.store.ImportReport;
 import org.ff4j.utils.Util;
 
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
+import com.datastax.driver.core.exceptions.DriverException;
 
 /**
  * Implements of {@link PropertyStore} for sotre Cassandra.
@@ -94,18 +103,78 @@ public class PropertyStoreCassandra extends AbstractPropertyStore {
     public <T> void createProperty(Property<T> prop) {
         assertPropertyNotNull(prop);
         assertPropertyNotExist(prop.getName());
-        Set < String > fixedValues = new HashSet<String>();
-        if (prop.getFixedValues() != null) {
-            for (T fixedValue : prop.getFixedValues()) {
-                fixedValues.add(fixedValue.toString());
-            }
-        }
         conn.getSession().execute(getBuilder().cqlCreateProperty(), 
                 prop.getName(),
                 prop.getType(),
                 prop.asString(),
                 prop.getDescription(),
-                fixedValues);
+                fixedValues(prop));
+    }
+    
+    /**
+     * Fixed values as strings, structure in DB.
+     *
+     * @param prop
+     *      current property
+     * @return
+     *      fixed values
+     */
+    private Set < String > fixedValues(Property<?> prop) {
+        Set < String > fixedValues = new HashSet<String>();
+        if (prop.getFixedValues() != null) {
+            for (Object fixedValue : prop.getFixedValues()) {
+                fixedValues.add(fixedValue.toString());
+            }
+        }
+        return fixedValues;
+    }
+    
+    /**
+     * Import properties with logged batches of {@link org.ff4j.cassandra.CassandraConstants#IMPORT_BATCH_SIZE}
+     * inserts, an insert replaces the whole row. Each batch is atomic : properties of a batch
+     * rejected by the cluster are reported as failed.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public ImportReport importProperties(Collection<Property<?>> properties) {
+        ImportReport report = new ImportReport();
+        List < Property<?> > toImport = new ArrayList<Property<?>>(prepareImport(properties, report).values());
+        if (toImport.isEmpty()) {
+            return report;
+        }
+        PreparedStatement insert = conn.prepare(getBuilder().cqlCreateProperty());
+        for (int start = 0; start < toImport.size(); start += IMPORT_BATCH_SIZE) {
+            List < Property<?> > chunk = toImport.subList(start, Math.min(start + IMPORT_BATCH_SIZE, toImport.size()));
+            List < String > names = new ArrayList<String>();
+            for (Property<?> prop : chunk) {
+                names.add(prop.getName());
+            }
+            try {
+                Set < String > existing = new HashSet<String>();
+                for (Row row : conn.getSession().execute(getBuilder().cqlReadPropertiesIn(), names).all()) {
+                    existing.add(row.getString(COL_PROPERTY_ID));
+                }
+                BatchStatement batch = new BatchStatement(BatchStatement.Type.LOGGED);
+                for (Property<?> prop : chunk) {
+                    batch.add(insert.bind(prop.getName(), prop.getType(), prop.asString(), 
+                            prop.getDescription(), fixedValues(prop)));
+                }
+                conn.getSession().execute(batch);
+                for (String name : names) {
+                    if (existing.contains(name)) {
+                        report.updated(name);
+                    } else {
+                        report.created(name);
+                    }
+                }
+            } catch (DriverException error) {
+                for (String name : names) {
+                    report.failed(name, error);
+                }
+            }
+        }
+        return report;
     }
 
     /** {@inheritDoc} */
@@ -146,6 +215,32 @@ public class PropertyStoreCassandra extends AbstractPropertyStore {
         return listProperty;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public ChangeSet < Property<?> > propertyChangesSince(long version) {
+        // Update is delete + create, write time of CLAZZ (microseconds) is the last modification
+        long lastVersion = version;
+        Set < String > retained = new HashSet<String>();
+        List < String > changed = new ArrayList<String>();
+        for (Row row : conn.getSession().execute(getBuilder().cqlPropertiesWriteTime()).all()) {
+            String name = row.getString(0);
+            retained.add(name);
+            long writeTime = row.isNull(1) ? 0 : row.getLong(1);
+            if (version == 0 || writeTime == 0 || writeTime >= version) {
+                changed.add(name);
+            }
+            lastVersion = Math.max(lastVersion, writeTime);
+        }
+        Map < String, Property<?> > updated = new HashMap<String, Property<?>>();
+        if (!changed.isEmpty()) {
+            for (Row row : conn.getSession().execute(getBuilder().cqlReadPropertiesIn(), changed).all()) {
+                Property<?> p = CassandraMapper.mapProperty(row);
+                updated.put(p.getName(), p);
+            }
+        }
+        return new ChangeSet<Property<?>>(lastVersion, updated, null, retained);
+    }
+
     /** {@inheritDoc} */
     @Override
     public void clear() {
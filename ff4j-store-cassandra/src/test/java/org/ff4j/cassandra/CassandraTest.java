@@ -23,8 +23,6 @@ package org.ff4j.cassandra;
 import java.lang.reflect.Constructor;
 
 import org.cassandraunit.utils.EmbeddedCassandraServerHelper;
-import org.ff4j.audit.EventConstants;
-import org.ff4j.audit.EventQueryDefinition;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Ignore;
@@ -74,16 +72,10 @@ public class CassandraTest {
         CassandraConnection   cc  = new CassandraConnection();
         CassandraQueryBuilder cqb = new CassandraQueryBuilder(cc);
 
-        // Mapping with a whole set of filters
-        EventQueryDefinition eqd = new EventQueryDefinition();
-        eqd.addFilterAction(EventConstants.ACTION_CLEAR);
-        eqd.addFilterHost("localhost");
-        eqd.addFilterName("TOTO");
-        eqd.addFilterName("TATA");
-        eqd.addFilterSource("JAVA");
-        // Create dedicated 
-        Assert.assertNotNull(cqb.cqlUserHitCount(eqd));
-        Assert.assertNotNull(cqb.cqlCreateEvent(20));
+        Assert.assertTrue(cqb.cqlCreateEvent(20).endsWith("USING TTL 20"));
+        Assert.assertFalse(cqb.cqlCreateFeatureUsage(-1).contains("TTL"));
+        Assert.assertTrue(cqb.cqlCreateColumnFamilyFeatureUsage().contains("PRIMARY KEY ((NAME, HOUR), TIME, UID)"));
+        Assert.assertTrue(cqb.cqlCreateColumnFamilyFeatureUsageHits().contains(" counter"));
     }
     
     /** TDD. */
@@ -0,0 +1,191 @@
+package org.ff4j.cassandra.store;
+
+/*
+ * #%L
+ * ff4j-store-cassandra
+ * %%
+ * Copyright (C) 2013 - 2016 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.ff4j.audit.EventConstants.ACTION_CHECK_OK;
+import static org.ff4j.audit.EventConstants.SOURCE_JAVA;
+import static org.ff4j.audit.EventConstants.TARGET_FEATURE;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.InetSocketAddress;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.TimeZone;
+
+import org.ff4j.audit.Event;
+import org.ff4j.cassandra.CassandraConnection;
+import org.ff4j.cassandra.CassandraQueryBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.exceptions.NoHostAvailableException;
+
+/**
+ * Queries, time buckets and writes of {@link EventRepositoryCassandra} without Cassandra.
+ *
+ * @author Cedrick LUNVEN (@clunven)
+ */
+public class EventRepositoryCassandraBucketTest {
+
+    /** One hour in milliseconds. */
+    private static final long HOUR = 3600 * 1000L;
+
+    /** Time zone of the JVM. */
+    private TimeZone defaultTimeZone;
+
+    /** Tested repository. */
+    private EventRepositoryCassandra repo;
+
+    /** Mocked connection. */
+    private CassandraConnection conn;
+
+    /** Insert of a feature usage. */
+    private BoundStatement insertUsage;
+
+    /** Increment of hit counters. */
+    private BoundStatement incrementHits;
+
+    @Before
+    public void setUp() {
+        defaultTimeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Paris"));
+        conn = mock(CassandraConnection.class);
+        when(conn.getKeySpace()).thenReturn("ff4j");
+        repo = new EventRepositoryCassandra(conn);
+        CassandraQueryBuilder builder = repo.getBuilder();
+        insertUsage   = mockPrepare(builder.cqlCreateFeatureUsage(-1));
+        incrementHits = mockPrepare(builder.cqlIncrementHits());
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(defaultTimeZone);
+    }
+
+    private BoundStatement mockPrepare(String cql) {
+        PreparedStatement ps = mock(PreparedStatement.class);
+        BoundStatement bound = mock(BoundStatement.class);
+        when(ps.bind(anyVararg())).thenReturn(bound);
+        when(conn.prepare(cql)).thenReturn(ps);
+        return bound;
+    }
+
+    private ResultSetFuture future(boolean succeeded) {
+        ResultSetFuture future = mock(ResultSetFuture.class);
+        if (!succeeded) {
+            when(future.getUninterruptibly()).thenThrow(
+                    new NoHostAvailableException(new HashMap<InetSocketAddress, Throwable>()));
+        }
+        return future;
+    }
+
+    private long time(int year, int month, int day, int hour, int minute) {
+        Calendar c = Calendar.getInstance();
+        c.clear();
+        c.set(year, month, day, hour, minute);
+        return c.getTimeInMillis();
+    }
+
+    @Test
+    public void testQueryBuilder() {
+        CassandraQueryBuilder cqb = repo.getBuilder();
+        Assert.assertTrue(cqb.cqlCreateColumnFamilyAudit().contains("PRIMARY KEY ((DATE), TIME, UID)"));
+        Assert.assertTrue(cqb.cqlCreateColumnFamilyFeatureUsage().contains("PRIMARY KEY ((NAME, HOUR), TIME, UID)"));
+        Assert.assertTrue(cqb.cqlCreateColumnFamilyFeatureUsageHits().contains("PRIMARY KEY ((DATE, DIMENSION), HOUR, ITEM)"));
+        Assert.assertTrue(cqb.cqlCreateEvent(20).startsWith("INSERT INTO ff4j.audit("));
+        Assert.assertTrue(cqb.cqlCreateFeatureUsage(20).endsWith("USING TTL 20"));
+        Assert.assertFalse(cqb.cqlCreateFeatureUsage(0).contains("TTL"));
+        // Reads target a single partition, no filtering
+        Assert.assertFalse(cqb.cqlReadAuditTrail().contains("ALLOW FILTERING"));
+        Assert.assertFalse(cqb.cqlReadFeatureUsage().contains("ALLOW FILTERING"));
+        Assert.assertFalse(cqb.cqlReadHits().contains("ALLOW FILTERING"));
+        Assert.assertTrue(cqb.cqlIncrementHits().contains("HITS = HITS + ?"));
+    }
+
+    @Test
+    public void testHourBuckets() {
+        long t = time(2016, Calendar.JUNE, 15, 10, 30);
+        long tenOClock = time(2016, Calendar.JUNE, 15, 10, 0);
+        Assert.assertEquals(tenOClock, repo.getHourStart(t));
+        Assert.assertEquals(tenOClock, repo.getHourStart(tenOClock));
+        Assert.assertEquals(tenOClock + HOUR, repo.getNextHour(tenOClock));
+        Assert.assertEquals(tenOClock + HOUR, repo.getFirstFullHour(t));
+        Assert.assertEquals(tenOClock, repo.getFirstFullHour(tenOClock));
+        Assert.assertEquals("2016061510", repo.getHourKey(tenOClock));
+        Assert.assertEquals("2016061509", repo.getHourKey(tenOClock - 1));
+        Assert.assertEquals("2016061500", repo.getHourKey(time(2016, Calendar.JUNE, 15, 0, 0)));
+    }
+
+    @Test
+    public void testHourBucketsDaylightSaving() {
+        // 2016-03-27 02:00 does not exist in Paris : 01:00 is followed by 03:00
+        long oneOClock = time(2016, Calendar.MARCH, 27, 1, 0);
+        Assert.assertEquals(oneOClock + HOUR, repo.getNextHour(oneOClock));
+        Assert.assertEquals("2016032703", repo.getHourKey(repo.getNextHour(oneOClock)));
+        // 2016-10-30 02:00 happens twice, both hours share the key
+        long twoOClock = repo.getNextHour(time(2016, Calendar.OCTOBER, 30, 1, 0));
+        long secondTwoOClock = repo.getNextHour(twoOClock);
+        Assert.assertEquals("2016103002", repo.getHourKey(twoOClock));
+        Assert.assertEquals(twoOClock + HOUR, secondTwoOClock);
+        Assert.assertEquals(repo.getHourKey(twoOClock), repo.getHourKey(secondTwoOClock));
+        Assert.assertEquals(secondTwoOClock, repo.getHourStart(secondTwoOClock + HOUR / 2));
+        Assert.assertEquals("2016103003", repo.getHourKey(repo.getNextHour(secondTwoOClock)));
+    }
+
+    @Test
+    public void testHitsFailureNotReported() {
+        ResultSetFuture ok = future(true);
+        ResultSetFuture ko = future(false);
+        when(conn.executeAsync(insertUsage)).thenReturn(ok);
+        when(conn.executeAsync(incrementHits)).thenReturn(ko);
+        Event evt = new Event(SOURCE_JAVA, TARGET_FEATURE, "f1", ACTION_CHECK_OK);
+        // Events are stored : a retry would count them twice
+        Assert.assertTrue(repo.saveEvents(Collections.singletonList(evt)));
+        InOrder order = inOrder(conn, ok);
+        order.verify(conn).executeAsync(insertUsage);
+        order.verify(ok).getUninterruptibly();
+        // One counter per dimension
+        order.verify(conn, times(4)).executeAsync(incrementHits);
+    }
+
+    @Test
+    public void testEventsFailureReported() {
+        ResultSetFuture ko = future(false);
+        when(conn.executeAsync(insertUsage)).thenReturn(ko);
+        Event evt = new Event(SOURCE_JAVA, TARGET_FEATURE, "f1", ACTION_CHECK_OK);
+        Assert.assertFalse(repo.saveEvents(Collections.singletonList(evt)));
+        verify(conn, never()).executeAsync(incrementHits);
+    }
+
+}
@@ -21,9 +21,12 @@ package org.ff4j.consul;
  */
 
 import java.text.SimpleDateFormat;
-import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.ff4j.audit.Event;
 import org.ff4j.store.kv.KeyValueDriver;
@@ -33,8 +36,13 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.Optional;
 import com.orbitz.consul.AgentClient;
 import com.orbitz.consul.Consul;
+import com.orbitz.consul.ConsulException;
 import com.orbitz.consul.HealthClient;
 import com.orbitz.consul.KeyValueClient;
+import com.orbitz.consul.cache.KVCache;
+import com.orbitz.consul.model.kv.Value;
+import com.orbitz.consul.option.ImmutablePutOptions;
+import com.orbitz.consul.option.PutOptions;
 
 /**
  * Wrapping connection to consul to use it in different classes.
@@ -59,17 +67,14 @@ public class ConsulConnection implements KeyValueDriver< String, String > {
     /** logger for this class. */
     private static final Logger LOGGER = LoggerFactory.getLogger(ConsulConnection.class);
     
-    /** Repository. */
-    private static final String KEY_DICTIONARY_FEATURE = "FF4J/FEATURES_DICTIONARY";
+    /** Time to wait for the first read of a watched prefix in seconds. */
+    private static final int WATCH_INIT_TIMEOUT = 10;
     
-    /** Repository. */
-    private static final String KEY_DICTIONARY_PROPERTY = "FF4J/PROPERTIES_DICTIONARY";
+    /** Hour of events in keys, SimpleDateFormat is not thread safe. */
+    private static final String HOUR_FORMAT = "yyyyMMddHH";
     
-    /** Repository. */
-    private static final String DICTIONARY_SEPARATOR = ",";
-    
-    /** audit key. */
-    private static final SimpleDateFormat KDF = new SimpleDateFormat("yyyyMMdd");
+    /** Attempts of check-and-set on a counter before giving up. */
+    private static final int MAX_CAS_ATTEMPTS = 10;
     
     /** Default consult. */
     private Consul consul = null;
@@ -166,7 +171,7 @@ public class ConsulConnection implements KeyValueDriver< String, String > {
     /** {@inheritDoc} */
     @Override
     public String getValue(String key) {
-        return getKeyValueClient().getValueAsString(key).get();
+        return getKeyValueClient().getValueAsString(key).orNull();
     } 
     
     /** {@inheritDoc} */
@@ -191,27 +196,19 @@ public class ConsulConnection implements KeyValueDriver< String, String > {
     /** {@inheritDoc} */
     @Override
     public Set<String> getFeatureList() {
-        Optional < String> listFeatures = getKeyValueClient().getValueAsString(KEY_DICTIONARY_FEATURE);
-        if (!listFeatures.isPresent()) return new HashSet<>();
-        return new HashSet<>(Arrays.asList(listFeatures.get().split(DICTIONARY_SEPARATOR)));
+        return listNames(ConsulConstants.FF4J_PREFIXKEY_FEATURES);
     }
     
     /** {@inheritDoc} */
     @Override
     public void registerFeature(String featureName) {
-        Set < String > featureList = getFeatureList();
-        featureList.add(featureName);
-        getKeyValueClient().putValue(KEY_DICTIONARY_FEATURE, 
-                String.join(DICTIONARY_SEPARATOR, featureList));
+        // The feature key is the registration : names are listed by prefix, no shared dictionary to update
     }
 
     /** {@inheritDoc} */
     @Override
     public void unregisterFeature(String featureName) {
-        Set < String > featureList = getFeatureList();
-        featureList.remove(featureName);
-        getKeyValueClient().putValue(KEY_DICTIONARY_FEATURE, 
-                String.join(DICTIONARY_SEPARATOR, featureList));
+        // Deleting the feature key is enough
     }
 
     // -- Properties --
@@ -230,28 +227,75 @@ public class ConsulConnection implements KeyValueDriver< String, String > {
     /** {@inheritDoc} */
     @Override
     public Set<String> getPropertyList() {
-        Optional < String> listProperties = getKeyValueClient().getValueAsString(KEY_DICTIONARY_PROPERTY);
-        if (!listProperties.isPresent())  return new HashSet<>();
-        return new HashSet<>(Arrays.asList(
-                listProperties.get().split(DICTIONARY_SEPARATOR)));
+        return listNames(ConsulConstants.FF4J_PREFIXKEY_PROPERTIES);
     }
     
     /** {@inheritDoc} */
     @Override
     public void registerProperty(String propertyName) {
-        Set < String > propertyList = getPropertyList();
-        propertyList.add(propertyName);
-        getKeyValueClient().putValue(KEY_DICTIONARY_PROPERTY, 
-                String.join(DICTIONARY_SEPARATOR, propertyList));
+        // The property key is the registration : names are listed by prefix, no shared dictionary to update
     }
     
     /** {@inheritDoc} */
     @Override
     public void unregisterProperty(String propertyName) {
-        Set < String > propertyList = getPropertyList();
-        propertyList.remove(propertyName);
-        getKeyValueClient().putValue(KEY_DICTIONARY_PROPERTY, 
-                String.join(DICTIONARY_SEPARATOR, propertyList));
+        // Deleting the property key is enough
+    }
+    
+    /**
+     * List names under a prefix with a single keys-only request.
+     *
+     * @param prefix
+     *      features or properties prefix
+     * @return
+     *      names relative to the prefix
+     */
+    private Set < String > listNames(String prefix) {
+        Set < String > names = new HashSet<>();
+        try {
+            for (String key : getKeyValueClient().getKeys(prefix)) {
+                if (key.length() > prefix.length()) {
+                    names.add(key.substring(prefix.length()));
+                }
+            }
+        } catch (ConsulException ce) {
+            // Not found : no key under this prefix
+            if (ce.getCode() != 404) {
+                throw ce;
+            }
+        }
+        return names;
+    }
+    
+    /**
+     * Watch all keys under a prefix with blocking queries : the returned cache holds a local snapshot
+     * (keys relative to the prefix) updated each time the index of the prefix changes.
+     *
+     * @param prefix
+     *      watched prefix
+     * @param watchSeconds
+     *      maximum wait of each blocking query
+     * @return
+     *      started cache, initialized with the current values
+     */
+    public KVCache watch(String prefix, int watchSeconds) {
+        KVCache cache = KVCache.newCache(getKeyValueClient(), prefix, watchSeconds);
+        try {
+            cache.start();
+            if (!cache.awaitInitialized(WATCH_INIT_TIMEOUT, TimeUnit.SECONDS)) {
+                cache.stop();
+                throw new IllegalStateException("Cannot read prefix '" + prefix + "' within " + WATCH_INIT_TIMEOUT + " seconds");
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while watching prefix '" + prefix + "'", ie);
+        } catch (IllegalStateException ise) {
+            throw ise;
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot watch prefix '" + prefix + "'", e);
+        }
+        LOGGER.info("Watching consul prefix '{}'", prefix);
+        return cache;
     }
     
     // Audit
@@ -259,25 +303,108 @@ public class ConsulConnection implements KeyValueDriver< String, String > {
     /** {@inheritDoc} */
     @Override
     public String getHitCountKey(Event e) {
-        return ConsulConstants.FF4J_PREFIXKEY_HITS + "/" + 
-                    KDF.format(e.getTimestamp()) + "/"   +
-                    e.getName() + "/" + e.getUuid();
+        return getEventKey(ConsulConstants.FF4J_PREFIXKEY_HITS, e);
     }
 
     /** {@inheritDoc} */
     @Override
     public String getMissKey(Event e) {
-        return ConsulConstants.FF4J_PREFIXKEY_MISS + "/" + 
-                KDF.format(e.getTimestamp()) + "/"   +
-                e.getName() + "/" + e.getUuid();
+        return getEventKey(ConsulConstants.FF4J_PREFIXKEY_MISS, e);
     }
 
     /** {@inheritDoc} */
     @Override
     public String getAuditTrailKey(Event e) {
-        return ConsulConstants.FF4J_PREFIXKEY_AUDIT + "/" + 
-                KDF.format(e.getTimestamp()) + "/"   +
-                e.getName() + "/" + e.getUuid();
+        return getEventKey(ConsulConstants.FF4J_PREFIXKEY_AUDIT, e);
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public String getHitCountBucket(String timeBucket) {
+        return ConsulConstants.FF4J_PREFIXKEY_HITS + timeBucket;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getMissBucket(String timeBucket) {
+        return ConsulConstants.FF4J_PREFIXKEY_MISS + timeBucket;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getAuditTrailBucket(String timeBucket) {
+        return ConsulConstants.FF4J_PREFIXKEY_AUDIT + timeBucket;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getHitCounterKey(String dimension, String hourBucket, String value) {
+        return getHitCounterBucket(dimension, hourBucket) + "/" + value;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getHitCounterBucket(String dimension, String timeBucket) {
+        return ConsulConstants.FF4J_PREFIXKEY_COUNTERS + dimension + "/" + timeBucket;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, String> findValuesByPrefix(String prefix) {
+        Map < String, String > values = new HashMap<>();
+        // Recursive read : a single request for the whole prefix
+        for (Value value : getKeyValueClient().getValues(prefix)) {
+            if (value.getValueAsString().isPresent()) {
+                values.put(value.getKey(), value.getValueAsString().get());
+            }
+        }
+        return values;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long incrementCounter(String key, long delta) {
+        // Check-and-set on the modify index, retried when another client updated the counter
+        for (int attempt = 1; attempt <= MAX_CAS_ATTEMPTS; attempt++) {
+            Optional < Value > current = getKeyValueClient().getValue(key);
+            long index = 0L;
+            long count = delta;
+            if (current.isPresent()) {
+                index = current.get().getModifyIndex();
+                count += Long.parseLong(current.get().getValueAsString().or("0"));
+            }
+            PutOptions cas = ImmutablePutOptions.builder().cas(index).build();
+            if (getKeyValueClient().putValue(key, String.valueOf(count), 0L, cas)) {
+                return count;
+            }
+            LOGGER.debug("Counter '{}' has been updated concurrently, retrying", key);
+        }
+        throw new IllegalStateException("Cannot update counter '" + key + "' after " + MAX_CAS_ATTEMPTS + " attempts");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Long> findCountersByPrefix(String prefix) {
+        Map < String, Long > counters = new HashMap<>();
+        for (Map.Entry < String, String > counter : findValuesByPrefix(prefix).entrySet()) {
+            counters.put(counter.getKey(), Long.valueOf(counter.getValue()));
+        }
+        return counters;
+    }
+    
+    /**
+     * Key of an event : prefix, hour (yyyyMMddHH), feature name and uuid.
+     *
+     * @param prefix
+     *      kind of event
+     * @param e
+     *      current event
+     * @return
+     *      event key
+     */
+    private String getEventKey(String prefix, Event e) {
+        return prefix + new SimpleDateFormat(HOUR_FORMAT).format(new Date(e.getTimestamp())) 
+                + "/" + e.getName() + "/" + e.getUuid();
     }
     
 }
@@ -44,4 +44,7 @@ public class ConsulConstants {
     
     /** Path for ff4j keys. */
     public static final String FF4J_PREFIXKEY_MISS = FF4J_KEY_FF4J + "/MISS/";
+    
+    /** Path for hourly hit counters. */
+    public static final String FF4J_PREFIXKEY_COUNTERS = FF4J_KEY_FF4J + "/COUNTERS/";
 }
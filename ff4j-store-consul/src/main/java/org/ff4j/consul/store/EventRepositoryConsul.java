@@ -0,0 +1,53 @@
+package org.ff4j.consul.store;
+
+/*
+ * #%L
+ * ff4j-store-consul
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.ff4j.audit.repository.EventRepository;
+import org.ff4j.consul.ConsulConnection;
+import org.ff4j.store.kv.KeyValueEventRepository;
+import org.ff4j.utils.mapping.JsonStringEventMapper;
+
+/**
+ * {@link EventRepository} to persist events in Consul key/value store as Json.
+ *
+ * @author Cedrick LUNVEN (@clunven)
+ */
+public class EventRepositoryConsul extends KeyValueEventRepository < String > {
+    
+    /**
+     * Default contructor.
+     */
+    public EventRepositoryConsul() {
+        super();
+    }
+    
+    /**
+     * Initialization with connection.
+     *
+     * @param connection
+     *      connection to consul
+     */
+    public EventRepositoryConsul(ConsulConnection connection) {
+        super(connection, new JsonStringEventMapper());
+    }
+    
+}
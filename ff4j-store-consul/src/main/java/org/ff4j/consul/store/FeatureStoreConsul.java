@@ -21,11 +21,23 @@ package org.ff4j.consul.store;
  */
 
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.ff4j.consul.ConsulConnection;
+import org.ff4j.consul.ConsulConstants;
+import org.ff4j.core.Feature;
 import org.ff4j.core.FeatureStore;
+import org.ff4j.exception.FeatureNotFoundException;
+import org.ff4j.store.ImportReport;
 import org.ff4j.store.kv.KeyValueFeatureStore;
+import org.ff4j.utils.Util;
 import org.ff4j.utils.mapping.JsonStringFeatureMapper;
 
+import com.orbitz.consul.cache.KVCache;
+import com.orbitz.consul.model.kv.Value;
+
 /**
  * Generic {@link FeatureStore} to persist properties in a JCache (JSR107) compliant storage.
  *
@@ -33,6 +45,15 @@ import org.ff4j.utils.mapping.JsonStringFeatureMapper;
  */
 public class FeatureStoreConsul extends KeyValueFeatureStore < String > {
     
+    /** Default maximum wait of blocking queries in seconds. */
+    public static final int DEFAULT_WATCH_SECONDS = 10;
+    
+    /** Local snapshot of features refreshed by blocking queries, null when not watching. */
+    private volatile KVCache watcher;
+    
+    /** Set while the current thread writes : existence checks and reads of writes go to Consul. */
+    private final ThreadLocal < Boolean > writing = new ThreadLocal<>();
+    
     /**
      * Default contructor.
      */
@@ -49,5 +70,282 @@ public class FeatureStoreConsul extends KeyValueFeatureStore < String > {
         super(connection, new JsonStringFeatureMapper());
     }
     
+    /**
+     * Serve reads from a local snapshot of the features, refreshed with blocking queries.
+     */
+    public void startWatching() {
+        startWatching(DEFAULT_WATCH_SECONDS);
+    }
+    
+    /**
+     * Serve reads from a local snapshot of the features, refreshed with blocking queries. Writes still go
+     * to Consul, with their existence checks and reads : they are visible in the snapshot once the next
+     * blocking query returns.
+     *
+     * @param watchSeconds
+     *      maximum wait of each blocking query
+     */
+    public synchronized void startWatching(int watchSeconds) {
+        if (watcher == null) {
+            watcher = getConnection().watch(ConsulConstants.FF4J_PREFIXKEY_FEATURES, watchSeconds);
+        }
+    }
+    
+    /**
+     * Stop blocking queries, reads are sent to Consul again.
+     */
+    public synchronized void stopWatching() {
+        if (watcher != null) {
+            try {
+                watcher.stop();
+            } catch (Exception e) {
+                throw new IllegalStateException("Cannot stop watching features", e);
+            } finally {
+                watcher = null;
+            }
+        }
+    }
+    
+    /**
+     * If reads are served from the local snapshot.
+     *
+     * @return
+     *      if watching features
+     */
+    public boolean isWatching() {
+        return watcher != null;
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public boolean exist(String uid) {
+        KVCache snapshot = getSnapshot();
+        if (snapshot == null) {
+            return super.exist(uid);
+        }
+        Util.assertParamHasLength(uid, "Feature identifier");
+        return snapshot.getMap().containsKey(uid);
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public Feature read(String uid) {
+        KVCache snapshot = getSnapshot();
+        if (snapshot == null) {
+            return super.read(uid);
+        }
+        Util.assertParamHasLength(uid, "Feature identifier");
+        Value value = snapshot.getMap().get(uid);
+        if (value == null || !value.getValueAsString().isPresent()) {
+            throw new FeatureNotFoundException(uid);
+        }
+        return getFeatureMapper().fromStore(value.getValueAsString().get());
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Feature> readAll() {
+        KVCache snapshot = getSnapshot();
+        if (snapshot == null) {
+            return super.readAll();
+        }
+        Map < String, Feature > mapOfFeatures = new HashMap<>();
+        for (Value value : snapshot.getMap().values()) {
+            if (value.getValueAsString().isPresent()) {
+                Feature currF = getFeatureMapper().fromStore(value.getValueAsString().get());
+                mapOfFeatures.put(currF.getUid(), currF);
+            }
+        }
+        return mapOfFeatures;
+    }
+    
+    /**
+     * Snapshot serving the reads of the current thread.
+     *
+     * @return
+     *      snapshot, null if not watching or if the current thread writes
+     */
+    private KVCache getSnapshot() {
+        return (writing.get() == null) ? watcher : null;
+    }
+    
+    /**
+     * Start a write, nested calls are part of the outer write.
+     *
+     * @return
+     *      if this call started the write
+     */
+    private boolean beginWrite() {
+        if (writing.get() != null) {
+            return false;
+        }
+        writing.set(Boolean.TRUE);
+        return true;
+    }
+    
+    /**
+     * End a write.
+     *
+     * @param started
+     *      value returned by {@link #beginWrite()}
+     */
+    private void endWrite(boolean started) {
+        if (started) {
+            writing.remove();
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public void create(Feature feature) {
+        boolean started = beginWrite();
+        try {
+            super.create(feature);
+        } finally {
+            endWrite(started);
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public void update(Feature feature) {
+        boolean started = beginWrite();
+        try {
+            super.update(feature);
+        } finally {
+            endWrite(started);
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public void delete(String uid) {
+        boolean started = beginWrite();
+        try {
+            super.delete(uid);
+        } finally {
+            endWrite(started);
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public void enable(String uid) {
+        boolean started = beginWrite();
+        try {
+            super.enable(uid);
+        } finally {
+            endWrite(started);
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public void disable(String uid) {
+        boolean started = beginWrite();
+        try {
+            super.disable(uid);
+        } finally {
+            endWrite(started);
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public void grantRoleOnFeature(String uid, String roleName) {
+        boolean started = beginWrite();
+        try {
+            super.grantRoleOnFeature(uid, roleName);
+        } finally {
+            endWrite(started);
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public void removeRoleFromFeature(String uid, String roleName) {
+        boolean started = beginWrite();
+        try {
+            super.removeRoleFromFeature(uid, roleName);
+        } finally {
+            endWrite(started);
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public void enableGroup(String groupName) {
+        boolean started = beginWrite();
+        try {
+            super.enableGroup(groupName);
+        } finally {
+            endWrite(started);
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public void disableGroup(String groupName) {
+        boolean started = beginWrite();
+        try {
+            super.disableGroup(groupName);
+        } finally {
+            endWrite(started);
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public void addToGroup(String uid, String groupName) {
+        boolean started = beginWrite();
+        try {
+            super.addToGroup(uid, groupName);
+        } finally {
+            endWrite(started);
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public void removeFromGroup(String uid, String groupName) {
+        boolean started = beginWrite();
+        try {
+            super.removeFromGroup(uid, groupName);
+        } finally {
+            endWrite(started);
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public void clear() {
+        boolean started = beginWrite();
+        try {
+            super.clear();
+        } finally {
+            endWrite(started);
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public ImportReport importFeatures(Collection<Feature> features) {
+        boolean started = beginWrite();
+        try {
+            return super.importFeatures(features);
+        } finally {
+            endWrite(started);
+        }
+    }
+    
+    /**
+     * Getter accessor for attribute 'connection'.
+     *
+     * @return
+     *       current value of 'connection'
+     */
+    public ConsulConnection getConnection() {
+        return (ConsulConnection) getDriver();
+    }
     
 }
@@ -21,11 +21,25 @@ package org.ff4j.consul.store;
  */
 
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 import org.ff4j.consul.ConsulConnection;
+import org.ff4j.consul.ConsulConstants;
+import org.ff4j.exception.PropertyNotFoundException;
+import org.ff4j.property.Property;
 import org.ff4j.property.store.PropertyStore;
+import org.ff4j.store.ImportReport;
 import org.ff4j.store.kv.KeyValuePropertyStore;
+import org.ff4j.utils.Util;
 import org.ff4j.utils.mapping.JsonStringPropertyMapper;
 
+import com.orbitz.consul.cache.KVCache;
+import com.orbitz.consul.model.kv.Value;
+
 /**
  * Generic {@link PropertyStore} to persist properties in a JCache (JSR107) compliant storage.
  *
@@ -33,6 +47,15 @@ import org.ff4j.utils.mapping.JsonStringPropertyMapper;
  */
 public class PropertyStoreConsul extends KeyValuePropertyStore < String > {
     
+    /** Default maximum wait of blocking queries in seconds. */
+    public static final int DEFAULT_WATCH_SECONDS = 10;
+    
+    /** Local snapshot of properties refreshed by blocking queries, null when not watching. */
+    private volatile KVCache watcher;
+    
+    /** Set while the current thread writes : existence checks and reads of writes go to Consul. */
+    private final ThreadLocal < Boolean > writing = new ThreadLocal<>();
+    
     /**
      * Default contructor.
      */
@@ -48,5 +71,218 @@ public class PropertyStoreConsul extends KeyValuePropertyStore < String > {
     public PropertyStoreConsul(ConsulConnection connection) {
         super(connection, new JsonStringPropertyMapper());
     }
+    
+    /**
+     * Serve reads from a local snapshot of the properties, refreshed with blocking queries.
+     */
+    public void startWatching() {
+        startWatching(DEFAULT_WATCH_SECONDS);
+    }
+    
+    /**
+     * Serve reads from a local snapshot of the properties, refreshed with blocking queries. Writes still go
+     * to Consul, with their existence checks and reads : they are visible in the snapshot once the next
+     * blocking query returns.
+     *
+     * @param watchSeconds
+     *      maximum wait of each blocking query
+     */
+    public synchronized void startWatching(int watchSeconds) {
+        if (watcher == null) {
+            watcher = getConnection().watch(ConsulConstants.FF4J_PREFIXKEY_PROPERTIES, watchSeconds);
+        }
+    }
+    
+    /**
+     * Stop blocking queries, reads are sent to Consul again.
+     */
+    public synchronized void stopWatching() {
+        if (watcher != null) {
+            try {
+                watcher.stop();
+            } catch (Exception e) {
+                throw new IllegalStateException("Cannot stop watching properties", e);
+            } finally {
+                watcher = null;
+            }
+        }
+    }
+    
+    /**
+     * If reads are served from the local snapshot.
+     *
+     * @return
+     *      if watching properties
+     */
+    public boolean isWatching() {
+        return watcher != null;
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public boolean existProperty(String name) {
+        KVCache snapshot = getSnapshot();
+        if (snapshot == null) {
+            return super.existProperty(name);
+        }
+        Util.assertParamHasLength(name, "Property name");
+        return snapshot.getMap().containsKey(name);
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public Property<?> readProperty(String name) {
+        KVCache snapshot = getSnapshot();
+        if (snapshot == null) {
+            return super.readProperty(name);
+        }
+        Util.assertParamHasLength(name, "Property name");
+        Value value = snapshot.getMap().get(name);
+        if (value == null || !value.getValueAsString().isPresent()) {
+            throw new PropertyNotFoundException(name);
+        }
+        return getPropertyMapper().fromStore(value.getValueAsString().get());
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Property<?>> readAllProperties() {
+        KVCache snapshot = getSnapshot();
+        if (snapshot == null) {
+            return super.readAllProperties();
+        }
+        Map < String, Property<?> > mapOfProperties = new HashMap<>();
+        for (Value value : snapshot.getMap().values()) {
+            if (value.getValueAsString().isPresent()) {
+                Property<?> currP = getPropertyMapper().fromStore(value.getValueAsString().get());
+                mapOfProperties.put(currP.getName(), currP);
+            }
+        }
+        return mapOfProperties;
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public Set<String> listPropertyNames() {
+        KVCache snapshot = getSnapshot();
+        if (snapshot == null) {
+            return super.listPropertyNames();
+        }
+        Set < String > names = new HashSet<>(snapshot.getMap().keySet());
+        names.remove("");
+        return names;
+    }
+    
+    /**
+     * Snapshot serving the reads of the current thread.
+     *
+     * @return
+     *      snapshot, null if not watching or if the current thread writes
+     */
+    private KVCache getSnapshot() {
+        return (writing.get() == null) ? watcher : null;
+    }
+    
+    /**
+     * Start a write, nested calls are part of the outer write.
+     *
+     * @return
+     *      if this call started the write
+     */
+    private boolean beginWrite() {
+        if (writing.get() != null) {
+            return false;
+        }
+        writing.set(Boolean.TRUE);
+        return true;
+    }
+    
+    /**
+     * End a write.
+     *
+     * @param started
+     *      value returned by {@link #beginWrite()}
+     */
+    private void endWrite(boolean started) {
+        if (started) {
+            writing.remove();
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public <T> void createProperty(Property<T> property) {
+        boolean started = beginWrite();
+        try {
+            super.createProperty(property);
+        } finally {
+            endWrite(started);
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public void deleteProperty(String name) {
+        boolean started = beginWrite();
+        try {
+            super.deleteProperty(name);
+        } finally {
+            endWrite(started);
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public <T> void updateProperty(Property<T> property) {
+        boolean started = beginWrite();
+        try {
+            super.updateProperty(property);
+        } finally {
+            endWrite(started);
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public void updateProperty(String name, String newValue) {
+        boolean started = beginWrite();
+        try {
+            super.updateProperty(name, newValue);
+        } finally {
+            endWrite(started);
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public void clear() {
+        boolean started = beginWrite();
+        try {
+            super.clear();
+        } finally {
+            endWrite(started);
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public ImportReport importProperties(Collection<Property<?>> properties) {
+        boolean started = beginWrite();
+        try {
+            return super.importProperties(properties);
+        } finally {
+            endWrite(started);
+        }
+    }
+    
+    /**
+     * Getter accessor for attribute 'connection'.
+     *
+     * @return
+     *       current value of 'connection'
+     */
+    public ConsulConnection getConnection() {
+        return (ConsulConnection) getDriver();
+    }
 
 }
@@ -23,10 +23,14 @@ package org.ff4j.cache.store;
 
 import org.ff4j.consul.ConsulConnection;
 import org.ff4j.consul.store.FeatureStoreConsul;
+import org.ff4j.core.Feature;
 import org.ff4j.core.FeatureStore;
+import org.ff4j.exception.FeatureAlreadyExistException;
 import org.ff4j.test.store.FeatureStoreTestSupport;
 import org.junit.AfterClass;
+import org.junit.Assert;
 import org.junit.BeforeClass;
+import org.junit.Test;
 
 import com.orbitz.consul.Consul;
 import com.pszymczyk.consul.ConsulProcess;
@@ -67,5 +71,27 @@ public class FeatureStoreConsulEmbeddedTest extends FeatureStoreTestSupport {
         ehcacheStore.importFeaturesFromXmlFile("ff4j.xml");
         return ehcacheStore;
     }
+    
+    @Test
+    public void testWritesWhileWatching() {
+        FeatureStoreConsul consulStore = (FeatureStoreConsul) testedStore;
+        consulStore.startWatching();
+        try {
+            // Snapshot not refreshed yet : checks and reads of writes go to Consul
+            consulStore.create(new Feature("watched", false));
+            consulStore.enable("watched");
+            try {
+                consulStore.create(new Feature("watched", true));
+                Assert.fail("Feature already exists");
+            } catch (FeatureAlreadyExistException faee) {
+                // Expected
+            }
+            consulStore.delete("watched");
+            consulStore.create(new Feature("watched", true));
+            consulStore.delete("watched");
+        } finally {
+            consulStore.stopWatching();
+        }
+    }
 
 }
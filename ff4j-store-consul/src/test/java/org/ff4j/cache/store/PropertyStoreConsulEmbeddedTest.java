@@ -23,10 +23,14 @@ package org.ff4j.cache.store;
 
 import org.ff4j.consul.ConsulConnection;
 import org.ff4j.consul.store.PropertyStoreConsul;
+import org.ff4j.exception.PropertyAlreadyExistException;
+import org.ff4j.property.PropertyString;
 import org.ff4j.property.store.PropertyStore;
 import org.ff4j.test.propertystore.PropertyStoreTestSupport;
 import org.junit.AfterClass;
+import org.junit.Assert;
 import org.junit.BeforeClass;
+import org.junit.Test;
 
 import com.orbitz.consul.Consul;
 import com.pszymczyk.consul.ConsulProcess;
@@ -67,4 +71,27 @@ public class PropertyStoreConsulEmbeddedTest  extends PropertyStoreTestSupport {
         consulStore.importPropertiesFromXmlFile("ff4j.xml");
         return consulStore;
     }
+    
+    @Test
+    public void testWritesWhileWatching() {
+        PropertyStoreConsul consulStore = (PropertyStoreConsul) testedStore;
+        consulStore.startWatching();
+        try {
+            // Snapshot not refreshed yet : checks and reads of writes go to Consul
+            consulStore.createProperty(new PropertyString("watched", "v1"));
+            consulStore.updateProperty("watched", "v2");
+            try {
+                consulStore.createProperty(new PropertyString("watched", "v3"));
+                Assert.fail("Property already exists");
+            } catch (PropertyAlreadyExistException paee) {
+                // Expected
+            }
+            consulStore.deleteProperty("watched");
+            consulStore.createProperty(new PropertyString("watched", "v4"));
+            consulStore.deleteProperty("watched");
+        } finally {
+            consulStore.stopWatching();
+        }
+    }
+
 }
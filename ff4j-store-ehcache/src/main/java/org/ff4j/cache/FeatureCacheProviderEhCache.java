@@ -52,6 +52,9 @@ public class FeatureCacheProviderEhCache implements FF4JCacheManager {
     /** Eh Cache - cache-aside mode utlization. */
     private Cache cacheProperties = null;
 
+    /** Hit and miss statistics. */
+    private final CacheStatistics statistics = new CacheStatistics();
+
     /**
      * Default constructor to allow IoC.
      */
@@ -140,8 +143,10 @@ public class FeatureCacheProviderEhCache implements FF4JCacheManager {
     public Feature getFeature(String featureId) {
         Element e = getCacheFeatures().get(featureId);
         if (e != null) {
+            statistics.recordHit();
             return (Feature) e.getObjectValue();
         }
+        statistics.recordMiss();
         return null;
     }
 
@@ -150,8 +155,10 @@ public class FeatureCacheProviderEhCache implements FF4JCacheManager {
     public Property<?> getProperty(String featureId) {
         Element e = getCacheProperties().get(featureId);
         if (e != null) {
+            statistics.recordHit();
             return (Property<?>) e.getObjectValue();
         }
+        statistics.recordMiss();
         return null;
     }
 
@@ -174,6 +181,12 @@ public class FeatureCacheProviderEhCache implements FF4JCacheManager {
         return getCacheProperties();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
     /**
      * Getter accessor for attribute 'cacheFeatures'.
      *
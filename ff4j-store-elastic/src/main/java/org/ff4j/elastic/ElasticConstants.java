@@ -25,4 +25,11 @@ public class ElasticConstants {
 	public static final String TYPE_FEATURE = "feature";
 	public static final String TYPE_PROPERTY = "property";
 	public static final String TYPE_EVENT = "event";
+	public static final int EVENT_BULK_SIZE = 500;
+	public static final long EVENT_FLUSH_INTERVAL = 50L;
+	public static final int EVENT_BUFFER_SIZE = 10000;
+	public static final int EVENT_PAGE_SIZE = 1000;
+	public static final String AGG_HITS = "hits";
+	public static final String AGG_MISSING = "missing";
+	public static final String AGG_SLOTS = "slots";
 }
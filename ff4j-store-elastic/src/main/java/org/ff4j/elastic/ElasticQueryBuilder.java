@@ -20,24 +20,43 @@ package org.ff4j.elastic;
  * #L%
  */
 
+import static org.ff4j.audit.EventConstants.ACTION_CHECK_OK;
+import static org.ff4j.audit.EventConstants.ACTION_CLEAR;
+import static org.ff4j.audit.EventConstants.ACTION_CREATE;
+import static org.ff4j.audit.EventConstants.ACTION_DELETE;
+import static org.ff4j.audit.EventConstants.ACTION_DISCONNECT;
+import static org.ff4j.audit.EventConstants.ACTION_TOGGLE_OFF;
+import static org.ff4j.audit.EventConstants.ACTION_TOGGLE_ON;
+import static org.ff4j.audit.EventConstants.ACTION_UPDATE;
+
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.query.RangeQueryBuilder;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogram;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortOrder;
 import org.ff4j.audit.Event;
 import org.ff4j.audit.EventConstants;
 import org.ff4j.audit.EventQueryDefinition;
 import org.ff4j.core.Feature;
 import org.ff4j.property.Property;
+import org.ff4j.utils.Util;
 
 import io.searchbox.client.JestResult;
+import io.searchbox.core.Bulk;
 import io.searchbox.core.Delete;
+import io.searchbox.core.DeleteByQuery;
 import io.searchbox.core.Index;
 import io.searchbox.core.Search;
 import io.searchbox.core.SearchResult;
@@ -45,6 +64,9 @@ import io.searchbox.core.SearchResult.Hit;
 import io.searchbox.core.Update;
 import io.searchbox.indices.DeleteIndex;
 import io.searchbox.indices.Flush;
+import io.searchbox.indices.Refresh;
+import io.searchbox.indices.mapping.PutMapping;
+import io.searchbox.params.Parameters;
 
 /**
  * Helper to create Jest queries.
@@ -54,6 +76,14 @@ import io.searchbox.indices.Flush;
  */
 public class ElasticQueryBuilder {
 
+	/** Actions of feature usage events. */
+	private static final Set<String> USAGE_ACTIONS = Util.set(ACTION_CHECK_OK);
+
+	/** Actions of audit trail events. */
+	private static final Set<String> AUDIT_ACTIONS = Util.set(ACTION_DISCONNECT, //
+			ACTION_TOGGLE_ON, ACTION_TOGGLE_OFF, ACTION_CREATE, //
+			ACTION_DELETE, ACTION_UPDATE, ACTION_CLEAR);
+
 	/** Connection. */
 	private final ElasticConnection connection;
 
@@ -113,6 +143,37 @@ public class ElasticQueryBuilder {
 				.id(getFeatureTechId(fp.getUid())).refresh(true).build();
 	}
 
+	/**
+	 * Build the bulk request to import features: existing documents are replaced using their technical id,
+	 * others are indexed.
+	 *
+	 * @param features
+	 *            features to import
+	 * @param techIds
+	 *            technical ids of existing features (uid to document id)
+	 * @return query for JEST
+	 */
+	public Bulk queryImportFeatures(Collection<Feature> features, Map<String, String> techIds) {
+		Bulk.Builder bulk = new Bulk.Builder() //
+				.defaultIndex(connection.getIndexName()) //
+				.defaultType(ElasticConstants.TYPE_FEATURE);
+		for (Feature fp : features) {
+			bulk.addAction(new Index.Builder(fp).id(techIds.get(fp.getUid())).build());
+		}
+		return bulk.setParameter(Parameters.REFRESH, true).build();
+	}
+
+	/**
+	 * Technical ids of the features among expected uids, in a single search.
+	 *
+	 * @param uids
+	 *            feature identifiers
+	 * @return map uid to document id for existing features
+	 */
+	public Map<String, String> getFeatureTechIds(Collection<String> uids) {
+		return getTechIds(ElasticConstants.TYPE_FEATURE, "uid", uids);
+	}
+
 	public String getFeatureTechId(String uid) {
 		SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
 		searchSourceBuilder.query(QueryBuilders.matchQuery("uid", uid));
@@ -220,6 +281,65 @@ public class ElasticQueryBuilder {
 				.id(getPropertyTechIdByName(name)).refresh(true).build();
 	}
 
+	/**
+	 * Build the bulk request to import properties: existing documents are replaced using their technical id,
+	 * others are indexed.
+	 *
+	 * @param properties
+	 *            properties to import
+	 * @param techIds
+	 *            technical ids of existing properties (name to document id)
+	 * @return query for JEST
+	 */
+	public Bulk queryImportProperties(Collection<Property<?>> properties, Map<String, String> techIds) {
+		Bulk.Builder bulk = new Bulk.Builder() //
+				.defaultIndex(connection.getIndexName()) //
+				.defaultType(ElasticConstants.TYPE_PROPERTY);
+		for (Property<?> property : properties) {
+			bulk.addAction(new Index.Builder(property).id(techIds.get(property.getName())).build());
+		}
+		return bulk.setParameter(Parameters.REFRESH, true).build();
+	}
+
+	/**
+	 * Technical ids of the properties among expected names, in a single search.
+	 *
+	 * @param names
+	 *            property names
+	 * @return map name to document id for existing properties
+	 */
+	public Map<String, String> getPropertyTechIds(Collection<String> names) {
+		return getTechIds(ElasticConstants.TYPE_PROPERTY, "name", names);
+	}
+
+	@SuppressWarnings("rawtypes")
+	private Map<String, String> getTechIds(String type, String field, Collection<String> keys) {
+		Map<String, String> techIds = new HashMap<String, String>();
+		if (keys.isEmpty()) {
+			return techIds;
+		}
+		BoolQueryBuilder anyKey = QueryBuilders.boolQuery();
+		for (String key : keys) {
+			anyKey.should(QueryBuilders.matchPhraseQuery(field, key));
+		}
+		SearchSourceBuilder source = new SearchSourceBuilder().query(anyKey).size(keys.size());
+		Search search = new Search.Builder(source.toString()) //
+				.addIndex(connection.getIndexName()) //
+				.addType(type) //
+				.build();
+		SearchResult result = connection.search(search, true);
+		if (null != result && result.isSucceeded()) {
+			for (Hit<Map, Void> hit : result.getHits(Map.class)) {
+				Object key = hit.source.get(field);
+				// match queries are analyzed, keep exact keys only
+				if (null != key && keys.contains(key.toString())) {
+					techIds.put(key.toString(), hit.source.get(JestResult.ES_METADATA_ID).toString());
+				}
+			}
+		}
+		return techIds;
+	}
+
 	@SuppressWarnings("rawtypes")
     public String getPropertyTechIdByName(String name) {
 		SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
@@ -265,8 +385,8 @@ public class ElasticQueryBuilder {
 	// "Event" methods
 
 	public Index queryCreateEvent(Event event) {
-		return new Index.Builder(event).index(connection.getIndexName()).type(ElasticConstants.TYPE_EVENT).refresh(true)
-				.build();
+		return new Index.Builder(event).index(connection.getIndexName()).type(ElasticConstants.TYPE_EVENT)
+				.id(event.getUuid()).refresh(true).build();
 	}
 
 	public Search queryGetEventById(String uuid) {
@@ -351,4 +471,173 @@ public class ElasticQueryBuilder {
 		}
 		return null;
 	}
+
+	// "Event" bulk and aggregations
+
+	/**
+	 * Mapping of events : attributes are used as terms (not analyzed) and timestamp as a date.
+	 *
+	 * @return query for JEST
+	 */
+	public PutMapping queryCreateEventMapping() {
+		StringBuilder properties = new StringBuilder();
+		for (String field : new String[] { "uuid", "type", "name", "action", "hostName", "source", "user", "value" }) {
+			properties.append("\"" + field + "\" : { \"type\" : \"string\", \"index\" : \"not_analyzed\" }, ");
+		}
+		properties.append("\"duration\" : { \"type\" : \"long\" }, ");
+		properties.append("\"timestamp\" : { \"type\" : \"date\" }");
+		String mapping = "{ \"" + ElasticConstants.TYPE_EVENT + "\" : { \"properties\" : { " + properties + " } } }";
+		return new PutMapping.Builder(connection.getIndexName(), ElasticConstants.TYPE_EVENT, mapping).build();
+	}
+
+	/**
+	 * Index events in a single request, the event uuid is used as document id.
+	 *
+	 * @param events
+	 *            events to index
+	 * @return query for JEST
+	 */
+	public Bulk queryCreateEvents(Collection<Event> events) {
+		Bulk.Builder bulk = new Bulk.Builder() //
+				.defaultIndex(connection.getIndexName()) //
+				.defaultType(ElasticConstants.TYPE_EVENT);
+		for (Event event : events) {
+			bulk.addAction(new Index.Builder(event).id(event.getUuid()).build());
+		}
+		return bulk.setParameter(Parameters.REFRESH, true).build();
+	}
+
+	/**
+	 * Count feature usage per value of a field with a terms aggregation (no hits returned).
+	 *
+	 * @param query
+	 *            query definition
+	 * @param field
+	 *            field to group on
+	 * @return query for JEST
+	 */
+	public Search queryEventHitCount(EventQueryDefinition query, String field) {
+		SearchSourceBuilder source = new SearchSourceBuilder().size(0) //
+				.query(queryEvents(query, USAGE_ACTIONS)) //
+				.aggregation(AggregationBuilders.terms(ElasticConstants.AGG_HITS).field(field).size(0)) //
+				.aggregation(AggregationBuilders.missing(ElasticConstants.AGG_MISSING).field(field));
+		return new Search.Builder(source.toString()) //
+				.addIndex(connection.getIndexName()) //
+				.addType(ElasticConstants.TYPE_EVENT).build();
+	}
+
+	/**
+	 * Count feature usage per feature and time slot with a date_histogram aggregation in a terms aggregation.
+	 *
+	 * @param query
+	 *            query definition
+	 * @param units
+	 *            size of time slots
+	 * @return query for JEST
+	 */
+	public Search queryFeatureUsageHistory(EventQueryDefinition query, TimeUnit units) {
+		DateHistogram.Interval interval = DateHistogram.Interval.DAY;
+		if (TimeUnit.SECONDS == units) {
+			interval = DateHistogram.Interval.SECOND;
+		} else if (TimeUnit.MINUTES == units) {
+			interval = DateHistogram.Interval.MINUTE;
+		} else if (TimeUnit.HOURS == units) {
+			interval = DateHistogram.Interval.HOUR;
+		}
+		SearchSourceBuilder source = new SearchSourceBuilder().size(0) //
+				.query(queryEvents(query, USAGE_ACTIONS)) //
+				.aggregation(AggregationBuilders.terms(ElasticConstants.AGG_HITS).field("name").size(0) //
+						.subAggregation(AggregationBuilders.dateHistogram(ElasticConstants.AGG_SLOTS) //
+								.field("timestamp") //
+								.interval(interval) //
+								.timeZone(TimeZone.getDefault().getID())));
+		return new Search.Builder(source.toString()) //
+				.addIndex(connection.getIndexName()) //
+				.addType(ElasticConstants.TYPE_EVENT).build();
+	}
+
+	/**
+	 * Feature usage events sorted by time, only the expected page if the query is pageable.
+	 *
+	 * @param query
+	 *            query definition
+	 * @return query for JEST
+	 */
+	public Search queryFeatureUsageEvents(EventQueryDefinition query) {
+		return querySearchEvents(query, USAGE_ACTIONS);
+	}
+
+	/**
+	 * Audit trail events sorted by time, only the expected page if the query is pageable.
+	 *
+	 * @param query
+	 *            query definition
+	 * @return query for JEST
+	 */
+	public Search queryAuditTrail(EventQueryDefinition query) {
+		return querySearchEvents(query, AUDIT_ACTIONS);
+	}
+
+	private Search querySearchEvents(EventQueryDefinition query, Set<String> actions) {
+		SearchSourceBuilder source = new SearchSourceBuilder() //
+				.query(queryEvents(query, actions)) //
+				.sort("timestamp", SortOrder.ASC);
+		if (query.isPageable()) {
+			source.from(query.getPagenumber() * query.getPagesize()).size(query.getPagesize());
+		} else {
+			source.size(query.getMaxresult() > 0 ? query.getMaxresult() : ElasticConstants.EVENT_PAGE_SIZE);
+		}
+		return new Search.Builder(source.toString()) //
+				.addIndex(connection.getIndexName()) //
+				.addType(ElasticConstants.TYPE_EVENT).build();
+	}
+
+	public DeleteByQuery queryPurgeFeatureUsage(EventQueryDefinition query) {
+		return queryDeleteEvents(query, USAGE_ACTIONS);
+	}
+
+	public DeleteByQuery queryPurgeAuditTrail(EventQueryDefinition query) {
+		return queryDeleteEvents(query, AUDIT_ACTIONS);
+	}
+
+	private DeleteByQuery queryDeleteEvents(EventQueryDefinition query, Set<String> actions) {
+		String deleteQuery = new SearchSourceBuilder().query(queryEvents(query, actions)).toString();
+		return new DeleteByQuery.Builder(deleteQuery) //
+				.addIndex(connection.getIndexName()) //
+				.addType(ElasticConstants.TYPE_EVENT).build();
+	}
+
+	public Refresh queryRefreshIndex() {
+		return new Refresh.Builder().addIndex(connection.getIndexName()).build();
+	}
+
+	/**
+	 * Events of features within the time range (bounds included) matching the filters of the query.
+	 *
+	 * @param query
+	 *            query definition
+	 * @param actions
+	 *            expected actions (filters of the query are ignored if not in this set)
+	 * @return filter
+	 */
+	private QueryBuilder queryEvents(EventQueryDefinition query, Set<String> actions) {
+		BoolQueryBuilder filter = QueryBuilders.boolQuery() //
+				.must(QueryBuilders.termQuery("type", EventConstants.TARGET_FEATURE)) //
+				.must(QueryBuilders.rangeQuery("timestamp").gte(query.getFrom().longValue()).lte(query.getTo().longValue()));
+		Set<String> expectedActions = new HashSet<String>(actions);
+		if (!query.getActionFilters().isEmpty()) {
+			expectedActions.retainAll(query.getActionFilters());
+		}
+		filter.must(QueryBuilders.termsQuery("action", expectedActions));
+		addTermsFilter(filter, query.getHostFilters(), "hostName");
+		addTermsFilter(filter, query.getNamesFilter(), "name");
+		addTermsFilter(filter, query.getSourceFilters(), "source");
+		return QueryBuilders.constantScoreQuery(filter);
+	}
+
+	private void addTermsFilter(BoolQueryBuilder booleanQuery, Set<String> filters, String field) {
+		if (!filters.isEmpty()) {
+			booleanQuery.must(QueryBuilders.termsQuery(field, filters));
+		}
+	}
 }
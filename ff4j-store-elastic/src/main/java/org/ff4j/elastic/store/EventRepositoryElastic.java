@@ -21,184 +21,316 @@ package org.ff4j.elastic.store;
  */
 
 
-import static org.ff4j.audit.EventConstants.ACTION_CLEAR;
-import static org.ff4j.audit.EventConstants.ACTION_CREATE;
-import static org.ff4j.audit.EventConstants.ACTION_DELETE;
-import static org.ff4j.audit.EventConstants.ACTION_DISCONNECT;
-import static org.ff4j.audit.EventConstants.ACTION_TOGGLE_OFF;
-import static org.ff4j.audit.EventConstants.ACTION_TOGGLE_ON;
-import static org.ff4j.audit.EventConstants.ACTION_UPDATE;
+import static org.ff4j.elastic.ElasticConstants.AGG_HITS;
+import static org.ff4j.elastic.ElasticConstants.AGG_MISSING;
+import static org.ff4j.elastic.ElasticConstants.AGG_SLOTS;
+import static org.ff4j.elastic.ElasticConstants.EVENT_BUFFER_SIZE;
+import static org.ff4j.elastic.ElasticConstants.EVENT_BULK_SIZE;
+import static org.ff4j.elastic.ElasticConstants.EVENT_FLUSH_INTERVAL;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import org.ff4j.audit.Event;
-import org.ff4j.audit.EventConstants;
 import org.ff4j.audit.EventQueryDefinition;
 import org.ff4j.audit.EventSeries;
 import org.ff4j.audit.MutableHitCount;
+import org.ff4j.audit.chart.Serie;
 import org.ff4j.audit.chart.TimeSeriesChart;
 import org.ff4j.audit.repository.AbstractEventRepository;
 import org.ff4j.elastic.ElasticConnection;
 import org.ff4j.elastic.ElasticQueryBuilder;
+import org.ff4j.exception.FeatureAccessException;
 import org.ff4j.utils.Util;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import io.searchbox.client.JestResult;
 import io.searchbox.core.SearchResult;
-import io.searchbox.core.SearchResult.Hit;
+import io.searchbox.core.search.aggregation.DateHistogramAggregation.DateHistogram;
+import io.searchbox.core.search.aggregation.MissingAggregation;
+import io.searchbox.core.search.aggregation.TermsAggregation;
+import io.searchbox.core.search.aggregation.TermsAggregation.Entry;
 
+/**
+ * Persist audit events into ElasticSearch.
+ *
+ * <p>Events are indexed with the bulk API : {@link #saveEvent(Event)} buffers events, the buffer is sent
+ * when it reaches {@link #getBulkSize()} events or every {@link #getFlushInterval()} milliseconds. Hit
+ * counts and usage history are computed by terms and date_histogram aggregations, purges use a delete
+ * by query.</p>
+ *
+ * @author Cedrick LUNVEN (@clunven)
+ */
 public class EventRepositoryElastic extends AbstractEventRepository {
 
+	/** logger for this class. */
+	private static final Logger LOGGER = LoggerFactory.getLogger(EventRepositoryElastic.class);
+
+	/** Value used for counters when the user is unknown. */
+	private static final String ANONYMOUS = "anonymous";
+
 	private ElasticConnection connection;
 
 	/** Connection to ElasticSearch query builder */
 	private ElasticQueryBuilder builder;
 
+	/** Events waiting to be indexed. */
+	private final List<Event> buffer = new ArrayList<Event>();
+
+	/** Held while buffered events are sent. */
+	private final Object flushLock = new Object();
+
+	/** Number of events sent in a bulk request. */
+	private int bulkSize = EVENT_BULK_SIZE;
+
+	/** Maximum time in milliseconds an event stays in the buffer. */
+	private long flushInterval = EVENT_FLUSH_INTERVAL;
+
+	/** Maximum number of events waiting to be indexed, new events are refused above. */
+	private int maxBufferSize = EVENT_BUFFER_SIZE;
+
+	/** Send buffered events periodically. */
+	private ScheduledExecutorService flusher;
+
 	public EventRepositoryElastic(ElasticConnection connection) {
 		this.connection = connection;
 	}
 
+	/**
+	 * Buffer the event, it is indexed with the next bulk. An event that cannot be indexed stays in the
+	 * buffer and is sent again by the next flush, the event is refused only when the buffer is full.
+	 *
+	 * @param event
+	 *            event to save
+	 * @return if the event has been buffered
+	 */
 	@Override
 	public boolean saveEvent(Event event) {
 		Util.assertEvent(event);
-		JestResult result = getConnection().execute(getBuilder().queryCreateEvent(event));
-		return (result != null && result.isSucceeded());
+		boolean full;
+		synchronized (buffer) {
+			if (buffer.size() >= maxBufferSize) {
+				LOGGER.warn("Cannot buffer event {}, {} events are waiting to be indexed", event.getUuid(), buffer.size());
+				return false;
+			}
+			buffer.add(event);
+			full = buffer.size() >= bulkSize;
+			startFlusher();
+		}
+		if (full) {
+			flush();
+		}
+		return true;
 	}
 
 	@Override
-	public Event getEventByUUID(String uuid, Long timestamp) {
-		return getConnection().execute(getBuilder().queryGetEventById(uuid)).getSourceAsObject(Event.class);
+	public boolean saveEvents(Collection<Event> events) {
+		if (events == null) {
+			throw new IllegalArgumentException("Events cannot be null");
+		}
+		List<Event> bulk = new ArrayList<Event>(bulkSize);
+		boolean allSaved = true;
+		for (Event event : events) {
+			Util.assertEvent(event);
+			bulk.add(event);
+			if (bulk.size() >= bulkSize) {
+				allSaved = indexEvents(bulk) && allSaved;
+				bulk.clear();
+			}
+		}
+		return (bulk.isEmpty() || indexEvents(bulk)) && allSaved;
 	}
 
-	@Override
-	public Map<String, MutableHitCount> getFeatureUsageHitCount(EventQueryDefinition query) {
-		JestResult result = getConnection()
-				.execute(getBuilder().queryGetEventQueryDefinition(query, EventConstants.ACTION_CHECK_OK));
-		List<Event> events = result.getSourceAsObjectList(Event.class);
-		Map<String, MutableHitCount> hitCount = new HashMap<String, MutableHitCount>();
-		for (Event event : events) {
-			String name = event.getName();
-			if (hitCount.containsKey(name)) {
-				hitCount.get(name).inc();
-			} else {
-				hitCount.put(name, new MutableHitCount(1));
+	/**
+	 * Send buffered events now, reads call it first to see all events saved before. Events of a bulk
+	 * which cannot be indexed are put back in the buffer to be sent by the next flush.
+	 *
+	 * @return if all events have been indexed
+	 */
+	public boolean flush() {
+		// Wait for a flush in progress, its events are not in the buffer anymore
+		synchronized (flushLock) {
+			List<Event> events;
+			synchronized (buffer) {
+				events = new ArrayList<Event>(buffer);
+				buffer.clear();
 			}
+			for (int from = 0; from < events.size(); from += bulkSize) {
+				List<Event> bulk = events.subList(from, Math.min(from + bulkSize, events.size()));
+				if (!indexEvents(bulk)) {
+					// Keep the order, events saved during this flush come after
+					synchronized (buffer) {
+						buffer.addAll(0, events.subList(from, events.size()));
+					}
+					return false;
+				}
+			}
+			return true;
 		}
-		return hitCount;
 	}
 
-	@Override
-	public TimeSeriesChart getFeatureUsageHistory(EventQueryDefinition query, TimeUnit units) {
-		// Create the interval depending on units
-		TimeSeriesChart tsc = new TimeSeriesChart(query.getFrom(), query.getTo(), units);
-		// Search All events
-		Iterator<Event> iterEvent = searchFeatureUsageEvents(query).iterator();
-		// Dispatch events into time slots
-		while (iterEvent.hasNext()) {
-			tsc.addEvent(iterEvent.next());
+	/**
+	 * Stop the flusher thread and send the buffered events, a later save starts it again.
+	 *
+	 * @return if all events have been indexed
+	 */
+	public boolean close() {
+		synchronized (buffer) {
+			if (flusher != null) {
+				flusher.shutdown();
+				flusher = null;
+			}
 		}
-		return tsc;
+		return flush();
 	}
 
-	@Override
-	public EventSeries searchFeatureUsageEvents(EventQueryDefinition query) {
-		JestResult result = getConnection()
-				.execute(getBuilder().queryGetEventQueryDefinition(query, EventConstants.ACTION_CHECK_OK));
-		List<Event> events = result.getSourceAsObjectList(Event.class);
-		EventSeries es = new EventSeries();
-		for (Event event : events) {
-			es.add(event);
+	private boolean indexEvents(List<Event> events) {
+		try {
+			JestResult result = getConnection().execute(getBuilder().queryCreateEvents(events), true);
+			if (!result.isSucceeded()) {
+				LOGGER.error("Cannot index {} events : {}", events.size(), result.getErrorMessage());
+			}
+			return result.isSucceeded();
+		} catch (FeatureAccessException fae) {
+			LOGGER.error("Cannot index " + events.size() + " events", fae);
+			return false;
+		}
+	}
+
+	private void startFlusher() {
+		if (flusher == null) {
+			flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "FF4j_EventRepositoryElastic_Flusher");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+			flusher.scheduleWithFixedDelay(new Runnable() {
+				public void run() {
+					flush();
+				}
+			}, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
 		}
-		return es;
 	}
 
 	@Override
-	public void purgeFeatureUsage(EventQueryDefinition query) {
-		this.purgeAuditTrail(query);
+	public Event getEventByUUID(String uuid, Long timestamp) {
+		flush();
+		return getConnection().execute(getBuilder().queryGetEventById(uuid)).getSourceAsObject(Event.class);
+	}
+
+	@Override
+	public Map<String, MutableHitCount> getFeatureUsageHitCount(EventQueryDefinition query) {
+		return getHitCount(query, "name");
 	}
 
 	@Override
 	public Map<String, MutableHitCount> getHostHitCount(EventQueryDefinition query) {
-		JestResult result = getConnection()
-				.execute(getBuilder().queryGetEventQueryDefinition(query, EventConstants.ACTION_CHECK_OK));
-		List<Event> events = result.getSourceAsObjectList(Event.class);
-		Map<String, MutableHitCount> hitCount = new HashMap<String, MutableHitCount>();
-		for (Event event : events) {
-			String hostName = event.getHostName();
-			if (hitCount.containsKey(hostName)) {
-				hitCount.get(hostName).inc();
-			} else {
-				hitCount.put(hostName, new MutableHitCount(1));
-			}
-		}
-		return hitCount;
+		return getHitCount(query, "hostName");
 	}
 
 	@Override
 	public Map<String, MutableHitCount> getUserHitCount(EventQueryDefinition query) {
-		JestResult result = getConnection()
-				.execute(getBuilder().queryGetEventQueryDefinition(query, EventConstants.ACTION_CHECK_OK));
-		List<Event> events = result.getSourceAsObjectList(Event.class);
+		return getHitCount(query, "user");
+	}
+
+	@Override
+	public Map<String, MutableHitCount> getSourceHitCount(EventQueryDefinition query) {
+		return getHitCount(query, "source");
+	}
+
+	/**
+	 * Read hit counts from the terms aggregation, events without value are counted as anonymous.
+	 *
+	 * @param query
+	 *            query definition
+	 * @param field
+	 *            field to group on
+	 * @return hit count per value
+	 */
+	private Map<String, MutableHitCount> getHitCount(EventQueryDefinition query, String field) {
+		flush();
+		SearchResult result = getConnection().search(getBuilder().queryEventHitCount(query, field));
 		Map<String, MutableHitCount> hitCount = new HashMap<String, MutableHitCount>();
-		for (Event event : events) {
-			String user = event.getUser();
-			if (hitCount.containsKey(user)) {
-				hitCount.get(user).inc();
-			} else {
-				hitCount.put(user, new MutableHitCount(1));
-			}
+		for (Entry entry : result.getAggregations().getTermsAggregation(AGG_HITS).getBuckets()) {
+			hitCount.put(entry.getKey(), new MutableHitCount(entry.getCount().intValue()));
+		}
+		MissingAggregation missing = result.getAggregations().getMissingAggregation(AGG_MISSING);
+		if (missing != null && missing.getMissing() > 0) {
+			hitCount.put(ANONYMOUS, new MutableHitCount(missing.getMissing().intValue()));
 		}
 		return hitCount;
 	}
 
 	@Override
-	public Map<String, MutableHitCount> getSourceHitCount(EventQueryDefinition query) {
-		JestResult result = getConnection()
-				.execute(getBuilder().queryGetEventQueryDefinition(query, EventConstants.ACTION_CHECK_OK));
-		List<Event> events = result.getSourceAsObjectList(Event.class);
-		Map<String, MutableHitCount> hitCount = new HashMap<String, MutableHitCount>();
-		for (Event event : events) {
-			String source = event.getSource();
-			if (hitCount.containsKey(source)) {
-				hitCount.get(source).inc();
-			} else {
-				hitCount.put(source, new MutableHitCount(1));
+	public TimeSeriesChart getFeatureUsageHistory(EventQueryDefinition query, TimeUnit units) {
+		flush();
+		TimeSeriesChart tsc = new TimeSeriesChart(query.getFrom(), query.getTo(), units);
+		SearchResult result = getConnection().search(getBuilder().queryFeatureUsageHistory(query, units));
+		TermsAggregation features = result.getAggregations().getTermsAggregation(AGG_HITS);
+		for (Entry feature : features.getBuckets()) {
+			if (!tsc.getSeries().containsKey(feature.getKey())) {
+				tsc.createNewSerie(feature.getKey());
+			}
+			Serie<Map<String, MutableHitCount>> serie = tsc.getSeries().get(feature.getKey());
+			for (DateHistogram slot : feature.getDateHistogramAggregation(AGG_SLOTS).getBuckets()) {
+				String slotName = tsc.getSdf().format(new Date(slot.getTime()));
+				if (serie.getValue().containsKey(slotName)) {
+					serie.getValue().get(slotName).incBy(slot.getCount().intValue());
+				}
 			}
 		}
-		return hitCount;
+		return tsc;
+	}
+
+	@Override
+	public EventSeries searchFeatureUsageEvents(EventQueryDefinition query) {
+		flush();
+		return toEventSeries(getConnection().execute(getBuilder().queryFeatureUsageEvents(query)));
 	}
 
 	@Override
 	public EventSeries getAuditTrail(EventQueryDefinition query) {
-		JestResult result = getConnection().execute(getBuilder().queryGetEventQueryDefinition(query));
-		List<Event> events = result.getSourceAsObjectList(Event.class);
+		flush();
+		return toEventSeries(getConnection().execute(getBuilder().queryAuditTrail(query)));
+	}
+
+	private EventSeries toEventSeries(JestResult result) {
 		EventSeries es = new EventSeries();
-		Set<String> candidates = Util.set(ACTION_DISCONNECT, //
-				ACTION_TOGGLE_ON, ACTION_TOGGLE_OFF, ACTION_CREATE, //
-				ACTION_DELETE, ACTION_UPDATE, ACTION_CLEAR);
-		for (Event event : events) {
-			if (candidates.contains(event.getAction()))
-				es.add(event);
+		for (Event event : result.getSourceAsObjectList(Event.class)) {
+			es.add(event);
 		}
 		return es;
 	}
 
+	@Override
+	public void purgeFeatureUsage(EventQueryDefinition query) {
+		flush();
+		getConnection().execute(getBuilder().queryPurgeFeatureUsage(query));
+		getConnection().execute(getBuilder().queryRefreshIndex());
+	}
+
 	@Override
 	public void purgeAuditTrail(EventQueryDefinition query) {
-		SearchResult result = getConnection().search(getBuilder().queryReadAllEvents(), true);
-		if (result != null && result.isSucceeded()) {
-			for (Hit<Event, Void> event : result.getHits(Event.class)) {
-				getConnection().execute(getBuilder().queryDeleteEvent(event.source.getUuid()));
-			}
-		}
+		flush();
+		getConnection().execute(getBuilder().queryPurgeAuditTrail(query));
+		getConnection().execute(getBuilder().queryRefreshIndex());
 	}
 
 	@Override
 	public void createSchema() {
+		getConnection().execute(getBuilder().queryCreateEventMapping());
 		getConnection().execute(getBuilder().queryFlushIndex());
 	}
 
@@ -232,4 +364,70 @@ public class EventRepositoryElastic extends AbstractEventRepository {
 		}
 		return builder;
 	}
+
+	/**
+	 * Getter accessor for attribute 'bulkSize'.
+	 *
+	 * @return current value of 'bulkSize'
+	 */
+	public int getBulkSize() {
+		return bulkSize;
+	}
+
+	/**
+	 * Setter accessor for attribute 'bulkSize'.
+	 * 
+	 * @param bulkSize
+	 *            new value for 'bulkSize '
+	 */
+	public void setBulkSize(int bulkSize) {
+		if (bulkSize < 1) {
+			throw new IllegalArgumentException("Bulk size must be positive");
+		}
+		this.bulkSize = bulkSize;
+	}
+
+	/**
+	 * Getter accessor for attribute 'maxBufferSize'.
+	 *
+	 * @return current value of 'maxBufferSize'
+	 */
+	public int getMaxBufferSize() {
+		return maxBufferSize;
+	}
+
+	/**
+	 * Setter accessor for attribute 'maxBufferSize'.
+	 * 
+	 * @param maxBufferSize
+	 *            new value for 'maxBufferSize '
+	 */
+	public void setMaxBufferSize(int maxBufferSize) {
+		if (maxBufferSize < 1) {
+			throw new IllegalArgumentException("Buffer size must be positive");
+		}
+		this.maxBufferSize = maxBufferSize;
+	}
+
+	/**
+	 * Getter accessor for attribute 'flushInterval'.
+	 *
+	 * @return current value of 'flushInterval'
+	 */
+	public long getFlushInterval() {
+		return flushInterval;
+	}
+
+	/**
+	 * Setter accessor for attribute 'flushInterval' (milliseconds), taken into account before the first event.
+	 * 
+	 * @param flushInterval
+	 *            new value for 'flushInterval '
+	 */
+	public void setFlushInterval(long flushInterval) {
+		if (flushInterval < 1) {
+			throw new IllegalArgumentException("Flush interval must be positive");
+		}
+		this.flushInterval = flushInterval;
+	}
 }
@@ -1,8 +1,10 @@
 package org.ff4j.elastic.store;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -11,8 +13,11 @@ import org.ff4j.core.FeatureStore;
 import org.ff4j.elastic.ElasticConnection;
 import org.ff4j.elastic.ElasticQueryBuilder;
 import org.ff4j.store.AbstractFeatureStore;
+import org.ff4j.store.ImportReport;
 import org.ff4j.utils.Util;
 
+import io.searchbox.core.BulkResult;
+import io.searchbox.core.BulkResult.BulkResultItem;
 import io.searchbox.core.SearchResult;
 import io.searchbox.core.SearchResult.Hit;
 
@@ -139,6 +144,34 @@ public class FeatureStoreElastic extends AbstractFeatureStore {
         getConnection().execute(getBuilder().queryUpdateFeature(fp));
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public ImportReport importFeatures(Collection<Feature> features) {
+        ImportReport report = new ImportReport();
+        Map<String, Feature> toImport = prepareImport(features, report);
+        if (toImport.isEmpty()) {
+            return report;
+        }
+        // Existing documents are replaced in place, others indexed, in a single bulk request
+        Map<String, String> techIds = getBuilder().getFeatureTechIds(toImport.keySet());
+        BulkResult result = (BulkResult) getConnection().execute(
+                getBuilder().queryImportFeatures(toImport.values(), techIds), true);
+        List<BulkResultItem> items = result.getItems();
+        int idx = 0;
+        for (String uid : toImport.keySet()) {
+            BulkResultItem item = (idx < items.size()) ? items.get(idx) : null;
+            idx++;
+            if (null == item || null != item.error) {
+                report.failed(uid, (null == item) ? result.getErrorMessage() : item.error);
+            } else if (techIds.containsKey(uid)) {
+                report.updated(uid);
+            } else {
+                report.created(uid);
+            }
+        }
+        return report;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void grantRoleOnFeature(String flipId, String roleName) {
@@ -1,6 +1,8 @@
 package org.ff4j.elastic.store;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -8,8 +10,11 @@ import org.ff4j.elastic.ElasticConnection;
 import org.ff4j.elastic.ElasticQueryBuilder;
 import org.ff4j.property.Property;
 import org.ff4j.property.store.AbstractPropertyStore;
+import org.ff4j.store.ImportReport;
 import org.ff4j.utils.Util;
 
+import io.searchbox.core.BulkResult;
+import io.searchbox.core.BulkResult.BulkResultItem;
 import io.searchbox.core.SearchResult;
 import io.searchbox.core.SearchResult.Hit;
 
@@ -101,6 +106,34 @@ public class PropertyStoreElastic extends AbstractPropertyStore {
 		return mapOfProperties;
 	}
 
+	/** {@inheritDoc} */
+	@Override
+	public ImportReport importProperties(Collection<Property<?>> properties) {
+		ImportReport report = new ImportReport();
+		Map<String, Property<?>> toImport = prepareImport(properties, report);
+		if (toImport.isEmpty()) {
+			return report;
+		}
+		// Existing documents are replaced in place, others indexed, in a single bulk request
+		Map<String, String> techIds = getBuilder().getPropertyTechIds(toImport.keySet());
+		BulkResult result = (BulkResult) getConnection().execute(
+				getBuilder().queryImportProperties(toImport.values(), techIds), true);
+		List<BulkResultItem> items = result.getItems();
+		int idx = 0;
+		for (String name : toImport.keySet()) {
+			BulkResultItem item = (idx < items.size()) ? items.get(idx) : null;
+			idx++;
+			if (null == item || null != item.error) {
+				report.failed(name, (null == item) ? result.getErrorMessage() : item.error);
+			} else if (techIds.containsKey(name)) {
+				report.updated(name);
+			} else {
+				report.created(name);
+			}
+		}
+		return report;
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public Set<String> listPropertyNames() {
@@ -0,0 +1,109 @@
+package org.ff4j.elastic.store;
+
+/*
+ * #%L
+ * ff4j-store-elastic
+ * %%
+ * Copyright (C) 2013 - 2016 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.ff4j.audit.EventConstants.ACTION_CHECK_OK;
+import static org.ff4j.audit.EventConstants.SOURCE_JAVA;
+import static org.ff4j.audit.EventConstants.TARGET_FEATURE;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.ff4j.audit.Event;
+import org.ff4j.elastic.ElasticConnection;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.searchbox.client.JestResult;
+import io.searchbox.core.Bulk;
+
+/**
+ * Buffering of {@link EventRepositoryElastic} without server, the connection is mocked.
+ */
+public class EventRepositoryElasticBufferTest {
+
+	private ElasticConnection connection;
+
+	private JestResult result;
+
+	private EventRepositoryElastic repo;
+
+	@Before
+	public void setUp() {
+		connection = mock(ElasticConnection.class);
+		result = mock(JestResult.class);
+		when(connection.execute(any(Bulk.class), eq(true))).thenReturn(result);
+		repo = new EventRepositoryElastic(connection);
+		repo.setBulkSize(2);
+		repo.setMaxBufferSize(4);
+		// Flush only when asked
+		repo.setFlushInterval(3600 * 1000L);
+	}
+
+	@After
+	public void tearDown() {
+		when(result.isSucceeded()).thenReturn(true);
+		repo.close();
+	}
+
+	private Event event() {
+		return new Event(SOURCE_JAVA, TARGET_FEATURE, "f1", ACTION_CHECK_OK);
+	}
+
+	@Test
+	public void testFailedBulkKeptInBuffer() {
+		when(result.isSucceeded()).thenReturn(false);
+		Assert.assertTrue(repo.saveEvent(event()));
+		Assert.assertTrue(repo.saveEvent(event()));
+		Assert.assertFalse(repo.flush());
+		// Events were not lost, they are sent again
+		when(result.isSucceeded()).thenReturn(true);
+		Assert.assertTrue(repo.flush());
+		verify(connection, times(3)).execute(any(Bulk.class), eq(true));
+		Assert.assertTrue(repo.flush());
+		verify(connection, times(3)).execute(any(Bulk.class), eq(true));
+	}
+
+	@Test
+	public void testFullBufferRefusesEvents() {
+		when(result.isSucceeded()).thenReturn(false);
+		for (int i = 0; i < 4; i++) {
+			Assert.assertTrue(repo.saveEvent(event()));
+		}
+		Assert.assertFalse(repo.saveEvent(event()));
+		when(result.isSucceeded()).thenReturn(true);
+		Assert.assertTrue(repo.flush());
+		Assert.assertTrue(repo.saveEvent(event()));
+	}
+
+	@Test
+	public void testCloseSendsBufferedEvents() {
+		when(result.isSucceeded()).thenReturn(true);
+		Assert.assertTrue(repo.saveEvent(event()));
+		Assert.assertTrue(repo.close());
+		verify(connection, times(1)).execute(any(Bulk.class), eq(true));
+	}
+}
@@ -20,16 +20,29 @@ package org.ff4j.elastic.store;
  * #L%
  */
 
+import static org.ff4j.audit.EventConstants.ACTION_CHECK_OK;
+import static org.ff4j.audit.EventConstants.SOURCE_JAVA;
+import static org.ff4j.audit.EventConstants.TARGET_FEATURE;
+
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.elasticsearch.node.Node;
+import org.ff4j.audit.Event;
+import org.ff4j.audit.EventQueryDefinition;
+import org.ff4j.audit.MutableHitCount;
+import org.ff4j.audit.chart.TimeSeriesChart;
 import org.ff4j.audit.repository.EventRepository;
 import org.ff4j.elastic.ElasticConnection;
 import org.ff4j.elastic.ElasticConnectionMode;
 import org.ff4j.elastic.server.EmbeddedElasticServer;
 import org.ff4j.test.audit.EventRepositoryTestSupport;
 import org.junit.AfterClass;
+import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.ClassRule;
 import org.junit.Ignore;
@@ -82,4 +95,30 @@ public class EventRepositoryElasticTest extends EventRepositoryTestSupport {
 	@Ignore
 	@Test
     public void testSaveEventUnit() throws InterruptedException {}
+
+	@Test
+	public void testBulkAndAggregations() {
+		long start = System.currentTimeMillis() - 10 * 60 * 1000;
+		List<Event> events = new ArrayList<Event>();
+		for (int i = 0; i < 1200; i++) {
+			Event evt = new Event(SOURCE_JAVA, TARGET_FEATURE, (i % 2 == 0) ? "f1" : "f2", ACTION_CHECK_OK);
+			evt.setTimestamp(start + i * 100);
+			events.add(evt);
+		}
+		Assert.assertTrue(repo.saveEvents(events));
+		EventQueryDefinition query = new EventQueryDefinition(start, System.currentTimeMillis());
+		Map<String, MutableHitCount> hits = repo.getFeatureUsageHitCount(query);
+		Assert.assertEquals(600, hits.get("f1").get());
+		Assert.assertEquals(600, hits.get("f2").get());
+		Assert.assertEquals(1200, repo.getUserHitCount(query).get("anonymous").get());
+		int total = 0;
+		TimeSeriesChart tsc = repo.getFeatureUsageHistory(query, TimeUnit.MINUTES);
+		for (MutableHitCount slot : tsc.getSeries().get("f1").getValue().values()) {
+			total += slot.get();
+		}
+		Assert.assertEquals(600, total);
+		// Purge is a delete by query on feature usage only
+		repo.purgeFeatureUsage(query);
+		Assert.assertTrue(repo.getFeatureUsageHitCount(query).isEmpty());
+	}
 }
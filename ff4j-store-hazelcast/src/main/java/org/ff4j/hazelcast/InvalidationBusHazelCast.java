@@ -0,0 +1,109 @@
+package org.ff4j.hazelcast;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.ff4j.cache.InvalidationBus;
+import org.ff4j.cache.InvalidationListener;
+import org.ff4j.cache.InvalidationMessage;
+import org.ff4j.utils.Util;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ITopic;
+import com.hazelcast.core.Message;
+import com.hazelcast.core.MessageListener;
+
+/**
+ * Implementation of {@link InvalidationBus} with a HazelCast {@link ITopic}.
+ *
+ * @author Cedrick LUNVEN (@clunven)
+ */
+public class InvalidationBusHazelCast implements InvalidationBus {
+
+    /** Default topic name. */
+    public static final String DEFAULT_TOPIC = "ff4j-invalidation";
+
+    /** Distributed topic. */
+    private final ITopic < String > topic;
+
+    /** Registered listeners. */
+    private final List < InvalidationListener > listeners = new CopyOnWriteArrayList<InvalidationListener>();
+
+    /** Registration of the topic listener. */
+    private String registrationId;
+
+    /**
+     * Use default topic.
+     *
+     * @param instance
+     *      hazelcast instance (member or client)
+     */
+    public InvalidationBusHazelCast(HazelcastInstance instance) {
+        this(instance, DEFAULT_TOPIC);
+    }
+
+    /**
+     * Initialization with topic name.
+     *
+     * @param instance
+     *      hazelcast instance (member or client)
+     * @param topicName
+     *      topic shared by the nodes
+     */
+    public InvalidationBusHazelCast(HazelcastInstance instance, String topicName) {
+        Util.assertNotNull(instance);
+        Util.assertHasLength(topicName);
+        this.topic = instance.getTopic(topicName);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void publish(InvalidationMessage message) {
+        Util.assertNotNull(message);
+        topic.publish(message.asString());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void subscribe(InvalidationListener listener) {
+        Util.assertNotNull(listener);
+        listeners.add(listener);
+        if (registrationId == null) {
+            registrationId = topic.addMessageListener(new MessageListener<String>() {
+                public void onMessage(Message<String> message) {
+                    InvalidationMessage msg = InvalidationMessage.fromString(message.getMessageObject());
+                    for (InvalidationListener l : listeners) {
+                        l.onInvalidation(msg);
+                    }
+                }
+            });
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void unsubscribe(InvalidationListener listener) {
+        listeners.remove(listener);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void close() {
+        listeners.clear();
+        if (registrationId != null) {
+            topic.removeMessageListener(registrationId);
+            registrationId = null;
+        }
+    }
+
+    /**
+     * Getter accessor for attribute 'topic'.
+     *
+     * @return
+     *       current value of 'topic'
+     */
+    public ITopic<String> getTopic() {
+        return topic;
+    }
+
+}
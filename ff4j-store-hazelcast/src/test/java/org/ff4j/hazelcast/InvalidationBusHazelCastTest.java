@@ -0,0 +1,90 @@
+package org.ff4j.hazelcast;
+
+/*
+ * #%L
+ * ff4j-store-hazelcast
+ * %%
+ * Copyright (C) 2013 - 2015 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.ff4j.cache.FF4jCacheProxy;
+import org.ff4j.cache.InMemoryCacheManager;
+import org.ff4j.cache.InvalidationListener;
+import org.ff4j.cache.InvalidationMessage;
+import org.ff4j.core.Feature;
+import org.ff4j.property.store.InMemoryPropertyStore;
+import org.ff4j.store.InMemoryFeatureStore;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+
+/**
+ * Propagate invalidations through a HazelCast topic.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class InvalidationBusHazelCastTest {
+    
+    /** Local member. */
+    private static HazelcastInstance instance;
+    
+    @BeforeClass
+    public static void startMember() {
+        Config cfg = new Config();
+        cfg.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        instance = Hazelcast.newHazelcastInstance(cfg);
+    }
+    
+    @AfterClass
+    public static void stopMember() {
+        instance.shutdown();
+    }
+    
+    @Test
+    public void testInvalidationReceived() throws InterruptedException {
+        InMemoryFeatureStore fs = new InMemoryFeatureStore();
+        fs.create(new Feature("f1", true));
+        InMemoryPropertyStore ps = new InMemoryPropertyStore();
+        InvalidationBusHazelCast bus1 = new InvalidationBusHazelCast(instance);
+        InvalidationBusHazelCast bus2 = new InvalidationBusHazelCast(instance);
+        FF4jCacheProxy node1 = new FF4jCacheProxy(fs, ps, new InMemoryCacheManager());
+        FF4jCacheProxy node2 = new FF4jCacheProxy(fs, ps, new InMemoryCacheManager());
+        node1.setInvalidationBus(bus1);
+        node2.setInvalidationBus(bus2);
+        
+        final CountDownLatch received = new CountDownLatch(1);
+        bus2.subscribe(new InvalidationListener() {
+            public void onInvalidation(InvalidationMessage message) {
+                received.countDown();
+            }
+        });
+        node2.read("f1");
+        node1.disable("f1");
+        Assert.assertTrue(received.await(5, TimeUnit.SECONDS));
+        Assert.assertNull(node2.getCacheManager().getFeature("f1"));
+        bus1.close();
+        bus2.close();
+    }
+
+}
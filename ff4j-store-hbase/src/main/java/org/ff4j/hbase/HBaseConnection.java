@@ -51,6 +51,9 @@ public class HBaseConnection {
     /** Hbase configuration. */
     private Configuration config = null;
     
+    /** Shared connection, thread safe and expensive to create. */
+    private Connection connection = null;
+    
     /**
      * Default Settings.
      */
@@ -119,6 +122,37 @@ public class HBaseConnection {
         } 
     }
     
+    /**
+     * Shared connection to HBASE, created on first call.
+     *
+     * @return
+     *      opened connection
+     */
+    public synchronized Connection getConnection() {
+        if (connection == null || connection.isClosed()) {
+            try {
+                connection = ConnectionFactory.createConnection(config);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot connect to server HBASE", e);
+            }
+        }
+        return connection;
+    }
+    
+    /**
+     * Close the shared connection.
+     */
+    public synchronized void close() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (IOException e) {
+                LOGGER.warn("Cannot close connection to HBASE", e);
+            }
+            connection = null;
+        }
+    }
+    
     /**
      * Helper to create a table in HBASE.
      *
@@ -128,13 +162,31 @@ public class HBaseConnection {
      *      list of column families
      */
     public void createTable(String tableName, Set<String> columnFamilies) {
+        createTable(tableName, columnFamilies, null);
+    }
+    
+    /**
+     * Helper to create a table in HBASE with its initial regions.
+     *
+     * @param tableName
+     *      current table name
+     * @param columnFamilies
+     *      list of column families
+     * @param splitKeys
+     *      first row key of each region but the first one, no split if null or empty
+     */
+    public void createTable(String tableName, Set<String> columnFamilies, byte[][] splitKeys) {
         try (Connection hbConn = ConnectionFactory.createConnection(config)) {
             try(Admin hbAdmin = hbConn.getAdmin()) {
                 TableName hTableName = TableName.valueOf(tableName);
                 if (!hbAdmin.tableExists(hTableName)) {
                     HTableDescriptor tableDesc = new HTableDescriptor(hTableName);
                     columnFamilies.stream().map(HColumnDescriptor::new).forEach(tableDesc::addFamily);
-                    hbAdmin.createTable(tableDesc);
+                    if (splitKeys == null || splitKeys.length == 0) {
+                        hbAdmin.createTable(tableDesc);
+                    } else {
+                        hbAdmin.createTable(tableDesc, splitKeys);
+                    }
                 } else {
                     LOGGER.info("Table " + tableName + " already exists.");
                 }
@@ -257,7 +257,29 @@ public class HBaseConstants {
     public static final Set < String > COLS_EVENT = Util.set(COL_EVENT_ACTION, COL_EVENT_DATE, COL_EVENT_DURATION,
             COL_EVENT_HOSTNAME, COL_EVENT_KEYS, COL_EVENT_NAME, COL_EVENT_SOURCE, COL_EVENT_TIME,
             COL_EVENT_TYPE, COL_EVENT_UID, COL_EVENT_USER, COL_EVENT_VALUE);
-    
+
+    /** Number of salt prefixes of audit row keys, the audit table is pre-split on them. */
+    public static final int AUDIT_SALT_BUCKETS = 16;
+
+    /** Size in bytes of the client side write buffer for events. */
+    public static final long AUDIT_WRITE_BUFFER_SIZE = 2 * 1024 * 1024L;
+
+    /** Maximum time in milliseconds an event stays in the write buffer. */
+    public static final long AUDIT_FLUSH_INTERVAL = 1000L;
+
+    /** Number of rows fetched per RPC when scanning events. */
+    public static final int AUDIT_SCAN_CACHING = 1000;
+
+    // --- AUDIT HIT COUNTERS -----
+
+    /** Table holding hourly hit counters, row key is DIMENSION|yyyyMMddHH. */
+    public static final String    AUDIT_HITS_TABLENAME_ID = "ff4j_audit_hits";
+    public static final TableName AUDIT_HITS_TABLENAME    = TableName.valueOf(AUDIT_HITS_TABLENAME_ID);
+
+    /** column Family, one column per counted value. */
+    public static final String    AUDIT_HITS_CF   = "h";
+    public static final byte[]    B_AUDIT_HITS_CF = Bytes.toBytes(AUDIT_HITS_CF);
+
     /** Remove public constructor. */
     private HBaseConstants() {
     }
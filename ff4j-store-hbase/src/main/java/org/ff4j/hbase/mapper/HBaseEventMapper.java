@@ -57,7 +57,21 @@ public class HBaseEventMapper implements EventMapper<Put> {
     /** {@inheritDoc} */
     @Override
     public Put toStore(Event evt) {
-        Put put = new Put(Bytes.toBytes(evt.getUuid()));
+        return toStore(evt, Bytes.toBytes(evt.getUuid()));
+    }
+    
+    /**
+     * Create the put for an event stored with a dedicated row key.
+     *
+     * @param evt
+     *      current event
+     * @param rowKey
+     *      target row key
+     * @return
+     *      put with all columns of the event
+     */
+    public Put toStore(Event evt, byte[] rowKey) {
+        Put put = new Put(rowKey);
         put.addColumn(B_AUDIT_CF, B_EVENT_UID,      Bytes.toBytes(evt.getUuid()));
         put.addColumn(B_AUDIT_CF, B_EVENT_SOURCE,   Bytes.toBytes(evt.getSource()));
         put.addColumn(B_AUDIT_CF, B_EVENT_NAME,     Bytes.toBytes(evt.getName()));
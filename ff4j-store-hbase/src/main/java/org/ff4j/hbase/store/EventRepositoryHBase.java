@@ -30,71 +30,151 @@ import static org.ff4j.audit.EventConstants.ACTION_TOGGLE_OFF;
 import static org.ff4j.audit.EventConstants.ACTION_TOGGLE_ON;
 import static org.ff4j.audit.EventConstants.ACTION_UPDATE;
 import static org.ff4j.hbase.HBaseConstants.AUDIT_CF;
+import static org.ff4j.hbase.HBaseConstants.AUDIT_FLUSH_INTERVAL;
+import static org.ff4j.hbase.HBaseConstants.AUDIT_HITS_CF;
+import static org.ff4j.hbase.HBaseConstants.AUDIT_HITS_TABLENAME;
+import static org.ff4j.hbase.HBaseConstants.AUDIT_HITS_TABLENAME_ID;
+import static org.ff4j.hbase.HBaseConstants.AUDIT_SALT_BUCKETS;
+import static org.ff4j.hbase.HBaseConstants.AUDIT_SCAN_CACHING;
 import static org.ff4j.hbase.HBaseConstants.AUDIT_TABLENAME;
 import static org.ff4j.hbase.HBaseConstants.AUDIT_TABLENAME_ID;
+import static org.ff4j.hbase.HBaseConstants.AUDIT_WRITE_BUFFER_SIZE;
 import static org.ff4j.hbase.HBaseConstants.B_AUDIT_CF;
-import static org.ff4j.hbase.HBaseConstants.B_EVENT_ACTION;
-import static org.ff4j.hbase.HBaseConstants.B_EVENT_HOSTNAME;
-import static org.ff4j.hbase.HBaseConstants.B_EVENT_NAME;
-import static org.ff4j.hbase.HBaseConstants.B_EVENT_SOURCE;
-import static org.ff4j.hbase.HBaseConstants.B_EVENT_TIME;
-import static org.ff4j.hbase.HBaseConstants.B_EVENT_TYPE;
+import static org.ff4j.hbase.HBaseConstants.B_AUDIT_HITS_CF;
 import static org.ff4j.hbase.HBaseConstants.B_EVENT_UID;
-import static org.ff4j.hbase.HBaseConstants.COLS_EVENT;
-import static org.ff4j.hbase.HBaseConstants.COL_EVENT_HOSTNAME;
-import static org.ff4j.hbase.HBaseConstants.COL_EVENT_NAME;
-import static org.ff4j.hbase.HBaseConstants.COL_EVENT_SOURCE;
-import static org.ff4j.hbase.HBaseConstants.COL_EVENT_USER;
-import static org.ff4j.hbase.HBaseConstants.COL_EVENT_UID;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
-import org.apache.hadoop.hbase.client.Connection;
-import org.apache.hadoop.hbase.client.ConnectionFactory;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.BufferedMutatorParams;
 import org.apache.hadoop.hbase.client.Delete;
-import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Mutation;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.client.Table;
 import org.apache.hadoop.hbase.filter.CompareFilter.CompareOp;
-import org.apache.hadoop.hbase.filter.Filter;
-import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter.RowRange;
 import org.apache.hadoop.hbase.filter.SingleColumnValueFilter;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.ff4j.audit.Event;
-import org.ff4j.audit.EventConstants;
 import org.ff4j.audit.EventQueryDefinition;
 import org.ff4j.audit.EventSeries;
 import org.ff4j.audit.MutableHitCount;
+import org.ff4j.audit.chart.Serie;
 import org.ff4j.audit.chart.TimeSeriesChart;
 import org.ff4j.audit.repository.AbstractEventRepository;
 import org.ff4j.exception.AuditAccessException;
 import org.ff4j.hbase.HBaseConnection;
 import org.ff4j.hbase.mapper.HBaseEventMapper;
 import org.ff4j.utils.Util;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Implementation of audit HBASE.
  * 
+ * <p>Row keys are <code>salt | type | yyyyMMddHH | name | 0x00 | timestamp | uuid</code> : the salt (hash of
+ * the uuid) spreads writes over the regions, the type separates feature usage from audit trail. A query
+ * is one bounded scan per salt, name filters become row ranges. Writes are sent through a
+ * {@link BufferedMutator} and feature usage is counted per hour with {@link Increment} in
+ * table {@link org.ff4j.hbase.HBaseConstants#AUDIT_HITS_TABLENAME_ID}.</p>
+ * 
  * @author Cedrick LUNVEN (@clunven)
  */
 public class EventRepositoryHBase extends AbstractEventRepository {
     
+    /** logger for this class. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventRepositoryHBase.class);
+    
     /** Mapper. */
     private static final HBaseEventMapper MAPPER = new HBaseEventMapper();
     
-    /** Connection to store Cassandra. */
+    /** One hour in milliseconds. */
+    private static final long HOUR = 3600 * 1000L;
+    
+    /** Value used for counters when the user is unknown. */
+    private static final String ANONYMOUS = "anonymous";
+    
+    /** Value used for counters when the attribute is unknown. */
+    private static final String UNKNOWN = "NA";
+    
+    /** Row key type of feature usage events. */
+    private static final byte TYPE_USAGE = 'U';
+    
+    /** Row key type of other events. */
+    private static final byte TYPE_AUDIT = 'A';
+    
+    /** Separator between name and timestamp in row keys. */
+    private static final byte[] NAME_END = new byte[] {0};
+    
+    /** Upper bound of a name in row keys. */
+    private static final byte[] NAME_STOP = new byte[] {1};
+    
+    /** Actions listed in the audit trail. */
+    private static final Set < String > AUDIT_ACTIONS = Util.set(ACTION_DISCONNECT,
+            ACTION_TOGGLE_ON, ACTION_TOGGLE_OFF,
+            ACTION_CREATE, ACTION_DELETE,
+            ACTION_UPDATE, ACTION_CLEAR);
+    
+    /** Connection to store HBase. */
     private HBaseConnection conn;
     
+    /** Number of salt prefixes, must not change once events are stored. */
+    private int saltBuckets = AUDIT_SALT_BUCKETS;
+    
+    /** Size in bytes of the write buffer. */
+    private long writeBufferSize = AUDIT_WRITE_BUFFER_SIZE;
+    
+    /** Maximum time in milliseconds an event stays in the write buffer. */
+    private long flushInterval = AUDIT_FLUSH_INTERVAL;
+    
+    /** Buffered writes of events. */
+    private BufferedMutator eventsMutator;
+    
+    /** Buffered writes of hit counters. */
+    private BufferedMutator hitsMutator;
+    
+    /** Hit counters not sent yet : row key, then counted value. */
+    private final Map < String, Map < String, MutableHitCount > > pendingHits = new HashMap<String, Map<String, MutableHitCount>>();
+    
+    /** Held while buffered writes are sent. */
+    private final Object flushLock = new Object();
+    
+    /** Send buffered writes periodically. */
+    private ScheduledExecutorService flusher;
+    
+    /** Dimensions of the hit counters. */
+    private enum Types {
+        SOURCE,
+        NAME,
+        HOST,
+        USER;
+    }
+    
+    /** Callback for each event read, return false to stop reading. */
+    private interface EventVisitor {
+        boolean visit(Event evt);
+    }
+    
     /**
      * Default constructor.
      */
@@ -105,277 +185,662 @@ public class EventRepositoryHBase extends AbstractEventRepository {
      * Initialization through {@link HBaseConnection}.
      *
      * @param conn
-     *      current client to cassandra db
+     *      current client to hbase db
      */
     public EventRepositoryHBase(HBaseConnection conn) {
         this.conn = conn;
     }
     
+    /** {@inheritDoc} */
+    @Override
+    public void createSchema() {
+        // One region per salt
+        byte[][] splitKeys = new byte[saltBuckets - 1][];
+        for (int salt = 1; salt < saltBuckets; salt++) {
+            splitKeys[salt - 1] = new byte[] {(byte) salt};
+        }
+        conn.createTable(AUDIT_TABLENAME_ID, Util.set(AUDIT_CF), splitKeys);
+        conn.createTable(AUDIT_HITS_TABLENAME_ID, Util.set(AUDIT_HITS_CF));
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public boolean saveEvent(Event evt) {
+        Util.assertEvent(evt);
+        return writeEvents(Collections.singletonList(evt), false);
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public boolean saveEvents(Collection < Event > events) {
+        if (events == null) {
+            throw new IllegalArgumentException("Events cannot be null");
+        }
+        for (Event evt : events) {
+            Util.assertEvent(evt);
+        }
+        return writeEvents(events, true);
+    }
+    
     /**
-     * Utility to insert data into events.
+     * Buffer events and their hit counters.
      *
-     * @param putQuery
-     *      query to update DB.
+     * @param events
+     *      events to store
+     * @param flushNow
+     *      send buffers before returning
+     * @return
+     *      if events have been accepted
      */
-    private void executePutCommand(Put putQuery) {
-        try (Connection hbConn = ConnectionFactory.createConnection(conn.getConfig())) {
-            try(Table table = hbConn.getTable(AUDIT_TABLENAME)) {
-                table.put(putQuery);
-            }
+    private boolean writeEvents(Collection < Event > events, boolean flushNow) {
+        List < Put > puts = new ArrayList<Put>(events.size());
+        for (Event evt : events) {
+            puts.add(MAPPER.toStore(evt, getRowKey(evt)));
+        }
+        try {
+            getEventsMutator().mutate(puts);
         } catch (IOException e) {
-            throw new AuditAccessException("Cannot execute command", e);
+            LOGGER.error("Cannot write events into HBASE", e);
+            return false;
+        }
+        synchronized (pendingHits) {
+            for (Event evt : events) {
+                if (getType(evt) == TYPE_USAGE) {
+                    addHits(evt, 1);
+                }
+            }
         }
+        startFlusher();
+        return !flushNow || flush();
     }
     
-    private Scan buildQuery(EventQueryDefinition qDef, Set< String > columnNames, String type) {
-        try (Connection hbConn = ConnectionFactory.createConnection(conn.getConfig())) {
-            try(Table table = hbConn.getTable(AUDIT_TABLENAME)) {
-                
-                // Columns to retrieve dynamically
-                Scan s = new Scan();
-                for (String col : columnNames) {
-                    s.addColumn(B_AUDIT_CF, Bytes.toBytes(col));
-                }
-                
-                /*
-                s.addColumn(B_AUDIT_CF, B_EVENT_UID);
-                s.addColumn(B_AUDIT_CF, B_EVENT_SOURCE);
-                s.addColumn(B_AUDIT_CF, B_EVENT_NAME);
-                s.addColumn(B_AUDIT_CF, B_EVENT_ACTION);
-                s.addColumn(B_AUDIT_CF, B_EVENT_TYPE);
-                s.addColumn(B_AUDIT_CF, B_EVENT_DURATION);
-                s.addColumn(B_AUDIT_CF, B_EVENT_HOSTNAME);
-                s.addColumn(B_AUDIT_CF, B_EVENT_USER);
-                s.addColumn(B_AUDIT_CF, B_EVENT_VALUE);
-                s.addColumn(B_AUDIT_CF, B_EVENT_DATE);
-                s.addColumn(B_AUDIT_CF, B_EVENT_TIME);
-                s.addColumn(B_AUDIT_CF, B_EVENT_KEYS);
-                */
-               
-                // Filters
-                FilterList filterList = new FilterList(FilterList.Operator.MUST_PASS_ALL);
-
-                // from
-                SingleColumnValueFilter filterFrom = 
-                        new SingleColumnValueFilter(B_AUDIT_CF, B_EVENT_TIME, 
-                                CompareOp.GREATER_OR_EQUAL, Bytes.toBytes(qDef.getFrom()));
-                filterFrom.setFilterIfMissing(true);
-                filterList.addFilter(filterFrom);
-                
-                // To
-                SingleColumnValueFilter filterTo =
-                        new SingleColumnValueFilter(B_AUDIT_CF, B_EVENT_TIME, 
-                                CompareOp.LESS_OR_EQUAL, Bytes.toBytes(qDef.getTo()));
-                filterTo.setFilterIfMissing(true);
-                filterList.addFilter(filterTo);
-                
-                // Type
-                if (null != type) {
-                    filterList.addFilter(
-                            new SingleColumnValueFilter(B_AUDIT_CF, B_EVENT_TYPE, CompareOp.EQUAL, Bytes.toBytes(type)));
-                }
-                
-                // Actions
-                if (!qDef.getActionFilters().isEmpty()) {
-                    filterList.addFilter(
-                            createFilterListOR(B_EVENT_ACTION, qDef.getActionFilters()));
-                }
-                // Host
-                if (!qDef.getHostFilters().isEmpty()) {
-                    filterList.addFilter(
-                            createFilterListOR(B_EVENT_HOSTNAME, qDef.getHostFilters()));
+    /**
+     * Add an event to the pending hit counters.
+     *
+     * @param evt
+     *      feature usage event
+     * @param delta
+     *      1 for a new event, -1 for a deleted one
+     */
+    private void addHits(Event evt, int delta) {
+        String hour = getHourKey(getHourStart(evt.getTimestamp()));
+        for (Types type : Types.values()) {
+            String rowKey = getHitsKey(type, hour);
+            if (!pendingHits.containsKey(rowKey)) {
+                pendingHits.put(rowKey, new HashMap<String, MutableHitCount>());
+            }
+            addHitCount(pendingHits.get(rowKey), getValueFromAttribute(type, evt), delta);
+        }
+    }
+    
+    /**
+     * Send buffered events and hit counters now, reads call it first to see all events saved before.
+     *
+     * @return
+     *      if all writes have been sent
+     */
+    public boolean flush() {
+        // Wait for a flush in progress, its writes are not in the buffers anymore
+        synchronized (flushLock) {
+            Map < String, Map < String, MutableHitCount > > hits;
+            synchronized (pendingHits) {
+                hits = new HashMap<String, Map<String, MutableHitCount>>(pendingHits);
+                pendingHits.clear();
+            }
+            boolean flushed = true;
+            try {
+                if (eventsMutator != null) {
+                    eventsMutator.flush();
                 }
-                // Names
-                if (!qDef.getNamesFilter().isEmpty()) {
-                    filterList.addFilter(
-                            createFilterListOR(B_EVENT_NAME, qDef.getNamesFilter()));
+            } catch (IOException e) {
+                LOGGER.error("Cannot write events into HBASE", e);
+                flushed = false;
+            }
+            if (!hits.isEmpty()) {
+                // One increment per counter row, all values at once
+                List < Increment > increments = new ArrayList<Increment>(hits.size());
+                for (Map.Entry < String, Map < String, MutableHitCount > > row : hits.entrySet()) {
+                    Increment inc = new Increment(Bytes.toBytes(row.getKey()));
+                    for (Map.Entry < String, MutableHitCount > hit : row.getValue().entrySet()) {
+                        inc.addColumn(B_AUDIT_HITS_CF, Bytes.toBytes(hit.getKey()), hit.getValue().get());
+                    }
+                    increments.add(inc);
                 }
-                // Sources
-                if (!qDef.getSourceFilters().isEmpty()) {
-                    filterList.addFilter(
-                            createFilterListOR(B_EVENT_SOURCE, qDef.getSourceFilters()));
+                try {
+                    getHitsMutator().mutate(increments);
+                    getHitsMutator().flush();
+                } catch (IOException e) {
+                    LOGGER.error("Cannot update hit counters into HBASE", e);
+                    flushed = false;
                 }
-                s.setFilter(filterList);
-                return s;
             }
-        } catch (IOException e) {
-            throw new AuditAccessException("Cannot execute command", e);
+            return flushed;
         }
     }
-        
-    private Filter createFilterListOR(byte[] columnName, Set<String> values) {
-        FilterList filterOR = new FilterList(FilterList.Operator.MUST_PASS_ONE);
-        for (String actionValue : values) {
-            filterOR.addFilter(
-                    new SingleColumnValueFilter(B_AUDIT_CF, columnName, 
-                            CompareOp.EQUAL, Bytes.toBytes(actionValue)));
+    
+    private void startFlusher() {
+        synchronized (flushLock) {
+            if (flusher == null) {
+                flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, "FF4j_EventRepositoryHBase_Flusher");
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+                flusher.scheduleWithFixedDelay(new Runnable() {
+                    public void run() {
+                        flush();
+                    }
+                }, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+            }
         }
-        return filterOR;
     }
     
-    /** {@inheritDoc} */
-    @Override
-    public void createSchema() {
-        conn.createTable(AUDIT_TABLENAME_ID, Util.set(AUDIT_CF));
+    private synchronized BufferedMutator getEventsMutator() throws IOException {
+        if (eventsMutator == null) {
+            eventsMutator = createMutator(new BufferedMutatorParams(AUDIT_TABLENAME));
+        }
+        return eventsMutator;
     }
     
-    /** {@inheritDoc} */
-    @Override
-    public boolean saveEvent(Event evt) {
-        Util.assertEvent(evt);
-        executePutCommand(MAPPER.toStore(evt));
-        return true;
+    private synchronized BufferedMutator getHitsMutator() throws IOException {
+        if (hitsMutator == null) {
+            hitsMutator = createMutator(new BufferedMutatorParams(AUDIT_HITS_TABLENAME));
+        }
+        return hitsMutator;
+    }
+    
+    private BufferedMutator createMutator(BufferedMutatorParams params) throws IOException {
+        params.writeBufferSize(writeBufferSize);
+        params.listener(new BufferedMutator.ExceptionListener() {
+            @Override
+            public void onException(RetriesExhaustedWithDetailsException e, BufferedMutator mutator) {
+                LOGGER.error("Cannot write " + e.getNumExceptions() + " rows into " + mutator.getName(), e);
+            }
+        });
+        return conn.getConnection().getBufferedMutator(params);
     }
 
     /** {@inheritDoc} */
     @Override
     public Event getEventByUUID(String uuid, Long timestamp) {
         Util.assertHasLength(new String[]{uuid});
-        try (Connection hbConn = ConnectionFactory.createConnection(conn.getConfig())) {
-            try(Table table = hbConn.getTable(AUDIT_TABLENAME)) {
-                Get queryGetById = new Get(Bytes.toBytes(uuid));
-                return MAPPER.fromStore(table.get(queryGetById));
+        flush();
+        long time = (timestamp == null) ? System.currentTimeMillis() : timestamp;
+        SingleColumnValueFilter filterUid = new SingleColumnValueFilter(B_AUDIT_CF, B_EVENT_UID, CompareOp.EQUAL, Bytes.toBytes(uuid));
+        filterUid.setFilterIfMissing(true);
+        // Salt is known, read the hour of the timestamp and the one before
+        int salt = getSalt(uuid);
+        long lastHour = getNextHour(getHourStart(time));
+        long firstHour = getHourStart(time - HOUR);
+        try (Table table = conn.getConnection().getTable(AUDIT_TABLENAME)) {
+            for (byte type : new byte[] {TYPE_AUDIT, TYPE_USAGE}) {
+                Scan scan = new Scan(getBucketKey(salt, type, firstHour), getBucketKey(salt, type, lastHour));
+                scan.setFilter(filterUid);
+                try(ResultScanner scanner = table.getScanner(scan)) {
+                    Result rr = scanner.next();
+                    if (rr != null) {
+                        return MAPPER.fromStore(rr);
+                    }
+                }
             }
         } catch (IOException e) {
-            throw new AuditAccessException("Cannot check feature existence", e);
+            throw new AuditAccessException("Cannot read event " + uuid, e);
         }
+        return null;
     }
     
     /** {@inheritDoc} */
     @Override
     public Map<String, MutableHitCount> getFeatureUsageHitCount(EventQueryDefinition query) {
-        return computeHitCount(query, COL_EVENT_NAME);
+        return getUsageCount(query, Types.NAME);
     }
     
     /** {@inheritDoc} */
     @Override
     public Map<String, MutableHitCount> getHostHitCount(EventQueryDefinition query) {
-        return computeHitCount(query, COL_EVENT_HOSTNAME);
+        return getUsageCount(query, Types.HOST);
     }
 
     /** {@inheritDoc} */
     @Override
     public Map<String, MutableHitCount> getUserHitCount(EventQueryDefinition query) {
-        return computeHitCount(query, COL_EVENT_USER);
+        return getUsageCount(query, Types.USER);
     }
 
     /** {@inheritDoc} */
     @Override
     public Map<String, MutableHitCount> getSourceHitCount(EventQueryDefinition query) {
-        return computeHitCount(query, COL_EVENT_SOURCE);
+        return getUsageCount(query, Types.SOURCE);
     }
     
-    /** {@inheritDoc} */
-    private Map<String, MutableHitCount> computeHitCount(EventQueryDefinition query, String pColName) {
-        Map < String, MutableHitCount > hitCount = new HashMap<String, MutableHitCount>();
-        try (Connection hbConn = ConnectionFactory.createConnection(conn.getConfig())) {
-            try(Table table = hbConn.getTable(AUDIT_TABLENAME)) {
-                query.getActionFilters().add(ACTION_CHECK_OK);
-                Scan scanQuery = buildQuery(query, Util.set(pColName), EventConstants.TARGET_FEATURE);
-                try(ResultScanner scanner = table.getScanner(scanQuery)) {
-                    for (Result rr = scanner.next(); rr != null; rr = scanner.next()) {
-                        String colValue = Bytes.toString(rr.getValue(B_AUDIT_CF, Bytes.toBytes(pColName)));
-                        if (hitCount.containsKey(colValue)) {
-                            hitCount.get(colValue).inc();
-                        } else {
-                            hitCount.put(colValue, new MutableHitCount(1));
+    /**
+     * Count hits : counters for the hours fully within the query, events for the partial hours at the bounds.
+     *
+     * @param query
+     *      current query
+     * @param type
+     *      dimension to count
+     * @return
+     *      hit count per value
+     */
+    private Map<String, MutableHitCount> getUsageCount(final EventQueryDefinition query, final Types type) {
+        flush();
+        final Map<String, MutableHitCount> hitCount = new HashMap<String, MutableHitCount>();
+        EventVisitor counter = new EventVisitor() {
+            public boolean visit(Event evt) {
+                if (query.match(evt)) {
+                    addHitCount(hitCount, getValueFromAttribute(type, evt), 1);
+                }
+                return true;
+            }
+        };
+        long firstHour = getFirstFullHour(query.getFrom());
+        long lastHour  = getHourStart(query.getTo() + 1);
+        if (!isCounterQuery(query, type) || firstHour >= lastHour) {
+            scanEvents(TYPE_USAGE, query.getNamesFilter(), query.getFrom(), query.getTo(), counter);
+            return hitCount;
+        }
+        scanEvents(TYPE_USAGE, query.getNamesFilter(), query.getFrom(), firstHour - 1, counter);
+        for (Map < String, MutableHitCount > hourHits : readHits(type, firstHour, lastHour).values()) {
+            for (Map.Entry < String, MutableHitCount > hit : hourHits.entrySet()) {
+                if (type != Types.NAME || query.matchName(hit.getKey())) {
+                    addHitCount(hitCount, hit.getKey(), hit.getValue().get());
+                }
+            }
+        }
+        scanEvents(TYPE_USAGE, query.getNamesFilter(), lastHour, query.getTo(), counter);
+        return hitCount;
+    }
+    
+    /**
+     * Hit counters hold no link between dimensions : only filters on the counted dimension can be applied.
+     *
+     * @param query
+     *      current query
+     * @param type
+     *      dimension to count
+     * @return
+     *      if counters can answer the query
+     */
+    private boolean isCounterQuery(EventQueryDefinition query, Types type) {
+        return query.getActionFilters().isEmpty()
+                && query.getSourceFilters().isEmpty()
+                && query.getHostFilters().isEmpty()
+                && (type == Types.NAME || query.getNamesFilter().isEmpty());
+    }
+    
+    private void addHitCount(Map<String, MutableHitCount> hitCount, String value, int hits) {
+        if (hitCount.containsKey(value)) {
+            hitCount.get(value).incBy(hits);
+        } else {
+            hitCount.put(value, new MutableHitCount(hits));
+        }
+    }
+    
+    /**
+     * Read hit counters of a dimension with a single scan, rows are sorted by hour.
+     *
+     * @param type
+     *      dimension
+     * @param firstHour
+     *      start of first hour (included)
+     * @param lastHour
+     *      start of last hour (excluded)
+     * @return
+     *      counters for each hour
+     */
+    private Map < Long, Map < String, MutableHitCount > > readHits(Types type, long firstHour, long lastHour) {
+        Map < Long, Map < String, MutableHitCount > > hits = new TreeMap<Long, Map<String, MutableHitCount>>();
+        if (firstHour >= lastHour) {
+            return hits;
+        }
+        Map < String, Long > hours = new HashMap<String, Long>();
+        for (long hour = firstHour; hour < lastHour; hour = getNextHour(hour)) {
+            hours.put(getHitsKey(type, getHourKey(hour)), hour);
+        }
+        Scan scan = new Scan(Bytes.toBytes(getHitsKey(type, getHourKey(firstHour))), 
+                             Bytes.toBytes(getHitsKey(type, getHourKey(lastHour))));
+        scan.addFamily(B_AUDIT_HITS_CF);
+        try (Table table = conn.getConnection().getTable(AUDIT_HITS_TABLENAME)) {
+            try(ResultScanner scanner = table.getScanner(scan)) {
+                for (Result rr = scanner.next(); rr != null; rr = scanner.next()) {
+                    Long hour = hours.get(Bytes.toString(rr.getRow()));
+                    if (hour != null) {
+                        Map < String, MutableHitCount > hourHits = new HashMap<String, MutableHitCount>();
+                        for (Map.Entry < byte[], byte[] > cell : rr.getFamilyMap(B_AUDIT_HITS_CF).entrySet()) {
+                            long count = Bytes.toLong(cell.getValue());
+                            if (count > 0) {
+                                addHitCount(hourHits, Bytes.toString(cell.getKey()), (int) count);
+                            }
                         }
-                     }
+                        hits.put(hour, hourHits);
+                    }
                 }
             }
         } catch (IOException e) {
-            throw new AuditAccessException("Compute hitcount based on " + pColName, e);
+            throw new AuditAccessException("Cannot read hit counters of " + type, e);
         }
-        return hitCount;
+        return hits;
     }
     
     /** {@inheritDoc} */
     @Override
-    public TimeSeriesChart getFeatureUsageHistory(EventQueryDefinition query, TimeUnit units) {
-        // Create the interval depending on units
-        TimeSeriesChart tsc = new TimeSeriesChart(query.getFrom(), query.getTo(), units);
-        // Search All events
-        Iterator<Event> iterEvent = searchFeatureUsageEvents(query).iterator();
-        // Dispatch events into time slots
-        while (iterEvent.hasNext()) {
-            tsc.addEvent(iterEvent.next());
+    public TimeSeriesChart getFeatureUsageHistory(final EventQueryDefinition query, TimeUnit units) {
+        flush();
+        final TimeSeriesChart tsc = new TimeSeriesChart(query.getFrom(), query.getTo(), units);
+        EventVisitor chart = new EventVisitor() {
+            public boolean visit(Event evt) {
+                if (query.match(evt)) {
+                    tsc.addEvent(evt);
+                }
+                return true;
+            }
+        };
+        long firstHour = getFirstFullHour(query.getFrom());
+        long lastHour  = getHourStart(query.getTo() + 1);
+        boolean slotsOfHours = (units == TimeUnit.HOURS || units == TimeUnit.DAYS);
+        if (!slotsOfHours || !isCounterQuery(query, Types.NAME) || firstHour >= lastHour) {
+            scanEvents(TYPE_USAGE, query.getNamesFilter(), query.getFrom(), query.getTo(), chart);
+            return tsc;
         }
+        scanEvents(TYPE_USAGE, query.getNamesFilter(), query.getFrom(), firstHour - 1, chart);
+        for (Map.Entry < Long, Map < String, MutableHitCount > > hourHits : readHits(Types.NAME, firstHour, lastHour).entrySet()) {
+            String slot = tsc.getSdf().format(new Date(hourHits.getKey()));
+            for (Map.Entry < String, MutableHitCount > hit : hourHits.getValue().entrySet()) {
+                if (query.matchName(hit.getKey())) {
+                    if (!tsc.getSeries().containsKey(hit.getKey())) {
+                        tsc.createNewSerie(hit.getKey());
+                    }
+                    Serie < Map < String, MutableHitCount > > serie = tsc.getSeries().get(hit.getKey());
+                    if (serie.getValue().containsKey(slot)) {
+                        serie.getValue().get(slot).incBy(hit.getValue().get());
+                    }
+                }
+            }
+        }
+        scanEvents(TYPE_USAGE, query.getNamesFilter(), lastHour, query.getTo(), chart);
         return tsc;
     }
 
     /** {@inheritDoc} */
     @Override
-    public EventSeries searchFeatureUsageEvents(EventQueryDefinition query) {
-        EventSeries es = new EventSeries();
-        try (Connection hbConn = ConnectionFactory.createConnection(conn.getConfig())) {
-            try(Table table = hbConn.getTable(AUDIT_TABLENAME)) {
-                query.getActionFilters().add(ACTION_CHECK_OK);
-                
-                Scan scanQuery = buildQuery(query, COLS_EVENT, EventConstants.TARGET_FEATURE);
-                try(ResultScanner scanner = table.getScanner(scanQuery)) {
-                    for (Result rr = scanner.next(); rr != null; rr = scanner.next()) {
-                        es.add(MAPPER.fromStore(rr));
-                     }
+    public EventSeries searchFeatureUsageEvents(final EventQueryDefinition query) {
+        flush();
+        final EventSeries es = new EventSeries();
+        scanEvents(TYPE_USAGE, query.getNamesFilter(), query.getFrom(), query.getTo(), new EventVisitor() {
+            public boolean visit(Event evt) {
+                if (query.match(evt)) {
+                    es.add(evt);
                 }
+                return true;
             }
-        } catch (IOException e) {
-            throw new AuditAccessException("Cannot search feature usage ", e);
-        }
-        return es;
+        });
+        return getPage(es, query);
     }
 
     /** {@inheritDoc} */
     @Override
-    public EventSeries getAuditTrail(EventQueryDefinition query) {
-        EventSeries es = new EventSeries();
-        try (Connection hbConn = ConnectionFactory.createConnection(conn.getConfig())) {
-            try(Table table = hbConn.getTable(AUDIT_TABLENAME)) {
-                query.getActionFilters().add(ACTION_CHECK_OK);
-                Scan scanQuery = buildQuery(query, COLS_EVENT, null);
-                Set < String > candidates = Util.set(ACTION_DISCONNECT, 
-                        ACTION_TOGGLE_ON, ACTION_TOGGLE_OFF,
-                        ACTION_CREATE, ACTION_DELETE,
-                        ACTION_UPDATE, ACTION_CLEAR);
-                try(ResultScanner scanner = table.getScanner(scanQuery)) {
-                    for (Result rr = scanner.next(); rr != null; rr = scanner.next()) {
-                        String action = Bytes.toString(rr.getValue(B_AUDIT_CF, B_EVENT_ACTION));
-                        if (candidates.contains(action)) {
-                            es.add(MAPPER.fromStore(rr));
-                        }
-                     }
+    public EventSeries getAuditTrail(final EventQueryDefinition query) {
+        flush();
+        final EventSeries es = new EventSeries();
+        scanEvents(TYPE_AUDIT, query.getNamesFilter(), query.getFrom(), query.getTo(), new EventVisitor() {
+            public boolean visit(Event evt) {
+                if (AUDIT_ACTIONS.contains(evt.getAction()) && query.match(evt)) {
+                    es.add(evt);
                 }
+                return true;
+            }
+        });
+        return getPage(es, query);
+    }
+    
+    /**
+     * Salts are read one after the other, the page is cut once all events are sorted.
+     *
+     * @param es
+     *      all events matching the query
+     * @param query
+     *      current query
+     * @return
+     *      requested page
+     */
+    private EventSeries getPage(EventSeries es, EventQueryDefinition query) {
+        if (!query.isPageable()) {
+            return es;
+        }
+        EventSeries page = new EventSeries();
+        int skip = query.getPagenumber() * query.getPagesize();
+        for (Event evt : es) {
+            if (skip-- <= 0 && page.size() < query.getPagesize()) {
+                page.add(evt);
             }
-        } catch (IOException e) {
-            throw new AuditAccessException("Cannot search audit trail ", e);
         }
-        return es;
+        return page;
     }
     
     /** {@inheritDoc} */
     @Override
-    public void purgeFeatureUsage(EventQueryDefinition query) {
-        this.purgeAuditTrail(query);
+    public void purgeFeatureUsage(final EventQueryDefinition query) {
+        flush();
+        final List < Mutation > deletes = new ArrayList<Mutation>();
+        scanEvents(TYPE_USAGE, query.getNamesFilter(), query.getFrom(), query.getTo(), new EventVisitor() {
+            public boolean visit(Event evt) {
+                if (query.match(evt)) {
+                    deletes.add(new Delete(getRowKey(evt)));
+                    synchronized (pendingHits) {
+                        addHits(evt, -1);
+                    }
+                }
+                return true;
+            }
+        });
+        deleteEvents(deletes);
     }    
 
     /** {@inheritDoc} */
     @Override
-    public void purgeAuditTrail(EventQueryDefinition query) {
-        try (Connection hbConn = ConnectionFactory.createConnection(conn.getConfig())) {
-            try(Table table = hbConn.getTable(AUDIT_TABLENAME)) {
-                query.getActionFilters().add(ACTION_CHECK_OK);
-                // Scan for ids
-                Scan scanQuery = buildQuery(query, Util.set(COL_EVENT_UID), null);
-                List < Delete > list = new ArrayList<Delete>();
-                try(ResultScanner scanner = table.getScanner(scanQuery)) {
+    public void purgeAuditTrail(final EventQueryDefinition query) {
+        flush();
+        final List < Mutation > deletes = new ArrayList<Mutation>();
+        scanEvents(TYPE_AUDIT, query.getNamesFilter(), query.getFrom(), query.getTo(), new EventVisitor() {
+            public boolean visit(Event evt) {
+                if (query.match(evt)) {
+                    deletes.add(new Delete(getRowKey(evt)));
+                }
+                return true;
+            }
+        });
+        deleteEvents(deletes);
+    }
+    
+    private void deleteEvents(List < Mutation > deletes) {
+        try {
+            getEventsMutator().mutate(deletes);
+        } catch (IOException e) {
+            throw new AuditAccessException("Cannot purge events", e);
+        }
+        if (!flush()) {
+            throw new AuditAccessException("Cannot purge events, see logs for details");
+        }
+    }
+    
+    /**
+     * Read events of a type between two dates : one bounded scan per salt. Names, if any, are
+     * turned into row ranges (one per hour and name) the region servers seek to.
+     *
+     * @param type
+     *      type in row key
+     * @param names
+     *      names to read, all if empty
+     * @param from
+     *      begin time (included)
+     * @param to
+     *      end time (included)
+     * @param visitor
+     *      callback for each event
+     */
+    private void scanEvents(byte type, Set < String > names, long from, long to, EventVisitor visitor) {
+        if (from > to) {
+            return;
+        }
+        long firstHour = getHourStart(from);
+        long lastHour  = getNextHour(getHourStart(to));
+        try (Table table = conn.getConnection().getTable(AUDIT_TABLENAME)) {
+            for (int salt = 0; salt < saltBuckets; salt++) {
+                Scan scan = new Scan(getBucketKey(salt, type, firstHour), getBucketKey(salt, type, lastHour));
+                scan.addFamily(B_AUDIT_CF);
+                scan.setCaching(AUDIT_SCAN_CACHING);
+                if (names != null && !names.isEmpty()) {
+                    List < RowRange > ranges = new ArrayList<RowRange>();
+                    for (long hour = firstHour; hour < lastHour; hour = getNextHour(hour)) {
+                        byte[] bucket = getBucketKey(salt, type, hour);
+                        for (String name : names) {
+                            byte[] prefix = Bytes.add(bucket, Bytes.toBytes(name), NAME_END);
+                            ranges.add(new RowRange(Bytes.add(prefix, Bytes.toBytes(from)), true, 
+                                    Bytes.add(bucket, Bytes.toBytes(name), NAME_STOP), false));
+                        }
+                    }
+                    scan.setFilter(new MultiRowRangeFilter(ranges));
+                }
+                try(ResultScanner scanner = table.getScanner(scan)) {
                     for (Result rr = scanner.next(); rr != null; rr = scanner.next()) {
-                        list.add(new Delete(rr.getValue(B_AUDIT_CF, B_EVENT_UID)));
+                        Event evt = MAPPER.fromStore(rr);
+                        // Hours at the bounds are partially in the query
+                        if (evt.getTimestamp() >= from && evt.getTimestamp() <= to && !visitor.visit(evt)) {
+                            return;
+                        }
                     }
                 }
-                table.delete(list);
             }
         } catch (IOException e) {
-            throw new AuditAccessException("Cannot search audit trail ", e);
+            throw new AuditAccessException("Cannot scan events", e);
+        }
+    }
+    
+    /**
+     * Row key of an event.
+     *
+     * @param evt
+     *      current event
+     * @return
+     *      salt | type | yyyyMMddHH | name | 0x00 | timestamp | uuid
+     */
+    private byte[] getRowKey(Event evt) {
+        byte[] bucket = getBucketKey(getSalt(evt.getUuid()), getType(evt), getHourStart(evt.getTimestamp()));
+        return Bytes.add(Bytes.add(bucket, Bytes.toBytes(evt.getName()), NAME_END), 
+                Bytes.toBytes(evt.getTimestamp()), Bytes.toBytes(evt.getUuid()));
+    }
+    
+    /**
+     * Prefix of row keys for a salt, type and hour.
+     *
+     * @param salt
+     *      salt
+     * @param type
+     *      type of events
+     * @param hourStart
+     *      start of the hour
+     * @return
+     *      row key prefix
+     */
+    private byte[] getBucketKey(int salt, byte type, long hourStart) {
+        return Bytes.add(new byte[] {(byte) salt, type}, Bytes.toBytes(getHourKey(hourStart)));
+    }
+    
+    private int getSalt(String uuid) {
+        return (uuid.hashCode() & Integer.MAX_VALUE) % saltBuckets;
+    }
+    
+    private byte getType(Event evt) {
+        return ACTION_CHECK_OK.equals(evt.getAction()) ? TYPE_USAGE : TYPE_AUDIT;
+    }
+    
+    private String getHitsKey(Types type, String hourKey) {
+        return type.name() + "|" + hourKey;
+    }
+    
+    /**
+     * Start of the hour (local time) containing this time.
+     *
+     * @param time
+     *      current time
+     * @return
+     *      start of the hour
+     */
+    private long getHourStart(long time) {
+        return time - ((time + TimeZone.getDefault().getOffset(time)) % HOUR);
+    }
+
+    /**
+     * Start of the hour following the one starting at this time.
+     *
+     * @param hourStart
+     *      start of the hour
+     * @return
+     *      start of the next hour
+     */
+    private long getNextHour(long hourStart) {
+        return getHourStart(hourStart + HOUR + HOUR / 2);
+    }
+
+    /**
+     * Start of the first hour fully after this time.
+     *
+     * @param time
+     *      current time
+     * @return
+     *      start of the hour
+     */
+    private long getFirstFullHour(long time) {
+        long hourStart = getHourStart(time);
+        return (hourStart == time) ? time : getNextHour(hourStart);
+    }
+
+    /**
+     * Key of an hour as yyyyMMddHH.
+     *
+     * @param hourStart
+     *      start of the hour
+     * @return
+     *      hour key
+     */
+    private String getHourKey(long hourStart) {
+        long hour = ((hourStart + TimeZone.getDefault().getOffset(hourStart)) / HOUR) % 24;
+        return getKeyDate(hourStart) + (hour < 10 ? "0" : "") + hour;
+    }
+
+    /**
+     * Value of an event for a dimension of the hit counters.
+     *
+     * @param type
+     *      dimension
+     * @param event
+     *      current event
+     * @return
+     *      value of the event
+     */
+    private String getValueFromAttribute(Types type, Event event) {
+        String value;
+        switch (type) {
+            case HOST:
+                value = event.getHostName();
+                break;
+            case SOURCE:
+                value = event.getSource();
+                break;
+            case USER:
+                value = Util.hasLength(event.getUser()) ? event.getUser() : ANONYMOUS;
+                break;
+            case NAME:
+                value = event.getName();
+                break;
+            default:
+                value = UNKNOWN;
         }
+        return (value == null) ? UNKNOWN : value;
     }
 
     /**
@@ -397,5 +862,74 @@ public class EventRepositoryHBase extends AbstractEventRepository {
     public void setConn(HBaseConnection conn) {
         this.conn = conn;
     }
+
+    /**
+     * Getter accessor for attribute 'saltBuckets'.
+     *
+     * @return
+     *       current value of 'saltBuckets'
+     */
+    public int getSaltBuckets() {
+        return saltBuckets;
+    }
+
+    /**
+     * Setter accessor for attribute 'saltBuckets', row keys depend on it : set it before storing events.
+     *
+     * @param saltBuckets
+     *      new value for 'saltBuckets '
+     */
+    public void setSaltBuckets(int saltBuckets) {
+        if (saltBuckets < 1 || saltBuckets > 256) {
+            throw new IllegalArgumentException("Salt buckets must be between 1 and 256");
+        }
+        this.saltBuckets = saltBuckets;
+    }
+
+    /**
+     * Getter accessor for attribute 'writeBufferSize'.
+     *
+     * @return
+     *       current value of 'writeBufferSize'
+     */
+    public long getWriteBufferSize() {
+        return writeBufferSize;
+    }
+
+    /**
+     * Setter accessor for attribute 'writeBufferSize' (bytes), taken into account before the first event.
+     *
+     * @param writeBufferSize
+     *      new value for 'writeBufferSize '
+     */
+    public void setWriteBufferSize(long writeBufferSize) {
+        if (writeBufferSize < 1) {
+            throw new IllegalArgumentException("Write buffer size must be positive");
+        }
+        this.writeBufferSize = writeBufferSize;
+    }
+
+    /**
+     * Getter accessor for attribute 'flushInterval'.
+     *
+     * @return
+     *       current value of 'flushInterval'
+     */
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * Setter accessor for attribute 'flushInterval' (milliseconds), taken into account before the first event.
+     *
+     * @param flushInterval
+     *      new value for 'flushInterval '
+     */
+    public void setFlushInterval(long flushInterval) {
+        if (flushInterval < 1) {
+            throw new IllegalArgumentException("Flush interval must be positive");
+        }
+        this.flushInterval = flushInterval;
+    }
     
 }
@@ -0,0 +1,236 @@
+package org.ff4j.hbase;
+
+/*
+ * #%L
+ * ff4j-store-hbase
+ * %%
+ * Copyright (C) 2013 - 2016 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.ff4j.audit.EventConstants.ACTION_CHECK_OK;
+import static org.ff4j.audit.EventConstants.ACTION_CREATE;
+import static org.ff4j.audit.EventConstants.SOURCE_JAVA;
+import static org.ff4j.audit.EventConstants.TARGET_FEATURE;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.BufferedMutatorParams;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.ff4j.audit.Event;
+import org.ff4j.audit.EventConstants;
+import org.ff4j.audit.EventQueryDefinition;
+import org.ff4j.hbase.store.EventRepositoryHBase;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Row keys and scans of {@link EventRepositoryHBase} without cluster, the HBase client is mocked.
+ *
+ * @author Cedrick LUNVEN (@clunven)
+ */
+public class EventRepositoryHBaseRowKeyTest {
+
+    /** Number of salts. */
+    private static final int SALTS = 4;
+
+    /** Time zone of the JVM. */
+    private TimeZone defaultTimeZone;
+
+    /** Tested repository. */
+    private EventRepositoryHBase repo;
+
+    /** Mocked table, scans are captured. */
+    private Table table;
+
+    /** Mocked buffered writes, puts are captured. */
+    private BufferedMutator mutator;
+
+    @Before
+    public void setUp() throws IOException {
+        defaultTimeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Paris"));
+        Connection connection = mock(Connection.class);
+        table   = mock(Table.class);
+        mutator = mock(BufferedMutator.class);
+        when(connection.getTable(any(TableName.class))).thenReturn(table);
+        when(connection.getBufferedMutator(any(BufferedMutatorParams.class))).thenReturn(mutator);
+        when(table.getScanner(any(Scan.class))).thenReturn(mock(ResultScanner.class));
+        HBaseConnection conn = mock(HBaseConnection.class);
+        when(conn.getConnection()).thenReturn(connection);
+        repo = new EventRepositoryHBase(conn);
+        repo.setSaltBuckets(SALTS);
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(defaultTimeZone);
+    }
+
+    private long time(int hour, int minute) {
+        Calendar c = Calendar.getInstance();
+        c.clear();
+        c.set(2016, Calendar.JUNE, 15, hour, minute);
+        return c.getTimeInMillis();
+    }
+
+    private Event event(String action, long timestamp, String uuid) {
+        Event evt = new Event(SOURCE_JAVA, TARGET_FEATURE, "f1", action);
+        evt.setTimestamp(timestamp);
+        evt.setUuid(uuid);
+        evt.setUser("john");
+        evt.setValue("on");
+        return evt;
+    }
+
+    /** Row key written for an event. */
+    @SuppressWarnings("unchecked")
+    private byte[] rowKey(Event evt) throws IOException {
+        repo.saveEvent(evt);
+        ArgumentCaptor<List> puts = ArgumentCaptor.forClass(List.class);
+        verify(mutator, atLeastOnce()).mutate(puts.capture());
+        List<Mutation> last = puts.getValue();
+        return last.get(0).getRow();
+    }
+
+    private byte[] bucket(int salt, char type, String hourKey) {
+        return Bytes.add(new byte[] {(byte) salt, (byte) type}, Bytes.toBytes(hourKey));
+    }
+
+    /** Scans sent to the table. */
+    private List<Scan> scans() throws IOException {
+        ArgumentCaptor<Scan> scans = ArgumentCaptor.forClass(Scan.class);
+        verify(table, atLeastOnce()).getScanner(scans.capture());
+        return scans.getAllValues();
+    }
+
+    @Test
+    public void testRowKeyLayout() throws IOException {
+        long t = time(10, 30);
+        byte[] key = rowKey(event(ACTION_CHECK_OK, t, "uuid-1"));
+        // salt | type | yyyyMMddHH | name | 0x00 | timestamp | uuid
+        Assert.assertEquals(("uuid-1".hashCode() & Integer.MAX_VALUE) % SALTS, key[0]);
+        Assert.assertEquals('U', key[1]);
+        Assert.assertEquals("2016061510", Bytes.toString(key, 2, 10));
+        int nameEnd = 12;
+        while (key[nameEnd] != 0) {
+            nameEnd++;
+        }
+        Assert.assertEquals("f1", Bytes.toString(key, 12, nameEnd - 12));
+        Assert.assertEquals(t, Bytes.toLong(key, nameEnd + 1));
+        Assert.assertEquals("uuid-1", Bytes.toString(key, nameEnd + 9, key.length - nameEnd - 9));
+        Assert.assertEquals('A', rowKey(event(ACTION_CREATE, t, "uuid-1"))[1]);
+    }
+
+    @Test
+    public void testRowKeysSortedByTime() throws IOException {
+        byte[] first  = rowKey(event(ACTION_CHECK_OK, time(10, 30), "uuid-1"));
+        byte[] second = rowKey(event(ACTION_CHECK_OK, time(10, 31), "uuid-1"));
+        byte[] later  = rowKey(event(ACTION_CHECK_OK, time(11, 0), "uuid-1"));
+        Assert.assertTrue(Bytes.compareTo(first, second) < 0);
+        Assert.assertTrue(Bytes.compareTo(second, later) < 0);
+    }
+
+    @Test
+    public void testScanRowsForEachSalt() throws IOException {
+        repo.searchFeatureUsageEvents(new EventQueryDefinition(time(10, 30), time(12, 15)));
+        List<Scan> scans = scans();
+        Assert.assertEquals(SALTS, scans.size());
+        for (int salt = 0; salt < SALTS; salt++) {
+            Scan scan = scans.get(salt);
+            Assert.assertArrayEquals(bucket(salt, 'U', "2016061510"), scan.getStartRow());
+            Assert.assertArrayEquals(bucket(salt, 'U', "2016061513"), scan.getStopRow());
+            Assert.assertNull(scan.getFilter());
+        }
+        // Events of the range are within the scan of their salt, the next hour is not
+        byte[] inRange = rowKey(event(ACTION_CHECK_OK, time(12, 15), "uuid-2"));
+        byte[] after   = rowKey(event(ACTION_CHECK_OK, time(13, 0), "uuid-2"));
+        Scan scan = scans.get(inRange[0]);
+        Assert.assertTrue(Bytes.compareTo(scan.getStartRow(), inRange) <= 0);
+        Assert.assertTrue(Bytes.compareTo(inRange, scan.getStopRow()) < 0);
+        Assert.assertTrue(Bytes.compareTo(after, scan.getStopRow()) >= 0);
+    }
+
+    @Test
+    public void testScanWithNamesUsesRowRanges() throws IOException {
+        repo.searchFeatureUsageEvents(new EventQueryDefinition(time(10, 30), time(12, 15)).addFilterName("f1"));
+        for (Scan scan : scans()) {
+            Assert.assertTrue(scan.getFilter() instanceof MultiRowRangeFilter);
+        }
+    }
+
+    @Test
+    public void testPartialHoursReadFromEvents() throws IOException {
+        repo.getFeatureUsageHitCount(new EventQueryDefinition(time(10, 30), time(13, 15)));
+        List<Scan> scans = scans();
+        Assert.assertEquals(2 * SALTS + 1, scans.size());
+        // 10:30 to 11:00 from events
+        Assert.assertArrayEquals(bucket(0, 'U', "2016061510"), scans.get(0).getStartRow());
+        Assert.assertArrayEquals(bucket(0, 'U', "2016061511"), scans.get(0).getStopRow());
+        // 11:00 to 13:00 from counters
+        Scan hits = scans.get(SALTS);
+        Assert.assertEquals("NAME|2016061511", Bytes.toString(hits.getStartRow()));
+        Assert.assertEquals("NAME|2016061513", Bytes.toString(hits.getStopRow()));
+        // 13:00 to 13:15 from events
+        Assert.assertArrayEquals(bucket(0, 'U', "2016061513"), scans.get(SALTS + 1).getStartRow());
+        Assert.assertArrayEquals(bucket(0, 'U', "2016061514"), scans.get(SALTS + 1).getStopRow());
+    }
+
+    @Test
+    public void testFullHoursReadFromCounters() throws IOException {
+        repo.getFeatureUsageHitCount(new EventQueryDefinition(time(10, 0), time(13, 0) - 1));
+        List<Scan> scans = scans();
+        Assert.assertEquals(1, scans.size());
+        Assert.assertEquals("NAME|2016061510", Bytes.toString(scans.get(0).getStartRow()));
+        Assert.assertEquals("NAME|2016061513", Bytes.toString(scans.get(0).getStopRow()));
+    }
+
+    @Test
+    public void testWithinAnHourReadFromEvents() throws IOException {
+        repo.getFeatureUsageHitCount(new EventQueryDefinition(time(10, 30), time(10, 45)));
+        List<Scan> scans = new ArrayList<Scan>(scans());
+        Assert.assertEquals(SALTS, scans.size());
+        Assert.assertArrayEquals(bucket(0, 'U', "2016061510"), scans.get(0).getStartRow());
+    }
+
+    @Test
+    public void testFilteredQueryReadFromEvents() throws IOException {
+        EventQueryDefinition query = new EventQueryDefinition(time(10, 0), time(13, 0) - 1);
+        query.addFilterAction(EventConstants.ACTION_CHECK_OK);
+        repo.getFeatureUsageHitCount(query);
+        Assert.assertEquals(SALTS, scans().size());
+    }
+
+}
@@ -46,6 +46,9 @@ public class FF4jJCacheManager implements FF4JCacheManager {
     /** cache name of the properties. */
     public static final String CACHENAME_PROPERTIES    = "ff4jProperties";
     
+    /** cache name of the group index (group name to feature identifiers). */
+    public static final String CACHENAME_FEATURE_GROUPS = "ff4jFeatureGroups";
+    
     /** JCache associated CachingProvider in order to create 'CacheManager'. */
     private CachingProvider cachingProvider;
     
@@ -59,6 +62,13 @@ public class FF4jJCacheManager implements FF4JCacheManager {
     @SuppressWarnings("rawtypes")
     protected Cache<String, Property> propertiesCache; 
     
+    /** Index of features per group, created on first use. */
+    @SuppressWarnings("rawtypes")
+    protected Cache<String, Set> featureGroupsCache;
+
+    /** Hit and miss statistics. */
+    private final CacheStatistics statistics = new CacheStatistics();
+    
     /**
      * Initialisation of internal caches.
      */
@@ -115,6 +125,19 @@ public class FF4jJCacheManager implements FF4JCacheManager {
         return getCacheManager().getCache(CACHENAME_PROPERTIES, String.class, Property.class);
     }
 
+    
+    /**
+     * Default initialisation of cache.
+     *
+     * @return
+     */
+    @SuppressWarnings("rawtypes")
+    protected Cache<String, Set> createCacheForFeatureGroups() {
+        if (null == getCacheManager().getCache(CACHENAME_FEATURE_GROUPS, String.class, Set.class)) {
+            getCacheManager().createCache(CACHENAME_FEATURE_GROUPS, getFeatureGroupsCacheConfiguration());
+        }
+        return getCacheManager().getCache(CACHENAME_FEATURE_GROUPS, String.class, Set.class);
+    }
 
     /** {@inheritDoc} */
     public Set<String> listCachedFeatureNames() {
@@ -181,13 +204,30 @@ public class FF4jJCacheManager implements FF4JCacheManager {
     /** {@inheritDoc} */
     @Override
     public Feature getFeature(String featureId) {
-        return getFeaturesCache().get(featureId);
+        return record(getFeaturesCache().get(featureId));
     }
 
     /** {@inheritDoc} */
     @Override
     public Property<?> getProperty(String name) {
-        return getPropertiesCache().get(name);
+        return record(getPropertiesCache().get(name));
+    }
+    
+    /**
+     * Record hit or miss.
+     *
+     * @param value
+     *      value read from cache
+     * @return
+     *      same value
+     */
+    private < T > T record(T value) {
+        if (value == null) {
+            statistics.recordMiss();
+        } else {
+            statistics.recordHit();
+        }
+        return value;
     }
 
     /** {@inheritDoc} */
@@ -211,6 +251,12 @@ public class FF4jJCacheManager implements FF4JCacheManager {
         return getPropertiesCache();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
+
     /**
      * Getter accessor for attribute 'featuresCache'.
      *
@@ -247,6 +293,20 @@ public class FF4jJCacheManager implements FF4JCacheManager {
         return propertiesCache;
     }
     
+    /**
+     * Getter accessor for attribute 'featureGroupsCache'.
+     *
+     * @return
+     *       current value of 'featureGroupsCache'
+     */
+    @SuppressWarnings("rawtypes")
+    public synchronized Cache<String, Set> getFeatureGroupsCache() {
+        if (featureGroupsCache == null) {
+            featureGroupsCache = createCacheForFeatureGroups();
+        }
+        return featureGroupsCache;
+    }
+    
     /**
      * Initialize cache configuration, could be overriden.
      *
@@ -276,6 +336,21 @@ public class FF4jJCacheManager implements FF4JCacheManager {
         return propertiesCacheConfig;
     }
     
+    /**
+     * Initialize cache configuration, could be overriden.
+     *
+     * @return
+     *      cache default configuration
+     */
+    @SuppressWarnings("rawtypes")
+    protected MutableConfiguration< String, Set> getFeatureGroupsCacheConfiguration() {
+        MutableConfiguration<String, Set> groupsCacheConfig = new MutableConfiguration<>();        
+        groupsCacheConfig.setTypes(String.class, Set.class);
+        groupsCacheConfig.setStoreByValue(true);
+        groupsCacheConfig.setStatisticsEnabled(false);
+        return groupsCacheConfig;
+    }
+    
     /**
      * Default Initialisation of {@link CachingProvider}. It will work only is there is
      * a single {@link CachingProvider} implementation within classpath. Otherwise should must
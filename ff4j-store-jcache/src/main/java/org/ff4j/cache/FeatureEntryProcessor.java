@@ -0,0 +1,131 @@
+package org.ff4j.cache;
+
+/*
+ * #%L
+ * ff4j-store-jcache
+ * %%
+ * Copyright (C) 2013 - 2015 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Serializable;
+
+import javax.cache.processor.EntryProcessor;
+import javax.cache.processor.MutableEntry;
+
+import org.ff4j.core.Feature;
+
+/**
+ * Update a {@link Feature} where it is stored : only the processor and the result are sent over the network
+ * and the update cannot be lost because of a concurrent one.
+ * 
+ * <p>The result is the group of the feature before the update (empty if none) or null if the
+ * feature does not exist.</p>
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class FeatureEntryProcessor implements EntryProcessor<String, Feature, String>, Serializable {
+
+    /** serial. */
+    private static final long serialVersionUID = 4528947213640257113L;
+
+    /** Updates available on a feature. */
+    public static enum Operation {
+        ENABLE,
+        DISABLE,
+        GRANT_ROLE,
+        REMOVE_ROLE,
+        SET_GROUP;
+    }
+
+    /** Update to apply. */
+    private final Operation operation;
+
+    /** Role or group name, if any. */
+    private final String value;
+
+    /**
+     * Update without value.
+     *
+     * @param operation
+     *      update to apply
+     */
+    public FeatureEntryProcessor(Operation operation) {
+        this(operation, null);
+    }
+
+    /**
+     * Update with a role or a group name.
+     *
+     * @param operation
+     *      update to apply
+     * @param value
+     *      role or group name (null to remove the group)
+     */
+    public FeatureEntryProcessor(Operation operation, String value) {
+        this.operation = operation;
+        this.value     = value;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String process(MutableEntry<String, Feature> entry, Object... arguments) {
+        if (!entry.exists()) {
+            return null;
+        }
+        Feature feature = entry.getValue();
+        String previousGroup = (feature.getGroup() == null) ? "" : feature.getGroup();
+        switch (operation) {
+            case ENABLE:
+                feature.enable();
+                break;
+            case DISABLE:
+                feature.disable();
+                break;
+            case GRANT_ROLE:
+                feature.getPermissions().add(value);
+                break;
+            case REMOVE_ROLE:
+                feature.getPermissions().remove(value);
+                break;
+            case SET_GROUP:
+                feature.setGroup(value);
+                break;
+        }
+        entry.setValue(feature);
+        return previousGroup;
+    }
+
+    /**
+     * Getter accessor for attribute 'operation'.
+     *
+     * @return
+     *       current value of 'operation'
+     */
+    public Operation getOperation() {
+        return operation;
+    }
+
+    /**
+     * Getter accessor for attribute 'value'.
+     *
+     * @return
+     *       current value of 'value'
+     */
+    public String getValue() {
+        return value;
+    }
+
+}
@@ -0,0 +1,80 @@
+package org.ff4j.cache;
+
+/*
+ * #%L
+ * ff4j-store-jcache
+ * %%
+ * Copyright (C) 2013 - 2015 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.cache.processor.EntryProcessor;
+import javax.cache.processor.MutableEntry;
+
+/**
+ * Add or remove a feature in the group index (group name to feature identifiers) where the
+ * index entry is stored, an empty group is removed from the index.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+@SuppressWarnings("rawtypes")
+public class FeatureGroupEntryProcessor implements EntryProcessor<String, Set, Boolean>, Serializable {
+
+    /** serial. */
+    private static final long serialVersionUID = -2931646437710368125L;
+
+    /** Feature identifier. */
+    private final String featureId;
+
+    /** Add or remove the feature. */
+    private final boolean add;
+
+    /**
+     * Constructor with parameters.
+     *
+     * @param featureId
+     *      feature identifier
+     * @param add
+     *      true to add the feature into the group, false to remove it
+     */
+    public FeatureGroupEntryProcessor(String featureId, boolean add) {
+        this.featureId = featureId;
+        this.add       = add;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Boolean process(MutableEntry<String, Set> entry, Object... arguments) {
+        Set < String > members = new HashSet<String>();
+        if (entry.exists()) {
+            members.addAll(entry.getValue());
+        }
+        boolean changed = add ? members.add(featureId) : members.remove(featureId);
+        if (members.isEmpty()) {
+            if (entry.exists()) {
+                entry.remove();
+            }
+        } else if (changed) {
+            entry.setValue(members);
+        }
+        return changed;
+    }
+
+}
@@ -0,0 +1,228 @@
+package org.ff4j.cache;
+
+/*
+ * #%L
+ * ff4j-store-jcache
+ * %%
+ * Copyright (C) 2013 - 2015 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.cache.Cache;
+import javax.cache.configuration.FactoryBuilder;
+import javax.cache.configuration.MutableCacheEntryListenerConfiguration;
+import javax.cache.event.CacheEntryCreatedListener;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryExpiredListener;
+import javax.cache.event.CacheEntryListener;
+import javax.cache.event.CacheEntryRemovedListener;
+import javax.cache.event.CacheEntryUpdatedListener;
+
+import org.ff4j.core.Feature;
+
+/**
+ * Local copy of the features cache, kept coherent by a synchronous entry listener : when a write
+ * returns, every registered near cache holds the new value and flags are read from local memory.
+ * 
+ * <p>The whole cache is loaded on first read. Only the registering instance holds data, copies
+ * created when a grid serializes the listener configuration ignore events.</p>
+ *
+ * <p>Reads return the local instances, shared by all readers and replaced on each event : they are
+ * read-only, a change applied to them would not reach the distributed cache. They are not copied,
+ * reading flags from local memory is the purpose of this cache and some strategies cannot be
+ * instantiated again.</p>
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class FeatureNearCache implements CacheEntryCreatedListener<String, Feature>, CacheEntryUpdatedListener<String, Feature>,
+        CacheEntryRemovedListener<String, Feature>, CacheEntryExpiredListener<String, Feature>, Serializable {
+
+    /** serial. */
+    private static final long serialVersionUID = 8213477935616471428L;
+
+    /** Local features. */
+    private transient ConcurrentMap < String, Feature > features;
+
+    /** Held while applying events. */
+    private transient Object eventLock;
+
+    /** Held while loading the cache. */
+    private transient Object loadLock;
+
+    /** Features changed by events during the load, null if no load in progress. */
+    private transient Set < String > changedWhileLoading;
+
+    /** All features have been loaded. */
+    private transient volatile boolean loaded;
+
+    /**
+     * Default constructor.
+     */
+    public FeatureNearCache() {
+        this.features = new ConcurrentHashMap<String, Feature>();
+        this.eventLock = new Object();
+        this.loadLock = new Object();
+    }
+
+    /**
+     * Listen to the distributed cache.
+     *
+     * @param cache
+     *      features cache
+     * @return
+     *      false if the cache does not support entry listeners
+     */
+    public boolean register(Cache<String, Feature> cache) {
+        try {
+            cache.registerCacheEntryListener(new MutableCacheEntryListenerConfiguration<String, Feature>(
+                    new FactoryBuilder.SingletonFactory<CacheEntryListener<? super String, ? super Feature>>(this), 
+                    null, false, true));
+            return true;
+        } catch (RuntimeException re) {
+            // UnsupportedOperationException, CacheException : features are then read from the cache
+            return false;
+        }
+    }
+
+    /**
+     * Read a feature.
+     *
+     * @param cache
+     *      features cache, loaded on first read
+     * @param uid
+     *      feature identifier
+     * @return
+     *      shared instance (read-only) or null if not found
+     */
+    public Feature get(Cache<String, Feature> cache, String uid) {
+        load(cache);
+        return features.get(uid);
+    }
+
+    /**
+     * Read all features.
+     *
+     * @param cache
+     *      features cache, loaded on first read
+     * @return
+     *      copy of the map, holding the shared instances (read-only)
+     */
+    public Map < String, Feature > getAll(Cache<String, Feature> cache) {
+        load(cache);
+        return new HashMap<String, Feature>(features);
+    }
+
+    /**
+     * Copy the distributed cache, events received meanwhile win over the values read.
+     *
+     * @param cache
+     *      features cache
+     */
+    private void load(Cache<String, Feature> cache) {
+        if (loaded) {
+            return;
+        }
+        synchronized (loadLock) {
+            if (loaded) {
+                return;
+            }
+            synchronized (eventLock) {
+                changedWhileLoading = new HashSet<String>();
+            }
+            for (Cache.Entry<String, Feature> entry : cache) {
+                synchronized (eventLock) {
+                    if (!changedWhileLoading.contains(entry.getKey())) {
+                        features.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            synchronized (eventLock) {
+                changedWhileLoading = null;
+                loaded = true;
+            }
+        }
+    }
+
+    /**
+     * Remove local features, not the distributed ones.
+     */
+    public void clear() {
+        synchronized (eventLock) {
+            features.clear();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onCreated(Iterable<CacheEntryEvent<? extends String, ? extends Feature>> events) {
+        apply(events, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onUpdated(Iterable<CacheEntryEvent<? extends String, ? extends Feature>> events) {
+        apply(events, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onRemoved(Iterable<CacheEntryEvent<? extends String, ? extends Feature>> events) {
+        apply(events, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onExpired(Iterable<CacheEntryEvent<? extends String, ? extends Feature>> events) {
+        apply(events, true);
+    }
+
+    private void apply(Iterable<CacheEntryEvent<? extends String, ? extends Feature>> events, boolean removed) {
+        if (features == null) {
+            // Deserialized copy, not the registered instance
+            return;
+        }
+        synchronized (eventLock) {
+            for (CacheEntryEvent<? extends String, ? extends Feature> event : events) {
+                if (removed) {
+                    features.remove(event.getKey());
+                } else {
+                    features.put(event.getKey(), event.getValue());
+                }
+                if (changedWhileLoading != null) {
+                    changedWhileLoading.add(event.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Getter accessor for attribute 'loaded'.
+     *
+     * @return
+     *       current value of 'loaded'
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+}
@@ -25,7 +25,14 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import javax.cache.Cache;
+import javax.cache.processor.EntryProcessorResult;
+
 import org.ff4j.cache.FF4jJCacheManager;
+import org.ff4j.cache.FeatureEntryProcessor;
+import org.ff4j.cache.FeatureEntryProcessor.Operation;
+import org.ff4j.cache.FeatureGroupEntryProcessor;
+import org.ff4j.cache.FeatureNearCache;
 import org.ff4j.core.Feature;
 import org.ff4j.core.FeatureStore;
 import org.ff4j.exception.FeatureAlreadyExistException;
@@ -35,6 +42,13 @@ import org.ff4j.utils.Util;
 
 /**
  * Generic {@link FeatureStore} to persist properties in a JCache (JSR107) compliant storage.
+ * 
+ * <p>Updates are {@link FeatureEntryProcessor}s executed where the feature is stored, reads are served
+ * by a {@link FeatureNearCache} and members of each group are indexed in cache
+ * {@link FF4jJCacheManager#CACHENAME_FEATURE_GROUPS}.</p>
+ *
+ * <p>With the near cache, reads return the local instances shared by all callers : they must be
+ * handled as read-only, changes go through {@link #update(Feature)} or {@link #enable(String)}.</p>
  *
  * @author <a href="mailto:cedrick.lunven@gmail.com">Cedrick LUNVEN</a>
  */
@@ -43,6 +57,18 @@ public class FeatureStoreJCache extends AbstractFeatureStore {
     /** Cache Manager. */ 
     private FF4jJCacheManager cacheManager;
     
+    /** Serve reads from local memory. */
+    private volatile boolean nearCacheEnabled = true;
+    
+    /** Local copy of features, null if disabled or not supported. */
+    private volatile FeatureNearCache nearCache;
+    
+    /** Near cache registration has been attempted, written after 'nearCache'. */
+    private volatile boolean nearCacheInitialized = false;
+    
+    /** Group index has been checked. */
+    private boolean groupIndexInitialized = false;
+    
     /**
      * Initialization with cache manager.
      *
@@ -63,50 +89,80 @@ public class FeatureStoreJCache extends AbstractFeatureStore {
     @Override
     public boolean exist(String uid) {
         Util.assertParamHasLength(uid, "Feature identifier");
-        return getCacheManager().getFeature(uid) != null;
+        return readFeature(uid) != null;
     }
     
     /** {@inheritDoc} */
     @Override
     public Feature read(String uid) {
-        if (!exist(uid)) {
+        Util.assertParamHasLength(uid, "Feature identifier");
+        Feature feature = readFeature(uid);
+        if (feature == null) {
             throw new FeatureNotFoundException(uid);
         }
+        return feature;
+    }
+    
+    /**
+     * Read a feature from the near cache if enabled.
+     *
+     * @param uid
+     *      feature identifier
+     * @return
+     *      feature or null if not found
+     */
+    private Feature readFeature(String uid) {
+        FeatureNearCache localCache = getNearCache();
+        if (localCache != null) {
+            return localCache.get(getFeaturesCache(), uid);
+        }
         return getCacheManager().getFeature(uid);
     }
     
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Feature> readFeatures(Set<String> featureIds) {
+        Map<String, Feature> features = new HashMap<>();
+        if (featureIds == null || featureIds.isEmpty()) {
+            return features;
+        }
+        FeatureNearCache localCache = getNearCache();
+        if (localCache == null) {
+            return getFeaturesCache().getAll(featureIds);
+        }
+        for (String uid : featureIds) {
+            Feature feature = localCache.get(getFeaturesCache(), uid);
+            if (feature != null) {
+                features.put(uid, feature);
+            }
+        }
+        return features;
+    }
+    
     /** {@inheritDoc} */
     @Override
     public void update(Feature fp) {
         if (fp == null) {
             throw new IllegalArgumentException("Feature cannot be null");
         }
-        if (!exist(fp.getUid())) {
+        Util.assertParamHasLength(fp.getUid(), "Feature identifier");
+        Feature previous = getFeaturesCache().getAndReplace(fp.getUid(), fp);
+        if (previous == null) {
             throw new FeatureNotFoundException(fp.getUid());
         }
-        getCacheManager().putFeature(fp); 
+        updateGroupIndex(fp.getUid(), previous.getGroup(), fp.getGroup());
     }
     
     /** {@inheritDoc} */
     @Override
     public void enable(String uid) {
-        // Read from redis, feature not found if no present
-        Feature f = read(uid);
-        // Update within Object
-        f.enable();
-        // Serialization and update key, update TTL
-        update(f);
+        invoke(uid, new FeatureEntryProcessor(Operation.ENABLE));
     }
 
     /** {@inheritDoc} */
     @Override
     public void disable(String uid) {
-        // Read from redis, feature not found if no present
-        Feature f = read(uid);
-        // Update within Object
-        f.disable();
-        // Serialization and update key, update TTL
-        update(f);
+        invoke(uid, new FeatureEntryProcessor(Operation.DISABLE));
     }
 
     /** {@inheritDoc} */
@@ -115,63 +171,55 @@ public class FeatureStoreJCache extends AbstractFeatureStore {
         if (fp == null) {
             throw new IllegalArgumentException("Feature cannot be null nor empty");
         }
-        if (exist(fp.getUid())) {
+        Util.assertParamHasLength(fp.getUid(), "Feature identifier");
+        if (!getFeaturesCache().putIfAbsent(fp.getUid(), fp)) {
             throw new FeatureAlreadyExistException(fp.getUid());
         }
-        getCacheManager().putFeature(fp); 
+        updateGroupIndex(fp.getUid(), null, fp.getGroup());
     }
 
     /** {@inheritDoc} */
     @Override
     public Map<String, Feature> readAll() {
+        FeatureNearCache localCache = getNearCache();
+        if (localCache != null) {
+            return localCache.getAll(getFeaturesCache());
+        }
         Map<String, Feature> myMap = new HashMap<>();
-        getCacheManager().getFeaturesCache().forEach(e->myMap.put(e.getKey(), e.getValue()));
+        getFeaturesCache().forEach(e->myMap.put(e.getKey(), e.getValue()));
         return myMap;
     }
 
     /** {@inheritDoc} */
     @Override
     public void delete(String fpId) {
-        if (!exist(fpId)) {
+        Util.assertParamHasLength(fpId, "Feature identifier");
+        Feature previous = getFeaturesCache().getAndRemove(fpId);
+        if (previous == null) {
             throw new FeatureNotFoundException(fpId);
         }
-        getCacheManager().evictFeature(fpId);
+        updateGroupIndex(fpId, previous.getGroup(), null);
     }    
 
     /** {@inheritDoc} */
     @Override
     public void grantRoleOnFeature(String flipId, String roleName) {
         Util.assertParamHasLength(roleName, "roleName (#2)");
-        // retrieve
-        Feature f = read(flipId);
-        // modify
-        f.getPermissions().add(roleName);
-        // persist modification
-        update(f);
+        invoke(flipId, new FeatureEntryProcessor(Operation.GRANT_ROLE, roleName));
     }
 
     /** {@inheritDoc} */
     @Override
     public void removeRoleFromFeature(String flipId, String roleName) {
         Util.assertParamHasLength(roleName, "roleName (#2)");
-        // retrieve
-        Feature f = read(flipId);
-        f.getPermissions().remove(roleName);
-        // persist modification
-        update(f);
+        invoke(flipId, new FeatureEntryProcessor(Operation.REMOVE_ROLE, roleName));
     }
     
     /** {@inheritDoc} */
     @Override
     public Map<String, Feature> readGroup(String groupName) {
         Util.assertParamHasLength(groupName, "groupName");
-        Map < String, Feature > features = readAll();
-        Map < String, Feature > group = new HashMap<>();
-        for (Map.Entry<String,Feature> uid : features.entrySet()) {
-            if (groupName.equals(uid.getValue().getGroup())) {
-                group.put(uid.getKey(), uid.getValue());
-            }
-        }
+        Map < String, Feature > group = readGroupMembers(groupName);
         if (group.isEmpty()) {
             throw new GroupNotFoundException(groupName);
         }
@@ -182,45 +230,49 @@ public class FeatureStoreJCache extends AbstractFeatureStore {
     @Override
     public boolean existGroup(String groupName) {
         Util.assertParamHasLength(groupName, "groupName");
-        Map < String, Feature > features = readAll();
+        return !readGroupMembers(groupName).isEmpty();
+    }
+    
+    /**
+     * Features listed in the group index which are still in the group.
+     *
+     * @param groupName
+     *      target group
+     * @return
+     *      features of the group, empty if not found
+     */
+    @SuppressWarnings("unchecked")
+    private Map < String, Feature > readGroupMembers(String groupName) {
         Map < String, Feature > group = new HashMap<>();
-        for (Map.Entry<String,Feature> uid : features.entrySet()) {
-            if (groupName.equals(uid.getValue().getGroup())) {
-                group.put(uid.getKey(), uid.getValue());
+        Set < String > members = getGroupIndex().get(groupName);
+        if (members != null) {
+            for (Feature feature : readFeatures(members).values()) {
+                if (groupName.equals(feature.getGroup())) {
+                    group.put(feature.getUid(), feature);
+                }
             }
         }
-        return !group.isEmpty();
+        return group;
     }
 
     /** {@inheritDoc} */
     @Override
     public void enableGroup(String groupName) {
-        Map < String, Feature > features = readGroup(groupName);
-        for (Map.Entry<String,Feature> uid : features.entrySet()) {
-            uid.getValue().enable();
-            update(uid.getValue());
-        }
+        invokeAll(readGroup(groupName).keySet(), new FeatureEntryProcessor(Operation.ENABLE));
     }
 
     /** {@inheritDoc} */
     @Override
     public void disableGroup(String groupName) {
-        Map < String, Feature > features = readGroup(groupName);
-        for (Map.Entry<String,Feature> uid : features.entrySet()) {
-            uid.getValue().disable();
-            update(uid.getValue());
-        }
+        invokeAll(readGroup(groupName).keySet(), new FeatureEntryProcessor(Operation.DISABLE));
     }
 
     /** {@inheritDoc} */
     @Override
     public void addToGroup(String featureId, String groupName) {
         Util.assertParamHasLength(groupName, "groupName (#2)");
-        // retrieve
-        Feature f = read(featureId);
-        f.setGroup(groupName);
-        // persist modification
-        update(f);
+        String previousGroup = invoke(featureId, new FeatureEntryProcessor(Operation.SET_GROUP, groupName));
+        updateGroupIndex(featureId, previousGroup, groupName);
     }
 
     /** {@inheritDoc} */
@@ -230,29 +282,145 @@ public class FeatureStoreJCache extends AbstractFeatureStore {
         if (!existGroup(groupName)) {
             throw new GroupNotFoundException(groupName);
         }
-        // retrieve
-        Feature f = read(featureId);
-        f.setGroup(null);
-        // persist modification
-        update(f);
+        String previousGroup = invoke(featureId, new FeatureEntryProcessor(Operation.SET_GROUP, null));
+        updateGroupIndex(featureId, previousGroup, null);
     }
 
     /** {@inheritDoc} */
     @Override
+    @SuppressWarnings("rawtypes")
     public Set<String> readAllGroups() {
-        Map < String, Feature > features = readAll();
         Set < String > groups = new HashSet<>();
-        for (Map.Entry<String,Feature> uid : features.entrySet()) {
-            groups.add(uid.getValue().getGroup());
+        for (Cache.Entry<String, Set> group : getGroupIndex()) {
+            if (!group.getValue().isEmpty()) {
+                groups.add(group.getKey());
+            }
         }
-        groups.remove(null);
+        groups.remove("");
         return groups;
     }
     
     /** {@inheritDoc} */
     @Override
     public void clear() {
-        getCacheManager().getFeaturesCache().removeAll();
+        getFeaturesCache().removeAll();
+        getCacheManager().getFeatureGroupsCache().removeAll();
+        if (getNearCache() != null) {
+            getNearCache().clear();
+        }
+    }
+    
+    /**
+     * Update a feature where it is stored.
+     *
+     * @param uid
+     *      feature identifier
+     * @param processor
+     *      update to apply
+     * @return
+     *      group of the feature before the update
+     */
+    private String invoke(String uid, FeatureEntryProcessor processor) {
+        Util.assertParamHasLength(uid, "Feature identifier");
+        String previousGroup = getFeaturesCache().invoke(uid, processor);
+        if (previousGroup == null) {
+            throw new FeatureNotFoundException(uid);
+        }
+        return previousGroup;
+    }
+    
+    /**
+     * Update features where they are stored, in a single call.
+     *
+     * @param uids
+     *      features identifiers
+     * @param processor
+     *      update to apply
+     */
+    private void invokeAll(Set<String> uids, FeatureEntryProcessor processor) {
+        Map<String, EntryProcessorResult<String>> results = getFeaturesCache().invokeAll(uids, processor);
+        for (Map.Entry<String, EntryProcessorResult<String>> result : results.entrySet()) {
+            if (result.getValue().get() == null) {
+                throw new FeatureNotFoundException(result.getKey());
+            }
+        }
+    }
+    
+    /**
+     * Move a feature in the group index.
+     *
+     * @param uid
+     *      feature identifier
+     * @param previousGroup
+     *      former group, null or empty if none
+     * @param newGroup
+     *      new group, null or empty if none
+     */
+    private void updateGroupIndex(String uid, String previousGroup, String newGroup) {
+        if (Util.hasLength(previousGroup) && !previousGroup.equals(newGroup)) {
+            getGroupIndex().invoke(previousGroup, new FeatureGroupEntryProcessor(uid, false));
+        }
+        if (Util.hasLength(newGroup) && !newGroup.equals(previousGroup)) {
+            getGroupIndex().invoke(newGroup, new FeatureGroupEntryProcessor(uid, true));
+        }
+    }
+    
+    /**
+     * Group index, rebuilt from features if empty (features created before the index existed).
+     *
+     * @return
+     *      group index
+     */
+    @SuppressWarnings("rawtypes")
+    private Cache<String, Set> getGroupIndex() {
+        Cache<String, Set> groupIndex = getCacheManager().getFeatureGroupsCache();
+        if (!groupIndexInitialized) {
+            groupIndexInitialized = true;
+            if (!groupIndex.iterator().hasNext()) {
+                rebuildGroupIndex();
+            }
+        }
+        return groupIndex;
+    }
+    
+    /**
+     * Index all features of the cache in their group.
+     */
+    public void rebuildGroupIndex() {
+        for (Feature feature : readAll().values()) {
+            if (Util.hasLength(feature.getGroup())) {
+                getCacheManager().getFeatureGroupsCache().invoke(feature.getGroup(), 
+                        new FeatureGroupEntryProcessor(feature.getUid(), true));
+            }
+        }
+    }
+    
+    /**
+     * Near cache, registered on first call : reads only check volatile fields afterwards.
+     *
+     * @return
+     *      near cache or null if disabled or not supported by the cache implementation
+     */
+    private FeatureNearCache getNearCache() {
+        if (!nearCacheEnabled) {
+            return null;
+        }
+        if (!nearCacheInitialized) {
+            synchronized (this) {
+                if (!nearCacheInitialized) {
+                    FeatureNearCache localCache = new FeatureNearCache();
+                    if (localCache.register(getFeaturesCache())) {
+                        nearCache = localCache;
+                    }
+                    nearCacheInitialized = true;
+                }
+            }
+        }
+        return nearCache;
+    }
+    
+    private Cache<String, Feature> getFeaturesCache() {
+        return getCacheManager().getFeaturesCache();
     }
     
     /**
@@ -273,4 +441,23 @@ public class FeatureStoreJCache extends AbstractFeatureStore {
     public void setCacheManager(FF4jJCacheManager cacheManager) {
         this.cacheManager = cacheManager;
     }   
+
+    /**
+     * Getter accessor for attribute 'nearCacheEnabled'.
+     *
+     * @return
+     *       current value of 'nearCacheEnabled'
+     */
+    public boolean isNearCacheEnabled() {
+        return nearCacheEnabled;
+    }
+
+    /**
+     * Setter accessor for attribute 'nearCacheEnabled', set it before first read.
+     * @param nearCacheEnabled
+     * 		new value for 'nearCacheEnabled '
+     */
+    public void setNearCacheEnabled(boolean nearCacheEnabled) {
+        this.nearCacheEnabled = nearCacheEnabled;
+    }
 }
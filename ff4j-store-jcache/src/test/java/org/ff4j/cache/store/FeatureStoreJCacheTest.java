@@ -1237,6 +1237,29 @@ public class FeatureStoreJCacheTest {
                 .getFixedValues();
         Assert.assertEquals(2, fixValues2.size());
     }
-
+    
+    /**
+     * TDD.
+     */
+    @Test
+    public void testNearCacheAndGroupIndexCoherence() {
+        // Given
+        FeatureStoreJCache otherStore = new FeatureStoreJCache(EhcacheCachingProvider.class.getName());
+        Assert.assertTrue(otherStore.isNearCacheEnabled());
+        testedStore.create(new Feature("coherence", false, "description", "groupA"));
+        Assert.assertFalse(otherStore.read("coherence").isEnable());
+        // When
+        testedStore.enable("coherence");
+        testedStore.addToGroup("coherence", "groupB");
+        // Then
+        Assert.assertTrue(otherStore.read("coherence").isEnable());
+        Assert.assertFalse(otherStore.existGroup("groupA"));
+        Assert.assertTrue(otherStore.readGroup("groupB").containsKey("coherence"));
+        // When
+        testedStore.delete("coherence");
+        // Then
+        Assert.assertFalse(otherStore.exist("coherence"));
+        Assert.assertFalse(otherStore.existGroup("groupB"));
+    }
 
 }
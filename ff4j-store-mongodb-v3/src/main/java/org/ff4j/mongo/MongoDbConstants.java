@@ -75,6 +75,27 @@ public class MongoDbConstants {
     
     /** Custom Properties. */
     public static final String MONGO_SET = "$set";
+    
+    /** Server side date update. */
+    public static final String MONGO_CURRENTDATE = "$currentDate";
+    
+    /** Last modification date of features and properties (change-feed). */
+    public static final String LAST_MODIFIED = "lastModified";
+
+    /** Value of the event (audit trail). */
+    public static final String EVENT_VALUE = "value";
+    
+    /** Date of the event (BSON date), used by the TTL index. */
+    public static final String EVENT_DATE = "date";
+    
+    /** Start of the minute of the event (local time), used to group events. */
+    public static final String EVENT_MINUTE = "minute";
+    
+    /** Start of the hour of the event (local time), used to group events. */
+    public static final String EVENT_HOUR = "hour";
+    
+    /** Number of events written in a single bulk or read in a single batch. */
+    public static final int EVENT_BATCH_SIZE = 1000;
 
     
     /** Constructor. */
@@ -30,7 +30,10 @@ import static org.ff4j.audit.EventConstants.ATTRIBUTE_SOURCE;
 import static org.ff4j.audit.EventConstants.ATTRIBUTE_TIME;
 import static org.ff4j.audit.EventConstants.ATTRIBUTE_TYPE;
 import static org.ff4j.audit.EventConstants.ATTRIBUTE_USER;
+import static org.ff4j.mongo.MongoDbConstants.EVENT_DATE;
+import static org.ff4j.mongo.MongoDbConstants.EVENT_VALUE;
 
+import java.util.Date;
 import java.util.Map;
 
 import org.bson.Document;
@@ -49,7 +52,7 @@ public class MongoEventMapper implements EventMapper< Document > {
     /** {@inheritDoc} */
     @Override
     public Document toStore(Event bean) {
-        return Document.parse(bean.toJson());
+        return Document.parse(bean.toJson()).append(EVENT_DATE, new Date(bean.getTimestamp()));
     }
 
     /** {@inheritDoc} */
@@ -66,6 +69,7 @@ public class MongoEventMapper implements EventMapper< Document > {
         evt.setType(bean.getString(ATTRIBUTE_TYPE));
         evt.setUuid(bean.getString(ATTRIBUTE_ID));
         evt.setUser(bean.getString(ATTRIBUTE_USER));
+        evt.setValue(bean.getString(EVENT_VALUE));
         if (bean.containsKey(ATTRIBUTE_KEYS)) {
             evt.setCustomKeys((Map<String, String>) 
                     JSON.parse(bean.getString(ATTRIBUTE_KEYS)));
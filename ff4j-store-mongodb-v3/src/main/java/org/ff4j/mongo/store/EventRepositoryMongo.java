@@ -1,8 +1,5 @@
 package org.ff4j.mongo.store;
 
-import java.util.HashMap;
-import java.util.HashSet;
-
 /*
  * #%L
  * ff4j-store-mongodb-v3
@@ -23,25 +20,66 @@ import java.util.HashSet;
  * #L%
  */
 
+import static org.ff4j.audit.EventConstants.ACTION_CHECK_OFF;
+import static org.ff4j.audit.EventConstants.ACTION_CHECK_OK;
+import static org.ff4j.audit.EventConstants.ATTRIBUTE_ACTION;
+import static org.ff4j.audit.EventConstants.ATTRIBUTE_HOST;
+import static org.ff4j.audit.EventConstants.ATTRIBUTE_ID;
+import static org.ff4j.audit.EventConstants.ATTRIBUTE_NAME;
+import static org.ff4j.audit.EventConstants.ATTRIBUTE_SOURCE;
+import static org.ff4j.audit.EventConstants.ATTRIBUTE_TIME;
+import static org.ff4j.audit.EventConstants.ATTRIBUTE_USER;
+import static org.ff4j.mongo.MongoDbConstants.EVENT_BATCH_SIZE;
+import static org.ff4j.mongo.MongoDbConstants.EVENT_DATE;
+import static org.ff4j.mongo.MongoDbConstants.EVENT_HOUR;
+import static org.ff4j.mongo.MongoDbConstants.EVENT_MINUTE;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.ff4j.audit.Event;
 import org.ff4j.audit.EventQueryDefinition;
 import org.ff4j.audit.EventSeries;
 import org.ff4j.audit.MutableHitCount;
+import org.ff4j.audit.chart.Serie;
 import org.ff4j.audit.chart.TimeSeriesChart;
 import org.ff4j.audit.repository.AbstractEventRepository;
 import org.ff4j.mongo.MongoDbConstants;
 import org.ff4j.mongo.mapper.MongoEventMapper;
+import org.ff4j.utils.Util;
 
 import com.mongodb.MongoClient;
+import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.WriteModel;
 
 /**
  * Implementation of EventRepository for Mongo.
+ * 
+ * <p>Hit counts and usage history are computed by the database with aggregations ($match on
+ * action and time, $group on the counted attribute or on the start of the minute or hour stored
+ * with each event). Events are written with unordered bulks and read with cursors. Retention
+ * relies on a TTL index on the event date.</p>
  *
  * @author Cedrick LUNVEN (@clunven)
  */
@@ -50,6 +88,18 @@ public class EventRepositoryMongo extends AbstractEventRepository {
     /** Event Mapping. */
     private static final MongoEventMapper EMAPPER = new MongoEventMapper();
     
+    /** Value used for counters when the user is unknown. */
+    private static final String ANONYMOUS = "anonymous";
+    
+    /** Name of the count in aggregation results. */
+    private static final String COUNT = "count";
+    
+    /** One minute in milliseconds. */
+    private static final long MINUTE = 60 * 1000L;
+    
+    /** One hour in milliseconds. */
+    private static final long HOUR = 60 * MINUTE;
+    
     /** MongoDB collection. */
     private MongoCollection<Document> eventsCollection;
     
@@ -62,6 +112,9 @@ public class EventRepositoryMongo extends AbstractEventRepository {
     /** Current mongo client. */
     private MongoClient mongoClient;
     
+    /** Time to live of events in seconds (TTL index), 0 means no expiration. */
+    private long timeToLive = 0;
+    
     /**
      * Parameterized constructor with collection.
      * 
@@ -134,15 +187,33 @@ public class EventRepositoryMongo extends AbstractEventRepository {
     /** {@inheritDoc} */
     @Override
     public void createSchema() {
-        if (!mongoClient.getDatabase(dbName)
-                .listCollectionNames()
-                .into(new HashSet<String>())
-                .contains(collectionName)) {
-            mongoClient.getDatabase(dbName).createCollection(collectionName);
+        if (mongoClient != null) {
+            if (!mongoClient.getDatabase(dbName)
+                    .listCollectionNames()
+                    .into(new HashSet<String>())
+                    .contains(collectionName)) {
+                mongoClient.getDatabase(dbName).createCollection(collectionName);
+            }
+            eventsCollection = mongoClient.getDatabase(dbName).getCollection(collectionName);
         }
-        eventsCollection = mongoClient.getDatabase(dbName).getCollection(collectionName);
+        createIndexes();
     }
     
+    /**
+     * Indexes used by queries (action and time first, then the grouped attribute), by the
+     * search per identifier, by the paging of searches (order of events) and, if a time
+     * to live is defined, the TTL index on the date.
+     */
+    public void createIndexes() {
+        MongoCollection<Document> events = getEventCollection();
+        events.createIndex(Indexes.ascending(ATTRIBUTE_ACTION, ATTRIBUTE_TIME, ATTRIBUTE_NAME));
+        events.createIndex(Indexes.ascending(ATTRIBUTE_ID));
+        events.createIndex(Indexes.compoundIndex(Indexes.ascending(ATTRIBUTE_TIME), Indexes.descending(ATTRIBUTE_ID)));
+        if (timeToLive > 0) {
+            events.createIndex(Indexes.ascending(EVENT_DATE), 
+                    new IndexOptions().expireAfter(timeToLive, TimeUnit.SECONDS));
+        }
+    }
     
     /** {@inheritDoc} */
     @Override
@@ -150,66 +221,297 @@ public class EventRepositoryMongo extends AbstractEventRepository {
         if (e == null) {
             throw new IllegalArgumentException("Event cannot be null nor empty");
         }
-        eventsCollection.insertOne(EMAPPER.toStore(e));
+        getEventCollection().insertOne(toDocument(e));
+        return true;
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public boolean saveEvents(Collection < Event > events) {
+        if (events == null) {
+            throw new IllegalArgumentException("Events cannot be null");
+        }
+        List < WriteModel < Document > > bulk = new ArrayList<WriteModel<Document>>();
+        for (Event evt : events) {
+            if (evt == null) {
+                throw new IllegalArgumentException("Event cannot be null nor empty");
+            }
+            bulk.add(new InsertOneModel<Document>(toDocument(evt)));
+            if (bulk.size() == EVENT_BATCH_SIZE) {
+                getEventCollection().bulkWrite(bulk, new BulkWriteOptions().ordered(false));
+                bulk.clear();
+            }
+        }
+        if (!bulk.isEmpty()) {
+            getEventCollection().bulkWrite(bulk, new BulkWriteOptions().ordered(false));
+        }
         return true;
     }
 
     /** {@inheritDoc} */
     @Override
     public Map<String, MutableHitCount> getFeatureUsageHitCount(EventQueryDefinition query) {
-        return new HashMap<String, MutableHitCount>();
+        return getUsageCount(query, ATTRIBUTE_NAME);
     }
-
+    
     /** {@inheritDoc} */
     @Override
-    public TimeSeriesChart getFeatureUsageHistory(EventQueryDefinition query, TimeUnit tu) {
-        return new TimeSeriesChart();
+    public Map<String, MutableHitCount> getHostHitCount(EventQueryDefinition query) {
+        return getUsageCount(query, ATTRIBUTE_HOST);
     }
 
     /** {@inheritDoc} */
     @Override
-    public EventSeries searchFeatureUsageEvents(EventQueryDefinition query) {        
-        return new EventSeries();
+    public Map<String, MutableHitCount> getUserHitCount(EventQueryDefinition query) {
+        return getUsageCount(query, ATTRIBUTE_USER);
     }
 
     /** {@inheritDoc} */
     @Override
-    public void purgeFeatureUsage(EventQueryDefinition query) {
+    public Map<String, MutableHitCount> getSourceHitCount(EventQueryDefinition query) {
+        return getUsageCount(query, ATTRIBUTE_SOURCE);
+    }
+    
+    /**
+     * Count feature usage events for each value of an attribute, computed by the database.
+     *
+     * @param query
+     *      current query
+     * @param attribute
+     *      attribute to group on
+     * @return
+     *      hit count per value
+     */
+    private Map<String, MutableHitCount> getUsageCount(EventQueryDefinition query, String attribute) {
+        Map<String, MutableHitCount> hitCount = new HashMap<String, MutableHitCount>();
+        List < Bson > pipeline = Arrays.asList(
+                Aggregates.match(usageFilter(query)),
+                Aggregates.group("$" + attribute, Accumulators.sum(COUNT, 1)));
+        for (Document group : getEventCollection().aggregate(pipeline)) {
+            Object value = group.get("_id");
+            String key = (value != null) ? value.toString() : (ATTRIBUTE_USER.equals(attribute) ? ANONYMOUS : null);
+            if (key != null) {
+                hitCount.put(key, new MutableHitCount(((Number) group.get(COUNT)).intValue()));
+            }
+        }
+        return hitCount;
     }
 
     /** {@inheritDoc} */
     @Override
-    public Map<String, MutableHitCount> getHostHitCount(EventQueryDefinition query) {
-        return new HashMap<String, MutableHitCount>();
+    public TimeSeriesChart getFeatureUsageHistory(EventQueryDefinition query, TimeUnit tu) {
+        TimeSeriesChart tsc = new TimeSeriesChart(query.getFrom(), query.getTo(), tu);
+        String slotAttribute = getSlotAttribute(tu);
+        List < Bson > pipeline = Arrays.asList(
+                Aggregates.match(usageFilter(query)),
+                Aggregates.group(new Document(ATTRIBUTE_NAME, "$" + ATTRIBUTE_NAME).append(slotAttribute, "$" + slotAttribute), 
+                        Accumulators.sum(COUNT, 1)));
+        for (Document group : getEventCollection().aggregate(pipeline)) {
+            Document id = (Document) group.get("_id");
+            if (id.get(slotAttribute) == null) {
+                // Events stored without minute and hour
+                continue;
+            }
+            String featureName = id.getString(ATTRIBUTE_NAME);
+            String slotName    = tsc.getSdf().format(new Date(((Number) id.get(slotAttribute)).longValue()));
+            if (!tsc.getSeries().containsKey(featureName)) {
+                tsc.createNewSerie(featureName);
+            }
+            Serie < Map < String, MutableHitCount > > serie = tsc.getSeries().get(featureName);
+            if (serie.getValue().containsKey(slotName)) {
+                serie.getValue().get(slotName).incBy(((Number) group.get(COUNT)).intValue());
+            }
+        }
+        return tsc;
+    }
+    
+    /**
+     * Attribute to group on for a time slot, several groups can go in the same slot (days).
+     *
+     * @param tu
+     *      time unit of slots
+     * @return
+     *      attribute holding a time
+     */
+    private String getSlotAttribute(TimeUnit tu) {
+        switch (tu) {
+            case MINUTES:
+                return EVENT_MINUTE;
+            case HOURS:
+            case DAYS:
+                return EVENT_HOUR;
+            default:
+                return ATTRIBUTE_TIME;
+        }
+    }
+    
+    /**
+     * Document of an event with the start of its minute and hour (local time) to group on.
+     *
+     * @param evt
+     *      current event
+     * @return
+     *      document to store
+     */
+    private Document toDocument(Event evt) {
+        long time   = evt.getTimestamp();
+        long offset = TimeZone.getDefault().getOffset(time);
+        return EMAPPER.toStore(evt)
+                .append(EVENT_MINUTE, time - ((time + offset) % MINUTE))
+                .append(EVENT_HOUR,   time - ((time + offset) % HOUR));
     }
 
     /** {@inheritDoc} */
     @Override
-    public Map<String, MutableHitCount> getUserHitCount(EventQueryDefinition query) {
-        return new HashMap<String, MutableHitCount>();
+    public EventSeries searchFeatureUsageEvents(EventQueryDefinition query) {        
+        return searchEvents(usageFilter(query), query);
     }
 
     /** {@inheritDoc} */
     @Override
-    public Map<String, MutableHitCount> getSourceHitCount(EventQueryDefinition query) {
-        return new HashMap<String, MutableHitCount>();
+    public EventSeries getAuditTrail(EventQueryDefinition query) {
+        return searchEvents(auditFilter(query), query);
+    }
+    
+    /**
+     * Read events with a cursor (batches), only the expected page if the query is pageable.
+     *
+     * Events are ordered like {@link Event#compareTo(Event)} (time, then identifier descending).
+     * When the query holds the last event of the
+     * previous page, the page starts right after it using the index ; otherwise the previous
+     * pages are skipped, which reads them on the server.
+     *
+     * @param filter
+     *      events to read
+     * @param query
+     *      current query
+     * @return
+     *      events
+     */
+    private EventSeries searchEvents(Bson filter, EventQueryDefinition query) {
+        EventSeries eventSeries = new EventSeries();
+        if (query.isPageable() && query.hasLastEvent()) {
+            filter = Filters.and(filter, Filters.or(
+                    Filters.gt(ATTRIBUTE_TIME, query.getLastTimestamp()),
+                    Filters.and(Filters.eq(ATTRIBUTE_TIME, query.getLastTimestamp()), 
+                                Filters.lt(ATTRIBUTE_ID, query.getLastUuid()))));
+        }
+        FindIterable < Document > events = getEventCollection().find(filter)
+                .sort(Sorts.orderBy(Sorts.ascending(ATTRIBUTE_TIME), Sorts.descending(ATTRIBUTE_ID)))
+                .batchSize(EVENT_BATCH_SIZE);
+        if (query.isPageable()) {
+            if (!query.hasLastEvent()) {
+                events.skip(query.getPagenumber() * query.getPagesize());
+            }
+            events.limit(query.getPagesize());
+        }
+        MongoCursor < Document > cursor = events.iterator();
+        try {
+            while (cursor.hasNext() && eventSeries.add(EMAPPER.fromStore(cursor.next()))) {
+                // Add events until the end or until the capacity of the serie
+            }
+        } finally {
+            cursor.close();
+        }
+        return eventSeries;
     }
 
     /** {@inheritDoc} */
     @Override
-    public EventSeries getAuditTrail(EventQueryDefinition query) {
-        return new EventSeries();
+    public void purgeFeatureUsage(EventQueryDefinition query) {
+        getEventCollection().deleteMany(usageFilter(query));
     }
 
     /** {@inheritDoc} */
     @Override
     public void purgeAuditTrail(EventQueryDefinition query) {
+        getEventCollection().deleteMany(auditFilter(query));
     }
 
     /** {@inheritDoc} */
     @Override
     public Event getEventByUUID(String uuid, Long timestamp) {
-        return null;
+        Util.assertHasLength(uuid);
+        Document event = getEventCollection().find(Filters.eq(ATTRIBUTE_ID, uuid)).first();
+        return (event == null) ? null : EMAPPER.fromStore(event);
+    }
+    
+    /**
+     * Filter feature usage events of the query.
+     *
+     * @param query
+     *      current query
+     * @return
+     *      filter
+     */
+    private Bson usageFilter(EventQueryDefinition query) {
+        List < Bson > filters = queryFilters(query);
+        filters.add(0, Filters.eq(ATTRIBUTE_ACTION, ACTION_CHECK_OK));
+        return Filters.and(filters);
+    }
+    
+    /**
+     * Filter audit trail events of the query (any action but checks).
+     *
+     * @param query
+     *      current query
+     * @return
+     *      filter
+     */
+    private Bson auditFilter(EventQueryDefinition query) {
+        List < Bson > filters = queryFilters(query);
+        filters.add(0, Filters.nin(ATTRIBUTE_ACTION, ACTION_CHECK_OK, ACTION_CHECK_OFF));
+        return Filters.and(filters);
+    }
+    
+    /**
+     * Time range and filters of the query (actions, names, sources, hosts).
+     *
+     * @param query
+     *      current query
+     * @return
+     *      list of filters
+     */
+    private List < Bson > queryFilters(EventQueryDefinition query) {
+        List < Bson > filters = new ArrayList<Bson>();
+        filters.add(Filters.gte(ATTRIBUTE_TIME, query.getFrom()));
+        filters.add(Filters.lte(ATTRIBUTE_TIME, query.getTo()));
+        if (!query.getActionFilters().isEmpty()) {
+            filters.add(Filters.in(ATTRIBUTE_ACTION, query.getActionFilters()));
+        }
+        if (!query.getNamesFilter().isEmpty()) {
+            filters.add(Filters.in(ATTRIBUTE_NAME, query.getNamesFilter()));
+        }
+        if (!query.getSourceFilters().isEmpty()) {
+            filters.add(Filters.in(ATTRIBUTE_SOURCE, query.getSourceFilters()));
+        }
+        if (!query.getHostFilters().isEmpty()) {
+            filters.add(Filters.in(ATTRIBUTE_HOST, query.getHostFilters()));
+        }
+        return filters;
+    }
+
+    /**
+     * Getter accessor for attribute 'timeToLive'.
+     *
+     * @return
+     *       current value of 'timeToLive'
+     */
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Retention of events in seconds, enforced by a TTL index created with {@link #createSchema()}.
+     *
+     * @param timeToLive
+     *       new value for 'timeToLive'
+     */
+    public void setTimeToLive(long timeToLive) {
+        if (timeToLive < 0) {
+            throw new IllegalArgumentException("Time to live cannot be negative");
+        }
+        this.timeToLive = timeToLive;
     }
     
 }
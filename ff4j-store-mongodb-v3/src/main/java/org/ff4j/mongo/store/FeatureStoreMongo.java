@@ -1,9 +1,15 @@
 package org.ff4j.mongo.store;
 
+import static org.ff4j.mongo.MongoDbConstants.LAST_MODIFIED;
+import static org.ff4j.mongo.MongoDbConstants.MONGO_CURRENTDATE;
 import static org.ff4j.mongo.MongoDbConstants.MONGO_SET;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -17,8 +23,11 @@ import org.ff4j.mongo.MongoDbConstants;
 import org.ff4j.mongo.mapper.FeatureDocumentBuilder;
 import org.ff4j.mongo.mapper.MongoFeatureMapper;
 import org.ff4j.store.AbstractFeatureStore;
+import org.ff4j.store.ChangeSet;
+import org.ff4j.store.ImportReport;
 import org.ff4j.utils.Util;
 
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.MongoClient;
 
 /*
@@ -34,6 +43,10 @@ import com.mongodb.MongoClient;
 
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
 
 /**
  * Implementation of {@link FeatureStore} to work with MongoDB.
@@ -183,7 +196,7 @@ public class FeatureStoreMongo extends AbstractFeatureStore {
         }
         Document target = BUILDER.getFeatUid(uid);
         Object enabledd = BUILDER.getEnable(enable);
-        getFeaturesCollection().updateOne(target, new Document(MONGO_SET, enabledd));
+        getFeaturesCollection().updateOne(target, withLastModified(new Document(MONGO_SET, enabledd)));
     }
 
     /** {@inheritDoc} */
@@ -216,6 +229,8 @@ public class FeatureStoreMongo extends AbstractFeatureStore {
             throw new FeatureAlreadyExistException(fp.getUid());
         }
         getFeaturesCollection().insertOne(FMAPPER.toStore(fp));
+        // Server side date, clients clocks are not involved
+        getFeaturesCollection().updateOne(BUILDER.getFeatUid(fp.getUid()), withLastModified(new Document()));
     }
 
     /** {@inheritDoc} */
@@ -242,7 +257,7 @@ public class FeatureStoreMongo extends AbstractFeatureStore {
         if (!exist(uid)) {
             throw new FeatureNotFoundException(uid);
         }
-        getFeaturesCollection().updateOne(BUILDER.getFeatUid(uid), new Document("$addToSet", BUILDER.getRoles(roleName)));
+        getFeaturesCollection().updateOne(BUILDER.getFeatUid(uid), withLastModified(new Document("$addToSet", BUILDER.getRoles(roleName))));
     }
 
     /** {@inheritDoc} */
@@ -257,7 +272,7 @@ public class FeatureStoreMongo extends AbstractFeatureStore {
         if (!exist(uid)) {
             throw new FeatureNotFoundException(uid);
         }
-        getFeaturesCollection().updateOne(BUILDER.getFeatUid(uid), new Document("$pull", BUILDER.getRoles(roleName)));
+        getFeaturesCollection().updateOne(BUILDER.getFeatUid(uid), withLastModified(new Document("$pull", BUILDER.getRoles(roleName))));
     }
 
     /** {@inheritDoc} */
@@ -271,6 +286,52 @@ public class FeatureStoreMongo extends AbstractFeatureStore {
         return mapFP;
     }
 
+    /**
+     * Writes set the 'lastModified' attribute with server date ($currentDate). Identifiers and
+     * dates are read first, then only documents modified since the version are fetched.
+     * 
+     * {@inheritDoc}
+     */
+    @Override
+    public ChangeSet<Feature> featureChangesSince(long version) {
+        Set<String> retained = new HashSet<String>();
+        List<String> modified = new ArrayList<String>();
+        long lastModified = version;
+        for (Document document : getFeaturesCollection().find().projection(new Document(LAST_MODIFIED, 1))) {
+            String uid = document.getString(MongoDbConstants.FEATURE_UUID);
+            Date date  = document.getDate(LAST_MODIFIED);
+            retained.add(uid);
+            // Greater or equals : several updates can share the same date
+            if (date == null || version == 0 || date.getTime() >= version) {
+                modified.add(uid);
+            }
+            if (date != null) {
+                lastModified = Math.max(lastModified, date.getTime());
+            }
+        }
+        Map<String, Feature> updated = new LinkedHashMap<String, Feature>();
+        if (!modified.isEmpty()) {
+            Document query = new Document(MongoDbConstants.FEATURE_UUID, new Document("$in", modified));
+            for (Document document : getFeaturesCollection().find(query)) {
+                Feature feature = FMAPPER.fromStore(document);
+                updated.put(feature.getUid(), feature);
+            }
+        }
+        return new ChangeSet<Feature>(lastModified, updated, null, retained);
+    }
+    
+    /**
+     * Add update of 'lastModified' to an update statement.
+     *
+     * @param update
+     *      update statement
+     * @return
+     *      update statement with $currentDate
+     */
+    private Document withLastModified(Document update) {
+        return update.append(MONGO_CURRENTDATE, new Document(LAST_MODIFIED, true));
+    }
+
     /** {@inheritDoc} */
     @Override
     public void update(Feature fp) {
@@ -278,7 +339,7 @@ public class FeatureStoreMongo extends AbstractFeatureStore {
             throw new IllegalArgumentException("Feature cannot be null nor empty");
         }
         read(fp.getUid());
-        getFeaturesCollection().updateOne(BUILDER.getFeatUid(fp.getUid()), new Document(MONGO_SET, FMAPPER.toStore(fp)));
+        getFeaturesCollection().updateOne(BUILDER.getFeatUid(fp.getUid()), withLastModified(new Document(MONGO_SET, FMAPPER.toStore(fp))));
     }
 
     /** {@inheritDoc} */
@@ -330,7 +391,7 @@ public class FeatureStoreMongo extends AbstractFeatureStore {
         }
         for (Document document : getFeaturesCollection().find(BUILDER.getGroupName(groupName))) {
             Object enabled = BUILDER.getEnable(true);
-            getFeaturesCollection().updateOne(document, new Document(MONGO_SET, enabled));
+            getFeaturesCollection().updateOne(document, withLastModified(new Document(MONGO_SET, enabled)));
         }
     }
 
@@ -345,7 +406,7 @@ public class FeatureStoreMongo extends AbstractFeatureStore {
         }
         for (Document document: getFeaturesCollection().find(BUILDER.getGroupName(groupName))) {
             Object enabled = BUILDER.getEnable(false);
-            getFeaturesCollection().updateOne(document, new Document(MONGO_SET, enabled));
+            getFeaturesCollection().updateOne(document, withLastModified(new Document(MONGO_SET, enabled)));
         }
     }
 
@@ -363,7 +424,7 @@ public class FeatureStoreMongo extends AbstractFeatureStore {
         }
         Document target = BUILDER.getFeatUid(uid);
         Document nGroupName = BUILDER.getGroupName(groupName);
-        getFeaturesCollection().updateOne(target, new Document(MONGO_SET, nGroupName));
+        getFeaturesCollection().updateOne(target, withLastModified(new Document(MONGO_SET, nGroupName)));
     }
 
     /** {@inheritDoc} */
@@ -383,7 +444,7 @@ public class FeatureStoreMongo extends AbstractFeatureStore {
         }
         Document target = BUILDER.getFeatUid(uid);
         Document nGroupName = BUILDER.getGroupName("");
-        getFeaturesCollection().updateOne(target, new Document(MONGO_SET, nGroupName));
+        getFeaturesCollection().updateOne(target, withLastModified(new Document(MONGO_SET, nGroupName)));
     }
     
     /** {@inheritDoc} */
@@ -391,6 +452,61 @@ public class FeatureStoreMongo extends AbstractFeatureStore {
     public void clear() {
         getFeaturesCollection().deleteMany(new Document());
     }
+    
+    /**
+     * Import features with a single ordered bulk write : each feature is replaced (upsert) then
+     * stamped with the server date, existing features are read first with a single query. The bulk stops on first error, following features are failed.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public ImportReport importFeatures(Collection<Feature> features) {
+        ImportReport report = new ImportReport();
+        List<Feature> toImport = new ArrayList<Feature>(prepareImport(features, report).values());
+        if (toImport.isEmpty()) {
+            return report;
+        }
+        // Existing features, single query
+        List<String> uids = new ArrayList<String>();
+        for (Feature fp : toImport) {
+            uids.add(fp.getUid());
+        }
+        Set<String> existing = new HashSet<String>();
+        Document query = new Document(MongoDbConstants.FEATURE_UUID, new Document("$in", uids));
+        for (Document document : getFeaturesCollection().find(query).projection(new Document(MongoDbConstants.FEATURE_UUID, 1))) {
+            existing.add(document.getString(MongoDbConstants.FEATURE_UUID));
+        }
+        List<WriteModel<Document>> requests = new ArrayList<WriteModel<Document>>();
+        for (Feature fp : toImport) {
+            Document filter = BUILDER.getFeatUid(fp.getUid());
+            requests.add(new ReplaceOneModel<Document>(filter, FMAPPER.toStore(fp), new UpdateOptions().upsert(true)));
+            requests.add(new UpdateOneModel<Document>(filter, withLastModified(new Document())));
+        }
+        int firstError = requests.size();
+        String errorMessage = null;
+        try {
+            getFeaturesCollection().bulkWrite(requests);
+        } catch (MongoBulkWriteException bwe) {
+            firstError   = bwe.getWriteErrors().get(0).getIndex();
+            errorMessage = bwe.getWriteErrors().get(0).getMessage();
+        }
+        // Two requests per feature : replace at 2i, date at 2i + 1
+        for (int i = 0; i < toImport.size(); i++) {
+            String uid = toImport.get(i).getUid();
+            if (2 * i + 1 < firstError) {
+                if (existing.contains(uid)) {
+                    report.updated(uid);
+                } else {
+                    report.created(uid);
+                }
+            } else if (2 * i + 1 == firstError || 2 * i == firstError) {
+                report.failed(uid, errorMessage);
+            } else {
+                report.failed(uid, "Not imported, bulk write stopped on a previous error");
+            }
+        }
+        return report;
+    }
 
     /** {@inheritDoc} */
     @Override
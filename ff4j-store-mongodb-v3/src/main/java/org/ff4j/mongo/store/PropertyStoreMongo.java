@@ -1,7 +1,13 @@
 package org.ff4j.mongo.store;
 
+import static org.ff4j.mongo.MongoDbConstants.LAST_MODIFIED;
+import static org.ff4j.mongo.MongoDbConstants.MONGO_CURRENTDATE;
 import static org.ff4j.mongo.MongoDbConstants.MONGO_SET;
+import static org.ff4j.mongo.MongoDbConstants.PROPERTY_NAME;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 import java.util.HashSet;
 
 /*
@@ -25,6 +31,7 @@ import java.util.HashSet;
  */
 
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -35,11 +42,18 @@ import org.ff4j.mongo.mapper.MongoPropertyMapper;
 import org.ff4j.mongo.mapper.PropertyDocumentBuilder;
 import org.ff4j.property.Property;
 import org.ff4j.property.store.AbstractPropertyStore;
+import org.ff4j.store.ChangeSet;
+import org.ff4j.store.ImportReport;
 import org.ff4j.utils.Util;
 
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.MongoClient;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
 
 /**
  * PropertyStore based on MongoDB database.
@@ -168,6 +182,8 @@ public class PropertyStoreMongo extends AbstractPropertyStore {
             throw new PropertyAlreadyExistException(prop.getName());
         }
         getPropertiesCollection().insertOne(PMAPPER.toStore(prop));
+        // Server side date, clients clocks are not involved
+        getPropertiesCollection().updateOne(BUILDER.getName(prop.getName()), withLastModified(new Document()));
     }
 
     /** {@inheritDoc} */
@@ -187,6 +203,61 @@ public class PropertyStoreMongo extends AbstractPropertyStore {
     public void clear() {
         getPropertiesCollection().deleteMany(new Document());
     }
+    
+    /**
+     * Import properties with a single ordered bulk write : each property is replaced (upsert) then
+     * stamped with the server date, existing properties are read first with a single query. The bulk stops on first error, following properties are failed.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public ImportReport importProperties(Collection<Property<?>> properties) {
+        ImportReport report = new ImportReport();
+        List<Property<?>> toImport = new ArrayList<Property<?>>(prepareImport(properties, report).values());
+        if (toImport.isEmpty()) {
+            return report;
+        }
+        // Existing properties, single query
+        List<String> names = new ArrayList<String>();
+        for (Property<?> prop : toImport) {
+            names.add(prop.getName());
+        }
+        Set<String> existing = new HashSet<String>();
+        Document query = new Document(PROPERTY_NAME, new Document("$in", names));
+        for (Document document : getPropertiesCollection().find(query).projection(new Document(PROPERTY_NAME, 1))) {
+            existing.add(document.getString(PROPERTY_NAME));
+        }
+        List<WriteModel<Document>> requests = new ArrayList<WriteModel<Document>>();
+        for (Property<?> prop : toImport) {
+            Document filter = BUILDER.getName(prop.getName());
+            requests.add(new ReplaceOneModel<Document>(filter, PMAPPER.toStore(prop), new UpdateOptions().upsert(true)));
+            requests.add(new UpdateOneModel<Document>(filter, withLastModified(new Document())));
+        }
+        int firstError = requests.size();
+        String errorMessage = null;
+        try {
+            getPropertiesCollection().bulkWrite(requests);
+        } catch (MongoBulkWriteException bwe) {
+            firstError   = bwe.getWriteErrors().get(0).getIndex();
+            errorMessage = bwe.getWriteErrors().get(0).getMessage();
+        }
+        // Two requests per property : replace at 2i, date at 2i + 1
+        for (int i = 0; i < toImport.size(); i++) {
+            String name = toImport.get(i).getName();
+            if (2 * i + 1 < firstError) {
+                if (existing.contains(name)) {
+                    report.updated(name);
+                } else {
+                    report.created(name);
+                }
+            } else if (2 * i + 1 == firstError || 2 * i == firstError) {
+                report.failed(name, errorMessage);
+            } else {
+                report.failed(name, "Not imported, bulk write stopped on a previous error");
+            }
+        }
+        return report;
+    }
 
     /** {@inheritDoc} */
     public void updateProperty(String name, String newValue) {
@@ -194,7 +265,7 @@ public class PropertyStoreMongo extends AbstractPropertyStore {
         readProperty(name).fromString(newValue);
         Document query = BUILDER.getName(name);
         Document update = BUILDER.getValue(newValue);
-        getPropertiesCollection().updateOne(query, new Document(MONGO_SET, update));
+        getPropertiesCollection().updateOne(query, withLastModified(new Document(MONGO_SET, update)));
     }
 
     /** {@inheritDoc} */
@@ -216,6 +287,53 @@ public class PropertyStoreMongo extends AbstractPropertyStore {
         return mapP;
     }
 
+    /**
+     * Writes set the 'lastModified' attribute with server date ($currentDate). Names and dates
+     * are read first, then only documents modified since the version are fetched.
+     * 
+     * {@inheritDoc}
+     */
+    @Override
+    public ChangeSet<Property<?>> propertyChangesSince(long version) {
+        Set<String> retained = new HashSet<String>();
+        List<String> modified = new ArrayList<String>();
+        long lastModified = version;
+        Document projection = new Document(PROPERTY_NAME, 1).append(LAST_MODIFIED, 1);
+        for (Document document : getPropertiesCollection().find().projection(projection)) {
+            String name = document.getString(PROPERTY_NAME);
+            Date date   = document.getDate(LAST_MODIFIED);
+            retained.add(name);
+            // Greater or equals : several updates can share the same date
+            if (date == null || version == 0 || date.getTime() >= version) {
+                modified.add(name);
+            }
+            if (date != null) {
+                lastModified = Math.max(lastModified, date.getTime());
+            }
+        }
+        Map<String, Property<?>> updated = new LinkedHashMap<String, Property<?>>();
+        if (!modified.isEmpty()) {
+            Document query = new Document(PROPERTY_NAME, new Document("$in", modified));
+            for (Document document : getPropertiesCollection().find(query)) {
+                Property<?> prop = PMAPPER.fromStore(document);
+                updated.put(prop.getName(), prop);
+            }
+        }
+        return new ChangeSet<Property<?>>(lastModified, updated, null, retained);
+    }
+    
+    /**
+     * Add update of 'lastModified' to an update statement.
+     *
+     * @param update
+     *      update statement
+     * @return
+     *      update statement with $currentDate
+     */
+    private Document withLastModified(Document update) {
+        return update.append(MONGO_CURRENTDATE, new Document(LAST_MODIFIED, true));
+    }
+
     /** {@inheritDoc} */
     public Set<String> listPropertyNames() {
         return readAllProperties().keySet();
@@ -0,0 +1,145 @@
+package org.ff4j.test.store;
+
+/*
+ * #%L
+ * ff4j-store-mongodb-v3
+ * %%
+ * Copyright (C) 2013 - 2016 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.ff4j.audit.EventConstants.ACTION_CHECK_OK;
+import static org.ff4j.audit.EventConstants.SOURCE_JAVA;
+import static org.ff4j.audit.EventConstants.TARGET_FEATURE;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.ff4j.audit.Event;
+import org.ff4j.audit.EventQueryDefinition;
+import org.ff4j.audit.EventSeries;
+import org.ff4j.audit.MutableHitCount;
+import org.ff4j.audit.chart.TimeSeriesChart;
+import org.ff4j.audit.repository.EventRepository;
+import org.ff4j.mongo.MongoDbConstants;
+import org.ff4j.mongo.store.EventRepositoryMongo;
+import org.ff4j.test.audit.EventRepositoryTestSupport;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.github.fakemongo.junit.FongoRule;
+
+/**
+ * Unit testing of MongoDB event repository.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class EventRepositoryMongoTest extends EventRepositoryTestSupport {
+
+    /**
+     * DataBase.
+     */
+    @Rule
+    public FongoRule fongoRule = new FongoRule(false);
+
+    /** {@inheritDoc} */
+    @Override
+    protected EventRepository initRepository() {
+        EventRepositoryMongo mongoRepo = new EventRepositoryMongo(fongoRule.getDatabase().getCollection("ff4j_event"));
+        mongoRepo.createSchema();
+        return mongoRepo;
+    }
+    
+    @Test
+    public void testBulkAndAggregations() {
+        long from = System.currentTimeMillis() - 3 * 3600 * 1000L;
+        List < Event > events = new ArrayList<Event>();
+        for (int i = 0; i < 2500; i++) {
+            Event evt = new Event(SOURCE_JAVA, TARGET_FEATURE, (i % 2 == 0) ? "f1" : "f2", ACTION_CHECK_OK);
+            evt.setTimestamp(from + i * 1000L);
+            events.add(evt);
+        }
+        Assert.assertTrue(repo.saveEvents(events));
+        
+        EventQueryDefinition query = new EventQueryDefinition(from, System.currentTimeMillis());
+        Map < String, MutableHitCount > hits = repo.getFeatureUsageHitCount(query);
+        Assert.assertEquals(1250, hits.get("f1").get());
+        Assert.assertEquals(1250, hits.get("f2").get());
+        Assert.assertEquals(2500, repo.getSourceHitCount(query).get(SOURCE_JAVA).get());
+        Assert.assertEquals(2500, repo.searchFeatureUsageEvents(query).size());
+        
+        TimeSeriesChart tsc = repo.getFeatureUsageHistory(query, TimeUnit.HOURS);
+        int total = 0;
+        for (MutableHitCount slotHits : tsc.getSeries().get("f1").getValue().values()) {
+            total += slotHits.get();
+        }
+        Assert.assertEquals(1250, total);
+        
+        query.setPageable(true);
+        query.setPagesize(1000);
+        query.setPagenumber(2);
+        Assert.assertEquals(500, repo.searchFeatureUsageEvents(query).size());
+    }
+    
+    @Test
+    public void testPagingAfterLastEvent() {
+        long from = System.currentTimeMillis() - 3600 * 1000L;
+        List < Event > events = new ArrayList<Event>();
+        for (int i = 0; i < 25; i++) {
+            Event evt = new Event(SOURCE_JAVA, TARGET_FEATURE, "f1", ACTION_CHECK_OK);
+            // Same timestamp for several events, ordered by identifier
+            evt.setTimestamp(from + (i / 5) * 1000L);
+            events.add(evt);
+        }
+        Assert.assertTrue(repo.saveEvents(events));
+        
+        EventQueryDefinition query = new EventQueryDefinition(from, System.currentTimeMillis());
+        query.setPageable(true);
+        query.setPagesize(10);
+        Set < String > read = new HashSet<String>();
+        int pages = 0;
+        EventSeries page = repo.searchFeatureUsageEvents(query);
+        while (!page.isEmpty()) {
+            pages++;
+            Event last = null;
+            for (Event evt : page) {
+                Assert.assertTrue(read.add(evt.getUuid()));
+                last = evt;
+            }
+            page = repo.searchFeatureUsageEvents(query.after(last));
+        }
+        Assert.assertEquals(3, pages);
+        Assert.assertEquals(25, read.size());
+    }
+    
+    @Test
+    public void testTimeToLiveIndex() {
+        EventRepositoryMongo mongoRepo = new EventRepositoryMongo(fongoRule.getDatabase().getCollection("ff4j_event_ttl"));
+        mongoRepo.setTimeToLive(3600);
+        mongoRepo.createSchema();
+        boolean ttlIndex = false;
+        for (Document index : mongoRepo.getEventCollection().listIndexes()) {
+            ttlIndex |= ((Document) index.get("key")).containsKey(MongoDbConstants.EVENT_DATE);
+        }
+        Assert.assertTrue(ttlIndex);
+    }
+
+}
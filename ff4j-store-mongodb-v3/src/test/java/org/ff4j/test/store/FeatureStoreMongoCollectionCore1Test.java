@@ -1,11 +1,17 @@
 package org.ff4j.test.store;
 
+import static org.ff4j.test.TestsFf4jConstants.F1;
+import static org.ff4j.test.TestsFf4jConstants.F2;
+import static org.ff4j.test.TestsFf4jConstants.F3;
+
 import java.net.UnknownHostException;
 import java.util.Arrays;
 
 import org.bson.Document;
+import org.ff4j.core.Feature;
 import org.ff4j.core.FeatureStore;
 import org.ff4j.mongo.store.FeatureStoreMongo;
+import org.ff4j.store.ChangeSet;
 import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Rule;
@@ -76,6 +82,19 @@ public class FeatureStoreMongoCollectionCore1Test extends FeatureStoreTestSuppor
         return new MongoClient(adr, Arrays.asList(credential));
     }
     
+    @Test
+    public void testFeatureChangesSince() throws InterruptedException {
+        ChangeSet < Feature > all = testedStore.featureChangesSince(0);
+        Assert.assertEquals(testedStore.readAll().size(), all.getUpdated().size());
+        Thread.sleep(20);
+        testedStore.enable(F2);
+        ChangeSet < Feature > delta = testedStore.featureChangesSince(all.getVersion());
+        Assert.assertTrue(delta.getUpdated().get(F2).isEnable());
+        Assert.assertFalse(delta.getUpdated().containsKey(F1));
+        testedStore.delete(F3);
+        Assert.assertTrue(testedStore.featureChangesSince(delta.getVersion()).isDeleted(F3));
+    }
+    
     /**
      * LazyBSONObjectList vs BasicBSONObjectList
      */
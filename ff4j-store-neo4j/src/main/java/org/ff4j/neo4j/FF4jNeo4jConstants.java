@@ -71,86 +71,157 @@ public class FF4jNeo4jConstants {
     /** core attribute. */
     public static final String NODEGROUP_ATT_NAME= "name";
     
+    /** Cypher parameter. */
+    public static final String PARAM_UID = "uid";
+    
+    /** Cypher parameter. */
+    public static final String PARAM_UIDS = "uids";
+    
+    /** Cypher parameter. */
+    public static final String PARAM_GROUPNAME = "groupName";
+    
+    /** Cypher parameter. */
+    public static final String PARAM_ROLENAME = "roleName";
+    
+    /** Cypher parameter. */
+    public static final String PARAM_FEATURES = "features";
+    
+    /** Cypher parameter. */
+    public static final String PARAM_FEATURE = "feature";
+    
+    /** Cypher parameter. */
+    public static final String PARAM_CORE = "core";
+    
+    /** Cypher parameter. */
+    public static final String PARAM_STRATEGIES = "strategies";
+    
+    /** Cypher parameter. */
+    public static final String PARAM_PROPERTIES = "properties";
+    
+    /** Cypher parameter. */
+    public static final String PARAM_GROUPS = "groups";
+    
+    /** Cypher parameter. */
+    public static final String PARAM_PROPERTY = "property";
+    
+    /** Column holding the feature node. */
+    public static final String COL_FEATURE = "f";
+    
+    /** Column holding the strategy, properties and group of a feature. */
+    public static final String COL_NEIGHBOURS = "NEIGHBOURS";
+    
     // -------------------------------------------------------
-    // --------------------- Create  -------------------------  
+    // --------------------- Fragments -----------------------
     // -------------------------------------------------------
-
+    
     public static final String MATCH_F = "MATCH (f:";
+    
+    public static final String MATCH_P = "MATCH (p:";
+    
+    public static final String RETURN_COUNT_AS = "RETURN count(*) AS ";
+    
+    /** Feature node by uid. */
+    public static final String MATCH_FEATURE_UID = MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + " { uid: {uid} }) ";
+    
+    /** Feature with all its neighbours (strategy, properties, group) as a single row. */
+    public static final String RETURN_FEATURE_NEIGHBOURS = 
+            "OPTIONAL MATCH (f)--(n) " +
+            "RETURN f, collect(n) AS " + COL_NEIGHBOURS;
+    
+    /** Remove strategy and properties of the feature bound to 'f'. */
+    public static final String DELETE_FEATURE_CHILDREN = 
+            "OPTIONAL MATCH (f)--(n) WHERE n:" + FF4jNeo4jLabels.FF4J_FLIPPING_STRATEGY + 
+            " OR n:" + FF4jNeo4jLabels.FF4J_FEATURE_PROPERTY + " " +
+            "WITH f, collect(n) AS children " + 
+            "FOREACH (c IN children | DETACH DELETE c) ";
+    
+    /** Create strategy, properties and group of the feature bound to 'f' from the map 'feat'. */
+    public static final String CREATE_FEATURE_CHILDREN = 
+            "FOREACH (s IN feat." + PARAM_STRATEGIES + " | CREATE (:" + FF4jNeo4jLabels.FF4J_FLIPPING_STRATEGY + " { " + 
+                NODESTRATEGY_ATT_TYPE + ": s." + NODESTRATEGY_ATT_TYPE + ", " + 
+                NODESTRATEGY_ATT_INITPARAMS + ": s." + NODESTRATEGY_ATT_INITPARAMS + " })" +
+                "-[:" + FF4jNeo4jRelationShips.STRATEGY_OF + "]->(f)) " + 
+            "FOREACH (p IN feat." + PARAM_PROPERTIES + " | CREATE (:" + FF4jNeo4jLabels.FF4J_FEATURE_PROPERTY + " { " + 
+                NODEPROPERTY_ATT_NAME + ": p." + NODEPROPERTY_ATT_NAME + ", " + 
+                NODEPROPERTY_ATT_TYPE + ": p." + NODEPROPERTY_ATT_TYPE + ", " + 
+                NODEPROPERTY_ATT_VALUE + ": p." + NODEPROPERTY_ATT_VALUE + ", " + 
+                NODEPROPERTY_ATT_FIXEDVALUES + ": p." + NODEPROPERTY_ATT_FIXEDVALUES + ", " + 
+                NODEPROPERTY_ATT_DESCRIPTION + ": p." + NODEPROPERTY_ATT_DESCRIPTION + " })" +
+                "-[:" + FF4jNeo4jRelationShips.PROPERTY_OF + "]->(f)) " +
+            "FOREACH (g IN feat." + PARAM_GROUPS + " | MERGE (gr:" + FF4jNeo4jLabels.FF4J_FEATURE_GROUP + " { name: g }) " + 
+                "MERGE (f)-[:" + FF4jNeo4jRelationShips.MEMBER_OF + "]->(gr)) ";
+    
+    /** Delete the group bound to 'g' when it has no more members. */
+    public static final String DELETE_ORPHAN_GROUP = 
+            "WITH DISTINCT g WHERE g IS NOT NULL " + 
+            "OPTIONAL MATCH (g)<-[:" + FF4jNeo4jRelationShips.MEMBER_OF + "]-(other) " + 
+            "WITH g, count(other) AS members WHERE members = 0 " + 
+            "DELETE g";
+    
+    // -------------------------------------------------------
+    // --------------------- Create  -------------------------  
+    // -------------------------------------------------------
+    
+    /** Create features with strategy, properties and group, one statement for all features. */
+    public static final String QUERY_CYPHER_CREATE_FEATURES =
+            "UNWIND {" + PARAM_FEATURES + "} AS feat " + 
+            "CREATE (f:" + FF4jNeo4jLabels.FF4J_FEATURE + ") SET f = feat." + PARAM_CORE + " " +
+            CREATE_FEATURE_CHILDREN;
+    
     /** Cypher query. */
     public static final String QUERY_CYPHER_ADDTO_GROUP =
-            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + "  {uid: {uid} } ), " +
-            "(g:" + FF4jNeo4jLabels.FF4J_FEATURE_GROUP + " {name: {groupName} }) " + 
-            "CREATE (f)-[:" + FF4jNeo4jRelationShips.MEMBER_OF + "]->(g);";
+            MATCH_FEATURE_UID + 
+            "MERGE (g:" + FF4jNeo4jLabels.FF4J_FEATURE_GROUP + " { name: {groupName} }) " + 
+            "MERGE (f)-[:" + FF4jNeo4jRelationShips.MEMBER_OF + "]->(g) " + 
+            RETURN_COUNT_AS + QUERY_CYPHER_ALIAS;
+    
+    /** Cypher query. */
+    public static final String QUERY_CYPHER_CREATE_PROPERTY =
+            "CREATE (p:" + FF4jNeo4jLabels.FF4J_PROPERTY + ") SET p = {" + PARAM_PROPERTY + "}";
     
     // -------------------------------------------------------
     // --------------------- Read ----------------------------
     // -------------------------------------------------------
 
-    public static final String RETURN_COUNT_AS = "RETURN count(*) AS ";
     /** Cypher query. */
     public static final String QUERY_CYPHER_EXISTS  =
-            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + " { uid:  {uid} }) " +
-                    RETURN_COUNT_AS + QUERY_CYPHER_ALIAS;
+            MATCH_FEATURE_UID + RETURN_COUNT_AS + QUERY_CYPHER_ALIAS;
+
+    /** Uids of existing features among a list (column 'uid'). */
+    public static final String QUERY_CYPHER_EXISTING_UIDS =
+            "UNWIND {" + PARAM_UIDS + "} AS uid " + 
+            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + " { uid: uid }) RETURN f.uid AS uid";
 
-    public static final String MATCH_P = "MATCH (p:";
     public static final String QUERY_CYPHER_EXISTS_PROPERTY  =
             MATCH_P + FF4jNeo4jLabels.FF4J_PROPERTY + " { name:  {name} }) " +
                     RETURN_COUNT_AS + QUERY_CYPHER_ALIAS;
 
     public static final String QUERY_CYPHER_EXISTS_GROUP =
-            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE_GROUP + " { name:  {groupName} }) " +
+            "MATCH (g:" + FF4jNeo4jLabels.FF4J_FEATURE_GROUP + " { name:  {groupName} }) " +
                     RETURN_COUNT_AS + QUERY_CYPHER_ALIAS;
             
     /** Cypher query. */
     public static final String QUERY_CYPHER_READ_FEATURE =
-            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + " { uid: {uid} })--(all) RETURN f,all";
+            MATCH_FEATURE_UID + RETURN_FEATURE_NEIGHBOURS;
     
     /** Cypher query. */
-    public static final String QUERY_CYPHER_READ_PROPERTY =
-            MATCH_P + FF4jNeo4jLabels.FF4J_PROPERTY + " { name: {name} }) RETURN p";
+    public static final String QUERY_CYPHER_READ_ALL =
+            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + ") " + RETURN_FEATURE_NEIGHBOURS;
     
     /** Cypher query. */
-    public static final String QUERY_CYPHER_NORELATIONSHIPS =
-            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + " { uid: {uid} }) RETURN f;";
+    public static final String QUERY_CYPHER_READ_GROUP =
+            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + ")-[:" + FF4jNeo4jRelationShips.MEMBER_OF + "]->" + 
+            "(:" + FF4jNeo4jLabels.FF4J_FEATURE_GROUP + " { name: {groupName} }) " + 
+            RETURN_FEATURE_NEIGHBOURS;
     
     /** Cypher query. */
-    public static final String QUERY_CYPHER_READ_ALL =
-            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + ")--(all) RETURN f,all;";
+    public static final String QUERY_CYPHER_READ_PROPERTY =
+            MATCH_P + FF4jNeo4jLabels.FF4J_PROPERTY + " { name: {name} }) RETURN p";
     
     /** Cypher query. */
     public static final String QUERY_CYPHER_READ_ALLPROPERTIES =
             MATCH_P + FF4jNeo4jLabels.FF4J_PROPERTY + ") RETURN p;";
     
-    /** Cypher query. */
-    public static final String QUERY_CYPHER_READ_SINGLE =
-            "MATCH (f:FF4J_FEATURE) RETURN f;";
-    
-    /** Cypher query. */
-    public static final String QUERY_CYPHER_GETGROUPNAME =
-            "MATCH(f:" + FF4jNeo4jLabels.FF4J_FEATURE + "  { uid:  {uid} } ) " + 
-             "--(g:" + FF4jNeo4jLabels.FF4J_FEATURE_GROUP + ") " + 
-             "RETURN g.name as GROUPNAME;";
-    
-    /** Cypher query. */
-    public static final String QUERY_CYPHER_GET_FLIPPINGSTRATEGY =
-            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + " { uid: {uid} })" +
-            "--(s:" + FF4jNeo4jLabels.FF4J_FLIPPING_STRATEGY + ") " + 
-            "RETURN s;";
-
-    public static final String NAME_GROUP_NAME = "]-( { name: {groupName} }) ";
-    public static final String WHERE_F = "WHERE (f)-[:";
-    /** Cypher query. */
-    public static final String QUERY_CYPHER_COUNT_FEATURE_OF_GROUP =
-            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + " ) " +
-                    WHERE_F + FF4jNeo4jRelationShips.MEMBER_OF + NAME_GROUP_NAME +
-            "RETURN COUNT(*) AS " + QUERY_CYPHER_ALIAS + ";";
-    
-    /** Cypher query. */
-    public static final String QUERY_CYPHER_READ_FEATURES_OF_GROUP =
-            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + " ) " +
-                    WHERE_F + FF4jNeo4jRelationShips.MEMBER_OF + NAME_GROUP_NAME +
-            "RETURN f.uid AS UID;";
-    
     /** Cypher query. */
     public static final String QUERY_READ_GROUPS =
             "MATCH (g:" +  FF4jNeo4jLabels.FF4J_FEATURE_GROUP + "  ) " + 
@@ -165,11 +236,22 @@ public class FF4jNeo4jConstants {
     // --------------------- Update  -------------------------  
     // -------------------------------------------------------
     
+    /** Replace core attributes, strategy, properties and group of a feature. */
+    public static final String QUERY_CYPHER_UPDATE_FEATURE =
+            MATCH_FEATURE_UID + 
+            DELETE_FEATURE_CHILDREN + 
+            "WITH f, {" + PARAM_FEATURE + "} AS feat " +
+            "SET f = feat." + PARAM_CORE + " " +
+            CREATE_FEATURE_CHILDREN + 
+            RETURN_COUNT_AS + QUERY_CYPHER_ALIAS;
+    
     /** Cypher query. */
     public static final String QUERY_CYPHER_ENABLE  =
-            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + " { uid: {uid} }) " +
-            "SET f.enable = true RETURN f.enable;";
+            MATCH_FEATURE_UID + "SET f.enable = true " + RETURN_COUNT_AS + QUERY_CYPHER_ALIAS;
     
+    /** Cypher query. */
+    public static final String QUERY_CYPHER_DISABLE =
+            MATCH_FEATURE_UID + "SET f.enable = false " + RETURN_COUNT_AS + QUERY_CYPHER_ALIAS;
     
     /** Cypher query. */
     public static final String QUERY_CYPHER_UPDATE_PROPERTYVALUE  =
@@ -177,76 +259,61 @@ public class FF4jNeo4jConstants {
             "SET p." + NODEPROPERTY_ATT_VALUE + "= {value};";
     
     /** Cypher query. */
-    public static final String QUERY_CYPHER_DISABLE =
-            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + " { uid: {uid} }) " +
-            "SET f.enable = false RETURN f.enable;";
+    public static final String QUERY_CYPHER_ADD_ROLE =
+            MATCH_FEATURE_UID +
+            "FOREACH (x IN CASE WHEN {roleName} IN coalesce(f.roles, []) THEN [] ELSE [1] END | " + 
+            "SET f.roles = coalesce(f.roles, []) + {roleName}) " + 
+            RETURN_COUNT_AS + QUERY_CYPHER_ALIAS;
     
     /** Cypher query. */
-    public static final String QUERY_CYPHER_ADD_ROLE =
-            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + "  {uid: {uid} }) " +
-            "SET f.roles = f.roles + {roleName} return f;";
+    public static final String QUERY_CYPHER_REMOVE_ROLE =
+            MATCH_FEATURE_UID +
+            "SET f.roles = [r IN coalesce(f.roles, []) WHERE r <> {roleName}] " + 
+            RETURN_COUNT_AS + QUERY_CYPHER_ALIAS;
     
     /** Cypher query. */
     public static final String QUERY_CYPHER_ENABLE_GROUP =
-            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + " ) " +
-                    WHERE_F + FF4jNeo4jRelationShips.MEMBER_OF + NAME_GROUP_NAME +
-            "SET f.enable = true RETURN f.enable;";
+            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + ")-[:" + FF4jNeo4jRelationShips.MEMBER_OF + "]->" + 
+            "(:" + FF4jNeo4jLabels.FF4J_FEATURE_GROUP + " { name: {groupName} }) " + 
+            "SET f.enable = true " + RETURN_COUNT_AS + QUERY_CYPHER_ALIAS;
     
     /** Cypher query. */
     public static final String QUERY_CYPHER_DISABLE_GROUP =
-            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + " ) " +
-                    WHERE_F + FF4jNeo4jRelationShips.MEMBER_OF + NAME_GROUP_NAME +
-            "SET f.enable = false RETURN f.enable;";
-    
-    /** Cypher query. */
-    public static final String QUERY_CYPHER_UPDATE_ROLE =
-            "MATCH (f:FF4J_FEATURE { uid: {uid}  }) " + 
-            "SET f.roles = {roles} RETURN f";
+            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + ")-[:" + FF4jNeo4jRelationShips.MEMBER_OF + "]->" + 
+            "(:" + FF4jNeo4jLabels.FF4J_FEATURE_GROUP + " { name: {groupName} }) " + 
+            "SET f.enable = false " + RETURN_COUNT_AS + QUERY_CYPHER_ALIAS;
     
     // -------------------------------------------------------
     // --------------------- Delete --------------------------
     // -------------------------------------------------------
     
-    /** Delete properties related to the feature. */
-    public static final String QUERY_CYPHER_DELETE_PROPERTIES_FEATURE =
-            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + " { uid: {uid} })--(p:" + FF4jNeo4jLabels.FF4J_FEATURE_PROPERTY + " ) "  +
-            "DETACH DELETE p;";
-    
-    /** Delete flipping strategy related to the feature. */
-    public static final String QUERY_CYPHER_DELETE_STRATEGY_FEATURE =
-            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + " { uid: {uid} })--(s:" + FF4jNeo4jLabels.FF4J_FLIPPING_STRATEGY + ") "  +
-            "DETACH DELETE s;";
-
-    /** Delete flipping strategy related to the feature. */
-    public static final String QUERY_CYPHER_DELETE_GROUP_FEATURE =
-            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + " { uid: {uid} })--(s:" + FF4jNeo4jLabels.FF4J_FEATURE_GROUP + ") "  +
-            "DETACH DELETE s;";
+    /** Delete features with strategy and properties, then groups left without members. */
+    public static final String QUERY_CYPHER_DELETE_FEATURES =
+            "UNWIND {" + PARAM_UIDS + "} AS uid " + 
+            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + " { uid: uid }) " +
+            DELETE_FEATURE_CHILDREN + 
+            "WITH f OPTIONAL MATCH (f)-[:" + FF4jNeo4jRelationShips.MEMBER_OF + "]->(g) " + 
+            "DETACH DELETE f " + 
+            DELETE_ORPHAN_GROUP;
     
-    /** Delete Feature with all its relationships*/
-    public static final String QUERY_CYPHER_DELETE_FEATURE =
-            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + " { uid: {uid}  }) " +
-            "DETACH DELETE f;";
+    /** Leave the current group when it is not the expected one (null for none), delete it if empty. */
+    public static final String QUERY_CYPHER_REMOVEFROMGROUP =
+            MATCH_FEATURE_UID + "-[a:" + FF4jNeo4jRelationShips.MEMBER_OF + "]->(g) " + 
+            "WHERE {groupName} IS NULL OR g.name <> {groupName} " + 
+            "DELETE a " + 
+            DELETE_ORPHAN_GROUP;
     
     /** Delete property. */
     public static final String QUERY_CYPHER_DELETE_PROPERTY =
             MATCH_P + FF4jNeo4jLabels.FF4J_PROPERTY + " { name: {name}  }) " +
                     "DETACH DELETE p;";
     
-    /** Cypher query. */
-    public static final String QUERY_CYPHER_REMOVEFROMGROUP =
-            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + " { uid: {uid} })-[a:" + FF4jNeo4jRelationShips.MEMBER_OF + "]->() DELETE a;";
-    
-    /** Cypher query. */
-    public static final String QUERY_CYPHER_DELETE_GROUP =
-            "MATCH (g:" + FF4jNeo4jLabels.FF4J_FEATURE_GROUP + " { name: {groupName} }) DETACH DELETE g;";
-    
     /** Cypher query. */
     public static final String QUERY_CYPHER_DELETE_ALLFEATURE =
-            "MATCH (f:FF4J_FEATURE)--(all) DETACH DELETE f, all;";
-    
-    /** Cypher query. */
-    public static final String QUERY_CYPHER_DELETE_ALLSINGLEFEATURE =
-            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + ") DETACH DELETE f;";
+            MATCH_F + FF4jNeo4jLabels.FF4J_FEATURE + ") " + 
+            "OPTIONAL MATCH (f)--(n) " + 
+            "WITH collect(DISTINCT f) + collect(DISTINCT n) AS nodes " + 
+            "FOREACH (x IN nodes | DETACH DELETE x)";
     
     /** Cypher query. */
     public static final String QUERY_CYPHER_DELETE_ALLPROPERTY =
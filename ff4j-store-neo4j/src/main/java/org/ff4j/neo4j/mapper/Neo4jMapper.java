@@ -1,8 +1,10 @@
 package org.ff4j.neo4j.mapper;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -135,5 +137,85 @@ public class Neo4jMapper {
             return ap;
         }
     }
+    
+    /**
+     * Parameters of a feature for Cypher statements : core attributes, strategies, properties and groups
+     * (lists with zero or one element for strategy and group to be used in FOREACH).
+     *
+     * @param feature
+     *      current feature
+     * @return
+     *      map of parameters
+     */
+    public static Map < String, Object > fromFeature2Map(Feature feature) {
+        Map < String, Object > core = new HashMap<>();
+        core.put(NODEFEATURE_ATT_UID, feature.getUid());
+        core.put(NODEFEATURE_ATT_ENABLE, feature.isEnable());
+        if (feature.getDescription() != null && feature.getDescription().length() > 0) {
+            core.put(NODEFEATURE_ATT_DESCRIPTION, feature.getDescription());
+        }
+        Set < String > roles = feature.getPermissions();
+        core.put(NODEFEATURE_ATT_ROLES, (roles == null) ? new String[0] : roles.toArray(new String[roles.size()]));
+        
+        List < Map < String, Object > > strategies = new ArrayList<>();
+        if (feature.getFlippingStrategy() != null) {
+            Map < String, Object > strategy = new HashMap<>();
+            strategy.put(NODESTRATEGY_ATT_TYPE, feature.getFlippingStrategy().getClass().getName());
+            List < String > initParams = new ArrayList<>();
+            Map < String, String > params = feature.getFlippingStrategy().getInitParams();
+            if (params != null) {
+                for (Map.Entry < String, String > entry : params.entrySet()) {
+                    initParams.add(entry.getKey() + "=" + entry.getValue());
+                }
+            }
+            strategy.put(NODESTRATEGY_ATT_INITPARAMS, initParams.toArray(new String[initParams.size()]));
+            strategies.add(strategy);
+        }
+        
+        List < Map < String, Object > > properties = new ArrayList<>();
+        if (feature.getCustomProperties() != null) {
+            for (Property<?> property : feature.getCustomProperties().values()) {
+                properties.add(fromProperty2Map(property));
+            }
+        }
+        
+        List < String > groups = new ArrayList<>();
+        if (feature.getGroup() != null && feature.getGroup().length() > 0) {
+            groups.add(feature.getGroup());
+        }
+        
+        Map < String, Object > featureMap = new HashMap<>();
+        featureMap.put(PARAM_CORE, core);
+        featureMap.put(PARAM_STRATEGIES, strategies);
+        featureMap.put(PARAM_PROPERTIES, properties);
+        featureMap.put(PARAM_GROUPS, groups);
+        return featureMap;
+    }
+    
+    /**
+     * Attributes of a node FF4J_PROPERTY or FF4J_FEATURE_PROPERTY.
+     *
+     * @param property
+     *      current property
+     * @return
+     *      node attributes
+     */
+    public static Map < String, Object > fromProperty2Map(Property<?> property) {
+        Map < String, Object > node = new HashMap<>();
+        node.put(NODEPROPERTY_ATT_NAME, property.getName());
+        node.put(NODEPROPERTY_ATT_TYPE, property.getType());
+        node.put(NODEPROPERTY_ATT_VALUE, property.asString());
+        List < String > fixedValues = new ArrayList<>();
+        if (property.getFixedValues() != null) {
+            for (Object fixedValue : property.getFixedValues()) {
+                fixedValues.add(fixedValue.toString());
+            }
+        }
+        node.put(NODEPROPERTY_ATT_FIXEDVALUES, fixedValues.toArray(new String[fixedValues.size()]));
+        if (property.getDescription() != null && property.getDescription().length() > 0) {
+            node.put(NODEPROPERTY_ATT_DESCRIPTION, property.getDescription());
+        }
+        return node;
+    }
 
 }
@@ -1,33 +1,34 @@
 package org.ff4j.neo4j.store;
 
+import static org.ff4j.neo4j.FF4jNeo4jConstants.COL_FEATURE;
+import static org.ff4j.neo4j.FF4jNeo4jConstants.COL_NEIGHBOURS;
 import static org.ff4j.neo4j.FF4jNeo4jConstants.NODEFEATURE_ATT_UID;
 import static org.ff4j.neo4j.FF4jNeo4jConstants.NODEGROUP_ATT_NAME;
+import static org.ff4j.neo4j.FF4jNeo4jConstants.PARAM_FEATURE;
+import static org.ff4j.neo4j.FF4jNeo4jConstants.PARAM_FEATURES;
+import static org.ff4j.neo4j.FF4jNeo4jConstants.PARAM_GROUPNAME;
+import static org.ff4j.neo4j.FF4jNeo4jConstants.PARAM_ROLENAME;
+import static org.ff4j.neo4j.FF4jNeo4jConstants.PARAM_UID;
+import static org.ff4j.neo4j.FF4jNeo4jConstants.PARAM_UIDS;
 import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_ADDTO_GROUP;
 import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_ADD_ROLE;
 import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_ALIAS;
-import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_COUNT_FEATURE_OF_GROUP;
+import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_CREATE_FEATURES;
 import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_DELETE_ALLFEATURE;
-import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_DELETE_ALLSINGLEFEATURE;
-import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_DELETE_FEATURE;
-import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_DELETE_GROUP;
-import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_DELETE_GROUP_FEATURE;
-import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_DELETE_PROPERTIES_FEATURE;
-import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_DELETE_STRATEGY_FEATURE;
+import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_DELETE_FEATURES;
 import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_DISABLE;
 import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_DISABLE_GROUP;
 import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_ENABLE;
 import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_ENABLE_GROUP;
+import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_EXISTING_UIDS;
 import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_EXISTS;
 import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_EXISTS_GROUP;
-import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_GETGROUPNAME;
-import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_GET_FLIPPINGSTRATEGY;
-import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_NORELATIONSHIPS;
 import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_READ_ALL;
 import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_READ_FEATURE;
-import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_READ_FEATURES_OF_GROUP;
-import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_READ_SINGLE;
+import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_READ_GROUP;
 import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_REMOVEFROMGROUP;
-import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_UPDATE_ROLE;
+import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_REMOVE_ROLE;
+import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_CYPHER_UPDATE_FEATURE;
 import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_READ_GROUPS;
 
 /*
@@ -50,12 +51,17 @@ import static org.ff4j.neo4j.FF4jNeo4jConstants.QUERY_READ_GROUPS;
  * #L%
  */
 
+import static org.ff4j.neo4j.mapper.Neo4jMapper.fromFeature2Map;
 import static org.ff4j.neo4j.mapper.Neo4jMapper.fromNode2Feature;
 import static org.ff4j.neo4j.mapper.Neo4jMapper.fromNode2FlippingStrategy;
 import static org.ff4j.neo4j.mapper.Neo4jMapper.fromNode2Property;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -63,10 +69,11 @@ import org.ff4j.core.Feature;
 import org.ff4j.core.FlippingStrategy;
 import org.ff4j.exception.FeatureAlreadyExistException;
 import org.ff4j.exception.FeatureNotFoundException;
+import org.ff4j.exception.GroupNotFoundException;
 import org.ff4j.neo4j.FF4jNeo4jLabels;
-import org.ff4j.neo4j.FF4jNeo4jRelationShips;
 import org.ff4j.property.Property;
 import org.ff4j.store.AbstractFeatureStore;
+import org.ff4j.store.ImportReport;
 import org.ff4j.utils.Util;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
@@ -75,6 +82,9 @@ import org.neo4j.graphdb.Transaction;
 
 /**
  * Implementatino of NEO4J Store.
+ * 
+ * Each operation is a single transaction running parameterized statements (query plans are cached), a feature
+ * is read with its strategy, properties and group as a single row.
  *
  * @author <a href="mailto:cedrick.lunven@gmail.com">Cedrick LUNVEN</a>
  */
@@ -104,405 +114,156 @@ public class FeatureStoreNeo4J extends AbstractFeatureStore {
     @Override
     public boolean exist(String featId) {
         Util.assertHasLength(featId);
-        Map < String, Object > queryParameters = new HashMap<>();
-        queryParameters.put("uid", featId);
-        Result result = graphDb.execute(QUERY_CYPHER_EXISTS,  queryParameters);
-        Object count = null;
-        if (result.hasNext()) {
-            count = result.next().get(QUERY_CYPHER_ALIAS);
+        try (Transaction tx = graphDb.beginTx()) {
+            long count = count(QUERY_CYPHER_EXISTS, params(PARAM_UID, featId));
+            tx.success();
+            return count > 0;
         }
-        return (null != count) && (((long) count) > 0);
     }
     
     /** {@inheritDoc} */
     @Override
     public void enable(String uid) {
-        assertFeatureExist(uid);
-        Transaction tx = graphDb.beginTx();
-        Map<String, Object> queryParameters = new HashMap<>();
-        queryParameters.put("uid", uid);
-        graphDb.execute(QUERY_CYPHER_ENABLE, queryParameters);
-        tx.success();
+        updateFeature(uid, QUERY_CYPHER_ENABLE, params(PARAM_UID, uid));
     }
 
     /** {@inheritDoc} */
     @Override
     public void disable(String uid) {
-        assertFeatureExist(uid);
-        Transaction tx = graphDb.beginTx();
-        Map<String, Object> queryParameters = new HashMap<>();
-        queryParameters.put("uid", uid);
-        graphDb.execute(QUERY_CYPHER_DISABLE, queryParameters);
-        tx.success();
+        updateFeature(uid, QUERY_CYPHER_DISABLE, params(PARAM_UID, uid));
     }
 
     /** {@inheritDoc} */
     @Override
     public Feature read(String featId) {
-        assertFeatureExist(featId);
-        Feature targetFeature = null;
-        Transaction tx = graphDb.beginTx();
-        Map<String, Object> queryParameters = new HashMap<>();
-        queryParameters.put("uid", featId);
-        Result result = graphDb.execute(QUERY_CYPHER_READ_FEATURE, queryParameters);
-        if (!result.hasNext()) {
-            // Exist but as no relation ship not return by first query
-            result = graphDb.execute(QUERY_CYPHER_NORELATIONSHIPS, queryParameters);
-        }
-        while (result.hasNext()) {
-            Map<String, Object> response = result.next();
-            if (targetFeature == null) {
-                Node nodeFeature = (Node) response.get("f");
-                targetFeature = fromNode2Feature(nodeFeature);
+        Util.assertHasLength(featId);
+        try (Transaction tx = graphDb.beginTx()) {
+            Map < String, Feature > features = readFeatures(QUERY_CYPHER_READ_FEATURE, params(PARAM_UID, featId));
+            tx.success();
+            if (features.isEmpty()) {
+                throw new FeatureNotFoundException(featId);
             }
-            addNeighBour2Feature(targetFeature, (Node) response.get("all"));
+            return features.get(featId);
         }
-        tx.success();
-        return targetFeature;
     }
     
     /** {@inheritDoc} */
     @Override
     public Map<String, Feature> readAll() {
-        Map<String, Feature> allFeatures = new HashMap<>();
-        Transaction tx = graphDb.beginTx();
-        // Node with relationships
-        Result result = graphDb.execute(QUERY_CYPHER_READ_ALL);
-        while (result.hasNext()) {
-            addToFeatureList(result.next(), allFeatures);
-        }
-        // Single nodes
-        result = graphDb.execute(QUERY_CYPHER_READ_SINGLE);
-        while (result.hasNext()) {
-            addToFeatureList(result.next(), allFeatures);
+        try (Transaction tx = graphDb.beginTx()) {
+            Map < String, Feature > features = readFeatures(QUERY_CYPHER_READ_ALL, new HashMap<String, Object>());
+            tx.success();
+            return features;
         }
-        tx.success();
-        return allFeatures;
     }
     
     /** {@inheritDoc} */
     @Override
-    public void delete(String uid) {
-        Util.assertHasLength(uid);
-        if (!exist(uid)) {
-            throw new FeatureNotFoundException(uid);
+    public void create(Feature fp) {
+        if (fp == null) {
+            throw new IllegalArgumentException("Feature cannot be null nor empty");
         }
-
-        // Parameter
-        Map<String, Object> paramUID = new HashMap<>();
-        paramUID.put("uid", uid);
-
-        Transaction tx = graphDb.beginTx();
-
-        // Delete Flipping Strategy if it exists
-        graphDb.execute(QUERY_CYPHER_DELETE_STRATEGY_FEATURE, paramUID);
-
-        // Delete Related Property if exist
-        graphDb.execute(QUERY_CYPHER_DELETE_PROPERTIES_FEATURE, paramUID);
-
-        // Check group
-        Result result = graphDb.execute(QUERY_CYPHER_GETGROUPNAME, paramUID);
-        if (result.hasNext()) {
-            String groupName = (String) result.next().get(GROUPNAME);
-            Map<String, Object> paramGroupName = new HashMap<>();
-            paramGroupName.put(GROUP_NAME, groupName);
-            result = graphDb.execute(QUERY_CYPHER_COUNT_FEATURE_OF_GROUP, paramGroupName);
-            if (result.hasNext()) {
-                long nbFeature = (long) result.next().get(QUERY_CYPHER_ALIAS);
-                if (nbFeature == 1) {
-                    // This is the last feature of this Group => delete the GROUP
-                    graphDb.execute(QUERY_CYPHER_DELETE_GROUP_FEATURE, paramUID);
-                }
+        Util.assertHasLength(fp.getUid());
+        try (Transaction tx = graphDb.beginTx()) {
+            if (count(QUERY_CYPHER_EXISTS, params(PARAM_UID, fp.getUid())) > 0) {
+                throw new FeatureAlreadyExistException(fp.getUid());
             }
+            List < Map < String, Object > > features = new ArrayList<>();
+            features.add(fromFeature2Map(fp));
+            execute(QUERY_CYPHER_CREATE_FEATURES, params(PARAM_FEATURES, features));
+            tx.success();
         }
-
-        // Delete feature
-        graphDb.execute(QUERY_CYPHER_DELETE_FEATURE, paramUID);
-        tx.success();
     }
     
     /** {@inheritDoc} */
     @Override
-    public void grantRoleOnFeature(String uid, String roleName) {
-        Util.assertHasLength(roleName);
-        Feature feat = read(uid);
-        if (feat.getPermissions() != null && !feat.getPermissions().contains(roleName)) {
-            Transaction tx = graphDb.beginTx();
-            Map<String, Object> paramUID = new HashMap<>();
-            paramUID.put("uid", uid);
-            paramUID.put("roleName", roleName);
-            graphDb.execute(QUERY_CYPHER_ADD_ROLE, paramUID);
+    public void update(Feature fp) {
+        Util.assertNotNull(fp);
+        Util.assertHasLength(fp.getUid());
+        try (Transaction tx = graphDb.beginTx()) {
+            // Leave previous group if changed, delete it when empty
+            Map < String, Object > groupParams = params(PARAM_UID, fp.getUid());
+            groupParams.put(PARAM_GROUPNAME, Util.hasLength(fp.getGroup()) ? fp.getGroup() : null);
+            execute(QUERY_CYPHER_REMOVEFROMGROUP, groupParams);
+            // Core attributes, strategy, properties and new group
+            Map < String, Object > featureParams = params(PARAM_UID, fp.getUid());
+            featureParams.put(PARAM_FEATURE, fromFeature2Map(fp));
+            if (count(QUERY_CYPHER_UPDATE_FEATURE, featureParams) == 0) {
+                throw new FeatureNotFoundException(fp.getUid());
+            }
             tx.success();
         }
     }
     
     /** {@inheritDoc} */
     @Override
-    public void removeRoleFromFeature(String uid, String roleName) {
-        Util.assertHasLength(roleName);
-        Feature feat = read(uid);
-        if (feat.getPermissions() != null && feat.getPermissions().contains(roleName)) {
-            feat.getPermissions().remove(roleName);
-            String[] roles = feat.getPermissions().toArray(new String[0]);
-            Transaction tx = graphDb.beginTx();
-            Map<String, Object> paramUID = new HashMap<>();
-            paramUID.put("uid", uid);
-            paramUID.put("roles", roles);
-            graphDb.execute(QUERY_CYPHER_UPDATE_ROLE, paramUID);
-            tx.success();
-        }
-    }
-
-    /**
-     * Create, update or delete Flipping Strategy
-     */
-    private void updateFlippingStrategy(Feature fp) {
-        Transaction tx2 = graphDb.beginTx();
-        // Create or update FlippingStrategy (as provided)
-        Map<String, Object> queryParameters = new HashMap<>();
-        queryParameters.put("uid", fp.getUid());
-        if (fp.getFlippingStrategy() != null) {
-            Result flippingNode = graphDb.execute(QUERY_CYPHER_GET_FLIPPINGSTRATEGY, queryParameters);
-            if (flippingNode.hasNext()) {
-                graphDb.execute(createUpdateFlippingStrategy(fp));
-            } else {
-                graphDb.execute(createQueryFlippingStrategy(fp));
-            }
-        } else {
-            // Delete flipping strategy if exist (as null)
-            graphDb.execute(QUERY_CYPHER_DELETE_STRATEGY_FEATURE, queryParameters);
-        }
-        tx2.success();
-    }
-    
-    /**
-     * Update group attribute of feature.
-     *
-     * @param fp
-     *      target feature
-     */
-    private void updateGroups(Feature fp) {
-        // Group
-        String oldGroupName = getCurrentGroupName(fp.getUid());
-        if ((oldGroupName != null) && (fp.getGroup() == null)) {
-            removeFromGroup(fp.getUid(), oldGroupName);
-        }
-        if (fp.getGroup() != null && fp.getGroup().length() > 0) {
-            // group already existed and has been changed
-            if (oldGroupName != null && !oldGroupName.equalsIgnoreCase(fp.getGroup())) {
-                removeFromGroup(fp.getUid(), oldGroupName);
-            }
-            // No group before or a new group, different from before
-            if (oldGroupName == null || !oldGroupName.equalsIgnoreCase(fp.getGroup())) {
-                addToGroup(fp.getUid(), fp.getGroup());
+    public void delete(String uid) {
+        Util.assertHasLength(uid);
+        try (Transaction tx = graphDb.beginTx()) {
+            if (count(QUERY_CYPHER_EXISTS, params(PARAM_UID, uid)) == 0) {
+                throw new FeatureNotFoundException(uid);
             }
+            execute(QUERY_CYPHER_DELETE_FEATURES, params(PARAM_UIDS, new String[] {uid}));
+            tx.success();
         }
     }
     
     /** {@inheritDoc} */
     @Override
-    public void update(Feature fp) {
-        Util.assertNotNull(fp);
-        Util.assertHasLength(fp.getUid());
-        // Check existence
-        read(fp.getUid());
-
-        // Create or update core Feature as a first TX
-        Transaction tx = graphDb.beginTx();
-        graphDb.execute(createUpdateCoreFeature(fp));
-        tx.success();
-        
-        // Create, update or delete Flipping Strategy
-        updateFlippingStrategy(fp);
-
-        // Update groups
-        updateGroups(fp);
-
-        // Properties
-        Transaction tx3 = graphDb.beginTx();
-        Map<String, Object> paramUID = new HashMap<>();
-        paramUID.put("uid", fp.getUid());
-        graphDb.execute(QUERY_CYPHER_DELETE_PROPERTIES_FEATURE, paramUID);
-        tx3.success();
-        
-        if (fp.getCustomProperties() != null && fp.getCustomProperties().size() > 0) {
-            for (String pName : fp.getCustomProperties().keySet()) {
-                createProperty(fp.getProperty(pName), fp.getUid());
-            }
-        }
-    }
-    
-    private void createProperty(Property<?> pro, String featureName) {
-        StringBuilder cypherCreate = new StringBuilder("MATCH  (f:FF4J_FEATURE {uid:'" + featureName + "'} ) ");
-        cypherCreate.append("CREATE (p:" + FF4jNeo4jLabels.FF4J_FEATURE_PROPERTY + " { name :'");
-        cypherCreate.append(pro.getName());
-        cypherCreate.append("', type:'");
-        cypherCreate.append(pro.getType());
-        cypherCreate.append("', value:'");
-        cypherCreate.append(pro.getValue());
-        cypherCreate.append("', fixedValues:[");
-        if (pro.getFixedValues() != null && !pro.getFixedValues().isEmpty()) {
-            boolean first = true;
-            for (Object fix : pro.getFixedValues()) {
-                if (!first) {
-                    cypherCreate.append(",");
+    public ImportReport importFeatures(Collection<Feature> features) {
+        ImportReport report = new ImportReport();
+        Map < String, Feature > toImport = prepareImport(features, report);
+        if (toImport.isEmpty()) {
+            return report;
+        }
+        List < String > uids = new ArrayList<>(toImport.keySet());
+        List < Map < String, Object > > featureParams = new ArrayList<>();
+        for (Feature feature : toImport.values()) {
+            featureParams.add(fromFeature2Map(feature));
+        }
+        // Existing features are replaced : three statements for the whole collection, all or nothing
+        Set < String > existing = new HashSet<>();
+        try (Transaction tx = graphDb.beginTx()) {
+            try (Result result = graphDb.execute(QUERY_CYPHER_EXISTING_UIDS, params(PARAM_UIDS, uids))) {
+                while (result.hasNext()) {
+                    existing.add((String) result.next().get(PARAM_UID));
                 }
-                cypherCreate.append("'" + fix.toString() + "'");
-                first = false;
             }
-        }
-        cypherCreate.append("]");
-        if (pro.getDescription() != null && pro.getDescription().length() > 0) {
-            cypherCreate.append(", description:'");
-            cypherCreate.append(pro.getDescription());
-            cypherCreate.append("'");
-        }
-        cypherCreate.append("})-[:" + FF4jNeo4jRelationShips.PROPERTY_OF + "]->(f);");
-        Transaction tx = graphDb.beginTx();
-        graphDb.execute(cypherCreate.toString());
-        tx.success();
-    }
-
-    private String getCurrentGroupName(String uid) {
-        String groupName = null;
-        Transaction tx = graphDb.beginTx();
-        Map<String, Object> queryParameters = new HashMap<>();
-        queryParameters.put("uid", uid);
-        Result result = graphDb.execute(QUERY_CYPHER_GETGROUPNAME, queryParameters);
-        if (result.hasNext()) {
-            groupName = (String) result.next().get(GROUPNAME);
-        }
-        tx.success();
-        return groupName;
-    }
-
-    private String createQueryFlippingStrategy(Feature fp) {
-        String fsCreateQuery = "MATCH  (f:FF4J_FEATURE {uid:'" + fp.getUid() + "'}) ";
-        fsCreateQuery += "CREATE (fs:FF4J_FLIPPING_STRATEGY { type:'";
-        fsCreateQuery += fp.getFlippingStrategy().getClass().getName();
-        fsCreateQuery += "', initParams: [";
-        Map < String, String > initParams = fp.getFlippingStrategy().getInitParams();
-        if (initParams != null && initParams.size() > 0) {
-            boolean first = true;
-            for (Map.Entry < String, String > entry : initParams.entrySet()) {
-                if (!first) {
-                    fsCreateQuery += ",";
-                }
-                fsCreateQuery += "'" + entry.getKey() + "=" + entry.getValue() + "'";
-                first = false;
+            execute(QUERY_CYPHER_DELETE_FEATURES, params(PARAM_UIDS, uids));
+            execute(QUERY_CYPHER_CREATE_FEATURES, params(PARAM_FEATURES, featureParams));
+            tx.success();
+        } catch (RuntimeException error) {
+            for (String uid : uids) {
+                report.failed(uid, error);
             }
+            return report;
         }
-        fsCreateQuery += "]})-[:" + FF4jNeo4jRelationShips.STRATEGY_OF + "]->(f);";
-        return fsCreateQuery;
-    }
-        
-    private String createQueryNewCoreFeature(Feature fp) {
-        StringBuilder cypherCreate = new StringBuilder("CREATE (");
-        cypherCreate.append("f:" + FF4jNeo4jLabels.FF4J_FEATURE + " { uid :'");
-        cypherCreate.append(fp.getUid());
-        cypherCreate.append("', enable:");
-        cypherCreate.append(fp.isEnable());
-        if (fp.getDescription() != null && fp.getDescription().length() > 0) {
-            cypherCreate.append(", description:'");
-            cypherCreate.append(fp.getDescription());
-            cypherCreate.append("'");
-        }
-        if (fp.getPermissions() != null && fp.getPermissions().size() > 0) {
-            cypherCreate.append(", roles: [");
-            boolean first = true;
-            for(String role : fp.getPermissions()) {
-               if (!first) {
-                   cypherCreate.append(",");
-               }
-               cypherCreate.append("'" + role + "'");
-               first = false;
+        for (String uid : uids) {
+            if (existing.contains(uid)) {
+                report.updated(uid);
+            } else {
+                report.created(uid);
             }
-            cypherCreate.append("]");
         }
-        cypherCreate.append("});");
-        return cypherCreate.toString();
+        return report;
     }
     
-    private String createUpdateCoreFeature(Feature fp) {
-        StringBuilder cypherUpdate = new StringBuilder("MATCH (f:" + FF4jNeo4jLabels.FF4J_FEATURE + " { uid:'");
-        cypherUpdate.append(fp.getUid());
-        cypherUpdate.append("' }) ");
-        cypherUpdate.append("SET f.enable = " + fp.isEnable());
-        if (fp.getDescription() != null && fp.getDescription().length() > 0) {
-            cypherUpdate.append(", f.description = '");
-            cypherUpdate.append(fp.getDescription());
-            cypherUpdate.append("'");
-        }
-        if (fp.getPermissions() != null && fp.getPermissions().size() > 0) {
-            cypherUpdate.append(", f.roles = [");
-            boolean first = true;
-            for(String role : fp.getPermissions()) {
-               if (!first) {
-                   cypherUpdate.append(",");
-               }
-               cypherUpdate.append("'" + role + "'");
-               first = false;
-            }
-            cypherUpdate.append("]");
-        } else {
-            // AS role is null
-            cypherUpdate.append(", f.roles = []");
-        }
-        cypherUpdate.append(";");
-        return cypherUpdate.toString();
-    }
-  
-    private String createUpdateFlippingStrategy(Feature fp) {
-        String queryUpdate = "MATCH (f:" + FF4jNeo4jLabels.FF4J_FEATURE + " { uid: '";
-        queryUpdate += fp.getUid() + "' })--(s:FF4J_FLIPPING_STRATEGY) ";
-        queryUpdate += "SET s.type='";
-        queryUpdate += fp.getFlippingStrategy().getClass().getName();
-        queryUpdate += "', s.initParams= [";
-        Map < String, String > initParams = fp.getFlippingStrategy().getInitParams();
-            if (initParams != null && initParams.size() > 0) {
-            boolean first = true;
-            for (Map.Entry < String, String > entry : initParams.entrySet()) {
-                if (!first) {
-                    queryUpdate += ",";
-                }
-                queryUpdate += "'" + entry.getKey() + "=" + entry.getValue() + "'";
-                first = false;
-            }
-        }
-        queryUpdate += "];";
-        return queryUpdate;
+    /** {@inheritDoc} */
+    @Override
+    public void grantRoleOnFeature(String uid, String roleName) {
+        Util.assertHasLength(roleName);
+        Map < String, Object > params = params(PARAM_UID, uid);
+        params.put(PARAM_ROLENAME, roleName);
+        updateFeature(uid, QUERY_CYPHER_ADD_ROLE, params);
     }
     
     /** {@inheritDoc} */
     @Override
-    public void create(Feature fp) {
-        if (fp == null) {
-            throw new IllegalArgumentException("Feature cannot be null nor empty");
-        }
-        if (exist(fp.getUid())) {
-            throw new FeatureAlreadyExistException(fp.getUid());
-        }
-        Transaction tx = graphDb.beginTx();
-        // Create core
-        graphDb.execute(createQueryNewCoreFeature(fp));
-
-        // Create Flipping Strategy
-        if (fp.getFlippingStrategy() != null) {
-            graphDb.execute(createQueryFlippingStrategy(fp));
-        }
-
-        // Create Group
-        if (fp.getGroup() != null && !"".equals(fp.getGroup())) {
-            addToGroup(fp.getUid(), fp.getGroup());
-        }
-
-        tx.success();
-        // Create Properties
-        if (fp.getCustomProperties() != null && fp.getCustomProperties().size() > 0) {
-            for (String pName : fp.getCustomProperties().keySet()) {
-                createProperty(fp.getProperty(pName), fp.getUid());
-            }
-        }
+    public void removeRoleFromFeature(String uid, String roleName) {
+        Util.assertHasLength(roleName);
+        Map < String, Object > params = params(PARAM_UID, uid);
+        params.put(PARAM_ROLENAME, roleName);
+        updateFeature(uid, QUERY_CYPHER_REMOVE_ROLE, params);
     }
 
     // ---------------- GROUPS -------------------
@@ -511,78 +272,48 @@ public class FeatureStoreNeo4J extends AbstractFeatureStore {
     @Override
     public boolean existGroup(String groupName) {
         Util.assertHasLength(groupName);
-        Map < String, Object > queryParameters = new HashMap<>();
-        queryParameters.put(GROUP_NAME, groupName);
-        Result result = graphDb.execute(QUERY_CYPHER_EXISTS_GROUP,  queryParameters);
-        Object count = null;
-        if (result.hasNext()) {
-            count = result.next().get(QUERY_CYPHER_ALIAS);
+        try (Transaction tx = graphDb.beginTx()) {
+            long count = count(QUERY_CYPHER_EXISTS_GROUP, params(PARAM_GROUPNAME, groupName));
+            tx.success();
+            return count > 0;
         }
-        return (null != count) && (((long) count) > 0);
     }
     
     /** {@inheritDoc} */
     @Override
     public Map<String, Feature> readGroup(String groupName) {
-        assertGroupExist(groupName);
-        Map<String, Feature> allFeatures = readAll();
-        Map<String, Feature> groupFeatures = new HashMap<>();
-        Transaction tx = graphDb.beginTx();
-        Map<String, Object> paramGroupName = new HashMap<>();
-        paramGroupName.put(GROUP_NAME, groupName);
-        Result result = graphDb.execute(QUERY_CYPHER_READ_FEATURES_OF_GROUP, paramGroupName);
-        while (result.hasNext()) {
-            String member = (String) result.next().get("UID");
-            groupFeatures.put(member, allFeatures.get(member));
+        Util.assertHasLength(groupName);
+        try (Transaction tx = graphDb.beginTx()) {
+            // Groups without members are deleted : no feature means no group
+            Map < String, Feature > features = readFeatures(QUERY_CYPHER_READ_GROUP, params(PARAM_GROUPNAME, groupName));
+            tx.success();
+            if (features.isEmpty()) {
+                throw new GroupNotFoundException(groupName);
+            }
+            return features;
         }
-        tx.success();
-        return groupFeatures;
     }
     
     /** {@inheritDoc} */
     @Override
     public void enableGroup(String groupName) {
-        assertGroupExist(groupName);
-        Transaction tx = graphDb.beginTx();
-        Map<String, Object> paramGroupName = new HashMap<>();
-        paramGroupName.put(GROUP_NAME, groupName);
-        graphDb.execute(QUERY_CYPHER_ENABLE_GROUP, paramGroupName);
-        tx.success();
+        updateGroup(groupName, QUERY_CYPHER_ENABLE_GROUP);
     }
 
     /** {@inheritDoc} */
     @Override
     public void disableGroup(String groupName) {
-        assertGroupExist(groupName);
-        Transaction tx = graphDb.beginTx();
-        Map<String, Object> paramGroupName = new HashMap<>();
-        paramGroupName.put(GROUP_NAME, groupName);
-        graphDb.execute(QUERY_CYPHER_DISABLE_GROUP, paramGroupName);
-        tx.success();
+        updateGroup(groupName, QUERY_CYPHER_DISABLE_GROUP);
     }
    
     /** {@inheritDoc} */
     @Override
     public void addToGroup(String uid, String groupName) {
-        assertFeatureExist(uid);
         Util.assertHasLength(groupName);
-
-        // Create group if not exist
-        if (!existGroup(groupName)) {
-            Transaction tx = graphDb.beginTx();
-            String createGroup = "CREATE (" + groupName + ":" + FF4jNeo4jLabels.FF4J_FEATURE_GROUP;
-            createGroup += " { name:'" + groupName + "' });";
-            graphDb.execute(createGroup);
-            tx.success();
-        }
-
-        // Create relation ship (work with indexes)
-        Transaction tx = graphDb.beginTx();
-        Map<String, Object> params = new HashMap<>();
-        params.put("uid", uid);
-        params.put(GROUP_NAME, groupName);
-        graphDb.execute(QUERY_CYPHER_ADDTO_GROUP, params);
-        tx.success();
+        Map < String, Object > params = params(PARAM_UID, uid);
+        params.put(PARAM_GROUPNAME, groupName);
+        // Group is created if it does not exist
+        updateFeature(uid, QUERY_CYPHER_ADDTO_GROUP, params);
     }
 
     /** {@inheritDoc} */
@@ -590,50 +321,162 @@ public class FeatureStoreNeo4J extends AbstractFeatureStore {
     public void removeFromGroup(String uid, String groupName) {
         assertFeatureExist(uid);
         assertGroupExist(groupName);
-        Transaction tx = graphDb.beginTx();
-        Map < String, Object > params = new HashMap<>();
-        params.put("uid", uid);
-        graphDb.execute(QUERY_CYPHER_REMOVEFROMGROUP, params);
-        tx.success();
-        
-        // Delete node group if not more feature on it
-        deleteOrphanGroups();
+        Map < String, Object > params = params(PARAM_UID, uid);
+        params.put(PARAM_GROUPNAME, null);
+        try (Transaction tx = graphDb.beginTx()) {
+            // Group is deleted with its last member
+            execute(QUERY_CYPHER_REMOVEFROMGROUP, params);
+            tx.success();
+        }
     }
 
     /** {@inheritDoc} */
     @Override
     public Set<String> readAllGroups() {
-        Result result = graphDb.execute(QUERY_READ_GROUPS);
         Set < String > response = new HashSet<>();
-        while (result.hasNext()) {
-            response.add((String) result.next().get(GROUPNAME));
+        try (Transaction tx = graphDb.beginTx(); Result result = graphDb.execute(QUERY_READ_GROUPS)) {
+            while (result.hasNext()) {
+                response.add((String) result.next().get(GROUPNAME));
+            }
+            tx.success();
         }
         return response;
     }
     
-   
+    /** {@inheritDoc} */
+    @Override
+    public void clear() {
+        try (Transaction tx = graphDb.beginTx()) {
+            execute(QUERY_CYPHER_DELETE_ALLFEATURE, new HashMap<String, Object>());
+            tx.success();
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public void createSchema() {
+        try (Transaction tx = graphDb.beginTx() ) {
+            if (!graphDb.schema().getConstraints(FF4jNeo4jLabels.FF4J_FEATURE).iterator().hasNext()) {
+                graphDb.schema().constraintFor(FF4jNeo4jLabels.FF4J_FEATURE)//
+                        .assertPropertyIsUnique(NODEFEATURE_ATT_UID)//
+                        .create();
+            }
+            if (!graphDb.schema().getConstraints(FF4jNeo4jLabels.FF4J_FEATURE_GROUP).iterator().hasNext()) {
+                graphDb.schema().constraintFor(FF4jNeo4jLabels.FF4J_FEATURE_GROUP)//
+                    .assertPropertyIsUnique(NODEGROUP_ATT_NAME )//
+                    .create();
+            }
+            tx.success();
+        }
+    }
+    
+    /**
+     * Update a feature with a statement returning the number of matched features.
+     *
+     * @param uid
+     *      feature identifier
+     * @param cypher
+     *      update statement
+     * @param params
+     *      statement parameters
+     */
+    private void updateFeature(String uid, String cypher, Map < String, Object > params) {
+        Util.assertHasLength(uid);
+        try (Transaction tx = graphDb.beginTx()) {
+            if (count(cypher, params) == 0) {
+                throw new FeatureNotFoundException(uid);
+            }
+            tx.success();
+        }
+    }
+    
+    /**
+     * Update members of a group with a statement returning the number of matched features.
+     *
+     * @param groupName
+     *      group name
+     * @param cypher
+     *      update statement
+     */
+    private void updateGroup(String groupName, String cypher) {
+        Util.assertHasLength(groupName);
+        try (Transaction tx = graphDb.beginTx()) {
+            if (count(cypher, params(PARAM_GROUPNAME, groupName)) == 0) {
+                throw new GroupNotFoundException(groupName);
+            }
+            tx.success();
+        }
+    }
     
     /**
-     * Common behaviour to add a result to the feature list.
-     * 
-     * @param response
-     *      target response
-     * @param allFeatures
-     *      target feature
+     * Read features, one row per feature with its neighbours.
+     *
+     * @param cypher
+     *      read statement
+     * @param params
+     *      statement parameters
+     * @return
+     *      features by uid
      */
-    private void addToFeatureList(Map < String, Object > response,  Map<String, Feature> allFeatures) {
-        Node nodeFeature = (Node) response.get("f");
-        String uid = (String) nodeFeature.getProperty(NODEFEATURE_ATT_UID);
-        // first time meeting this uid, create core Feature object from 'f'
-        if (!allFeatures.containsKey(uid)) {
-            Feature currentFeature = fromNode2Feature(nodeFeature);
-            allFeatures.put(currentFeature.getUid(), currentFeature);
+    private Map < String, Feature > readFeatures(String cypher, Map < String, Object > params) {
+        Map < String, Feature > features = new LinkedHashMap<>();
+        try (Result result = graphDb.execute(cypher, params)) {
+            while (result.hasNext()) {
+                Map < String, Object > row = result.next();
+                Feature feature = fromNode2Feature((Node) row.get(COL_FEATURE));
+                for (Object neighbour : (Collection<?>) row.get(COL_NEIGHBOURS)) {
+                    addNeighBour2Feature(feature, (Node) neighbour);
+                }
+                features.put(feature.getUid(), feature);
+            }
         }
-        if (null != response.get("all")) {
-            addNeighBour2Feature(allFeatures.get(uid), (Node) response.get("all"));
+        return features;
+    }
+    
+    /**
+     * Run a statement returning a count.
+     *
+     * @param cypher
+     *      statement
+     * @param params
+     *      statement parameters
+     * @return
+     *      count
+     */
+    private long count(String cypher, Map < String, Object > params) {
+        try (Result result = graphDb.execute(cypher, params)) {
+            return result.hasNext() ? (long) result.next().get(QUERY_CYPHER_ALIAS) : 0L;
         }
     }
     
+    /**
+     * Run a statement without result.
+     *
+     * @param cypher
+     *      statement
+     * @param params
+     *      statement parameters
+     */
+    private void execute(String cypher, Map < String, Object > params) {
+        graphDb.execute(cypher, params).close();
+    }
+    
+    /**
+     * Parameters of a statement.
+     *
+     * @param name
+     *      first parameter name
+     * @param value
+     *      first parameter value
+     * @return
+     *      modifiable parameters
+     */
+    private static Map < String, Object > params(String name, Object value) {
+        Map < String, Object > params = new HashMap<>();
+        params.put(name, value);
+        return params;
+    }
+    
     /**
      * Parse node related to feature and create sub component.
      *
@@ -664,52 +507,6 @@ public class FeatureStoreNeo4J extends AbstractFeatureStore {
             }
         }
     }
-    
-    /**
-     * Delete orphan groups.
-     */
-    private void deleteOrphanGroups() {
-        Set < String > groupNames = readAllGroups();
-        for (String groupName : groupNames) {
-            Map < String, Object > paramGroupName = new HashMap<>();
-            paramGroupName.put(GROUP_NAME, groupName);
-            Result result = graphDb.execute(QUERY_CYPHER_COUNT_FEATURE_OF_GROUP, paramGroupName);
-            if (result.hasNext()) {
-                long nbFeature = (long) result.next().get(QUERY_CYPHER_ALIAS);
-                if (nbFeature == 0) {
-                    // This is the last feature of this Group => delete the GROUP
-                    graphDb.execute(QUERY_CYPHER_DELETE_GROUP, paramGroupName );
-                }
-            }
-        }
-    }
-    
-    /** {@inheritDoc} */
-    @Override
-    public void clear() {
-        Transaction tx = graphDb.beginTx();
-        graphDb.execute(QUERY_CYPHER_DELETE_ALLFEATURE);
-        graphDb.execute(QUERY_CYPHER_DELETE_ALLSINGLEFEATURE);
-        tx.success();
-    }
-    
-    /** {@inheritDoc} */
-    @Override
-    public void createSchema() {
-        try (Transaction tx = graphDb.beginTx() ) {
-            if (!graphDb.schema().getConstraints(FF4jNeo4jLabels.FF4J_FEATURE).iterator().hasNext()) {
-                graphDb.schema().constraintFor(FF4jNeo4jLabels.FF4J_FEATURE)//
-                        .assertPropertyIsUnique(NODEFEATURE_ATT_UID)//
-                        .create();
-            }
-            if (!graphDb.schema().getConstraints(FF4jNeo4jLabels.FF4J_FEATURE_GROUP).iterator().hasNext()) {
-                graphDb.schema().constraintFor(FF4jNeo4jLabels.FF4J_FEATURE_GROUP)//
-                    .assertPropertyIsUnique(NODEGROUP_ATT_NAME )//
-                    .create();
-            }
-            tx.success();
-        }
-    }
 
     /**
      * Getter accessor for attribute 'graphDb'.
@@ -27,7 +27,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.ff4j.exception.PropertyAlreadyExistException;
-import org.ff4j.neo4j.FF4jNeo4jLabels;
+import org.ff4j.exception.PropertyNotFoundException;
 import org.ff4j.neo4j.mapper.Neo4jMapper;
 import org.ff4j.property.Property;
 import org.ff4j.property.store.AbstractPropertyStore;
@@ -65,14 +65,12 @@ public class PropertyStoreNeo4j extends AbstractPropertyStore {
     /** {@inheritDoc} */
     public boolean existProperty(String name) {
         Util.assertHasLength(name);
-        Map < String, Object > queryParameters = new HashMap<>();
-        queryParameters.put("name", name);
-        Result result = graphDb.execute(QUERY_CYPHER_EXISTS_PROPERTY,  queryParameters);
-        Object count = null;
-        if (result.hasNext()) {
-            count = result.next().get(QUERY_CYPHER_ALIAS);
+        try (Transaction tx = graphDb.beginTx();
+             Result result = graphDb.execute(QUERY_CYPHER_EXISTS_PROPERTY, params(NODEPROPERTY_ATT_NAME, name))) {
+            Object count = result.hasNext() ? result.next().get(QUERY_CYPHER_ALIAS) : null;
+            tx.success();
+            return (null != count) && (((long) count) > 0);
         }
-        return (null != count) && (((long) count) > 0);
     }
 
     /** {@inheritDoc} */
@@ -82,114 +80,122 @@ public class PropertyStoreNeo4j extends AbstractPropertyStore {
         if (existProperty(ap.getName())) {
             throw new PropertyAlreadyExistException(ap.getName());
         }
-        StringBuilder cypherCreate = new StringBuilder();
-        cypherCreate.append("CREATE (p:" + FF4jNeo4jLabels.FF4J_PROPERTY + " { name :'");
-        cypherCreate.append(ap.getName());
-        cypherCreate.append("', type:'");
-        cypherCreate.append(ap.getType());
-        cypherCreate.append("', value:'");
-        cypherCreate.append(ap.getValue());
-        cypherCreate.append("', fixedValues:[");
-        if (ap.getFixedValues() != null && !ap.getFixedValues().isEmpty()) {
-            boolean first = true;
-            for (Object fix : ap.getFixedValues()) {
-                if (!first) {
-                    cypherCreate.append(",");
-                }
-                cypherCreate.append("'" + fix.toString() + "'");
-                first = false;
-            }
-        }
-        cypherCreate.append("]");
-        if (ap.getDescription() != null && ap.getDescription().length() > 0) {
-            cypherCreate.append(", description:'");
-            cypherCreate.append(ap.getDescription());
-            cypherCreate.append("'");
+        try (Transaction tx = graphDb.beginTx()) {
+            execute(QUERY_CYPHER_CREATE_PROPERTY, params(PARAM_PROPERTY, Neo4jMapper.fromProperty2Map(ap)));
+            tx.success();
         }
-        cypherCreate.append("});");
-        Transaction tx = graphDb.beginTx();
-        graphDb.execute(cypherCreate.toString());
-        tx.success();
     }
 
     /** {@inheritDoc} */
     public Property<?> readProperty(String name) {
-        assertPropertyExist(name);
-        Property<?> pro;
-        Transaction tx = graphDb.beginTx();
-        Map<String, Object> queryParameters = new HashMap<>();
-        queryParameters.put("name", name);
-        Result result = graphDb.execute(QUERY_CYPHER_READ_PROPERTY, queryParameters);
-        // Property must exist (existProperty executed before) : no JNPE here nor hasNext() tested
-        Node node = (Node) result.next().get("p");
-        pro = Neo4jMapper.fromNode2Property(node);
-        tx.success();
-        return pro;
+        Util.assertHasLength(name);
+        try (Transaction tx = graphDb.beginTx();
+             Result result = graphDb.execute(QUERY_CYPHER_READ_PROPERTY, params(NODEPROPERTY_ATT_NAME, name))) {
+            // Single round trip, no existence check before
+            if (!result.hasNext()) {
+                throw new PropertyNotFoundException(name);
+            }
+            Property<?> pro = Neo4jMapper.fromNode2Property((Node) result.next().get("p"));
+            tx.success();
+            return pro;
+        }
     }
 
     /** {@inheritDoc} */
     public void updateProperty(String name, String newValue) {
-        assertPropertyExist(name);
-        // Check new value validity
+        // Check existence and new value validity
         readProperty(name).fromString(newValue);
-        Transaction tx = graphDb.beginTx();
-        Map<String, Object> queryParameters = new HashMap<>();
-        queryParameters.put("name", name);
-        queryParameters.put("value", newValue);
-        graphDb.execute(QUERY_CYPHER_UPDATE_PROPERTYVALUE, queryParameters);
-        tx.success();
+        Map<String, Object> queryParameters = params(NODEPROPERTY_ATT_NAME, name);
+        queryParameters.put(NODEPROPERTY_ATT_VALUE, newValue);
+        try (Transaction tx = graphDb.beginTx()) {
+            execute(QUERY_CYPHER_UPDATE_PROPERTYVALUE, queryParameters);
+            tx.success();
+        }
     }
 
     /** {@inheritDoc} */
     public <T> void updateProperty(Property<T> prop) {
         Util.assertNotNull(prop);
-        // Delete
-        deleteProperty(prop.getName());
-        // Create
-        createProperty(prop);
+        assertPropertyExist(prop.getName());
+        // Delete and create in the same transaction
+        try (Transaction tx = graphDb.beginTx()) {
+            execute(QUERY_CYPHER_DELETE_PROPERTY, params(NODEPROPERTY_ATT_NAME, prop.getName()));
+            execute(QUERY_CYPHER_CREATE_PROPERTY, params(PARAM_PROPERTY, Neo4jMapper.fromProperty2Map(prop)));
+            tx.success();
+        }
     }
 
     /** {@inheritDoc} */
     public void deleteProperty(String name) {
         assertPropertyExist(name);
-        Map<String, Object> paramUID = new HashMap<>();
-        paramUID.put("name", name);
-        Transaction tx = graphDb.beginTx();
-        // Delete feature
-        graphDb.execute(QUERY_CYPHER_DELETE_PROPERTY, paramUID);
-        tx.success();
+        try (Transaction tx = graphDb.beginTx()) {
+            execute(QUERY_CYPHER_DELETE_PROPERTY, params(NODEPROPERTY_ATT_NAME, name));
+            tx.success();
+        }
     }
 
     /** {@inheritDoc} */
     public Map<String, Property<?>> readAllProperties() {
         Map<String, Property<?>> allProperties = new HashMap<>();
-        Transaction tx = graphDb.beginTx();
-        // Node with relationships
-        Result result = graphDb.execute(QUERY_CYPHER_READ_ALLPROPERTIES);
-        while (result.hasNext()) {
-            Node node = (Node) result.next().get("p");
-            Property<?> current = Neo4jMapper.fromNode2Property(node);
-            allProperties.put(current.getName(), current);
+        try (Transaction tx = graphDb.beginTx();
+             Result result = graphDb.execute(QUERY_CYPHER_READ_ALLPROPERTIES)) {
+            while (result.hasNext()) {
+                Node node = (Node) result.next().get("p");
+                Property<?> current = Neo4jMapper.fromNode2Property(node);
+                allProperties.put(current.getName(), current);
+            }
+            tx.success();
         }
-        tx.success();
         return allProperties;
     }
 
     /** {@inheritDoc} */
     public Set<String> listPropertyNames() {
-        Result result = graphDb.execute(QUERY_READ_PROPERTYNAMES);
         Set < String > response = new HashSet<>();
-        while (result.hasNext()) {
-            response.add((String) result.next().get("NAME"));
+        try (Transaction tx = graphDb.beginTx();
+             Result result = graphDb.execute(QUERY_READ_PROPERTYNAMES)) {
+            while (result.hasNext()) {
+                response.add((String) result.next().get("NAME"));
+            }
+            tx.success();
         }
         return response;
     }
 
     /** {@inheritDoc} */
     public void clear() {
-        Transaction tx = graphDb.beginTx();
-        graphDb.execute(QUERY_CYPHER_DELETE_ALLPROPERTY);
-        tx.success();
+        try (Transaction tx = graphDb.beginTx()) {
+            execute(QUERY_CYPHER_DELETE_ALLPROPERTY, new HashMap<String, Object>());
+            tx.success();
+        }
+    }
+    
+    /**
+     * Run a statement without result.
+     *
+     * @param cypher
+     *      statement
+     * @param params
+     *      statement parameters
+     */
+    private void execute(String cypher, Map < String, Object > params) {
+        graphDb.execute(cypher, params).close();
+    }
+    
+    /**
+     * Initialize parameters with a first value.
+     *
+     * @param name
+     *      parameter name
+     * @param value
+     *      parameter value
+     * @return
+     *      parameters
+     */
+    private static Map < String, Object > params(String name, Object value) {
+        Map < String, Object > params = new HashMap<>();
+        params.put(name, value);
+        return params;
     }
 
     /**
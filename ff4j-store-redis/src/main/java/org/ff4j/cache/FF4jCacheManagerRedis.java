@@ -44,6 +44,9 @@ public class FF4jCacheManagerRedis implements FF4JCacheManager {
     
     /** time to live for cache on top of store. */
     protected int timeToLive = DEFAULT_TTL;
+
+    /** Hit and miss statistics. */
+    private final CacheStatistics statistics = new CacheStatistics();
     
     /**
      * Default constructor
@@ -185,8 +188,10 @@ public class FF4jCacheManagerRedis implements FF4JCacheManager {
             jedis = getJedis();
             String value = jedis.get(KEY_FEATURE + uid);
             if (value != null) {
+                statistics.recordHit();
                 return FeatureJsonParser.parseFeature(value);
             }
+            statistics.recordMiss();
         } finally {
             if (jedis != null) {
                 jedis.close();
@@ -204,8 +209,10 @@ public class FF4jCacheManagerRedis implements FF4JCacheManager {
             jedis = getJedis();
             String value = jedis.get(KEY_PROPERTY + propertyName);
             if (value != null) {
+                statistics.recordHit();
                 return PropertyJsonParser.parseProperty(value);
             }
+            statistics.recordMiss();
         } finally {
             if (jedis != null) {
                 jedis.close();
@@ -236,6 +243,12 @@ public class FF4jCacheManagerRedis implements FF4JCacheManager {
     public Object getPropertyNativeCache() {
         return getJedis();
     } 
+
+    /** {@inheritDoc} */
+    @Override
+    public CacheStatistics getStatistics() {
+        return statistics;
+    }
     
     /**
      * Safe acces to Jedis, avoid JNPE.
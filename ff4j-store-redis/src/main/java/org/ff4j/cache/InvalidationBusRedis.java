@@ -0,0 +1,263 @@
+package org.ff4j.cache;
+
+/*
+ * #%L
+ * ff4j-cache-redis
+ * %%
+ * Copyright (C) 2013 - 2014 Ff4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.ff4j.redis.RedisContants.CHANNEL_INVALIDATION;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.ff4j.cache.InvalidationMessage.Type;
+import org.ff4j.redis.RedisConnection;
+import org.ff4j.utils.Util;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+/**
+ * Implementation of {@link InvalidationBus} with REDIS publish/subscribe.
+ * 
+ * A daemon thread holds a dedicated connection subscribed to the channel. Messages published
+ * while this connection is lost cannot be replayed : when it is restored every listener receives
+ * a full invalidation of features and properties.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class InvalidationBusRedis implements InvalidationBus {
+
+    /** Source of the invalidations sent after a reconnection. */
+    private static final String SOURCE_RECONNECT = "redis-reconnect";
+
+    /** Delay before trying to subscribe again after a connection error. */
+    private static final long RECONNECT_DELAY = 1000;
+
+    /** Wrapping of redis connection (isolation). */
+    private final RedisConnection redisConnection;
+
+    /** Pub/sub channel. */
+    private final String channel;
+
+    /** Registered listeners. */
+    private final List < InvalidationListener > listeners = new CopyOnWriteArrayList<InvalidationListener>();
+
+    /** Current subscription. */
+    private volatile JedisPubSub pubSub;
+
+    /** Subscriber thread. */
+    private Thread subscriber;
+
+    /** Flag to stop subscriber. */
+    private volatile boolean running = false;
+
+    /**
+     * Default channel.
+     *
+     * @param redisConn
+     *      redis connection
+     */
+    public InvalidationBusRedis(RedisConnection redisConn) {
+        this(redisConn, CHANNEL_INVALIDATION);
+    }
+
+    /**
+     * Initialization with channel.
+     *
+     * @param redisConn
+     *      redis connection
+     * @param channel
+     *      pub/sub channel shared by the nodes
+     */
+    public InvalidationBusRedis(RedisConnection redisConn, String channel) {
+        Util.assertNotNull(redisConn);
+        Util.assertHasLength(channel);
+        this.redisConnection = redisConn;
+        this.channel         = channel;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void publish(InvalidationMessage message) {
+        Util.assertNotNull(message);
+        Jedis jedis = null;
+        try {
+            jedis = redisConnection.getJedis();
+            jedis.publish(channel, message.asString());
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void subscribe(InvalidationListener listener) {
+        Util.assertNotNull(listener);
+        listeners.add(listener);
+        startSubscriber();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void unsubscribe(InvalidationListener listener) {
+        listeners.remove(listener);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void close() {
+        running = false;
+        listeners.clear();
+        if (pubSub != null && pubSub.isSubscribed()) {
+            pubSub.unsubscribe();
+        }
+        subscriber = null;
+    }
+
+    /**
+     * Start the subscriber thread if needed.
+     */
+    private synchronized void startSubscriber() {
+        if (subscriber != null) {
+            return;
+        }
+        running    = true;
+        subscriber = new Thread(new Runnable() {
+            public void run() {
+                listen();
+            }
+        }, "ff4j-invalidation-" + channel);
+        subscriber.setDaemon(true);
+        subscriber.start();
+    }
+
+    /**
+     * Subscribe to the channel until the bus is closed, reconnecting on error.
+     */
+    private void listen() {
+        boolean reconnect = false;
+        while (running) {
+            Jedis jedis = null;
+            try {
+                jedis  = redisConnection.getJedis();
+                pubSub = new RedisListener(reconnect);
+                // Blocking until unsubscribe
+                jedis.subscribe(pubSub, channel);
+            } catch (JedisConnectionException jce) {
+                reconnect = true;
+                pause();
+            } finally {
+                if (jedis != null) {
+                    try {
+                        jedis.close();
+                    } catch (JedisConnectionException ignore) {
+                        // Already broken
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait before reconnecting.
+     */
+    private void pause() {
+        try {
+            Thread.sleep(RECONNECT_DELAY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    /**
+     * Send message to listeners.
+     *
+     * @param message
+     *      invalidation message
+     */
+    private void dispatch(InvalidationMessage message) {
+        for (InvalidationListener listener : listeners) {
+            listener.onInvalidation(message);
+        }
+    }
+
+    /**
+     * Receive messages from the channel.
+     */
+    private class RedisListener extends JedisPubSub {
+
+        /** Subscription follows a connection error. */
+        private final boolean reconnect;
+
+        /**
+         * Constructor.
+         *
+         * @param reconnect
+         *      subscription follows a connection error
+         */
+        private RedisListener(boolean reconnect) {
+            this.reconnect = reconnect;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void onSubscribe(String channel, int subscribedChannels) {
+            if (reconnect) {
+                // Messages may have been lost
+                dispatch(new InvalidationMessage(Type.ALL_FEATURES, SOURCE_RECONNECT, null));
+                dispatch(new InvalidationMessage(Type.ALL_PROPERTIES, SOURCE_RECONNECT, null));
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void onMessage(String channel, String message) {
+            try {
+                dispatch(InvalidationMessage.fromString(message));
+            } catch (IllegalArgumentException iae) {
+                // Not an invalidation message, ignored
+            }
+        }
+    }
+
+    /**
+     * Getter accessor for attribute 'channel'.
+     *
+     * @return
+     *       current value of 'channel'
+     */
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * Getter accessor for attribute 'redisConnection'.
+     *
+     * @return
+     *       current value of 'redisConnection'
+     */
+    public RedisConnection getRedisConnection() {
+        return redisConnection;
+    }
+
+}
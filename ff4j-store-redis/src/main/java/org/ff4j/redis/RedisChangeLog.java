@@ -0,0 +1,292 @@
+package org.ff4j.redis;
+
+/*
+ * #%L
+ * ff4j-store-redis
+ * %%
+ * Copyright (C) 2013 - 2016 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+
+/**
+ * Change-feed of a Redis store : a version counter (INCR) and a capped log (RPUSH + LTRIM) of
+ * entries 'version:identifier'.
+ *
+ * A writer reserves its versions before opening its pipeline, and the entry is pushed after the data
+ * in the same pipeline. Entries can therefore reach the log out of order, or not yet be there when
+ * the counter already moved : the feed only moves forward over contiguous versions. When the
+ * requested version is older than the retained window, the caller must return a snapshot.
+ *
+ * Only commands supported by simple servers are used (no MULTI, EVAL).
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class RedisChangeLog {
+
+    /** Default number of entries kept in the log. */
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    /** Entries read beyond the expected ones, writers can push out of order. */
+    private static final int READ_SLACK = 16;
+
+    /** Separator of version and identifier in entries. */
+    private static final char SEPARATOR = ':';
+
+    /** Key of the log (list). */
+    private final String logKey;
+
+    /** Key of the version counter. */
+    private final String versionKey;
+
+    /** Number of entries kept in the log. */
+    private final int maxSize;
+
+    /**
+     * Parameterized constructor.
+     *
+     * @param logKey
+     *      key of the log (list)
+     * @param versionKey
+     *      key of the version counter
+     * @param maxSize
+     *      number of entries kept in the log
+     */
+    public RedisChangeLog(String logKey, String versionKey, int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Size of the change log must be positive");
+        }
+        this.logKey     = logKey;
+        this.versionKey = versionKey;
+        this.maxSize    = maxSize;
+    }
+
+    /**
+     * Reserve versions for writes, to be called before opening the pipeline.
+     *
+     * @param jedis
+     *      current connection
+     * @param count
+     *      number of entries to record
+     * @return
+     *      first reserved version
+     */
+    public long reserve(Jedis jedis, int count) {
+        return jedis.incrBy(versionKey, count) - count + 1;
+    }
+
+    /**
+     * Record a change, after the data in the pipeline.
+     *
+     * @param pipe
+     *      current pipeline
+     * @param version
+     *      reserved version
+     * @param uid
+     *      item identifier
+     */
+    public void record(Pipeline pipe, long version, String uid) {
+        pipe.rpush(logKey, version + String.valueOf(SEPARATOR) + uid);
+        pipe.ltrim(logKey, -maxSize, -1);
+    }
+
+    /**
+     * Next version to read for a snapshot taken now (read the counter before the content).
+     *
+     * @param jedis
+     *      current connection
+     * @return
+     *      version to give to the next call
+     */
+    public long snapshotVersion(Jedis jedis) {
+        return currentVersion(jedis) + 1;
+    }
+
+    /**
+     * Identifiers changed since a version.
+     *
+     * @param jedis
+     *      current connection
+     * @param since
+     *      first version to read
+     * @return
+     *      changes, null if a snapshot is required (first call, counter reset, trimmed entries)
+     */
+    public Changes read(Jedis jedis, long since) {
+        long current = currentVersion(jedis);
+        if (since < 1 || since > current + 1) {
+            return null;
+        }
+        Changes changes = new Changes();
+        changes.version = since;
+        if (since == current + 1) {
+            return changes;
+        }
+        long expected = current - since + 1;
+        if (expected >= maxSize) {
+            return null;
+        }
+        // Tail of the log, whole log if a version is not found there
+        long size = jedis.llen(logKey);
+        long from = Math.max(0, size - expected - READ_SLACK);
+        List < String > entries = jedis.lrange(logKey, from, size - 1);
+        Map < Long, String > changed = parse(entries, since);
+        long next = contiguous(changed, since);
+        if (next <= current && from > 0) {
+            entries = jedis.lrange(logKey, 0, size - 1);
+            changed = parse(entries, since);
+            next    = contiguous(changed, since);
+        }
+        if (next <= current && entries.size() >= maxSize && next < oldest(entries)) {
+            // Version has been trimmed
+            return null;
+        }
+        changes.version = next;
+        changes.uids.addAll(changed.values());
+        return changes;
+    }
+
+    /**
+     * Current value of the counter.
+     *
+     * @param jedis
+     *      current connection
+     * @return
+     *      last reserved version, 0 if none
+     */
+    private long currentVersion(Jedis jedis) {
+        String value = jedis.get(versionKey);
+        return (value == null) ? 0 : Long.parseLong(value);
+    }
+
+    /**
+     * Entries at or after a version, by version.
+     *
+     * @param entries
+     *      log entries
+     * @param since
+     *      first version
+     * @return
+     *      identifiers by version
+     */
+    private static Map < Long, String > parse(List < String > entries, long since) {
+        Map < Long, String > changed = new HashMap<Long, String>();
+        for (String entry : entries) {
+            long version = versionOf(entry);
+            if (version >= since) {
+                changed.put(version, entry.substring(entry.indexOf(SEPARATOR) + 1));
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Oldest version of the log.
+     *
+     * @param entries
+     *      log entries
+     * @return
+     *      oldest version
+     */
+    private static long oldest(List < String > entries) {
+        long oldest = Long.MAX_VALUE;
+        for (String entry : entries) {
+            long version = versionOf(entry);
+            if (version > 0) {
+                oldest = Math.min(oldest, version);
+            }
+        }
+        return oldest;
+    }
+
+    /**
+     * First version not found, reading from 'since'.
+     *
+     * @param changed
+     *      identifiers by version
+     * @param since
+     *      first version
+     * @return
+     *      first missing version
+     */
+    private static long contiguous(Map < Long, String > changed, long since) {
+        long next = since;
+        while (changed.containsKey(next)) {
+            next++;
+        }
+        return next;
+    }
+
+    /**
+     * Version of an entry.
+     *
+     * @param entry
+     *      log entry
+     * @return
+     *      version, -1 if the entry has no version (written by a former release)
+     */
+    private static long versionOf(String entry) {
+        int idx = entry.indexOf(SEPARATOR);
+        if (idx <= 0) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(entry.substring(0, idx));
+        } catch (NumberFormatException nfe) {
+            return -1;
+        }
+    }
+
+    /**
+     * Identifiers changed since a version.
+     */
+    public static class Changes {
+
+        /** Version to give to the next call. */
+        private long version;
+
+        /** Changed identifiers. */
+        private final Set < String > uids = new HashSet<String>();
+
+        /**
+         * Getter accessor for attribute 'version'.
+         *
+         * @return
+         *       current value of 'version'
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Getter accessor for attribute 'uids'.
+         *
+         * @return
+         *       current value of 'uids'
+         */
+        public Set<String> getUids() {
+            return uids;
+        }
+    }
+
+}
@@ -39,12 +39,51 @@ public class RedisContants {
     /** prefix of keys. */
     public static final String KEY_PROPERTY = "FF4J_PROPERTY_";
 
+    /** Set of the group names. */
+    public static final String KEY_FEATURE_GROUPS = "FF4J_FEATURE_GROUPS";
+
+    /** prefix of keys, set of the features of a group. */
+    public static final String KEY_FEATURE_GROUP = "FF4J_FEATURE_GROUP_";
+
+    /** Capped log of changed features, entries 'version:uid'. */
+    public static final String KEY_FEATURE_CHANGES = "FF4J_FEATURE_CHANGES";
+
+    /** Version counter of the feature store. */
+    public static final String KEY_FEATURE_VERSION = "FF4J_FEATURE_VERSION";
+
+    /** Capped log of changed properties, entries 'version:name'. */
+    public static final String KEY_PROPERTY_CHANGES = "FF4J_PROPERTY_CHANGES";
+
+    /** Version counter of the property store. */
+    public static final String KEY_PROPERTY_VERSION = "FF4J_PROPERTY_VERSION";
+
+    /** Maximum number of keys in a single MGET. */
+    public static final int MGET_BATCH_SIZE = 500;
+
+    /** Pub/sub channel for cache invalidations. */
+    public static final String CHANNEL_INVALIDATION = "FF4J_INVALIDATION";
+
     /** prefix of keys. */
     public static final String KEY_EVENT = "FF4J_EVENT_";
 
     /** prefix of keys. */
     public static final String KEY_EVENT_AUDIT = "AUDITRAIL";
 
+    /** prefix of keys, hash of the events of a day (uuid to json). */
+    public static final String KEY_EVENT_DATA = "FF4J_EVENT_DATA_";
+
+    /** prefix of keys, sorted set of the feature usage events of a day (uuid by timestamp). */
+    public static final String KEY_EVENT_USAGE_INDEX = "FF4J_EVENT_USAGE_";
+
+    /** prefix of keys, sorted set of the audit trail events of a day (uuid by timestamp). */
+    public static final String KEY_EVENT_AUDIT_INDEX = "FF4J_EVENT_AUDIT_";
+
+    /** prefix of keys, hash of the hit counters of an hour for a dimension (value to count). */
+    public static final String KEY_EVENT_HITS = "FF4J_EVENT_HITS_";
+
+    /** Number of events read from a sorted set at once. */
+    public static final int EVENT_PAGE_SIZE = 1000;
+
     /** default ttl. */
     public static int DEFAULT_TTL = 900000000;
 
@@ -21,48 +21,79 @@ package org.ff4j.store;
  */
 
 
-import com.fasterxml.jackson.core.JsonParseException;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import static org.ff4j.redis.RedisContants.EVENT_PAGE_SIZE;
+import static org.ff4j.redis.RedisContants.KEY_EVENT_AUDIT_INDEX;
+import static org.ff4j.redis.RedisContants.KEY_EVENT_DATA;
+import static org.ff4j.redis.RedisContants.KEY_EVENT_HITS;
+import static org.ff4j.redis.RedisContants.KEY_EVENT_USAGE_INDEX;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
 import org.ff4j.audit.Event;
 import org.ff4j.audit.EventConstants;
+import org.ff4j.audit.EventIdentity;
 import org.ff4j.audit.EventQueryDefinition;
 import org.ff4j.audit.EventSeries;
 import org.ff4j.audit.MutableHitCount;
+import org.ff4j.audit.chart.Serie;
 import org.ff4j.audit.chart.TimeSeriesChart;
 import org.ff4j.audit.repository.AbstractEventRepository;
 import org.ff4j.redis.RedisConnection;
-import org.ff4j.redis.RedisContants;
 import org.ff4j.utils.Util;
-import redis.clients.jedis.Jedis;
 
-import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.TimeUnit;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
-import static org.ff4j.redis.RedisContants.KEY_EVENT;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.Tuple;
 
 /**
  * Persist audit events into REDIS storage technology.
+ * 
+ * <p>Events are stored as JSON in one hash per day (uuid to json). Feature usage and audit trail
+ * events are indexed by timestamp in one sorted set per day and read page by page. Each feature
+ * usage also increments hit counters per feature, host, user and source in one hash per hour, so
+ * hit counts over whole hours never read the events. Keys can expire after {@link #getTimeToLive()}.</p>
  *
  * @author clunven
  * @author Shridhar Navanageri
  */
 public class EventRepositoryRedis extends AbstractEventRepository {
 
-    public static final int UPPER_LIMIT = 50000;
+    /** One hour in milliseconds. */
+    private static final long HOUR = 3600 * 1000L;
+    
+    /** Value used for counters when the user is unknown. */
+    private static final String ANONYMOUS = "anonymous";
+    
+    /** Value used for counters when the attribute is unknown. */
+    private static final String UNKNOWN = "NA";
     
     /**
      * Wrapping of redis connection (isolation).
      */
     private RedisConnection redisConnection;
 
+    /**
+     * Time to live of keys in seconds, 0 means no expiration.
+     */
+    private int timeToLive = 0;
+
     /**
      * Jackson ObjectMapper for serialization and deserialization purpose.
      */
@@ -80,11 +111,11 @@ public class EventRepositoryRedis extends AbstractEventRepository {
         HOST,
         USER;
     }
-
-    /**
-     * Patternt to create KEY.
-     */
-    private static final SimpleDateFormat SDF_KEY = new SimpleDateFormat("yyyyMMdd");
+    
+    /** Callback for each event read from an index, return false to stop reading. */
+    private interface EventVisitor {
+        boolean visit(Event evt);
+    }
 
     /**
      * Default Constructor.
@@ -131,17 +162,25 @@ public class EventRepositoryRedis extends AbstractEventRepository {
 
     /** {@inheritDoc} */
     public boolean saveEvent(Event evt) {
-        if (evt == null) {
-            throw new IllegalArgumentException("Event cannot be null nor empty");
+        Util.assertEvent(evt);
+        return saveEvents(Collections.singletonList(evt));
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public boolean saveEvents(Collection < Event > events) {
+        if (events == null) {
+            throw new IllegalArgumentException("Events cannot be null");
         }
-
         Jedis jedis = null;
         try {
             jedis = getJedis();
-            long timeStamp = evt.getTimestamp();
-            String hashId = this.getHashKey(evt.getTimestamp(), evt.getAction());
-            evt.setUuid(String.valueOf(timeStamp));
-            jedis.zadd(hashId, timeStamp, objectMapper.writeValueAsString(evt));
+            Pipeline pipe = jedis.pipelined();
+            for (Event evt : events) {
+                Util.assertEvent(evt);
+                writeEvent(pipe, evt);
+            }
+            pipe.sync();
             return true;
         } catch (JsonProcessingException e) {
             // We do not returned false, it will be retried 3 times for nothing, faile immediately
@@ -152,43 +191,84 @@ public class EventRepositoryRedis extends AbstractEventRepository {
             }
         }
     }
-
-    private String getHashKey(long timestamp, String action) {
-        String hashId = KEY_EVENT;
-        if (action != null) {
-            hashId += RedisContants.KEY_EVENT_AUDIT + "_";
+    
+    /**
+     * Queue the commands to store an event : data, index and hit counters.
+     *
+     * @param pipe
+     *      current pipeline
+     * @param evt
+     *      event to store
+     * @throws JsonProcessingException
+     *      cannot serialize event
+     */
+    private void writeEvent(Pipeline pipe, Event evt) throws JsonProcessingException {
+        if (evt.getUuid() == null) {
+            evt.setUuid(EventIdentity.nextId(evt.getTimestamp()));
+        }
+        String day = getKeyDate(evt.getTimestamp());
+        pipe.hset(KEY_EVENT_DATA + day, evt.getUuid(), objectMapper.writeValueAsString(evt));
+        expire(pipe, KEY_EVENT_DATA + day);
+        if (EventConstants.ACTION_CHECK_OK.equalsIgnoreCase(evt.getAction())) {
+            pipe.zadd(KEY_EVENT_USAGE_INDEX + day, evt.getTimestamp(), evt.getUuid());
+            expire(pipe, KEY_EVENT_USAGE_INDEX + day);
+            incrementHits(pipe, evt, 1);
+        } else if (!EventConstants.ACTION_CHECK_OFF.equalsIgnoreCase(evt.getAction())) {
+            pipe.zadd(KEY_EVENT_AUDIT_INDEX + day, evt.getTimestamp(), evt.getUuid());
+            expire(pipe, KEY_EVENT_AUDIT_INDEX + day);
+        }
+    }
+    
+    /**
+     * Update hit counters of the event hour for each dimension.
+     *
+     * @param pipe
+     *      current pipeline
+     * @param evt
+     *      feature usage event
+     * @param delta
+     *      increment (negative when purging)
+     */
+    private void incrementHits(Pipeline pipe, Event evt, long delta) {
+        String hour = getHourKey(getHourStart(evt.getTimestamp()));
+        for (Types type : Types.values()) {
+            String hitsKey = KEY_EVENT_HITS + type.name() + "_" + hour;
+            pipe.hincrBy(hitsKey, getValueFromAttribute(type, evt), delta);
+            if (delta > 0) {
+                expire(pipe, hitsKey);
+            }
+        }
+    }
+    
+    /**
+     * Set time to live of a key if retention is enabled.
+     *
+     * @param pipe
+     *      current pipeline
+     * @param key
+     *      target key
+     */
+    private void expire(Pipeline pipe, String key) {
+        if (timeToLive > 0) {
+            pipe.expire(key, timeToLive);
         }
-        long timeStamp = timestamp;
-        hashId += SDF_KEY.format(new Date(timeStamp));
-        return hashId;
     }
 
     /** {@inheritDoc} */
     @Override
     public Event getEventByUUID(String uuid, Long timestamp) {
         Util.assertHasLength(new String[]{uuid});
-        Event redisEvent = null;
+        long time = (timestamp == null) ? System.currentTimeMillis() : timestamp;
         Jedis jedis = null;
         try {
             jedis = getJedis();
-            String hashKey = getHashKey(timestamp, null);
-            
-            // Check for the event within 100ms time range passed, hoping there won't be more than 10 for this.
-            Set<String> events = jedis.zrangeByScore(hashKey, timestamp - 100L, timestamp + 100L, 0, 10);
-
-            // Loop through the result set and match the timestamp passed in.
-            for (String evt : events) {
-                Event event = marshallEvent(evt);
-                if (timestamp == event.getTimestamp()) {
-                    return event;
-                }
-            }
+            String json = jedis.hget(KEY_EVENT_DATA + getKeyDate(time), uuid);
+            return (json == null) ? null : marshallEvent(json);
         } finally {
             if (jedis != null) {
                 jedis.close();
             }
         }
-        return redisEvent;
     }
     
     private Event marshallEvent(String eventString) {
@@ -227,32 +307,148 @@ public class EventRepositoryRedis extends AbstractEventRepository {
         return getUsageCount(query, Types.SOURCE);
     }
 
-    private Map<String, MutableHitCount> getUsageCount(EventQueryDefinition query, Types type) {
-        Map<String, MutableHitCount> hitCount = new HashMap<>();
-       // Get events from Redis between the time range.
-            Set<String> events = getEventsFromRedis(query);
-            // Loop through create the buckets.
-            for (String event : events) {
-                Event eventObject = marshallEvent(event);
-                String value = getValueFromAttribute(type, eventObject);
-                MutableHitCount mutableHitCount = hitCount.get(value);
-                if (mutableHitCount != null) {
-                    mutableHitCount.inc();
-                } else {
-                    mutableHitCount = new MutableHitCount(1);
+    /**
+     * Count hits : counters for the hours fully within the query, events for the partial hours at the bounds.
+     *
+     * @param query
+     *      current query
+     * @param type
+     *      dimension to count
+     * @return
+     *      hit count per value
+     */
+    private Map<String, MutableHitCount> getUsageCount(final EventQueryDefinition query, final Types type) {
+        final Map<String, MutableHitCount> hitCount = new HashMap<String, MutableHitCount>();
+        EventVisitor counter = new EventVisitor() {
+            public boolean visit(Event evt) {
+                if (query.match(evt)) {
+                    addHits(hitCount, getValueFromAttribute(type, evt), 1);
                 }
-                hitCount.put(value, mutableHitCount);
+                return true;
+            }
+        };
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            long firstHour = getFirstFullHour(query.getFrom());
+            long lastHour  = getHourStart(query.getTo() + 1);
+            if (!isCounterQuery(query, type) || firstHour >= lastHour) {
+                scanEvents(jedis, KEY_EVENT_USAGE_INDEX, query.getFrom(), query.getTo(), counter);
+                return hitCount;
             }
+            scanEvents(jedis, KEY_EVENT_USAGE_INDEX, query.getFrom(), firstHour - 1, counter);
+            for (Map.Entry<Long, Map<String, String>> hourHits : readHits(jedis, type, firstHour, lastHour).entrySet()) {
+                for (Map.Entry<String, String> hit : hourHits.getValue().entrySet()) {
+                    if (type != Types.NAME || query.matchName(hit.getKey())) {
+                        addHits(hitCount, hit.getKey(), Integer.parseInt(hit.getValue()));
+                    }
+                }
+            }
+            scanEvents(jedis, KEY_EVENT_USAGE_INDEX, lastHour, query.getTo(), counter);
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
         return hitCount;
     }
+    
+    /**
+     * Read hit counters of every hour in a single pipeline.
+     *
+     * @param jedis
+     *      current connection
+     * @param type
+     *      dimension
+     * @param firstHour
+     *      start of first hour (included)
+     * @param lastHour
+     *      start of last hour (excluded)
+     * @return
+     *      counters for each hour
+     */
+    private Map<Long, Map<String, String>> readHits(Jedis jedis, Types type, long firstHour, long lastHour) {
+        Map<Long, Response<Map<String, String>>> responses = new HashMap<Long, Response<Map<String, String>>>();
+        Pipeline pipe = jedis.pipelined();
+        for (long hour = firstHour; hour < lastHour; hour = getHourStart(hour + HOUR + HOUR / 2)) {
+            responses.put(hour, pipe.hgetAll(KEY_EVENT_HITS + type.name() + "_" + getHourKey(hour)));
+        }
+        pipe.sync();
+        Map<Long, Map<String, String>> hits = new HashMap<Long, Map<String, String>>();
+        for (Map.Entry<Long, Response<Map<String, String>>> response : responses.entrySet()) {
+            hits.put(response.getKey(), response.getValue().get());
+        }
+        return hits;
+    }
+    
+    /**
+     * Hit counters hold no link between dimensions : only filters on the counted dimension can be applied.
+     *
+     * @param query
+     *      current query
+     * @param type
+     *      dimension to count
+     * @return
+     *      if counters can answer the query
+     */
+    private boolean isCounterQuery(EventQueryDefinition query, Types type) {
+        return query.getActionFilters().isEmpty()
+                && query.getSourceFilters().isEmpty()
+                && query.getHostFilters().isEmpty()
+                && (type == Types.NAME || query.getNamesFilter().isEmpty());
+    }
+    
+    private void addHits(Map<String, MutableHitCount> hitCount, String value, int hits) {
+        MutableHitCount mutableHitCount = hitCount.get(value);
+        if (mutableHitCount == null) {
+            hitCount.put(value, new MutableHitCount(hits));
+        } else {
+            mutableHitCount.incBy(hits);
+        }
+    }
 
     /** {@inheritDoc} */
     @Override
-    public TimeSeriesChart getFeatureUsageHistory(EventQueryDefinition query, TimeUnit tu) {
-        TimeSeriesChart tsc = new TimeSeriesChart(query.getFrom(), query.getTo(), tu);
-        Set<String> events = getEventsFromRedis(query);
-        for (String event : events) {
-            tsc.addEvent(marshallEvent(event));
+    public TimeSeriesChart getFeatureUsageHistory(final EventQueryDefinition query, TimeUnit tu) {
+        final TimeSeriesChart tsc = new TimeSeriesChart(query.getFrom(), query.getTo(), tu);
+        EventVisitor chart = new EventVisitor() {
+            public boolean visit(Event evt) {
+                if (query.match(evt)) {
+                    tsc.addEvent(evt);
+                }
+                return true;
+            }
+        };
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            long firstHour = getFirstFullHour(query.getFrom());
+            long lastHour  = getHourStart(query.getTo() + 1);
+            boolean slotsOfHours = (tu == TimeUnit.HOURS || tu == TimeUnit.DAYS);
+            if (!slotsOfHours || !isCounterQuery(query, Types.NAME) || firstHour >= lastHour) {
+                scanEvents(jedis, KEY_EVENT_USAGE_INDEX, query.getFrom(), query.getTo(), chart);
+                return tsc;
+            }
+            scanEvents(jedis, KEY_EVENT_USAGE_INDEX, query.getFrom(), firstHour - 1, chart);
+            for (Map.Entry<Long, Map<String, String>> hourHits : readHits(jedis, Types.NAME, firstHour, lastHour).entrySet()) {
+                String slot = tsc.getSdf().format(new Date(hourHits.getKey()));
+                for (Map.Entry<String, String> hit : hourHits.getValue().entrySet()) {
+                    if (query.matchName(hit.getKey())) {
+                        if (!tsc.getSeries().containsKey(hit.getKey())) {
+                            tsc.createNewSerie(hit.getKey());
+                        }
+                        Serie < Map < String, MutableHitCount > > serie = tsc.getSeries().get(hit.getKey());
+                        if (serie.getValue().containsKey(slot)) {
+                            serie.getValue().get(slot).incBy(Integer.parseInt(hit.getValue()));
+                        }
+                    }
+                }
+            }
+            scanEvents(jedis, KEY_EVENT_USAGE_INDEX, lastHour, query.getTo(), chart);
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
         }
         return tsc;
     }
@@ -260,24 +456,41 @@ public class EventRepositoryRedis extends AbstractEventRepository {
     /** {@inheritDoc} */
     @Override
     public EventSeries searchFeatureUsageEvents(EventQueryDefinition query) {
-        // Referenced from RDBMS implementation, same usage.
-        return getAuditTrail(query);
+        return searchEvents(KEY_EVENT_USAGE_INDEX, query);
     }
 
     /** {@inheritDoc} */
     @Override
     public EventSeries getAuditTrail(EventQueryDefinition query) {
+        return searchEvents(KEY_EVENT_AUDIT_INDEX, query);
+    }
+    
+    /**
+     * Read events of an index, if the query is pageable only the expected page is returned.
+     *
+     * @param indexPrefix
+     *      prefix of the sorted sets to read
+     * @param query
+     *      current query
+     * @return
+     *      matching events
+     */
+    private EventSeries searchEvents(String indexPrefix, final EventQueryDefinition query) {
+        final EventSeries eventSeries = new EventSeries();
+        final int skip  = query.isPageable() ? query.getPagenumber() * query.getPagesize() : 0;
+        final int limit = query.isPageable() ? query.getPagesize() : Integer.MAX_VALUE;
         Jedis jedis = null;
-        EventSeries eventSeries = new EventSeries();
         try {
             jedis = getJedis();
-            String hashKey = getHashKey(query.getFrom(), EventConstants.ACTION_CHECK_OK);
-            Set<String> events = jedis.zrangeByScore(hashKey, query.getFrom(), query.getTo(), 0, 100);
-            
-            // FIXME: Server side pagination model isn't present? This could be a lot of data.
-            for (String event : events) {
-                eventSeries.add(marshallEvent(event));
-            }
+            scanEvents(jedis, indexPrefix, query.getFrom(), query.getTo(), new EventVisitor() {
+                private int matched = 0;
+                public boolean visit(Event evt) {
+                    if (query.match(evt) && matched++ >= skip && !eventSeries.add(evt)) {
+                        return false;
+                    }
+                    return eventSeries.size() < limit;
+                }
+            });
         } finally {
             if (jedis != null) {
                 jedis.close();
@@ -289,13 +502,170 @@ public class EventRepositoryRedis extends AbstractEventRepository {
     /** {@inheritDoc} */
     @Override
     public void purgeAuditTrail(EventQueryDefinition query) {
-        // TBD: Where is the setting to turn purging on/off and what would be the time range?
+        purgeEvents(KEY_EVENT_AUDIT_INDEX, query, false);
     }
 
     /** {@inheritDoc} */
     @Override
     public void purgeFeatureUsage(EventQueryDefinition query) {
-        // TBD: Where is the setting to turn purging on/off and what would be the time range?
+        purgeEvents(KEY_EVENT_USAGE_INDEX, query, true);
+    }
+    
+    /**
+     * Remove matching events from the index and the data, hit counters are decremented.
+     *
+     * @param indexPrefix
+     *      prefix of the sorted sets to read
+     * @param query
+     *      current query
+     * @param usage
+     *      events are feature usage events (with counters)
+     */
+    private void purgeEvents(String indexPrefix, final EventQueryDefinition query, boolean usage) {
+        final List<Event> purged = new ArrayList<Event>();
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            scanEvents(jedis, indexPrefix, query.getFrom(), query.getTo(), new EventVisitor() {
+                public boolean visit(Event evt) {
+                    if (query.match(evt)) {
+                        purged.add(evt);
+                    }
+                    return true;
+                }
+            });
+            for (int start = 0; start < purged.size(); start += EVENT_PAGE_SIZE) {
+                Pipeline pipe = jedis.pipelined();
+                for (Event evt : purged.subList(start, Math.min(start + EVENT_PAGE_SIZE, purged.size()))) {
+                    String day = getKeyDate(evt.getTimestamp());
+                    pipe.zrem(indexPrefix + day, evt.getUuid());
+                    pipe.hdel(KEY_EVENT_DATA + day, evt.getUuid());
+                    if (usage) {
+                        incrementHits(pipe, evt, -1);
+                    }
+                }
+                pipe.sync();
+            }
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+    
+    /**
+     * Read events of an index between two dates, page by page. Pages are read by rank (ZRANGE) from
+     * the first event at or after the begin time : the order of events sharing a timestamp is stable,
+     * whatever the server does with equal scores in ZRANGEBYSCORE.
+     *
+     * @param jedis
+     *      current connection
+     * @param indexPrefix
+     *      prefix of the sorted sets to read
+     * @param from
+     *      begin time (included)
+     * @param to
+     *      end time (included)
+     * @param visitor
+     *      callback for each event
+     */
+    private void scanEvents(Jedis jedis, String indexPrefix, long from, long to, EventVisitor visitor) {
+        if (from > to) {
+            return;
+        }
+        for (String day : getCandidateDays(from, to)) {
+            String index = indexPrefix + day;
+            long rank = firstRank(jedis, index, from);
+            while (true) {
+                Set<Tuple> page = jedis.zrangeWithScores(index, rank, rank + EVENT_PAGE_SIZE - 1);
+                List<String> uuids = new ArrayList<String>(page.size());
+                boolean last = page.size() < EVENT_PAGE_SIZE;
+                for (Tuple entry : page) {
+                    if ((long) entry.getScore() > to) {
+                        last = true;
+                        break;
+                    }
+                    uuids.add(entry.getElement());
+                }
+                if (!uuids.isEmpty()) {
+                    List<String> jsons = jedis.hmget(KEY_EVENT_DATA + day, uuids.toArray(new String[uuids.size()]));
+                    for (String json : jsons) {
+                        if (json != null && !visitor.visit(marshallEvent(json))) {
+                            return;
+                        }
+                    }
+                }
+                if (last) {
+                    break;
+                }
+                rank += EVENT_PAGE_SIZE;
+            }
+        }
+    }
+    
+    /**
+     * Rank of the first entry of an index with a score at or after a time (binary search on ranks).
+     *
+     * @param jedis
+     *      current connection
+     * @param index
+     *      sorted set to read
+     * @param from
+     *      begin time
+     * @return
+     *      rank of the first entry in range, size of the index if none
+     */
+    private long firstRank(Jedis jedis, String index, long from) {
+        long low  = 0;
+        long high = jedis.zcard(index);
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            Set<Tuple> entry = jedis.zrangeWithScores(index, middle, middle);
+            if (entry.isEmpty() || (long) entry.iterator().next().getScore() >= from) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * Start of the hour (local time) containing this time.
+     *
+     * @param time
+     *      current time
+     * @return
+     *      start of the hour
+     */
+    private long getHourStart(long time) {
+        return time - ((time + TimeZone.getDefault().getOffset(time)) % HOUR);
+    }
+    
+    /**
+     * Start of the first hour fully after this time.
+     *
+     * @param time
+     *      current time
+     * @return
+     *      start of the hour
+     */
+    private long getFirstFullHour(long time) {
+        long hourStart = getHourStart(time);
+        return (hourStart == time) ? time : getHourStart(hourStart + HOUR + HOUR / 2);
+    }
+    
+    /**
+     * Key of an hour as yyyyMMddHH.
+     *
+     * @param hourStart
+     *      start of the hour
+     * @return
+     *      hour key
+     */
+    private String getHourKey(long hourStart) {
+        long hour = ((hourStart + TimeZone.getDefault().getOffset(hourStart)) / HOUR) % 24;
+        return getKeyDate(hourStart) + (hour < 10 ? "0" : "") + hour;
     }
 
     /**
@@ -314,27 +684,6 @@ public class EventRepositoryRedis extends AbstractEventRepository {
         return jedis;
     }
 
-    /**
-     * Method that reads the raw event stream from Redis.
-     *
-     * @param query - The query object containing details about the query.
-     * @return Set containing raw events.
-     */
-    private Set<String> getEventsFromRedis(EventQueryDefinition query) {
-        Jedis jedis = null;
-        Set<String> events = null;
-        try {
-            jedis = getJedis();
-            String hashKey = getHashKey(query.getFrom(), null);
-            events = jedis.zrangeByScore(hashKey, query.getFrom(), query.getTo(), 0, UPPER_LIMIT);
-        } finally {
-            if (jedis != null) {
-                jedis.close();
-            }
-        }
-        return events;
-    }
-
     /**
      * Method that maps the enum to the appropriate event method (instead of using Reflection).
      *
@@ -352,15 +701,49 @@ public class EventRepositoryRedis extends AbstractEventRepository {
                 value = event.getSource();
                 break;
             case USER:
-                value = event.getUser();
+                value = Util.hasLength(event.getUser()) ? event.getUser() : ANONYMOUS;
                 break;
             case NAME:
                 value = event.getName();
                 break;
             default:
-                value = "NA";
+                value = UNKNOWN;
+        }
+        return (value == null) ? UNKNOWN : value;
+    }
+
+    /**
+     * Getter accessor for attribute 'redisConnection'.
+     *
+     * @return
+     *       current value of 'redisConnection'
+     */
+    public RedisConnection getRedisConnection() {
+        return redisConnection;
+    }
+
+    /**
+     * Getter accessor for attribute 'timeToLive'.
+     *
+     * @return
+     *       current value of 'timeToLive'
+     */
+    public int getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Retention of events and counters : keys of a day (or hour) expire this number of seconds
+     * after their last write, 0 keeps them forever.
+     *
+     * @param timeToLive
+     *      new value for 'timeToLive'
+     */
+    public void setTimeToLive(int timeToLive) {
+        if (timeToLive < 0) {
+            throw new IllegalArgumentException("Time to live cannot be negative");
         }
-        return value;
+        this.timeToLive = timeToLive;
     }
 
-}
\ No newline at end of file
+}
@@ -1,414 +1,713 @@
-package org.ff4j.store;
-
-/*
- * #%L
- * ff4j-store-redis
- * %%
- * Copyright (C) 2013 - 2014 Ff4J
- * %%
- * Licensed under the Apache License, Version 2.0 (the "License");
- * you may not use this file except in compliance with the License.
- * You may obtain a copy of the License at
- * 
- *      http://www.apache.org/licenses/LICENSE-2.0
- * 
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the License is distributed on an "AS IS" BASIS,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the License for the specific language governing permissions and
- * limitations under the License.
- * #L%
- */
-
-import org.ff4j.core.Feature;
-import org.ff4j.core.FeatureStore;
-import org.ff4j.exception.FeatureAlreadyExistException;
-import org.ff4j.exception.FeatureNotFoundException;
-import org.ff4j.exception.GroupNotFoundException;
-import org.ff4j.redis.RedisConnection;
-import org.ff4j.utils.Util;
-import org.ff4j.utils.json.FeatureJsonParser;
-import redis.clients.jedis.Jedis;
-
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
-
-import static org.ff4j.redis.RedisContants.KEY_FEATURE;
-import static org.ff4j.redis.RedisContants.KEY_FEATURE_MAP;
-
-/**
- * {@link FeatureStore} to persist data into
- *
- * @author <a href="mailto:cedrick.lunven@gmail.com">Cedrick LUNVEN</a>
- * @author Shridhar Navanageri
- */
-public class FeatureStoreRedis extends AbstractFeatureStore {
-    
-    /** Wrapping of redis connection (isolation). */
-    private RedisConnection redisConnection;
-    
-    /**
-     * Default Constructor.
-     */
-    public FeatureStoreRedis() {
-        this(new RedisConnection());
-    }
-    
-    /**
-     * Contact remote redis server.
-     *
-     */
-    public FeatureStoreRedis(RedisConnection pRedisConnection) {
-        redisConnection = pRedisConnection;
-    }
-    
-    /**
-     * Default Constructor.
-     */
-    public FeatureStoreRedis(String xmlFeaturesfFile) {
-       this();
-       importFeaturesFromXmlFile(xmlFeaturesfFile);
-    }
-
-    /**
-     * Contact remote redis server.
-     * 
-     * @param host
-     *            target redis host
-     * @param port
-     *            target redis port
-     */
-    public FeatureStoreRedis(String host, int port) {
-        this(new RedisConnection(host, port));
-    }
-    
-    /**
-     * Contact remote redis server.
-     * 
-     * @param host
-     *            target redis host
-     * @param port
-     *            target redis port
-     */
-    public FeatureStoreRedis(String host, int port, String password, String xmlFeaturesfFile) {
-        this(new RedisConnection(host, port, password));
-        importFeaturesFromXmlFile(xmlFeaturesfFile);
-    }
-
-    /**
-     * Contact remote redis server.
-     * 
-     * @param host
-     *            target redis host
-     * @param port
-     *            target redis port
-     */
-    public FeatureStoreRedis(String host, int port, String xmlFeaturesfFile) {
-        this(host, port);
-        importFeaturesFromXmlFile(xmlFeaturesfFile);
-    }
-    
-    /** {@inheritDoc} */
-    public boolean exist(String uid) {
-        Util.assertParamHasLength(uid, "Feature identifier");
-        Jedis jedis = null;
-        try {
-            jedis = getJedis();
-            return jedis.exists(KEY_FEATURE + uid);
-        } finally {
-            if (jedis != null) {
-                jedis.close();
-            }
-        }
-    }
-    
-    /** {@inheritDoc} */
-    @Override
-    public Feature read(String uid) {
-        if (!exist(uid)) {
-            throw new FeatureNotFoundException(uid);
-        }
-        Jedis jedis = null;
-        try {
-            jedis = getJedis();
-            return FeatureJsonParser.parseFeature(jedis.get(KEY_FEATURE + uid));
-        } finally {
-            if (jedis != null) {
-                jedis.close();
-            }
-        }
-    }
-    
-    /** {@inheritDoc} */
-    @Override
-    public void update(Feature fp) {
-        Util.assertNotNull("Feature" , fp);
-        if (!exist(fp.getUid())) {
-            throw new FeatureNotFoundException(fp.getUid());
-        }
-        Jedis jedis = null;
-        try {
-            jedis = getJedis();
-            jedis.set(KEY_FEATURE + fp.getUid(), fp.toJson());
-            jedis.persist(KEY_FEATURE + fp.getUid());
-        } finally {
-            if (jedis != null) {
-                jedis.close();
-            }
-        }
-    }
-    
-    /** {@inheritDoc} */
-    @Override
-    public void enable(String uid) {
-        // Read from redis, feature not found if no present
-        Feature f = read(uid);
-        // Update within Object
-        f.enable();
-        // Serialization and update key, update TTL
-        update(f);
-    }
-
-    /** {@inheritDoc} */
-    @Override
-    public void disable(String uid) {
-        // Read from redis, feature not found if no present
-        Feature f = read(uid);
-        // Update within Object
-        f.disable();
-        // Serialization and update key, update TTL
-        update(f);
-    }
-
-    /** {@inheritDoc} */
-    @Override
-    public void create(Feature fp) {
-        Util.assertNotNull("Feature", fp);
-        if (exist(fp.getUid())) {
-            throw new FeatureAlreadyExistException(fp.getUid());
-        }
-        Jedis jedis = null;
-        try {
-            String id = fp.getUid();
-            jedis = getJedis();
-
-            // Store the feature in the mapping bucket.
-            jedis.sadd(KEY_FEATURE_MAP, id);
-            jedis.set(KEY_FEATURE + id, fp.toJson());
-            jedis.persist(KEY_FEATURE + id);
-        } finally {
-            if (jedis != null) {
-                jedis.close();
-            }
-        }
-    }
-
-    /** {@inheritDoc} */
-    @Override
-    public Map<String, Feature> readAll() {
-        Jedis jedis = null;
-        try {
-            jedis = getJedis();
-
-            Set<String> features = jedis.smembers(KEY_FEATURE_MAP);
-
-            Map<String, Feature> featuresMap = new HashMap<>();
-            if (features != null) {
-                for (String key : features) {
-                    featuresMap.put(key, read(key));
-                }
-            }
-            return featuresMap;
-        } finally {
-            if (jedis != null) {
-                jedis.close();
-            }
-        }
-    }
-
-    /** {@inheritDoc} */
-    public void delete(String fpId) {
-        if (!exist(fpId)) {
-            throw new FeatureNotFoundException(fpId);
-        }
-        Jedis jedis = null;
-        try {
-            jedis = getJedis();
-            // Store the feature in the mapping bucket.
-            jedis.srem(KEY_FEATURE_MAP, fpId);
-            jedis.del(KEY_FEATURE + fpId);
-        } finally {
-            if (jedis != null) {
-                jedis.close();
-            }
-        }
-    }    
-
-    /** {@inheritDoc} */
-    @Override
-    public void grantRoleOnFeature(String flipId, String roleName) {
-        Util.assertParamHasLength(roleName, "roleName (#2)");
-        // retrieve
-        Feature f = read(flipId);
-        // modify
-        f.getPermissions().add(roleName);
-        // persist modification
-        update(f);
-    }
-
-    /** {@inheritDoc} */
-    @Override
-    public void removeRoleFromFeature(String flipId, String roleName) {
-        Util.assertParamHasLength(roleName, "roleName (#2)");
-        // retrieve
-        Feature f = read(flipId);
-        f.getPermissions().remove(roleName);
-        // persist modification
-        update(f);
-    }
-    
-    /** {@inheritDoc} */
-    @Override
-    public Map<String, Feature> readGroup(String groupName) {
-        Util.assertParamHasLength(groupName, "groupName");
-        Map < String, Feature > features = readAll();
-        Map < String, Feature > group = new HashMap<String, Feature>();
-        for (Map.Entry<String,Feature> uid : features.entrySet()) {
-            if (groupName.equals(uid.getValue().getGroup())) {
-                group.put(uid.getKey(), uid.getValue());
-            }
-        }
-        if (group.isEmpty()) {
-            throw new GroupNotFoundException(groupName);
-        }
-        return group;
-    }
-    
-    /** {@inheritDoc} */
-    @Override
-    public boolean existGroup(String groupName) {
-        Util.assertParamHasLength(groupName, "groupName");
-        Map < String, Feature > features = readAll();
-        Map < String, Feature > group = new HashMap<String, Feature>();
-        for (Map.Entry<String,Feature> uid : features.entrySet()) {
-            if (groupName.equals(uid.getValue().getGroup())) {
-                group.put(uid.getKey(), uid.getValue());
-            }
-        }
-        return !group.isEmpty();
-    }
-
-    /** {@inheritDoc} */
-    @Override
-    public void enableGroup(String groupName) {
-        Map < String, Feature > features = readGroup(groupName);
-        for (Map.Entry<String,Feature> uid : features.entrySet()) {
-            uid.getValue().enable();
-            update(uid.getValue());
-        }
-    }
-
-    /** {@inheritDoc} */
-    @Override
-    public void disableGroup(String groupName) {
-        Map < String, Feature > features = readGroup(groupName);
-        for (Map.Entry<String,Feature> uid : features.entrySet()) {
-            uid.getValue().disable();
-            update(uid.getValue());
-        }
-    }
-
-    /** {@inheritDoc} */
-    @Override
-    public void addToGroup(String featureId, String groupName) {
-        Util.assertParamHasLength(groupName, "groupName (#2)");
-        // retrieve
-        Feature f = read(featureId);
-        f.setGroup(groupName);
-        // persist modification
-        update(f);
-    }
-
-    /** {@inheritDoc} */
-    @Override
-    public void removeFromGroup(String featureId, String groupName) {
-        Util.assertParamHasLength(groupName, "groupName (#2)");
-        if (!existGroup(groupName)) {
-            throw new GroupNotFoundException(groupName);
-        }
-        // retrieve
-        Feature f = read(featureId);
-        f.setGroup(null);
-        // persist modification
-        update(f);
-    }
-
-    /** {@inheritDoc} */
-    @Override
-    public Set<String> readAllGroups() {
-        Map < String, Feature > features = readAll();
-        Set < String > groups = new HashSet<String>();
-        for (Map.Entry<String,Feature> uid : features.entrySet()) {
-            groups.add(uid.getValue().getGroup());
-        }
-        groups.remove(null);
-        return groups;
-    }
-    
-
-    /** {@inheritDoc} */
-    @Override
-    public void clear() {
-        Jedis jedis = null;
-        try {
-            jedis = getJedis();
-            Set<String> myKeys = jedis.smembers(KEY_FEATURE_MAP);
-            for (String key : myKeys) {
-                delete(key);
-            }
-        } finally {
-            if (jedis != null) {
-                jedis.close();
-            }
-        }
-    }
-
-    /**
-     * Getter accessor for attribute 'redisConnection'.
-     *
-     * @return
-     *       current value of 'redisConnection'
-     */
-    public RedisConnection getRedisConnection() {
-        return redisConnection;
-    }
-
-    /**
-     * Setter accessor for attribute 'redisConnection'.
-     * @param redisConnection
-     * 		new value for 'redisConnection '
-     */
-    public void setRedisConnection(RedisConnection redisConnection) {
-        this.redisConnection = redisConnection;
-    }
-    
-    /**
-     * Safe acces to Jedis, avoid JNPE.
-     *
-     * @return
-     *      access jedis
-     */
-    public Jedis getJedis() {
-        if (redisConnection == null) {
-            throw new IllegalArgumentException("Cannot found any redisConnection");
-        }
-        Jedis jedis = redisConnection.getJedis();
-        if (jedis == null) {
-            throw new IllegalArgumentException("Cannot found any jedis connection, please build connection");
-        }
-        return jedis;
-    }
-
-}
+package org.ff4j.store;
+
+/*
+ * #%L
+ * ff4j-store-redis
+ * %%
+ * Copyright (C) 2013 - 2014 Ff4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.ff4j.core.Feature;
+import org.ff4j.core.FeatureStore;
+import org.ff4j.exception.FeatureAlreadyExistException;
+import org.ff4j.exception.FeatureNotFoundException;
+import org.ff4j.exception.GroupNotFoundException;
+import org.ff4j.redis.RedisChangeLog;
+import org.ff4j.redis.RedisConnection;
+import org.ff4j.utils.Util;
+import org.ff4j.utils.json.FeatureJsonParser;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.ff4j.redis.RedisContants.KEY_FEATURE;
+import static org.ff4j.redis.RedisContants.KEY_FEATURE_CHANGES;
+import static org.ff4j.redis.RedisContants.KEY_FEATURE_VERSION;
+import static org.ff4j.redis.RedisContants.KEY_FEATURE_GROUP;
+import static org.ff4j.redis.RedisContants.KEY_FEATURE_GROUPS;
+import static org.ff4j.redis.RedisContants.KEY_FEATURE_MAP;
+import static org.ff4j.redis.RedisContants.MGET_BATCH_SIZE;
+
+/**
+ * {@link FeatureStore} to persist data into
+ * 
+ * Features are read in bulk with MGET and each write is sent as a single pipeline. The
+ * features of each group are indexed in a set (and the group names in another one) maintained
+ * on write, so that group operations do not read the whole store.
+ *
+ * @author <a href="mailto:cedrick.lunven@gmail.com">Cedrick LUNVEN</a>
+ * @author Shridhar Navanageri
+ */
+public class FeatureStoreRedis extends AbstractFeatureStore {
+    
+    /** Wrapping of redis connection (isolation). */
+    private RedisConnection redisConnection;
+    
+    /** Group index has been checked (built by older versions or rebuilt). */
+    private volatile boolean groupIndexReady = false;
+    
+    /** Change-feed. */
+    private final RedisChangeLog changeLog = 
+            new RedisChangeLog(KEY_FEATURE_CHANGES, KEY_FEATURE_VERSION, RedisChangeLog.DEFAULT_MAX_SIZE);
+    
+    /**
+     * Default Constructor.
+     */
+    public FeatureStoreRedis() {
+        this(new RedisConnection());
+    }
+    
+    /**
+     * Contact remote redis server.
+     *
+     */
+    public FeatureStoreRedis(RedisConnection pRedisConnection) {
+        redisConnection = pRedisConnection;
+    }
+    
+    /**
+     * Default Constructor.
+     */
+    public FeatureStoreRedis(String xmlFeaturesfFile) {
+       this();
+       importFeaturesFromXmlFile(xmlFeaturesfFile);
+    }
+
+    /**
+     * Contact remote redis server.
+     * 
+     * @param host
+     *            target redis host
+     * @param port
+     *            target redis port
+     */
+    public FeatureStoreRedis(String host, int port) {
+        this(new RedisConnection(host, port));
+    }
+    
+    /**
+     * Contact remote redis server.
+     * 
+     * @param host
+     *            target redis host
+     * @param port
+     *            target redis port
+     */
+    public FeatureStoreRedis(String host, int port, String password, String xmlFeaturesfFile) {
+        this(new RedisConnection(host, port, password));
+        importFeaturesFromXmlFile(xmlFeaturesfFile);
+    }
+
+    /**
+     * Contact remote redis server.
+     * 
+     * @param host
+     *            target redis host
+     * @param port
+     *            target redis port
+     */
+    public FeatureStoreRedis(String host, int port, String xmlFeaturesfFile) {
+        this(host, port);
+        importFeaturesFromXmlFile(xmlFeaturesfFile);
+    }
+    
+    /** {@inheritDoc} */
+    public boolean exist(String uid) {
+        Util.assertParamHasLength(uid, "Feature identifier");
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            return jedis.exists(KEY_FEATURE + uid);
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public Feature read(String uid) {
+        Util.assertParamHasLength(uid, "Feature identifier");
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            return read(jedis, uid);
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+    
+    /**
+     * Read a feature with a single GET.
+     *
+     * @param jedis
+     *      current connection
+     * @param uid
+     *      feature identifier
+     * @return
+     *      feature
+     */
+    private Feature read(Jedis jedis, String uid) {
+        String json = jedis.get(KEY_FEATURE + uid);
+        if (json == null) {
+            throw new FeatureNotFoundException(uid);
+        }
+        return FeatureJsonParser.parseFeature(json);
+    }
+    
+    /**
+     * Read features with MGET, by batches of {@link org.ff4j.redis.RedisContants#MGET_BATCH_SIZE}.
+     *
+     * @param jedis
+     *      current connection
+     * @param uids
+     *      feature identifiers
+     * @return
+     *      existing features
+     */
+    private Map<String, Feature> readFeatures(Jedis jedis, Collection<String> uids) {
+        Map<String, Feature> features = new HashMap<String, Feature>();
+        List<String> ids = new ArrayList<String>(uids);
+        for (int from = 0; from < ids.size(); from += MGET_BATCH_SIZE) {
+            List<String> batch = ids.subList(from, Math.min(from + MGET_BATCH_SIZE, ids.size()));
+            String[] keys = new String[batch.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = KEY_FEATURE + batch.get(i);
+            }
+            List<String> values = jedis.mget(keys);
+            for (int i = 0; i < keys.length; i++) {
+                if (values.get(i) != null) {
+                    features.put(batch.get(i), FeatureJsonParser.parseFeature(values.get(i)));
+                }
+            }
+        }
+        return features;
+    }
+    
+    /**
+     * Persist a feature and its group membership in a single pipeline.
+     *
+     * @param jedis
+     *      current connection
+     * @param fp
+     *      feature to save
+     * @param previousGroup
+     *      group of the feature before the modification
+     * @param created
+     *      the feature is new
+     */
+    private void save(Jedis jedis, Feature fp, String previousGroup, boolean created) {
+        String id = fp.getUid();
+        long version = changeLog.reserve(jedis, 1);
+        Pipeline pipe = jedis.pipelined();
+        if (created) {
+            // Store the feature in the mapping bucket.
+            pipe.sadd(KEY_FEATURE_MAP, id);
+        }
+        pipe.set(KEY_FEATURE + id, fp.toJson());
+        pipe.persist(KEY_FEATURE + id);
+        indexGroup(pipe, id, previousGroup, fp.getGroup());
+        changeLog.record(pipe, version, id);
+        pipe.sync();
+    }
+    
+    /**
+     * Move feature from a group set to another.
+     *
+     * @param pipe
+     *      current pipeline
+     * @param uid
+     *      feature identifier
+     * @param previousGroup
+     *      former group (may be null)
+     * @param group
+     *      new group (may be null)
+     */
+    private void indexGroup(Pipeline pipe, String uid, String previousGroup, String group) {
+        boolean hadGroup = Util.hasLength(previousGroup);
+        boolean hasGroup = Util.hasLength(group);
+        if (hadGroup && (!hasGroup || !previousGroup.equals(group))) {
+            // Empty group sets are ignored when reading groups
+            pipe.srem(KEY_FEATURE_GROUP + previousGroup, uid);
+        }
+        if (hasGroup && !group.equals(previousGroup)) {
+            pipe.sadd(KEY_FEATURE_GROUP + group, uid);
+            pipe.sadd(KEY_FEATURE_GROUPS, group);
+        }
+    }
+    
+    /**
+     * Features written by previous versions of the store are not indexed by group, build index
+     * once if the set of groups does not exist.
+     *
+     * @param jedis
+     *      current connection
+     */
+    private void ensureGroupIndex(Jedis jedis) {
+        if (groupIndexReady) {
+            return;
+        }
+        if (!jedis.exists(KEY_FEATURE_GROUPS)) {
+            Map<String, Feature> features = readFeatures(jedis, jedis.smembers(KEY_FEATURE_MAP));
+            Pipeline pipe = jedis.pipelined();
+            for (Feature f : features.values()) {
+                indexGroup(pipe, f.getUid(), null, f.getGroup());
+            }
+            pipe.sync();
+        }
+        groupIndexReady = true;
+    }
+    
+    /**
+     * Import features in one MULTI/EXEC transaction sent as a single pipeline. Previous versions
+     * are read first with MGET to maintain group indexes.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public ImportReport importFeatures(Collection<Feature> features) {
+        ImportReport report = new ImportReport();
+        Map<String, Feature> toImport = prepareImport(features, report);
+        // Serialize first, a feature which cannot be written is failed
+        Map<String, String> jsonFeatures = new LinkedHashMap<String, String>();
+        for (Feature fp : toImport.values()) {
+            try {
+                jsonFeatures.put(fp.getUid(), fp.toJson());
+            } catch (RuntimeException error) {
+                report.failed(fp.getUid(), error);
+            }
+        }
+        if (jsonFeatures.isEmpty()) {
+            return report;
+        }
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            Map<String, Feature> previous = readFeatures(jedis, jsonFeatures.keySet());
+            long version = changeLog.reserve(jedis, jsonFeatures.size());
+            Pipeline pipe = jedis.pipelined();
+            pipe.multi();
+            for (Map.Entry<String, String> json : jsonFeatures.entrySet()) {
+                String id = json.getKey();
+                Feature previousFeature = previous.get(id);
+                pipe.sadd(KEY_FEATURE_MAP, id);
+                pipe.set(KEY_FEATURE + id, json.getValue());
+                pipe.persist(KEY_FEATURE + id);
+                indexGroup(pipe, id, (previousFeature == null) ? null : previousFeature.getGroup(), toImport.get(id).getGroup());
+                changeLog.record(pipe, version++, id);
+            }
+            pipe.exec();
+            pipe.sync();
+            for (String id : jsonFeatures.keySet()) {
+                if (previous.containsKey(id)) {
+                    report.updated(id);
+                } else {
+                    report.created(id);
+                }
+            }
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+        return report;
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public void update(Feature fp) {
+        Util.assertNotNull("Feature" , fp);
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            Feature previous = read(jedis, fp.getUid());
+            save(jedis, fp, previous.getGroup(), false);
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public void enable(String uid) {
+        Util.assertParamHasLength(uid, "Feature identifier");
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            // Read from redis, feature not found if no present
+            Feature f = read(jedis, uid);
+            // Update within Object
+            f.enable();
+            // Serialization and update key, update TTL
+            save(jedis, f, f.getGroup(), false);
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void disable(String uid) {
+        Util.assertParamHasLength(uid, "Feature identifier");
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            // Read from redis, feature not found if no present
+            Feature f = read(jedis, uid);
+            // Update within Object
+            f.disable();
+            // Serialization and update key, update TTL
+            save(jedis, f, f.getGroup(), false);
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void create(Feature fp) {
+        Util.assertNotNull("Feature", fp);
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            if (jedis.exists(KEY_FEATURE + fp.getUid())) {
+                throw new FeatureAlreadyExistException(fp.getUid());
+            }
+            save(jedis, fp, null, true);
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Feature> readAll() {
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            return readFeatures(jedis, jedis.smembers(KEY_FEATURE_MAP));
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Feature> readFeatures(Set<String> featureIds) {
+        if (featureIds == null || featureIds.isEmpty()) {
+            return new HashMap<String, Feature>();
+        }
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            return readFeatures(jedis, featureIds);
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+
+    /**
+     * Each write records the identifier in a capped log with a version from a counter (see
+     * {@link RedisChangeLog}). A logged identifier without key has been deleted. A snapshot is
+     * returned on first call, or when the version is older than the log.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public ChangeSet<Feature> featureChangesSince(long version) {
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            RedisChangeLog.Changes changes = changeLog.read(jedis, version);
+            if (changes == null) {
+                long snapshotVersion = changeLog.snapshotVersion(jedis);
+                return ChangeSet.snapshot(snapshotVersion, readFeatures(jedis, jedis.smembers(KEY_FEATURE_MAP)));
+            }
+            Set<String> changed = new HashSet<String>(changes.getUids());
+            Map<String, Feature> updated = readFeatures(jedis, changed);
+            changed.removeAll(updated.keySet());
+            return new ChangeSet<Feature>(changes.getVersion(), updated, changed, null);
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    public void delete(String fpId) {
+        Util.assertParamHasLength(fpId, "Feature identifier");
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            Feature previous = read(jedis, fpId);
+            long version = changeLog.reserve(jedis, 1);
+            Pipeline pipe = jedis.pipelined();
+            // Store the feature in the mapping bucket.
+            pipe.srem(KEY_FEATURE_MAP, fpId);
+            pipe.del(KEY_FEATURE + fpId);
+            indexGroup(pipe, fpId, previous.getGroup(), null);
+            changeLog.record(pipe, version, fpId);
+            pipe.sync();
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }    
+
+    /** {@inheritDoc} */
+    @Override
+    public void grantRoleOnFeature(String flipId, String roleName) {
+        Util.assertParamHasLength(roleName, "roleName (#2)");
+        // retrieve
+        Feature f = read(flipId);
+        // modify
+        f.getPermissions().add(roleName);
+        // persist modification
+        update(f);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void removeRoleFromFeature(String flipId, String roleName) {
+        Util.assertParamHasLength(roleName, "roleName (#2)");
+        // retrieve
+        Feature f = read(flipId);
+        f.getPermissions().remove(roleName);
+        // persist modification
+        update(f);
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Feature> readGroup(String groupName) {
+        Util.assertParamHasLength(groupName, "groupName");
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            ensureGroupIndex(jedis);
+            Map < String, Feature > group = readFeatures(jedis, jedis.smembers(KEY_FEATURE_GROUP + groupName));
+            if (group.isEmpty()) {
+                throw new GroupNotFoundException(groupName);
+            }
+            return group;
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public boolean existGroup(String groupName) {
+        Util.assertParamHasLength(groupName, "groupName");
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            ensureGroupIndex(jedis);
+            return jedis.scard(KEY_FEATURE_GROUP + groupName) > 0;
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void enableGroup(String groupName) {
+        toggleGroup(groupName, true);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void disableGroup(String groupName) {
+        toggleGroup(groupName, false);
+    }
+    
+    /**
+     * Update status of every feature of a group in a single pipeline.
+     *
+     * @param groupName
+     *      target group
+     * @param enable
+     *      new status
+     */
+    private void toggleGroup(String groupName, boolean enable) {
+        Map < String, Feature > features = readGroup(groupName);
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            long version = changeLog.reserve(jedis, features.size());
+            Pipeline pipe = jedis.pipelined();
+            for (Feature f : features.values()) {
+                f.setEnable(enable);
+                pipe.set(KEY_FEATURE + f.getUid(), f.toJson());
+                changeLog.record(pipe, version++, f.getUid());
+            }
+            pipe.sync();
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void addToGroup(String featureId, String groupName) {
+        Util.assertParamHasLength(groupName, "groupName (#2)");
+        // retrieve
+        Feature f = read(featureId);
+        f.setGroup(groupName);
+        // persist modification
+        update(f);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void removeFromGroup(String featureId, String groupName) {
+        Util.assertParamHasLength(groupName, "groupName (#2)");
+        if (!existGroup(groupName)) {
+            throw new GroupNotFoundException(groupName);
+        }
+        // retrieve
+        Feature f = read(featureId);
+        f.setGroup(null);
+        // persist modification
+        update(f);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Set<String> readAllGroups() {
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            ensureGroupIndex(jedis);
+            // Group names are never removed from the set, skip the empty groups
+            Set<String> groups = jedis.smembers(KEY_FEATURE_GROUPS);
+            Map < String, Response<Long> > sizes = new HashMap<String, Response<Long>>();
+            Pipeline pipe = jedis.pipelined();
+            for (String group : groups) {
+                sizes.put(group, pipe.scard(KEY_FEATURE_GROUP + group));
+            }
+            pipe.sync();
+            Set<String> result = new HashSet<String>();
+            for (Map.Entry<String, Response<Long>> size : sizes.entrySet()) {
+                if (size.getValue().get() > 0) {
+                    result.add(size.getKey());
+                }
+            }
+            return result;
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+    
+
+    /** {@inheritDoc} */
+    @Override
+    public void clear() {
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            Set<String> myKeys = jedis.smembers(KEY_FEATURE_MAP);
+            Set<String> groups = jedis.smembers(KEY_FEATURE_GROUPS);
+            long version = myKeys.isEmpty() ? 0 : changeLog.reserve(jedis, myKeys.size());
+            Pipeline pipe = jedis.pipelined();
+            for (String key : myKeys) {
+                pipe.del(KEY_FEATURE + key);
+                changeLog.record(pipe, version++, key);
+            }
+            for (String group : groups) {
+                pipe.del(KEY_FEATURE_GROUP + group);
+            }
+            pipe.del(KEY_FEATURE_GROUPS);
+            pipe.del(KEY_FEATURE_MAP);
+            pipe.sync();
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+
+    /**
+     * Getter accessor for attribute 'redisConnection'.
+     *
+     * @return
+     *       current value of 'redisConnection'
+     */
+    public RedisConnection getRedisConnection() {
+        return redisConnection;
+    }
+
+    /**
+     * Setter accessor for attribute 'redisConnection'.
+     * @param redisConnection
+     * 		new value for 'redisConnection '
+     */
+    public void setRedisConnection(RedisConnection redisConnection) {
+        this.redisConnection = redisConnection;
+    }
+    
+    /**
+     * Safe acces to Jedis, avoid JNPE.
+     *
+     * @return
+     *      access jedis
+     */
+    public Jedis getJedis() {
+        if (redisConnection == null) {
+            throw new IllegalArgumentException("Cannot found any redisConnection");
+        }
+        Jedis jedis = redisConnection.getJedis();
+        if (jedis == null) {
+            throw new IllegalArgumentException("Cannot found any jedis connection, please build connection");
+        }
+        return jedis;
+    }
+
+}
@@ -1,19 +1,29 @@
 package org.ff4j.store;
 
 import org.ff4j.exception.PropertyAlreadyExistException;
+import org.ff4j.exception.PropertyNotFoundException;
 import org.ff4j.property.Property;
 import org.ff4j.property.store.AbstractPropertyStore;
+import org.ff4j.redis.RedisChangeLog;
 import org.ff4j.redis.RedisConnection;
 import org.ff4j.utils.Util;
 import org.ff4j.utils.json.PropertyJsonParser;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import static org.ff4j.redis.RedisContants.KEY_PROPERTY;
+import static org.ff4j.redis.RedisContants.KEY_PROPERTY_CHANGES;
 import static org.ff4j.redis.RedisContants.KEY_PROPERTY_MAP;
+import static org.ff4j.redis.RedisContants.KEY_PROPERTY_VERSION;
+import static org.ff4j.redis.RedisContants.MGET_BATCH_SIZE;
 
 /*
  * #%L
@@ -37,6 +47,8 @@ import static org.ff4j.redis.RedisContants.KEY_PROPERTY_MAP;
 
 /**
  * Implementation of property store for REDIS.
+ * 
+ * Properties are read in bulk with MGET and each write is sent as a single pipeline.
  *
  * @author Cedrick Lunven (@clunven)</a>
  * @author Shridhar Navanageri
@@ -48,6 +60,12 @@ public class PropertyStoreRedis extends AbstractPropertyStore {
      */
     private RedisConnection redisConnection;
 
+    /**
+     * Change-feed.
+     */
+    private final RedisChangeLog changeLog = 
+            new RedisChangeLog(KEY_PROPERTY_CHANGES, KEY_PROPERTY_VERSION, RedisChangeLog.DEFAULT_MAX_SIZE);
+
     /**
      * Default Constructor.
      */
@@ -123,17 +141,14 @@ public class PropertyStoreRedis extends AbstractPropertyStore {
      */
     public <T> void createProperty(Property<T> prop) {
         Util.assertNotNull(prop);
+        Util.assertHasLength(prop.getName());
         if (existProperty(prop.getName())) {
             throw new PropertyAlreadyExistException(prop.getName());
         }
         Jedis jedis = null;
         try {
             jedis = getJedis();
-            String name = prop.getName();
-            // Store the feature in the mapping bucket.
-            jedis.sadd(KEY_PROPERTY_MAP, name);
-            jedis.set(KEY_PROPERTY + name, prop.toJson());
-            jedis.persist(KEY_PROPERTY + name);
+            save(jedis, prop, true);
         } finally {
             if (jedis != null) {
                 jedis.close();
@@ -145,11 +160,168 @@ public class PropertyStoreRedis extends AbstractPropertyStore {
      * {@inheritDoc}
      */
     public Property<?> readProperty(String name) {
-        assertPropertyExist(name);
+        Util.assertParamHasLength(name, "PropertyName identifier");
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            return readProperty(jedis, name);
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+
+    /**
+     * Read a property with a single GET.
+     *
+     * @param jedis
+     *      current connection
+     * @param name
+     *      property name
+     * @return
+     *      property
+     */
+    private Property<?> readProperty(Jedis jedis, String name) {
+        String json = jedis.get(KEY_PROPERTY + name);
+        if (json == null) {
+            throw new PropertyNotFoundException(name);
+        }
+        return PropertyJsonParser.parseProperty(json);
+    }
+
+    /**
+     * Read properties with MGET, by batches of {@link org.ff4j.redis.RedisContants#MGET_BATCH_SIZE}.
+     *
+     * @param jedis
+     *      current connection
+     * @param names
+     *      property names
+     * @return
+     *      existing properties
+     */
+    private Map<String, Property<?>> readProperties(Jedis jedis, Collection<String> names) {
+        Map<String, Property<?>> properties = new LinkedHashMap<String, Property<?>>();
+        List<String> ids = new ArrayList<String>(names);
+        for (int from = 0; from < ids.size(); from += MGET_BATCH_SIZE) {
+            List<String> batch = ids.subList(from, Math.min(from + MGET_BATCH_SIZE, ids.size()));
+            String[] keys = new String[batch.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = KEY_PROPERTY + batch.get(i);
+            }
+            List<String> values = jedis.mget(keys);
+            for (int i = 0; i < keys.length; i++) {
+                if (values.get(i) != null) {
+                    properties.put(batch.get(i), PropertyJsonParser.parseProperty(values.get(i)));
+                }
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Persist a property in a single pipeline.
+     *
+     * @param jedis
+     *      current connection
+     * @param prop
+     *      property to save
+     * @param created
+     *      the property is new
+     */
+    private void save(Jedis jedis, Property<?> prop, boolean created) {
+        String name = prop.getName();
+        long version = changeLog.reserve(jedis, 1);
+        Pipeline pipe = jedis.pipelined();
+        if (created) {
+            // Store the property in the mapping bucket.
+            pipe.sadd(KEY_PROPERTY_MAP, name);
+        }
+        pipe.set(KEY_PROPERTY + name, prop.toJson());
+        pipe.persist(KEY_PROPERTY + name);
+        changeLog.record(pipe, version, name);
+        pipe.sync();
+    }
+
+    /**
+     * Import properties in one MULTI/EXEC transaction sent as a single pipeline, existing
+     * properties are read first with MGET.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public ImportReport importProperties(Collection<Property<?>> properties) {
+        ImportReport report = new ImportReport();
+        // Serialize first, a property which cannot be written is failed
+        Map<String, String> jsonProperties = new LinkedHashMap<String, String>();
+        for (Property<?> prop : prepareImport(properties, report).values()) {
+            try {
+                jsonProperties.put(prop.getName(), prop.toJson());
+            } catch (RuntimeException error) {
+                report.failed(prop.getName(), error);
+            }
+        }
+        if (jsonProperties.isEmpty()) {
+            return report;
+        }
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            Set<String> existing = readProperties(jedis, jsonProperties.keySet()).keySet();
+            long version = changeLog.reserve(jedis, jsonProperties.size());
+            Pipeline pipe = jedis.pipelined();
+            pipe.multi();
+            for (Map.Entry<String, String> json : jsonProperties.entrySet()) {
+                String name = json.getKey();
+                pipe.sadd(KEY_PROPERTY_MAP, name);
+                pipe.set(KEY_PROPERTY + name, json.getValue());
+                pipe.persist(KEY_PROPERTY + name);
+                changeLog.record(pipe, version++, name);
+            }
+            pipe.exec();
+            pipe.sync();
+            for (String name : jsonProperties.keySet()) {
+                if (existing.contains(name)) {
+                    report.updated(name);
+                } else {
+                    report.created(name);
+                }
+            }
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+        return report;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> void updateProperty(Property<T> prop) {
+        Util.assertNotNull(prop);
         Jedis jedis = null;
         try {
             jedis = getJedis();
-            return PropertyJsonParser.parseProperty(jedis.get(KEY_PROPERTY + name));
+            // Property not found if not present
+            readProperty(jedis, prop.getName());
+            save(jedis, prop, false);
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void updateProperty(String name, String newValue) {
+        Util.assertParamHasLength(name, "PropertyName identifier");
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            Property<?> p = readProperty(jedis, name);
+            p.setValueFromString(newValue);
+            save(jedis, p, false);
         } finally {
             if (jedis != null) {
                 jedis.close();
@@ -165,8 +337,12 @@ public class PropertyStoreRedis extends AbstractPropertyStore {
         Jedis jedis = null;
         try {
             jedis = getJedis();
-            jedis.srem(KEY_PROPERTY_MAP, name);
-            jedis.del(KEY_PROPERTY + name);
+            long version = changeLog.reserve(jedis, 1);
+            Pipeline pipe = jedis.pipelined();
+            pipe.srem(KEY_PROPERTY_MAP, name);
+            pipe.del(KEY_PROPERTY + name);
+            changeLog.record(pipe, version, name);
+            pipe.sync();
         } finally {
             if (jedis != null) {
                 jedis.close();
@@ -178,17 +354,38 @@ public class PropertyStoreRedis extends AbstractPropertyStore {
      * {@inheritDoc}
      */
     public Map<String, Property<?>> readAllProperties() {
-        LinkedHashMap<String, Property<?>> mapP = new LinkedHashMap<String, Property<?>>();
         Jedis jedis = null;
         try {
             jedis = getJedis();
-            Set<String> properties = jedis.smembers(KEY_PROPERTY_MAP);
-            if (properties != null) {
-                for (String key : properties) {
-                    mapP.put(key, readProperty(key));
-                }
+            return readProperties(jedis, jedis.smembers(KEY_PROPERTY_MAP));
+        } finally {
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+
+    /**
+     * Each write records the name in a capped log with a version from a counter (see
+     * {@link RedisChangeLog}). A logged name without key has been deleted. A snapshot is
+     * returned on first call, or when the version is older than the log.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public ChangeSet<Property<?>> propertyChangesSince(long version) {
+        Jedis jedis = null;
+        try {
+            jedis = getJedis();
+            RedisChangeLog.Changes changes = changeLog.read(jedis, version);
+            if (changes == null) {
+                long snapshotVersion = changeLog.snapshotVersion(jedis);
+                return ChangeSet.snapshot(snapshotVersion, readProperties(jedis, jedis.smembers(KEY_PROPERTY_MAP)));
             }
-            return mapP;
+            Set<String> changed = new HashSet<String>(changes.getUids());
+            Map<String, Property<?>> updated = readProperties(jedis, changed);
+            changed.removeAll(updated.keySet());
+            return new ChangeSet<Property<?>>(changes.getVersion(), updated, changed, null);
         } finally {
             if (jedis != null) {
                 jedis.close();
@@ -220,9 +417,14 @@ public class PropertyStoreRedis extends AbstractPropertyStore {
         try {
             jedis = getJedis();
             Set<String> myKeys = jedis.smembers(KEY_PROPERTY_MAP);
+            long version = myKeys.isEmpty() ? 0 : changeLog.reserve(jedis, myKeys.size());
+            Pipeline pipe = jedis.pipelined();
             for (String key : myKeys) {
-                deleteProperty(key);
+                pipe.del(KEY_PROPERTY + key);
+                changeLog.record(pipe, version++, key);
             }
+            pipe.del(KEY_PROPERTY_MAP);
+            pipe.sync();
         } finally {
             if (jedis != null) {
                 jedis.close();
@@ -0,0 +1,223 @@
+package org.ff4j.cache;
+
+/*
+ * #%L
+ * ff4j-store-redis
+ * %%
+ * Copyright (C) 2013 - 2016 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.ff4j.cache.InvalidationMessage.Type;
+import org.ff4j.core.Feature;
+import org.ff4j.property.store.InMemoryPropertyStore;
+import org.ff4j.redis.RedisConnection;
+import org.ff4j.store.InMemoryFeatureStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+/**
+ * Propagate invalidations between two buses without redis server : connections are replaced by
+ * an in memory broker (PUBLISH calls the subscribed listeners).
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class InvalidationBusRedisTest {
+
+    /** Maximum wait for a message (seconds). */
+    private static final long MAX_WAIT = 5;
+
+    /** Replaces the redis server. */
+    private InMemoryBroker broker;
+
+    /** Bus of node 1. */
+    private InvalidationBusRedis bus1;
+
+    /** Bus of node 2. */
+    private InvalidationBusRedis bus2;
+
+    @Before
+    public void setUp() {
+        broker = new InMemoryBroker();
+        bus1 = new InvalidationBusRedis(broker.connection());
+        bus2 = new InvalidationBusRedis(broker.connection());
+    }
+
+    @After
+    public void tearDown() {
+        bus1.close();
+        bus2.close();
+        broker.shutdown();
+    }
+
+    @Test
+    public void testInvalidationReceived() throws InterruptedException {
+        InMemoryFeatureStore fs = new InMemoryFeatureStore();
+        fs.create(new Feature("f1", true));
+        InMemoryPropertyStore ps = new InMemoryPropertyStore();
+        FF4jCacheProxy node1 = new FF4jCacheProxy(fs, ps, new InMemoryCacheManager());
+        FF4jCacheProxy node2 = new FF4jCacheProxy(fs, ps, new InMemoryCacheManager());
+        node1.setInvalidationBus(bus1);
+        node2.setInvalidationBus(bus2);
+
+        final CountDownLatch received = new CountDownLatch(1);
+        bus2.subscribe(new InvalidationListener() {
+            public void onInvalidation(InvalidationMessage message) {
+                received.countDown();
+            }
+        });
+        broker.awaitSubscribers(2);
+        node2.read("f1");
+        Assert.assertNotNull(node2.getCacheManager().getFeature("f1"));
+
+        node1.disable("f1");
+        Assert.assertTrue(received.await(MAX_WAIT, TimeUnit.SECONDS));
+        Assert.assertNull(node2.getCacheManager().getFeature("f1"));
+    }
+
+    @Test
+    public void testInvalidateAllAfterReconnection() throws InterruptedException {
+        // Given : first subscription fails
+        broker.failures.set(1);
+        final List < Type > types = new CopyOnWriteArrayList<Type>();
+        final CountDownLatch received = new CountDownLatch(2);
+        bus2.subscribe(new InvalidationListener() {
+            public void onInvalidation(InvalidationMessage message) {
+                types.add(message.getType());
+                received.countDown();
+            }
+        });
+        // Then : messages lost while disconnected, everything is invalidated
+        Assert.assertTrue(received.await(MAX_WAIT, TimeUnit.SECONDS));
+        Assert.assertTrue(types.contains(Type.ALL_FEATURES));
+        Assert.assertTrue(types.contains(Type.ALL_PROPERTIES));
+    }
+
+    @Test
+    public void testUnknownMessageIgnored() throws InterruptedException {
+        final CountDownLatch received = new CountDownLatch(1);
+        bus2.subscribe(new InvalidationListener() {
+            public void onInvalidation(InvalidationMessage message) {
+                received.countDown();
+            }
+        });
+        broker.awaitSubscribers(1);
+        broker.connection().getJedis().publish(bus2.getChannel(), "not an invalidation");
+        Assert.assertEquals(1, received.getCount());
+        bus1.publish(new InvalidationMessage(Type.FEATURE, "node1", "f1"));
+        Assert.assertTrue(received.await(MAX_WAIT, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Subscriptions and publications kept in memory.
+     */
+    private static class InMemoryBroker {
+
+        /** Subscribed listeners. */
+        private final List < JedisPubSub > subscribers = new CopyOnWriteArrayList<JedisPubSub>();
+
+        /** Number of subscriptions to fail with a connection error. */
+        private final AtomicInteger failures = new AtomicInteger(0);
+
+        /** Releases the blocked subscriptions. */
+        private final CountDownLatch stopped = new CountDownLatch(1);
+
+        /**
+         * Connection to the broker.
+         *
+         * @return
+         *      connection returning fake clients
+         */
+        private RedisConnection connection() {
+            return new RedisConnection() {
+                public Jedis getJedis() {
+                    return new BrokerJedis();
+                }
+            };
+        }
+
+        /**
+         * Wait for subscriptions.
+         *
+         * @param count
+         *      expected number of subscribers
+         */
+        private void awaitSubscribers(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(MAX_WAIT);
+            while (subscribers.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(count, subscribers.size());
+        }
+
+        /**
+         * Release the subscriber threads.
+         */
+        private void shutdown() {
+            stopped.countDown();
+        }
+
+        /**
+         * Client without socket, SUBSCRIBE blocks like the real command.
+         */
+        private class BrokerJedis extends Jedis {
+
+            /** {@inheritDoc} */
+            @Override
+            public Long publish(String channel, String message) {
+                for (JedisPubSub subscriber : subscribers) {
+                    subscriber.onMessage(channel, message);
+                }
+                return Long.valueOf(subscribers.size());
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            public void subscribe(JedisPubSub jedisPubSub, String... channels) {
+                if (failures.getAndDecrement() > 0) {
+                    throw new JedisConnectionException("Connection refused");
+                }
+                jedisPubSub.onSubscribe(channels[0], 1);
+                subscribers.add(jedisPubSub);
+                try {
+                    stopped.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    subscribers.remove(jedisPubSub);
+                }
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            public void close() {
+                // No socket
+            }
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+package org.ff4j.cache.it;
+
+/*
+ * #%L
+ * ff4j-cache-redis
+ * %%
+ * Copyright (C) 2013 - 2014 Ff4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.ff4j.cache.FF4jCacheProxy;
+import org.ff4j.cache.InMemoryCacheManager;
+import org.ff4j.cache.InvalidationBusRedis;
+import org.ff4j.cache.InvalidationListener;
+import org.ff4j.cache.InvalidationMessage;
+import org.ff4j.core.Feature;
+import org.ff4j.property.store.InMemoryPropertyStore;
+import org.ff4j.redis.RedisConnection;
+import org.ff4j.store.InMemoryFeatureStore;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Propagate invalidations between two proxies through redis pub/sub.
+ * 
+ * Requires a real redis server, the embedded server started for integration tests does not
+ * support SUBSCRIBE. The same scenario runs without server in {@link org.ff4j.cache.InvalidationBusRedisTest}.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+@Ignore
+public class InvalidationBusRedisTestIT {
+    
+    /** Bus of node 1. */
+    private InvalidationBusRedis bus1;
+    
+    /** Bus of node 2. */
+    private InvalidationBusRedis bus2;
+    
+    @Before
+    public void setUp() {
+        bus1 = new InvalidationBusRedis(new RedisConnection());
+        bus2 = new InvalidationBusRedis(new RedisConnection());
+    }
+    
+    @After
+    public void tearDown() {
+        bus1.close();
+        bus2.close();
+    }
+    
+    @Test
+    public void testInvalidationReceived() throws InterruptedException {
+        InMemoryFeatureStore fs = new InMemoryFeatureStore();
+        fs.create(new Feature("f1", true));
+        InMemoryPropertyStore ps = new InMemoryPropertyStore();
+        FF4jCacheProxy node1 = new FF4jCacheProxy(fs, ps, new InMemoryCacheManager());
+        FF4jCacheProxy node2 = new FF4jCacheProxy(fs, ps, new InMemoryCacheManager());
+        node1.setInvalidationBus(bus1);
+        node2.setInvalidationBus(bus2);
+        
+        final CountDownLatch received = new CountDownLatch(1);
+        bus2.subscribe(new InvalidationListener() {
+            public void onInvalidation(InvalidationMessage message) {
+                received.countDown();
+            }
+        });
+        // Let subscriber threads connect
+        Thread.sleep(200);
+        node2.read("f1");
+        Assert.assertNotNull(node2.getCacheManager().getFeature("f1"));
+        
+        node1.disable("f1");
+        Assert.assertTrue(received.await(2, TimeUnit.SECONDS));
+        Assert.assertNull(node2.getCacheManager().getFeature("f1"));
+    }
+
+}
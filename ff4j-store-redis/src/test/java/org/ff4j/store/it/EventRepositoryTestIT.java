@@ -20,16 +20,39 @@ package org.ff4j.store.it;
  * #L%
  */
 
-
-/**
- * Utilisation des commandes : 
- * https://github.com/xetorthio/jedis/blob/master/src/test/java/redis/clients/jedis/tests/commands/SortedSetCommandsTest.java
- * 
- * References des commandes
- * http://redis.io/commands#sorted_set
- * 
+import static org.ff4j.audit.EventConstants.ACTION_CHECK_OK;
+import static org.ff4j.audit.EventConstants.ACTION_CREATE;
+import static org.ff4j.audit.EventConstants.SOURCE_JAVA;
+import static org.ff4j.audit.EventConstants.TARGET_FEATURE;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.ff4j.audit.Event;
+import org.ff4j.audit.EventQueryDefinition;
+import org.ff4j.audit.MutableHitCount;
+import org.ff4j.audit.repository.EventRepository;
+import org.ff4j.redis.RedisContants;
+import org.ff4j.store.EventRepositoryRedis;
+import org.ff4j.test.audit.EventRepositoryTestSupport;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import redis.clients.jedis.Jedis;
+
+/**
+ * Utilisation des commandes : 
+ * https://github.com/xetorthio/jedis/blob/master/src/test/java/redis/clients/jedis/tests/commands/SortedSetCommandsTest.java
+ * 
+ * References des commandes
+ * http://redis.io/commands#sorted_set
+ * 
  * Exemples :
- * 
+ * 
  * { "id": "d74d9943-348c-4c9d-bf2d-7c0dc0735c41", 
  *  "timestamp":1458418610240, 
  *  "hostName": "MCCEL02", 
@@ -37,15 +60,110 @@ package org.ff4j.store.it;
  *  "name": "F1", "type": "feature", 
  *  "action": "checkOn", 
  *  "duration":0}
- *  
+ *  
  * { "id": "235f5181-435f-469f-9232-d43af0c07f6b", 
  *   "timestamp":1458418710240, "hostName": "MCCEL02", 
  *   "source": "JAVA_API", "user": "Admin", "name": "P1", 
  *   "type": "property", "action": "update", 
  *   "value": "NewValue", "duration":1}
- *   
- * @author CEL
- */
-public class EventRepositoryTestIT {
-
-}
+ *   
+ * @author CEL
+ */
+public class EventRepositoryTestIT extends EventRepositoryTestSupport {
+    
+    /** {@inheritDoc} */
+    @Override
+    protected EventRepository initRepository() {
+        return new EventRepositoryRedis();
+    }
+    
+    @Test
+    public void testEventsWithSameTimestamp() {
+        long now = System.currentTimeMillis();
+        List < Event > events = new ArrayList<Event>();
+        // More than a page of the index, all with the same score
+        for (int i = 0; i < RedisContants.EVENT_PAGE_SIZE + 5; i++) {
+            events.add(generateFeatureUsageEvent((i % 2 == 0) ? "f1" : "f2", now));
+        }
+        events.add(generateFeatureUsageEvent("f1", now - 1000));
+        Assert.assertTrue(repo.saveEvents(events));
+        Assert.assertEquals(RedisContants.EVENT_PAGE_SIZE + 5, 
+                repo.searchFeatureUsageEvents(new EventQueryDefinition(now, now)).size());
+        Assert.assertEquals(RedisContants.EVENT_PAGE_SIZE + 6, 
+                repo.searchFeatureUsageEvents(new EventQueryDefinition(now - 1000, now)).size());
+    }
+    
+    @Test
+    public void testHitCountOverFullHours() {
+        long now = System.currentTimeMillis();
+        long threeHoursAgo = now - 3 * 3600 * 1000L;
+        List < Event > events = new ArrayList<Event>();
+        for (int i = 0; i < 30; i++) {
+            events.add(generateFeatureUsageEvent("f1", threeHoursAgo + i * 6 * 60 * 1000L));
+        }
+        events.add(generateFeatureUsageEvent("f2", now - 1000));
+        Assert.assertTrue(repo.saveEvents(events));
+        
+        EventQueryDefinition query = new EventQueryDefinition(threeHoursAgo - 1, now);
+        Map < String, MutableHitCount > hits = repo.getFeatureUsageHitCount(query);
+        Assert.assertEquals(30, hits.get("f1").get());
+        Assert.assertEquals(1, hits.get("f2").get());
+        Assert.assertEquals(31, repo.getFeatureUsageTotalHitCount(query));
+        Assert.assertEquals(31, repo.getSourceHitCount(query).get(SOURCE_JAVA).get());
+        Assert.assertEquals(1, repo.getFeatureUsageHitCount(query.addFilterName("f2")).size());
+        
+        // Counters are decremented on purge
+        repo.purgeFeatureUsage(new EventQueryDefinition(threeHoursAgo - 1, now));
+        Assert.assertEquals(0, repo.getFeatureUsageTotalHitCount(new EventQueryDefinition(threeHoursAgo - 1, now)));
+    }
+    
+    @Test
+    public void testAuditTrailPaging() {
+        long now = System.currentTimeMillis();
+        List < Event > events = new ArrayList<Event>();
+        for (int i = 0; i < 25; i++) {
+            Event evt = new Event(SOURCE_JAVA, TARGET_FEATURE, "f" + i, ACTION_CREATE);
+            evt.setTimestamp(now - i);
+            events.add(evt);
+        }
+        repo.saveEvents(events);
+        EventQueryDefinition query = new EventQueryDefinition(now - 1000, now + 1000);
+        Assert.assertEquals(25, repo.getAuditTrail(query).size());
+        query.setPageable(true);
+        query.setPagesize(10);
+        query.setPagenumber(2);
+        Assert.assertEquals(5, repo.getAuditTrail(query).size());
+    }
+    
+    @Test
+    public void testRetention() {
+        EventRepositoryRedis redisRepo = (EventRepositoryRedis) repo;
+        redisRepo.setTimeToLive(3600);
+        Event evt = new Event(SOURCE_JAVA, TARGET_FEATURE, "f1", ACTION_CHECK_OK);
+        redisRepo.saveEvent(evt);
+        Jedis jedis = redisRepo.getJedis();
+        try {
+            long ttl = jedis.ttl(RedisContants.KEY_EVENT_DATA + new SimpleDateFormat("yyyyMMdd").format(new Date(evt.getTimestamp())));
+            Assert.assertTrue(ttl > 0 && ttl <= 3600);
+        } finally {
+            jedis.close();
+        }
+    }
+    
+    /**
+     * Clean events after each test.
+     */
+    @After
+    public void cleanRepository() {
+        Jedis jedis = ((EventRepositoryRedis) repo).getJedis();
+        try {
+            for (String key : jedis.keys(RedisContants.KEY_EVENT + "*")) {
+                jedis.del(key);
+            }
+        } finally {
+            jedis.close();
+        }
+        ((EventRepositoryRedis) repo).getRedisConnection().destroyPool();
+    }
+
+}
@@ -24,9 +24,16 @@ import java.util.Map;
 
 import org.ff4j.core.Feature;
 import org.ff4j.core.FeatureStore;
+import org.ff4j.store.ChangeSet;
 import org.ff4j.store.FeatureStoreRedis;
 import org.ff4j.test.store.FeatureStoreTestSupport;
 import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.ff4j.test.TestsFf4jConstants.F1;
+import static org.ff4j.test.TestsFf4jConstants.F2;
+import static org.ff4j.test.TestsFf4jConstants.F3;
 
 /**
  * Test to work with Redis as a store.
@@ -43,6 +50,18 @@ public class FeatureStoreRedisTestIT extends FeatureStoreTestSupport {
         return redisStore;
     }
     
+    @Test
+    public void testFeatureChangesSince() {
+        ChangeSet < Feature > all = testedStore.featureChangesSince(0);
+        Assert.assertEquals(testedStore.readAll().size(), all.getUpdated().size());
+        testedStore.enable(F2);
+        ChangeSet < Feature > delta = testedStore.featureChangesSince(all.getVersion());
+        Assert.assertTrue(delta.getUpdated().get(F2).isEnable());
+        Assert.assertFalse(delta.getUpdated().containsKey(F1));
+        testedStore.delete(F3);
+        Assert.assertTrue(testedStore.featureChangesSince(delta.getVersion()).isDeleted(F3));
+    }
+    
     /**
      * Clean store after each test (avoid duplication)
      */
@@ -0,0 +1,126 @@
+package org.ff4j.store.it;
+
+/*
+ * #%L
+ * ff4j-store-redis
+ * %%
+ * Copyright (C) 2013 - 2016 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.ff4j.redis.RedisChangeLog;
+import org.ff4j.redis.RedisConnection;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+
+/**
+ * Versions and trimming of the change log.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class RedisChangeLogTestIT {
+    
+    /** Log key. */
+    private static final String LOG = "FF4J_TEST_CHANGES";
+    
+    /** Counter key. */
+    private static final String VERSION = "FF4J_TEST_VERSION";
+    
+    /** Connection. */
+    private RedisConnection redisConnection;
+    
+    /** Jedis. */
+    private Jedis jedis;
+    
+    /** Tested log. */
+    private RedisChangeLog changeLog = new RedisChangeLog(LOG, VERSION, 5);
+    
+    @Before
+    public void setUp() {
+        redisConnection = new RedisConnection();
+        jedis = redisConnection.getJedis();
+        jedis.del(LOG);
+        jedis.del(VERSION);
+    }
+    
+    @After
+    public void tearDown() {
+        jedis.del(LOG);
+        jedis.del(VERSION);
+        jedis.close();
+        redisConnection.destroyPool();
+    }
+    
+    /**
+     * Write entries as the stores do.
+     */
+    private void write(String... uids) {
+        long version = changeLog.reserve(jedis, uids.length);
+        Pipeline pipe = jedis.pipelined();
+        for (String uid : uids) {
+            changeLog.record(pipe, version++, uid);
+        }
+        pipe.sync();
+    }
+    
+    @Test
+    public void testReadSinceVersion() {
+        Assert.assertNull(changeLog.read(jedis, 0));
+        long version = changeLog.snapshotVersion(jedis);
+        write("f1", "f2");
+        RedisChangeLog.Changes changes = changeLog.read(jedis, version);
+        Assert.assertEquals(version + 2, changes.getVersion());
+        Assert.assertTrue(changes.getUids().contains("f2"));
+        write("f3");
+        changes = changeLog.read(jedis, changes.getVersion());
+        Assert.assertEquals(1, changes.getUids().size());
+        Assert.assertTrue(changeLog.read(jedis, changes.getVersion()).getUids().isEmpty());
+    }
+    
+    @Test
+    public void testLogIsCapped() {
+        long version = changeLog.snapshotVersion(jedis);
+        write("f1", "f2", "f3", "f4", "f5", "f6", "f7");
+        Assert.assertEquals(5, jedis.llen(LOG).longValue());
+        // Version is older than the retained window
+        Assert.assertNull(changeLog.read(jedis, version));
+        Assert.assertEquals(2, changeLog.read(jedis, version + 5).getUids().size());
+    }
+    
+    @Test
+    public void testPendingWriteNotSkipped() {
+        long version = changeLog.snapshotVersion(jedis);
+        // Version reserved, entry not pushed yet
+        changeLog.reserve(jedis, 1);
+        write("f2");
+        RedisChangeLog.Changes changes = changeLog.read(jedis, version);
+        Assert.assertEquals(version, changes.getVersion());
+        Assert.assertTrue(changes.getUids().contains("f2"));
+    }
+    
+    @Test
+    public void testCounterReset() {
+        write("f1", "f2");
+        long version = changeLog.snapshotVersion(jedis);
+        jedis.del(VERSION);
+        Assert.assertNull(changeLog.read(jedis, version));
+    }
+
+}
@@ -27,6 +27,8 @@ import static org.ff4j.store.JdbcStoreConstants.COL_EVENT_SOURCE;
 import static org.ff4j.store.JdbcStoreConstants.COL_EVENT_USER;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -103,6 +105,25 @@ public class EventRepositorySpringJdbc extends AbstractEventRepository {
                 evt.getDuration(),  evt.getUser(), evt.getValue(), 
                 MappingUtil.fromMap(evt.getCustomKeys())) > 0;
     }
+    
+    /** {@inheritDoc} */
+    @Override
+    public boolean saveEvents(Collection < Event > events) {
+        if (events == null || events.isEmpty()) {
+            return true;
+        }
+        List < Object[] > batchArgs = new ArrayList<Object[]>(events.size());
+        for (Event evt : events) {
+            Util.assertEvent(evt);
+            batchArgs.add(new Object[] {
+                evt.getUuid(), new java.sql.Timestamp(evt.getTimestamp()), evt.getType(),
+                evt.getName(), evt.getAction(),  evt.getHostName(), evt.getSource(),
+                evt.getDuration(),  evt.getUser(), evt.getValue(), 
+                MappingUtil.fromMap(evt.getCustomKeys())});
+        }
+        getJdbcTemplate().batchUpdate(getQueryBuilder().sqlSaveAudit(), batchArgs);
+        return true;
+    }
 
     /** {@inheritDoc} */
     @Override
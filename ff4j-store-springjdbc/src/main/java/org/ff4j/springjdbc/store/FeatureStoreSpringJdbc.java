@@ -30,6 +30,7 @@ import org.ff4j.springjdbc.store.rowmapper.FeatureRowMapper;
 import org.ff4j.springjdbc.store.rowmapper.RoleRowMapper;
 import org.ff4j.store.AbstractFeatureStore;
 import org.ff4j.store.JdbcQueryBuilder;
+import org.ff4j.store.JdbcStoreConstants;
 import org.ff4j.utils.JdbcUtils;
 import org.ff4j.utils.MappingUtil;
 import org.ff4j.utils.Util;
@@ -69,6 +70,9 @@ public class FeatureStoreSpringJdbc extends AbstractFeatureStore {
     /** Query builder. */
     private JdbcQueryBuilder queryBuilder;
     
+    /** Presence of the LAST_MODIFIED column has been checked. */
+    private volatile boolean schemaChecked = false;
+    
     /**
      * Default constructor.
      */
@@ -411,6 +415,7 @@ public class FeatureStoreSpringJdbc extends AbstractFeatureStore {
         if (!JdbcUtils.isTableExist(dataSource, qb.getTableNameRoles())) {
             getJdbcTemplate().update(qb.sqlCreateTableRoles());
         }
+        schemaChecked = false;
     }
     
     /** {@inheritDoc} */
@@ -452,6 +457,9 @@ public class FeatureStoreSpringJdbc extends AbstractFeatureStore {
 		if (queryBuilder == null) {
 			queryBuilder = new JdbcQueryBuilder();
 		}
+		if (!schemaChecked && dataSource != null) {
+			checkSchema(queryBuilder);
+		}
 		return queryBuilder;
 	}
 
@@ -460,6 +468,21 @@ public class FeatureStoreSpringJdbc extends AbstractFeatureStore {
 	 */
 	public void setQueryBuilder(JdbcQueryBuilder queryBuilder) {
 		this.queryBuilder = queryBuilder;
+		this.schemaChecked = false;
 	}
+
+    /**
+     * Schemas created before the change feed have no LAST_MODIFIED column, queries must not set it.
+     * Checked once, when the table exists.
+     *
+     * @param qb
+     *     current query builder
+     */
+    private void checkSchema(JdbcQueryBuilder qb) {
+        if (JdbcUtils.isTableExist(dataSource, qb.getTableNameFeatures())) {
+            qb.setFeaturesLastModified(JdbcUtils.isColumnExist(dataSource, qb.getTableNameFeatures(), JdbcStoreConstants.COL_FEAT_LASTMODIFIED));
+            schemaChecked = true;
+        }
+    }
    
 }
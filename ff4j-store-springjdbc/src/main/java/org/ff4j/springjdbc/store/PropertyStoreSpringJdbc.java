@@ -41,6 +41,7 @@ import org.ff4j.property.store.AbstractPropertyStore;
 import org.ff4j.property.store.PropertyStore;
 import org.ff4j.springjdbc.store.rowmapper.CustomPropertyRowMapper;
 import org.ff4j.store.JdbcQueryBuilder;
+import org.ff4j.store.JdbcStoreConstants;
 import org.ff4j.utils.JdbcUtils;
 import org.ff4j.utils.Util;
 import org.springframework.beans.factory.annotation.Required;
@@ -69,6 +70,9 @@ public class PropertyStoreSpringJdbc extends AbstractPropertyStore {
     /** Query builder. */
     private JdbcQueryBuilder queryBuilder;
     
+    /** Presence of the LAST_MODIFIED column has been checked. */
+    private volatile boolean schemaChecked = false;
+    
     /**
      * Default constructor.
      */
@@ -198,6 +202,9 @@ public class PropertyStoreSpringJdbc extends AbstractPropertyStore {
 		if (queryBuilder == null) {
 			queryBuilder = new JdbcQueryBuilder();
 		}
+		if (!schemaChecked && dataSource != null) {
+			checkSchema(queryBuilder);
+		}
 		return queryBuilder;
 	}
 
@@ -206,8 +213,23 @@ public class PropertyStoreSpringJdbc extends AbstractPropertyStore {
 	 */
 	public void setQueryBuilder(JdbcQueryBuilder queryBuilder) {
 		this.queryBuilder = queryBuilder;
+		this.schemaChecked = false;
 	}
 
+    /**
+     * Schemas created before the change feed have no LAST_MODIFIED column, queries must not set it.
+     * Checked once, when the table exists.
+     *
+     * @param qb
+     *     current query builder
+     */
+    private void checkSchema(JdbcQueryBuilder qb) {
+        if (JdbcUtils.isTableExist(dataSource, qb.getTableNameProperties())) {
+            qb.setPropertiesLastModified(JdbcUtils.isColumnExist(dataSource, qb.getTableNameProperties(), JdbcStoreConstants.COL_PROPERTY_LASTMODIFIED));
+            schemaChecked = true;
+        }
+    }
+
 	/** {@inheritDoc} */
     @Override
     @Transactional
@@ -216,6 +238,7 @@ public class PropertyStoreSpringJdbc extends AbstractPropertyStore {
         if (!isTableExist(qb.getTableNameProperties())) {
             getJdbcTemplate().update(qb.sqlCreateTableProperties());
         }
+        schemaChecked = false;
     }
     
     public boolean isTableExist(String tableName) {
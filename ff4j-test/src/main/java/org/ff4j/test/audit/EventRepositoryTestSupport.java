@@ -9,6 +9,7 @@ import static org.ff4j.audit.EventConstants.SOURCE_WEBAPI;
 import static org.ff4j.audit.EventConstants.TARGET_FEATURE;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -169,6 +170,24 @@ public abstract class EventRepositoryTestSupport {
 		Assert.assertEquals(1, repo.getFeatureUsageTotalHitCount(eqd2));
 	}
 
+	/** TDD. */
+	@Test
+	public void testSaveEventsBatch() throws InterruptedException {
+		long start = System.currentTimeMillis();
+		// Given
+		List < Event > events = new ArrayList<Event>();
+		events.add(generateFeatureUsageEvent("f1"));
+		events.add(generateFeatureUsageEvent("f2"));
+		events.add(generateFeatureUsageEvent("f1"));
+		// When
+		Assert.assertTrue(repo.saveEvents(events));
+		// Wait for the events to be effectively store
+		Thread.sleep(100);
+		// Then
+		EventQueryDefinition eqd = new EventQueryDefinition(start - 20, System.currentTimeMillis());
+		Assert.assertEquals(3, repo.getFeatureUsageTotalHitCount(eqd));
+	}
+
 	/** TDD. */
 	@Test(expected = IllegalArgumentException.class)
 	public void testSaveEventNull() {
@@ -127,6 +127,24 @@ public abstract class FeatureStoreTestSupport {
 		assertFf4j.assertThatFeatureIsInGroup(F4, G1);
 	}
 
+	/**
+	 * TDD.
+	 */
+	@Test
+	public void testReadFeatures() {
+		// Given
+		assertFf4j.assertThatFeatureExist(F1);
+		assertFf4j.assertThatFeatureExist(F4);
+		assertFf4j.assertThatFeatureDoesNotExist("i-dont-exist");
+		// When
+		Map<String, Feature> features = testedStore.readFeatures(Util.set(F1, F4, "i-dont-exist"));
+		// Then
+		Assert.assertEquals(2, features.size());
+		Assert.assertEquals(F4, features.get(F4).getUid());
+		Assert.assertTrue(features.get(F4).getPermissions().contains(ROLE_ADMIN));
+		Assert.assertTrue(testedStore.readFeatures(new HashSet<String>()).isEmpty());
+	}
+
 	/**
 	 * TDD.
 	 */
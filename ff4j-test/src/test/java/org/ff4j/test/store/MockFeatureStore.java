@@ -29,6 +29,8 @@ import java.util.Set;
 
 import org.ff4j.core.Feature;
 import org.ff4j.core.FeatureStore;
+import org.ff4j.store.ChangeSet;
+import org.ff4j.store.ImportReport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -80,6 +82,22 @@ public class MockFeatureStore implements FeatureStore {
         return map;
     }
     
+    /** {@inheritDoc} */
+    public Map<String, Feature> readFeatures(Set<String> featureIds) {
+        Map < String, Feature> map = new HashMap<String, Feature>();
+        for (Feature f : readAll().values()) {
+            if (featureIds.contains(f.getUid())) {
+                map.put(f.getUid(), f);
+            }
+        }
+        return map;
+    }
+    
+    /** {@inheritDoc} */
+    public ChangeSet<Feature> featureChangesSince(long version) {
+        return ChangeSet.snapshot(version, readAll());
+    }
+    
     /** {@inheritDoc} */
     public void delete(String featureID) {
     	LOGGER.debug("MOCK [delete]" + featureID);
@@ -144,8 +162,9 @@ public class MockFeatureStore implements FeatureStore {
     }
 
     /** {@inheritDoc} */
-    public void importFeatures(Collection<Feature> features) {
+    public ImportReport importFeatures(Collection<Feature> features) {
         LOGGER.debug("MOCK [importFeatures]");
+        return new ImportReport();
     }
 
     /** {@inheritDoc} */
@@ -30,6 +30,8 @@ import java.util.Set;
 import org.ff4j.property.Property;
 import org.ff4j.property.PropertyString;
 import org.ff4j.property.store.PropertyStore;
+import org.ff4j.store.ChangeSet;
+import org.ff4j.store.ImportReport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -92,6 +94,11 @@ public class MockPropertyStore implements PropertyStore {
         return map;
     }
 
+    /** {@inheritDoc} */
+    public ChangeSet<Property<?>> propertyChangesSince(long version) {
+        return ChangeSet.snapshot(version, readAllProperties());
+    }
+
     /** {@inheritDoc} */
     public Set<String> listPropertyNames() {
     	LOGGER.debug("MOCK [listPropertyNames]");
@@ -110,8 +117,9 @@ public class MockPropertyStore implements PropertyStore {
 
     /** {@inheritDoc} */
     @Override
-    public void importProperties(Collection<Property<?>> properties) {
+    public ImportReport importProperties(Collection<Property<?>> properties) {
         LOGGER.debug("MOCK [importProperties]");
+        return new ImportReport();
     }
 
     /** {@inheritDoc} */
@@ -33,6 +33,7 @@ import org.ff4j.core.Feature;
 import org.ff4j.core.FlippingStrategy;
 import org.ff4j.property.Property;
 import org.ff4j.property.util.PropertyFactory;
+import org.ff4j.store.ChangeSet;
 import org.ff4j.utils.MappingUtil;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -232,4 +233,45 @@ public class FeatureJsonParser {
         }
     }
 
+    /**
+     * Parse the json expression of the changes of a store, as returned by the web api
+     * (version, updated, deleted, retained, snapshot).
+     *
+     * @param json
+     *      json expression
+     * @return
+     *      changes of the store
+     */
+    @SuppressWarnings("unchecked")
+    public static ChangeSet<Feature> parseFeatureChanges(String json) {
+        try {
+            Map<String, Object> changes = objectMapper.readValue(json, HashMap.class);
+            Map<String, Feature> updated = new LinkedHashMap<String, Feature>();
+            List<LinkedHashMap<String, Object>> features = (List<LinkedHashMap<String, Object>>) changes.get("updated");
+            if (features != null) {
+                for (LinkedHashMap<String, Object> ll : features) {
+                    Feature f = parseFeatureMap(ll);
+                    updated.put(f.getUid(), f);
+                }
+            }
+            return new ChangeSet<Feature>(((Number) changes.get("version")).longValue(), updated, 
+                    asSet((List<String>) changes.get("deleted")), asSet((List<String>) changes.get("retained")),
+                    Boolean.TRUE.equals(changes.get("snapshot")));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot parse JSON " + json, e);
+        }
+    }
+    
+    /**
+     * Convert list to set.
+     *
+     * @param list
+     *      list of identifiers, may be null
+     * @return
+     *      set, null if the list is null
+     */
+    static Set<String> asSet(List<String> list) {
+        return (list == null) ? null : new HashSet<String>(list);
+    }
+
 }
@@ -22,6 +22,7 @@ import java.util.ArrayList;
  * #L%
  */
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -31,6 +32,7 @@ import org.ff4j.core.Feature;
 import org.ff4j.property.Property;
 import org.ff4j.property.util.PropertyFactory;
 import org.ff4j.property.util.PropertyJsonBean;
+import org.ff4j.store.ChangeSet;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -136,6 +138,36 @@ public final class PropertyJsonParser {
             }
         }
         return pf.asProperty();
-    }    
+    }
+
+    /**
+     * Parse the json expression of the changes of a store, as returned by the web api
+     * (version, updated, deleted, retained, snapshot).
+     *
+     * @param json
+     *      json expression
+     * @return
+     *      changes of the store
+     */
+    @SuppressWarnings("unchecked")
+    public static ChangeSet<Property<?>> parsePropertyChanges(String json) {
+        try {
+            Map<String, Object> changes = objectMapper.readValue(json, HashMap.class);
+            Map<String, Property<?>> updated = new LinkedHashMap<String, Property<?>>();
+            List<LinkedHashMap<String, Object>> properties = (List<LinkedHashMap<String, Object>>) changes.get("updated");
+            if (properties != null) {
+                for (LinkedHashMap<String, Object> ll : properties) {
+                    Property<?> p = parsePropertyMap(ll);
+                    updated.put(p.getName(), p);
+                }
+            }
+            return new ChangeSet<Property<?>>(((Number) changes.get("version")).longValue(), updated, 
+                    FeatureJsonParser.asSet((List<String>) changes.get("deleted")), 
+                    FeatureJsonParser.asSet((List<String>) changes.get("retained")),
+                    Boolean.TRUE.equals(changes.get("snapshot")));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot parse JSON " + json, e);
+        }
+    }
 
 }
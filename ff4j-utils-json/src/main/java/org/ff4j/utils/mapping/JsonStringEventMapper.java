@@ -0,0 +1,68 @@
+package org.ff4j.utils.mapping;
+
+/*
+ * #%L
+ * ff4j-utils-json
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+
+import org.ff4j.audit.Event;
+import org.ff4j.mapper.EventMapper;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Implementation to map {@link Event} to Json String and vice-versa.
+ *
+ * @author Cedrick LUNVEN (@clunven)
+ */
+public class JsonStringEventMapper implements EventMapper< String > {
+
+    /** Jackson ObjectMapper for serialization and deserialization purpose. */
+    private static ObjectMapper objectMapper = new ObjectMapper();
+
+    static {
+        // Avoiding accidental breaks, since K/V stores are schema-free.
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toStore(Event bean) {
+        if (bean == null) return null;
+        try {
+            return objectMapper.writeValueAsString(bean);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot serialize event " + bean.getUuid(), e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Event fromStore(String json) {
+        if (json == null) return null;
+        try {
+            return objectMapper.readValue(json, Event.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read event from json", e);
+        }
+    }
+
+}
@@ -26,7 +26,6 @@ import java.io.InputStream;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
 import javax.servlet.ServletOutputStream;
@@ -37,11 +36,10 @@ import org.ff4j.FF4j;
 import org.ff4j.conf.XmlConfig;
 import org.ff4j.conf.XmlParser;
 import org.ff4j.core.Feature;
-import org.ff4j.core.FeatureStore;
 import org.ff4j.core.FlippingStrategy;
 import org.ff4j.property.Property;
-import org.ff4j.property.store.PropertyStore;
 import org.ff4j.property.util.PropertyFactory;
+import org.ff4j.store.ImportReport;
 import org.ff4j.utils.Util;
 import org.ff4j.web.bean.WebConstants;
 import org.slf4j.Logger;
@@ -313,28 +311,18 @@ public final class ConsoleOperations {
     public static void importFile(FF4j ff4j, InputStream in) 
     throws IOException {
         
-        FeatureStore store = ff4j.getFeatureStore();
         XmlConfig xmlConfig = new XmlParser().parseConfigurationFile(in);
-        Map<String, Feature> mapsOfFeat = xmlConfig.getFeatures();
-        for (Entry<String, Feature> feature : mapsOfFeat.entrySet()) {
-            if (store.exist(feature.getKey())) {
-                store.update(feature.getValue());
-            } else {
-                store.create(feature.getValue());
-            }
+        ImportReport featReport = ff4j.getFeatureStore().importFeatures(xmlConfig.getFeatures().values());
+        LOGGER.info("Features have been imported : " + featReport);
+        if (!featReport.isSuccess()) {
+            LOGGER.warn("Features not imported : " + featReport.getFailed());
         }
-        LOGGER.info(mapsOfFeat.size() + " features have been imported.");
         
-        PropertyStore pstore = ff4j.getPropertiesStore();
-        Map<String, Property<?>> mapsOfProperties = xmlConfig.getProperties();
-        for (Entry<String, Property<?>> p : mapsOfProperties.entrySet()) {
-            if (pstore.existProperty(p.getKey())) {
-                pstore.updateProperty(p.getValue());
-            } else {
-                pstore.createProperty(p.getValue());
-            }
+        ImportReport propReport = ff4j.getPropertiesStore().importProperties(xmlConfig.getProperties().values());
+        LOGGER.info("Properties have been imported : " + propReport);
+        if (!propReport.isSuccess()) {
+            LOGGER.warn("Properties not imported : " + propReport.getFailed());
         }
-        LOGGER.info(mapsOfProperties.size() + " features have been imported.");
     }
     
     /**
@@ -22,6 +22,7 @@ package org.ff4j.web.jersey1.store;
 
 import static org.ff4j.utils.json.FeatureJsonParser.parseFeature;
 import static org.ff4j.utils.json.FeatureJsonParser.parseFeatureArray;
+import static org.ff4j.utils.json.FeatureJsonParser.parseFeatureChanges;
 import static org.ff4j.web.FF4jWebConstants.HEADER_AUTHORIZATION;
 import static org.ff4j.web.FF4jWebConstants.OPERATION_ADDGROUP;
 import static org.ff4j.web.FF4jWebConstants.OPERATION_DISABLE;
@@ -30,6 +31,9 @@ import static org.ff4j.web.FF4jWebConstants.OPERATION_GRANTROLE;
 import static org.ff4j.web.FF4jWebConstants.OPERATION_REMOVEGROUP;
 import static org.ff4j.web.FF4jWebConstants.OPERATION_REMOVEROLE;
 import static org.ff4j.web.FF4jWebConstants.PARAM_AUTHKEY;
+import static org.ff4j.web.FF4jWebConstants.PARAM_SINCE;
+import static org.ff4j.web.FF4jWebConstants.PARAM_TIMEOUT;
+import static org.ff4j.web.FF4jWebConstants.RESOURCE_CHANGES;
 import static org.ff4j.web.FF4jWebConstants.RESOURCE_FEATURES;
 import static org.ff4j.web.FF4jWebConstants.RESOURCE_GROUPS;
 import static org.ff4j.web.FF4jWebConstants.RESOURCE_STORE;
@@ -42,6 +46,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response.Status;
 
@@ -52,10 +58,13 @@ import org.ff4j.exception.FeatureAlreadyExistException;
 import org.ff4j.exception.FeatureNotFoundException;
 import org.ff4j.exception.GroupNotFoundException;
 import org.ff4j.store.AbstractFeatureStore;
+import org.ff4j.store.ChangeSet;
 import org.ff4j.utils.Util;
 import org.ff4j.web.api.FF4jJacksonMapper;
 import org.ff4j.web.api.resources.domain.FeatureApiBean;
 import org.ff4j.web.api.resources.domain.GroupDescApiBean;
+import org.ff4j.web.api.store.RemoteSnapshot;
+import org.ff4j.web.api.store.RemoteSnapshotWatcher;
 
 import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.ClientResponse;
@@ -97,6 +106,12 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
 
     /** Target jersey resource. */
     private WebResource groupsWebRsc = null;
+    
+    /** Local copy of the features, disabled (time to live 0) by default. */
+    private final RemoteSnapshot < Feature > snapshot = new RemoteSnapshot<Feature>();
+    
+    /** Watcher of the change feed, null if not started. */
+    private RemoteSnapshotWatcher < Feature > watcher = null;
 
     /**
      * Default construtor
@@ -195,6 +210,13 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
         if (uid == null || uid.isEmpty()) {
             throw new IllegalArgumentException(FEATURE_IDENTIFIER_CANNOT_BE_NULL_NOR_EMPTY);
         }
+        if (snapshot.isEnabled()) {
+            Feature cached = cachedFeatures().get(uid);
+            if (cached == null) {
+                throw new FeatureNotFoundException(uid);
+            }
+            return new Feature(cached);
+        }
         ClientResponse cRes = getStore().path(uid).get(ClientResponse.class);
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new FeatureNotFoundException(uid);
@@ -209,6 +231,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
             throw new IllegalArgumentException(FEATURE_IDENTIFIER_CANNOT_BE_NULL_NOR_EMPTY);
         }
         ClientResponse cRes = getStore().path(uid).path(OPERATION_ENABLE).post(ClientResponse.class);
+        snapshot.invalidate();
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new FeatureNotFoundException(uid);
         }
@@ -221,6 +244,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
             throw new IllegalArgumentException(FEATURE_IDENTIFIER_CANNOT_BE_NULL_NOR_EMPTY);
         }
         ClientResponse cRes = getStore().path(uid).path(OPERATION_DISABLE).post(ClientResponse.class);
+        snapshot.invalidate();
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new FeatureNotFoundException(uid);
         }
@@ -232,6 +256,9 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
         if (uid == null || uid.isEmpty()) {
             throw new IllegalArgumentException(FEATURE_IDENTIFIER_CANNOT_BE_NULL_NOR_EMPTY);
         }
+        if (snapshot.isEnabled()) {
+            return cachedFeatures().containsKey(uid);
+        }
         ClientResponse cRes = getStore().path(uid).get(ClientResponse.class);
         if (Status.OK.getStatusCode() == cRes.getStatus()) {
             return true;
@@ -255,6 +282,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
         ClientResponse cRes = getStore().path(fp.getUid())//
                 .type(MediaType.APPLICATION_JSON) //
                 .put(ClientResponse.class, new FeatureApiBean(fp));
+        snapshot.invalidate();
         // Check response code CREATED or raised error
         if (Status.CREATED.getStatusCode() != cRes.getStatus()) {
             throw new FeatureAccessException("Cannot create feature, an HTTP error " + cRes.getStatus() + OCCURED);
@@ -264,6 +292,9 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
     /** {@inheritDoc} */
     @Override
     public Map<String, Feature> readAll() {
+        if (snapshot.isEnabled()) {
+            return copy(cachedFeatures(), null);
+        }
         ClientResponse cRes = getStore().get(ClientResponse.class);
         if (Status.OK.getStatusCode() != cRes.getStatus()) {
             throw new FeatureAccessException("Cannot read features, an HTTP error " + cRes.getStatus() + OCCURED);
@@ -284,6 +315,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
             throw new IllegalArgumentException(FEATURE_IDENTIFIER_CANNOT_BE_NULL_NOR_EMPTY);
         }
         ClientResponse cRes = getStore().path(uid).delete(ClientResponse.class);
+        snapshot.invalidate();
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new FeatureNotFoundException(uid);
         }
@@ -302,6 +334,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
         ClientResponse cRes = getStore().path(fp.getUid()) //
                 .type(MediaType.APPLICATION_JSON)
                 .put(ClientResponse.class, new FeatureApiBean(fp));
+        snapshot.invalidate();
         if (Status.NO_CONTENT.getStatusCode() != cRes.getStatus()) {
             throw new FeatureAccessException("Cannot update feature, an HTTP error " + cRes.getStatus() + OCCURED);
         }
@@ -317,6 +350,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
             throw new IllegalArgumentException(ROLE_NAME_CANNOT_BE_NULL_NOR_EMPTY);
         }
         ClientResponse cRes = getStore().path(uid).path(OPERATION_GRANTROLE).path(roleName).post(ClientResponse.class);
+        snapshot.invalidate();
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new FeatureNotFoundException(uid);
         }
@@ -335,6 +369,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
             throw new IllegalArgumentException(ROLE_NAME_CANNOT_BE_NULL_NOR_EMPTY);
         }
         ClientResponse cRes = getStore().path(uid).path(OPERATION_REMOVEROLE).path(roleName).post(ClientResponse.class);
+        snapshot.invalidate();
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new FeatureNotFoundException(uid);
         }
@@ -353,6 +388,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
             throw new IllegalArgumentException(GROUPNAME_CANNOT_BE_NULL_NOR_EMPTY);
         }
         ClientResponse cRes = getStore().path(uid).path(OPERATION_ADDGROUP).path(groupName).post(ClientResponse.class);
+        snapshot.invalidate();
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new FeatureNotFoundException(uid);
         }
@@ -371,6 +407,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
             throw new IllegalArgumentException(GROUPNAME_CANNOT_BE_NULL_NOR_EMPTY);
         }
         ClientResponse cRes = getStore().path(uid).path(OPERATION_REMOVEGROUP).path(groupName).post(ClientResponse.class);
+        snapshot.invalidate();
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new FeatureNotFoundException(uid);
         }
@@ -389,6 +426,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
             throw new IllegalArgumentException(GROUPNAME_CANNOT_BE_NULL_NOR_EMPTY);
         }
         ClientResponse cRes = getGroups().path(groupName).path(OPERATION_ENABLE).post(ClientResponse.class);
+        snapshot.invalidate();
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new GroupNotFoundException(groupName);
         }
@@ -404,6 +442,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
             throw new IllegalArgumentException(GROUPNAME_CANNOT_BE_NULL_NOR_EMPTY);
         }
         ClientResponse cRes = getGroups().path(groupName).path(OPERATION_DISABLE).post(ClientResponse.class);
+        snapshot.invalidate();
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new GroupNotFoundException(groupName);
         }
@@ -418,6 +457,13 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
         if (groupName == null || groupName.isEmpty()) {
             throw new IllegalArgumentException(GROUPNAME_CANNOT_BE_NULL_NOR_EMPTY);
         }
+        if (snapshot.isEnabled()) {
+            Map<String, Feature> features = copy(cachedFeatures(), groupName);
+            if (features.isEmpty()) {
+                throw new GroupNotFoundException(groupName);
+            }
+            return features;
+        }
         ClientResponse cRes = getGroups().path(groupName).get(ClientResponse.class);
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new GroupNotFoundException(groupName);
@@ -440,6 +486,9 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
         if (groupName == null || groupName.isEmpty()) {
             throw new IllegalArgumentException(GROUPNAME_CANNOT_BE_NULL_NOR_EMPTY);
         }
+        if (snapshot.isEnabled()) {
+            return !copy(cachedFeatures(), groupName).isEmpty();
+        }
         ClientResponse cRes = getGroups().path(groupName).get(ClientResponse.class);
         if (Status.OK.getStatusCode() == cRes.getStatus()) {
             return true;
@@ -453,6 +502,15 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
     /** {@inheritDoc} */
     @Override
     public Set<String> readAllGroups() {
+        if (snapshot.isEnabled()) {
+            Set < String > groupNames = new HashSet<String>();
+            for (Feature feature : cachedFeatures().values()) {
+                if (feature.getGroup() != null && !feature.getGroup().isEmpty()) {
+                    groupNames.add(feature.getGroup());
+                }
+            }
+            return groupNames;
+        }
         ClientResponse cRes = getGroups().get(ClientResponse.class);
         List<GroupDescApiBean> groupApiBeans = cRes.getEntity(new GenericType<List<GroupDescApiBean>>() {});
         if (Status.OK.getStatusCode() != cRes.getStatus()) {
@@ -473,6 +531,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
             wr.header(HEADER_AUTHORIZATION, authorization);
         }
         ClientResponse cRes = wr.post(ClientResponse.class);
+        snapshot.invalidate();
         if (Status.OK.getStatusCode() != cRes.getStatus()) {
             throw new FeatureAccessException("Cannot clear feature store - " + cRes.getStatus());
         }
@@ -492,6 +551,168 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
     }
 
     
+    /** {@inheritDoc} */
+    @Override
+    public ChangeSet<Feature> featureChangesSince(long version) {
+        return readChanges(version, 0);
+    }
+    
+    /**
+     * Read changes from the web api, the server waits up to 'timeout' milliseconds for a change.
+     *
+     * @param version
+     *      version already known
+     * @param timeout
+     *      maximum duration to wait for a change (milliseconds)
+     * @return
+     *      changes since version
+     */
+    private ChangeSet<Feature> readChanges(long version, long timeout) {
+        initJerseyClient();
+        ClientResponse cRes = client.resource(url).path(RESOURCE_STORE).path(RESOURCE_CHANGES)
+                .queryParam(PARAM_SINCE, String.valueOf(version))
+                .queryParam(PARAM_TIMEOUT, String.valueOf(timeout))
+                .get(ClientResponse.class);
+        if (Status.OK.getStatusCode() != cRes.getStatus()) {
+            throw new FeatureAccessException("Cannot read changes, an HTTP error " + cRes.getStatus() + OCCURED);
+        }
+        return parseFeatureChanges(cRes.getEntity(String.class));
+    }
+    
+    /**
+     * Features of the local copy, read again (conditionally with the entity tag) if not fresh.
+     *
+     * @return
+     *      read only features
+     */
+    private Map<String, Feature> cachedFeatures() {
+        Map<String, Feature> features = snapshot.getIfFresh();
+        if (features == null) {
+            synchronized (snapshot) {
+                features = snapshot.getIfFresh();
+                if (features == null) {
+                    features = fetchFeatures();
+                }
+            }
+        }
+        return features;
+    }
+    
+    /**
+     * Read all features, sending the entity tag of the local copy if any.
+     *
+     * @return
+     *      read only features
+     */
+    private Map<String, Feature> fetchFeatures() {
+        WebResource.Builder builder = getStore().accept(MediaType.APPLICATION_JSON_TYPE);
+        if (snapshot.getEtag() != null) {
+            builder.header(HttpHeaders.IF_NONE_MATCH, new EntityTag(snapshot.getEtag()));
+        }
+        ClientResponse cRes = builder.get(ClientResponse.class);
+        if (Status.NOT_MODIFIED.getStatusCode() == cRes.getStatus()) {
+            snapshot.notModified();
+            return snapshot.getItems();
+        }
+        if (Status.OK.getStatusCode() != cRes.getStatus()) {
+            throw new FeatureAccessException("Cannot read features, an HTTP error " + cRes.getStatus() + OCCURED);
+        }
+        Map<String, Feature> features = new HashMap<String, Feature>();
+        for (Feature feature : parseFeatureArray(cRes.getEntity(String.class))) {
+            features.put(feature.getUid(), feature);
+        }
+        EntityTag tag = cRes.getEntityTag();
+        snapshot.replace(features, (tag == null) ? null : tag.getValue());
+        return snapshot.getItems();
+    }
+    
+    /**
+     * Copy features of the local copy, callers can modify them.
+     *
+     * @param features
+     *      features of the local copy
+     * @param groupName
+     *      only features of this group, all if null
+     * @return
+     *      copies
+     */
+    private static Map<String, Feature> copy(Map<String, Feature> features, String groupName) {
+        Map<String, Feature> copies = new HashMap<String, Feature>();
+        for (Feature feature : features.values()) {
+            if (groupName == null || groupName.equals(feature.getGroup())) {
+                copies.put(feature.getUid(), new Feature(feature));
+            }
+        }
+        return copies;
+    }
+    
+    /**
+     * Keep a local copy of the features for 'timeToLive' milliseconds, revalidated with the
+     * entity tag of the web api. 0 (default) disables the local copy.
+     *
+     * @param timeToLive
+     *      duration the local copy can be used (milliseconds)
+     */
+    public void setCacheTimeToLive(long timeToLive) {
+        snapshot.setTimeToLive(timeToLive);
+        snapshot.invalidate();
+    }
+    
+    /**
+     * Getter accessor for the time to live of the local copy.
+     *
+     * @return
+     *      duration the local copy can be used (milliseconds), 0 if disabled
+     */
+    public long getCacheTimeToLive() {
+        return snapshot.getTimeToLive();
+    }
+    
+    /**
+     * Keep the local copy up to date by long polling the change feed of the web api. The time to
+     * live of the local copy should be greater than 'timeout'.
+     *
+     * @param timeout
+     *      duration of a long polling request (milliseconds)
+     */
+    public synchronized void startWatching(long timeout) {
+        if (watcher == null) {
+            watcher = new RemoteSnapshotWatcher<Feature>(snapshot) {
+                /** {@inheritDoc} */
+                @Override
+                protected ChangeSet<Feature> changesSince(long version, long timeoutMillis) {
+                    return readChanges(version, timeoutMillis);
+                }
+            };
+            watcher.setTimeout(timeout);
+            watcher.start();
+        }
+    }
+    
+    /**
+     * Stop watching the change feed.
+     */
+    public void stopWatching() {
+        stopWatching(0);
+    }
+    
+    /**
+     * Stop watching the change feed, waiting for the pending request to complete.
+     *
+     * @param waitMillis
+     *      maximum wait (milliseconds), 0 to return immediately
+     * @return
+     *      if the watching thread is terminated
+     */
+    public synchronized boolean stopWatching(long waitMillis) {
+        boolean stopped = true;
+        if (watcher != null) {
+            stopped = watcher.stop(waitMillis);
+            watcher = null;
+        }
+        return stopped;
+    }
+    
     // ------- Static for authentication -------
     
     /**
@@ -22,9 +22,12 @@ package org.ff4j.web.jersey1.store;
 
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response.Status;
 
@@ -35,10 +38,15 @@ import org.ff4j.exception.PropertyAlreadyExistException;
 import org.ff4j.exception.PropertyNotFoundException;
 import org.ff4j.property.Property;
 import org.ff4j.property.store.AbstractPropertyStore;
+import org.ff4j.property.util.PropertyFactory;
+import org.ff4j.property.util.PropertyJsonBean;
+import org.ff4j.store.ChangeSet;
 import org.ff4j.utils.Util;
 import org.ff4j.utils.json.PropertyJsonParser;
 import org.ff4j.web.api.FF4jJacksonMapper;
 import org.ff4j.web.api.resources.domain.PropertyApiBean;
+import org.ff4j.web.api.store.RemoteSnapshot;
+import org.ff4j.web.api.store.RemoteSnapshotWatcher;
 
 import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.ClientResponse;
@@ -70,6 +78,12 @@ public class PropertyStoreHttp extends AbstractPropertyStore {
     /** Target jersey resource. */
     private WebResource storeWebRsc = null;
     
+    /** Local copy of the properties, disabled (time to live 0) by default. */
+    private final RemoteSnapshot < Property<?> > snapshot = new RemoteSnapshot<Property<?>>();
+    
+    /** Watcher of the change feed, null if not started. */
+    private RemoteSnapshotWatcher < Property<?> > watcher = null;
+    
     /**
      * Default construtor
      */
@@ -148,6 +162,9 @@ public class PropertyStoreHttp extends AbstractPropertyStore {
     /** {@inheritDoc} */
     public boolean existProperty(String name) {
         Util.assertHasLength(name);
+        if (snapshot.isEnabled()) {
+            return cachedProperties().containsKey(name);
+        }
         ClientResponse cRes = getStore().path(name).get(ClientResponse.class);
         if (Status.OK.getStatusCode() == cRes.getStatus()) {
             return true;
@@ -183,6 +200,7 @@ public class PropertyStoreHttp extends AbstractPropertyStore {
         ClientResponse cRes = getStore().path(value.getName())//
                 .type(MediaType.APPLICATION_JSON) //
                 .put(ClientResponse.class, new PropertyApiBean(value));
+        snapshot.invalidate();
         
         // Check response code CREATED or raised error
         if (Status.CREATED.getStatusCode() != cRes.getStatus()) {
@@ -195,6 +213,13 @@ public class PropertyStoreHttp extends AbstractPropertyStore {
         if (name == null || name.isEmpty()) {
             throw new IllegalArgumentException("Property name cannot be null nor empty");
         }
+        if (snapshot.isEnabled()) {
+            Property<?> cached = cachedProperties().get(name);
+            if (cached == null) {
+                throw new PropertyNotFoundException(name);
+            }
+            return copy(cached);
+        }
         ClientResponse cRes = getStore().path(name).get(ClientResponse.class);
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new PropertyNotFoundException(name);
@@ -206,6 +231,7 @@ public class PropertyStoreHttp extends AbstractPropertyStore {
     public void deleteProperty(String name) {
         Util.assertHasLength(name);
         ClientResponse cRes = getStore().path(name).delete(ClientResponse.class);
+        snapshot.invalidate();
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new PropertyNotFoundException(name);
         }
@@ -216,6 +242,13 @@ public class PropertyStoreHttp extends AbstractPropertyStore {
 
     /** {@inheritDoc} */
     public Map<String, Property<?>> readAllProperties() {
+        if (snapshot.isEnabled()) {
+            Map<String, Property<?>> properties = new HashMap<String, Property<?>>();
+            for (Property<?> cached : cachedProperties().values()) {
+                properties.put(cached.getName(), copy(cached));
+            }
+            return properties;
+        }
         ClientResponse cRes = getStore().get(ClientResponse.class);
         if (Status.OK.getStatusCode() != cRes.getStatus()) {
             throw new PropertyAccessException("Cannot read properties, an HTTP error " + cRes.getStatus() + OCCURED);
@@ -231,6 +264,9 @@ public class PropertyStoreHttp extends AbstractPropertyStore {
 
     /** {@inheritDoc} */
     public Set<String> listPropertyNames() {
+        if (snapshot.isEnabled()) {
+            return new HashSet<String>(cachedProperties().keySet());
+        }
         return readAllProperties().keySet();
     }
 
@@ -241,11 +277,166 @@ public class PropertyStoreHttp extends AbstractPropertyStore {
             wr.header(HEADER_AUTHORIZATION, authorization);
         }
         ClientResponse cRes = wr.post(ClientResponse.class);
+        snapshot.invalidate();
         if (Status.OK.getStatusCode() != cRes.getStatus()) {
             throw new FeatureAccessException("Cannot clear property store - " + cRes.getStatus());
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public ChangeSet<Property<?>> propertyChangesSince(long version) {
+        return readChanges(version, 0);
+    }
+    
+    /**
+     * Read changes from the web api, the server waits up to 'timeout' milliseconds for a change.
+     *
+     * @param version
+     *      version already known
+     * @param timeout
+     *      maximum duration to wait for a change (milliseconds)
+     * @return
+     *      changes since version
+     */
+    private ChangeSet<Property<?>> readChanges(long version, long timeout) {
+        initJerseyClient();
+        ClientResponse cRes = client.resource(url).path(RESOURCE_PROPERTYSTORE).path(RESOURCE_CHANGES)
+                .queryParam(PARAM_SINCE, String.valueOf(version))
+                .queryParam(PARAM_TIMEOUT, String.valueOf(timeout))
+                .get(ClientResponse.class);
+        if (Status.OK.getStatusCode() != cRes.getStatus()) {
+            throw new PropertyAccessException("Cannot read changes, an HTTP error " + cRes.getStatus() + OCCURED);
+        }
+        return PropertyJsonParser.parsePropertyChanges(cRes.getEntity(String.class));
+    }
+    
+    /**
+     * Properties of the local copy, read again (conditionally with the entity tag) if not fresh.
+     *
+     * @return
+     *      read only properties
+     */
+    private Map<String, Property<?>> cachedProperties() {
+        Map<String, Property<?>> properties = snapshot.getIfFresh();
+        if (properties == null) {
+            synchronized (snapshot) {
+                properties = snapshot.getIfFresh();
+                if (properties == null) {
+                    properties = fetchProperties();
+                }
+            }
+        }
+        return properties;
+    }
+    
+    /**
+     * Read all properties, sending the entity tag of the local copy if any.
+     *
+     * @return
+     *      read only properties
+     */
+    private Map<String, Property<?>> fetchProperties() {
+        WebResource.Builder builder = getStore().accept(MediaType.APPLICATION_JSON_TYPE);
+        if (snapshot.getEtag() != null) {
+            builder.header(HttpHeaders.IF_NONE_MATCH, new EntityTag(snapshot.getEtag()));
+        }
+        ClientResponse cRes = builder.get(ClientResponse.class);
+        if (Status.NOT_MODIFIED.getStatusCode() == cRes.getStatus()) {
+            snapshot.notModified();
+            return snapshot.getItems();
+        }
+        if (Status.OK.getStatusCode() != cRes.getStatus()) {
+            throw new PropertyAccessException("Cannot read properties, an HTTP error " + cRes.getStatus() + OCCURED);
+        }
+        Map<String, Property<?>> properties = new HashMap<String, Property<?>>();
+        for (Property<?> pName : PropertyJsonParser.parsePropertyArray(cRes.getEntity(String.class))) {
+            properties.put(pName.getName(), pName);
+        }
+        EntityTag tag = cRes.getEntityTag();
+        snapshot.replace(properties, (tag == null) ? null : tag.getValue());
+        return snapshot.getItems();
+    }
+    
+    /**
+     * Copy a property of the local copy, callers can modify it.
+     *
+     * @param property
+     *      property of the local copy
+     * @return
+     *      copy
+     */
+    private static Property<?> copy(Property<?> property) {
+        return PropertyFactory.createProperty(new PropertyJsonBean(property));
+    }
+    
+    /**
+     * Keep a local copy of the properties for 'timeToLive' milliseconds, revalidated with the
+     * entity tag of the web api. 0 (default) disables the local copy.
+     *
+     * @param timeToLive
+     *      duration the local copy can be used (milliseconds)
+     */
+    public void setCacheTimeToLive(long timeToLive) {
+        snapshot.setTimeToLive(timeToLive);
+        snapshot.invalidate();
+    }
+    
+    /**
+     * Getter accessor for the time to live of the local copy.
+     *
+     * @return
+     *      duration the local copy can be used (milliseconds), 0 if disabled
+     */
+    public long getCacheTimeToLive() {
+        return snapshot.getTimeToLive();
+    }
+    
+    /**
+     * Keep the local copy up to date by long polling the change feed of the web api. The time to
+     * live of the local copy should be greater than 'timeout'.
+     *
+     * @param timeout
+     *      duration of a long polling request (milliseconds)
+     */
+    public synchronized void startWatching(long timeout) {
+        if (watcher == null) {
+            watcher = new RemoteSnapshotWatcher<Property<?>>(snapshot) {
+                /** {@inheritDoc} */
+                @Override
+                protected ChangeSet<Property<?>> changesSince(long version, long timeoutMillis) {
+                    return readChanges(version, timeoutMillis);
+                }
+            };
+            watcher.setTimeout(timeout);
+            watcher.start();
+        }
+    }
+    
+    /**
+     * Stop watching the change feed.
+     */
+    public void stopWatching() {
+        stopWatching(0);
+    }
+    
+    /**
+     * Stop watching the change feed, waiting for the pending request to complete.
+     *
+     * @param waitMillis
+     *      maximum wait (milliseconds), 0 to return immediately
+     * @return
+     *      if the watching thread is terminated
+     */
+    public synchronized boolean stopWatching(long waitMillis) {
+        boolean stopped = true;
+        if (watcher != null) {
+            stopped = watcher.stop(waitMillis);
+            watcher = null;
+        }
+        return stopped;
+    }
+    
     /**
      * Build Authorization header for technical user.
      * @param apiKey
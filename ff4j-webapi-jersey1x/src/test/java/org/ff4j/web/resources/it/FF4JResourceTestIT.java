@@ -182,4 +182,52 @@ public class FF4JResourceTestIT extends AbstractWebResourceTestIT {
         Assert.assertFalse(Boolean.valueOf(resEntity));
     }    
 
+    /**
+     * TDD.
+     */
+    @Test
+    public void testBulkCheckGET() {
+        // Given
+        assertFF4J.assertThatFeatureExist(F1);
+        ff4j.enable(F1);
+        assertFF4J.assertThatFeatureExist(F4);
+        ff4j.disable(F4);
+        // When
+        ClientResponse resHttp = resourceff4j().path(OPERATION_CHECK) //
+                .queryParam(PARAM_UID, F1).queryParam(PARAM_UID, F4) //
+                .get(ClientResponse.class);
+        String resEntity = resHttp.getEntity(String.class);
+        // Then
+        Assert.assertEquals("Expected status is 200", Status.OK.getStatusCode(), resHttp.getStatus());
+        Assert.assertTrue(resEntity, resEntity.contains("\"" + F1 + "\":true"));
+        Assert.assertTrue(resEntity, resEntity.contains("\"" + F4 + "\":false"));
+    }
+    
+    /**
+     * TDD.
+     */
+    @Test
+    public void testBulkCheckPOSTNotFound() {
+        // Given
+        assertFF4J.assertThatFeatureDoesNotExist(F_DOESNOTEXIST);
+        // When
+        MultivaluedMap<String, String> formData = new MultivaluedMapImpl();
+        formData.add(PARAM_UID, F1);
+        formData.add(PARAM_UID, F_DOESNOTEXIST);
+        ClientResponse resHttp = resourceff4j().path(OPERATION_CHECK) //
+                .type(MediaType.APPLICATION_FORM_URLENCODED).//
+                post(ClientResponse.class, formData);
+        // Then
+        Assert.assertEquals("Expected status is 404", Status.NOT_FOUND.getStatusCode(), resHttp.getStatus());
+    }
+    
+    /**
+     * TDD.
+     */
+    @Test
+    public void testBulkCheckWithoutFeature() {
+        ClientResponse resHttp = resourceff4j().path(OPERATION_CHECK).get(ClientResponse.class);
+        Assert.assertEquals("Expected status is 400", Status.BAD_REQUEST.getStatusCode(), resHttp.getStatus());
+    }
+
 }
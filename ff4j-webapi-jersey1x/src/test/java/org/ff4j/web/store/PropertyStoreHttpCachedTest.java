@@ -0,0 +1,41 @@
+package org.ff4j.web.store;
+
+/*
+ * #%L
+ * ff4j-webapi-jersey1x
+ * %%
+ * Copyright (C) 2013 - 2016 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.ff4j.property.store.PropertyStore;
+import org.ff4j.web.jersey1.store.PropertyStoreHttp;
+
+/**
+ * Run the store contract on {@link PropertyStoreHttp} with the local copy enabled.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class PropertyStoreHttpCachedTest extends PropertyStoreHttpTest {
+
+    /** {@inheritDoc} */
+    @Override
+    protected PropertyStore initPropertyStore() {
+        PropertyStoreHttp fst = new PropertyStoreHttp("http://localhost:9998/ff4j");
+        fst.setCacheTimeToLive(60000);
+        return fst;
+    }
+
+}
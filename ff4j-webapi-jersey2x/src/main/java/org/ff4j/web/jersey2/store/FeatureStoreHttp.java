@@ -22,6 +22,7 @@ package org.ff4j.web.jersey2.store;
 
 import static org.ff4j.utils.json.FeatureJsonParser.parseFeature;
 import static org.ff4j.utils.json.FeatureJsonParser.parseFeatureArray;
+import static org.ff4j.utils.json.FeatureJsonParser.parseFeatureChanges;
 
 import java.util.HashMap;
 import java.util.HashSet;
@@ -34,6 +35,8 @@ import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation;
 import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
@@ -44,9 +47,12 @@ import org.ff4j.exception.FeatureAlreadyExistException;
 import org.ff4j.exception.FeatureNotFoundException;
 import org.ff4j.exception.GroupNotFoundException;
 import org.ff4j.store.AbstractFeatureStore;
+import org.ff4j.store.ChangeSet;
 import org.ff4j.utils.Util;
 import org.ff4j.web.api.FF4jJacksonMapper;
 import org.ff4j.web.api.resources.domain.FeatureApiBean;
+import org.ff4j.web.api.store.RemoteSnapshot;
+import org.ff4j.web.api.store.RemoteSnapshotWatcher;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.internal.util.Base64;
 
@@ -86,6 +92,12 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
 
     /** Target jersey resource. */
     private WebTarget groupsWebRsc = null;
+    
+    /** Local copy of the features, disabled (time to live 0) by default. */
+    private final RemoteSnapshot < Feature > snapshot = new RemoteSnapshot<Feature>();
+    
+    /** Watcher of the change feed, null if not started. */
+    private RemoteSnapshotWatcher < Feature > watcher = null;
 
     /**
      * Default construtor
@@ -169,6 +181,13 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
     @Override
     public Feature read(String uid) {
         Util.assertHasLength(uid);
+        if (snapshot.isEnabled()) {
+            Feature cached = cachedFeatures().get(uid);
+            if (cached == null) {
+                throw new FeatureNotFoundException(uid);
+            }
+            return new Feature(cached);
+        }
         Response cRes = getStore().path(uid).request(MediaType.APPLICATION_JSON_TYPE).get();
         log.info(String.valueOf(getStore().path(uid)));
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
@@ -182,6 +201,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
     public void enable(String uid) {
         Util.assertHasLength(uid);
         Response cRes = post(getStore().path(uid).path(OPERATION_ENABLE));
+        snapshot.invalidate();
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new FeatureNotFoundException(uid);
         }
@@ -192,6 +212,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
     public void disable(String uid) {
         Util.assertHasLength(uid);
         Response cRes = post(getStore().path(uid).path(OPERATION_DISABLE));
+        snapshot.invalidate();
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new FeatureNotFoundException(uid);
         }
@@ -201,6 +222,9 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
     @Override
     public boolean exist(String uid) {
         Util.assertHasLength(uid);
+        if (snapshot.isEnabled()) {
+            return cachedFeatures().containsKey(uid);
+        }
         Response cRes = getStore().path(uid).request(MediaType.APPLICATION_JSON_TYPE).get();
         if (Status.OK.getStatusCode() == cRes.getStatus()) {
             return true;
@@ -224,6 +248,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
         Response cRes = getStore().path(fp.getUid())//
                 .request(MediaType.APPLICATION_JSON) //
                 .put(Entity.entity(new FeatureApiBean(fp), MediaType.APPLICATION_JSON));
+        snapshot.invalidate();
         // Check response code CREATED or raised error
         if (Status.CREATED.getStatusCode() != cRes.getStatus()) {
             throw new FeatureAccessException("Cannot create feature, an HTTP error " + cRes.getStatus() + OCCURED);
@@ -234,6 +259,9 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
     @Override
     public Map<String, Feature> readAll() {
         
+        if (snapshot.isEnabled()) {
+            return copy(cachedFeatures(), null);
+        }
         Response cRes = getStore().request(MediaType.APPLICATION_JSON_TYPE).get();
         if (Status.OK.getStatusCode() != cRes.getStatus()) {
             throw new FeatureAccessException("Cannot read features, an HTTP error " + cRes.getStatus() + OCCURED);
@@ -253,6 +281,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
     public void delete(String uid) {
         Util.assertHasLength(uid);
         Response cRes = getStore().path(uid).request().delete();
+        snapshot.invalidate();
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new FeatureNotFoundException(uid);
         }
@@ -273,6 +302,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
         Response cRes = getStore().path(fp.getUid()) //
                 .request(MediaType.APPLICATION_JSON)
                 .put(Entity.entity(new FeatureApiBean(fp), MediaType.APPLICATION_JSON));
+        snapshot.invalidate();
         if (Status.NO_CONTENT.getStatusCode() != cRes.getStatus()) {
             throw new FeatureAccessException("Cannot update feature, an HTTP error " + cRes.getStatus() + OCCURED);
         }
@@ -283,6 +313,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
     public void grantRoleOnFeature(String uid, String roleName) {
         Util.assertHasLength(uid, roleName);
         Response cRes = post(getStore().path(uid).path(OPERATION_GRANTROLE).path(roleName));
+        snapshot.invalidate();
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new FeatureNotFoundException(uid);
         }
@@ -296,6 +327,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
     public void removeRoleFromFeature(String uid, String roleName) {
         Util.assertHasLength(uid, roleName);
         Response cRes = post(getStore().path(uid).path(OPERATION_REMOVEROLE).path(roleName));
+        snapshot.invalidate();
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new FeatureNotFoundException(uid);
         }
@@ -310,6 +342,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
         Util.assertHasLength(uid, groupName);
         
         Response cRes = post(getStore().path(uid).path(OPERATION_ADDGROUP).path(groupName));
+        snapshot.invalidate();
        
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new FeatureNotFoundException(uid);
@@ -326,6 +359,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
     public void removeFromGroup(String uid, String groupName) {
         Util.assertHasLength(uid, groupName);
         Response cRes = post(getStore().path(uid).path(OPERATION_REMOVEGROUP).path(groupName));
+        snapshot.invalidate();
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new FeatureNotFoundException(uid);
         }
@@ -342,6 +376,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
     public void enableGroup(String groupName) {
         Util.assertHasLength(groupName);
         Response cRes = post(getGroups().path(groupName).path(OPERATION_ENABLE));
+        snapshot.invalidate();
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new GroupNotFoundException(groupName);
         }
@@ -355,6 +390,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
     public void disableGroup(String groupName) {
         Util.assertHasLength(groupName);
         Response cRes = post(getGroups().path(groupName).path(OPERATION_DISABLE));
+        snapshot.invalidate();
         
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new GroupNotFoundException(groupName);
@@ -368,6 +404,13 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
     /** {@inheritDoc} */
     public Map<String, Feature> readGroup(String groupName) {
         Util.assertHasLength(groupName);
+        if (snapshot.isEnabled()) {
+            Map<String, Feature> features = copy(cachedFeatures(), groupName);
+            if (features.isEmpty()) {
+                throw new GroupNotFoundException(groupName);
+            }
+            return features;
+        }
         Response cRes = getGroups().path(groupName).request(MediaType.APPLICATION_JSON).get();
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new GroupNotFoundException(groupName);
@@ -388,6 +431,9 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
     @Override
     public boolean existGroup(String groupName) {
         Util.assertHasLength(groupName);
+        if (snapshot.isEnabled()) {
+            return !copy(cachedFeatures(), groupName).isEmpty();
+        }
         Response cRes = getGroups().path(groupName).request(MediaType.APPLICATION_JSON).get();
         if (Status.OK.getStatusCode() == cRes.getStatus()) {
             return true;
@@ -402,6 +448,15 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
     @SuppressWarnings("unchecked")
     @Override
     public Set<String> readAllGroups() {
+        if (snapshot.isEnabled()) {
+            Set < String > groupNames = new HashSet<String>();
+            for (Feature feature : cachedFeatures().values()) {
+                if (feature.getGroup() != null && !feature.getGroup().isEmpty()) {
+                    groupNames.add(feature.getGroup());
+                }
+            }
+            return groupNames;
+        }
         Response cRes = getGroups().request(MediaType.APPLICATION_JSON).get();
         List < Map < String, String>> groupList = cRes.readEntity(List.class);
         if (Status.OK.getStatusCode() != cRes.getStatus()) {
@@ -419,6 +474,7 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
     public void clear() {
         WebTarget wr = client.target(url).path(RESOURCE_STORE).path(STORE_CLEAR);
         Response cRes = post(wr);
+        snapshot.invalidate();
         if (Status.OK.getStatusCode() != cRes.getStatus()) {
             throw new FeatureAccessException("Cannot clear feature store - " + cRes.getStatus());
         }
@@ -435,6 +491,168 @@ public class FeatureStoreHttp extends AbstractFeatureStore {
         
     }
     
+    /** {@inheritDoc} */
+    @Override
+    public ChangeSet<Feature> featureChangesSince(long version) {
+        return readChanges(version, 0);
+    }
+    
+    /**
+     * Read changes from the web api, the server waits up to 'timeout' milliseconds for a change.
+     *
+     * @param version
+     *      version already known
+     * @param timeout
+     *      maximum duration to wait for a change (milliseconds)
+     * @return
+     *      changes since version
+     */
+    private ChangeSet<Feature> readChanges(long version, long timeout) {
+        initJerseyClient();
+        Response cRes = client.target(url).path(RESOURCE_STORE).path(RESOURCE_CHANGES)
+                .queryParam(PARAM_SINCE, version)
+                .queryParam(PARAM_TIMEOUT, timeout)
+                .request(MediaType.APPLICATION_JSON_TYPE).get();
+        if (Status.OK.getStatusCode() != cRes.getStatus()) {
+            throw new FeatureAccessException("Cannot read changes, an HTTP error " + cRes.getStatus() + OCCURED);
+        }
+        return parseFeatureChanges(cRes.readEntity(String.class));
+    }
+    
+    /**
+     * Features of the local copy, read again (conditionally with the entity tag) if not fresh.
+     *
+     * @return
+     *      read only features
+     */
+    private Map<String, Feature> cachedFeatures() {
+        Map<String, Feature> features = snapshot.getIfFresh();
+        if (features == null) {
+            synchronized (snapshot) {
+                features = snapshot.getIfFresh();
+                if (features == null) {
+                    features = fetchFeatures();
+                }
+            }
+        }
+        return features;
+    }
+    
+    /**
+     * Read all features, sending the entity tag of the local copy if any.
+     *
+     * @return
+     *      read only features
+     */
+    private Map<String, Feature> fetchFeatures() {
+        Invocation.Builder invocationBuilder = getStore().request(MediaType.APPLICATION_JSON_TYPE);
+        if (snapshot.getEtag() != null) {
+            invocationBuilder.header(HttpHeaders.IF_NONE_MATCH, new EntityTag(snapshot.getEtag()));
+        }
+        Response cRes = invocationBuilder.get();
+        if (Status.NOT_MODIFIED.getStatusCode() == cRes.getStatus()) {
+            snapshot.notModified();
+            return snapshot.getItems();
+        }
+        if (Status.OK.getStatusCode() != cRes.getStatus()) {
+            throw new FeatureAccessException("Cannot read features, an HTTP error " + cRes.getStatus() + OCCURED);
+        }
+        Map<String, Feature> features = new HashMap<String, Feature>();
+        for (Feature feature : parseFeatureArray(cRes.readEntity(String.class))) {
+            features.put(feature.getUid(), feature);
+        }
+        EntityTag tag = cRes.getEntityTag();
+        snapshot.replace(features, (tag == null) ? null : tag.getValue());
+        return snapshot.getItems();
+    }
+    
+    /**
+     * Copy features of the local copy, callers can modify them.
+     *
+     * @param features
+     *      features of the local copy
+     * @param groupName
+     *      only features of this group, all if null
+     * @return
+     *      copies
+     */
+    private static Map<String, Feature> copy(Map<String, Feature> features, String groupName) {
+        Map<String, Feature> copies = new HashMap<String, Feature>();
+        for (Feature feature : features.values()) {
+            if (groupName == null || groupName.equals(feature.getGroup())) {
+                copies.put(feature.getUid(), new Feature(feature));
+            }
+        }
+        return copies;
+    }
+    
+    /**
+     * Keep a local copy of the features for 'timeToLive' milliseconds, revalidated with the
+     * entity tag of the web api. 0 (default) disables the local copy.
+     *
+     * @param timeToLive
+     *      duration the local copy can be used (milliseconds)
+     */
+    public void setCacheTimeToLive(long timeToLive) {
+        snapshot.setTimeToLive(timeToLive);
+        snapshot.invalidate();
+    }
+    
+    /**
+     * Getter accessor for the time to live of the local copy.
+     *
+     * @return
+     *      duration the local copy can be used (milliseconds), 0 if disabled
+     */
+    public long getCacheTimeToLive() {
+        return snapshot.getTimeToLive();
+    }
+    
+    /**
+     * Keep the local copy up to date by long polling the change feed of the web api. The time to
+     * live of the local copy should be greater than 'timeout'.
+     *
+     * @param timeout
+     *      duration of a long polling request (milliseconds)
+     */
+    public synchronized void startWatching(long timeout) {
+        if (watcher == null) {
+            watcher = new RemoteSnapshotWatcher<Feature>(snapshot) {
+                /** {@inheritDoc} */
+                @Override
+                protected ChangeSet<Feature> changesSince(long version, long timeoutMillis) {
+                    return readChanges(version, timeoutMillis);
+                }
+            };
+            watcher.setTimeout(timeout);
+            watcher.start();
+        }
+    }
+    
+    /**
+     * Stop watching the change feed.
+     */
+    public void stopWatching() {
+        stopWatching(0);
+    }
+    
+    /**
+     * Stop watching the change feed, waiting for the pending request to complete.
+     *
+     * @param waitMillis
+     *      maximum wait (milliseconds), 0 to return immediately
+     * @return
+     *      if the watching thread is terminated
+     */
+    public synchronized boolean stopWatching(long waitMillis) {
+        boolean stopped = true;
+        if (watcher != null) {
+            stopped = watcher.stop(waitMillis);
+            watcher = null;
+        }
+        return stopped;
+    }
+    
     // ------- Static for authentication -------
     
     /**
@@ -22,6 +22,7 @@ package org.ff4j.web.jersey2.store;
 
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -30,6 +31,8 @@ import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation;
 import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
@@ -40,10 +43,15 @@ import org.ff4j.exception.PropertyAlreadyExistException;
 import org.ff4j.exception.PropertyNotFoundException;
 import org.ff4j.property.Property;
 import org.ff4j.property.store.AbstractPropertyStore;
+import org.ff4j.property.util.PropertyFactory;
+import org.ff4j.property.util.PropertyJsonBean;
+import org.ff4j.store.ChangeSet;
 import org.ff4j.utils.Util;
 import org.ff4j.utils.json.PropertyJsonParser;
 import org.ff4j.web.api.FF4jJacksonMapper;
 import org.ff4j.web.api.resources.domain.PropertyApiBean;
+import org.ff4j.web.api.store.RemoteSnapshot;
+import org.ff4j.web.api.store.RemoteSnapshotWatcher;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.internal.util.Base64;
 
@@ -71,6 +79,12 @@ public class PropertyStoreHttp extends AbstractPropertyStore {
     /** Target jersey resource. */
     private WebTarget storeWebRsc = null;
     
+    /** Local copy of the properties, disabled (time to live 0) by default. */
+    private final RemoteSnapshot < Property<?> > snapshot = new RemoteSnapshot<Property<?>>();
+    
+    /** Watcher of the change feed, null if not started. */
+    private RemoteSnapshotWatcher < Property<?> > watcher = null;
+    
     /**
      * Default construtor
      */
@@ -145,6 +159,9 @@ public class PropertyStoreHttp extends AbstractPropertyStore {
     /** {@inheritDoc} */
     public boolean existProperty(String name) {
         Util.assertHasLength(name);
+        if (snapshot.isEnabled()) {
+            return cachedProperties().containsKey(name);
+        }
         Response cRes = getStore().path(name).request(MediaType.APPLICATION_JSON_TYPE).get();
         if (Status.OK.getStatusCode() == cRes.getStatus()) {
             return true;
@@ -167,6 +184,7 @@ public class PropertyStoreHttp extends AbstractPropertyStore {
         Response cRes = getStore().path(value.getName())//
                 .request(MediaType.APPLICATION_JSON)
                 .put(Entity.entity(new PropertyApiBean(value), MediaType.APPLICATION_JSON));
+        snapshot.invalidate();
         
         // Check response code CREATED or raised error
         if (Status.CREATED.getStatusCode() != cRes.getStatus()) {
@@ -179,6 +197,13 @@ public class PropertyStoreHttp extends AbstractPropertyStore {
         if (name == null || name.isEmpty()) {
             throw new IllegalArgumentException("Property name cannot be null nor empty");
         }
+        if (snapshot.isEnabled()) {
+            Property<?> cached = cachedProperties().get(name);
+            if (cached == null) {
+                throw new PropertyNotFoundException(name);
+            }
+            return copy(cached);
+        }
         Response cRes = getStore().path(name).request(MediaType.APPLICATION_JSON_TYPE).get();
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new PropertyNotFoundException(name);
@@ -191,6 +216,7 @@ public class PropertyStoreHttp extends AbstractPropertyStore {
     public void deleteProperty(String name) {
         Util.assertHasLength(name);
         Response cRes = getStore().path(name).request().delete();
+        snapshot.invalidate();
         if (Status.NOT_FOUND.getStatusCode() == cRes.getStatus()) {
             throw new PropertyNotFoundException(name);
         }
@@ -201,6 +227,13 @@ public class PropertyStoreHttp extends AbstractPropertyStore {
 
     /** {@inheritDoc} */
     public Map<String, Property<?>> readAllProperties() {
+        if (snapshot.isEnabled()) {
+            Map<String, Property<?>> properties = new HashMap<String, Property<?>>();
+            for (Property<?> cached : cachedProperties().values()) {
+                properties.put(cached.getName(), copy(cached));
+            }
+            return properties;
+        }
         Response cRes = getStore().request(MediaType.APPLICATION_JSON_TYPE).get();
         if (Status.OK.getStatusCode() != cRes.getStatus()) {
             throw new PropertyAccessException("Cannot read properties, an HTTP error " + cRes.getStatus() + OCCURED);
@@ -216,6 +249,9 @@ public class PropertyStoreHttp extends AbstractPropertyStore {
 
     /** {@inheritDoc} */
     public Set<String> listPropertyNames() {
+        if (snapshot.isEnabled()) {
+            return new HashSet<String>(cachedProperties().keySet());
+        }
         return readAllProperties().keySet();
     }
 
@@ -223,6 +259,7 @@ public class PropertyStoreHttp extends AbstractPropertyStore {
     public void clear() {
         WebTarget wr = client.target(url).path(RESOURCE_PROPERTYSTORE).path(STORE_CLEAR);
         Response cRes = post(wr);
+        snapshot.invalidate();
         if (Status.OK.getStatusCode() != cRes.getStatus()) {
             throw new PropertyAccessException("Cannot clear property store - " + cRes.getStatus());
         }
@@ -238,6 +275,160 @@ public class PropertyStoreHttp extends AbstractPropertyStore {
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public ChangeSet<Property<?>> propertyChangesSince(long version) {
+        return readChanges(version, 0);
+    }
+    
+    /**
+     * Read changes from the web api, the server waits up to 'timeout' milliseconds for a change.
+     *
+     * @param version
+     *      version already known
+     * @param timeout
+     *      maximum duration to wait for a change (milliseconds)
+     * @return
+     *      changes since version
+     */
+    private ChangeSet<Property<?>> readChanges(long version, long timeout) {
+        initJerseyClient();
+        Response cRes = client.target(url).path(RESOURCE_PROPERTYSTORE).path(RESOURCE_CHANGES)
+                .queryParam(PARAM_SINCE, version)
+                .queryParam(PARAM_TIMEOUT, timeout)
+                .request(MediaType.APPLICATION_JSON_TYPE).get();
+        if (Status.OK.getStatusCode() != cRes.getStatus()) {
+            throw new PropertyAccessException("Cannot read changes, an HTTP error " + cRes.getStatus() + OCCURED);
+        }
+        return PropertyJsonParser.parsePropertyChanges(cRes.readEntity(String.class));
+    }
+    
+    /**
+     * Properties of the local copy, read again (conditionally with the entity tag) if not fresh.
+     *
+     * @return
+     *      read only properties
+     */
+    private Map<String, Property<?>> cachedProperties() {
+        Map<String, Property<?>> properties = snapshot.getIfFresh();
+        if (properties == null) {
+            synchronized (snapshot) {
+                properties = snapshot.getIfFresh();
+                if (properties == null) {
+                    properties = fetchProperties();
+                }
+            }
+        }
+        return properties;
+    }
+    
+    /**
+     * Read all properties, sending the entity tag of the local copy if any.
+     *
+     * @return
+     *      read only properties
+     */
+    private Map<String, Property<?>> fetchProperties() {
+        Invocation.Builder invocationBuilder = getStore().request(MediaType.APPLICATION_JSON_TYPE);
+        if (snapshot.getEtag() != null) {
+            invocationBuilder.header(HttpHeaders.IF_NONE_MATCH, new EntityTag(snapshot.getEtag()));
+        }
+        Response cRes = invocationBuilder.get();
+        if (Status.NOT_MODIFIED.getStatusCode() == cRes.getStatus()) {
+            snapshot.notModified();
+            return snapshot.getItems();
+        }
+        if (Status.OK.getStatusCode() != cRes.getStatus()) {
+            throw new PropertyAccessException("Cannot read properties, an HTTP error " + cRes.getStatus() + OCCURED);
+        }
+        Map<String, Property<?>> properties = new HashMap<String, Property<?>>();
+        for (Property<?> pName : PropertyJsonParser.parsePropertyArray(cRes.readEntity(String.class))) {
+            properties.put(pName.getName(), pName);
+        }
+        EntityTag tag = cRes.getEntityTag();
+        snapshot.replace(properties, (tag == null) ? null : tag.getValue());
+        return snapshot.getItems();
+    }
+    
+    /**
+     * Copy a property of the local copy, callers can modify it.
+     *
+     * @param property
+     *      property of the local copy
+     * @return
+     *      copy
+     */
+    private static Property<?> copy(Property<?> property) {
+        return PropertyFactory.createProperty(new PropertyJsonBean(property));
+    }
+    
+    /**
+     * Keep a local copy of the properties for 'timeToLive' milliseconds, revalidated with the
+     * entity tag of the web api. 0 (default) disables the local copy.
+     *
+     * @param timeToLive
+     *      duration the local copy can be used (milliseconds)
+     */
+    public void setCacheTimeToLive(long timeToLive) {
+        snapshot.setTimeToLive(timeToLive);
+        snapshot.invalidate();
+    }
+    
+    /**
+     * Getter accessor for the time to live of the local copy.
+     *
+     * @return
+     *      duration the local copy can be used (milliseconds), 0 if disabled
+     */
+    public long getCacheTimeToLive() {
+        return snapshot.getTimeToLive();
+    }
+    
+    /**
+     * Keep the local copy up to date by long polling the change feed of the web api. The time to
+     * live of the local copy should be greater than 'timeout'.
+     *
+     * @param timeout
+     *      duration of a long polling request (milliseconds)
+     */
+    public synchronized void startWatching(long timeout) {
+        if (watcher == null) {
+            watcher = new RemoteSnapshotWatcher<Property<?>>(snapshot) {
+                /** {@inheritDoc} */
+                @Override
+                protected ChangeSet<Property<?>> changesSince(long version, long timeoutMillis) {
+                    return readChanges(version, timeoutMillis);
+                }
+            };
+            watcher.setTimeout(timeout);
+            watcher.start();
+        }
+    }
+    
+    /**
+     * Stop watching the change feed.
+     */
+    public void stopWatching() {
+        stopWatching(0);
+    }
+    
+    /**
+     * Stop watching the change feed, waiting for the pending request to complete.
+     *
+     * @param waitMillis
+     *      maximum wait (milliseconds), 0 to return immediately
+     * @return
+     *      if the watching thread is terminated
+     */
+    public synchronized boolean stopWatching(long waitMillis) {
+        boolean stopped = true;
+        if (watcher != null) {
+            stopped = watcher.stop(waitMillis);
+            watcher = null;
+        }
+        return stopped;
+    }
+    
     /**
      * Build Authorization header for technical user.
      * @param apiKey
@@ -0,0 +1,93 @@
+package org.ff4j.web.store;
+
+/*
+ * #%L
+ * ff4j-web
+ * %%
+ * Copyright (C) 2013 - 2014 Ff4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.ff4j.core.Feature;
+import org.ff4j.core.FeatureStore;
+import org.ff4j.store.ChangeSet;
+import org.ff4j.web.jersey2.store.FeatureStoreHttp;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.ff4j.test.TestsFf4jConstants.*;
+
+/**
+ * Run the store contract on {@link FeatureStoreHttp} with the local copy enabled.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class FeatureStoreHttpCachedTest extends FeatureStoreHttpTest {
+
+    /** {@inheritDoc} */
+    @Override
+    protected FeatureStore initStore() {
+        FeatureStoreHttp fst = new FeatureStoreHttp("http://localhost:9998/ff4j");
+        fst.setCacheTimeToLive(60000);
+        return fst;
+    }
+
+    /**
+     * TDD.
+     */
+    @Test
+    public void testReadReturnsCopies() {
+        // Given
+        assertFf4j.assertThatFeatureExist(F1);
+        // When
+        Feature f1 = testedStore.read(F1);
+        f1.setDescription("modified locally");
+        // Then
+        Assert.assertNotEquals("modified locally", testedStore.read(F1).getDescription());
+    }
+
+    /**
+     * TDD.
+     */
+    @Test
+    public void testRevalidateAfterWrite() {
+        // Given
+        FeatureStoreHttp other = new FeatureStoreHttp("http://localhost:9998/ff4j");
+        other.setCacheTimeToLive(60000);
+        Assert.assertTrue(other.read(F1).isEnable());
+        // When
+        testedStore.disable(F1);
+        // Then
+        Assert.assertTrue(other.read(F1).isEnable());
+        other.setCacheTimeToLive(60000);
+        Assert.assertFalse(other.read(F1).isEnable());
+        testedStore.enable(F1);
+    }
+
+    /**
+     * TDD.
+     */
+    @Test
+    public void testFeatureChangesSince() {
+        // When
+        ChangeSet<Feature> changes = testedStore.featureChangesSince(0);
+        // Then
+        Assert.assertTrue(changes.getUpdated().containsKey(F1));
+        Assert.assertFalse(changes.isDeleted(F1));
+        // In-memory store does not track changes, flag sent by the server
+        Assert.assertTrue(changes.isSnapshot());
+    }
+
+}
@@ -0,0 +1,184 @@
+package org.ff4j.web.store;
+
+/*
+ * #%L
+ * ff4j-webapi-jersey2x
+ * %%
+ * Copyright (C) 2013 - 2016 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static org.ff4j.test.TestsFf4jConstants.F1;
+import static org.ff4j.test.TestsFf4jConstants.F2;
+import static org.ff4j.test.TestsFf4jConstants.TEST_FEATURES_FILE;
+import static org.ff4j.utils.json.FeatureJsonParser.parseFeatureChanges;
+import static org.ff4j.web.FF4jWebConstants.PARAM_SINCE;
+import static org.ff4j.web.FF4jWebConstants.PARAM_TIMEOUT;
+import static org.ff4j.web.FF4jWebConstants.RESOURCE_CHANGES;
+import static org.ff4j.web.FF4jWebConstants.RESOURCE_STORE;
+
+import javax.ws.rs.Path;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.MediaType;
+
+import org.ff4j.FF4j;
+import org.ff4j.core.Feature;
+import org.ff4j.store.ChangeSet;
+import org.ff4j.store.JdbcFeatureStore;
+import org.ff4j.web.api.FF4jJacksonMapper;
+import org.ff4j.web.api.resources.ChangeNotifier;
+import org.ff4j.web.api.resources.FF4jResource;
+import org.ff4j.web.api.test.SampleFF4jJersey2Application;
+import org.ff4j.web.jersey2.store.FeatureStoreHttp;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.test.JerseyTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import io.swagger.jaxrs.json.JacksonJsonProvider;
+
+/**
+ * Watch the change feed of a web api backed by a {@link JdbcFeatureStore} : the feed lists every
+ * identifier in 'retained' but only the changed features in 'updated'.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class FeatureStoreHttpWatchJdbcTest extends JerseyTest {
+
+    /** Maximum wait for the watcher to apply a change (milliseconds). */
+    private static final long MAX_WAIT = 10000;
+
+    /** Embedded database. */
+    private EmbeddedDatabase db;
+
+    /** Store behind the web api. */
+    private JdbcFeatureStore jdbcStore;
+
+    /** Client with the local copy. */
+    private FeatureStoreHttp client;
+
+    /** {@inheritDoc} */
+    @Override
+    protected Application configure() {
+        db = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.HSQL).build();
+        jdbcStore = new JdbcFeatureStore(db);
+        jdbcStore.createSchema();
+        jdbcStore.importFeatures(new FF4j(TEST_FEATURES_FILE).getFeatureStore().readAll().values());
+        FF4j ff4j = new FF4j();
+        ff4j.setFeatureStore(jdbcStore);
+        
+        ClientConfig clientConfig = new ClientConfig();
+        clientConfig.register(JacksonJsonProvider.class);
+        clientConfig.register(FF4jJacksonMapper.class);
+        setClient(ClientBuilder.newClient(clientConfig));
+        return new SampleFF4jJersey2Application(ff4j);
+    }
+
+    /** {@inheritDoc} */
+    @After
+    @Override
+    public void tearDown() throws Exception {
+        // Pending long polling must not reach the server of the next test
+        if (client != null) {
+            Assert.assertTrue(client.stopWatching(MAX_WAIT));
+        }
+        ChangeNotifier.stopAll();
+        super.tearDown();
+        db.shutdown();
+    }
+
+    /**
+     * TDD.
+     */
+    @Test
+    public void testWatchKeepsUnchangedFeatures() throws Exception {
+        // Given
+        int size = jdbcStore.readAll().size();
+        client = new FeatureStoreHttp("http://localhost:9998/ff4j");
+        client.setCacheTimeToLive(60000);
+        client.startWatching(1000);
+        Assert.assertTrue(client.read(F1).isEnable());
+        // When
+        Thread.sleep(50);
+        jdbcStore.disable(F1);
+        jdbcStore.delete(F2);
+        // Then
+        long deadline = System.currentTimeMillis() + MAX_WAIT;
+        while ((client.read(F1).isEnable() || client.exist(F2)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        Assert.assertFalse(client.read(F1).isEnable());
+        Assert.assertFalse(client.exist(F2));
+        Assert.assertEquals(size - 1, client.readAll().size());
+    }
+
+    /**
+     * TDD.
+     */
+    @Test
+    public void testLongPollingWaitsWithoutChange() {
+        // Given
+        long version = jdbcStore.featureChangesSince(0).getVersion();
+        // When
+        long start = System.currentTimeMillis();
+        String changes = target().path(FF4jResource.class.getAnnotation(Path.class).value())
+                .path(RESOURCE_STORE).path(RESOURCE_CHANGES)
+                .queryParam(PARAM_SINCE, version)
+                .queryParam(PARAM_TIMEOUT, 1000)
+                .request(MediaType.APPLICATION_JSON_TYPE).get(String.class);
+        // Then
+        Assert.assertNotNull(changes);
+        Assert.assertTrue(System.currentTimeMillis() - start >= 900);
+    }
+
+    /**
+     * TDD.
+     */
+    @Test
+    public void testLongPollingWakesUpOnChange() throws Exception {
+        // Given
+        client = new FeatureStoreHttp("http://localhost:9998/ff4j");
+        ChangeSet<Feature> initial = client.featureChangesSince(0);
+        Assert.assertFalse(initial.isSnapshot());
+        // When
+        Thread writer = new Thread() {
+            public void run() {
+                try {
+                    Thread.sleep(1000);
+                    jdbcStore.disable(F1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        writer.start();
+        long start = System.currentTimeMillis();
+        String changes = target().path(FF4jResource.class.getAnnotation(Path.class).value())
+                .path(RESOURCE_STORE).path(RESOURCE_CHANGES)
+                .queryParam(PARAM_SINCE, initial.getVersion())
+                .queryParam(PARAM_TIMEOUT, MAX_WAIT)
+                .request(MediaType.APPLICATION_JSON_TYPE).get(String.class);
+        writer.join();
+        // Then
+        Assert.assertTrue(System.currentTimeMillis() - start < MAX_WAIT - 1000);
+        Assert.assertFalse(parseFeatureChanges(changes).getUpdated().get(F1).isEnable());
+    }
+
+}
@@ -20,8 +20,18 @@ package org.ff4j.web.api.resources;
  * #L%
  */
 
+import java.io.UnsupportedEncodingException;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.SecurityContext;
 import javax.ws.rs.core.UriInfo;
 
@@ -29,6 +39,7 @@ import org.ff4j.FF4j;
 import org.ff4j.audit.repository.EventRepository;
 import org.ff4j.core.FeatureStore;
 import org.ff4j.property.store.PropertyStore;
+import org.ff4j.store.ChangeSet;
 
 /**
  * SuperClass for common injections.
@@ -37,6 +48,12 @@ import org.ff4j.property.store.PropertyStore;
  */
 public abstract class AbstractResource {
     
+    /** Maximum duration of a long polling request (milliseconds). */
+    protected static final long LONG_POLL_MAX = 30000;
+    
+    /** Delay given to clients when too many requests are waiting (seconds). */
+    protected static final int LONG_POLL_RETRY_AFTER = 5;
+    
     /** Access to Features through store. */
     @Context
     protected FF4j ff4j = null;
@@ -100,6 +117,103 @@ public abstract class AbstractResource {
         return propertyStore;
     }
 
+    /**
+     * Build entity tag from the json of the returned items, clients can revalidate their copy
+     * with 'If-None-Match'.
+     *
+     * @param jsons
+     *      json of the items, in a stable order
+     * @return
+     *      entity tag
+     */
+    protected static EntityTag entityTag(Collection < String > jsons) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            for (String json : jsons) {
+                md.update(json.getBytes("UTF-8"));
+            }
+            return new EntityTag(new BigInteger(1, md.digest()).toString(16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot compute entity tag", e);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("Cannot compute entity tag", e);
+        }
+    }
+    
+    /**
+     * Reply '304 Not Modified' if the client already has this version, the entity otherwise.
+     *
+     * @param tag
+     *      entity tag of the current version
+     * @param entity
+     *      entity to return
+     * @return
+     *      response
+     */
+    protected Response conditionalOk(EntityTag tag, Object entity) {
+        if (request != null) {
+            ResponseBuilder notModified = request.evaluatePreconditions(tag);
+            if (notModified != null) {
+                return notModified.tag(tag).build();
+            }
+        }
+        return Response.ok(entity).tag(tag).build();
+    }
+    
+    /**
+     * Register a long polling request on the notifier of the store, reply '503 Service Unavailable'
+     * when too many requests are already waiting. The caller must call {@link ChangeNotifier#leave()}.
+     *
+     * @param notifier
+     *      notifier of the store
+     * @return
+     *      generation of the notifier, to be read before the store
+     */
+    protected static long enterLongPoll(ChangeNotifier < ? > notifier) {
+        if (!notifier.enter()) {
+            throw new WebApplicationException(Response.status(Status.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", LONG_POLL_RETRY_AFTER).build());
+        }
+        return notifier.getGeneration();
+    }
+    
+    /**
+     * Tell if the long polling can return : something changed since the version of the client.
+     *
+     * Stores listing their identifiers in 'retained' (without tracking deletions) return it on every call,
+     * with the latest items in 'updated' even if the client already has them : a change is then a newer
+     * version or a deletion. Other changes (late commits, removed identifiers) and the stores returning
+     * snapshots are detected by the {@link ChangeNotifier}.
+     *
+     * @param changes
+     *      changes read from the store
+     * @param since
+     *      version known by the client
+     * @return
+     *      if the changes must be sent without waiting
+     */
+    protected static < T > boolean hasChanges(ChangeSet < T > changes, long since) {
+        if (changes.isSnapshot()) {
+            return false;
+        }
+        if (changes.getRetained() == null) {
+            return !changes.getUpdated().isEmpty() || !changes.getDeleted().isEmpty();
+        }
+        return !changes.getDeleted().isEmpty() || changes.getVersion() > since;
+    }
+
+    /**
+     * Deadline of a long polling request.
+     *
+     * @param timeout
+     *      requested timeout (milliseconds)
+     * @return
+     *      deadline (milliseconds)
+     */
+    protected static long longPollDeadline(long timeout) {
+        return System.currentTimeMillis() + Math.min(Math.max(timeout, 0), LONG_POLL_MAX);
+    }
+
     /**
      * Setter accessor for attribute 'propertyStore'.
      * @param propertyStore
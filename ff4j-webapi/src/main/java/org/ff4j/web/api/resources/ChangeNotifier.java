@@ -0,0 +1,417 @@
+package org.ff4j.web.api.resources;
+
+/*
+ * #%L
+ * ff4j-web
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.ff4j.core.Feature;
+import org.ff4j.core.FeatureStore;
+import org.ff4j.property.Property;
+import org.ff4j.property.store.PropertyStore;
+import org.ff4j.store.ChangeSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Server side watcher of a store, shared by the long polling requests : a single thread reads the
+ * change feed and wakes up the waiting requests when the content really changed (json of the items
+ * compared to the previous read), whatever the number of clients.
+ *
+ * The thread is started by the first waiting request and stops when nobody waited for a while. The
+ * number of concurrent waiting requests is bounded, each of them holding a servlet thread.
+ *
+ * @param <T>
+ *      type of item (feature or property)
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public abstract class ChangeNotifier < T > implements Runnable {
+
+    /** Default wait between two reads of the change feed (milliseconds). */
+    public static final long DEFAULT_POLL_INTERVAL = 500;
+
+    /** Default maximum number of waiting requests. */
+    public static final int DEFAULT_MAX_WATCHERS = 100;
+
+    /** Default duration without waiting request before stopping the thread (milliseconds). */
+    public static final long DEFAULT_IDLE_TIMEOUT = 10000;
+
+    /** logger for this class. */
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeNotifier.class);
+
+    /** Notifiers of feature stores. */
+    private static final Map < FeatureStore, ChangeNotifier < Feature > > FEATURE_NOTIFIERS =
+            new WeakHashMap<FeatureStore, ChangeNotifier<Feature>>();
+
+    /** Notifiers of property stores. */
+    private static final Map < PropertyStore, ChangeNotifier < Property<?> > > PROPERTY_NOTIFIERS =
+            new WeakHashMap<PropertyStore, ChangeNotifier<Property<?>>>();
+
+    /** Wait between two reads of the change feed (milliseconds). */
+    private volatile long pollInterval = DEFAULT_POLL_INTERVAL;
+
+    /** Maximum number of waiting requests. */
+    private volatile int maxWatchers = DEFAULT_MAX_WATCHERS;
+
+    /** Duration without waiting request before stopping the thread (milliseconds). */
+    private volatile long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+    /** Incremented on each change, guarded by 'this'. */
+    private long generation = 0;
+
+    /** Number of waiting requests, guarded by 'this'. */
+    private int watchers = 0;
+
+    /** Last time a request stopped waiting, guarded by 'this'. */
+    private long lastWatch = 0;
+
+    /** Polling thread, null when stopped, guarded by 'this'. */
+    private Thread thread = null;
+
+    /** Lock of the polling state, a stopped thread can still be reading when a new one starts. */
+    private final Object pollLock = new Object();
+
+    /** Version to read next, guarded by 'pollLock'. */
+    private long version = 0;
+
+    /** Json of the items at last read, null before the first one, guarded by 'pollLock'. */
+    private Map < String, String > jsons = null;
+
+    /**
+     * Read the change feed of the store.
+     *
+     * @param since
+     *      version already read
+     * @return
+     *      changes, null if the store is not available anymore
+     */
+    protected abstract ChangeSet < T > readChanges(long since);
+
+    /**
+     * Json expression of an item, used to detect changes.
+     *
+     * @param item
+     *      current item
+     * @return
+     *      json expression
+     */
+    protected abstract String toJson(T item);
+
+    /**
+     * Notifier shared by the requests on a feature store.
+     *
+     * @param store
+     *      watched store
+     * @return
+     *      notifier of the store
+     */
+    public static ChangeNotifier < Feature > forFeatures(FeatureStore store) {
+        synchronized (FEATURE_NOTIFIERS) {
+            ChangeNotifier < Feature > notifier = FEATURE_NOTIFIERS.get(store);
+            if (notifier == null) {
+                final WeakReference < FeatureStore > ref = new WeakReference<FeatureStore>(store);
+                notifier = new ChangeNotifier<Feature>() {
+                    /** {@inheritDoc} */
+                    @Override
+                    protected ChangeSet<Feature> readChanges(long since) {
+                        FeatureStore fs = ref.get();
+                        return (fs == null) ? null : fs.featureChangesSince(since);
+                    }
+                    /** {@inheritDoc} */
+                    @Override
+                    protected String toJson(Feature item) {
+                        return item.toJson();
+                    }
+                };
+                FEATURE_NOTIFIERS.put(store, notifier);
+            }
+            return notifier;
+        }
+    }
+
+    /**
+     * Notifier shared by the requests on a property store.
+     *
+     * @param store
+     *      watched store
+     * @return
+     *      notifier of the store
+     */
+    public static ChangeNotifier < Property<?> > forProperties(PropertyStore store) {
+        synchronized (PROPERTY_NOTIFIERS) {
+            ChangeNotifier < Property<?> > notifier = PROPERTY_NOTIFIERS.get(store);
+            if (notifier == null) {
+                final WeakReference < PropertyStore > ref = new WeakReference<PropertyStore>(store);
+                notifier = new ChangeNotifier<Property<?>>() {
+                    /** {@inheritDoc} */
+                    @Override
+                    protected ChangeSet<Property<?>> readChanges(long since) {
+                        PropertyStore ps = ref.get();
+                        return (ps == null) ? null : ps.propertyChangesSince(since);
+                    }
+                    /** {@inheritDoc} */
+                    @Override
+                    protected String toJson(Property<?> item) {
+                        return item.toJson();
+                    }
+                };
+                PROPERTY_NOTIFIERS.put(store, notifier);
+            }
+            return notifier;
+        }
+    }
+
+    /**
+     * Stop the threads of all notifiers, for instance when the application is undeployed.
+     * Waiting requests return at their deadline.
+     */
+    public static void stopAll() {
+        List < ChangeNotifier < ? > > notifiers = new ArrayList<ChangeNotifier<?>>();
+        synchronized (FEATURE_NOTIFIERS) {
+            notifiers.addAll(FEATURE_NOTIFIERS.values());
+            FEATURE_NOTIFIERS.clear();
+        }
+        synchronized (PROPERTY_NOTIFIERS) {
+            notifiers.addAll(PROPERTY_NOTIFIERS.values());
+            PROPERTY_NOTIFIERS.clear();
+        }
+        for (ChangeNotifier<?> notifier : notifiers) {
+            notifier.stop();
+        }
+    }
+
+    /**
+     * Register a waiting request, starting the thread if needed.
+     *
+     * @return
+     *      false if the maximum number of waiting requests is reached
+     */
+    public synchronized boolean enter() {
+        if (watchers >= maxWatchers) {
+            return false;
+        }
+        watchers++;
+        if (thread == null) {
+            thread = new Thread(this, "ff4j-changes-notifier");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return true;
+    }
+
+    /**
+     * Unregister a waiting request.
+     */
+    public synchronized void leave() {
+        watchers--;
+        lastWatch = System.currentTimeMillis();
+    }
+
+    /**
+     * Current generation, to be read before the store to not miss a change.
+     *
+     * @return
+     *      number of changes seen so far
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Wait for a change after the given generation.
+     *
+     * @param known
+     *      generation read before the store
+     * @param deadline
+     *      end of the wait (milliseconds)
+     * @return
+     *      true if a change occured, false if the deadline is reached
+     */
+    public synchronized boolean await(long known, long deadline) {
+        while (generation == known) {
+            long wait = deadline - System.currentTimeMillis();
+            if (wait <= 0) {
+                return false;
+            }
+            try {
+                wait(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stop the polling thread, it is started again by the next waiting request.
+     */
+    public synchronized void stop() {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void run() {
+        while (isWatched()) {
+            try {
+                if (poll()) {
+                    signal();
+                }
+            } catch (RuntimeException e) {
+                LOG.warn("Cannot read changes of the store : " + e.getMessage());
+            }
+            try {
+                Thread.sleep(pollInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Tell if the thread must go on, release it otherwise.
+     *
+     * @return
+     *      if some requests are waiting or have waited recently
+     */
+    private synchronized boolean isWatched() {
+        if (thread != Thread.currentThread()) {
+            return false;
+        }
+        if (watchers == 0 && System.currentTimeMillis() - lastWatch > idleTimeout) {
+            thread = null;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Wake up the waiting requests.
+     */
+    private synchronized void signal() {
+        generation++;
+        notifyAll();
+    }
+
+    /**
+     * Read the change feed and compare with the previous read.
+     *
+     * @return
+     *      if the content of the store changed
+     */
+    private boolean poll() {
+        synchronized (pollLock) {
+            ChangeSet < T > changes = readChanges(version);
+            if (changes == null) {
+                return false;
+            }
+            boolean first = (jsons == null);
+            if (first) {
+                jsons = new HashMap<String, String>();
+            }
+            boolean changed = false;
+            for (Map.Entry < String, T > item : changes.getUpdated().entrySet()) {
+                String json = toJson(item.getValue());
+                if (!json.equals(jsons.put(item.getKey(), json))) {
+                    changed = true;
+                }
+            }
+            Iterator < String > uids = jsons.keySet().iterator();
+            while (uids.hasNext()) {
+                if (changes.isDeleted(uids.next())) {
+                    uids.remove();
+                    changed = true;
+                }
+            }
+            version = changes.getVersion();
+            return changed && !first;
+        }
+    }
+
+    /**
+     * Getter accessor for attribute 'pollInterval'.
+     *
+     * @return
+     *       current value of 'pollInterval'
+     */
+    public long getPollInterval() {
+        return pollInterval;
+    }
+
+    /**
+     * Setter accessor for attribute 'pollInterval'.
+     * @param pollInterval
+     *      new value for 'pollInterval '
+     */
+    public void setPollInterval(long pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Getter accessor for attribute 'maxWatchers'.
+     *
+     * @return
+     *       current value of 'maxWatchers'
+     */
+    public int getMaxWatchers() {
+        return maxWatchers;
+    }
+
+    /**
+     * Setter accessor for attribute 'maxWatchers'.
+     * @param maxWatchers
+     *      new value for 'maxWatchers '
+     */
+    public void setMaxWatchers(int maxWatchers) {
+        this.maxWatchers = maxWatchers;
+    }
+
+    /**
+     * Getter accessor for attribute 'idleTimeout'.
+     *
+     * @return
+     *       current value of 'idleTimeout'
+     */
+    public long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * Setter accessor for attribute 'idleTimeout'.
+     * @param idleTimeout
+     *      new value for 'idleTimeout '
+     */
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+}
@@ -20,6 +20,9 @@ package org.ff4j.web.api.resources;
  * #L%
  */
 
+import java.util.List;
+import java.util.Map;
+
 import javax.annotation.security.RolesAllowed;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
@@ -27,6 +30,7 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
@@ -164,4 +168,78 @@ public class FF4jResource extends AbstractResource {
        
     }
     
+    /**
+     * Check several features in a single call.
+     * 
+     * @param uids
+     *      features unique identifiers
+     * @return
+     *      status of each feature
+     */
+    @GET
+    @Path("/" + OPERATION_CHECK) 
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value= "<b>Bulk check</b> of feature toggles", response=Map.class)
+    @ApiResponses({
+        @ApiResponse(code = 200, message= "status of each feature"),
+        @ApiResponse(code = 400, message= "Invalid parameter"),
+        @ApiResponse(code = 404, message= "feature has not been found")})
+    public Response checkAll(@QueryParam(PARAM_UID) List<String> uids) {
+        return checkAll(uids, null);
+    }
+    
+    /**
+     * Check several features in a single call with the same execution context.
+     * 
+     * @param formParams
+     *      features unique identifiers (parameter 'uid', repeated) and custom params
+     * @return
+     *      status of each feature
+     */
+    @POST
+    @Path("/" + OPERATION_CHECK) 
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_FORM_URLENCODED)
+    @ApiOperation(value= "<b>Bulk check</b> of feature toggles (parameterized)", response=Map.class)
+    @ApiResponses({
+        @ApiResponse(code = 200, message= "status of each feature"),
+        @ApiResponse(code = 400, message= "Invalid parameter"),
+        @ApiResponse(code = 404, message= "feature has not been found")})
+    public Response checkAllPOST(MultivaluedMap<String, String> formParams) {
+        FlippingExecutionContext flipExecCtx = new FlippingExecutionContext();
+        for (String key : formParams.keySet()) {
+            if (!PARAM_UID.equals(key)) {
+                flipExecCtx.putString(key, formParams.getFirst(key));
+            }
+        }
+        return checkAll(formParams.get(PARAM_UID), flipExecCtx);
+    }
+    
+    /**
+     * Evaluate features with {@link org.ff4j.FF4j#checkAll(java.util.Collection, FlippingExecutionContext)}.
+     * 
+     * @param uids
+     *      features unique identifiers
+     * @param flipExecCtx
+     *      execution context, can be null
+     * @return
+     *      status of each feature
+     */
+    private Response checkAll(List<String> uids, FlippingExecutionContext flipExecCtx) {
+        // HoldSecurity Context
+        FF4JSecurityContextHolder.save(securityContext);
+        if (uids == null || uids.isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Parameter '" + PARAM_UID + "' is required").build();
+        }
+        try {
+            Map<String, Boolean> statuses = ff4j.checkAll(uids, flipExecCtx);
+            return Response.ok(statuses).build();
+        } catch(FeatureNotFoundException fnfe) {
+            return Response.status(Response.Status.NOT_FOUND).entity(fnfe.getMessage()).build();
+        } catch(IllegalArgumentException iae) {
+            String errMsg = "Invalid parameter " + iae.getMessage();
+            return Response.status(Response.Status.BAD_REQUEST).entity(errMsg).build();
+        }
+    }
+    
 }
@@ -22,6 +22,7 @@ package org.ff4j.web.api.resources;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -79,13 +80,15 @@ public class FeatureResource extends AbstractResource {
     @ApiOperation(value= "Read information about a feature", response=FeatureApiBean.class)
     @ApiResponses({
         @ApiResponse(code = 200, message= "Information about features"), 
+        @ApiResponse(code = 304, message= "Feature not modified since the version in 'If-None-Match'"), 
         @ApiResponse(code = 404, message= "Feature not found") })
     public Response read(@PathParam("uid") String id) {
        if (!ff4j.getFeatureStore().exist(id)) {
             String errMsg = new FeatureNotFoundException(id).getMessage();
             return Response.status(Response.Status.NOT_FOUND).entity(errMsg).build();
        }
-       return  Response.ok(new FeatureApiBean(ff4j.getFeatureStore().read(id))).build();
+       Feature feature = ff4j.getFeatureStore().read(id);
+       return conditionalOk(entityTag(Collections.singletonList(feature.toJson())), new FeatureApiBean(feature));
     }
 
     /**
@@ -1,6 +1,9 @@
 package org.ff4j.web.api.resources;
 
+import static org.ff4j.web.FF4jWebConstants.PARAM_SINCE;
+import static org.ff4j.web.FF4jWebConstants.PARAM_TIMEOUT;
 import static org.ff4j.web.FF4jWebConstants.RESOURCE_CACHE;
+import static org.ff4j.web.FF4jWebConstants.RESOURCE_CHANGES;
 import static org.ff4j.web.FF4jWebConstants.RESOURCE_FEATURES;
 import static org.ff4j.web.FF4jWebConstants.RESOURCE_GROUPS;
 import static org.ff4j.web.FF4jWebConstants.STORE_CLEAR;
@@ -30,20 +33,26 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 import javax.annotation.security.RolesAllowed;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
 import org.ff4j.cache.FF4jCacheProxy;
 import org.ff4j.core.Feature;
+import org.ff4j.store.ChangeSet;
 import org.ff4j.web.FF4jWebConstants;
 import org.ff4j.web.api.resources.domain.CacheApiBean;
 import org.ff4j.web.api.resources.domain.FeatureApiBean;
+import org.ff4j.web.api.resources.domain.FeatureChangesApiBean;
 import org.ff4j.web.api.resources.domain.FeatureStoreApiBean;
 import org.ff4j.web.api.resources.domain.GroupDescApiBean;
 import org.ff4j.web.api.resources.domain.PropertyStoreApiBean;
@@ -85,15 +94,60 @@ public class FeatureStoreResource extends AbstractResource {
     @GET
     @Path("/" + RESOURCE_FEATURES)
     @Produces(MediaType.APPLICATION_JSON)
-    @ApiOperation(value= "Display information regarding <b>Features</b>", response=FeatureApiBean.class)
-    @ApiResponses(@ApiResponse(code = 200, message= "get all features"))
-    public List < FeatureApiBean> readFeatures() {
-        Feature[] storeContent = getFeatureStore().readAll().values().toArray(new Feature[0]);
+    @ApiOperation(value= "Display information regarding <b>Features</b>", response=FeatureApiBean.class, responseContainer = "List")
+    @ApiResponses({
+        @ApiResponse(code = 200, message= "get all features"),
+        @ApiResponse(code = 304, message= "features not modified since the version in 'If-None-Match'") })
+    public Response readFeatures() {
+        // Sorted to get a stable entity tag
+        Map < String, Feature > storeContent = new TreeMap<String, Feature>(getFeatureStore().readAll());
         List < FeatureApiBean > apiBean = new ArrayList<FeatureApiBean>();
-        for (Feature feature : storeContent) {
+        List < String > jsons = new ArrayList<String>();
+        for (Feature feature : storeContent.values()) {
             apiBean.add(new FeatureApiBean(feature));
+            jsons.add(feature.toJson());
+        }
+        return conditionalOk(entityTag(jsons), new GenericEntity<List<FeatureApiBean>>(apiBean) {});
+    }
+    
+    /**
+     * Changes of the features since a version, waiting up to 'timeout' milliseconds for a change
+     * (long polling) when there is none.
+     *
+     * @param since
+     *      version known by the client, 0 for the first call
+     * @param timeout
+     *      maximum duration to wait for a change (milliseconds)
+     * @return
+     *      changes and version to give to the next call, '503 Service Unavailable' when too many
+     *      requests are waiting
+     */
+    @GET
+    @Path("/" + RESOURCE_CHANGES)
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value= "Changes of <b>Features</b> since a version", response=FeatureChangesApiBean.class)
+    @ApiResponses({
+        @ApiResponse(code = 200, message= "changes since version"),
+        @ApiResponse(code = 503, message= "too many waiting requests, retry later") })
+    public FeatureChangesApiBean readChanges(
+            @QueryParam(PARAM_SINCE) @DefaultValue("0") long since, 
+            @QueryParam(PARAM_TIMEOUT) @DefaultValue("0") long timeout) {
+        if (since == 0 || timeout <= 0) {
+            return new FeatureChangesApiBean(getFeatureStore().featureChangesSince(since));
+        }
+        // A single thread per store polls the feed, waiting requests are woken up on change
+        ChangeNotifier < Feature > notifier = ChangeNotifier.forFeatures(getFeatureStore());
+        long generation = enterLongPoll(notifier);
+        try {
+            ChangeSet < Feature > changes = getFeatureStore().featureChangesSince(since);
+            if (!hasChanges(changes, since)) {
+                notifier.await(generation, longPollDeadline(timeout));
+                changes = getFeatureStore().featureChangesSince(since);
+            }
+            return new FeatureChangesApiBean(changes);
+        } finally {
+            notifier.leave();
         }
-        return apiBean;
     }
 
     /**
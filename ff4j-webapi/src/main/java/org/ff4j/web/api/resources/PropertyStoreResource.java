@@ -2,21 +2,28 @@ package org.ff4j.web.api.resources;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import javax.annotation.security.RolesAllowed;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
 import org.ff4j.cache.FF4jCacheProxy;
 import org.ff4j.property.Property;
+import org.ff4j.store.ChangeSet;
 import org.ff4j.web.FF4jWebConstants;
 import org.ff4j.web.api.resources.domain.CacheApiBean;
 import org.ff4j.web.api.resources.domain.FeatureStoreApiBean;
 import org.ff4j.web.api.resources.domain.PropertyApiBean;
+import org.ff4j.web.api.resources.domain.PropertyChangesApiBean;
 import org.ff4j.web.api.resources.domain.PropertyStoreApiBean;
 
 import io.swagger.annotations.Api;
@@ -72,15 +79,60 @@ public class PropertyStoreResource  extends AbstractResource {
     @GET
     @Path("/" + RESOURCE_PROPERTIES)
     @Produces(MediaType.APPLICATION_JSON)
-    @ApiOperation(value= "Display information regarding <b>Properties</b>", response=PropertyApiBean.class)
-    @ApiResponses(@ApiResponse(code = 200, message= "get all Properties"))
-    public List < PropertyApiBean> readProperties() {
+    @ApiOperation(value= "Display information regarding <b>Properties</b>", response=PropertyApiBean.class, responseContainer = "List")
+    @ApiResponses({
+        @ApiResponse(code = 200, message= "get all Properties"),
+        @ApiResponse(code = 304, message= "properties not modified since the version in 'If-None-Match'") })
+    public Response readProperties() {
+        // Sorted to get a stable entity tag
+        Map < String, Property<?> > storeContent = new TreeMap<String, Property<?>>(getPropertyStore().readAllProperties());
         List < PropertyApiBean > apiBean = new ArrayList<PropertyApiBean>();
-        getPropertyStore().readAllProperties();
-        for (Property<?> prop : getPropertyStore().readAllProperties().values()) {
+        List < String > jsons = new ArrayList<String>();
+        for (Property<?> prop : storeContent.values()) {
             apiBean.add(new PropertyApiBean(prop));
+            jsons.add(prop.toJson());
+        }
+        return conditionalOk(entityTag(jsons), new GenericEntity<List<PropertyApiBean>>(apiBean) {});
+    }
+    
+    /**
+     * Changes of the properties since a version, waiting up to 'timeout' milliseconds for a
+     * change (long polling) when there is none.
+     *
+     * @param since
+     *      version known by the client, 0 for the first call
+     * @param timeout
+     *      maximum duration to wait for a change (milliseconds)
+     * @return
+     *      changes and version to give to the next call, '503 Service Unavailable' when too many
+     *      requests are waiting
+     */
+    @GET
+    @Path("/" + RESOURCE_CHANGES)
+    @Produces(MediaType.APPLICATION_JSON)
+    @ApiOperation(value= "Changes of <b>Properties</b> since a version", response=PropertyChangesApiBean.class)
+    @ApiResponses({
+        @ApiResponse(code = 200, message= "changes since version"),
+        @ApiResponse(code = 503, message= "too many waiting requests, retry later") })
+    public PropertyChangesApiBean readChanges(
+            @QueryParam(PARAM_SINCE) @DefaultValue("0") long since, 
+            @QueryParam(PARAM_TIMEOUT) @DefaultValue("0") long timeout) {
+        if (since == 0 || timeout <= 0) {
+            return new PropertyChangesApiBean(getPropertyStore().propertyChangesSince(since));
+        }
+        // A single thread per store polls the feed, waiting requests are woken up on change
+        ChangeNotifier < Property<?> > notifier = ChangeNotifier.forProperties(getPropertyStore());
+        long generation = enterLongPoll(notifier);
+        try {
+            ChangeSet < Property<?> > changes = getPropertyStore().propertyChangesSince(since);
+            if (!hasChanges(changes, since)) {
+                notifier.await(generation, longPollDeadline(timeout));
+                changes = getPropertyStore().propertyChangesSince(since);
+            }
+            return new PropertyChangesApiBean(changes);
+        } finally {
+            notifier.leave();
         }
-        return apiBean;
     }
     
     @POST
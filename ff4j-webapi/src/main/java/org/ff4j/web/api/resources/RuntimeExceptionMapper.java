@@ -43,6 +43,13 @@ public class RuntimeExceptionMapper implements ExceptionMapper<RuntimeException>
     /** {@inheritdoc} */
     @Override
     public Response toResponse(RuntimeException rex) {
+        if (rex instanceof WebApplicationException) {
+            // Keep the headers of the response (eg. 'Retry-After')
+            Response response = ((WebApplicationException) rex).getResponse();
+            if (response.getEntity() == null && !response.getMetadata().isEmpty()) {
+                return response;
+            }
+        }
         Status myStatus = getStatus(rex);
         return Response.status(myStatus).//
                 entity(rex.getMessage()). //
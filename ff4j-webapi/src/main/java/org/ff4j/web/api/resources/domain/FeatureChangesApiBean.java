@@ -0,0 +1,186 @@
+package org.ff4j.web.api.resources.domain;
+
+/*
+ * #%L
+ * ff4j-web
+ * %%
+ * Copyright (C) 2013 - 2017 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ff4j.core.Feature;
+import org.ff4j.store.ChangeSet;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+
+/**
+ * Changes of the feature store since a version, see {@link ChangeSet}.
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+@ApiModel( value = "featureChangesApiBean", description = "Changes of the feature store since a version" )
+public class FeatureChangesApiBean {
+    
+    /** Version to give to the next call. */
+    @ApiModelProperty( value = "version to give to the next call", required = true )
+    @JsonProperty("version")
+    private long version;
+    
+    /** Created or updated items. */
+    @ApiModelProperty( value = "created or updated features", required = true )
+    @JsonProperty("updated")
+    private List < FeatureApiBean > updated = new ArrayList<FeatureApiBean>();
+    
+    /** Deleted items. */
+    @ApiModelProperty( value = "names of deleted features", required = true )
+    @JsonProperty("deleted")
+    private List < String > deleted = new ArrayList<String>();
+    
+    /** All items of the store when deletions are not tracked. */
+    @ApiModelProperty( value = "names of all features when the store does not track deletions", required = false )
+    @JsonProperty("retained")
+    private List < String > retained = null;
+    
+    /** Full content of the store, not changes since the version. */
+    @ApiModelProperty( value = "if the lists hold the full content of the store", required = false )
+    @JsonProperty("snapshot")
+    private boolean snapshot = false;
+    
+    /**
+     * Default constructor
+     */
+    public FeatureChangesApiBean() {
+    }
+    
+    /**
+     * Initialization from changes of the store.
+     *
+     * @param changes
+     *      changes read from the store
+     */
+    public FeatureChangesApiBean(ChangeSet < Feature > changes) {
+        this.version = changes.getVersion();
+        for (Feature item : changes.getUpdated().values()) {
+            updated.add(new FeatureApiBean(item));
+        }
+        deleted.addAll(changes.getDeleted());
+        if (changes.getRetained() != null) {
+            retained = new ArrayList<String>(changes.getRetained());
+        }
+        snapshot = changes.isSnapshot();
+    }
+
+    /**
+     * Getter accessor for attribute 'version'.
+     *
+     * @return
+     *       current value of 'version'
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Setter accessor for attribute 'version'.
+     * @param version
+     * 		new value for 'version '
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Getter accessor for attribute 'updated'.
+     *
+     * @return
+     *       current value of 'updated'
+     */
+    public List<FeatureApiBean> getUpdated() {
+        return updated;
+    }
+
+    /**
+     * Setter accessor for attribute 'updated'.
+     * @param updated
+     * 		new value for 'updated '
+     */
+    public void setUpdated(List<FeatureApiBean> updated) {
+        this.updated = updated;
+    }
+
+    /**
+     * Getter accessor for attribute 'deleted'.
+     *
+     * @return
+     *       current value of 'deleted'
+     */
+    public List<String> getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * Setter accessor for attribute 'deleted'.
+     * @param deleted
+     * 		new value for 'deleted '
+     */
+    public void setDeleted(List<String> deleted) {
+        this.deleted = deleted;
+    }
+
+    /**
+     * Getter accessor for attribute 'retained'.
+     *
+     * @return
+     *       current value of 'retained'
+     */
+    public List<String> getRetained() {
+        return retained;
+    }
+
+    /**
+     * Setter accessor for attribute 'retained'.
+     * @param retained
+     * 		new value for 'retained '
+     */
+    public void setRetained(List<String> retained) {
+        this.retained = retained;
+    }
+
+    /**
+     * Getter accessor for attribute 'snapshot'.
+     *
+     * @return
+     *       current value of 'snapshot'
+     */
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Setter accessor for attribute 'snapshot'.
+     * @param snapshot
+     * 		new value for 'snapshot '
+     */
+    public void setSnapshot(boolean snapshot) {
+        this.snapshot = snapshot;
+    }
+
+}
@@ -0,0 +1,208 @@
+package org.ff4j.web.api.store;
+
+/*
+ * #%L
+ * ff4j-webapi
+ * %%
+ * Copyright (C) 2013 - 2015 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.ff4j.store.ChangeSet;
+
+/**
+ * Local copy of the items of a remote store (features or properties), revalidated with the
+ * entity tag returned by the web api or kept up to date with its change feed.
+ *
+ * The copy is used only while fresh : 'timeToLive' milliseconds after the last validation. A
+ * time to live of 0 disables the copy, every read goes to the remote store.
+ *
+ * @param <T>
+ *      type of item (feature or property)
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public class RemoteSnapshot < T > {
+
+    /** Duration the copy can be used without revalidation (milliseconds), 0 to disable. */
+    private long timeToLive = 0;
+
+    /** Items of the remote store, read only. */
+    private volatile Map < String, T > items = null;
+
+    /** Entity tag of the items, null if unknown. */
+    private volatile String etag = null;
+
+    /** Version of the change feed already applied. */
+    private volatile long version = 0;
+
+    /** Last validation of the items (milliseconds). */
+    private volatile long refreshDate = 0;
+
+    /**
+     * Default constructor.
+     */
+    public RemoteSnapshot() {
+    }
+
+    /**
+     * Initialization with time to live.
+     *
+     * @param timeToLive
+     *      duration the copy can be used without revalidation (milliseconds)
+     */
+    public RemoteSnapshot(long timeToLive) {
+        setTimeToLive(timeToLive);
+    }
+
+    /**
+     * Tell if the local copy is used.
+     *
+     * @return
+     *      if time to live is positive
+     */
+    public boolean isEnabled() {
+        return timeToLive > 0;
+    }
+
+    /**
+     * Items of the remote store if the copy is still fresh.
+     *
+     * @return
+     *      read only items, null if they must be read again
+     */
+    public Map < String, T > getIfFresh() {
+        Map < String, T > current = items;
+        if (current == null || System.currentTimeMillis() - refreshDate > timeToLive) {
+            return null;
+        }
+        return current;
+    }
+
+    /**
+     * Items of the remote store, fresh or not.
+     *
+     * @return
+     *      read only items, null if never read
+     */
+    public Map < String, T > getItems() {
+        return items;
+    }
+
+    /**
+     * Replace the items with a full read of the remote store.
+     *
+     * @param newItems
+     *      items of the remote store
+     * @param newEtag
+     *      entity tag returned with the items, can be null
+     */
+    public synchronized void replace(Map < String, T > newItems, String newEtag) {
+        this.items       = Collections.unmodifiableMap(new HashMap<String, T>(newItems));
+        this.etag        = newEtag;
+        this.refreshDate = System.currentTimeMillis();
+    }
+
+    /**
+     * The remote store replied '304 Not Modified', the items are valid again.
+     */
+    public synchronized void notModified() {
+        this.refreshDate = System.currentTimeMillis();
+    }
+
+    /**
+     * Apply changes read from the change feed of the remote store.
+     *
+     * @param changes
+     *      changes since the current version
+     */
+    public synchronized void apply(ChangeSet < T > changes) {
+        if (changes.isSnapshot()) {
+            // Full content of the store
+            this.items = Collections.unmodifiableMap(new HashMap<String, T>(changes.getUpdated()));
+            this.etag  = null;
+        } else if (items == null) {
+            // Delta without the items to apply it on, keep the version to get a full content next time
+            return;
+        } else if (!changes.getUpdated().isEmpty() || !changes.getDeleted().isEmpty() || changes.getRetained() != null) {
+            Map < String, T > delta = new HashMap<String, T>(items);
+            delta.putAll(changes.getUpdated());
+            delta.keySet().removeAll(changes.getDeleted());
+            if (changes.getRetained() != null) {
+                // Only the identifiers still in the store, not their content
+                delta.keySet().retainAll(changes.getRetained());
+            }
+            this.items = Collections.unmodifiableMap(delta);
+            this.etag  = null;
+        }
+        this.version     = changes.getVersion();
+        this.refreshDate = System.currentTimeMillis();
+    }
+
+    /**
+     * The remote store has been modified by this client, read it again before next use.
+     * The entity tag is kept to revalidate cheaply if nothing changed.
+     */
+    public synchronized void invalidate() {
+        this.refreshDate = 0;
+    }
+
+    /**
+     * Getter accessor for attribute 'etag'.
+     *
+     * @return
+     *       current value of 'etag'
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Getter accessor for attribute 'version'.
+     *
+     * @return
+     *       current value of 'version'
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Getter accessor for attribute 'timeToLive'.
+     *
+     * @return
+     *       current value of 'timeToLive'
+     */
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Setter accessor for attribute 'timeToLive'.
+     * @param timeToLive
+     *      new value for 'timeToLive ', 0 to disable the local copy
+     */
+    public void setTimeToLive(long timeToLive) {
+        if (timeToLive < 0) {
+            throw new IllegalArgumentException("Time to live cannot be negative");
+        }
+        this.timeToLive = timeToLive;
+    }
+
+}
@@ -0,0 +1,210 @@
+package org.ff4j.web.api.store;
+
+/*
+ * #%L
+ * ff4j-webapi
+ * %%
+ * Copyright (C) 2013 - 2015 FF4J
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.ff4j.store.ChangeSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keep a {@link RemoteSnapshot} up to date by long polling the change feed of the web api : the
+ * request is held by the server until a change occurs or the timeout is reached.
+ *
+ * @param <T>
+ *      type of item (feature or property)
+ *
+ * @author Cedrick Lunven (@clunven)
+ */
+public abstract class RemoteSnapshotWatcher < T > implements Runnable {
+
+    /** Default duration of a long polling request (milliseconds). */
+    public static final long DEFAULT_TIMEOUT = 20000;
+
+    /** Default wait after an error or a full read (milliseconds). */
+    public static final long DEFAULT_RETRY_DELAY = 5000;
+
+    /** logger for this class. */
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    /** Local copy to update. */
+    private final RemoteSnapshot < T > snapshot;
+
+    /** Duration of a long polling request (milliseconds). */
+    private long timeout = DEFAULT_TIMEOUT;
+
+    /** Wait after an error or a full read (milliseconds). */
+    private long retryDelay = DEFAULT_RETRY_DELAY;
+
+    /** Watching thread, null when stopped. */
+    private volatile Thread thread = null;
+
+    /**
+     * Initialization with the copy to update.
+     *
+     * @param snapshot
+     *      local copy
+     */
+    public RemoteSnapshotWatcher(RemoteSnapshot < T > snapshot) {
+        if (snapshot == null) {
+            throw new IllegalArgumentException("Snapshot cannot be null");
+        }
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Read changes from the remote store.
+     *
+     * @param version
+     *      version already applied
+     * @param timeoutMillis
+     *      maximum duration to wait for a change
+     * @return
+     *      changes since version
+     */
+    protected abstract ChangeSet < T > changesSince(long version, long timeoutMillis);
+
+    /**
+     * Start watching in a daemon thread.
+     */
+    public synchronized void start() {
+        if (thread == null) {
+            thread = new Thread(this, "ff4j-remote-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Stop watching, the pending request is abandoned.
+     */
+    public void stop() {
+        stop(0);
+    }
+
+    /**
+     * Stop watching, waiting for the pending request to complete (it is not interrupted by
+     * blocking http clients).
+     *
+     * @param waitMillis
+     *      maximum wait (milliseconds), 0 to return immediately
+     * @return
+     *      if the watching thread is terminated
+     */
+    public boolean stop(long waitMillis) {
+        Thread current;
+        synchronized (this) {
+            current = thread;
+            thread  = null;
+        }
+        if (current == null) {
+            return true;
+        }
+        current.interrupt();
+        if (waitMillis > 0 && current != Thread.currentThread()) {
+            try {
+                current.join(waitMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return !current.isAlive();
+    }
+
+    /**
+     * Tell if the watcher is running.
+     *
+     * @return
+     *      if started
+     */
+    public boolean isRunning() {
+        return thread != null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void run() {
+        while (thread == Thread.currentThread()) {
+            try {
+                long version = snapshot.getVersion();
+                ChangeSet < T > changes = changesSince(version, timeout);
+                snapshot.apply(changes);
+                if (version > 0 && changes.isSnapshot()) {
+                    // Remote store does not track changes, former servers return snapshots immediately
+                    pause();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Cannot read changes from remote store : " + e.getMessage());
+                snapshot.invalidate();
+                pause();
+            }
+        }
+    }
+
+    /**
+     * Wait before next call, exit on interruption.
+     */
+    private void pause() {
+        try {
+            Thread.sleep(retryDelay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Getter accessor for attribute 'timeout'.
+     *
+     * @return
+     *       current value of 'timeout'
+     */
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Setter accessor for attribute 'timeout'.
+     * @param timeout
+     *      new value for 'timeout '
+     */
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Getter accessor for attribute 'retryDelay'.
+     *
+     * @return
+     *       current value of 'retryDelay'
+     */
+    public long getRetryDelay() {
+        return retryDelay;
+    }
+
+    /**
+     * Setter accessor for attribute 'retryDelay'.
+     * @param retryDelay
+     *      new value for 'retryDelay '
+     */
+    public void setRetryDelay(long retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+}